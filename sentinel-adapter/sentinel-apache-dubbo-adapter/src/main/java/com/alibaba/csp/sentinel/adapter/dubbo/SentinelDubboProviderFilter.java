@@ -44,6 +44,9 @@ import static org.apache.dubbo.common.constants.CommonConstants.PROVIDER;
 @Activate(group = PROVIDER)
 public class SentinelDubboProviderFilter extends BaseSentinelDubboFilter {
 
+    private final SentinelResourceHandleCache handleCache = new SentinelResourceHandleCache(
+        ResourceTypeConstants.COMMON_RPC, EntryType.IN);
+
     public SentinelDubboProviderFilter() {
         RecordLog.info("Sentinel Apache Dubbo provider filter initialized");
     }
@@ -65,7 +68,6 @@ public class SentinelDubboProviderFilter extends BaseSentinelDubboFilter {
         if (null == origin) {
             origin = "";
         }
-        Entry interfaceEntry = null;
         Entry methodEntry = null;
         String prefix = DubboAdapterGlobalConfig.getDubboProviderResNamePrefixKey();
         String interfaceResourceName = getInterfaceName(invoker, prefix);
@@ -74,28 +76,22 @@ public class SentinelDubboProviderFilter extends BaseSentinelDubboFilter {
             // Only need to create entrance context at provider side, as context will take effect
             // at entrance of invocation chain only (for inbound traffic).
             ContextUtil.enter(methodResourceName, origin);
-            interfaceEntry = SphU.entry(interfaceResourceName, ResourceTypeConstants.COMMON_RPC, EntryType.IN);
-            methodEntry = SphU.entry(methodResourceName, ResourceTypeConstants.COMMON_RPC, EntryType.IN,
+            methodEntry = SphU.entry(handleCache.get(methodResourceName, interfaceResourceName), 1,
                 invocation.getArguments());
             Result result = invoker.invoke(invocation);
             if (result.hasException()) {
-                Tracer.traceEntry(result.getException(), interfaceEntry);
                 Tracer.traceEntry(result.getException(), methodEntry);
             }
             return result;
         } catch (BlockException e) {
             return DubboAdapterGlobalConfig.getProviderFallback().handle(invoker, invocation, e);
         } catch (RpcException e) {
-            Tracer.traceEntry(e, interfaceEntry);
             Tracer.traceEntry(e, methodEntry);
             throw e;
         } finally {
             if (methodEntry != null) {
                 methodEntry.exit(1, invocation.getArguments());
             }
-            if (interfaceEntry != null) {
-                interfaceEntry.exit();
-            }
             ContextUtil.exit();
         }
     }
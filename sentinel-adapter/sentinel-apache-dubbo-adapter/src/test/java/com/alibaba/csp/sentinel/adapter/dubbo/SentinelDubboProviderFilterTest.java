@@ -27,6 +27,9 @@ import com.alibaba.csp.sentinel.node.DefaultNode;
 import com.alibaba.csp.sentinel.node.Node;
 import com.alibaba.csp.sentinel.node.StatisticNode;
 import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRuleManager;
+import com.alibaba.csp.sentinel.slots.clusterbuilder.ClusterBuilderSlot;
 import org.apache.dubbo.common.URL;
 import org.apache.dubbo.common.constants.CommonConstants;
 import org.apache.dubbo.rpc.Invocation;
@@ -36,6 +39,7 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.Collections;
 import java.util.Map;
 import java.util.Set;
 
@@ -91,6 +95,66 @@ public class SentinelDubboProviderFilterTest extends BaseTest {
         assertNull(context);
     }
 
+    @Test
+    public void testBlockedByInterfaceRule() {
+        final String originApplication = "consumerA";
+        URL url = DubboTestUtil.getDefaultTestURL();
+        url = url.addParameter(CommonConstants.SIDE_KEY, CommonConstants.PROVIDER_SIDE);
+        Invoker invoker = DubboTestUtil.getMockInvoker(url, DemoService.class);
+        Invocation invocation = DubboTestUtil.getMockInvocation(DemoService.class.getMethods()[0]);
+        when(invocation.getAttachment(DubboUtils.SENTINEL_DUBBO_APPLICATION_KEY, ""))
+                .thenReturn(originApplication);
+        String interfaceResourceName = filter.getInterfaceName(invoker, null);
+        String methodResourceName = filter.getMethodName(invoker, invocation, null);
+        FlowRuleManager.loadRules(Collections.singletonList(new FlowRule(interfaceResourceName).setCount(0)));
+
+        Result result = filter.invoke(invoker, invocation);
+        assertTrue(result.hasException());
+        verify(invoker, never()).invoke(invocation);
+
+        // Only the interface records the block, the method is not reached.
+        ClusterNode interfaceClusterNode = ClusterBuilderSlot.getClusterNode(interfaceResourceName, EntryType.IN);
+        assertEquals(0, interfaceClusterNode.totalPass());
+        assertEquals(1, interfaceClusterNode.blockRequest());
+        assertEquals(1, interfaceClusterNode.getOriginCountMap().get(originApplication).blockRequest());
+        ClusterNode methodClusterNode = ClusterBuilderSlot.getClusterNode(methodResourceName, EntryType.IN);
+        assertEquals(0, methodClusterNode.totalPass());
+        assertEquals(0, methodClusterNode.blockRequest());
+        assertEquals(0, methodClusterNode.getOriginCountMap().get(originApplication).blockRequest());
+    }
+
+    @Test
+    public void testBlockedByMethodRule() {
+        final String originApplication = "consumerA";
+        URL url = DubboTestUtil.getDefaultTestURL();
+        url = url.addParameter(CommonConstants.SIDE_KEY, CommonConstants.PROVIDER_SIDE);
+        Invoker invoker = DubboTestUtil.getMockInvoker(url, DemoService.class);
+        Invocation invocation = DubboTestUtil.getMockInvocation(DemoService.class.getMethods()[0]);
+        when(invocation.getAttachment(DubboUtils.SENTINEL_DUBBO_APPLICATION_KEY, ""))
+                .thenReturn(originApplication);
+        String interfaceResourceName = filter.getInterfaceName(invoker, null);
+        String methodResourceName = filter.getMethodName(invoker, invocation, null);
+        FlowRuleManager.loadRules(Collections.singletonList(new FlowRule(methodResourceName).setCount(0)));
+
+        Result result = filter.invoke(invoker, invocation);
+        assertTrue(result.hasException());
+        verify(invoker, never()).invoke(invocation);
+
+        // The method records the block, while the interface has passed.
+        ClusterNode methodClusterNode = ClusterBuilderSlot.getClusterNode(methodResourceName, EntryType.IN);
+        assertEquals(0, methodClusterNode.totalPass());
+        assertEquals(1, methodClusterNode.blockRequest());
+        assertEquals(1, methodClusterNode.getOriginCountMap().get(originApplication).blockRequest());
+        ClusterNode interfaceClusterNode = ClusterBuilderSlot.getClusterNode(interfaceResourceName, EntryType.IN);
+        assertEquals(1, interfaceClusterNode.totalPass());
+        assertEquals(1, interfaceClusterNode.totalSuccess());
+        assertEquals(0, interfaceClusterNode.blockRequest());
+        assertEquals(0, interfaceClusterNode.curThreadNum());
+        StatisticNode interfaceOriginNode = interfaceClusterNode.getOriginCountMap().get(originApplication);
+        assertEquals(1, interfaceOriginNode.totalPass());
+        assertEquals(0, interfaceOriginNode.blockRequest());
+    }
+
     /**
      * Simply verify invocation structure in memory:
      * EntranceNode(methodResourceName)
@@ -111,18 +175,9 @@ public class SentinelDubboProviderFilterTest extends BaseTest {
         assertEquals(methodResourceName, entranceResource.getName());
         assertSame(EntryType.IN, entranceResource.getEntryType());
 
-        // As SphU.entry(interfaceName, EntryType.IN);
+        // As SphU.entry(handleCache.get(resourceName, interfaceName), ...);
         Set<Node> childList = entranceNode.getChildList();
         assertEquals(1, childList.size());
-        DefaultNode interfaceNode = (DefaultNode) childList.iterator().next();
-        ResourceWrapper interfaceResource = interfaceNode.getId();
-
-        assertEquals(filter.getInterfaceName(invoker, null), interfaceResource.getName());
-        assertSame(EntryType.IN, interfaceResource.getEntryType());
-
-        // As SphU.entry(resourceName, EntryType.IN, 1, invocation.getArguments());
-        childList = interfaceNode.getChildList();
-        assertEquals(1, childList.size());
         DefaultNode methodNode = (DefaultNode) childList.iterator().next();
         ResourceWrapper methodResource = methodNode.getId();
         assertEquals(methodResourceName, methodResource.getName());
@@ -131,12 +186,13 @@ public class SentinelDubboProviderFilterTest extends BaseTest {
         // Verify curEntry
         Entry curEntry = context.getCurEntry();
         assertSame(methodNode, curEntry.getCurNode());
-        assertSame(interfaceNode, curEntry.getLastNode());
+        assertNull(curEntry.getLastNode());
         assertNotNull(curEntry.getOriginNode());// As context origin is not "", originNode should be created
 
         // Verify clusterNode
         ClusterNode methodClusterNode = methodNode.getClusterNode();
-        ClusterNode interfaceClusterNode = interfaceNode.getClusterNode();
+        ClusterNode interfaceClusterNode = methodClusterNode.getParentNode();
+        assertEquals(filter.getInterfaceName(invoker, null), interfaceClusterNode.getName());
         assertNotSame(methodClusterNode, interfaceClusterNode);// Different resource->Different ProcessorSlot->Different ClusterNode
 
         // As context origin is not "", the StatisticNode should be created in originCountMap of ClusterNode
@@ -25,7 +25,6 @@ import org.apache.dubbo.rpc.*;
 import org.apache.dubbo.rpc.cluster.filter.ClusterFilter;
 import org.apache.dubbo.rpc.support.RpcUtils;
 
-import java.util.LinkedList;
 import java.util.Optional;
 
 import static org.apache.dubbo.common.constants.CommonConstants.CONSUMER;
@@ -45,6 +44,9 @@ import static org.apache.dubbo.common.constants.CommonConstants.CONSUMER;
 @Activate(group = CONSUMER)
 public class SentinelDubboConsumerFilter extends BaseSentinelDubboFilter implements ClusterFilter {
 
+    private final SentinelResourceHandleCache handleCache = new SentinelResourceHandleCache(
+        ResourceTypeConstants.COMMON_RPC, EntryType.OUT);
+
     public SentinelDubboConsumerFilter() {
         RecordLog.info("Sentinel Apache Dubbo3 consumer filter initialized");
     }
@@ -70,85 +72,49 @@ public class SentinelDubboConsumerFilter extends BaseSentinelDubboFilter impleme
     }
 
     private Result syncInvoke(Invoker<?> invoker, Invocation invocation) {
-        Entry interfaceEntry = null;
         Entry methodEntry = null;
         String prefix = DubboAdapterGlobalConfig.getDubboConsumerResNamePrefixKey();
         String interfaceResourceName = getInterfaceName(invoker, prefix);
         String methodResourceName = getMethodName(invoker, invocation, prefix);
         try {
-            interfaceEntry = SphU.entry(interfaceResourceName, ResourceTypeConstants.COMMON_RPC, EntryType.OUT);
-            methodEntry = SphU.entry(methodResourceName, ResourceTypeConstants.COMMON_RPC, EntryType.OUT,
+            methodEntry = SphU.entry(handleCache.get(methodResourceName, interfaceResourceName), 1,
                 invocation.getArguments());
             Result result = invoker.invoke(invocation);
             if (result.hasException()) {
-                Tracer.traceEntry(result.getException(), interfaceEntry);
                 Tracer.traceEntry(result.getException(), methodEntry);
             }
             return result;
         } catch (BlockException e) {
             return DubboAdapterGlobalConfig.getConsumerFallback().handle(invoker, invocation, e);
         } catch (RpcException e) {
-            Tracer.traceEntry(e, interfaceEntry);
             Tracer.traceEntry(e, methodEntry);
             throw e;
         } finally {
             if (methodEntry != null) {
                 methodEntry.exit(1, invocation.getArguments());
             }
-            if (interfaceEntry != null) {
-                interfaceEntry.exit();
-            }
         }
     }
 
     private Result asyncInvoke(Invoker<?> invoker, Invocation invocation) {
-        LinkedList<EntryHolder> queue = new LinkedList<>();
         String prefix = DubboAdapterGlobalConfig.getDubboConsumerResNamePrefixKey();
         String interfaceResourceName = getInterfaceName(invoker, prefix);
         String methodResourceName = getMethodName(invoker, invocation, prefix);
         try {
-            queue.push(new EntryHolder(
-                SphU.asyncEntry(interfaceResourceName, ResourceTypeConstants.COMMON_RPC, EntryType.OUT), null));
-            queue.push(new EntryHolder(
-                SphU.asyncEntry(methodResourceName, ResourceTypeConstants.COMMON_RPC,
-                    EntryType.OUT, 1, invocation.getArguments()), invocation.getArguments()));
+            Entry methodEntry = SphU.asyncEntry(handleCache.get(methodResourceName, interfaceResourceName), 1,
+                invocation.getArguments());
             Result result = invoker.invoke(invocation);
             result.whenCompleteWithContext((r, throwable) -> {
                 Throwable error = throwable;
                 if (error == null) {
                     error = Optional.ofNullable(r).map(Result::getException).orElse(null);
                 }
-                while (!queue.isEmpty()) {
-                    EntryHolder holder = queue.pop();
-                    Tracer.traceEntry(error, holder.entry);
-                    exitEntry(holder);
-                }
+                Tracer.traceEntry(error, methodEntry);
+                methodEntry.exit(1, invocation.getArguments());
             });
             return result;
         } catch (BlockException e) {
-            while (!queue.isEmpty()) {
-                exitEntry(queue.pop());
-            }
             return DubboAdapterGlobalConfig.getConsumerFallback().handle(invoker, invocation, e);
         }
     }
-
-    static class EntryHolder {
-
-        final private Entry entry;
-        final private Object[] params;
-
-        public EntryHolder(Entry entry, Object[] params) {
-            this.entry = entry;
-            this.params = params;
-        }
-    }
-
-    private void exitEntry(EntryHolder holder) {
-        if (holder.params != null) {
-            holder.entry.exit(1, holder.params);
-        } else {
-            holder.entry.exit();
-        }
-    }
 }
@@ -223,8 +223,7 @@ public class SentinelDubboConsumerFilterTest extends BaseTest {
     /**
      * Simply verify invocation structure in memory:
      * EntranceNode(defaultContextName)
-     * --InterfaceNode(interfaceName)
-     * ----MethodNode(resourceName)
+     * --MethodNode(resourceName), whose ClusterNode has the ClusterNode of interfaceName as parent
      */
     private void verifyInvocationStructure(Invoker invoker, Invocation invocation) {
         Context context = ContextUtil.getContext();
@@ -243,18 +242,9 @@ public class SentinelDubboConsumerFilterTest extends BaseTest {
         assertEquals(com.alibaba.csp.sentinel.Constants.CONTEXT_DEFAULT_NAME, entranceResource.getName());
         assertSame(EntryType.IN, entranceResource.getEntryType());
 
-        // As SphU.entry(interfaceName, EntryType.OUT);
+        // As SphU.entry(handleCache.get(resourceName, interfaceName), ...);
         Set<Node> childList = entranceNode.getChildList();
         assertEquals(1, childList.size());
-        DefaultNode interfaceNode = getNode(DubboUtils.getInterfaceName(invoker), entranceNode);
-        ResourceWrapper interfaceResource = interfaceNode.getId();
-
-        assertEquals(DubboUtils.getInterfaceName(invoker), interfaceResource.getName());
-        assertSame(EntryType.OUT, interfaceResource.getEntryType());
-
-        // As SphU.entry(resourceName, EntryType.OUT);
-        childList = interfaceNode.getChildList();
-        assertEquals(1, childList.size());
         DefaultNode methodNode = getNode(resourceName, entranceNode);
         ResourceWrapper methodResource = methodNode.getId();
         assertEquals(resourceName, methodResource.getName());
@@ -263,12 +253,13 @@ public class SentinelDubboConsumerFilterTest extends BaseTest {
         // Verify curEntry
         Entry curEntry = context.getCurEntry();
         assertSame(methodNode, curEntry.getCurNode());
-        assertSame(interfaceNode, curEntry.getLastNode());
+        assertNull(curEntry.getLastNode());
         assertNull(curEntry.getOriginNode());// As context origin is not "", no originNode should be created in curEntry
 
         // Verify clusterNode
         ClusterNode methodClusterNode = methodNode.getClusterNode();
-        ClusterNode interfaceClusterNode = interfaceNode.getClusterNode();
+        ClusterNode interfaceClusterNode = methodClusterNode.getParentNode();
+        assertEquals(DubboUtils.getInterfaceName(invoker), interfaceClusterNode.getName());
         assertNotSame(methodClusterNode,
                 interfaceClusterNode);// Different resource->Different ProcessorSlot->Different ClusterNode
 
@@ -297,17 +288,9 @@ public class SentinelDubboConsumerFilterTest extends BaseTest {
         assertEquals(com.alibaba.csp.sentinel.Constants.CONTEXT_DEFAULT_NAME, entranceResource.getName());
         assertSame(EntryType.IN, entranceResource.getEntryType());
 
-        // As SphU.entry(interfaceName, EntryType.OUT);
+        // As SphU.entry(handleCache.get(resourceName, interfaceName), ...);
         Set<Node> childList = entranceNode.getChildList();
-        assertEquals(2, childList.size());
-        DefaultNode interfaceNode = getNode(DubboUtils.getInterfaceName(invoker), entranceNode);
-        ResourceWrapper interfaceResource = interfaceNode.getId();
-        assertEquals(DubboUtils.getInterfaceName(invoker), interfaceResource.getName());
-        assertSame(EntryType.OUT, interfaceResource.getEntryType());
-
-        // As SphU.entry(resourceName, EntryType.OUT);
-        childList = interfaceNode.getChildList();
-        assertEquals(0, childList.size());
+        assertEquals(1, childList.size());
         DefaultNode methodNode = getNode(resourceName, entranceNode);
         ResourceWrapper methodResource = methodNode.getId();
         assertEquals(resourceName, methodResource.getName());
@@ -320,7 +303,8 @@ public class SentinelDubboConsumerFilterTest extends BaseTest {
 
         // Verify clusterNode
         ClusterNode methodClusterNode = methodNode.getClusterNode();
-        ClusterNode interfaceClusterNode = interfaceNode.getClusterNode();
+        ClusterNode interfaceClusterNode = methodClusterNode.getParentNode();
+        assertEquals(DubboUtils.getInterfaceName(invoker), interfaceClusterNode.getName());
         assertNotSame(methodClusterNode,
                 interfaceClusterNode);// Different resource->Different ProcessorSlot->Different ClusterNode
 
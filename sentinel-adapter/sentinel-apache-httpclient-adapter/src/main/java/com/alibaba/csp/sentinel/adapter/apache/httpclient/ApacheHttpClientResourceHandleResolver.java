@@ -0,0 +1,70 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.adapter.apache.httpclient;
+
+import com.alibaba.csp.sentinel.EntryType;
+import com.alibaba.csp.sentinel.ResourceTypeConstants;
+import com.alibaba.csp.sentinel.SentinelResourceHandle;
+import com.alibaba.csp.sentinel.SentinelResourceHandleCache;
+import com.alibaba.csp.sentinel.adapter.apache.httpclient.config.SentinelApacheHttpClientConfig;
+import com.alibaba.csp.sentinel.util.StringUtil;
+
+import org.apache.http.HttpHost;
+import org.apache.http.client.methods.HttpRequestWrapper;
+
+/**
+ * Resolves the resource handle of Apache HttpClient requests according to the {@link SentinelApacheHttpClientConfig}.
+ *
+ * @since 1.8.7
+ */
+final class ApacheHttpClientResourceHandleResolver {
+
+    private static final SentinelResourceHandleCache HANDLE_CACHE = new SentinelResourceHandleCache(
+        ResourceTypeConstants.COMMON_WEB, EntryType.OUT);
+    /**
+     * The parent of a handle is bound when it's created, so the handles with a host parent are kept separately.
+     */
+    private static final SentinelResourceHandleCache HOST_HANDLE_CACHE = new SentinelResourceHandleCache(
+        ResourceTypeConstants.COMMON_WEB, EntryType.OUT);
+
+    static SentinelResourceHandle resolve(HttpHost target, HttpRequestWrapper request,
+                                          SentinelApacheHttpClientConfig config) {
+        String name = config.getExtractor().extractor(request);
+        String prefix = config.getPrefix();
+        if (!config.isHostResourceEnabled() || target == null) {
+            return HANDLE_CACHE.get(StringUtil.isEmpty(prefix) ? name : prefix + name);
+        }
+        // The request URI is usually relative, so the host is a part of the resource name,
+        // otherwise the same path of different hosts would share the handle and the parent of the first host.
+        String hostResourceName = getHostResourceName(target, prefix);
+        return HOST_HANDLE_CACHE.get(getHostScopedResourceName(hostResourceName, name), hostResourceName);
+    }
+
+    static String getHostScopedResourceName(String hostResourceName, String name) {
+        return name.startsWith("/") ? hostResourceName + name : hostResourceName + '/' + name;
+    }
+
+    static String getHostResourceName(HttpHost target, String prefix) {
+        int port = target.getPort();
+        if (port < 0) {
+            port = "https".equalsIgnoreCase(target.getSchemeName()) ? 443 : 80;
+        }
+        String host = target.getHostName() + ':' + port;
+        return StringUtil.isEmpty(prefix) ? host : prefix + host;
+    }
+
+    private ApacheHttpClientResourceHandleResolver() {}
+}
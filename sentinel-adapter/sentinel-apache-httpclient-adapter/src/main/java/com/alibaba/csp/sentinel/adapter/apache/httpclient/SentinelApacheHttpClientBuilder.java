@@ -18,7 +18,6 @@ package com.alibaba.csp.sentinel.adapter.apache.httpclient;
 import com.alibaba.csp.sentinel.*;
 import com.alibaba.csp.sentinel.adapter.apache.httpclient.config.SentinelApacheHttpClientConfig;
 import com.alibaba.csp.sentinel.slots.block.BlockException;
-import com.alibaba.csp.sentinel.util.StringUtil;
 import org.apache.http.HttpException;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpExecutionAware;
@@ -54,11 +53,8 @@ public class SentinelApacheHttpClientBuilder extends HttpClientBuilder {
                     throws IOException, HttpException {
                 Entry entry = null;
                 try {
-                    String name = config.getExtractor().extractor(request);
-                    if (!StringUtil.isEmpty(config.getPrefix())) {
-                        name = config.getPrefix() + name;
-                    }
-                    entry = SphU.entry(name, ResourceTypeConstants.COMMON_WEB, EntryType.OUT);
+                    entry = SphU.entry(ApacheHttpClientResourceHandleResolver.resolve(route.getTargetHost(),
+                        request, config));
                     return mainExec.execute(route, request, clientContext, execAware);
                 } catch (BlockException e) {
                     return config.getFallback().handle(request, e);
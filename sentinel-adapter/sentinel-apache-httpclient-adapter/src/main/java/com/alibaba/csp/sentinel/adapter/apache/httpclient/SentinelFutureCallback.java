@@ -0,0 +1,125 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.adapter.apache.httpclient;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+
+import com.alibaba.csp.sentinel.AsyncEntry;
+import com.alibaba.csp.sentinel.SphU;
+import com.alibaba.csp.sentinel.Tracer;
+import com.alibaba.csp.sentinel.adapter.apache.httpclient.config.SentinelApacheHttpClientConfig;
+import com.alibaba.csp.sentinel.slots.block.BlockException;
+import com.alibaba.csp.sentinel.util.AssertUtil;
+
+import org.apache.http.HttpHost;
+import org.apache.http.client.methods.HttpRequestWrapper;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.client.utils.URIUtils;
+import org.apache.http.concurrent.FutureCallback;
+
+/**
+ * <p>{@link FutureCallback} of asynchronous requests guarded by an {@link AsyncEntry}, e.g. requests
+ * executed via {@code FutureRequestExecutionService} or an asynchronous HttpClient. The entry is created
+ * in the calling thread before the request is submitted (see {@link #wrap(HttpUriRequest, FutureCallback)}),
+ * so blocked requests never occupy the threads or the connections of the client, and the entry is
+ * completed when the request is done.</p>
+ *
+ * <p>The resource names are the same as {@link SentinelApacheHttpClientBuilder}. Note that the request
+ * should not be executed by a client built by {@link SentinelApacheHttpClientBuilder} at the same time,
+ * otherwise the request will be counted twice.</p>
+ *
+ * @param <T> type of the result
+ * @since 1.8.7
+ */
+public class SentinelFutureCallback<T> implements FutureCallback<T> {
+
+    private final AsyncEntry entry;
+    private final FutureCallback<T> delegate;
+
+    public SentinelFutureCallback(AsyncEntry entry, FutureCallback<T> delegate) {
+        AssertUtil.notNull(entry, "entry cannot be null");
+        this.entry = entry;
+        this.delegate = delegate;
+    }
+
+    /**
+     * Enter the resource of the request with the default config, and wrap the callback to complete the entry.
+     *
+     * @param request  the request to submit
+     * @param callback the callback of the request, which can be null
+     * @param <T>      type of the result
+     * @return the wrapped callback
+     * @throws BlockException if the request is blocked
+     */
+    public static <T> SentinelFutureCallback<T> wrap(HttpUriRequest request, FutureCallback<T> callback)
+        throws BlockException {
+        return wrap(request, callback, new SentinelApacheHttpClientConfig());
+    }
+
+    /**
+     * Enter the resource of the request, and wrap the callback to complete the entry.
+     *
+     * @param request  the request to submit
+     * @param callback the callback of the request, which can be null
+     * @param config   the config
+     * @param <T>      type of the result
+     * @return the wrapped callback
+     * @throws BlockException if the request is blocked
+     */
+    public static <T> SentinelFutureCallback<T> wrap(HttpUriRequest request, FutureCallback<T> callback,
+                                                     SentinelApacheHttpClientConfig config) throws BlockException {
+        AssertUtil.notNull(request, "request cannot be null");
+        AssertUtil.notNull(config, "config cannot be null");
+        URI uri = request.getURI();
+        HttpHost target = uri.isAbsolute() ? URIUtils.extractHost(uri) : null;
+        HttpRequestWrapper wrapper = HttpRequestWrapper.wrap(request, target);
+        if (target != null) {
+            // Keep the same request URI as the main execution of the client, which is relative to the target.
+            try {
+                wrapper.setURI(URIUtils.rewriteURI(uri, null, true));
+            } catch (URISyntaxException ignore) {
+            }
+        }
+        AsyncEntry entry = SphU.asyncEntry(ApacheHttpClientResourceHandleResolver.resolve(target, wrapper, config));
+        return new SentinelFutureCallback<>(entry, callback);
+    }
+
+    @Override
+    public void completed(T result) {
+        entry.exit();
+        if (delegate != null) {
+            delegate.completed(result);
+        }
+    }
+
+    @Override
+    public void failed(Exception ex) {
+        Tracer.traceEntry(ex, entry);
+        entry.exit();
+        if (delegate != null) {
+            delegate.failed(ex);
+        }
+    }
+
+    @Override
+    public void cancelled() {
+        entry.exit();
+        if (delegate != null) {
+            delegate.cancelled();
+        }
+    }
+}
@@ -29,6 +29,7 @@ public class SentinelApacheHttpClientConfig {
     private String prefix = "httpclient:";
     private ApacheHttpClientResourceExtractor extractor = new DefaultApacheHttpClientResourceExtractor();
     private ApacheHttpClientFallback fallback = new DefaultApacheHttpClientFallback();
+    private boolean hostResourceEnabled = false;
 
     public String getPrefix() {
         return prefix;
@@ -56,4 +57,24 @@ public class SentinelApacheHttpClientConfig {
         AssertUtil.notNull(fallback, "fallback cannot be null");
         this.fallback = fallback;
     }
+
+    /**
+     * @return whether the resource of the target host is entered along with the request resource
+     * @since 1.8.7
+     */
+    public boolean isHostResourceEnabled() {
+        return hostResourceEnabled;
+    }
+
+    /**
+     * Set whether to guard each request with the resource of its target host ({@code prefix + host:port})
+     * as well, which works as a per-host bulkhead when a thread-grade flow rule is configured for the
+     * host resource.
+     *
+     * @param hostResourceEnabled whether the host resource is enabled
+     * @since 1.8.7
+     */
+    public void setHostResourceEnabled(boolean hostResourceEnabled) {
+        this.hostResourceEnabled = hostResourceEnabled;
+    }
 }
@@ -15,15 +15,22 @@
  */
 package com.alibaba.csp.sentinel.adapter.apache.httpclient.extractor;
 
+import com.alibaba.csp.sentinel.util.UrlPathUtil;
+
 import org.apache.http.client.methods.HttpRequestWrapper;
 
 /**
+ * The default resource extractor, which extracts the resource name from the request URI.
+ * The query string of the URI is removed and the path segments which look like IDs are
+ * replaced with {@code {id}} (see {@link UrlPathUtil#normalizeUrl(String)}), so that the
+ * amount of resources won't grow with the requested entities.
+ *
  * @author zhaoyuguang
  */
 public class DefaultApacheHttpClientResourceExtractor implements ApacheHttpClientResourceExtractor {
 
     @Override
     public String extractor(HttpRequestWrapper request) {
-        return request.getRequestLine().getUri();
+        return UrlPathUtil.normalizeUrl(request.getRequestLine().getUri());
     }
 }
@@ -20,15 +20,24 @@ import com.alibaba.csp.sentinel.adapter.apache.httpclient.app.TestApplication;
 import com.alibaba.csp.sentinel.adapter.apache.httpclient.config.SentinelApacheHttpClientConfig;
 import com.alibaba.csp.sentinel.adapter.apache.httpclient.extractor.ApacheHttpClientResourceExtractor;
 import com.alibaba.csp.sentinel.node.ClusterNode;
+import com.alibaba.csp.sentinel.slots.block.BlockException;
+import com.alibaba.csp.sentinel.slots.block.RuleConstant;
+import com.alibaba.csp.sentinel.slots.block.SentinelRpcException;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRuleManager;
 import com.alibaba.csp.sentinel.slots.clusterbuilder.ClusterBuilderSlot;
 import org.apache.http.HttpEntity;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.methods.HttpRequestWrapper;
+import org.apache.http.impl.client.BasicResponseHandler;
 import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.FutureRequestExecutionService;
+import org.apache.http.impl.client.HttpClients;
 import org.apache.http.protocol.BasicHttpContext;
 import org.apache.http.protocol.HttpContext;
 import org.apache.http.util.EntityUtils;
+import org.junit.After;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Value;
@@ -36,8 +45,14 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.junit4.SpringRunner;
 
 import java.io.IOException;
+import java.util.Collections;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
 
 /**
  * @author zhaoyuguang
@@ -91,6 +106,96 @@ public class SentinelApacheHttpClientTest {
         ClusterBuilderSlot.getClusterNodeMap().clear();
     }
 
+    @Test
+    public void testHostResource() throws Exception {
+        SentinelApacheHttpClientConfig config = new SentinelApacheHttpClientConfig();
+        config.setPrefix("httpclient-host:");
+        config.setHostResourceEnabled(true);
+        String hostResourceName = "httpclient-host:localhost:" + port;
+
+        HttpGet httpGet = new HttpGet("http://localhost:" + port + "/httpclient/back/2?name=abc");
+        assertEquals("Welcome Back! 2", getRemoteString(new SentinelApacheHttpClientBuilder(config).build(), httpGet));
+        ClusterNode requestNode = ClusterBuilderSlot.getClusterNode(hostResourceName + "/httpclient/back/{id}");
+        assertNotNull(requestNode);
+        ClusterNode hostNode = ClusterBuilderSlot.getClusterNode(hostResourceName);
+        assertNotNull(hostNode);
+        assertSame(hostNode, requestNode.getParentNode());
+        assertEquals(1, hostNode.totalPass());
+
+        // No concurrent requests are allowed for the host.
+        FlowRuleManager.loadRules(Collections.singletonList(
+            new FlowRule(hostResourceName).setGrade(RuleConstant.FLOW_GRADE_THREAD).setCount(0)));
+        try {
+            getRemoteString(new SentinelApacheHttpClientBuilder(config).build(), httpGet);
+            fail("The request should be blocked");
+        } catch (SentinelRpcException ex) {
+            assertEquals(1, hostNode.blockRequest());
+        }
+    }
+
+    @Test
+    public void testHostResourceOfDifferentHosts() throws Exception {
+        SentinelApacheHttpClientConfig config = new SentinelApacheHttpClientConfig();
+        config.setPrefix("httpclient-hosts:");
+        config.setHostResourceEnabled(true);
+        String[] hosts = {"localhost", "127.0.0.1"};
+        for (String host : hosts) {
+            HttpGet httpGet = new HttpGet("http://" + host + ":" + port + "/httpclient/back/4");
+            CloseableHttpClient httpClient = new SentinelApacheHttpClientBuilder(config).build();
+            assertEquals("Welcome Back! 4", getRemoteString(httpClient, httpGet));
+        }
+
+        for (String host : hosts) {
+            String hostResourceName = "httpclient-hosts:" + host + ":" + port;
+            ClusterNode hostNode = ClusterBuilderSlot.getClusterNode(hostResourceName);
+            assertNotNull(hostNode);
+            assertEquals(1, hostNode.totalPass());
+            // The same path of each host is a separate resource under its own host.
+            ClusterNode requestNode = ClusterBuilderSlot.getClusterNode(hostResourceName + "/httpclient/back/{id}");
+            assertNotNull(requestNode);
+            assertSame(hostNode, requestNode.getParentNode());
+            assertEquals(1, requestNode.totalPass());
+        }
+    }
+
+    @Test
+    public void testFutureCallback() throws Exception {
+        SentinelApacheHttpClientConfig config = new SentinelApacheHttpClientConfig();
+        config.setPrefix("httpclient-async:");
+        String resourceName = "httpclient-async:/httpclient/back/{id}";
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        FutureRequestExecutionService service = new FutureRequestExecutionService(HttpClients.createDefault(), pool);
+        try {
+            HttpGet httpGet = new HttpGet("http://localhost:" + port + "/httpclient/back/3");
+            String result = service.execute(httpGet, new BasicHttpContext(), new BasicResponseHandler(),
+                SentinelFutureCallback.<String>wrap(httpGet, null, config)).get();
+            assertEquals("Welcome Back! 3", result);
+            ClusterNode node = ClusterBuilderSlot.getClusterNode(resourceName);
+            assertNotNull(node);
+            assertEquals(1, node.totalPass());
+            assertEquals(0, node.curThreadNum());
+
+            // Blocked requests are rejected before being submitted.
+            FlowRuleManager.loadRules(Collections.singletonList(new FlowRule(resourceName).setCount(0)));
+            try {
+                SentinelFutureCallback.<String>wrap(httpGet, null, config);
+                fail("The request should be blocked");
+            } catch (BlockException ex) {
+                assertEquals(1, node.blockRequest());
+            }
+        } finally {
+            service.close();
+            pool.shutdownNow();
+        }
+    }
+
+    @After
+    public void cleanUp() {
+        FlowRuleManager.loadRules(null);
+        Constants.ROOT.removeChildList();
+        ClusterBuilderSlot.getClusterNodeMap().clear();
+    }
+
     private String getRemoteString(CloseableHttpClient httpclient, HttpGet httpGet) throws IOException {
         String result;
         HttpContext context = new BasicHttpContext();
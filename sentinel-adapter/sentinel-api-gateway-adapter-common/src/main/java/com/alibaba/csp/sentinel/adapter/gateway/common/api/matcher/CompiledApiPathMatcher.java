@@ -0,0 +1,407 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.adapter.gateway.common.api.matcher;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import com.alibaba.csp.sentinel.adapter.gateway.common.SentinelGatewayConstants;
+import com.alibaba.csp.sentinel.adapter.gateway.common.api.ApiDefinition;
+import com.alibaba.csp.sentinel.adapter.gateway.common.api.ApiPathPredicateItem;
+import com.alibaba.csp.sentinel.adapter.gateway.common.api.ApiPredicateItem;
+import com.alibaba.csp.sentinel.log.RecordLog;
+import com.alibaba.csp.sentinel.util.AssertUtil;
+import com.alibaba.csp.sentinel.util.StringUtil;
+import com.alibaba.csp.sentinel.util.function.Function;
+import com.alibaba.csp.sentinel.util.function.Predicate;
+
+/**
+ * <p>Matcher of all the path predicates of a set of API definitions, compiled once when the API definitions
+ * are loaded, so that the matching APIs of a request can be found without testing every API one by one.</p>
+ *
+ * <ul>
+ *     <li>Exact patterns are looked up in a hash map.</li>
+ *     <li>Prefix (Ant-style) patterns made of literal segments and {@code *} segments, optionally ending with
+ *     {@code /**}, are compiled into a segment trie, which follows the semantics of Spring's
+ *     {@code AntPathMatcher}. Other Ant-style patterns (e.g. with {@code ?} or URI variables) are tested with
+ *     the matcher created by the fallback factory provided by the adapter.</li>
+ *     <li>Regex patterns are indexed by their literal directory prefix (e.g. {@code /api/} for
+ *     {@code /api/v\d+/.*}), so only the regexes whose prefix is a prefix of the path will be tested.</li>
+ * </ul>
+ *
+ * <p>Instances are immutable and thread-safe.</p>
+ *
+ * @since 1.8.7
+ */
+public final class CompiledApiPathMatcher {
+
+    private static final char PATH_SEPARATOR = '/';
+    private static final String ANY_SEGMENT = "*";
+    private static final String ANY_SEGMENTS = "**";
+    private static final String ROOT_BUCKET = "";
+
+    private static final CompiledApiPathMatcher EMPTY = new CompiledApiPathMatcher();
+
+    private final Map<String, List<String>> exactMap = new HashMap<>();
+    private final TrieNode root = new TrieNode();
+    private final Map<String, List<RegexEntry>> regexMap = new HashMap<>();
+    private final List<FallbackEntry> fallbackList = new ArrayList<>();
+
+    private boolean trieEmpty = true;
+    private int maxRegexPrefixLength = 0;
+
+    private CompiledApiPathMatcher() {}
+
+    public static CompiledApiPathMatcher empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Compile the path predicates of given API definitions.
+     *
+     * @param definitions       API definitions
+     * @param antMatcherFactory creates the matcher of the Ant-style patterns that cannot be compiled to the trie,
+     *                          the created matcher accepts the request path
+     * @return the compiled matcher
+     */
+    public static CompiledApiPathMatcher compile(Collection<ApiDefinition> definitions,
+                                                 Function<String, Predicate<String>> antMatcherFactory) {
+        AssertUtil.notNull(antMatcherFactory, "antMatcherFactory cannot be null");
+        if (definitions == null || definitions.isEmpty()) {
+            return EMPTY;
+        }
+        CompiledApiPathMatcher matcher = new CompiledApiPathMatcher();
+        for (ApiDefinition definition : definitions) {
+            if (definition == null || StringUtil.isBlank(definition.getApiName())
+                || definition.getPredicateItems() == null) {
+                continue;
+            }
+            for (ApiPredicateItem item : definition.getPredicateItems()) {
+                if (item instanceof ApiPathPredicateItem) {
+                    matcher.addPathItem(definition.getApiName(), (ApiPathPredicateItem)item, antMatcherFactory);
+                }
+            }
+        }
+        return matcher;
+    }
+
+    /**
+     * Get the names of all the APIs matching the given request path.
+     *
+     * @param path request path
+     * @return names of the matching APIs, never null
+     */
+    public Set<String> match(String path) {
+        return match(path, path);
+    }
+
+    /**
+     * Get the names of all the APIs matching the request, for the adapters whose exact patterns are matched
+     * against a different path (e.g. the servlet path) from the prefix and regex patterns.
+     *
+     * @param exactMatchPath path to match the exact patterns
+     * @param path           path to match the prefix and regex patterns
+     * @return names of the matching APIs, never null
+     */
+    public Set<String> match(String exactMatchPath, String path) {
+        Set<String> result = null;
+        if (exactMatchPath != null) {
+            result = addAll(result, exactMap.get(exactMatchPath));
+        }
+        if (path == null) {
+            return result == null ? Collections.<String>emptySet() : result;
+        }
+        if (!trieEmpty && !path.isEmpty() && path.charAt(0) == PATH_SEPARATOR) {
+            result = matchTrie(root, tokenize(path), 0, path.charAt(path.length() - 1) == PATH_SEPARATOR,
+                result);
+        }
+        if (!regexMap.isEmpty()) {
+            result = matchRegex(regexMap.get(ROOT_BUCKET), path, result);
+            int end = Math.min(path.length(), maxRegexPrefixLength);
+            for (int i = 0; i < end; i++) {
+                if (path.charAt(i) == PATH_SEPARATOR) {
+                    result = matchRegex(regexMap.get(path.substring(0, i + 1)), path, result);
+                }
+            }
+        }
+        for (FallbackEntry entry : fallbackList) {
+            if (entry.matcher.test(path)) {
+                result = add(result, entry.apiName);
+            }
+        }
+        return result == null ? Collections.<String>emptySet() : result;
+    }
+
+    private void addPathItem(String apiName, ApiPathPredicateItem item,
+                             Function<String, Predicate<String>> antMatcherFactory) {
+        String pattern = item.getPattern();
+        if (StringUtil.isBlank(pattern)) {
+            return;
+        }
+        switch (item.getMatchStrategy()) {
+            case SentinelGatewayConstants.URL_MATCH_STRATEGY_REGEX:
+                addRegex(apiName, pattern);
+                break;
+            case SentinelGatewayConstants.URL_MATCH_STRATEGY_PREFIX:
+                addAntPattern(apiName, pattern, antMatcherFactory);
+                break;
+            default:
+                addTo(exactMap, pattern, apiName);
+        }
+    }
+
+    private void addRegex(String apiName, String pattern) {
+        Pattern regex;
+        try {
+            regex = Pattern.compile(pattern);
+        } catch (Exception ex) {
+            RecordLog.warn("[CompiledApiPathMatcher] Ignoring invalid regex pattern <{}> of API <{}>: {}",
+                pattern, apiName, ex.getMessage());
+            return;
+        }
+        String prefix = literalDirectoryPrefix(pattern);
+        addTo(regexMap, prefix, new RegexEntry(apiName, regex));
+        maxRegexPrefixLength = Math.max(maxRegexPrefixLength, prefix.length());
+    }
+
+    private void addAntPattern(String apiName, String pattern,
+                               Function<String, Predicate<String>> antMatcherFactory) {
+        if (pattern.indexOf('*') < 0 && pattern.indexOf('?') < 0 && pattern.indexOf('{') < 0) {
+            // Not a pattern, which never matches in the route matchers either.
+            return;
+        }
+        if (!addToTrie(apiName, pattern)) {
+            Predicate<String> matcher = antMatcherFactory.apply(pattern);
+            if (matcher != null) {
+                fallbackList.add(new FallbackEntry(apiName, matcher));
+            }
+        }
+    }
+
+    /**
+     * @return false if the pattern is not supported by the trie
+     */
+    private boolean addToTrie(String apiName, String pattern) {
+        if (pattern.charAt(0) != PATH_SEPARATOR || pattern.indexOf('?') >= 0 || pattern.indexOf('{') >= 0) {
+            return false;
+        }
+        List<String> tokens = tokenize(pattern);
+        for (int i = 0; i < tokens.size(); i++) {
+            String token = tokens.get(i);
+            boolean lastAnySegments = ANY_SEGMENTS.equals(token) && i == tokens.size() - 1;
+            if (token.indexOf('*') >= 0 && !ANY_SEGMENT.equals(token) && !lastAnySegments) {
+                return false;
+            }
+        }
+        TrieNode node = root;
+        for (String token : tokens) {
+            if (ANY_SEGMENTS.equals(token)) {
+                node.anyTailApis = addTo(node.anyTailApis, apiName);
+                trieEmpty = false;
+                return true;
+            }
+            node = node.child(token);
+        }
+        if (pattern.charAt(pattern.length() - 1) == PATH_SEPARATOR) {
+            node.slashEndApis = addTo(node.slashEndApis, apiName);
+        } else {
+            node.endApis = addTo(node.endApis, apiName);
+        }
+        trieEmpty = false;
+        return true;
+    }
+
+    private static Set<String> matchTrie(TrieNode node, List<String> tokens, int index, boolean endsWithSlash,
+                                         Set<String> result) {
+        // A trailing "**" matches zero or more segments, whatever the trailing slash is.
+        result = addAll(result, node.anyTailApis);
+        if (index == tokens.size()) {
+            result = addAll(result, endsWithSlash ? node.slashEndApis : node.endApis);
+            if (endsWithSlash && node.anySegmentChild != null) {
+                // Same as AntPathMatcher: a trailing "*" also matches the path ending with a separator.
+                result = addAll(result, node.anySegmentChild.endApis);
+                result = addAll(result, node.anySegmentChild.slashEndApis);
+            }
+            return result;
+        }
+        if (node.children != null) {
+            TrieNode child = node.children.get(tokens.get(index));
+            if (child != null) {
+                result = matchTrie(child, tokens, index + 1, endsWithSlash, result);
+            }
+        }
+        if (node.anySegmentChild != null) {
+            result = matchTrie(node.anySegmentChild, tokens, index + 1, endsWithSlash, result);
+        }
+        return result;
+    }
+
+    private static Set<String> matchRegex(List<RegexEntry> entries, String path, Set<String> result) {
+        if (entries == null) {
+            return result;
+        }
+        for (RegexEntry entry : entries) {
+            if ((result == null || !result.contains(entry.apiName)) && entry.regex.matcher(path).matches()) {
+                result = add(result, entry.apiName);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Split the path by the separator, ignoring empty segments (same as {@code AntPathMatcher}).
+     */
+    static List<String> tokenize(String path) {
+        List<String> tokens = new ArrayList<>(8);
+        int start = 0;
+        int length = path.length();
+        for (int i = 0; i <= length; i++) {
+            if (i == length || path.charAt(i) == PATH_SEPARATOR) {
+                if (i > start) {
+                    tokens.add(path.substring(start, i));
+                }
+                start = i + 1;
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Get the longest literal prefix ending with the path separator that every path matching the regex
+     * must start with, or an empty string if it cannot be determined.
+     */
+    static String literalDirectoryPrefix(String regex) {
+        if (regex.indexOf('|') >= 0) {
+            return ROOT_BUCKET;
+        }
+        int end = 0;
+        while (end < regex.length() && isPlainLiteral(regex.charAt(end))) {
+            end++;
+        }
+        if (end < regex.length() && end > 0 && isQuantifier(regex.charAt(end))) {
+            // The last literal is optional or repeated, e.g. "/api/v?".
+            end--;
+        }
+        int lastSeparator = regex.lastIndexOf(PATH_SEPARATOR, end - 1);
+        return lastSeparator < 0 ? ROOT_BUCKET : regex.substring(0, lastSeparator + 1);
+    }
+
+    private static boolean isPlainLiteral(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+            || c == PATH_SEPARATOR || c == '-' || c == '_' || c == '~' || c == '%' || c == ',' || c == ';'
+            || c == '=' || c == '@' || c == ':' || c == '!' || c == '&' || c == '\'';
+    }
+
+    private static boolean isQuantifier(char c) {
+        return c == '?' || c == '*' || c == '+' || c == '{';
+    }
+
+    private static <T> void addTo(Map<String, List<T>> map, String key, T value) {
+        List<T> list = map.get(key);
+        if (list == null) {
+            list = new ArrayList<>(1);
+            map.put(key, list);
+        }
+        list.add(value);
+    }
+
+    private static List<String> addTo(List<String> list, String apiName) {
+        if (list == null) {
+            list = new ArrayList<>(1);
+        }
+        list.add(apiName);
+        return list;
+    }
+
+    private static Set<String> add(Set<String> result, String apiName) {
+        if (result == null) {
+            result = new HashSet<>();
+        }
+        result.add(apiName);
+        return result;
+    }
+
+    private static Set<String> addAll(Set<String> result, List<String> apiNames) {
+        if (apiNames == null) {
+            return result;
+        }
+        if (result == null) {
+            result = new HashSet<>();
+        }
+        result.addAll(apiNames);
+        return result;
+    }
+
+    private static final class TrieNode {
+        private Map<String, TrieNode> children;
+        private TrieNode anySegmentChild;
+
+        /**
+         * APIs whose pattern ends at this node, without or with a trailing separator.
+         */
+        private List<String> endApis;
+        private List<String> slashEndApis;
+        /**
+         * APIs whose pattern ends with "/**" after this node.
+         */
+        private List<String> anyTailApis;
+
+        TrieNode child(String token) {
+            if (ANY_SEGMENT.equals(token)) {
+                if (anySegmentChild == null) {
+                    anySegmentChild = new TrieNode();
+                }
+                return anySegmentChild;
+            }
+            if (children == null) {
+                children = new HashMap<>();
+            }
+            TrieNode child = children.get(token);
+            if (child == null) {
+                child = new TrieNode();
+                children.put(token, child);
+            }
+            return child;
+        }
+    }
+
+    private static final class RegexEntry {
+        private final String apiName;
+        private final Pattern regex;
+
+        RegexEntry(String apiName, Pattern regex) {
+            this.apiName = apiName;
+            this.regex = regex;
+        }
+    }
+
+    private static final class FallbackEntry {
+        private final String apiName;
+        private final Predicate<String> matcher;
+
+        FallbackEntry(String apiName, Predicate<String> matcher) {
+            this.apiName = apiName;
+            this.matcher = matcher;
+        }
+    }
+}
@@ -0,0 +1,257 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.adapter.gateway.common.param;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import com.alibaba.csp.sentinel.adapter.gateway.common.SentinelGatewayConstants;
+import com.alibaba.csp.sentinel.adapter.gateway.common.rule.GatewayFlowRule;
+import com.alibaba.csp.sentinel.adapter.gateway.common.rule.GatewayParamFlowItem;
+import com.alibaba.csp.sentinel.util.StringUtil;
+import com.alibaba.csp.sentinel.util.function.Predicate;
+
+/**
+ * <p>Immutable plan of extracting the parameters of a gateway resource (route or API), precompiled from
+ * the gateway flow rules of the resource when the rules are loaded.</p>
+ *
+ * <p>Each distinct request item (client IP, header, URL parameter or cookie) is read only once,
+ * no matter how many rules refer to it, and the regex patterns are compiled ahead of time.
+ * The layout of the parameter array is the same as the converted parameter flow rules,
+ * i.e. each parameter is at the index of its rule, and the default parameter is at the last
+ * position if there are rules without parameter item.</p>
+ *
+ * @since 1.8.7
+ */
+public final class GatewayParamExtractionPlan {
+
+    private static final Object[] EMPTY_PARAMS = new Object[0];
+
+    private static final int READ_CLIENT_IP = 0;
+    private static final int READ_HEADER = 1;
+    private static final int READ_URL_PARAM = 2;
+    private static final int READ_COOKIE = 3;
+
+    private static final int MATCH_NONE = 0;
+    private static final int MATCH_EXACT = 1;
+    private static final int MATCH_CONTAINS = 2;
+    private static final int MATCH_REGEX = 3;
+
+    private final GatewayFlowRule[] paramRules;
+    private final int paramCount;
+    private final boolean hasNonParamRule;
+
+    /**
+     * Distinct request items to read, in pairs of the read type and the field name.
+     */
+    private final int[] readTypes;
+    private final String[] readFields;
+
+    /**
+     * Parameters to fill, one for each parameter rule.
+     */
+    private final int[] slotIndexes;
+    private final int[] slotReads;
+    private final int[] slotMatchTypes;
+    private final String[] slotPatterns;
+    private final Pattern[] slotRegexes;
+
+    private GatewayParamExtractionPlan(List<GatewayFlowRule> paramRules, boolean hasNonParamRule) {
+        int size = paramRules.size();
+        this.paramRules = paramRules.toArray(new GatewayFlowRule[size]);
+        this.hasNonParamRule = hasNonParamRule;
+        this.paramCount = hasNonParamRule ? size + 1 : size;
+        this.slotIndexes = new int[size];
+        this.slotReads = new int[size];
+        this.slotMatchTypes = new int[size];
+        this.slotPatterns = new String[size];
+        this.slotRegexes = new Pattern[size];
+
+        List<Integer> types = new ArrayList<>();
+        List<String> fields = new ArrayList<>();
+        Map<String, Integer> readIndexMap = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            GatewayParamFlowItem item = this.paramRules[i].getParamItem();
+            slotIndexes[i] = item.getIndex();
+            slotReads[i] = readIndexOf(item, types, fields, readIndexMap);
+            String pattern = item.getPattern();
+            if (StringUtil.isEmpty(pattern)) {
+                slotMatchTypes[i] = MATCH_NONE;
+                continue;
+            }
+            slotPatterns[i] = pattern;
+            switch (item.getMatchStrategy()) {
+                case SentinelGatewayConstants.PARAM_MATCH_STRATEGY_EXACT:
+                    slotMatchTypes[i] = MATCH_EXACT;
+                    break;
+                case SentinelGatewayConstants.PARAM_MATCH_STRATEGY_CONTAINS:
+                    slotMatchTypes[i] = MATCH_CONTAINS;
+                    break;
+                case SentinelGatewayConstants.PARAM_MATCH_STRATEGY_REGEX:
+                    slotRegexes[i] = GatewayRegexCache.getRegexPattern(pattern);
+                    slotMatchTypes[i] = slotRegexes[i] == null ? MATCH_NONE : MATCH_REGEX;
+                    break;
+                default:
+                    slotMatchTypes[i] = MATCH_NONE;
+            }
+        }
+        this.readTypes = new int[types.size()];
+        for (int i = 0; i < readTypes.length; i++) {
+            readTypes[i] = types.get(i);
+        }
+        this.readFields = fields.toArray(new String[fields.size()]);
+    }
+
+    /**
+     * Build the extraction plan of a resource.
+     *
+     * @param rules valid gateway flow rules of the resource, with the parameter index assigned
+     * @return the extraction plan
+     */
+    public static GatewayParamExtractionPlan build(Collection<GatewayFlowRule> rules) {
+        List<GatewayFlowRule> paramRules = new ArrayList<>();
+        boolean hasNonParamRule = false;
+        if (rules != null) {
+            for (GatewayFlowRule rule : rules) {
+                if (rule.getParamItem() != null) {
+                    paramRules.add(rule);
+                } else {
+                    hasNonParamRule = true;
+                }
+            }
+        }
+        return new GatewayParamExtractionPlan(paramRules, hasNonParamRule);
+    }
+
+    /**
+     * Extract the parameters from the request on condition of the rule predicate.
+     *
+     * @param requestItemParser parser of the request items
+     * @param request           valid request
+     * @param rulePredicate     rule predicate indicating the rules to refer
+     * @param <T>               type of the request
+     * @return the parameter array, empty if not all the parameter rules are accepted by the predicate
+     */
+    public <T> Object[] extract(RequestItemParser<T> requestItemParser, T request,
+                                Predicate<GatewayFlowRule> rulePredicate) {
+        if (paramCount == 0) {
+            return EMPTY_PARAMS;
+        }
+        for (GatewayFlowRule rule : paramRules) {
+            if (!rulePredicate.test(rule)) {
+                return EMPTY_PARAMS;
+            }
+        }
+        Object[] params = new Object[paramCount];
+        if (paramRules.length > 0) {
+            String[] values = new String[readTypes.length];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = read(requestItemParser, request, i);
+            }
+            for (int i = 0; i < paramRules.length; i++) {
+                int readIndex = slotReads[i];
+                params[slotIndexes[i]] = readIndex < 0 ? null : match(i, values[readIndex]);
+            }
+        }
+        if (hasNonParamRule) {
+            params[paramCount - 1] = SentinelGatewayConstants.GATEWAY_DEFAULT_PARAM;
+        }
+        return params;
+    }
+
+    /**
+     * @return count of the distinct request items read by this plan
+     */
+    public int getReadCount() {
+        return readTypes.length;
+    }
+
+    private <T> String read(RequestItemParser<T> requestItemParser, T request, int readIndex) {
+        switch (readTypes[readIndex]) {
+            case READ_CLIENT_IP:
+                return requestItemParser.getRemoteAddress(request);
+            case READ_HEADER:
+                return requestItemParser.getHeader(request, readFields[readIndex]);
+            case READ_URL_PARAM:
+                return requestItemParser.getUrlParam(request, readFields[readIndex]);
+            default:
+                return requestItemParser.getCookieValue(request, readFields[readIndex]);
+        }
+    }
+
+    private String match(int slot, String value) {
+        if (value == null) {
+            return null;
+        }
+        switch (slotMatchTypes[slot]) {
+            case MATCH_EXACT:
+                return value.equals(slotPatterns[slot]) ? value : SentinelGatewayConstants.GATEWAY_NOT_MATCH_PARAM;
+            case MATCH_CONTAINS:
+                return value.contains(slotPatterns[slot]) ? value : SentinelGatewayConstants.GATEWAY_NOT_MATCH_PARAM;
+            case MATCH_REGEX:
+                return slotRegexes[slot].matcher(value).matches() ? value
+                    : SentinelGatewayConstants.GATEWAY_NOT_MATCH_PARAM;
+            default:
+                return value;
+        }
+    }
+
+    /**
+     * @return index of the request item to read, or -1 if the parse strategy is unknown
+     */
+    private static int readIndexOf(GatewayParamFlowItem item, List<Integer> types, List<String> fields,
+                                   Map<String, Integer> readIndexMap) {
+        int type;
+        String field;
+        switch (item.getParseStrategy()) {
+            case SentinelGatewayConstants.PARAM_PARSE_STRATEGY_CLIENT_IP:
+                type = READ_CLIENT_IP;
+                field = null;
+                break;
+            case SentinelGatewayConstants.PARAM_PARSE_STRATEGY_HOST:
+                type = READ_HEADER;
+                field = "Host";
+                break;
+            case SentinelGatewayConstants.PARAM_PARSE_STRATEGY_HEADER:
+                type = READ_HEADER;
+                field = item.getFieldName();
+                break;
+            case SentinelGatewayConstants.PARAM_PARSE_STRATEGY_URL_PARAM:
+                type = READ_URL_PARAM;
+                field = item.getFieldName();
+                break;
+            case SentinelGatewayConstants.PARAM_PARSE_STRATEGY_COOKIE:
+                type = READ_COOKIE;
+                field = item.getFieldName();
+                break;
+            default:
+                return -1;
+        }
+        String key = type + ":" + field;
+        Integer index = readIndexMap.get(key);
+        if (index == null) {
+            index = types.size();
+            types.add(type);
+            fields.add(field);
+            readIndexMap.put(key, index);
+        }
+        return index;
+    }
+}
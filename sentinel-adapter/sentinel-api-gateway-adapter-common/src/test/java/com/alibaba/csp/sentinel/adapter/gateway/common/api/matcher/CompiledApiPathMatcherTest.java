@@ -0,0 +1,164 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.adapter.gateway.common.api.matcher;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import com.alibaba.csp.sentinel.adapter.gateway.common.SentinelGatewayConstants;
+import com.alibaba.csp.sentinel.adapter.gateway.common.api.ApiDefinition;
+import com.alibaba.csp.sentinel.adapter.gateway.common.api.ApiPathPredicateItem;
+import com.alibaba.csp.sentinel.adapter.gateway.common.api.ApiPredicateItem;
+import com.alibaba.csp.sentinel.util.function.Function;
+import com.alibaba.csp.sentinel.util.function.Predicate;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class CompiledApiPathMatcherTest {
+
+    /**
+     * Only handles "?" and "**", which is enough for the fallback patterns in the tests.
+     */
+    private static final Function<String, Predicate<String>> SIMPLE_ANT_MATCHER_FACTORY =
+        new Function<String, Predicate<String>>() {
+            @Override
+            public Predicate<String> apply(final String pattern) {
+                return new Predicate<String>() {
+                    @Override
+                    public boolean test(String path) {
+                        return path.matches(pattern.replace("?", "[^/]").replace("**", ".*"));
+                    }
+                };
+            }
+        };
+
+    @Test
+    public void testExactAndPrefixPatterns() {
+        CompiledApiPathMatcher matcher = compile(
+            api("exact", path("/product/list", SentinelGatewayConstants.URL_MATCH_STRATEGY_EXACT)),
+            api("all", path("/product/**", SentinelGatewayConstants.URL_MATCH_STRATEGY_PREFIX)),
+            api("single", path("/product/*", SentinelGatewayConstants.URL_MATCH_STRATEGY_PREFIX)),
+            api("detail", path("/product/*/detail", SentinelGatewayConstants.URL_MATCH_STRATEGY_PREFIX)),
+            api("slash", path("/product/*/", SentinelGatewayConstants.URL_MATCH_STRATEGY_PREFIX)),
+            api("literal", path("/product", SentinelGatewayConstants.URL_MATCH_STRATEGY_PREFIX))
+        );
+
+        assertEquals(names("exact", "all", "single"), matcher.match("/product/list"));
+        assertEquals(names("all"), matcher.match("/product"));
+        assertEquals(names("all", "single", "slash"), matcher.match("/product/"));
+        assertEquals(names("all", "slash"), matcher.match("/product/1/"));
+        assertEquals(names("all", "detail"), matcher.match("/product//1/detail"));
+        assertEquals(names("all"), matcher.match("/product/1/detail/2"));
+        assertTrue(matcher.match("/order/1").isEmpty());
+        assertTrue(matcher.match("product/1").isEmpty());
+        assertTrue(matcher.match(null).isEmpty());
+    }
+
+    @Test
+    public void testRootPatterns() {
+        CompiledApiPathMatcher matcher = compile(
+            api("any", path("/**", SentinelGatewayConstants.URL_MATCH_STRATEGY_PREFIX)),
+            api("top", path("/*", SentinelGatewayConstants.URL_MATCH_STRATEGY_PREFIX))
+        );
+
+        assertEquals(names("any", "top"), matcher.match("/"));
+        assertEquals(names("any", "top"), matcher.match("/a"));
+        assertEquals(names("any"), matcher.match("/a/b"));
+        assertTrue(matcher.match("").isEmpty());
+    }
+
+    @Test
+    public void testRegexPatterns() {
+        CompiledApiPathMatcher matcher = compile(
+            api("v", path("/api/v\\d+/.*", SentinelGatewayConstants.URL_MATCH_STRATEGY_REGEX)),
+            api("optional", path("/api/?user", SentinelGatewayConstants.URL_MATCH_STRATEGY_REGEX)),
+            api("alternation", path("/a/x|/b/.*", SentinelGatewayConstants.URL_MATCH_STRATEGY_REGEX)),
+            api("invalid", path("/api/(", SentinelGatewayConstants.URL_MATCH_STRATEGY_REGEX))
+        );
+
+        assertEquals(names("v"), matcher.match("/api/v2/users"));
+        assertTrue(matcher.match("/api/vx/users").isEmpty());
+        assertEquals(names("optional"), matcher.match("/apiuser"));
+        assertEquals(names("optional"), matcher.match("/api/user"));
+        assertEquals(names("alternation"), matcher.match("/b/c"));
+        assertEquals(names("alternation"), matcher.match("/a/x"));
+    }
+
+    @Test
+    public void testLiteralDirectoryPrefix() {
+        assertEquals("/api/", CompiledApiPathMatcher.literalDirectoryPrefix("/api/v\\d+/.*"));
+        assertEquals("/api/v1/", CompiledApiPathMatcher.literalDirectoryPrefix("/api/v1/.*"));
+        assertEquals("/api/", CompiledApiPathMatcher.literalDirectoryPrefix("/api/v1?/.*"));
+        assertEquals("/", CompiledApiPathMatcher.literalDirectoryPrefix("/api/?x"));
+        assertEquals("", CompiledApiPathMatcher.literalDirectoryPrefix("(?i)/api/.*"));
+        assertEquals("", CompiledApiPathMatcher.literalDirectoryPrefix("/api/.*|/other"));
+        assertEquals("", CompiledApiPathMatcher.literalDirectoryPrefix(".*"));
+    }
+
+    @Test
+    public void testFallbackAndMultiplePredicates() {
+        CompiledApiPathMatcher matcher = compile(
+            api("fallback", path("/user/?", SentinelGatewayConstants.URL_MATCH_STRATEGY_PREFIX),
+                path("/account/**", SentinelGatewayConstants.URL_MATCH_STRATEGY_PREFIX)),
+            api("middle", path("/a/**/b", SentinelGatewayConstants.URL_MATCH_STRATEGY_PREFIX))
+        );
+
+        assertEquals(names("fallback"), matcher.match("/user/1"));
+        assertEquals(names("fallback"), matcher.match("/account/1"));
+        assertTrue(matcher.match("/user/12").isEmpty());
+        assertEquals(names("middle"), matcher.match("/a/x/b"));
+    }
+
+    @Test
+    public void testDifferentExactMatchPath() {
+        CompiledApiPathMatcher matcher = compile(
+            api("exact", path("/servlet", SentinelGatewayConstants.URL_MATCH_STRATEGY_EXACT)),
+            api("prefix", path("/context/**", SentinelGatewayConstants.URL_MATCH_STRATEGY_PREFIX))
+        );
+
+        assertEquals(names("exact", "prefix"), matcher.match("/servlet", "/context/servlet"));
+        assertEquals(names("exact"), matcher.match("/servlet", null));
+    }
+
+    @Test
+    public void testEmpty() {
+        assertTrue(CompiledApiPathMatcher.compile(null, SIMPLE_ANT_MATCHER_FACTORY).match("/a").isEmpty());
+        assertTrue(CompiledApiPathMatcher.empty().match("/a").isEmpty());
+        assertTrue(compile(new ApiDefinition("blank")
+            .setPredicateItems(Collections.<ApiPredicateItem>singleton(new ApiPathPredicateItem())))
+            .match("/a").isEmpty());
+    }
+
+    private static CompiledApiPathMatcher compile(ApiDefinition... definitions) {
+        return CompiledApiPathMatcher.compile(Arrays.asList(definitions), SIMPLE_ANT_MATCHER_FACTORY);
+    }
+
+    private static ApiDefinition api(String apiName, ApiPredicateItem... items) {
+        return new ApiDefinition(apiName).setPredicateItems(new HashSet<>(Arrays.asList(items)));
+    }
+
+    private static ApiPathPredicateItem path(String pattern, int matchStrategy) {
+        return new ApiPathPredicateItem().setPattern(pattern).setMatchStrategy(matchStrategy);
+    }
+
+    private static Set<String> names(String... apiNames) {
+        return new HashSet<>(Arrays.asList(apiNames));
+    }
+}
@@ -36,6 +36,8 @@ import org.junit.Test;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
@@ -329,6 +331,55 @@ public class GatewayParamParserTest {
         when(parser.getHeader(any(), eq(key))).thenReturn(value);
     }
 
+    @Test
+    public void testParseParametersReadEachItemOnce() {
+        RequestItemParser<Object> itemParser = mock(RequestItemParser.class);
+        GatewayParamParser<Object> paramParser = new GatewayParamParser<>(itemParser);
+        Object request = new Object();
+
+        final String routeId = "my_test_route_C";
+        final String headerName = "X-Sentinel-Flag";
+        Set<GatewayFlowRule> rules = new HashSet<>();
+        rules.add(new GatewayFlowRule(routeId)
+            .setCount(10)
+            .setParamItem(new GatewayParamFlowItem()
+                .setParseStrategy(SentinelGatewayConstants.PARAM_PARSE_STRATEGY_HEADER)
+                .setFieldName(headerName)
+            )
+        );
+        rules.add(new GatewayFlowRule(routeId)
+            .setCount(20)
+            .setParamItem(new GatewayParamFlowItem()
+                .setParseStrategy(SentinelGatewayConstants.PARAM_PARSE_STRATEGY_HEADER)
+                .setFieldName(headerName)
+                .setPattern("Sent")
+                .setMatchStrategy(SentinelGatewayConstants.PARAM_MATCH_STRATEGY_CONTAINS)
+            )
+        );
+        rules.add(new GatewayFlowRule(routeId)
+            .setCount(30)
+            .setParamItem(new GatewayParamFlowItem()
+                .setParseStrategy(SentinelGatewayConstants.PARAM_PARSE_STRATEGY_HEADER)
+                .setFieldName(headerName)
+                .setPattern("^X.*")
+                .setMatchStrategy(SentinelGatewayConstants.PARAM_MATCH_STRATEGY_REGEX)
+            )
+        );
+        GatewayRuleManager.loadRules(rules);
+        mockSingleHeader(itemParser, headerName, "Sentinel");
+
+        assertThat(GatewayRuleManager.getParamExtractionPlan(routeId).getReadCount()).isEqualTo(1);
+        Object[] params = paramParser.parseParameterFor(routeId, request, routeIdPredicate);
+        assertThat(params.length).isEqualTo(3);
+        for (GatewayFlowRule rule : rules) {
+            GatewayParamFlowItem item = rule.getParamItem();
+            String expected = item.getPattern() == null || "Sent".equals(item.getPattern()) ? "Sentinel"
+                : SentinelGatewayConstants.GATEWAY_NOT_MATCH_PARAM;
+            assertThat(params[item.getIndex()]).isEqualTo(expected);
+        }
+        verify(itemParser, times(1)).getHeader(any(), eq(headerName));
+    }
+
     private void mockSingleCookie(/*@Mock*/ RequestItemParser parser, String key, String value) {
         when(parser.getCookieValue(any(), eq(key))).thenReturn(value);
     }
@@ -18,6 +18,7 @@ package com.alibaba.csp.sentinel.adapter.dubbo;
 import com.alibaba.csp.sentinel.Entry;
 import com.alibaba.csp.sentinel.EntryType;
 import com.alibaba.csp.sentinel.ResourceTypeConstants;
+import com.alibaba.csp.sentinel.SentinelResourceHandleCache;
 import com.alibaba.csp.sentinel.SphU;
 import com.alibaba.csp.sentinel.Tracer;
 import com.alibaba.csp.sentinel.log.RecordLog;
@@ -45,43 +46,39 @@ import static com.alibaba.dubbo.common.Constants.CONSUMER;
 @Activate(group = CONSUMER)
 public class SentinelDubboConsumerFilter extends AbstractDubboFilter implements Filter {
 
+    private final SentinelResourceHandleCache handleCache = new SentinelResourceHandleCache(
+        ResourceTypeConstants.COMMON_RPC, EntryType.OUT);
+
     public SentinelDubboConsumerFilter() {
         RecordLog.info("Sentinel Dubbo consumer filter initialized");
     }
 
     @Override
     public Result invoke(Invoker<?> invoker, Invocation invocation) throws RpcException {
-        Entry interfaceEntry = null;
         Entry methodEntry = null;
         try {
             String prefix = DubboAdapterGlobalConfig.getDubboConsumerPrefix();
             String interfaceResourceName = getInterfaceName(invoker, prefix);
             String methodResourceName = getMethodResourceName(invoker, invocation, prefix);
-            interfaceEntry = SphU.entry(interfaceResourceName, ResourceTypeConstants.COMMON_RPC, EntryType.OUT);
-            methodEntry = SphU.entry(methodResourceName, ResourceTypeConstants.COMMON_RPC,
-                EntryType.OUT, invocation.getArguments());
+            methodEntry = SphU.entry(handleCache.get(methodResourceName, interfaceResourceName), 1,
+                invocation.getArguments());
 
             Result result = invoker.invoke(invocation);
             if (result.hasException()) {
                 Throwable e = result.getException();
                 // Record common exception.
-                Tracer.traceEntry(e, interfaceEntry);
                 Tracer.traceEntry(e, methodEntry);
             }
             return result;
         } catch (BlockException e) {
             return DubboAdapterGlobalConfig.getConsumerFallback().handle(invoker, invocation, e);
         } catch (RpcException e) {
-            Tracer.traceEntry(e, interfaceEntry);
             Tracer.traceEntry(e, methodEntry);
             throw e;
         } finally {
             if (methodEntry != null) {
                 methodEntry.exit(1, invocation.getArguments());
             }
-            if (interfaceEntry != null) {
-                interfaceEntry.exit();
-            }
         }
     }
 }
@@ -18,6 +18,7 @@ package com.alibaba.csp.sentinel.adapter.dubbo;
 import com.alibaba.csp.sentinel.Entry;
 import com.alibaba.csp.sentinel.EntryType;
 import com.alibaba.csp.sentinel.ResourceTypeConstants;
+import com.alibaba.csp.sentinel.SentinelResourceHandleCache;
 import com.alibaba.csp.sentinel.SphU;
 import com.alibaba.csp.sentinel.Tracer;
 import com.alibaba.csp.sentinel.context.ContextUtil;
@@ -46,6 +47,9 @@ import static com.alibaba.dubbo.common.Constants.PROVIDER;
 @Activate(group = PROVIDER)
 public class SentinelDubboProviderFilter extends AbstractDubboFilter implements Filter {
 
+    private final SentinelResourceHandleCache handleCache = new SentinelResourceHandleCache(
+        ResourceTypeConstants.COMMON_RPC, EntryType.IN);
+
     public SentinelDubboProviderFilter() {
         RecordLog.info("Sentinel Dubbo provider filter initialized");
     }
@@ -58,38 +62,30 @@ public class SentinelDubboProviderFilter extends AbstractDubboFilter implements
             origin = "";
         }
 
-        Entry interfaceEntry = null;
         Entry methodEntry = null;
         try {
             String prefix = DubboAdapterGlobalConfig.getDubboProviderPrefix();
             String methodResourceName = getMethodResourceName(invoker, invocation, prefix);
             String interfaceName = getInterfaceName(invoker, prefix);
             ContextUtil.enter(methodResourceName, origin);
-            interfaceEntry = SphU.entry(interfaceName, ResourceTypeConstants.COMMON_RPC, EntryType.IN);
-            methodEntry = SphU.entry(methodResourceName, ResourceTypeConstants.COMMON_RPC,
-                EntryType.IN, invocation.getArguments());
+            methodEntry = SphU.entry(handleCache.get(methodResourceName, interfaceName), 1, invocation.getArguments());
 
             Result result = invoker.invoke(invocation);
             if (result.hasException()) {
                 Throwable e = result.getException();
                 // Record common exception.
-                Tracer.traceEntry(e, interfaceEntry);
                 Tracer.traceEntry(e, methodEntry);
             }
             return result;
         } catch (BlockException e) {
             return DubboAdapterGlobalConfig.getProviderFallback().handle(invoker, invocation, e);
         } catch (RpcException e) {
-            Tracer.traceEntry(e, interfaceEntry);
             Tracer.traceEntry(e, methodEntry);
             throw e;
         } finally {
             if (methodEntry != null) {
                 methodEntry.exit(1, invocation.getArguments());
             }
-            if (interfaceEntry != null) {
-                interfaceEntry.exit();
-            }
             ContextUtil.exit();
         }
     }
@@ -75,8 +75,7 @@ public class SentinelDubboConsumerFilterTest extends BaseTest {
     /**
      * Simply verify invocation structure in memory:
      * EntranceNode(defaultContextName)
-     * --InterfaceNode(interfaceName)
-     * ----MethodNode(resourceName)
+     * --MethodNode(resourceName), whose ClusterNode has the ClusterNode of interfaceName as parent
      */
     private void verifyInvocationStructure(Invoker invoker, Invocation invocation) {
         Context context = ContextUtil.getContext();
@@ -94,17 +93,9 @@ public class SentinelDubboConsumerFilterTest extends BaseTest {
         assertEquals(Constants.CONTEXT_DEFAULT_NAME, entranceResource.getName());
         assertSame(EntryType.IN, entranceResource.getEntryType());
 
-        // As SphU.entry(interfaceName, EntryType.OUT);
+        // As SphU.entry(handleCache.get(resourceName, interfaceName), ...);
         Set<Node> childList = entranceNode.getChildList();
         assertEquals(1, childList.size());
-        DefaultNode interfaceNode = (DefaultNode) childList.iterator().next();
-        ResourceWrapper interfaceResource = interfaceNode.getId();
-        assertEquals(DemoService.class.getName(), interfaceResource.getName());
-        assertSame(EntryType.OUT, interfaceResource.getEntryType());
-
-        // As SphU.entry(resourceName, EntryType.OUT);
-        childList = interfaceNode.getChildList();
-        assertEquals(1, childList.size());
         DefaultNode methodNode = (DefaultNode) childList.iterator().next();
         ResourceWrapper methodResource = methodNode.getId();
         assertEquals(resourceName, methodResource.getName());
@@ -113,12 +104,13 @@ public class SentinelDubboConsumerFilterTest extends BaseTest {
         // Verify curEntry
         Entry curEntry = context.getCurEntry();
         assertSame(methodNode, curEntry.getCurNode());
-        assertSame(interfaceNode, curEntry.getLastNode());
+        assertNull(curEntry.getLastNode());
         assertNull(curEntry.getOriginNode());// As context origin is not "", no originNode should be created in curEntry
 
         // Verify clusterNode
         ClusterNode methodClusterNode = methodNode.getClusterNode();
-        ClusterNode interfaceClusterNode = interfaceNode.getClusterNode();
+        ClusterNode interfaceClusterNode = methodClusterNode.getParentNode();
+        assertEquals(DemoService.class.getName(), interfaceClusterNode.getName());
         assertNotSame(methodClusterNode, interfaceClusterNode);// Different resource->Different ProcessorSlot->Different ClusterNode
 
         // As context origin is "", the StatisticNode should not be created in originCountMap of ClusterNode
@@ -77,8 +77,7 @@ public class SentinelDubboProviderFilterTest extends BaseTest {
     /**
      * Simply verify invocation structure in memory:
      * EntranceNode(resourceName)
-     * --InterfaceNode(interfaceName)
-     * ----MethodNode(resourceName)
+     * --MethodNode(resourceName), whose ClusterNode has the ClusterNode of interfaceName as parent
      */
     private void verifyInvocationStructure(String originApplication, Invoker invoker, Invocation invocation) {
         Context context = ContextUtil.getContext();
@@ -94,17 +93,9 @@ public class SentinelDubboProviderFilterTest extends BaseTest {
         assertEquals(resourceName, entranceResource.getName());
         assertSame(EntryType.IN, entranceResource.getEntryType());
 
-        // As SphU.entry(interfaceName, EntryType.IN);
+        // As SphU.entry(handleCache.get(resourceName, interfaceName), ...);
         Set<Node> childList = entranceNode.getChildList();
         assertEquals(1, childList.size());
-        DefaultNode interfaceNode = (DefaultNode) childList.iterator().next();
-        ResourceWrapper interfaceResource = interfaceNode.getId();
-        assertEquals(DemoService.class.getName(), interfaceResource.getName());
-        assertSame(EntryType.IN, interfaceResource.getEntryType());
-
-        // As SphU.entry(resourceName, EntryType.IN, 1, invocation.getArguments());
-        childList = interfaceNode.getChildList();
-        assertEquals(1, childList.size());
         DefaultNode methodNode = (DefaultNode) childList.iterator().next();
         ResourceWrapper methodResource = methodNode.getId();
         assertEquals(resourceName, methodResource.getName());
@@ -113,12 +104,13 @@ public class SentinelDubboProviderFilterTest extends BaseTest {
         // Verify curEntry
         Entry curEntry = context.getCurEntry();
         assertSame(methodNode, curEntry.getCurNode());
-        assertSame(interfaceNode, curEntry.getLastNode());
+        assertNull(curEntry.getLastNode());
         assertNotNull(curEntry.getOriginNode());// As context origin is not "", originNode should be created
 
         // Verify clusterNode
         ClusterNode methodClusterNode = methodNode.getClusterNode();
-        ClusterNode interfaceClusterNode = interfaceNode.getClusterNode();
+        ClusterNode interfaceClusterNode = methodClusterNode.getParentNode();
+        assertEquals(DemoService.class.getName(), interfaceClusterNode.getName());
         assertNotSame(methodClusterNode, interfaceClusterNode);// Different resource->Different ProcessorSlot->Different ClusterNode
 
         // As context origin is not "", the StatisticNode should be created in originCountMap of ClusterNode
@@ -0,0 +1,49 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.adapter.grpc;
+
+import io.grpc.MethodDescriptor;
+
+/**
+ * Util methods for the gRPC adapter.
+ *
+ * @since 1.8.7
+ */
+public final class GrpcUtils {
+
+    /**
+     * Suffix of the resource that guards each inbound message of a streaming call.
+     */
+    public static final String MESSAGE_RESOURCE_SUFFIX = ":message";
+
+    /**
+     * Get the resource name that guards each inbound message of the given streaming method.
+     * Flow rules of this resource pause the demand of the call instead of failing it.
+     *
+     * @param fullMethodName full method name of the gRPC method
+     * @return the message resource name
+     */
+    public static String getMessageResourceName(String fullMethodName) {
+        return fullMethodName + MESSAGE_RESOURCE_SUFFIX;
+    }
+
+    static boolean isInboundStream(MethodDescriptor<?, ?> methodDescriptor, boolean serverSide) {
+        MethodDescriptor.MethodType type = methodDescriptor.getType();
+        return serverSide ? !type.clientSendsOneMessage() : !type.serverSendsOneMessage();
+    }
+
+    private GrpcUtils() {}
+}
@@ -17,6 +17,8 @@ package com.alibaba.csp.sentinel.adapter.grpc;
 
 import com.alibaba.csp.sentinel.Entry;
 import com.alibaba.csp.sentinel.EntryType;
+import com.alibaba.csp.sentinel.ResourceTypeConstants;
+import com.alibaba.csp.sentinel.SentinelResourceHandleCache;
 import com.alibaba.csp.sentinel.SphU;
 import com.alibaba.csp.sentinel.Tracer;
 import com.alibaba.csp.sentinel.slots.block.BlockException;
@@ -34,7 +36,8 @@ import javax.annotation.Nullable;
 import java.util.concurrent.atomic.AtomicReference;
 
 /**
- * <p>gRPC client interceptor for Sentinel. Currently it only works with unary methods.</p>
+ * <p>gRPC client interceptor for Sentinel. The call is guarded by the resource of the full method name,
+ * which is entered asynchronously and exited when the call is closed or cancelled.</p>
  * <p>
  * Example code:
  * <pre>
@@ -52,6 +55,11 @@ import java.util.concurrent.atomic.AtomicReference;
  * }
  * </pre>
  * <p>
+ * For server-streaming and bidi-streaming methods, each inbound message can also be guarded by
+ * the message resource (see {@link GrpcUtils#getMessageResourceName(String)}) with
+ * {@code new SentinelGrpcClientInterceptor(true)}. When the message resource is blocked, the demand
+ * of the call is paused until the message is allowed to pass, instead of failing the call.
+ * <p>
  * For server interceptor, see {@link SentinelGrpcServerInterceptor}.
  *
  * @author Eric Zhao
@@ -60,48 +68,91 @@ public class SentinelGrpcClientInterceptor implements ClientInterceptor {
     private static final Status FLOW_CONTROL_BLOCK = Status.UNAVAILABLE.withDescription(
             "Flow control limit exceeded (client side)");
 
+    private final SentinelResourceHandleCache handleCache = new SentinelResourceHandleCache(
+            ResourceTypeConstants.COMMON, EntryType.OUT);
+
+    private final boolean messageFlowControlEnabled;
+
+    public SentinelGrpcClientInterceptor() {
+        this(false);
+    }
+
+    /**
+     * Note that the message resource is checked in the transport thread, so the rate limiter
+     * control behavior (which waits in the calling thread) is not recommended for it.
+     *
+     * @param messageFlowControlEnabled whether to guard each inbound message of streaming calls
+     * @since 1.8.7
+     */
+    public SentinelGrpcClientInterceptor(boolean messageFlowControlEnabled) {
+        this.messageFlowControlEnabled = messageFlowControlEnabled;
+    }
+
     @Override
     public <ReqT, RespT> ClientCall<ReqT, RespT> interceptCall(MethodDescriptor<ReqT, RespT> methodDescriptor,
                                                                CallOptions callOptions, Channel channel) {
         String fullMethodName = methodDescriptor.getFullMethodName();
         Entry entry = null;
         try {
-            entry = SphU.asyncEntry(fullMethodName, EntryType.OUT);
+            entry = SphU.asyncEntry(handleCache.get(fullMethodName));
             final AtomicReference<Entry> atomicReferenceEntry = new AtomicReference<>(entry);
             // Allow access, forward the call.
             return new ForwardingClientCall.SimpleForwardingClientCall<ReqT, RespT>(
                     channel.newCall(methodDescriptor, callOptions)) {
+                private final StreamDemandGate demandGate = newDemandGate(delegate(), methodDescriptor);
+
                 @Override
                 public void start(Listener<RespT> responseListener, Metadata headers) {
                     super.start(new ForwardingClientCallListener.SimpleForwardingClientCallListener<RespT>(responseListener) {
+                        @Override
+                        public void onMessage(RespT message) {
+                            if (demandGate != null) {
+                                demandGate.onMessage();
+                            }
+                            super.onMessage(message);
+                        }
+
                         @Override
                         public void onClose(Status status, Metadata trailers) {
-                            Entry entry = atomicReferenceEntry.get();
+                            if (demandGate != null) {
+                                demandGate.close();
+                            }
+                            Entry entry = atomicReferenceEntry.getAndSet(null);
                             if (entry != null) {
                                 // Record the exception metrics.
                                 if (!status.isOk()) {
                                     Tracer.traceEntry(status.asRuntimeException(), entry);
                                 }
                                 entry.exit();
-                                atomicReferenceEntry.set(null);
                             }
                             super.onClose(status, trailers);
                         }
                     }, headers);
                 }
 
+                @Override
+                public void request(int numMessages) {
+                    if (demandGate != null) {
+                        demandGate.request(numMessages);
+                    } else {
+                        super.request(numMessages);
+                    }
+                }
+
                 /**
                  * Some Exceptions will only call cancel.
                  */
                 @Override
                 public void cancel(@Nullable String message, @Nullable Throwable cause) {
-                    Entry entry = atomicReferenceEntry.get();
+                    if (demandGate != null) {
+                        demandGate.close();
+                    }
+                    Entry entry = atomicReferenceEntry.getAndSet(null);
                     // Some Exceptions will call onClose and cancel.
                     if (entry != null) {
                         // Record the exception metrics.
                         Tracer.traceEntry(cause, entry);
                         entry.exit();
-                        atomicReferenceEntry.set(null);
                     }
                     super.cancel(message, cause);
                 }
@@ -139,4 +190,17 @@ public class SentinelGrpcClientInterceptor implements ClientInterceptor {
             throw e;
         }
     }
+
+    private StreamDemandGate newDemandGate(final ClientCall<?, ?> call, MethodDescriptor<?, ?> methodDescriptor) {
+        if (!messageFlowControlEnabled || !GrpcUtils.isInboundStream(methodDescriptor, false)) {
+            return null;
+        }
+        String resourceName = GrpcUtils.getMessageResourceName(methodDescriptor.getFullMethodName());
+        return new StreamDemandGate(handleCache.get(resourceName), StreamDemandGate.DEFAULT_RETRY_INTERVAL_MS) {
+            @Override
+            protected void doRequest(int numMessages) {
+                call.request(numMessages);
+            }
+        };
+    }
 }
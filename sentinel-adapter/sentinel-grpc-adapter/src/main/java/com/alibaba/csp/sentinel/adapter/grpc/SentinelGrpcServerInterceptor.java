@@ -17,6 +17,8 @@ package com.alibaba.csp.sentinel.adapter.grpc;
 
 import com.alibaba.csp.sentinel.Entry;
 import com.alibaba.csp.sentinel.EntryType;
+import com.alibaba.csp.sentinel.ResourceTypeConstants;
+import com.alibaba.csp.sentinel.SentinelResourceHandleCache;
 import com.alibaba.csp.sentinel.SphU;
 import com.alibaba.csp.sentinel.Tracer;
 import com.alibaba.csp.sentinel.slots.block.BlockException;
@@ -32,7 +34,8 @@ import io.grpc.StatusRuntimeException;
 import java.util.concurrent.atomic.AtomicReference;
 
 /**
- * <p>gRPC server interceptor for Sentinel. Currently it only works with unary methods.</p>
+ * <p>gRPC server interceptor for Sentinel. The call is guarded by the resource of the full method name,
+ * which is entered asynchronously and exited when the call is closed or cancelled.</p>
  * <p>
  * Example code:
  * <pre>
@@ -42,6 +45,11 @@ import java.util.concurrent.atomic.AtomicReference;
  *      .build();
  * </pre>
  * <p>
+ * For client-streaming and bidi-streaming methods, each inbound message can also be guarded by
+ * the message resource (see {@link GrpcUtils#getMessageResourceName(String)}) with
+ * {@code new SentinelGrpcServerInterceptor(true)}. When the message resource is blocked, the demand
+ * of the call is paused until the message is allowed to pass, instead of failing the call.
+ * <p>
  * For client interceptor, see {@link SentinelGrpcClientInterceptor}.
  *
  * @author Eric Zhao
@@ -51,21 +59,54 @@ public class SentinelGrpcServerInterceptor implements ServerInterceptor {
             "Flow control limit exceeded (server side)");
     private static final StatusRuntimeException STATUS_RUNTIME_EXCEPTION = new StatusRuntimeException(Status.CANCELLED);
 
+    private final SentinelResourceHandleCache handleCache = new SentinelResourceHandleCache(
+            ResourceTypeConstants.COMMON, EntryType.IN);
+
+    private final boolean messageFlowControlEnabled;
+
+    public SentinelGrpcServerInterceptor() {
+        this(false);
+    }
+
+    /**
+     * Note that the message resource is checked in the transport thread, so the rate limiter
+     * control behavior (which waits in the calling thread) is not recommended for it.
+     *
+     * @param messageFlowControlEnabled whether to guard each inbound message of streaming calls
+     * @since 1.8.7
+     */
+    public SentinelGrpcServerInterceptor(boolean messageFlowControlEnabled) {
+        this.messageFlowControlEnabled = messageFlowControlEnabled;
+    }
+
     @Override
     public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(ServerCall<ReqT, RespT> call, Metadata headers, ServerCallHandler<ReqT, RespT> next) {
         String fullMethodName = call.getMethodDescriptor().getFullMethodName();
         // Remote address: serverCall.getAttributes().get(Grpc.TRANSPORT_ATTR_REMOTE_ADDR);
         Entry entry = null;
         try {
-            entry = SphU.asyncEntry(fullMethodName, EntryType.IN);
+            entry = SphU.asyncEntry(handleCache.get(fullMethodName));
             final AtomicReference<Entry> atomicReferenceEntry = new AtomicReference<>(entry);
+            final StreamDemandGate demandGate = newDemandGate(call, fullMethodName);
             // Allow access, forward the call.
             return new ForwardingServerCallListener.SimpleForwardingServerCallListener<ReqT>(
                     next.startCall(
                             new ForwardingServerCall.SimpleForwardingServerCall<ReqT, RespT>(call) {
+                                @Override
+                                public void request(int numMessages) {
+                                    if (demandGate != null) {
+                                        demandGate.request(numMessages);
+                                    } else {
+                                        super.request(numMessages);
+                                    }
+                                }
+
                                 @Override
                                 public void close(Status status, Metadata trailers) {
-                                    Entry entry = atomicReferenceEntry.get();
+                                    if (demandGate != null) {
+                                        demandGate.close();
+                                    }
+                                    Entry entry = atomicReferenceEntry.getAndSet(null);
                                     if (entry != null) {
                                         // Record the exception metrics.
                                         if (!status.isOk()) {
@@ -77,6 +118,14 @@ public class SentinelGrpcServerInterceptor implements ServerInterceptor {
                                     super.close(status, trailers);
                                 }
                             }, headers)) {
+                @Override
+                public void onMessage(ReqT message) {
+                    if (demandGate != null) {
+                        demandGate.onMessage();
+                    }
+                    super.onMessage(message);
+                }
+
                 /**
                  * If call was canceled, onCancel will be called. and the close will not be called
                  * so the server is encouraged to abort processing to save resources by onCancel
@@ -84,11 +133,13 @@ public class SentinelGrpcServerInterceptor implements ServerInterceptor {
                  */
                 @Override
                 public void onCancel() {
-                    Entry entry = atomicReferenceEntry.get();
+                    if (demandGate != null) {
+                        demandGate.close();
+                    }
+                    Entry entry = atomicReferenceEntry.getAndSet(null);
                     if (entry != null) {
                         Tracer.traceEntry(STATUS_RUNTIME_EXCEPTION, entry);
                         entry.exit();
-                        atomicReferenceEntry.set(null);
                     }
                     super.onCancel();
                 }
@@ -106,4 +157,17 @@ public class SentinelGrpcServerInterceptor implements ServerInterceptor {
             throw e;
         }
     }
+
+    private StreamDemandGate newDemandGate(final ServerCall<?, ?> call, String fullMethodName) {
+        if (!messageFlowControlEnabled || !GrpcUtils.isInboundStream(call.getMethodDescriptor(), true)) {
+            return null;
+        }
+        return new StreamDemandGate(handleCache.get(GrpcUtils.getMessageResourceName(fullMethodName)),
+            StreamDemandGate.DEFAULT_RETRY_INTERVAL_MS) {
+            @Override
+            protected void doRequest(int numMessages) {
+                call.request(numMessages);
+            }
+        };
+    }
 }
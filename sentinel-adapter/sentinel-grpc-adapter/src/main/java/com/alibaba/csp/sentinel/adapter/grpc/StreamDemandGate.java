@@ -0,0 +1,155 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.adapter.grpc;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.alibaba.csp.sentinel.Entry;
+import com.alibaba.csp.sentinel.SentinelResourceHandle;
+import com.alibaba.csp.sentinel.SphU;
+import com.alibaba.csp.sentinel.concurrent.NamedThreadFactory;
+import com.alibaba.csp.sentinel.log.RecordLog;
+import com.alibaba.csp.sentinel.slots.block.BlockException;
+
+/**
+ * <p>Gate between the {@code request(n)} demand of a streaming call and the transport.</p>
+ *
+ * <p>Each inbound message must pass the message resource before the demand for it is forwarded
+ * to the transport, and only one forwarded message is in flight at a time. When the message
+ * resource is blocked, the demand is paused and retried later rather than failing the call,
+ * so the transport stops delivering messages and the HTTP/2 flow-control window pushes back
+ * to the peer.</p>
+ *
+ * <p>{@link #request(int)} may be called from any thread, as {@code ServerCall#request(int)}
+ * and {@code ClientCall#request(int)} are. The forwarded requests are serialized by a drain loop.</p>
+ *
+ * @since 1.8.7
+ */
+abstract class StreamDemandGate {
+
+    static final long DEFAULT_RETRY_INTERVAL_MS = 50;
+
+    private static final int MAX_IN_FLIGHT = 1;
+
+    @SuppressWarnings("PMD.ThreadPoolCreationRule")
+    private static final ScheduledExecutorService RETRY_SCHEDULER = Executors.newSingleThreadScheduledExecutor(
+        new NamedThreadFactory("sentinel-grpc-stream-demand-retry", true));
+
+    private final SentinelResourceHandle messageHandle;
+    private final long retryIntervalMs;
+
+    private final AtomicLong pending = new AtomicLong();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger wip = new AtomicInteger();
+
+    private volatile boolean paused = false;
+    private volatile boolean closed = false;
+
+    private final Runnable resumeTask = new Runnable() {
+        @Override
+        public void run() {
+            paused = false;
+            drain();
+        }
+    };
+
+    StreamDemandGate(SentinelResourceHandle messageHandle, long retryIntervalMs) {
+        this.messageHandle = messageHandle;
+        this.retryIntervalMs = retryIntervalMs;
+    }
+
+    /**
+     * Forward the demand to the transport.
+     *
+     * @param numMessages number of requested messages
+     */
+    protected abstract void doRequest(int numMessages);
+
+    void request(int numMessages) {
+        if (numMessages <= 0) {
+            return;
+        }
+        long current;
+        long next;
+        do {
+            current = pending.get();
+            next = current + numMessages;
+            if (next < 0) {
+                next = Long.MAX_VALUE;
+            }
+        } while (!pending.compareAndSet(current, next));
+        drain();
+    }
+
+    /**
+     * Called when a message forwarded by the gate is delivered, before passing it to the application.
+     */
+    void onMessage() {
+        inFlight.decrementAndGet();
+        drain();
+    }
+
+    void close() {
+        closed = true;
+    }
+
+    private void drain() {
+        if (wip.getAndIncrement() != 0) {
+            return;
+        }
+        int missed = 1;
+        do {
+            while (!closed && !paused && pending.get() > 0 && inFlight.get() < MAX_IN_FLIGHT) {
+                if (!tryAcquire()) {
+                    paused = true;
+                    scheduleResume();
+                    break;
+                }
+                pending.decrementAndGet();
+                inFlight.incrementAndGet();
+                doRequest(1);
+            }
+            missed = wip.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    private boolean tryAcquire() {
+        Entry entry = null;
+        try {
+            entry = SphU.entry(messageHandle);
+            return true;
+        } catch (BlockException e) {
+            return false;
+        } finally {
+            if (entry != null) {
+                entry.exit();
+            }
+        }
+    }
+
+    private void scheduleResume() {
+        try {
+            RETRY_SCHEDULER.schedule(resumeTask, retryIntervalMs, TimeUnit.MILLISECONDS);
+        } catch (Throwable ex) {
+            RecordLog.warn("[StreamDemandGate] Failed to schedule the resume of stream demand", ex);
+            paused = false;
+        }
+    }
+}
@@ -21,8 +21,14 @@ import com.alibaba.csp.sentinel.adapter.grpc.gen.FooServiceGrpc;
 import io.grpc.ClientInterceptor;
 import io.grpc.ManagedChannel;
 import io.grpc.ManagedChannelBuilder;
+import io.grpc.stub.StreamObserver;
 
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * A simple wrapped gRPC client for FooService.
@@ -32,12 +38,14 @@ import java.util.concurrent.TimeUnit;
 final class FooServiceClient {
     private final ManagedChannel channel;
     private final FooServiceGrpc.FooServiceBlockingStub blockingStub;
+    private final FooServiceGrpc.FooServiceStub asyncStub;
 
     FooServiceClient(String host, int port) {
         this.channel = ManagedChannelBuilder.forAddress(host, port)
                 .usePlaintext()
                 .build();
         this.blockingStub = FooServiceGrpc.newBlockingStub(this.channel);
+        this.asyncStub = FooServiceGrpc.newStub(this.channel);
     }
 
     FooServiceClient(String host, int port, ClientInterceptor interceptor) {
@@ -46,6 +54,7 @@ final class FooServiceClient {
                 .intercept(interceptor)
                 .build();
         this.blockingStub = FooServiceGrpc.newBlockingStub(this.channel);
+        this.asyncStub = FooServiceGrpc.newStub(this.channel);
     }
 
     FooResponse sayHello(FooRequest request) {
@@ -62,7 +71,54 @@ final class FooServiceClient {
         return blockingStub.anotherHello(request);
     }
 
+    List<FooResponse> helloStream(List<FooRequest> requests, long timeout, TimeUnit unit) throws Exception {
+        ResponseCollector collector = new ResponseCollector();
+        return collector.collect(asyncStub.helloStream(collector), requests, timeout, unit);
+    }
+
+    List<FooResponse> anotherHelloStream(List<FooRequest> requests, long timeout, TimeUnit unit) throws Exception {
+        ResponseCollector collector = new ResponseCollector();
+        return collector.collect(asyncStub.anotherHelloStream(collector), requests, timeout, unit);
+    }
+
     void shutdown() throws InterruptedException {
         channel.shutdown().awaitTermination(1, TimeUnit.SECONDS);
     }
+
+    private static class ResponseCollector implements StreamObserver<FooResponse> {
+        private final List<FooResponse> responses = new CopyOnWriteArrayList<>();
+        private final AtomicReference<Throwable> error = new AtomicReference<>();
+        private final CountDownLatch latch = new CountDownLatch(1);
+
+        @Override
+        public void onNext(FooResponse response) {
+            responses.add(response);
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            error.set(t);
+            latch.countDown();
+        }
+
+        @Override
+        public void onCompleted() {
+            latch.countDown();
+        }
+
+        List<FooResponse> collect(StreamObserver<FooRequest> requestObserver, List<FooRequest> requests,
+                                  long timeout, TimeUnit unit) throws Exception {
+            for (FooRequest request : requests) {
+                requestObserver.onNext(request);
+            }
+            requestObserver.onCompleted();
+            if (!latch.await(timeout, unit)) {
+                throw new TimeoutException("Stream not completed in time");
+            }
+            if (error.get() instanceof Exception) {
+                throw (Exception) error.get();
+            }
+            return responses;
+        }
+    }
 }
@@ -73,4 +73,33 @@ class FooServiceImpl extends FooServiceGrpc.FooServiceImplBase {
                 break;
         }
     }
+
+    @Override
+    public StreamObserver<FooRequest> helloStream(StreamObserver<FooResponse> responseObserver) {
+        return echo(responseObserver);
+    }
+
+    @Override
+    public StreamObserver<FooRequest> anotherHelloStream(StreamObserver<FooResponse> responseObserver) {
+        return echo(responseObserver);
+    }
+
+    private StreamObserver<FooRequest> echo(final StreamObserver<FooResponse> responseObserver) {
+        return new StreamObserver<FooRequest>() {
+            @Override
+            public void onNext(FooRequest request) {
+                String message = String.format("Hello %s! Your ID is %d.", request.getName(), request.getId());
+                responseObserver.onNext(FooResponse.newBuilder().setMessage(message).build());
+            }
+
+            @Override
+            public void onError(Throwable t) {
+            }
+
+            @Override
+            public void onCompleted() {
+                responseObserver.onCompleted();
+            }
+        };
+    }
 }
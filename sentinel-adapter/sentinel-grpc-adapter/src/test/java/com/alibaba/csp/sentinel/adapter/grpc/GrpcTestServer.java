@@ -17,6 +17,7 @@ package com.alibaba.csp.sentinel.adapter.grpc;
 
 import io.grpc.Server;
 import io.grpc.ServerBuilder;
+import io.grpc.ServerInterceptor;
 
 import java.io.IOException;
 import java.util.concurrent.Executors;
@@ -28,13 +29,17 @@ class GrpcTestServer {
     GrpcTestServer() {}
 
     void start(int port, boolean shouldIntercept) throws IOException {
+        start(port, shouldIntercept ? new SentinelGrpcServerInterceptor() : null);
+    }
+
+    void start(int port, ServerInterceptor interceptor) throws IOException {
         if (server != null) {
             throw new IllegalStateException("Server already running!");
         }
         ServerBuilder<?> serverBuild = ServerBuilder.forPort(port)
             .addService(new FooServiceImpl());
-        if (shouldIntercept) {
-            serverBuild.intercept(new SentinelGrpcServerInterceptor());
+        if (interceptor != null) {
+            serverBuild.intercept(interceptor);
         }
         server = serverBuild.build();
         server.start();
@@ -23,12 +23,16 @@ import com.alibaba.csp.sentinel.slots.block.RuleConstant;
 import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
 import com.alibaba.csp.sentinel.slots.block.flow.FlowRuleManager;
 import com.alibaba.csp.sentinel.slots.clusterbuilder.ClusterBuilderSlot;
+import io.grpc.ServerInterceptor;
 import io.grpc.StatusRuntimeException;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
@@ -84,6 +88,36 @@ public class SentinelGrpcClientInterceptorTest {
         server.stop();
     }
 
+    @Test
+    public void testStreamMessageFlowControl() throws Exception {
+        final int port = 19330;
+        server.start(port, (ServerInterceptor) null);
+        client = new FooServiceClient("localhost", port, new SentinelGrpcClientInterceptor(true));
+
+        String streamMethodName = "com.alibaba.sentinel.examples.FooService/helloStream";
+        String messageResourceName = GrpcUtils.getMessageResourceName(streamMethodName);
+        FlowRuleManager.loadRules(Collections.singletonList(new FlowRule(messageResourceName).setCount(2)));
+
+        List<FooRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            requests.add(FooRequest.newBuilder().setName("Sentinel").setId(i).build());
+        }
+        // Limited messages pause the demand of the stream rather than failing the call.
+        List<FooResponse> responses = client.helloStream(requests, 10, TimeUnit.SECONDS);
+        assertEquals(requests.size(), responses.size());
+
+        ClusterNode messageNode = ClusterBuilderSlot.getClusterNode(messageResourceName, EntryType.OUT);
+        assertNotNull(messageNode);
+        assertTrue(messageNode.blockRequest() > 0);
+        ClusterNode callNode = ClusterBuilderSlot.getClusterNode(streamMethodName, EntryType.OUT);
+        assertNotNull(callNode);
+        assertEquals(1, callNode.totalPass());
+        assertEquals(0, callNode.blockRequest());
+
+        client.shutdown();
+        server.stop();
+    }
+
     private boolean sendRequest(FooRequest request) {
         try {
             FooResponse response = client.sayHello(request);
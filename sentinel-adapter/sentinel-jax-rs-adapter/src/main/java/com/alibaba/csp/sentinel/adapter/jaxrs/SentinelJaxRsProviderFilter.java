@@ -17,7 +17,9 @@ package com.alibaba.csp.sentinel.adapter.jaxrs;
 
 import com.alibaba.csp.sentinel.*;
 import com.alibaba.csp.sentinel.adapter.jaxrs.config.SentinelJaxRsConfig;
+import com.alibaba.csp.sentinel.adapter.web.common.WebResourceWrapperCache;
 import com.alibaba.csp.sentinel.context.ContextUtil;
+import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
 import com.alibaba.csp.sentinel.slots.block.BlockException;
 import com.alibaba.csp.sentinel.util.StringUtil;
 
@@ -51,7 +53,8 @@ public class SentinelJaxRsProviderFilter implements ContainerRequestFilter, Cont
                 String origin = parseOrigin(containerRequestContext);
                 String contextName = getContextName(containerRequestContext);
                 ContextUtil.enter(contextName, origin);
-                Entry entry = SphU.entry(resourceName, ResourceTypeConstants.COMMON_WEB, EntryType.IN);
+                ResourceWrapper resource = WebResourceWrapperCache.getInstance().get(resourceName);
+                Entry entry = SphU.entry(resource);
 
                 containerRequestContext.setProperty(SENTINEL_JAX_RS_PROVIDER_ENTRY_PROPERTY, entry);
             }
@@ -15,6 +15,12 @@
  */
 package com.alibaba.csp.sentinel.adapter.jaxrs.request;
 
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.alibaba.csp.sentinel.adapter.web.common.WebResourceWrapperCache;
+
 import javax.ws.rs.Path;
 import javax.ws.rs.container.ContainerRequestContext;
 import javax.ws.rs.container.ResourceInfo;
@@ -23,11 +29,25 @@ import javax.ws.rs.container.ResourceInfo;
  * @author sea
  */
 public class DefaultResourceNameParser implements ResourceNameParser {
+
+    /**
+     * Resource path of each resource method, so the annotations are not resolved for every request.
+     */
+    private final ConcurrentMap<Method, String> pathCache = new ConcurrentHashMap<>();
+
     @Override
     public String parse(ContainerRequestContext containerRequestContext, ResourceInfo resourceInfo) {
-        Path classPath = resourceInfo.getResourceClass().getAnnotation(Path.class);
-        Path methodPath = resourceInfo.getResourceMethod().getAnnotation(Path.class);
-        return containerRequestContext.getRequest().getMethod() + ":" + (classPath != null ? classPath.value() : "") + (methodPath != null ? methodPath.value() : "");
+        Method resourceMethod = resourceInfo.getResourceMethod();
+        String path = pathCache.get(resourceMethod);
+        if (path == null) {
+            Path classPath = resourceInfo.getResourceClass().getAnnotation(Path.class);
+            Path methodPath = resourceMethod.getAnnotation(Path.class);
+            path = (classPath != null ? classPath.value() : "") + (methodPath != null ? methodPath.value() : "");
+            pathCache.putIfAbsent(resourceMethod, path);
+        }
+        // The `${httpMethod}:${path}` name is resolved from the cache instead of being built for every request.
+        return WebResourceWrapperCache.getInstance()
+            .get(containerRequestContext.getRequest().getMethod(), path).getName();
     }
 
 }
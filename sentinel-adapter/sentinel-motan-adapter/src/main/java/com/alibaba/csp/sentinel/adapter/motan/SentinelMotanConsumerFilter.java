@@ -35,40 +35,36 @@ import com.weibo.api.motan.rpc.Response;
 @SpiMeta(name = MotanAdapterGlobalConfig.SENTINEL_MOTAN_CONSUMER)
 public class SentinelMotanConsumerFilter implements Filter {
 
+    private final SentinelResourceHandleCache handleCache = new SentinelResourceHandleCache(
+        ResourceTypeConstants.COMMON_RPC, EntryType.OUT);
+
     public SentinelMotanConsumerFilter(){
         RecordLog.info("Sentinel motan consumer filter initialized");
     }
 
     @Override
     public Response filter(Caller<?> caller, Request request) {
-        Entry interfaceEntry = null;
         Entry methodEntry = null;
         String prefix = MotanAdapterGlobalConfig.getMotanConsumerPrefix();
         String interfaceResourceName = MotanUtils.getInterfaceName(caller, prefix);
         String methodResourceName = MotanUtils.getMethodResourceName(caller, request, prefix);
         try {
-            interfaceEntry = SphU.entry(interfaceResourceName, ResourceTypeConstants.COMMON_RPC, EntryType.OUT);
-            methodEntry = SphU.entry(methodResourceName, ResourceTypeConstants.COMMON_RPC, EntryType.OUT,
-                    request.getArguments());
+            methodEntry = SphU.entry(handleCache.get(methodResourceName, interfaceResourceName), 1,
+                request.getArguments());
             Response result = caller.call(request);
             if (result.getException() != null) {
-                Tracer.traceEntry(result.getException(), interfaceEntry);
                 Tracer.traceEntry(result.getException(), methodEntry);
             }
             return result;
         } catch (BlockException e) {
             return MotanAdapterGlobalConfig.getConsumerFallback().handle(caller, request, e);
         } catch (MotanAbstractException e) {
-            Tracer.traceEntry(e, interfaceEntry);
             Tracer.traceEntry(e, methodEntry);
             throw e;
         } finally {
             if (methodEntry != null) {
                 methodEntry.exit(1, request.getArguments());
             }
-            if (interfaceEntry != null) {
-                interfaceEntry.exit();
-            }
         }
     }
 }
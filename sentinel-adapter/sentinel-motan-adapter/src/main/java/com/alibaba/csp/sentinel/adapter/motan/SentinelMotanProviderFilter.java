@@ -37,13 +37,15 @@ import java.util.Map;
 @SpiMeta(name = MotanAdapterGlobalConfig.SENTINEL_MOTAN_PROVIDER)
 public class SentinelMotanProviderFilter implements Filter {
 
+    private final SentinelResourceHandleCache handleCache = new SentinelResourceHandleCache(
+        ResourceTypeConstants.COMMON_RPC, EntryType.IN);
+
     public SentinelMotanProviderFilter(){
         RecordLog.info("Sentinel motan provider filter initialized");
     }
 
     @Override
     public Response filter(Caller<?> caller, Request request) {
-        Entry interfaceEntry = null;
         Entry methodEntry = null;
         Map<String, String> attachment = request.getAttachments();
         String origin = attachment.getOrDefault(MotanAdapterGlobalConfig.APPLICATION, MotanAdapterGlobalConfig.MOTAN);
@@ -52,28 +54,22 @@ public class SentinelMotanProviderFilter implements Filter {
         String methodResourceName = MotanUtils.getMethodResourceName(caller, request, prefix);
         try {
             ContextUtil.enter(methodResourceName, origin);
-            interfaceEntry = SphU.entry(interfaceResourceName, ResourceTypeConstants.COMMON_RPC, EntryType.IN);
-            methodEntry = SphU.entry(methodResourceName, ResourceTypeConstants.COMMON_RPC, EntryType.IN,
-                    request.getArguments());
+            methodEntry = SphU.entry(handleCache.get(methodResourceName, interfaceResourceName), 1,
+                request.getArguments());
             Response result = caller.call(request);
             if (result.getException() != null) {
-                Tracer.traceEntry(result.getException(), interfaceEntry);
                 Tracer.traceEntry(result.getException(), methodEntry);
             }
             return result;
         } catch (BlockException e) {
             return MotanAdapterGlobalConfig.getProviderFallback().handle(caller, request, e);
         } catch (MotanAbstractException e) {
-            Tracer.traceEntry(e, interfaceEntry);
             Tracer.traceEntry(e, methodEntry);
             throw e;
         } finally {
             if (methodEntry != null) {
                 methodEntry.exit(1, request.getArguments());
             }
-            if (interfaceEntry != null) {
-                interfaceEntry.exit();
-            }
             ContextUtil.exit();
         }
     }
@@ -0,0 +1,65 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.adapter.okhttp;
+
+import com.alibaba.csp.sentinel.EntryType;
+import com.alibaba.csp.sentinel.ResourceTypeConstants;
+import com.alibaba.csp.sentinel.SentinelResourceHandle;
+import com.alibaba.csp.sentinel.SentinelResourceHandleCache;
+import com.alibaba.csp.sentinel.util.StringUtil;
+
+import okhttp3.Connection;
+import okhttp3.HttpUrl;
+import okhttp3.Request;
+
+/**
+ * Resolves the resource handle of OkHttp requests according to the {@link SentinelOkHttpConfig}.
+ *
+ * @since 1.8.7
+ */
+final class OkHttpResourceHandleResolver {
+
+    private static final SentinelResourceHandleCache HANDLE_CACHE = new SentinelResourceHandleCache(
+        ResourceTypeConstants.COMMON_WEB, EntryType.OUT);
+    /**
+     * The parent of a handle is bound when it's created, so the handles with a host parent are kept separately.
+     */
+    private static final SentinelResourceHandleCache HOST_HANDLE_CACHE = new SentinelResourceHandleCache(
+        ResourceTypeConstants.COMMON_WEB, EntryType.OUT);
+
+    static SentinelResourceHandle resolve(Request request, Connection connection, SentinelOkHttpConfig config) {
+        String name = config.getResourceExtractor().extract(request, connection);
+        String prefix = config.getResourcePrefix();
+        if (!config.isHostResourceEnabled()) {
+            return HANDLE_CACHE.get(StringUtil.isNotBlank(prefix) ? prefix + name : name);
+        }
+        // A customized extractor may leave the host out, so the host is always a part of the resource name,
+        // otherwise the same name of different hosts would share the handle and the parent of the first host.
+        String hostResourceName = getHostResourceName(request.url(), prefix);
+        return HOST_HANDLE_CACHE.get(getHostScopedResourceName(hostResourceName, name), hostResourceName);
+    }
+
+    static String getHostScopedResourceName(String hostResourceName, String name) {
+        return name.startsWith("/") ? hostResourceName + name : hostResourceName + '/' + name;
+    }
+
+    static String getHostResourceName(HttpUrl url, String prefix) {
+        String host = url.host() + ':' + url.port();
+        return StringUtil.isNotBlank(prefix) ? prefix + host : host;
+    }
+
+    private OkHttpResourceHandleResolver() {}
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.adapter.okhttp;
+
+import java.io.IOException;
+
+import com.alibaba.csp.sentinel.AsyncEntry;
+import com.alibaba.csp.sentinel.SphU;
+import com.alibaba.csp.sentinel.Tracer;
+import com.alibaba.csp.sentinel.log.RecordLog;
+import com.alibaba.csp.sentinel.slots.block.BlockException;
+import com.alibaba.csp.sentinel.util.AssertUtil;
+
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.Response;
+
+/**
+ * <p>{@link Callback} of asynchronous OkHttp calls guarded by an {@link AsyncEntry}. The entry is created
+ * in the calling thread before the call is enqueued (see {@link #enqueue(Call, Callback, SentinelOkHttpConfig)}),
+ * so blocked calls neither wait in the dispatcher of OkHttp nor occupy any of its threads, and the entry is
+ * completed when the call is done.</p>
+ *
+ * <p>Note that the client should not be configured with {@link SentinelOkHttpInterceptor} at the same time,
+ * otherwise the calls will be counted twice.</p>
+ *
+ * @since 1.8.7
+ */
+public class SentinelOkHttpCallback implements Callback {
+
+    private final AsyncEntry entry;
+    private final Callback delegate;
+
+    public SentinelOkHttpCallback(AsyncEntry entry, Callback delegate) {
+        AssertUtil.notNull(entry, "entry cannot be null");
+        AssertUtil.notNull(delegate, "delegate cannot be null");
+        this.entry = entry;
+        this.delegate = delegate;
+    }
+
+    /**
+     * Enqueue the call with the default config.
+     *
+     * @param call     the call to enqueue
+     * @param callback the callback of the call
+     */
+    public static void enqueue(Call call, Callback callback) {
+        enqueue(call, callback, new SentinelOkHttpConfig());
+    }
+
+    /**
+     * <p>Enqueue the call if it's allowed to pass. The resource is extracted with a null connection as
+     * the call has not been dispatched yet.</p>
+     *
+     * <p>When the call is blocked, the response of the fallback will be passed to the callback in the
+     * calling thread, or {@link Callback#onFailure(Call, IOException)} will be invoked with the error
+     * thrown by the fallback.</p>
+     *
+     * @param call     the call to enqueue
+     * @param callback the callback of the call
+     * @param config   the config
+     */
+    public static void enqueue(Call call, Callback callback, SentinelOkHttpConfig config) {
+        AssertUtil.notNull(call, "call cannot be null");
+        AssertUtil.notNull(callback, "callback cannot be null");
+        AssertUtil.notNull(config, "config cannot be null");
+        AsyncEntry entry;
+        try {
+            entry = SphU.asyncEntry(OkHttpResourceHandleResolver.resolve(call.request(), null, config));
+        } catch (BlockException e) {
+            handleBlocked(call, callback, config, e);
+            return;
+        }
+        try {
+            call.enqueue(new SentinelOkHttpCallback(entry, callback));
+        } catch (RuntimeException ex) {
+            Tracer.traceEntry(ex, entry);
+            entry.exit();
+            throw ex;
+        }
+    }
+
+    private static void handleBlocked(Call call, Callback callback, SentinelOkHttpConfig config,
+                                      BlockException e) {
+        Response response;
+        try {
+            response = config.getFallback().handle(call.request(), null, e);
+        } catch (RuntimeException ex) {
+            callback.onFailure(call, new IOException(ex));
+            return;
+        }
+        try {
+            callback.onResponse(call, response);
+        } catch (IOException ex) {
+            RecordLog.warn("[SentinelOkHttpCallback] Error when handling the fallback response", ex);
+        }
+    }
+
+    @Override
+    public void onFailure(Call call, IOException e) {
+        Tracer.traceEntry(e, entry);
+        entry.exit();
+        delegate.onFailure(call, e);
+    }
+
+    @Override
+    public void onResponse(Call call, Response response) throws IOException {
+        entry.exit();
+        delegate.onResponse(call, response);
+    }
+}
@@ -32,6 +32,7 @@ public class SentinelOkHttpConfig {
     private final String resourcePrefix;
     private final OkHttpResourceExtractor resourceExtractor;
     private final OkHttpFallback fallback;
+    private final boolean hostResourceEnabled;
 
     public SentinelOkHttpConfig() {
         this(DEFAULT_RESOURCE_PREFIX);
@@ -48,11 +49,27 @@ public class SentinelOkHttpConfig {
     public SentinelOkHttpConfig(String resourcePrefix,
                                 OkHttpResourceExtractor resourceExtractor,
                                 OkHttpFallback fallback) {
+        this(resourcePrefix, resourceExtractor, fallback, false);
+    }
+
+    /**
+     * @param resourcePrefix      prefix of the resource names
+     * @param resourceExtractor   extractor of the request resource name
+     * @param fallback            handler of the blocked requests
+     * @param hostResourceEnabled whether to guard each request with the resource of its target host
+     *                            ({@code prefix + host:port}) as well, which works as a per-host bulkhead
+     *                            when a thread-grade flow rule is configured for the host resource
+     * @since 1.8.7
+     */
+    public SentinelOkHttpConfig(String resourcePrefix,
+                                OkHttpResourceExtractor resourceExtractor,
+                                OkHttpFallback fallback, boolean hostResourceEnabled) {
         AssertUtil.notNull(resourceExtractor, "resourceExtractor cannot be null");
         AssertUtil.notNull(fallback, "fallback cannot be null");
         this.resourcePrefix = resourcePrefix;
         this.resourceExtractor = resourceExtractor;
         this.fallback = fallback;
+        this.hostResourceEnabled = hostResourceEnabled;
     }
 
     public String getResourcePrefix() {
@@ -67,12 +84,21 @@ public class SentinelOkHttpConfig {
         return fallback;
     }
 
+    /**
+     * @return whether the resource of the target host is entered along with the request resource
+     * @since 1.8.7
+     */
+    public boolean isHostResourceEnabled() {
+        return hostResourceEnabled;
+    }
+
     @Override
     public String toString() {
         return "SentinelOkHttpConfig{" +
             "resourcePrefix='" + resourcePrefix + '\'' +
             ", resourceExtractor=" + resourceExtractor +
             ", fallback=" + fallback +
+            ", hostResourceEnabled=" + hostResourceEnabled +
             '}';
     }
 }
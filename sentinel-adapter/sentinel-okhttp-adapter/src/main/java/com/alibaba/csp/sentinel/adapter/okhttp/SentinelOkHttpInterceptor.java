@@ -18,7 +18,6 @@ package com.alibaba.csp.sentinel.adapter.okhttp;
 import com.alibaba.csp.sentinel.*;
 import com.alibaba.csp.sentinel.slots.block.BlockException;
 import com.alibaba.csp.sentinel.util.AssertUtil;
-import com.alibaba.csp.sentinel.util.StringUtil;
 
 import okhttp3.Interceptor;
 import okhttp3.Request;
@@ -47,11 +46,7 @@ public class SentinelOkHttpInterceptor implements Interceptor {
         Entry entry = null;
         try {
             Request request = chain.request();
-            String name = config.getResourceExtractor().extract(request, chain.connection());
-            if (StringUtil.isNotBlank(config.getResourcePrefix())) {
-                name = config.getResourcePrefix() + name;
-            }
-            entry = SphU.entry(name, ResourceTypeConstants.COMMON_WEB, EntryType.OUT);
+            entry = SphU.entry(OkHttpResourceHandleResolver.resolve(request, chain.connection(), config));
             return chain.proceed(request);
         } catch (BlockException e) {
             return config.getFallback().handle(chain.request(), chain.connection(), e);
@@ -15,16 +15,23 @@
  */
 package com.alibaba.csp.sentinel.adapter.okhttp.extractor;
 
+import com.alibaba.csp.sentinel.util.UrlPathUtil;
+
 import okhttp3.Connection;
 import okhttp3.Request;
 
 /**
+ * The default resource extractor, which extracts the resource name as {@code method:url}.
+ * The query string of the URL is removed and the path segments which look like IDs are
+ * replaced with {@code {id}} (see {@link UrlPathUtil#normalizeUrl(String)}), so that the
+ * amount of resources won't grow with the requested entities.
+ *
  * @author zhaoyuguang
  */
 public class DefaultOkHttpResourceExtractor implements OkHttpResourceExtractor {
 
     @Override
     public String extract(Request request, Connection connection) {
-        return request.method() + ":" + request.url().toString();
+        return request.method() + ":" + UrlPathUtil.normalizeUrl(request.url().toString());
     }
 }
@@ -17,20 +17,39 @@ package com.alibaba.csp.sentinel.adapter.okhttp;
 
 import com.alibaba.csp.sentinel.Constants;
 import com.alibaba.csp.sentinel.adapter.okhttp.app.TestApplication;
+import com.alibaba.csp.sentinel.adapter.okhttp.extractor.DefaultOkHttpResourceExtractor;
 import com.alibaba.csp.sentinel.adapter.okhttp.extractor.OkHttpResourceExtractor;
 import com.alibaba.csp.sentinel.adapter.okhttp.fallback.DefaultOkHttpFallback;
 import com.alibaba.csp.sentinel.node.ClusterNode;
+import com.alibaba.csp.sentinel.slots.block.RuleConstant;
+import com.alibaba.csp.sentinel.slots.block.SentinelRpcException;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRuleManager;
 import com.alibaba.csp.sentinel.slots.clusterbuilder.ClusterBuilderSlot;
+import okhttp3.Call;
+import okhttp3.Callback;
 import okhttp3.Connection;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
+import okhttp3.Response;
+import org.junit.After;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.junit4.SpringRunner;
 
+import java.io.IOException;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 /**
  * @author zhaoyuguang
@@ -95,4 +114,125 @@ public class SentinelOkHttpInterceptorTest {
         Constants.ROOT.removeChildList();
         ClusterBuilderSlot.getClusterNodeMap().clear();
     }
+
+    @Test
+    public void testHostResource() throws Exception {
+        SentinelOkHttpConfig config = new SentinelOkHttpConfig("okhttp-host:", new DefaultOkHttpResourceExtractor(),
+            new DefaultOkHttpFallback(), true);
+        OkHttpClient client = new OkHttpClient.Builder()
+            .addInterceptor(new SentinelOkHttpInterceptor(config))
+            .build();
+        String hostResourceName = "okhttp-host:localhost:" + port;
+        Request request = new Request.Builder()
+            .url("http://localhost:" + port + "/okhttp/back/2")
+            .build();
+        Response response = client.newCall(request).execute();
+        response.body().close();
+
+        ClusterNode requestNode = ClusterBuilderSlot.getClusterNode(
+            hostResourceName + "/GET:http://localhost:" + port + "/okhttp/back/{id}");
+        assertNotNull(requestNode);
+        ClusterNode hostNode = ClusterBuilderSlot.getClusterNode(hostResourceName);
+        assertNotNull(hostNode);
+        assertSame(hostNode, requestNode.getParentNode());
+        assertEquals(1, hostNode.totalPass());
+
+        // No concurrent calls are allowed for the host.
+        FlowRuleManager.loadRules(Collections.singletonList(
+            new FlowRule(hostResourceName).setGrade(RuleConstant.FLOW_GRADE_THREAD).setCount(0)));
+        try {
+            client.newCall(request).execute();
+            fail("The call should be blocked");
+        } catch (SentinelRpcException ex) {
+            assertEquals(1, hostNode.blockRequest());
+        }
+    }
+
+    @Test
+    public void testHostResourceOfDifferentHosts() throws Exception {
+        // The extractor leaves the host out.
+        SentinelOkHttpConfig config = new SentinelOkHttpConfig("okhttp-hosts:", new OkHttpResourceExtractor() {
+            @Override
+            public String extract(Request request, Connection connection) {
+                return request.method() + ":" + request.url().encodedPath();
+            }
+        }, new DefaultOkHttpFallback(), true);
+        OkHttpClient client = new OkHttpClient.Builder()
+            .addInterceptor(new SentinelOkHttpInterceptor(config))
+            .build();
+        String[] hosts = {"localhost", "127.0.0.1"};
+        for (String host : hosts) {
+            Request request = new Request.Builder()
+                .url("http://" + host + ":" + port + "/okhttp/back")
+                .build();
+            Response response = client.newCall(request).execute();
+            assertEquals("Welcome Back!", response.body().string());
+        }
+
+        for (String host : hosts) {
+            String hostResourceName = "okhttp-hosts:" + host + ":" + port;
+            ClusterNode hostNode = ClusterBuilderSlot.getClusterNode(hostResourceName);
+            assertNotNull(hostNode);
+            assertEquals(1, hostNode.totalPass());
+            // The same name of each host is a separate resource under its own host.
+            ClusterNode requestNode = ClusterBuilderSlot.getClusterNode(hostResourceName + "/GET:/okhttp/back");
+            assertNotNull(requestNode);
+            assertSame(hostNode, requestNode.getParentNode());
+            assertEquals(1, requestNode.totalPass());
+        }
+    }
+
+    @Test
+    public void testEnqueue() throws Exception {
+        SentinelOkHttpConfig config = new SentinelOkHttpConfig("okhttp-async:");
+        OkHttpClient client = new OkHttpClient();
+        String url = "http://localhost:" + port + "/okhttp/back/3";
+        final CountDownLatch latch = new CountDownLatch(1);
+        final AtomicReference<String> body = new AtomicReference<>();
+        SentinelOkHttpCallback.enqueue(client.newCall(new Request.Builder().url(url).build()), new Callback() {
+            @Override
+            public void onFailure(Call call, IOException e) {
+                latch.countDown();
+            }
+
+            @Override
+            public void onResponse(Call call, Response response) throws IOException {
+                body.set(response.body().string());
+                latch.countDown();
+            }
+        }, config);
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        assertEquals("Welcome Back! 3", body.get());
+
+        String resourceName = "okhttp-async:GET:http://localhost:" + port + "/okhttp/back/{id}";
+        ClusterNode node = ClusterBuilderSlot.getClusterNode(resourceName);
+        assertNotNull(node);
+        assertEquals(1, node.totalPass());
+        assertEquals(0, node.curThreadNum());
+
+        // Blocked calls fail in the calling thread without being enqueued.
+        FlowRuleManager.loadRules(Collections.singletonList(new FlowRule(resourceName).setCount(0)));
+        final AtomicReference<IOException> error = new AtomicReference<>();
+        SentinelOkHttpCallback.enqueue(client.newCall(new Request.Builder().url(url).build()), new Callback() {
+            @Override
+            public void onFailure(Call call, IOException e) {
+                error.set(e);
+            }
+
+            @Override
+            public void onResponse(Call call, Response response) {
+                fail("The call should be blocked");
+            }
+        }, config);
+        assertNotNull(error.get());
+        assertTrue(error.get().getCause() instanceof SentinelRpcException);
+        assertEquals(1, node.blockRequest());
+    }
+
+    @After
+    public void cleanUp() {
+        FlowRuleManager.loadRules(null);
+        Constants.ROOT.removeChildList();
+        ClusterBuilderSlot.getClusterNodeMap().clear();
+    }
 }
@@ -37,6 +37,15 @@ public class OkHttpResourceExtractorTest {
         assertEquals("GET:" + url, resource);
     }
 
+    @Test
+    public void testDefaultOkHttpResourceExtractorNormalizesUrl() {
+        OkHttpResourceExtractor extractor = new DefaultOkHttpResourceExtractor();
+        Request request = new Request.Builder()
+            .url("http://localhost:8083/okhttp/back/123?name=abc")
+            .build();
+        assertEquals("GET:http://localhost:8083/okhttp/back/{id}", extractor.extract(request, null));
+    }
+
     @Test
     public void testCustomizeOkHttpUrlCleaner() {
         OkHttpResourceExtractor extractor = new OkHttpResourceExtractor() {
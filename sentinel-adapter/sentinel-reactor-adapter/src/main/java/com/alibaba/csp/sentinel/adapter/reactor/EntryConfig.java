@@ -19,6 +19,8 @@ import java.util.Arrays;
 
 import com.alibaba.csp.sentinel.EntryType;
 import com.alibaba.csp.sentinel.ResourceTypeConstants;
+import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
+import com.alibaba.csp.sentinel.slotchain.StringResourceWrapper;
 import com.alibaba.csp.sentinel.util.AssertUtil;
 
 /**
@@ -27,9 +29,7 @@ import com.alibaba.csp.sentinel.util.AssertUtil;
  */
 public class EntryConfig {
 
-    private final String resourceName;
-    private final EntryType entryType;
-    private final int resourceType;
+    private final ResourceWrapper resource;
 
     private final int acquireCount;
     private final Object[] args;
@@ -69,21 +69,34 @@ public class EntryConfig {
         AssertUtil.assertNotBlank(resourceName, "resourceName cannot be blank");
         AssertUtil.notNull(entryType, "entryType cannot be null");
         AssertUtil.isTrue(acquireCount > 0, "acquireCount should be positive");
-        this.resourceName = resourceName;
-        this.entryType = entryType;
-        this.resourceType = resourceType;
+        this.resource = new StringResourceWrapper(resourceName, entryType, resourceType);
         this.acquireCount = acquireCount;
         this.args = args;
         // Constructed ContextConfig should be valid here. Null is allowed here.
         this.contextConfig = contextConfig;
     }
 
+    /**
+     * Create the entry config with a prebuilt resource, e.g. resolved from a resource cache,
+     * which carries the resource name, entry type and resource type.
+     *
+     * @since 1.8.7
+     */
+    public EntryConfig(ResourceWrapper resource, int acquireCount, Object[] args, ContextConfig contextConfig) {
+        AssertUtil.notNull(resource, "resource cannot be null");
+        AssertUtil.isTrue(acquireCount > 0, "acquireCount should be positive");
+        this.resource = resource;
+        this.acquireCount = acquireCount;
+        this.args = args;
+        this.contextConfig = contextConfig;
+    }
+
     public String getResourceName() {
-        return resourceName;
+        return resource.getName();
     }
 
     public EntryType getEntryType() {
-        return entryType;
+        return resource.getEntryType();
     }
 
     public int getAcquireCount() {
@@ -102,15 +115,22 @@ public class EntryConfig {
      * @since 1.7.0
      */
     public int getResourceType() {
-        return resourceType;
+        return resource.getResourceType();
+    }
+
+    /**
+     * @since 1.8.7
+     */
+    public ResourceWrapper getResourceWrapper() {
+        return resource;
     }
 
     @Override
     public String toString() {
         return "EntryConfig{" +
-            "resourceName='" + resourceName + '\'' +
-            ", entryType=" + entryType +
-            ", resourceType=" + resourceType +
+            "resourceName='" + resource.getName() + '\'' +
+            ", entryType=" + resource.getEntryType() +
+            ", resourceType=" + resource.getResourceType() +
             ", acquireCount=" + acquireCount +
             ", args=" + Arrays.toString(args) +
             ", contextConfig=" + contextConfig +
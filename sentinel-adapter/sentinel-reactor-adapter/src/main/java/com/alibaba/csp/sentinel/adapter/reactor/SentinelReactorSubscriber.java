@@ -16,7 +16,7 @@
 package com.alibaba.csp.sentinel.adapter.reactor;
 
 import java.util.Optional;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 
 import com.alibaba.csp.sentinel.AsyncEntry;
 import com.alibaba.csp.sentinel.SphU;
@@ -42,7 +42,26 @@ public class SentinelReactorSubscriber<T> extends InheritableBaseSubscriber<T> {
     private final boolean unary;
 
     private volatile AsyncEntry currentEntry;
-    private final AtomicBoolean entryExited = new AtomicBoolean(false);
+    /**
+     * Reactor context carrying the Sentinel async context, built once when the entry is created.
+     */
+    private volatile Context entryContext;
+
+    private volatile int entryExited;
+    @SuppressWarnings("rawtypes")
+    private static final AtomicIntegerFieldUpdater<SentinelReactorSubscriber> ENTRY_EXITED =
+        AtomicIntegerFieldUpdater.newUpdater(SentinelReactorSubscriber.class, "entryExited");
+
+    /**
+     * The value being emitted by {@link #emitNextTask}. Signals are serialized, so a field is enough.
+     */
+    private T nextValue;
+    private final Runnable emitNextTask = new Runnable() {
+        @Override
+        public void run() {
+            actual.onNext(nextValue);
+        }
+    };
 
     public SentinelReactorSubscriber(EntryConfig entryConfig,
                                      CoreSubscriber<? super T> actual,
@@ -59,15 +78,15 @@ public class SentinelReactorSubscriber<T> extends InheritableBaseSubscriber<T> {
 
     @Override
     public Context currentContext() {
-        if (currentEntry == null || entryExited.get()) {
-            return actual.currentContext();
-        }
-        com.alibaba.csp.sentinel.context.Context sentinelContext = currentEntry.getAsyncContext();
-        if (sentinelContext == null) {
+        Context context = entryContext;
+        if (context == null || isEntryExited()) {
             return actual.currentContext();
         }
-        return actual.currentContext()
-            .put(SentinelReactorConstants.SENTINEL_CONTEXT_KEY, currentEntry.getAsyncContext());
+        return context;
+    }
+
+    private boolean isEntryExited() {
+        return entryExited != 0;
     }
 
     private void doWithContextOrCurrent(Supplier<Optional<com.alibaba.csp.sentinel.context.Context>> contextSupplier,
@@ -89,13 +108,17 @@ public class SentinelReactorSubscriber<T> extends InheritableBaseSubscriber<T> {
             ContextUtil.enter(sentinelContextConfig.getContextName(), sentinelContextConfig.getOrigin());
         }
         try {
-            AsyncEntry entry = SphU.asyncEntry(entryConfig.getResourceName(), entryConfig.getResourceType(),
-                entryConfig.getEntryType(), entryConfig.getAcquireCount(), entryConfig.getArgs());
+            AsyncEntry entry = SphU.asyncEntry(entryConfig.getResourceWrapper(), entryConfig.getAcquireCount(),
+                entryConfig.getArgs());
             this.currentEntry = entry;
+            if (entry.getAsyncContext() != null) {
+                this.entryContext = actual.currentContext()
+                    .put(SentinelReactorConstants.SENTINEL_CONTEXT_KEY, entry.getAsyncContext());
+            }
             actual.onSubscribe(this);
         } catch (BlockException ex) {
             // Mark as completed (exited) explicitly.
-            entryExited.set(true);
+            ENTRY_EXITED.set(this, 1);
             // Signal cancel and propagate the {@code BlockException}.
             cancel();
             actual.onSubscribe(this);
@@ -119,8 +142,19 @@ public class SentinelReactorSubscriber<T> extends InheritableBaseSubscriber<T> {
             tryCompleteEntry();
             return;
         }
-        doWithContextOrCurrent(() -> Optional.ofNullable(currentEntry).map(AsyncEntry::getAsyncContext),
-            () -> actual.onNext(value));
+        AsyncEntry entry = currentEntry;
+        com.alibaba.csp.sentinel.context.Context sentinelContext = entry == null ? null : entry.getAsyncContext();
+        if (sentinelContext == null) {
+            actual.onNext(value);
+        } else {
+            // Avoid allocating a new task for every element.
+            nextValue = value;
+            try {
+                ContextUtil.runOnContext(sentinelContext, emitNextTask);
+            } finally {
+                nextValue = null;
+            }
+        }
 
         if (unary) {
             // For some cases of unary operator (Mono), we have to do this during onNext hook.
@@ -140,7 +174,7 @@ public class SentinelReactorSubscriber<T> extends InheritableBaseSubscriber<T> {
     protected boolean shouldCallErrorDropHook() {
         // When flow control triggered or stream terminated, the incoming
         // deprecated exceptions should be dropped implicitly, so we'll not call the `onErrorDropped` hook.
-        return !entryExited.get();
+        return !isEntryExited();
     }
 
     @Override
@@ -159,7 +193,7 @@ public class SentinelReactorSubscriber<T> extends InheritableBaseSubscriber<T> {
     }
 
     private boolean tryCompleteEntry() {
-        if (currentEntry != null && entryExited.compareAndSet(false, true)) {
+        if (currentEntry != null && ENTRY_EXITED.compareAndSet(this, 0, 1)) {
             currentEntry.exit(1, entryConfig.getArgs());
             return true;
         }
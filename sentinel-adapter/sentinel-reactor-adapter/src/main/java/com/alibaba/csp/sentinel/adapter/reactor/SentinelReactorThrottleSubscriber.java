@@ -0,0 +1,236 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.adapter.reactor;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+import com.alibaba.csp.sentinel.Entry;
+import com.alibaba.csp.sentinel.SphU;
+import com.alibaba.csp.sentinel.context.ContextUtil;
+import com.alibaba.csp.sentinel.slots.block.AbstractRule;
+import com.alibaba.csp.sentinel.slots.block.BlockException;
+import com.alibaba.csp.sentinel.slots.block.RuleConstant;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
+import com.alibaba.csp.sentinel.util.AssertUtil;
+
+import org.reactivestreams.Subscription;
+import reactor.core.CoreSubscriber;
+import reactor.core.Disposable;
+import reactor.core.publisher.Operators;
+import reactor.core.scheduler.Scheduler;
+import reactor.util.context.Context;
+
+/**
+ * <p>Subscriber that guards each element with the resource instead of the whole subscription.</p>
+ *
+ * <p>The downstream demand is not forwarded to the upstream directly. Each element must pass the resource
+ * before a {@code request(1)} is issued to the upstream, and only one requested element is in flight at a time.
+ * When the resource is blocked, the demand is paused and resumed later on the given {@link Scheduler},
+ * so a QPS flow rule paces the emission (back-pressure) rather than terminating the stream with
+ * a {@link BlockException}. The pause interval is derived from the QPS threshold of the blocking flow rule.</p>
+ *
+ * @param <T> type of the element
+ * @since 1.8.7
+ */
+public class SentinelReactorThrottleSubscriber<T> implements CoreSubscriber<T>, Subscription {
+
+    private static final long DEFAULT_PAUSE_INTERVAL_MS = 100;
+    private static final long MAX_PAUSE_INTERVAL_MS = 1000;
+
+    private final EntryConfig entryConfig;
+    private final CoreSubscriber<? super T> actual;
+    private final Scheduler scheduler;
+
+    private Subscription upstream;
+
+    private volatile long requested;
+    @SuppressWarnings("rawtypes")
+    private static final AtomicLongFieldUpdater<SentinelReactorThrottleSubscriber> REQUESTED =
+        AtomicLongFieldUpdater.newUpdater(SentinelReactorThrottleSubscriber.class, "requested");
+
+    private volatile int wip;
+    @SuppressWarnings("rawtypes")
+    private static final AtomicIntegerFieldUpdater<SentinelReactorThrottleSubscriber> WIP =
+        AtomicIntegerFieldUpdater.newUpdater(SentinelReactorThrottleSubscriber.class, "wip");
+
+    private volatile boolean awaitingElement;
+    private volatile boolean paused;
+    private volatile boolean cancelled;
+    private volatile boolean done;
+    private volatile Disposable resumeTask;
+
+    private long pauseIntervalMs = DEFAULT_PAUSE_INTERVAL_MS;
+
+    private final Runnable resume = new Runnable() {
+        @Override
+        public void run() {
+            paused = false;
+            drain();
+        }
+    };
+
+    public SentinelReactorThrottleSubscriber(EntryConfig entryConfig, CoreSubscriber<? super T> actual,
+                                             Scheduler scheduler) {
+        AssertUtil.notNull(entryConfig, "entryConfig cannot be null");
+        AssertUtil.notNull(scheduler, "scheduler cannot be null");
+        this.entryConfig = entryConfig;
+        this.actual = actual;
+        this.scheduler = scheduler;
+    }
+
+    @Override
+    public Context currentContext() {
+        return actual.currentContext();
+    }
+
+    @Override
+    public void onSubscribe(Subscription s) {
+        if (Operators.validate(upstream, s)) {
+            this.upstream = s;
+            actual.onSubscribe(this);
+        }
+    }
+
+    @Override
+    public void onNext(T t) {
+        if (done) {
+            Operators.onNextDropped(t, actual.currentContext());
+            return;
+        }
+        awaitingElement = false;
+        actual.onNext(t);
+        drain();
+    }
+
+    @Override
+    public void onError(Throwable t) {
+        if (done) {
+            Operators.onErrorDropped(t, actual.currentContext());
+            return;
+        }
+        done = true;
+        disposeResumeTask();
+        actual.onError(t);
+    }
+
+    @Override
+    public void onComplete() {
+        if (done) {
+            return;
+        }
+        done = true;
+        disposeResumeTask();
+        actual.onComplete();
+    }
+
+    @Override
+    public void request(long n) {
+        if (Operators.validate(n)) {
+            Operators.addCap(REQUESTED, this, n);
+            drain();
+        }
+    }
+
+    @Override
+    public void cancel() {
+        if (cancelled) {
+            return;
+        }
+        cancelled = true;
+        disposeResumeTask();
+        upstream.cancel();
+    }
+
+    private void drain() {
+        if (WIP.getAndIncrement(this) != 0) {
+            return;
+        }
+        int missed = 1;
+        do {
+            while (!cancelled && !done && !paused && !awaitingElement && requested > 0) {
+                if (!tryAcquire()) {
+                    pause();
+                    break;
+                }
+                if (requested != Long.MAX_VALUE) {
+                    REQUESTED.decrementAndGet(this);
+                }
+                awaitingElement = true;
+                upstream.request(1);
+            }
+            missed = WIP.addAndGet(this, -missed);
+        } while (missed != 0);
+    }
+
+    private boolean tryAcquire() {
+        ContextConfig contextConfig = entryConfig.getContextConfig();
+        if (contextConfig != null) {
+            // If current we're already in a context, the context config won't work.
+            ContextUtil.enter(contextConfig.getContextName(), contextConfig.getOrigin());
+        }
+        Entry entry = null;
+        try {
+            entry = SphU.entry(entryConfig.getResourceWrapper(), entryConfig.getAcquireCount(),
+                entryConfig.getArgs());
+            return true;
+        } catch (BlockException ex) {
+            pauseIntervalMs = resolvePauseInterval(ex.getRule());
+            return false;
+        } finally {
+            if (entry != null) {
+                entry.exit(entryConfig.getAcquireCount(), entryConfig.getArgs());
+            }
+            if (contextConfig != null) {
+                ContextUtil.exit();
+            }
+        }
+    }
+
+    private void pause() {
+        paused = true;
+        try {
+            resumeTask = scheduler.schedule(resume, pauseIntervalMs, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException ex) {
+            cancel();
+            onError(Operators.onRejectedExecution(ex, actual.currentContext()));
+        }
+    }
+
+    private void disposeResumeTask() {
+        Disposable task = resumeTask;
+        if (task != null) {
+            task.dispose();
+        }
+    }
+
+    /**
+     * Map the QPS threshold of the blocking flow rule to the interval of a single permit, so the demand
+     * is resumed about when the next permit is available.
+     */
+    static long resolvePauseInterval(AbstractRule rule) {
+        if (rule instanceof FlowRule) {
+            FlowRule flowRule = (FlowRule) rule;
+            if (flowRule.getGrade() == RuleConstant.FLOW_GRADE_QPS && flowRule.getCount() > 0) {
+                long interval = (long) Math.ceil(1000 / flowRule.getCount());
+                return Math.max(1, Math.min(interval, MAX_PAUSE_INTERVAL_MS));
+            }
+        }
+        return DEFAULT_PAUSE_INTERVAL_MS;
+    }
+}
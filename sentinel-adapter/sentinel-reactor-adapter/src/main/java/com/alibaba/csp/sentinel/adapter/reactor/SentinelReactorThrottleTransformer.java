@@ -0,0 +1,71 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.adapter.reactor;
+
+import java.util.function.Function;
+
+import com.alibaba.csp.sentinel.util.AssertUtil;
+
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * <p>A transformer that guards each element of the given {@code Publisher} rather than the subscription.
+ * Different from {@link SentinelReactorTransformer}, a blocked element pauses the demand and is requested
+ * again later on the scheduler, so QPS flow rules work as back-pressure instead of terminating the stream
+ * with a {@link com.alibaba.csp.sentinel.slots.block.BlockException}.</p>
+ *
+ * <pre>
+ * flux.transform(new SentinelReactorThrottleTransformer&lt;&gt;("resourceName"))
+ * </pre>
+ *
+ * @since 1.8.7
+ */
+public class SentinelReactorThrottleTransformer<T> implements Function<Publisher<T>, Publisher<T>> {
+
+    private final EntryConfig entryConfig;
+    private final Scheduler scheduler;
+
+    public SentinelReactorThrottleTransformer(String resourceName) {
+        this(new EntryConfig(resourceName));
+    }
+
+    public SentinelReactorThrottleTransformer(EntryConfig entryConfig) {
+        this(entryConfig, Schedulers.parallel());
+    }
+
+    public SentinelReactorThrottleTransformer(EntryConfig entryConfig, Scheduler scheduler) {
+        AssertUtil.notNull(entryConfig, "entryConfig cannot be null");
+        AssertUtil.notNull(scheduler, "scheduler cannot be null");
+        this.entryConfig = entryConfig;
+        this.scheduler = scheduler;
+    }
+
+    @Override
+    public Publisher<T> apply(Publisher<T> publisher) {
+        if (publisher instanceof Mono) {
+            return new MonoSentinelThrottleOperator<>((Mono<T>) publisher, entryConfig, scheduler);
+        }
+        if (publisher instanceof Flux) {
+            return new FluxSentinelThrottleOperator<>((Flux<T>) publisher, entryConfig, scheduler);
+        }
+
+        throw new IllegalStateException("Publisher type is not supported: " + publisher.getClass().getCanonicalName());
+    }
+}
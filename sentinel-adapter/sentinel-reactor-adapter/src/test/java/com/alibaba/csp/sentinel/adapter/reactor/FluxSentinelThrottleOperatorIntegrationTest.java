@@ -0,0 +1,116 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.adapter.reactor;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+
+import com.alibaba.csp.sentinel.node.ClusterNode;
+import com.alibaba.csp.sentinel.slots.block.RuleConstant;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRuleManager;
+import com.alibaba.csp.sentinel.slots.clusterbuilder.ClusterBuilderSlot;
+
+import org.junit.After;
+import org.junit.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import static org.junit.Assert.*;
+
+public class FluxSentinelThrottleOperatorIntegrationTest {
+
+    @After
+    public void tearDown() {
+        FlowRuleManager.loadRules(new ArrayList<>());
+    }
+
+    @Test
+    public void testEmitEachValueThroughResource() {
+        String resourceName = createResourceName("testEmitEachValueThroughResource");
+        StepVerifier.create(Flux.just(1, 2, 3)
+            .transform(new SentinelReactorThrottleTransformer<>(resourceName)))
+            .expectNext(1, 2, 3)
+            .verifyComplete();
+
+        ClusterNode cn = ClusterBuilderSlot.getClusterNode(resourceName);
+        assertNotNull(cn);
+        assertEquals(3, cn.totalPass());
+    }
+
+    @Test
+    public void testPaceValuesWhenFlowControlTriggered() {
+        String resourceName = createResourceName("testPaceValuesWhenFlowControlTriggered");
+        FlowRuleManager.loadRules(Collections.singletonList(
+            new FlowRule(resourceName).setCount(2)
+        ));
+        // Blocked values are emitted later instead of terminating the stream with a BlockException.
+        Duration duration = StepVerifier.create(Flux.range(0, 5)
+            .transform(new SentinelReactorThrottleTransformer<>(resourceName)))
+            .expectNext(0, 1, 2, 3, 4)
+            .expectComplete()
+            .verify(Duration.ofSeconds(10));
+        assertTrue(duration.toMillis() >= 500);
+
+        ClusterNode cn = ClusterBuilderSlot.getClusterNode(resourceName);
+        assertNotNull(cn);
+        assertEquals(5, cn.totalPass());
+        assertTrue(cn.blockRequest() > 0);
+    }
+
+    @Test
+    public void testRespectDownstreamDemand() {
+        String resourceName = createResourceName("testRespectDownstreamDemand");
+        StepVerifier.create(Flux.range(0, 10)
+            .transform(new SentinelReactorThrottleTransformer<>(resourceName)), 2)
+            .expectNext(0, 1)
+            .thenCancel()
+            .verify();
+
+        ClusterNode cn = ClusterBuilderSlot.getClusterNode(resourceName);
+        assertNotNull(cn);
+        assertEquals(2, cn.totalPass());
+    }
+
+    @Test
+    public void testThrottleMono() {
+        String resourceName = createResourceName("testThrottleMono");
+        StepVerifier.create(Mono.just(1)
+            .transform(new SentinelReactorThrottleTransformer<>(resourceName)))
+            .expectNext(1)
+            .verifyComplete();
+
+        ClusterNode cn = ClusterBuilderSlot.getClusterNode(resourceName);
+        assertNotNull(cn);
+        assertEquals(1, cn.totalPass());
+    }
+
+    @Test
+    public void testResolvePauseInterval() {
+        assertEquals(100, SentinelReactorThrottleSubscriber.resolvePauseInterval(new FlowRule("abc").setCount(10)));
+        assertEquals(1, SentinelReactorThrottleSubscriber.resolvePauseInterval(new FlowRule("abc").setCount(5000)));
+        assertEquals(1000, SentinelReactorThrottleSubscriber.resolvePauseInterval(new FlowRule("abc").setCount(0.1)));
+        assertEquals(100, SentinelReactorThrottleSubscriber.resolvePauseInterval(
+            new FlowRule("abc").setCount(10).setGrade(RuleConstant.FLOW_GRADE_THREAD)));
+        assertEquals(100, SentinelReactorThrottleSubscriber.resolvePauseInterval(null));
+    }
+
+    private String createResourceName(String resourceName) {
+        return "reactor_test_flux_throttle_" + resourceName;
+    }
+}
@@ -44,28 +44,25 @@ abstract class AbstractSofaRpcFilter extends Filter {
         return RpcConfigs.getOrDefaultValue(SentinelConstants.SOFA_RPC_SENTINEL_ENABLED, true);
     }
 
-    protected void traceResponseException(SofaResponse response, Entry interfaceEntry, Entry methodEntry) {
+    protected void traceResponseException(SofaResponse response, Entry methodEntry) {
         if (response.isError()) {
             SofaRpcException rpcException = new SofaRpcException(RpcErrorType.SERVER_FILTER, response.getErrorMsg());
-            Tracer.traceEntry(rpcException, interfaceEntry);
             Tracer.traceEntry(rpcException, methodEntry);
         } else {
             Object appResponse = response.getAppResponse();
             if (appResponse instanceof Throwable) {
-                Tracer.traceEntry((Throwable) appResponse, interfaceEntry);
                 Tracer.traceEntry((Throwable) appResponse, methodEntry);
             }
         }
     }
 
-    protected SofaRpcException traceOtherException(Throwable t, Entry interfaceEntry, Entry methodEntry) {
+    protected SofaRpcException traceOtherException(Throwable t, Entry methodEntry) {
         SofaRpcException rpcException;
         if (t instanceof SofaRpcException) {
             rpcException = (SofaRpcException) t;
         } else {
             rpcException = new SofaRpcException(RpcErrorType.SERVER_FILTER, t);
         }
-        Tracer.traceEntry(rpcException, interfaceEntry);
         Tracer.traceEntry(rpcException, methodEntry);
         return rpcException;
     }
@@ -46,6 +46,9 @@ import static com.alibaba.csp.sentinel.adapter.sofa.rpc.SofaRpcUtils.getMethodAr
 @AutoActive(consumerSide = true)
 public class SentinelSofaRpcConsumerFilter extends AbstractSofaRpcFilter {
 
+    private final SentinelResourceHandleCache handleCache = new SentinelResourceHandleCache(
+        ResourceTypeConstants.COMMON_RPC, EntryType.OUT);
+
     @Override
     public SofaResponse invoke(FilterInvoker invoker, SofaRequest request) throws SofaRpcException {
         // Now only support sync invoke.
@@ -56,29 +59,23 @@ public class SentinelSofaRpcConsumerFilter extends AbstractSofaRpcFilter {
         String interfaceResourceName = getInterfaceResourceName(request);
         String methodResourceName = getMethodResourceName(request);
 
-        Entry interfaceEntry = null;
         Entry methodEntry = null;
         try {
-            interfaceEntry = SphU.entry(interfaceResourceName, ResourceTypeConstants.COMMON_RPC, EntryType.OUT);
-            methodEntry = SphU.entry(methodResourceName, ResourceTypeConstants.COMMON_RPC,
-                EntryType.OUT, getMethodArguments(request));
+            methodEntry = SphU.entry(handleCache.get(methodResourceName, interfaceResourceName), 1,
+                getMethodArguments(request));
 
             SofaResponse response = invoker.invoke(request);
 
-            traceResponseException(response, interfaceEntry, methodEntry);
+            traceResponseException(response, methodEntry);
             return response;
         } catch (BlockException e) {
             return SofaRpcFallbackRegistry.getConsumerFallback().handle(invoker, request, e);
         } catch (Throwable t) {
-            throw traceOtherException(t, interfaceEntry, methodEntry);
+            throw traceOtherException(t, methodEntry);
         } finally {
             if (methodEntry != null) {
                 methodEntry.exit(1, getMethodArguments(request));
             }
-
-            if (interfaceEntry != null) {
-                interfaceEntry.exit();
-            }
         }
     }
 }
@@ -52,6 +52,9 @@ import static com.alibaba.csp.sentinel.adapter.sofa.rpc.SofaRpcUtils.getMethodAr
 @AutoActive(providerSide = true)
 public class SentinelSofaRpcProviderFilter extends AbstractSofaRpcFilter {
 
+    private final SentinelResourceHandleCache handleCache = new SentinelResourceHandleCache(
+        ResourceTypeConstants.COMMON_RPC, EntryType.IN);
+
     @Override
     public SofaResponse invoke(FilterInvoker invoker, SofaRequest request) throws SofaRpcException {
         // Now only support sync invoke.
@@ -63,30 +66,24 @@ public class SentinelSofaRpcProviderFilter extends AbstractSofaRpcFilter {
         String interfaceResourceName = getInterfaceResourceName(request);
         String methodResourceName = getMethodResourceName(request);
 
-        Entry interfaceEntry = null;
         Entry methodEntry = null;
         try {
             ContextUtil.enter(methodResourceName, callerApp);
-
-            interfaceEntry = SphU.entry(interfaceResourceName, ResourceTypeConstants.COMMON_RPC, EntryType.IN);
-            methodEntry = SphU.entry(methodResourceName, ResourceTypeConstants.COMMON_RPC,
-                EntryType.IN, getMethodArguments(request));
+            methodEntry = SphU.entry(handleCache.get(methodResourceName, interfaceResourceName), 1,
+                getMethodArguments(request));
 
             SofaResponse response = invoker.invoke(request);
 
-            traceResponseException(response, interfaceEntry, methodEntry);
+            traceResponseException(response, methodEntry);
             return response;
         } catch (BlockException e) {
             return SofaRpcFallbackRegistry.getProviderFallback().handle(invoker, request, e);
         } catch (Throwable t) {
-            throw traceOtherException(t, interfaceEntry, methodEntry);
+            throw traceOtherException(t, methodEntry);
         } finally {
             if (methodEntry != null) {
                 methodEntry.exit(1, getMethodArguments(request));
             }
-            if (interfaceEntry != null) {
-                interfaceEntry.exit();
-            }
             ContextUtil.exit();
         }
     }
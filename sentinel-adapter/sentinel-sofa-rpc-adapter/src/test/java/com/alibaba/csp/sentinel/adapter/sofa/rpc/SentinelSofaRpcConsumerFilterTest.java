@@ -98,8 +98,7 @@ public class SentinelSofaRpcConsumerFilterTest extends BaseTest {
     /**
      * Verify Sentinel invocation structure in memory:
      * EntranceNode(defaultContextName)
-     * --InterfaceNode(interfaceName)
-     * ----MethodNode(resourceName)
+     * --MethodNode(resourceName), whose ClusterNode has the ClusterNode of interfaceName as parent
      */
     private void verifyInvocationStructure(String interfaceResourceName, String methodResourceName) {
         Context context = ContextUtil.getContext();
@@ -116,17 +115,9 @@ public class SentinelSofaRpcConsumerFilterTest extends BaseTest {
         assertEquals(Constants.CONTEXT_DEFAULT_NAME, entranceResource.getName());
         assertSame(EntryType.IN, entranceResource.getEntryType());
 
-        // As SphU.entry(interfaceResourceName, EntryType.OUT);
+        // As SphU.entry(handleCache.get(methodResourceName, interfaceResourceName), ...);
         Set<Node> childList = entranceNode.getChildList();
         assertEquals(1, childList.size());
-        DefaultNode interfaceNode = (DefaultNode) childList.iterator().next();
-        ResourceWrapper interfaceResource = interfaceNode.getId();
-        assertEquals(interfaceResourceName, interfaceResource.getName());
-        assertSame(EntryType.OUT, interfaceResource.getEntryType());
-
-        // As SphU.entry(methodResourceName, EntryType.OUT);
-        childList = interfaceNode.getChildList();
-        assertEquals(1, childList.size());
         DefaultNode methodNode = (DefaultNode) childList.iterator().next();
         ResourceWrapper methodResource = methodNode.getId();
         assertEquals(methodResourceName, methodResource.getName());
@@ -135,13 +126,14 @@ public class SentinelSofaRpcConsumerFilterTest extends BaseTest {
         // Verify curEntry
         Entry curEntry = context.getCurEntry();
         assertSame(methodNode, curEntry.getCurNode());
-        assertSame(interfaceNode, curEntry.getLastNode());
+        assertNull(curEntry.getLastNode());
         // As context origin is not "", no originNode should be created in curEntry
         assertNull(curEntry.getOriginNode());
 
         // Verify clusterNode
         ClusterNode methodClusterNode = methodNode.getClusterNode();
-        ClusterNode interfaceClusterNode = interfaceNode.getClusterNode();
+        ClusterNode interfaceClusterNode = methodClusterNode.getParentNode();
+        assertEquals(interfaceResourceName, interfaceClusterNode.getName());
         // Different resource->Different ProcessorSlot->Different ClusterNode
         assertNotSame(methodClusterNode, interfaceClusterNode);
 
@@ -114,17 +114,9 @@ public class SentinelSofaRpcProviderFilterTest extends BaseTest {
         assertEquals(methodResourceName, entranceResource.getName());
         assertSame(EntryType.IN, entranceResource.getEntryType());
 
-        // As SphU.entry(interfaceResourceName, EntryType.IN);
+        // As SphU.entry(handleCache.get(methodResourceName, interfaceResourceName), ...);
         Set<Node> childList = entranceNode.getChildList();
         assertEquals(1, childList.size());
-        DefaultNode interfaceNode = (DefaultNode) childList.iterator().next();
-        ResourceWrapper interfaceResource = interfaceNode.getId();
-        assertEquals(interfaceResourceName, interfaceResource.getName());
-        assertSame(EntryType.IN, interfaceResource.getEntryType());
-
-        // As SphU.entry(methodResourceName, EntryType.IN, 1, methodArguments);
-        childList = interfaceNode.getChildList();
-        assertEquals(1, childList.size());
         DefaultNode methodNode = (DefaultNode) childList.iterator().next();
         ResourceWrapper methodResource = methodNode.getId();
         assertEquals(methodResourceName, methodResource.getName());
@@ -133,13 +125,14 @@ public class SentinelSofaRpcProviderFilterTest extends BaseTest {
         // Verify curEntry
         Entry curEntry = context.getCurEntry();
         assertSame(methodNode, curEntry.getCurNode());
-        assertSame(interfaceNode, curEntry.getLastNode());
+        assertNull(curEntry.getLastNode());
         // As context origin is not "", originNode should be created
         assertNotNull(curEntry.getOriginNode());
 
         // Verify clusterNode
         ClusterNode methodClusterNode = methodNode.getClusterNode();
-        ClusterNode interfaceClusterNode = interfaceNode.getClusterNode();
+        ClusterNode interfaceClusterNode = methodClusterNode.getParentNode();
+        assertEquals(interfaceResourceName, interfaceClusterNode.getName());
         // Different resource->Different ProcessorSlot->Different ClusterNode
         assertNotSame(methodClusterNode, interfaceClusterNode);
 
@@ -16,7 +16,9 @@
 package com.alibaba.csp.sentinel.adapter.gateway.sc.api;
 
 import com.alibaba.csp.sentinel.adapter.gateway.common.api.ApiDefinition;
+import com.alibaba.csp.sentinel.adapter.gateway.common.api.matcher.CompiledApiPathMatcher;
 import com.alibaba.csp.sentinel.adapter.gateway.sc.api.matcher.WebExchangeApiMatcher;
+import com.alibaba.csp.sentinel.adapter.gateway.sc.route.RouteMatchers;
 
 import java.util.Collections;
 import java.util.HashMap;
@@ -32,6 +34,7 @@ import java.util.stream.Collectors;
 public final class GatewayApiMatcherManager {
 
     private static volatile Map<String, WebExchangeApiMatcher> API_MATCHER_MAP = new HashMap<>();
+    private static volatile CompiledApiPathMatcher COMPILED_MATCHER = CompiledApiPathMatcher.empty();
 
     public static Map<String, WebExchangeApiMatcher> getApiMatcherMap() {
         return Collections.unmodifiableMap(API_MATCHER_MAP);
@@ -42,6 +45,16 @@ public final class GatewayApiMatcherManager {
             .map(e -> API_MATCHER_MAP.get(apiName));
     }
 
+    /**
+     * Get the matcher of all the loaded API definitions, which finds the matching APIs in one pass.
+     *
+     * @return the compiled matcher
+     * @since 1.8.7
+     */
+    public static CompiledApiPathMatcher getCompiledMatcher() {
+        return COMPILED_MATCHER;
+    }
+
     public static Set<ApiDefinition> getApiDefinitionSet() {
         return API_MATCHER_MAP.values()
             .stream()
@@ -55,6 +68,7 @@ public final class GatewayApiMatcherManager {
             apiMatcherMap.put(definition.getApiName(), new WebExchangeApiMatcher(definition));
         }
 
+        COMPILED_MATCHER = CompiledApiPathMatcher.compile(definitions, RouteMatchers::antPathMatcher);
         API_MATCHER_MAP = apiMatcherMap;
     }
 
@@ -42,7 +42,15 @@ public class AntRoutePathMatcher implements Predicate<ServerWebExchange> {
 
     @Override
     public boolean test(ServerWebExchange exchange) {
-        String path = exchange.getRequest().getPath().value();
+        return matches(exchange.getRequest().getPath().value());
+    }
+
+    /**
+     * @param path request path
+     * @return whether the path matches the pattern
+     * @since 1.8.7
+     */
+    public boolean matches(String path) {
         if (canMatch) {
             return pathMatcher.match(pattern, path);
         }
@@ -34,6 +34,15 @@ public final class RouteMatchers {
         return new AntRoutePathMatcher(pathPattern);
     }
 
+    /**
+     * @param pathPattern Ant-style path pattern
+     * @return matcher of the request path
+     * @since 1.8.7
+     */
+    public static Predicate<String> antPathMatcher(String pathPattern) {
+        return new AntRoutePathMatcher(pathPattern)::matches;
+    }
+
     public static Predicate<ServerWebExchange> exactPath(final String path) {
         return exchange -> exchange.getRequest().getPath().value().equals(path);
     }
@@ -3,6 +3,7 @@ package com.alibaba.csp.sentinel.adapter.gateway.sc;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 import com.alibaba.csp.sentinel.adapter.gateway.common.SentinelGatewayConstants;
 import com.alibaba.csp.sentinel.adapter.gateway.common.api.ApiDefinition;
@@ -10,6 +11,8 @@ import com.alibaba.csp.sentinel.adapter.gateway.common.api.ApiPathPredicateItem;
 import com.alibaba.csp.sentinel.adapter.gateway.common.api.ApiPredicateItem;
 import com.alibaba.csp.sentinel.adapter.gateway.common.api.GatewayApiDefinitionManager;
 import com.alibaba.csp.sentinel.adapter.gateway.common.rule.GatewayRuleManager;
+import com.alibaba.csp.sentinel.adapter.gateway.sc.api.GatewayApiMatcherManager;
+import com.alibaba.csp.sentinel.adapter.gateway.sc.api.matcher.WebExchangeApiMatcher;
 
 import org.junit.After;
 import org.junit.Before;
@@ -77,6 +80,45 @@ public class SentinelGatewayFilterTest {
         assertThat(matchingApis.contains(apiName2)).isTrue();
     }
 
+    @Test
+    public void testPickMatchingApiDefinitionsSameAsApiMatchers() {
+        String[][] patterns = {
+            {"/a/**", "1"}, {"/a/*", "1"}, {"/a/*/", "1"}, {"/a/*/c", "1"}, {"/*", "1"}, {"/**", "1"},
+            {"/a/b?", "1"}, {"/a/{id}/c", "1"}, {"/a/**/c", "1"}, {"/a/b*", "1"}, {"/a", "1"}, {"a/**", "1"},
+            {"/a/b", "0"}, {"/a/b/", "0"}, {"/a/b/c", "5"},
+            {"/a/.*", "2"}, {"/a/b\\d+/c", "2"}, {"/a/b?/.*", "2"}, {".*/c", "2"}, {"/x|/a/b", "2"}
+        };
+        Set<ApiDefinition> apiDefinitions = new HashSet<>();
+        for (int i = 0; i < patterns.length; i++) {
+            apiDefinitions.add(new ApiDefinition("api" + i)
+                .setPredicateItems(Collections.singleton(new ApiPathPredicateItem().setPattern(patterns[i][0])
+                    .setMatchStrategy(Integer.parseInt(patterns[i][1])))));
+        }
+        GatewayApiDefinitionManager.loadApiDefinitions(apiDefinitions);
+        SentinelGatewayFilter filter = new SentinelGatewayFilter();
+
+        String[] paths = {"", "/", "/a", "/a/", "/a/b", "/a/b/", "/a/b/c", "/a/b/c/", "/a//b", "/a/b1/c",
+            "/a/bc", "/a/b/d/c", "a/b", "/x", "/b/c", "/a/b1/"};
+        for (String path : paths) {
+            ServerWebExchange exchange = mockExchange(path);
+            Set<String> expected = GatewayApiMatcherManager.getApiMatcherMap().values().stream()
+                .filter(m -> m.test(exchange))
+                .map(WebExchangeApiMatcher::getApiName)
+                .collect(Collectors.toSet());
+            assertThat(filter.pickMatchingApiDefinitions(exchange)).as(path).isEqualTo(expected);
+        }
+    }
+
+    private ServerWebExchange mockExchange(String path) {
+        ServerWebExchange exchange = mock(ServerWebExchange.class);
+        ServerHttpRequest request = mock(ServerHttpRequest.class);
+        when(exchange.getRequest()).thenReturn(request);
+        RequestPath requestPath = mock(RequestPath.class);
+        when(request.getPath()).thenReturn(requestPath);
+        when(requestPath.value()).thenReturn(path);
+        return exchange;
+    }
+
     @Before
     public void setUp() {
         GatewayApiDefinitionManager.loadApiDefinitions(new HashSet<>());
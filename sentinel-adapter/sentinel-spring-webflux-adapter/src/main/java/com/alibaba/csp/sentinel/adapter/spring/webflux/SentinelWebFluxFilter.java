@@ -17,12 +17,12 @@ package com.alibaba.csp.sentinel.adapter.spring.webflux;
 
 import java.util.Optional;
 
-import com.alibaba.csp.sentinel.EntryType;
-import com.alibaba.csp.sentinel.ResourceTypeConstants;
 import com.alibaba.csp.sentinel.adapter.reactor.ContextConfig;
 import com.alibaba.csp.sentinel.adapter.reactor.EntryConfig;
 import com.alibaba.csp.sentinel.adapter.reactor.SentinelReactorTransformer;
 import com.alibaba.csp.sentinel.adapter.spring.webflux.callback.WebFluxCallbackManager;
+import com.alibaba.csp.sentinel.adapter.web.common.WebResourceWrapperCache;
+import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
 import com.alibaba.csp.sentinel.util.StringUtil;
 
 import org.springframework.web.server.ServerWebExchange;
@@ -57,8 +57,10 @@ public class SentinelWebFluxFilter implements WebFilter {
             .map(f -> f.apply(exchange))
             .orElse(EMPTY_ORIGIN);
 
-        return new SentinelReactorTransformer<>(new EntryConfig(finalPath, ResourceTypeConstants.COMMON_WEB,
-            EntryType.IN, new ContextConfig(getContextName(exchange), origin)));
+        // The resource is resolved from the bounded cache, as the path may not be cleaned.
+        ResourceWrapper resource = WebResourceWrapperCache.getInstance().get(finalPath);
+        return new SentinelReactorTransformer<>(new EntryConfig(resource, 1, EMPTY_ARGS,
+            new ContextConfig(getContextName(exchange), origin)));
     }
 
     protected String getContextName(ServerWebExchange exchange){
@@ -66,4 +68,5 @@ public class SentinelWebFluxFilter implements WebFilter {
     }
 
     private static final String EMPTY_ORIGIN = "";
+    private static final Object[] EMPTY_ARGS = new Object[0];
 }
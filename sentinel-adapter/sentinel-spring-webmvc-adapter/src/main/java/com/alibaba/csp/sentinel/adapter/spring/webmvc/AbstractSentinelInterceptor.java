@@ -19,13 +19,13 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
 import com.alibaba.csp.sentinel.Entry;
-import com.alibaba.csp.sentinel.EntryType;
-import com.alibaba.csp.sentinel.ResourceTypeConstants;
 import com.alibaba.csp.sentinel.SphU;
 import com.alibaba.csp.sentinel.Tracer;
 import com.alibaba.csp.sentinel.adapter.spring.webmvc.config.BaseWebMvcConfig;
+import com.alibaba.csp.sentinel.adapter.web.common.WebResourceWrapperCache;
 import com.alibaba.csp.sentinel.context.ContextUtil;
 import com.alibaba.csp.sentinel.log.RecordLog;
+import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
 import com.alibaba.csp.sentinel.slots.block.BlockException;
 import com.alibaba.csp.sentinel.util.AssertUtil;
 import com.alibaba.csp.sentinel.util.StringUtil;
@@ -88,9 +88,9 @@ public abstract class AbstractSentinelInterceptor implements HandlerInterceptor
     public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
         throws Exception {
         try {
-            String resourceName = getResourceName(request);
+            ResourceWrapper resource = getResourceWrapper(request);
 
-            if (StringUtil.isEmpty(resourceName)) {
+            if (resource == null) {
                 return true;
             }
             
@@ -102,7 +102,7 @@ public abstract class AbstractSentinelInterceptor implements HandlerInterceptor
             String origin = parseOrigin(request);
             String contextName = getContextName(request);
             ContextUtil.enter(contextName, origin);
-            Entry entry = SphU.entry(resourceName, ResourceTypeConstants.COMMON_WEB, EntryType.IN);
+            Entry entry = SphU.entry(resource);
             request.setAttribute(baseWebMvcConfig.getRequestAttributeName(), entry);
             return true;
         } catch (BlockException e) {
@@ -123,6 +123,19 @@ public abstract class AbstractSentinelInterceptor implements HandlerInterceptor
      */
     protected abstract String getResourceName(HttpServletRequest request);
 
+    /**
+     * Return the resource of the target web resource. The resource is resolved from the
+     * {@link WebResourceWrapperCache} by the resource name, so the resource wrapper is not
+     * created for every request, and the amount of web resources is bounded.
+     *
+     * @param request web request
+     * @return the resource of the target web resource, or null if the request should not be recorded
+     * @since 1.8.7
+     */
+    protected ResourceWrapper getResourceWrapper(HttpServletRequest request) {
+        return WebResourceWrapperCache.getInstance().get(getResourceName(request));
+    }
+
     /**
      * Return the context name of the target web resource.
      *
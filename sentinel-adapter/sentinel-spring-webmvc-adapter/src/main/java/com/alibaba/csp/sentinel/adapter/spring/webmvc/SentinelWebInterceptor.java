@@ -17,6 +17,7 @@ package com.alibaba.csp.sentinel.adapter.spring.webmvc;
 
 import com.alibaba.csp.sentinel.adapter.spring.webmvc.config.SentinelWebMvcConfig;
 import com.alibaba.csp.sentinel.adapter.spring.webmvc.callback.UrlCleaner;
+import com.alibaba.csp.sentinel.adapter.web.common.WebResourceWrapperCache;
 
 import javax.servlet.http.HttpServletRequest;
 
@@ -63,7 +64,8 @@ public class SentinelWebInterceptor extends AbstractSentinelInterceptor {
         }
         // Add method specification if necessary
         if (StringUtil.isNotEmpty(resourceName) && config.isHttpMethodSpecify()) {
-            resourceName = request.getMethod().toUpperCase() + ":" + resourceName;
+            // The prefixed name is resolved from the cache, instead of building it for every request.
+            resourceName = WebResourceWrapperCache.getInstance().get(request.getMethod(), resourceName).getName();
         }
         return resourceName;
     }
@@ -17,8 +17,10 @@ package com.alibaba.csp.sentinel.adapter.spring.webmvc_v6x;
 
 import com.alibaba.csp.sentinel.*;
 import com.alibaba.csp.sentinel.adapter.spring.webmvc_v6x.config.BaseWebMvcConfig;
+import com.alibaba.csp.sentinel.adapter.web.common.WebResourceWrapperCache;
 import com.alibaba.csp.sentinel.context.ContextUtil;
 import com.alibaba.csp.sentinel.log.RecordLog;
+import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
 import com.alibaba.csp.sentinel.slots.block.BlockException;
 import com.alibaba.csp.sentinel.util.AssertUtil;
 import com.alibaba.csp.sentinel.util.StringUtil;
@@ -82,10 +84,11 @@ public abstract class AbstractSentinelInterceptor implements HandlerInterceptor
             throws Exception {
         String resourceName = "";
         try {
-            resourceName = getResourceName(request);
-            if (StringUtil.isEmpty(resourceName)) {
+            ResourceWrapper resource = getResourceWrapper(request);
+            if (resource == null) {
                 return true;
             }
+            resourceName = resource.getName();
             if (increaseReference(request, this.baseWebMvcConfig.getRequestRefName(), 1) != 1) {
                 return true;
             }
@@ -93,7 +96,7 @@ public abstract class AbstractSentinelInterceptor implements HandlerInterceptor
             String origin = parseOrigin(request);
             String contextName = getContextName(request);
             ContextUtil.enter(contextName, origin);
-            Entry entry = SphU.entry(resourceName, ResourceTypeConstants.COMMON_WEB, EntryType.IN);
+            Entry entry = SphU.entry(resource);
             request.setAttribute(baseWebMvcConfig.getRequestAttributeName(), entry);
             return true;
         } catch (BlockException e) {
@@ -114,6 +117,19 @@ public abstract class AbstractSentinelInterceptor implements HandlerInterceptor
      */
     protected abstract String getResourceName(HttpServletRequest request);
 
+    /**
+     * Return the resource of the target web resource. The resource is resolved from the
+     * {@link WebResourceWrapperCache} by the resource name, so the resource wrapper is not
+     * created for every request, and the amount of web resources is bounded.
+     *
+     * @param request web request
+     * @return the resource of the target web resource, or null if the request should not be recorded
+     * @since 1.8.7
+     */
+    protected ResourceWrapper getResourceWrapper(HttpServletRequest request) {
+        return WebResourceWrapperCache.getInstance().get(getResourceName(request));
+    }
+
     /**
      * Return the context name of the target web resource.
      *
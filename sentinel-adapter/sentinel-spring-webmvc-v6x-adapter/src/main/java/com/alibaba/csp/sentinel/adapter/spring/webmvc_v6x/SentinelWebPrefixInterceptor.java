@@ -15,6 +15,7 @@
  */
 package com.alibaba.csp.sentinel.adapter.spring.webmvc_v6x;
 
+import com.alibaba.csp.sentinel.adapter.web.common.WebResourceWrapperCache;
 import com.alibaba.csp.sentinel.util.StringUtil;
 import jakarta.servlet.http.HttpServletRequest;
 
@@ -30,9 +31,9 @@ public class SentinelWebPrefixInterceptor extends SentinelWebInterceptor {
     @Override
     protected String getResourceName(HttpServletRequest request) {
         String resourceName = super.getResourceName(request);
-        // Add method specification
+        // Add method specification, the prefixed name is resolved from the cache.
         if (StringUtil.isNotEmpty(resourceName)) {
-            resourceName = request.getMethod().toUpperCase() + ":" + resourceName;
+            resourceName = WebResourceWrapperCache.getInstance().get(request.getMethod(), resourceName).getName();
         }
         return resourceName;
     }
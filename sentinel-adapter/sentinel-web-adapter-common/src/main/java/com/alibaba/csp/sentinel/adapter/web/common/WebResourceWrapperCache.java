@@ -0,0 +1,211 @@
+/*
+ * Copyright 1999-2024 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.adapter.web.common;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.alibaba.csp.sentinel.Constants;
+import com.alibaba.csp.sentinel.EntryType;
+import com.alibaba.csp.sentinel.ResourceTypeConstants;
+import com.alibaba.csp.sentinel.config.SentinelConfig;
+import com.alibaba.csp.sentinel.log.RecordLog;
+import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
+import com.alibaba.csp.sentinel.slotchain.StringResourceWrapper;
+import com.alibaba.csp.sentinel.util.AssertUtil;
+import com.alibaba.csp.sentinel.util.StringUtil;
+
+/**
+ * <p>Bounded cache of the resource wrappers of web requests, so that the web adapters won't build
+ * the {@code ${httpMethod}:${urlPattern}} resource name and the resource wrapper for every request.
+ * Lookups are lock-free, and the resolved wrapper could be passed to
+ * {@link com.alibaba.csp.sentinel.SphU#entry(ResourceWrapper, int, Object...)} directly.</p>
+ *
+ * <p>The amount of distinct resources is capped (see {@link #MAX_RESOURCE_COUNT_KEY}). Once the cap
+ * is reached, any new resource falls into a single overflow resource (named {@link #DEFAULT_OVERFLOW_RESOURCE_NAME}
+ * by default), so URLs that are not cleaned (e.g. containing IDs) won't exhaust the slot chains
+ * (see {@link Constants#MAX_SLOT_CHAIN_SIZE}) and leave the other resources unprotected. The cap
+ * equals {@link Constants#MAX_SLOT_CHAIN_SIZE} by default, and it could be lowered to leave room for
+ * the other resources.</p>
+ *
+ * @since 1.8.7
+ */
+public final class WebResourceWrapperCache {
+
+    public static final String MAX_RESOURCE_COUNT_KEY = "csp.sentinel.web.resource.max.count";
+    /**
+     * Same as the cap of slot chains, so web resources are not cut earlier than before by default.
+     */
+    public static final int DEFAULT_MAX_RESOURCE_COUNT = Constants.MAX_SLOT_CHAIN_SIZE;
+    public static final String DEFAULT_OVERFLOW_RESOURCE_NAME = "other-url-request";
+
+    private static final WebResourceWrapperCache INSTANCE = new WebResourceWrapperCache(resolveMaxResourceCount(),
+        ResourceTypeConstants.COMMON_WEB, EntryType.IN, DEFAULT_OVERFLOW_RESOURCE_NAME);
+
+    private final int maxResourceCount;
+    private final int resourceType;
+    private final EntryType entryType;
+    private final ResourceWrapper overflowResource;
+
+    private final ConcurrentMap<String, ResourceWrapper> resourceMap = new ConcurrentHashMap<>();
+    /**
+     * Resolved resources of {@code ${httpMethod}:${target}}, grouped by the HTTP method. A method group
+     * is created only after a resource of the method has been admitted, so it's bounded as well.
+     */
+    private final ConcurrentMap<String, ConcurrentMap<String, ResourceWrapper>> methodResourceMap
+        = new ConcurrentHashMap<>();
+    private final AtomicInteger resourceCount = new AtomicInteger();
+    private final AtomicBoolean overflowWarned = new AtomicBoolean(false);
+
+    public WebResourceWrapperCache(int maxResourceCount, int resourceType, EntryType entryType,
+                                   String overflowResourceName) {
+        AssertUtil.isTrue(maxResourceCount > 0, "maxResourceCount should be positive");
+        AssertUtil.notNull(entryType, "entryType cannot be null");
+        AssertUtil.notEmpty(overflowResourceName, "overflowResourceName cannot be empty");
+        this.maxResourceCount = maxResourceCount;
+        this.resourceType = resourceType;
+        this.entryType = entryType;
+        this.overflowResource = new StringResourceWrapper(overflowResourceName, entryType, resourceType);
+        this.resourceMap.put(overflowResourceName, overflowResource);
+    }
+
+    /**
+     * Get the shared cache of inbound web resources ({@link ResourceTypeConstants#COMMON_WEB}).
+     *
+     * @return the shared cache
+     */
+    public static WebResourceWrapperCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Get the resource wrapper of the given resource name.
+     *
+     * @param resourceName the resource name
+     * @return the resource wrapper, the overflow resource if the cap is reached, or null if the name is empty
+     */
+    public ResourceWrapper get(String resourceName) {
+        if (StringUtil.isEmpty(resourceName)) {
+            return null;
+        }
+        ResourceWrapper resource = resourceMap.get(resourceName);
+        if (resource != null) {
+            return resource;
+        }
+        return admit(resourceName);
+    }
+
+    /**
+     * Get the resource wrapper of {@code ${HTTP_METHOD}:${target}}, or of {@code target} if the HTTP method
+     * is null. The resource name is built only once for each distinct pair.
+     *
+     * @param httpMethod the HTTP method, null if the method should not be a part of the resource
+     * @param target     the resource target (e.g. the URL pattern)
+     * @return the resource wrapper, the overflow resource if the cap is reached, or null if the target is empty
+     */
+    public ResourceWrapper get(String httpMethod, String target) {
+        if (httpMethod == null) {
+            return get(target);
+        }
+        if (StringUtil.isEmpty(target)) {
+            return null;
+        }
+        ConcurrentMap<String, ResourceWrapper> targetMap = methodResourceMap.get(httpMethod);
+        ResourceWrapper resource = targetMap == null ? null : targetMap.get(target);
+        if (resource != null) {
+            return resource;
+        }
+        if (isFull()) {
+            // Don't bother building the name, it could only be an existing resource or the overflow one.
+            resource = resourceMap.get(httpMethod.toUpperCase() + ":" + target);
+            return resource == null ? overflow() : resource;
+        }
+        resource = get(httpMethod.toUpperCase() + ":" + target);
+        if (resource == overflowResource) {
+            return resource;
+        }
+        if (targetMap == null) {
+            ConcurrentMap<String, ResourceWrapper> newMap = new ConcurrentHashMap<>();
+            targetMap = methodResourceMap.putIfAbsent(httpMethod, newMap);
+            if (targetMap == null) {
+                targetMap = newMap;
+            }
+        }
+        targetMap.putIfAbsent(target, resource);
+        return resource;
+    }
+
+    private ResourceWrapper admit(String resourceName) {
+        if (resourceCount.incrementAndGet() > maxResourceCount) {
+            resourceCount.decrementAndGet();
+            return overflow();
+        }
+        ResourceWrapper resource = new StringResourceWrapper(resourceName, entryType, resourceType);
+        ResourceWrapper existing = resourceMap.putIfAbsent(resourceName, resource);
+        if (existing != null) {
+            resourceCount.decrementAndGet();
+            return existing;
+        }
+        return resource;
+    }
+
+    private ResourceWrapper overflow() {
+        if (overflowWarned.compareAndSet(false, true)) {
+            RecordLog.warn("[WebResourceWrapperCache] Web resource count exceeds the threshold {}, "
+                + "new resources will be merged into <{}>. Please check whether the URLs are cleaned",
+                maxResourceCount, overflowResource.getName());
+        }
+        return overflowResource;
+    }
+
+    private boolean isFull() {
+        return resourceCount.get() >= maxResourceCount;
+    }
+
+    /**
+     * @return the amount of resources in the cache, excluding the overflow resource
+     */
+    public int size() {
+        return resourceCount.get();
+    }
+
+    public int getMaxResourceCount() {
+        return maxResourceCount;
+    }
+
+    public ResourceWrapper getOverflowResource() {
+        return overflowResource;
+    }
+
+    private static int resolveMaxResourceCount() {
+        String value = SentinelConfig.getConfig(MAX_RESOURCE_COUNT_KEY);
+        if (StringUtil.isBlank(value)) {
+            return DEFAULT_MAX_RESOURCE_COUNT;
+        }
+        try {
+            int count = Integer.parseInt(value.trim());
+            if (count > 0) {
+                return count;
+            }
+        } catch (NumberFormatException ignore) {
+        }
+        RecordLog.warn("[WebResourceWrapperCache] Invalid {}: {}, use default value: {}",
+            MAX_RESOURCE_COUNT_KEY, value, DEFAULT_MAX_RESOURCE_COUNT);
+        return DEFAULT_MAX_RESOURCE_COUNT;
+    }
+}
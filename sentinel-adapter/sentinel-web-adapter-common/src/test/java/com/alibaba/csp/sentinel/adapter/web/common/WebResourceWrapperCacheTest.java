@@ -0,0 +1,82 @@
+/*
+ * Copyright 1999-2024 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.adapter.web.common;
+
+import com.alibaba.csp.sentinel.EntryType;
+import com.alibaba.csp.sentinel.ResourceTypeConstants;
+import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class WebResourceWrapperCacheTest {
+
+    @Test
+    public void testGetSameWrapperForSameResource() {
+        WebResourceWrapperCache cache = new WebResourceWrapperCache(10, ResourceTypeConstants.COMMON_WEB,
+            EntryType.IN, "other");
+
+        ResourceWrapper resource = cache.get("/foo/{id}");
+        assertEquals("/foo/{id}", resource.getName());
+        assertEquals(EntryType.IN, resource.getEntryType());
+        assertEquals(ResourceTypeConstants.COMMON_WEB, resource.getResourceType());
+        assertSame(resource, cache.get("/foo/{id}"));
+
+        ResourceWrapper methodResource = cache.get("get", "/foo/{id}");
+        assertEquals("GET:/foo/{id}", methodResource.getName());
+        assertSame(methodResource, cache.get("get", "/foo/{id}"));
+        assertSame(methodResource, cache.get("GET:/foo/{id}"));
+        assertSame(resource, cache.get(null, "/foo/{id}"));
+        assertEquals(2, cache.size());
+
+        assertNull(cache.get(null));
+        assertNull(cache.get("GET", ""));
+    }
+
+    @Test
+    public void testOverflowWhenExceedingMaxResourceCount() {
+        WebResourceWrapperCache cache = new WebResourceWrapperCache(2, ResourceTypeConstants.COMMON_WEB,
+            EntryType.IN, "other");
+        ResourceWrapper a = cache.get("GET", "/a");
+        ResourceWrapper b = cache.get("/b");
+
+        ResourceWrapper overflow = cache.get("GET", "/c");
+        assertSame(cache.getOverflowResource(), overflow);
+        assertEquals("other", overflow.getName());
+        assertSame(overflow, cache.get("/d"));
+        assertSame(overflow, cache.get("POST", "/a"));
+        assertEquals(2, cache.size());
+
+        // Existing resources are still resolved.
+        assertSame(a, cache.get("GET", "/a"));
+        assertSame(a, cache.get("GET:/a"));
+        assertSame(b, cache.get("/b"));
+        assertSame(overflow, cache.get("other"));
+    }
+
+    @Test
+    public void testExistingResourceByNameWhenFull() {
+        WebResourceWrapperCache cache = new WebResourceWrapperCache(1, ResourceTypeConstants.COMMON_WEB,
+            EntryType.IN, "other");
+        ResourceWrapper resource = cache.get("PUT:/x");
+
+        assertSame(resource, cache.get("PUT", "/x"));
+        assertSame(cache.getOverflowResource(), cache.get("PUT", "/y"));
+    }
+}
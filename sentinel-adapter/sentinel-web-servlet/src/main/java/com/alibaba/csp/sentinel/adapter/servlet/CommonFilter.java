@@ -27,8 +27,6 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
 import com.alibaba.csp.sentinel.Entry;
-import com.alibaba.csp.sentinel.EntryType;
-import com.alibaba.csp.sentinel.ResourceTypeConstants;
 import com.alibaba.csp.sentinel.SphU;
 import com.alibaba.csp.sentinel.Tracer;
 import com.alibaba.csp.sentinel.adapter.servlet.callback.RequestOriginParser;
@@ -36,7 +34,9 @@ import com.alibaba.csp.sentinel.adapter.servlet.callback.UrlCleaner;
 import com.alibaba.csp.sentinel.adapter.servlet.callback.WebCallbackManager;
 import com.alibaba.csp.sentinel.adapter.servlet.config.WebServletConfig;
 import com.alibaba.csp.sentinel.adapter.servlet.util.FilterUtil;
+import com.alibaba.csp.sentinel.adapter.web.common.WebResourceWrapperCache;
 import com.alibaba.csp.sentinel.context.ContextUtil;
+import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
 import com.alibaba.csp.sentinel.slots.block.BlockException;
 import com.alibaba.csp.sentinel.util.StringUtil;
 
@@ -62,8 +62,6 @@ public class CommonFilter implements Filter {
      */
     public static final String WEB_CONTEXT_UNIFY = "WEB_CONTEXT_UNIFY";
 
-    private final static String COLON = ":";
-
     private boolean httpMethodSpecify = false;
     private boolean webContextUnify = true;
 
@@ -99,13 +97,11 @@ public class CommonFilter implements Filter {
                 String contextName = webContextUnify ? WebServletConfig.WEB_SERVLET_CONTEXT_NAME : target;
                 ContextUtil.enter(contextName, origin);
 
-                if (httpMethodSpecify) {
-                    // Add HTTP method prefix if necessary.
-                    String pathWithHttpMethod = sRequest.getMethod().toUpperCase() + COLON + target;
-                    urlEntry = SphU.entry(pathWithHttpMethod, ResourceTypeConstants.COMMON_WEB, EntryType.IN);
-                } else {
-                    urlEntry = SphU.entry(target, ResourceTypeConstants.COMMON_WEB, EntryType.IN);
-                }
+                // Add HTTP method prefix if necessary. The resource is resolved from the cache,
+                // so the name is not concatenated for every request.
+                ResourceWrapper resource = WebResourceWrapperCache.getInstance()
+                    .get(httpMethodSpecify ? sRequest.getMethod() : null, target);
+                urlEntry = SphU.entry(resource);
             }
             chain.doFilter(request, response);
         } catch (BlockException e) {
@@ -49,6 +49,15 @@ public class PrefixRoutePathMatcher implements Predicate<RequestContext> {
         if (path == null) {
             AssertUtil.assertNotBlank(pattern, "requesturi cannot be blank");
         }
+        return matches(path);
+    }
+
+    /**
+     * @param path request URI
+     * @return whether the path matches the pattern
+     * @since 1.8.7
+     */
+    public boolean matches(String path) {
         if (canMatch) {
             return pathMatcher.match(pattern, path);
         }
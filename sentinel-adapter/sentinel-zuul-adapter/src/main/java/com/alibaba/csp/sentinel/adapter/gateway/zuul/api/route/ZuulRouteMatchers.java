@@ -38,6 +38,21 @@ public final class ZuulRouteMatchers {
         return new PrefixRoutePathMatcher(pathPattern);
     }
 
+    /**
+     * @param pathPattern Ant-style path pattern
+     * @return matcher of the request URI
+     * @since 1.8.7
+     */
+    public static Predicate<String> antPathMatcher(String pathPattern) {
+        final PrefixRoutePathMatcher matcher = new PrefixRoutePathMatcher(pathPattern);
+        return new Predicate<String>() {
+            @Override
+            public boolean test(String path) {
+                return matcher.matches(path);
+            }
+        };
+    }
+
     public static Predicate<RequestContext> exactPath(final String path) {
         return new Predicate<RequestContext>() {
             @Override
@@ -18,7 +18,6 @@ package com.alibaba.csp.sentinel.adapter.gateway.zuul.filters;
 
 import java.util.ArrayDeque;
 import java.util.Deque;
-import java.util.HashSet;
 import java.util.Set;
 
 import com.alibaba.csp.sentinel.AsyncEntry;
@@ -30,7 +29,6 @@ import com.alibaba.csp.sentinel.adapter.gateway.common.param.RequestItemParser;
 import com.alibaba.csp.sentinel.adapter.gateway.common.rule.GatewayFlowRule;
 import com.alibaba.csp.sentinel.adapter.gateway.zuul.RequestContextItemParser;
 import com.alibaba.csp.sentinel.adapter.gateway.zuul.api.ZuulGatewayApiMatcherManager;
-import com.alibaba.csp.sentinel.adapter.gateway.zuul.api.matcher.RequestContextApiMatcher;
 import com.alibaba.csp.sentinel.adapter.gateway.zuul.callback.ZuulGatewayCallbackManager;
 import com.alibaba.csp.sentinel.adapter.gateway.zuul.constants.ZuulConstant;
 import com.alibaba.csp.sentinel.adapter.gateway.zuul.fallback.BlockResponse;
@@ -160,12 +158,9 @@ public class SentinelZuulPreFilter extends ZuulFilter {
     }
 
     private Set<String> pickMatchingApiDefinitions(RequestContext requestContext) {
-        Set<String> apis = new HashSet<>();
-        for (RequestContextApiMatcher matcher : ZuulGatewayApiMatcherManager.getApiMatcherMap().values()) {
-            if (matcher.test(requestContext)) {
-                apis.add(matcher.getApiName());
-            }
-        }
-        return apis;
+        HttpServletRequest request = requestContext.getRequest();
+        // Exact patterns are matched against the servlet path, while others are matched against the request URI.
+        return ZuulGatewayApiMatcherManager.getCompiledMatcher()
+            .match(request.getServletPath(), request.getRequestURI());
     }
 }
@@ -22,7 +22,11 @@ import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 import com.alibaba.csp.sentinel.adapter.gateway.common.api.ApiDefinition;
+import com.alibaba.csp.sentinel.adapter.gateway.common.api.matcher.CompiledApiPathMatcher;
 import com.alibaba.csp.sentinel.adapter.gateway.zuul2.api.matcher.HttpRequestMessageApiMatcher;
+import com.alibaba.csp.sentinel.adapter.gateway.zuul2.api.route.ZuulRouteMatchers;
+import com.alibaba.csp.sentinel.util.function.Function;
+import com.alibaba.csp.sentinel.util.function.Predicate;
 
 /**
  * @author wavesZh
@@ -31,6 +35,9 @@ import com.alibaba.csp.sentinel.adapter.gateway.zuul2.api.matcher.HttpRequestMes
 public final class ZuulGatewayApiMatcherManager {
 
     private static final Map<String, HttpRequestMessageApiMatcher> API_MATCHER_MAP = new ConcurrentHashMap<>();
+    private static final Function<String, Predicate<String>> ANT_MATCHER_FACTORY = ZuulRouteMatchers::antPathMatcher;
+
+    private static volatile CompiledApiPathMatcher COMPILED_MATCHER = CompiledApiPathMatcher.empty();
 
     public static Map<String, HttpRequestMessageApiMatcher> getApiMatcherMap() {
         return Collections.unmodifiableMap(API_MATCHER_MAP);
@@ -43,6 +50,16 @@ public final class ZuulGatewayApiMatcherManager {
         return API_MATCHER_MAP.get(apiName);
     }
 
+    /**
+     * Get the matcher of all the loaded API definitions, which finds the matching APIs in one pass.
+     *
+     * @return the compiled matcher
+     * @since 1.8.7
+     */
+    public static CompiledApiPathMatcher getCompiledMatcher() {
+        return COMPILED_MATCHER;
+    }
+
     public static Set<ApiDefinition> getApiDefinitionSet() {
         Set<ApiDefinition> set = new HashSet<>();
         for (HttpRequestMessageApiMatcher matcher : API_MATCHER_MAP.values()) {
@@ -54,11 +71,13 @@ public final class ZuulGatewayApiMatcherManager {
     static synchronized void loadApiDefinitions(/*@Valid*/ Set<ApiDefinition> definitions) {
         if (definitions == null || definitions.isEmpty()) {
             API_MATCHER_MAP.clear();
+            COMPILED_MATCHER = CompiledApiPathMatcher.empty();
             return;
         }
         for (ApiDefinition definition : definitions) {
             addApiDefinition(definition);
         }
+        COMPILED_MATCHER = CompiledApiPathMatcher.compile(getApiDefinitionSet(), ANT_MATCHER_FACTORY);
     }
 
     static void addApiDefinition(ApiDefinition definition) {
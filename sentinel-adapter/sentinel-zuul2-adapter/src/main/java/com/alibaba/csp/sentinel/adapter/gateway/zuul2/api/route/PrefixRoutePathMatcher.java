@@ -40,7 +40,15 @@ public class PrefixRoutePathMatcher implements Predicate<HttpRequestMessage> {
 
     @Override
     public boolean test(HttpRequestMessage context) {
-        String path = context.getPath();
+        return matches(context.getPath());
+    }
+
+    /**
+     * @param path request path
+     * @return whether the path matches the pattern
+     * @since 1.8.7
+     */
+    public boolean matches(String path) {
         if (canMatch) {
             return pathMatcher.match(pattern, path);
         }
@@ -31,6 +31,15 @@ public final class ZuulRouteMatchers {
         return new PrefixRoutePathMatcher(pathPattern);
     }
 
+    /**
+     * @param pathPattern Ant-style path pattern
+     * @return matcher of the request path
+     * @since 1.8.7
+     */
+    public static Predicate<String> antPathMatcher(String pathPattern) {
+        return new PrefixRoutePathMatcher(pathPattern)::matches;
+    }
+
     public static Predicate<HttpRequestMessage> exactPath(final String path) {
         return exchange -> exchange.getPath().equals(path);
     }
@@ -0,0 +1,158 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.benchmark.cluster;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.csp.sentinel.cluster.server.envoy.rls.SentinelRlsGrpcServer;
+import com.alibaba.csp.sentinel.cluster.server.envoy.rls.rule.EnvoyRlsRule;
+import com.alibaba.csp.sentinel.cluster.server.envoy.rls.rule.EnvoyRlsRule.KeyValueResource;
+import com.alibaba.csp.sentinel.cluster.server.envoy.rls.rule.EnvoyRlsRule.ResourceDescriptor;
+import com.alibaba.csp.sentinel.cluster.server.envoy.rls.rule.EnvoyRlsRuleManager;
+import com.alibaba.csp.sentinel.cluster.server.envoy.rls.service.v3.SentinelEnvoyRlsServiceImpl;
+
+import io.envoyproxy.envoy.extensions.common.ratelimit.v3.RateLimitDescriptor;
+import io.envoyproxy.envoy.service.ratelimit.v3.RateLimitRequest;
+import io.envoyproxy.envoy.service.ratelimit.v3.RateLimitResponse;
+import io.envoyproxy.envoy.service.ratelimit.v3.RateLimitServiceGrpc;
+import io.grpc.ManagedChannel;
+import io.grpc.netty.NettyChannelBuilder;
+import io.grpc.stub.StreamObserver;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * <p>Benchmark for the Envoy RLS server. {@code grpcShouldRateLimit} acts as a load generator
+ * against a gRPC RLS server on localhost, while {@code inProcessShouldRateLimit} measures
+ * the descriptor evaluation without the transport.</p>
+ *
+ * <p>Run with {@code -prof gc} to check the allocation rate of the evaluation.</p>
+ */
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+public class EnvoyRlsBenchmark {
+
+    private static final String DOMAIN = "benchmark";
+
+    @Param({"1", "4"})
+    private int descriptorCount;
+
+    private SentinelRlsGrpcServer server;
+    private ManagedChannel channel;
+    private RateLimitServiceGrpc.RateLimitServiceBlockingStub stub;
+
+    private SentinelEnvoyRlsServiceImpl service;
+    private RateLimitRequest request;
+
+    @Setup
+    public void setUp() throws IOException {
+        EnvoyRlsRuleManager.loadRules(Collections.singletonList(buildRule()));
+
+        int port = findFreePort();
+        server = new SentinelRlsGrpcServer(port);
+        server.start();
+        channel = NettyChannelBuilder.forAddress(new InetSocketAddress("127.0.0.1", port))
+            .usePlaintext()
+            .build();
+        stub = RateLimitServiceGrpc.newBlockingStub(channel);
+
+        service = new SentinelEnvoyRlsServiceImpl();
+        RateLimitRequest.Builder builder = RateLimitRequest.newBuilder().setDomain(DOMAIN).setHitsAddend(1);
+        for (int i = 0; i < descriptorCount; i++) {
+            builder.addDescriptors(RateLimitDescriptor.newBuilder()
+                .addEntries(RateLimitDescriptor.Entry.newBuilder().setKey("destination_cluster").setValue("svc-" + i))
+                .addEntries(RateLimitDescriptor.Entry.newBuilder().setKey("path").setValue("/api/" + i)));
+        }
+        request = builder.build();
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        server.shutdown();
+    }
+
+    @Benchmark
+    @Threads(16)
+    public RateLimitResponse grpcShouldRateLimit() {
+        return stub.shouldRateLimit(request);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void inProcessShouldRateLimit(final Blackhole blackhole) {
+        service.shouldRateLimit(request, new StreamObserver<RateLimitResponse>() {
+            @Override
+            public void onNext(RateLimitResponse value) {
+                blackhole.consume(value);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                blackhole.consume(t);
+            }
+
+            @Override
+            public void onCompleted() {
+            }
+        });
+    }
+
+    private EnvoyRlsRule buildRule() {
+        List<ResourceDescriptor> descriptors = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            Set<KeyValueResource> resources = new LinkedHashSet<>();
+            resources.add(new KeyValueResource("destination_cluster", "svc-" + i));
+            resources.add(new KeyValueResource("path", "/api/" + i));
+            // Large enough so that requests won't be blocked during the benchmark.
+            descriptors.add(new ResourceDescriptor(resources, 1e9));
+        }
+        EnvoyRlsRule rule = new EnvoyRlsRule();
+        rule.setDomain(DOMAIN);
+        rule.setDescriptors(descriptors);
+        return rule;
+    }
+
+    private static int findFreePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.benchmark.entry;
+
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.csp.sentinel.Entry;
+import com.alibaba.csp.sentinel.EntryType;
+import com.alibaba.csp.sentinel.ResourceTypeConstants;
+import com.alibaba.csp.sentinel.SentinelResourceHandle;
+import com.alibaba.csp.sentinel.SentinelResourceHandleCache;
+import com.alibaba.csp.sentinel.SphU;
+import com.alibaba.csp.sentinel.slots.block.BlockException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * <p>Benchmark for entering RPC method resources by name, by a {@link SentinelResourceHandle} resolved
+ * once in advance (e.g. annotated methods and gRPC methods), and by a {@link SentinelResourceHandleCache}
+ * lookup with the resource name (e.g. Dubbo filters, where the name depends on the adapter config).</p>
+ *
+ * <p>Run with {@code -prof gc} to check the allocation of each entry.</p>
+ */
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+public class ResourceHandleEntryBenchmark {
+
+    private static final Object[] ARGS = new Object[] {"foo", 42};
+
+    @Param({"10", "1000"})
+    private int resourceCount;
+
+    private String[] names;
+    private SentinelResourceHandle[] handles;
+    private SentinelResourceHandleCache handleCache;
+    private int index;
+
+    @Setup
+    public void prepare() throws BlockException {
+        names = new String[resourceCount];
+        handles = new SentinelResourceHandle[resourceCount];
+        handleCache = new SentinelResourceHandleCache(ResourceTypeConstants.COMMON_RPC, EntryType.IN);
+        for (int i = 0; i < resourceCount; i++) {
+            names[i] = "com.alibaba.csp.sentinel.benchmark.DemoService" + (i % 10)
+                + ":sayHello" + i + "(java.lang.String,int)";
+            handles[i] = SentinelResourceHandle.of(names[i], ResourceTypeConstants.COMMON_RPC, EntryType.IN);
+            // Create the slot chains in advance.
+            SphU.entry(handles[i], 1, ARGS).exit(1, ARGS);
+        }
+    }
+
+    private int nextIndex() {
+        int i = index + 1;
+        if (i == resourceCount) {
+            i = 0;
+        }
+        index = i;
+        return i;
+    }
+
+    @Benchmark
+    public Entry entryByName() throws BlockException {
+        Entry entry = SphU.entry(names[nextIndex()], ResourceTypeConstants.COMMON_RPC, EntryType.IN, ARGS);
+        entry.exit(1, ARGS);
+        return entry;
+    }
+
+    @Benchmark
+    public Entry entryByHandle() throws BlockException {
+        Entry entry = SphU.entry(handles[nextIndex()], 1, ARGS);
+        entry.exit(1, ARGS);
+        return entry;
+    }
+
+    @Benchmark
+    public Entry entryByCachedHandle() throws BlockException {
+        Entry entry = SphU.entry(handleCache.get(names[nextIndex()]), 1, ARGS);
+        entry.exit(1, ARGS);
+        return entry;
+    }
+}
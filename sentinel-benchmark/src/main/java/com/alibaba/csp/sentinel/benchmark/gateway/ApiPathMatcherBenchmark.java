@@ -0,0 +1,212 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.benchmark.gateway;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import com.alibaba.csp.sentinel.adapter.gateway.common.SentinelGatewayConstants;
+import com.alibaba.csp.sentinel.adapter.gateway.common.api.ApiDefinition;
+import com.alibaba.csp.sentinel.adapter.gateway.common.api.ApiPathPredicateItem;
+import com.alibaba.csp.sentinel.adapter.gateway.common.api.ApiPredicateItem;
+import com.alibaba.csp.sentinel.adapter.gateway.common.api.matcher.CompiledApiPathMatcher;
+import com.alibaba.csp.sentinel.util.function.Function;
+import com.alibaba.csp.sentinel.util.function.Predicate;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.util.AntPathMatcher;
+
+/**
+ * <p>Benchmark for finding the matching API definitions of a request path. {@code linearMatch} tests
+ * the API matchers one by one as the gateway adapters did before, while {@code compiledMatch} uses
+ * the {@link CompiledApiPathMatcher}.</p>
+ *
+ * <p>The API definitions are a mix of exact, prefix (Ant-style) and regex patterns.</p>
+ */
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+public class ApiPathMatcherBenchmark {
+
+    private static final int PATH_COUNT = 1024;
+
+    @Param({"100", "2000"})
+    private int apiCount;
+
+    private List<LinearApiMatcher> linearMatchers;
+    private CompiledApiPathMatcher compiledMatcher;
+    private String[] paths;
+    private int index;
+
+    @Setup
+    public void setUp() {
+        Set<ApiDefinition> definitions = new HashSet<>();
+        for (int i = 0; i < apiCount; i++) {
+            definitions.add(new ApiDefinition("api-" + i)
+                .setPredicateItems(Collections.<ApiPredicateItem>singleton(buildItem(i))));
+        }
+        linearMatchers = new ArrayList<>(definitions.size());
+        for (ApiDefinition definition : definitions) {
+            linearMatchers.add(new LinearApiMatcher(definition));
+        }
+        compiledMatcher = CompiledApiPathMatcher.compile(definitions, new Function<String, Predicate<String>>() {
+            @Override
+            public Predicate<String> apply(String pattern) {
+                return antPath(pattern);
+            }
+        });
+
+        Random random = new Random(42);
+        paths = new String[PATH_COUNT];
+        for (int i = 0; i < PATH_COUNT; i++) {
+            int service = random.nextInt(apiCount);
+            switch (random.nextInt(4)) {
+                case 0:
+                    paths[i] = "/svc" + service + "/items";
+                    break;
+                case 1:
+                    paths[i] = "/svc" + service + "/items/" + random.nextInt(10000) + "/detail";
+                    break;
+                case 2:
+                    paths[i] = "/svc" + service + "/v" + random.nextInt(3) + "/orders/" + random.nextInt(10000);
+                    break;
+                default:
+                    // Not matching any API.
+                    paths[i] = "/unknown/" + service;
+            }
+        }
+    }
+
+    @Benchmark
+    public Set<String> linearMatch() {
+        String path = nextPath();
+        Set<String> apis = new HashSet<>();
+        for (LinearApiMatcher matcher : linearMatchers) {
+            if (matcher.test(path)) {
+                apis.add(matcher.apiName);
+            }
+        }
+        return apis;
+    }
+
+    @Benchmark
+    public Set<String> compiledMatch() {
+        return compiledMatcher.match(nextPath());
+    }
+
+    private String nextPath() {
+        return paths[index++ & (PATH_COUNT - 1)];
+    }
+
+    private static ApiPathPredicateItem buildItem(int i) {
+        ApiPathPredicateItem item = new ApiPathPredicateItem();
+        switch (i % 10) {
+            case 0:
+            case 1:
+            case 2:
+                return item.setPattern("/svc" + i + "/items");
+            case 3:
+            case 4:
+            case 5:
+            case 6:
+                return item.setPattern("/svc" + i + "/**")
+                    .setMatchStrategy(SentinelGatewayConstants.URL_MATCH_STRATEGY_PREFIX);
+            case 7:
+            case 8:
+                return item.setPattern("/svc" + i + "/items/*/detail")
+                    .setMatchStrategy(SentinelGatewayConstants.URL_MATCH_STRATEGY_PREFIX);
+            default:
+                return item.setPattern("/svc" + i + "/v\\d+/orders/.*")
+                    .setMatchStrategy(SentinelGatewayConstants.URL_MATCH_STRATEGY_REGEX);
+        }
+    }
+
+    private static Predicate<String> antPath(final String pattern) {
+        final AntPathMatcher pathMatcher = new AntPathMatcher();
+        return new Predicate<String>() {
+            @Override
+            public boolean test(String path) {
+                return pathMatcher.match(pattern, path);
+            }
+        };
+    }
+
+    /**
+     * Same as the API matchers in the gateway adapters, but matching the path directly.
+     */
+    private static class LinearApiMatcher implements Predicate<String> {
+
+        private final String apiName;
+        private final List<Predicate<String>> matchers = new ArrayList<>();
+
+        LinearApiMatcher(ApiDefinition definition) {
+            this.apiName = definition.getApiName();
+            for (ApiPredicateItem item : definition.getPredicateItems()) {
+                final ApiPathPredicateItem pathItem = (ApiPathPredicateItem)item;
+                switch (pathItem.getMatchStrategy()) {
+                    case SentinelGatewayConstants.URL_MATCH_STRATEGY_REGEX:
+                        final Pattern regex = Pattern.compile(pathItem.getPattern());
+                        matchers.add(new Predicate<String>() {
+                            @Override
+                            public boolean test(String path) {
+                                return regex.matcher(path).matches();
+                            }
+                        });
+                        break;
+                    case SentinelGatewayConstants.URL_MATCH_STRATEGY_PREFIX:
+                        matchers.add(antPath(pathItem.getPattern()));
+                        break;
+                    default:
+                        matchers.add(new Predicate<String>() {
+                            @Override
+                            public boolean test(String path) {
+                                return path.equals(pathItem.getPattern());
+                            }
+                        });
+                }
+            }
+        }
+
+        @Override
+        public boolean test(String path) {
+            for (Predicate<String> matcher : matchers) {
+                if (matcher.test(path)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.benchmark.gateway;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.csp.sentinel.adapter.gateway.common.SentinelGatewayConstants;
+import com.alibaba.csp.sentinel.adapter.gateway.common.param.GatewayParamParser;
+import com.alibaba.csp.sentinel.adapter.gateway.common.param.RequestItemParser;
+import com.alibaba.csp.sentinel.adapter.gateway.common.rule.GatewayFlowRule;
+import com.alibaba.csp.sentinel.adapter.gateway.common.rule.GatewayParamFlowItem;
+import com.alibaba.csp.sentinel.adapter.gateway.common.rule.GatewayRuleManager;
+import com.alibaba.csp.sentinel.util.function.Predicate;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * <p>Benchmark for parsing the gateway parameters of a route with 20 parameter rules, which refer to
+ * 8 distinct request items with different match strategies.</p>
+ *
+ * <p>Run with {@code -prof gc} to check the allocation rate of the parsing.</p>
+ */
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+public class GatewayParamParserBenchmark {
+
+    private static final String ROUTE_ID = "benchmark_route";
+    private static final int RULE_COUNT = 20;
+
+    private final Predicate<GatewayFlowRule> routeIdPredicate = new Predicate<GatewayFlowRule>() {
+        @Override
+        public boolean test(GatewayFlowRule rule) {
+            return rule.getResourceMode() == SentinelGatewayConstants.RESOURCE_MODE_ROUTE_ID;
+        }
+    };
+
+    private GatewayParamParser<FakeRequest> parser;
+    private FakeRequest request;
+
+    @Setup
+    public void setUp() {
+        Set<GatewayFlowRule> rules = new HashSet<>();
+        for (int i = 0; i < RULE_COUNT; i++) {
+            rules.add(new GatewayFlowRule(ROUTE_ID)
+                // Large enough so that requests won't be blocked during the benchmark.
+                .setCount(1e9 + i)
+                .setParamItem(buildItem(i)));
+        }
+        GatewayRuleManager.loadRules(rules);
+
+        parser = new GatewayParamParser<>(new FakeRequestItemParser());
+        request = new FakeRequest();
+        request.headers.put("Host", "example.com");
+        for (int i = 0; i < 2; i++) {
+            request.headers.put("X-Header-" + i, "value-" + i);
+            request.params.put("p" + i, "value-" + i);
+            request.cookies.put("c" + i, "value-" + i);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        GatewayRuleManager.loadRules(new HashSet<GatewayFlowRule>());
+    }
+
+    @Benchmark
+    public Object[] parseParameters() {
+        return parser.parseParameterFor(ROUTE_ID, request, routeIdPredicate);
+    }
+
+    private static GatewayParamFlowItem buildItem(int i) {
+        GatewayParamFlowItem item = new GatewayParamFlowItem();
+        switch (i % 5) {
+            case 0:
+                item.setParseStrategy(SentinelGatewayConstants.PARAM_PARSE_STRATEGY_CLIENT_IP);
+                break;
+            case 1:
+                item.setParseStrategy(SentinelGatewayConstants.PARAM_PARSE_STRATEGY_HOST);
+                break;
+            case 2:
+                item.setParseStrategy(SentinelGatewayConstants.PARAM_PARSE_STRATEGY_HEADER)
+                    .setFieldName("X-Header-" + (i / 5) % 2);
+                break;
+            case 3:
+                item.setParseStrategy(SentinelGatewayConstants.PARAM_PARSE_STRATEGY_URL_PARAM)
+                    .setFieldName("p" + (i / 5) % 2);
+                break;
+            default:
+                item.setParseStrategy(SentinelGatewayConstants.PARAM_PARSE_STRATEGY_COOKIE)
+                    .setFieldName("c" + (i / 5) % 2);
+        }
+        switch (i / 5) {
+            case 1:
+                return item.setPattern("value-1").setMatchStrategy(SentinelGatewayConstants.PARAM_MATCH_STRATEGY_EXACT);
+            case 2:
+                return item.setPattern("value-\\d+")
+                    .setMatchStrategy(SentinelGatewayConstants.PARAM_MATCH_STRATEGY_REGEX);
+            case 3:
+                return item.setPattern("value")
+                    .setMatchStrategy(SentinelGatewayConstants.PARAM_MATCH_STRATEGY_CONTAINS);
+            default:
+                return item;
+        }
+    }
+
+    private static class FakeRequest {
+        private final String remoteAddress = "10.0.0.1";
+        private final Map<String, String> headers = new HashMap<>();
+        private final Map<String, String> params = new HashMap<>();
+        private final Map<String, String> cookies = new HashMap<>();
+    }
+
+    private static class FakeRequestItemParser implements RequestItemParser<FakeRequest> {
+
+        @Override
+        public String getPath(FakeRequest request) {
+            return "/";
+        }
+
+        @Override
+        public String getRemoteAddress(FakeRequest request) {
+            return request.remoteAddress;
+        }
+
+        @Override
+        public String getHeader(FakeRequest request, String key) {
+            return request.headers.get(key);
+        }
+
+        @Override
+        public String getUrlParam(FakeRequest request, String paramName) {
+            return request.params.get(paramName);
+        }
+
+        @Override
+        public String getCookieValue(FakeRequest request, String cookieName) {
+            return request.cookies.get(cookieName);
+        }
+    }
+}
@@ -0,0 +1,205 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.benchmark.grpc;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.csp.sentinel.adapter.grpc.SentinelGrpcClientInterceptor;
+import com.alibaba.csp.sentinel.adapter.grpc.SentinelGrpcServerInterceptor;
+
+import io.grpc.CallOptions;
+import io.grpc.ManagedChannel;
+import io.grpc.MethodDescriptor;
+import io.grpc.Server;
+import io.grpc.ServerInterceptors;
+import io.grpc.ServerServiceDefinition;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.ClientCalls;
+import io.grpc.stub.ServerCalls;
+import io.grpc.stub.StreamObserver;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * <p>Benchmark for the gRPC interceptors against an in-process gRPC server, measuring both
+ * throughput and the latency distribution. {@code unaryCall} measures a unary call, while
+ * {@code bidiStream} sends {@link #MESSAGES_PER_STREAM} messages through a bidi-streaming call
+ * with each inbound message guarded by the message resource.</p>
+ *
+ * <p>The {@code intercepted} parameter compares the interceptors with the bare transport.
+ * No rule is loaded, so nothing is blocked during the benchmark.</p>
+ */
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class GrpcInterceptorBenchmark {
+
+    private static final int MESSAGES_PER_STREAM = 64;
+
+    private static final MethodDescriptor.Marshaller<byte[]> BYTES_MARSHALLER =
+        new MethodDescriptor.Marshaller<byte[]>() {
+            @Override
+            public InputStream stream(byte[] value) {
+                return new ByteArrayInputStream(value);
+            }
+
+            @Override
+            public byte[] parse(InputStream stream) {
+                try {
+                    ByteArrayOutputStream out = new ByteArrayOutputStream();
+                    byte[] buf = new byte[256];
+                    int n;
+                    while ((n = stream.read(buf)) > 0) {
+                        out.write(buf, 0, n);
+                    }
+                    return out.toByteArray();
+                } catch (IOException ex) {
+                    throw new IllegalStateException(ex);
+                }
+            }
+        };
+
+    private static final MethodDescriptor<byte[], byte[]> UNARY_METHOD = newMethod(
+        MethodDescriptor.MethodType.UNARY, "unary");
+    private static final MethodDescriptor<byte[], byte[]> BIDI_METHOD = newMethod(
+        MethodDescriptor.MethodType.BIDI_STREAMING, "bidi");
+
+    @Param({"false", "true"})
+    private boolean intercepted;
+
+    private final byte[] payload = new byte[64];
+
+    private Server server;
+    private ManagedChannel channel;
+
+    @Setup
+    public void setUp() throws IOException {
+        String serverName = "sentinel-grpc-benchmark-" + System.nanoTime();
+        ServerServiceDefinition service = buildService();
+        InProcessServerBuilder serverBuilder = InProcessServerBuilder.forName(serverName).directExecutor();
+        InProcessChannelBuilder channelBuilder = InProcessChannelBuilder.forName(serverName).directExecutor();
+        if (intercepted) {
+            service = ServerInterceptors.intercept(service, new SentinelGrpcServerInterceptor(true));
+            channelBuilder.intercept(new SentinelGrpcClientInterceptor(true));
+        }
+        server = serverBuilder.addService(service).build().start();
+        channel = channelBuilder.build();
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        server.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public byte[] unaryCall() {
+        return ClientCalls.blockingUnaryCall(channel, UNARY_METHOD, CallOptions.DEFAULT, payload);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public int bidiStream() throws InterruptedException {
+        final CountDownLatch latch = new CountDownLatch(1);
+        final int[] received = new int[1];
+        StreamObserver<byte[]> requestObserver = ClientCalls.asyncBidiStreamingCall(
+            channel.newCall(BIDI_METHOD, CallOptions.DEFAULT), new StreamObserver<byte[]>() {
+                @Override
+                public void onNext(byte[] value) {
+                    received[0]++;
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    latch.countDown();
+                }
+
+                @Override
+                public void onCompleted() {
+                    latch.countDown();
+                }
+            });
+        for (int i = 0; i < MESSAGES_PER_STREAM; i++) {
+            requestObserver.onNext(payload);
+        }
+        requestObserver.onCompleted();
+        latch.await();
+        return received[0];
+    }
+
+    private static ServerServiceDefinition buildService() {
+        return ServerServiceDefinition.builder("benchmark.EchoService")
+            .addMethod(UNARY_METHOD, ServerCalls.asyncUnaryCall(new ServerCalls.UnaryMethod<byte[], byte[]>() {
+                @Override
+                public void invoke(byte[] request, StreamObserver<byte[]> responseObserver) {
+                    responseObserver.onNext(request);
+                    responseObserver.onCompleted();
+                }
+            }))
+            .addMethod(BIDI_METHOD, ServerCalls.asyncBidiStreamingCall(
+                new ServerCalls.BidiStreamingMethod<byte[], byte[]>() {
+                    @Override
+                    public StreamObserver<byte[]> invoke(final StreamObserver<byte[]> responseObserver) {
+                        return new StreamObserver<byte[]>() {
+                            @Override
+                            public void onNext(byte[] value) {
+                                responseObserver.onNext(value);
+                            }
+
+                            @Override
+                            public void onError(Throwable t) {
+                            }
+
+                            @Override
+                            public void onCompleted() {
+                                responseObserver.onCompleted();
+                            }
+                        };
+                    }
+                }))
+            .build();
+    }
+
+    private static MethodDescriptor<byte[], byte[]> newMethod(MethodDescriptor.MethodType type, String name) {
+        return MethodDescriptor.<byte[], byte[]>newBuilder()
+            .setType(type)
+            .setFullMethodName(MethodDescriptor.generateFullMethodName("benchmark.EchoService", name))
+            .setRequestMarshaller(BYTES_MARSHALLER)
+            .setResponseMarshaller(BYTES_MARSHALLER)
+            .build();
+    }
+}
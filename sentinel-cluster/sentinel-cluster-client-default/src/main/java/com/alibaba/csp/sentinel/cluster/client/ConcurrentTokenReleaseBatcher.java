@@ -0,0 +1,125 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.client;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.alibaba.csp.sentinel.cluster.ClusterConstants;
+import com.alibaba.csp.sentinel.concurrent.NamedThreadFactory;
+import com.alibaba.csp.sentinel.log.RecordLog;
+import com.alibaba.csp.sentinel.util.AssertUtil;
+
+/**
+ * <p>Collects released concurrent tokens and sends them to the token server in batches,
+ * so that the caller of {@code releaseConcurrentToken} never waits for the remote server.</p>
+ *
+ * <p>A batch is flushed when {@link ClusterConstants#MAX_RELEASE_BATCH_SIZE} tokens are pending,
+ * or at the fixed flush interval. If a batch fails to be sent, the tokens will finally be
+ * cleared by the expire strategy of the token server.</p>
+ *
+ * @since 1.8.7
+ */
+class ConcurrentTokenReleaseBatcher {
+
+    static final long DEFAULT_FLUSH_INTERVAL_MS = 10;
+
+    @SuppressWarnings("PMD.ThreadPoolCreationRule")
+    private static final ScheduledExecutorService SCHEDULER = Executors.newScheduledThreadPool(1,
+        new NamedThreadFactory("sentinel-cluster-token-release-batcher", true));
+
+    private final ConcurrentLinkedQueue<Long> pendingQueue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingCount = new AtomicInteger(0);
+    private final AtomicBoolean flushScheduled = new AtomicBoolean(false);
+    private final BatchSender sender;
+
+    private final Runnable flushTask = new Runnable() {
+        @Override
+        public void run() {
+            flushScheduled.set(false);
+            flush();
+        }
+    };
+
+    ConcurrentTokenReleaseBatcher(BatchSender sender) {
+        AssertUtil.notNull(sender, "sender cannot be null");
+        this.sender = sender;
+    }
+
+    void release(long tokenId) {
+        pendingQueue.offer(tokenId);
+        if (pendingCount.incrementAndGet() >= ClusterConstants.MAX_RELEASE_BATCH_SIZE) {
+            scheduleFlush(0);
+        } else {
+            scheduleFlush(DEFAULT_FLUSH_INTERVAL_MS);
+        }
+    }
+
+    int getPendingCount() {
+        return pendingCount.get();
+    }
+
+    private void scheduleFlush(long delayMs) {
+        if (delayMs == 0 || flushScheduled.compareAndSet(false, true)) {
+            SCHEDULER.schedule(flushTask, delayMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Send all pending tokens. Only invoked in the scheduler thread.
+     */
+    void flush() {
+        while (pendingCount.get() > 0) {
+            int size = Math.min(pendingCount.get(), ClusterConstants.MAX_RELEASE_BATCH_SIZE);
+            long[] batch = new long[size];
+            int n = 0;
+            Long tokenId;
+            while (n < size && (tokenId = pendingQueue.poll()) != null) {
+                batch[n++] = tokenId;
+            }
+            if (n == 0) {
+                return;
+            }
+            pendingCount.addAndGet(-n);
+            if (n < size) {
+                long[] actual = new long[n];
+                System.arraycopy(batch, 0, actual, 0, n);
+                batch = actual;
+            }
+            try {
+                sender.send(batch);
+            } catch (Throwable ex) {
+                RecordLog.warn("[ConcurrentTokenReleaseBatcher] Failed to release {} tokens, "
+                    + "they will be cleared when expired in token server", n, ex);
+            }
+        }
+    }
+
+    interface BatchSender {
+
+        /**
+         * Send the batch of released tokens to the token server.
+         *
+         * @param tokenIds token IDs to release
+         * @throws Exception if failed to send
+         */
+        void send(long[] tokenIds) throws Exception;
+    }
+}
@@ -28,10 +28,14 @@ import com.alibaba.csp.sentinel.cluster.client.config.ClusterClientAssignConfig;
 import com.alibaba.csp.sentinel.cluster.client.config.ClusterClientConfigManager;
 import com.alibaba.csp.sentinel.cluster.client.config.ServerChangeObserver;
 import com.alibaba.csp.sentinel.cluster.log.ClusterClientStatLogUtil;
+import com.alibaba.csp.sentinel.cluster.exception.SentinelClusterException;
 import com.alibaba.csp.sentinel.cluster.request.ClusterRequest;
+import com.alibaba.csp.sentinel.cluster.request.data.ConcurrentFlowAcquireRequestData;
+import com.alibaba.csp.sentinel.cluster.request.data.ConcurrentFlowReleaseRequestData;
 import com.alibaba.csp.sentinel.cluster.request.data.FlowRequestData;
 import com.alibaba.csp.sentinel.cluster.request.data.ParamFlowRequestData;
 import com.alibaba.csp.sentinel.cluster.response.ClusterResponse;
+import com.alibaba.csp.sentinel.cluster.response.data.ConcurrentFlowAcquireResponseData;
 import com.alibaba.csp.sentinel.cluster.response.data.FlowTokenResponseData;
 import com.alibaba.csp.sentinel.log.RecordLog;
 import com.alibaba.csp.sentinel.util.StringUtil;
@@ -49,6 +53,14 @@ public class DefaultClusterTokenClient implements ClusterTokenClient {
 
     private final AtomicBoolean shouldStart = new AtomicBoolean(false);
 
+    private final ConcurrentTokenReleaseBatcher releaseBatcher = new ConcurrentTokenReleaseBatcher(
+        new ConcurrentTokenReleaseBatcher.BatchSender() {
+            @Override
+            public void send(long[] tokenIds) throws Exception {
+                sendReleaseRequest(tokenIds);
+            }
+        });
+
     public DefaultClusterTokenClient() {
         ClusterClientConfigManager.addServerChangeObserver(new ServerChangeObserver() {
             @Override
@@ -184,11 +196,30 @@ public class DefaultClusterTokenClient implements ClusterTokenClient {
 
     @Override
     public TokenResult requestConcurrentToken(String clientAddress, Long ruleId, int acquireCount) {
-        return null;
+        if (notValidRequest(ruleId, acquireCount)) {
+            return badRequest();
+        }
+        ConcurrentFlowAcquireRequestData data = new ConcurrentFlowAcquireRequestData().setCount(acquireCount)
+            .setFlowId(ruleId).setClientAddress(clientAddress);
+        ClusterRequest<ConcurrentFlowAcquireRequestData> request = new ClusterRequest<>(
+            ClusterConstants.MSG_TYPE_CONCURRENT_FLOW_ACQUIRE, data);
+        try {
+            TokenResult result = sendConcurrentAcquireRequest(request);
+            logForResult(result);
+            return result;
+        } catch (Exception ex) {
+            ClusterClientStatLogUtil.log(ex.getMessage());
+            return new TokenResult(TokenResultStatus.FAIL);
+        }
     }
 
     @Override
     public void releaseConcurrentToken(Long tokenId) {
+        if (tokenId == null) {
+            return;
+        }
+        // Released tokens are sent in batches asynchronously.
+        releaseBatcher.release(tokenId);
     }
 
     private void logForResult(TokenResult result) {
@@ -219,6 +250,32 @@ public class DefaultClusterTokenClient implements ClusterTokenClient {
         return result;
     }
 
+    private TokenResult sendConcurrentAcquireRequest(ClusterRequest request) throws Exception {
+        if (transportClient == null) {
+            RecordLog.warn(
+                "[DefaultClusterTokenClient] Client not created, please check your config for cluster client");
+            return clientFail();
+        }
+        ClusterResponse response = transportClient.sendRequest(request);
+        TokenResult result = new TokenResult(response.getStatus());
+        if (response.getData() != null) {
+            result.setTokenId(((ConcurrentFlowAcquireResponseData)response.getData()).getTokenId());
+        }
+        return result;
+    }
+
+    private void sendReleaseRequest(long[] tokenIds) throws Exception {
+        if (transportClient == null) {
+            throw new SentinelClusterException(ClusterErrorMessages.CLIENT_NOT_READY);
+        }
+        ClusterRequest<ConcurrentFlowReleaseRequestData> request = new ClusterRequest<>(
+            ClusterConstants.MSG_TYPE_CONCURRENT_FLOW_RELEASE, new ConcurrentFlowReleaseRequestData().setTokenIds(tokenIds));
+        ClusterResponse response = transportClient.sendRequest(request);
+        if (response.getStatus() != TokenResultStatus.RELEASE_OK) {
+            ClusterClientStatLogUtil.log(ClusterErrorMessages.UNEXPECTED_STATUS);
+        }
+    }
+
     private boolean notValidRequest(Long id, int count) {
         return id == null || id <= 0 || count <= 0;
     }
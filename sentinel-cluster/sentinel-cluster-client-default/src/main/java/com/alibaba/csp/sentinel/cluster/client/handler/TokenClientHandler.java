@@ -16,6 +16,8 @@
 package com.alibaba.csp.sentinel.cluster.client.handler;
 
 import java.net.InetSocketAddress;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import com.alibaba.csp.sentinel.cluster.ClusterConstants;
@@ -24,6 +26,7 @@ import com.alibaba.csp.sentinel.cluster.registry.ConfigSupplierRegistry;
 import com.alibaba.csp.sentinel.cluster.request.ClusterRequest;
 import com.alibaba.csp.sentinel.cluster.response.ClusterResponse;
 import com.alibaba.csp.sentinel.log.RecordLog;
+import com.alibaba.csp.sentinel.slots.block.flow.ClusterFallbackManager;
 
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelInboundHandlerAdapter;
@@ -39,6 +42,8 @@ public class TokenClientHandler extends ChannelInboundHandlerAdapter {
     private final AtomicInteger currentState;
     private final Runnable disconnectCallback;
 
+    private ScheduledFuture<?> pingFuture;
+
     public TokenClientHandler(AtomicInteger currentState, Runnable disconnectCallback) {
         this.currentState = currentState;
         this.disconnectCallback = disconnectCallback;
@@ -48,6 +53,7 @@ public class TokenClientHandler extends ChannelInboundHandlerAdapter {
     public void channelActive(ChannelHandlerContext ctx) throws Exception {
         currentState.set(ClientConstants.CLIENT_STATUS_STARTED);
         fireClientPing(ctx);
+        schedulePing(ctx);
         RecordLog.info("[TokenClientHandler] Client handler active, remote address: {}", getRemoteAddress(ctx));
     }
 
@@ -73,11 +79,25 @@ public class TokenClientHandler extends ChannelInboundHandlerAdapter {
         ctx.writeAndFlush(ping);
     }
 
+    private void schedulePing(final ChannelHandlerContext ctx) {
+        // Ping periodically so that the connected count of the namespace is kept up to date,
+        // which is used to estimate the local share when the server is unavailable.
+        pingFuture = ctx.executor().scheduleAtFixedRate(new Runnable() {
+            @Override
+            public void run() {
+                fireClientPing(ctx);
+            }
+        }, ClientConstants.PING_INTERVAL_MS, ClientConstants.PING_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
     private void handlePingResponse(ChannelHandlerContext ctx, ClusterResponse response) {
         if (response.getStatus() == ClusterConstants.RESPONSE_STATUS_OK) {
             int count = (int) response.getData();
-            RecordLog.info("[TokenClientHandler] Client ping OK (target server: {}, connected count: {})",
-                getRemoteAddress(ctx), count);
+            if (count != ClusterFallbackManager.getServerConnectedCount()) {
+                RecordLog.info("[TokenClientHandler] Client ping OK (target server: {}, connected count: {})",
+                    getRemoteAddress(ctx), count);
+            }
+            ClusterFallbackManager.updateServerConnectedCount(count);
         } else {
             RecordLog.warn("[TokenClientHandler] Client ping failed (target server: {})", getRemoteAddress(ctx));
         }
@@ -90,6 +110,10 @@ public class TokenClientHandler extends ChannelInboundHandlerAdapter {
 
     @Override
     public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+        if (pingFuture != null) {
+            pingFuture.cancel(false);
+            pingFuture = null;
+        }
         RecordLog.info("[TokenClientHandler] Client handler inactive, remote address: {}", getRemoteAddress(ctx));
     }
 
@@ -16,6 +16,10 @@
 package com.alibaba.csp.sentinel.cluster.client.init;
 
 import com.alibaba.csp.sentinel.cluster.client.ClientConstants;
+import com.alibaba.csp.sentinel.cluster.client.codec.data.ConcurrentFlowAcquireRequestDataWriter;
+import com.alibaba.csp.sentinel.cluster.client.codec.data.ConcurrentFlowAcquireResponseDataDecoder;
+import com.alibaba.csp.sentinel.cluster.client.codec.data.ConcurrentFlowReleaseRequestDataWriter;
+import com.alibaba.csp.sentinel.cluster.client.codec.data.ConcurrentFlowReleaseResponseDataDecoder;
 import com.alibaba.csp.sentinel.cluster.client.codec.data.FlowRequestDataWriter;
 import com.alibaba.csp.sentinel.cluster.client.codec.data.FlowResponseDataDecoder;
 import com.alibaba.csp.sentinel.cluster.client.codec.data.ParamFlowRequestDataWriter;
@@ -49,11 +53,19 @@ public class DefaultClusterClientInitFunc implements InitFunc {
         } else {
             RequestDataWriterRegistry.addWriter(ClientConstants.TYPE_PARAM_FLOW, new ParamFlowRequestDataWriter(maxParamByteSize));
         }
+        RequestDataWriterRegistry.addWriter(ClientConstants.TYPE_CONCURRENT_FLOW_ACQUIRE,
+            new ConcurrentFlowAcquireRequestDataWriter());
+        RequestDataWriterRegistry.addWriter(ClientConstants.TYPE_CONCURRENT_FLOW_RELEASE,
+            new ConcurrentFlowReleaseRequestDataWriter());
     }
 
     private void initDefaultEntityDecoders() {
         ResponseDataDecodeRegistry.addDecoder(ClientConstants.TYPE_PING, new PingResponseDataDecoder());
         ResponseDataDecodeRegistry.addDecoder(ClientConstants.TYPE_FLOW, new FlowResponseDataDecoder());
         ResponseDataDecodeRegistry.addDecoder(ClientConstants.TYPE_PARAM_FLOW, new FlowResponseDataDecoder());
+        ResponseDataDecodeRegistry.addDecoder(ClientConstants.TYPE_CONCURRENT_FLOW_ACQUIRE,
+            new ConcurrentFlowAcquireResponseDataDecoder());
+        ResponseDataDecodeRegistry.addDecoder(ClientConstants.TYPE_CONCURRENT_FLOW_RELEASE,
+            new ConcurrentFlowReleaseResponseDataDecoder());
     }
 }
@@ -0,0 +1,107 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.client;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.alibaba.csp.sentinel.cluster.ClusterConstants;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test cases for {@link ConcurrentTokenReleaseBatcher}.
+ */
+public class ConcurrentTokenReleaseBatcherTest {
+
+    @Test
+    public void testReleaseInBatches() throws Exception {
+        final int total = ClusterConstants.MAX_RELEASE_BATCH_SIZE * 5 + 7;
+        final List<long[]> batches = new CopyOnWriteArrayList<>();
+        final CountDownLatch sentLatch = new CountDownLatch(total);
+        ConcurrentTokenReleaseBatcher batcher = new ConcurrentTokenReleaseBatcher(
+            new ConcurrentTokenReleaseBatcher.BatchSender() {
+                @Override
+                public void send(long[] tokenIds) {
+                    batches.add(tokenIds);
+                    for (int i = 0; i < tokenIds.length; i++) {
+                        sentLatch.countDown();
+                    }
+                }
+            });
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        final AtomicInteger next = new AtomicInteger(0);
+        for (int t = 0; t < 8; t++) {
+            pool.execute(new Runnable() {
+                @Override
+                public void run() {
+                    int id;
+                    while ((id = next.getAndIncrement()) < total) {
+                        batcher.release(id);
+                    }
+                }
+            });
+        }
+        pool.shutdown();
+
+        assertThat(sentLatch.await(5, TimeUnit.SECONDS)).isTrue();
+        Set<Long> released = new HashSet<>();
+        for (long[] batch : batches) {
+            assertThat(batch.length).isBetween(1, ClusterConstants.MAX_RELEASE_BATCH_SIZE);
+            for (long tokenId : batch) {
+                assertThat(released.add(tokenId)).isTrue();
+            }
+        }
+        assertThat(released).hasSize(total);
+        assertThat(batcher.getPendingCount()).isZero();
+    }
+
+    @Test
+    public void testKeepReleasingAfterSendFailure() throws Exception {
+        final AtomicInteger sendCount = new AtomicInteger(0);
+        final CountDownLatch recovered = new CountDownLatch(1);
+        ConcurrentTokenReleaseBatcher batcher = new ConcurrentTokenReleaseBatcher(
+            new ConcurrentTokenReleaseBatcher.BatchSender() {
+                @Override
+                public void send(long[] tokenIds) throws Exception {
+                    if (sendCount.incrementAndGet() == 1) {
+                        throw new IllegalStateException("server unavailable");
+                    }
+                    recovered.countDown();
+                }
+            });
+
+        batcher.release(1L);
+        // Wait until the failed batch is dropped.
+        long deadline = System.currentTimeMillis() + 5000;
+        while (sendCount.get() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        batcher.release(2L);
+
+        assertThat(recovered.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(batcher.getPendingCount()).isZero();
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.client.codec.data;
+
+import com.alibaba.csp.sentinel.cluster.ClusterConstants;
+import com.alibaba.csp.sentinel.cluster.request.data.ConcurrentFlowAcquireRequestData;
+import com.alibaba.csp.sentinel.cluster.request.data.ConcurrentFlowReleaseRequestData;
+import com.alibaba.csp.sentinel.cluster.response.data.ConcurrentFlowAcquireResponseData;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test cases for the client side codec of concurrent token requests. The response buffers are
+ * written in the same layout as the writers of the token server.
+ */
+public class ConcurrentFlowDataCodecTest {
+
+    @Test
+    public void testWriteAcquireRequest() {
+        ByteBuf buf = Unpooled.buffer();
+        new ConcurrentFlowAcquireRequestDataWriter().writeTo(
+            new ConcurrentFlowAcquireRequestData().setFlowId(179L).setCount(3).setClientAddress("127.0.0.1"), buf);
+
+        // The client address is filled by the token server, so it's not written.
+        assertThat(buf.readableBytes()).isEqualTo(8 + 4);
+        assertThat(buf.readLong()).isEqualTo(179L);
+        assertThat(buf.readInt()).isEqualTo(3);
+        buf.release();
+    }
+
+    @Test
+    public void testWriteReleaseRequest() {
+        long[] tokenIds = {Long.MIN_VALUE, -1L, 0L, 42L, Long.MAX_VALUE};
+        ByteBuf buf = Unpooled.buffer();
+        ConcurrentFlowReleaseRequestDataWriter writer = new ConcurrentFlowReleaseRequestDataWriter();
+        writer.writeTo(new ConcurrentFlowReleaseRequestData().setTokenIds(tokenIds), buf);
+
+        assertThat(buf.readInt()).isEqualTo(tokenIds.length);
+        for (long tokenId : tokenIds) {
+            assertThat(buf.readLong()).isEqualTo(tokenId);
+        }
+        assertThat(buf.readableBytes()).isZero();
+
+        // Empty batch.
+        writer.writeTo(new ConcurrentFlowReleaseRequestData(), buf);
+        assertThat(buf.readInt()).isZero();
+        assertThat(buf.readableBytes()).isZero();
+        buf.release();
+    }
+
+    @Test
+    public void testWriteOversizedReleaseRequest() {
+        long[] tokenIds = new long[ClusterConstants.MAX_RELEASE_BATCH_SIZE + 10];
+        for (int i = 0; i < tokenIds.length; i++) {
+            tokenIds[i] = i;
+        }
+        ByteBuf buf = Unpooled.buffer();
+        new ConcurrentFlowReleaseRequestDataWriter().writeTo(
+            new ConcurrentFlowReleaseRequestData().setTokenIds(tokenIds), buf);
+
+        // The batch is cut to the maximum size, so that the token server won't reject it.
+        assertThat(buf.readInt()).isEqualTo(ClusterConstants.MAX_RELEASE_BATCH_SIZE);
+        assertThat(buf.readableBytes()).isEqualTo(ClusterConstants.MAX_RELEASE_BATCH_SIZE * 8);
+        buf.release();
+    }
+
+    @Test
+    public void testDecodeResponses() {
+        ByteBuf buf = Unpooled.buffer();
+        buf.writeLong(-8L);
+        ConcurrentFlowAcquireResponseData data = new ConcurrentFlowAcquireResponseDataDecoder().decode(buf);
+        assertThat(data.getTokenId()).isEqualTo(-8L);
+
+        // Blocked responses may carry no token ID.
+        assertThat(new ConcurrentFlowAcquireResponseDataDecoder().decode(buf).getTokenId()).isZero();
+
+        ConcurrentFlowReleaseResponseDataDecoder releaseDecoder = new ConcurrentFlowReleaseResponseDataDecoder();
+        buf.writeInt(5);
+        assertThat(releaseDecoder.decode(buf)).isEqualTo(5);
+        assertThat(releaseDecoder.decode(buf)).isZero();
+        buf.release();
+    }
+}
@@ -27,6 +27,11 @@ public final class ClusterConstants {
     public static final int MSG_TYPE_CONCURRENT_FLOW_ACQUIRE = 3;
     public static final int MSG_TYPE_CONCURRENT_FLOW_RELEASE = 4;
 
+    /**
+     * Max count of token IDs in one batched release request (the frame is limited to 1024 bytes).
+     */
+    public static final int MAX_RELEASE_BATCH_SIZE = 100;
+
 
     public static final int RESPONSE_STATUS_BAD = -1;
     public static final int RESPONSE_STATUS_OK = 0;
@@ -0,0 +1,68 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.request.data;
+
+/**
+ * Request data for acquiring concurrent tokens from the token server.
+ *
+ * @since 1.8.7
+ */
+public class ConcurrentFlowAcquireRequestData {
+
+    private long flowId;
+    private int count;
+    /**
+     * The address of the token client. This is not transferred on the wire,
+     * but filled by the token server from the remote address of the connection.
+     */
+    private String clientAddress;
+
+    public long getFlowId() {
+        return flowId;
+    }
+
+    public ConcurrentFlowAcquireRequestData setFlowId(long flowId) {
+        this.flowId = flowId;
+        return this;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public ConcurrentFlowAcquireRequestData setCount(int count) {
+        this.count = count;
+        return this;
+    }
+
+    public String getClientAddress() {
+        return clientAddress;
+    }
+
+    public ConcurrentFlowAcquireRequestData setClientAddress(String clientAddress) {
+        this.clientAddress = clientAddress;
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return "ConcurrentFlowAcquireRequestData{" +
+            "flowId=" + flowId +
+            ", count=" + count +
+            ", clientAddress='" + clientAddress + '\'' +
+            '}';
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.response.data;
+
+/**
+ * Response data of concurrent token acquiring.
+ *
+ * @since 1.8.7
+ */
+public class ConcurrentFlowAcquireResponseData {
+
+    private long tokenId;
+
+    public long getTokenId() {
+        return tokenId;
+    }
+
+    public ConcurrentFlowAcquireResponseData setTokenId(long tokenId) {
+        this.tokenId = tokenId;
+        return this;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ConcurrentFlowAcquireResponseData)) {
+            return false;
+        }
+        return tokenId == ((ConcurrentFlowAcquireResponseData) o).tokenId;
+    }
+
+    @Override
+    public int hashCode() {
+        return (int) (tokenId ^ (tokenId >>> 32));
+    }
+
+    @Override
+    public String toString() {
+        return "ConcurrentFlowAcquireResponseData{" +
+            "tokenId=" + tokenId +
+            '}';
+    }
+}
@@ -36,6 +36,8 @@ import com.alibaba.csp.sentinel.util.TimeUtil;
  */
 public class ClusterMetricNodeGenerator {
 
+    public static final int DEFAULT_TOP_PARAM_COUNT = 5;
+
     public static Map<String, List<ClusterMetricNode>> generateCurrentNodeMap(String namespace) {
         Map<String, List<ClusterMetricNode>> map = new HashMap<>();
         Set<Long> flowIds = ClusterFlowRuleManager.getFlowIdSet(namespace);
@@ -58,6 +60,25 @@ public class ClusterMetricNodeGenerator {
         return map;
     }
 
+    /**
+     * Generate metric nodes of all cluster parameter flow rules in the namespace with top N hot parameter values.
+     *
+     * @param namespace valid namespace
+     * @param topCount  max count of top parameter values
+     * @return metric node list
+     * @since 1.8.7
+     */
+    public static List<ClusterMetricNode> generateParamNodeList(String namespace, int topCount) {
+        List<ClusterMetricNode> list = new ArrayList<>();
+        for (Long id : ClusterParamFlowRuleManager.getFlowIdSet(namespace)) {
+            ClusterMetricNode node = paramToMetricNode(id, topCount);
+            if (node != null) {
+                list.add(node);
+            }
+        }
+        return list;
+    }
+
     private static void putToMap(Map<String, List<ClusterMetricNode>> map, ClusterMetricNode node) {
         List<ClusterMetricNode> nodeList = map.get(node.getResourceName());
         if (nodeList == null) {
@@ -86,6 +107,18 @@ public class ClusterMetricNodeGenerator {
     }
 
     public static ClusterMetricNode paramToMetricNode(long flowId) {
+        return paramToMetricNode(flowId, DEFAULT_TOP_PARAM_COUNT);
+    }
+
+    /**
+     * Generate current metric node of the cluster parameter flow rule with top N hot parameter values.
+     *
+     * @param flowId      flow ID of the cluster parameter flow rule
+     * @param topCount    max count of top parameter values
+     * @return current metric node, or null if the rule does not exist
+     * @since 1.8.7
+     */
+    public static ClusterMetricNode paramToMetricNode(long flowId, int topCount) {
         ParamFlowRule rule = ClusterParamFlowRuleManager.getParamRuleById(flowId);
         if (rule == null) {
             return null;
@@ -101,6 +134,6 @@ public class ClusterMetricNodeGenerator {
             .setFlowId(flowId)
             .setResourceName(rule.getResource())
             .setTimestamp(TimeUtil.currentTimeMillis())
-            .setTopParams(metric.getTopValues(5));
+            .setTopParams(metric.getTopValues(topCount));
     }
 }
@@ -20,6 +20,7 @@ import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 import com.alibaba.csp.sentinel.cluster.flow.statistic.metric.ClusterParamMetric;
+import com.alibaba.csp.sentinel.cluster.flow.statistic.metric.ClusterParamSketchMetric;
 import com.alibaba.csp.sentinel.cluster.server.config.ClusterServerConfigManager;
 import com.alibaba.csp.sentinel.util.AssertUtil;
 
@@ -60,10 +61,25 @@ public final class ClusterParamMetricStatistics {
     public static void resetFlowMetrics() {
         Set<Long> keySet = METRIC_MAP.keySet();
         for (Long id : keySet) {
-            METRIC_MAP.put(id, new ClusterParamMetric(ClusterServerConfigManager.getSampleCount(),
+            METRIC_MAP.put(id, newMetric(ClusterServerConfigManager.getSampleCount(),
                 ClusterServerConfigManager.getIntervalMs()));
         }
     }
 
+    /**
+     * Create a new parameter metric with the statistic type of current server flow config.
+     *
+     * @param sampleCount  sample count of the sliding window
+     * @param intervalInMs interval of the sliding window
+     * @return new parameter metric
+     * @since 1.8.7
+     */
+    public static ClusterParamMetric newMetric(int sampleCount, int intervalInMs) {
+        if (ClusterServerConfigManager.isParamSketchEnabled()) {
+            return new ClusterParamSketchMetric(sampleCount, intervalInMs);
+        }
+        return new ClusterParamMetric(sampleCount, intervalInMs);
+    }
+
     private ClusterParamMetricStatistics() {}
 }
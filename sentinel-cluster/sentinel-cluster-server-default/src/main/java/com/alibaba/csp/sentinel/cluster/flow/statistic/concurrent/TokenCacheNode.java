@@ -52,6 +52,10 @@ public class TokenCacheNode {
      * the address of the client holds the token.
      */
     private String clientAddress;
+    /**
+     * the time when the token is created
+     */
+    private final long createTime = System.currentTimeMillis();
 
     public TokenCacheNode() {
     }
@@ -93,6 +97,10 @@ public class TokenCacheNode {
         this.resourceTimeout = resourceTimeout + System.currentTimeMillis();
     }
 
+    public long getCreateTime() {
+        return createTime;
+    }
+
     public Long getFlowId() {
         return flowId;
     }
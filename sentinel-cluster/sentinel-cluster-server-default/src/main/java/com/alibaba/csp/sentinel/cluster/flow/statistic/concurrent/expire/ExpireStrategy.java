@@ -15,6 +15,8 @@
  */
 package com.alibaba.csp.sentinel.cluster.flow.statistic.concurrent.expire;
 
+import com.alibaba.csp.sentinel.cluster.flow.statistic.concurrent.TokenCacheNode;
+
 /**
  * @author yunfeiyagnggzq
  */
@@ -23,4 +25,12 @@ public interface ExpireStrategy {
      * clean expired token regularly.
      */
     void startClearTaskRegularly();
+
+    /**
+     * Notify that a new token has been put into the token cache.
+     *
+     * @param node the new token
+     */
+    default void onTokenAdded(TokenCacheNode node) {
+    }
 }
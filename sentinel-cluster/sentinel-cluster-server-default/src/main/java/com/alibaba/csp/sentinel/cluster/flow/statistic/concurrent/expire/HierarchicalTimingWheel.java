@@ -0,0 +1,208 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.flow.statistic.concurrent.expire;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import com.alibaba.csp.sentinel.util.AssertUtil;
+
+/**
+ * <p>A hierarchical timing wheel (Varghese &amp; Lauck). Each level has {@code 2^bitsPerLevel} slots,
+ * and one slot of level {@code n} covers a whole rotation of level {@code n - 1}. Items in a higher
+ * level are cascaded down when the lower level wraps around, so each item is touched only
+ * {@code O(levels)} times during its lifetime, no matter how many items are in the wheel.</p>
+ *
+ * <p>{@link #schedule(Object, long)} is lock-free and may be called from any thread: items are
+ * handed over through a concurrent queue. All the slot structures are owned by the thread
+ * that calls {@link #advance(long)}, which must be a single thread (e.g. a scheduled executor).</p>
+ *
+ * <p>There is no explicit cancellation. The {@link ExpireHandler} is expected to ignore items that
+ * are no longer alive when their deadline fires.</p>
+ *
+ * @param <T> type of the scheduled item
+ * @since 1.8.7
+ */
+public class HierarchicalTimingWheel<T> {
+
+    private final long tickMs;
+    private final int bitsPerLevel;
+    private final int levelCount;
+    private final int slotMask;
+    private final long maxSpanTicks;
+
+    private final Slot<T>[][] slots;
+    private final ConcurrentLinkedQueue<Slot<T>> pendingQueue = new ConcurrentLinkedQueue<>();
+    private final ExpireHandler<T> handler;
+
+    /**
+     * Absolute tick (i.e. {@code timeMillis / tickMs}) that has already been processed.
+     */
+    private long currentTick = -1;
+
+    @SuppressWarnings("unchecked")
+    public HierarchicalTimingWheel(long tickMs, int bitsPerLevel, int levelCount, ExpireHandler<T> handler) {
+        AssertUtil.isTrue(tickMs > 0, "tickMs must be positive");
+        AssertUtil.isTrue(bitsPerLevel > 0 && bitsPerLevel <= 16, "bitsPerLevel should be in [1, 16]");
+        AssertUtil.isTrue(levelCount > 0 && bitsPerLevel * levelCount < 62, "invalid levelCount");
+        AssertUtil.notNull(handler, "handler cannot be null");
+        this.tickMs = tickMs;
+        this.bitsPerLevel = bitsPerLevel;
+        this.levelCount = levelCount;
+        this.slotMask = (1 << bitsPerLevel) - 1;
+        this.maxSpanTicks = 1L << (bitsPerLevel * levelCount);
+        this.handler = handler;
+        this.slots = new Slot[levelCount][1 << bitsPerLevel];
+    }
+
+    /**
+     * Schedule the item to expire at the given deadline. Thread-safe.
+     *
+     * @param item     the item
+     * @param deadline absolute expire time in milliseconds
+     */
+    public void schedule(T item, long deadline) {
+        if (item == null) {
+            return;
+        }
+        pendingQueue.offer(new Slot<>(item, deadline));
+    }
+
+    /**
+     * Advance the wheel to the given time, firing all items whose deadline has been reached.
+     * Must be called from a single thread.
+     *
+     * @param now current time in milliseconds
+     */
+    public void advance(long now) {
+        long targetTick = now / tickMs;
+        if (currentTick < 0) {
+            currentTick = targetTick;
+        }
+        drainPending(now);
+        while (currentTick < targetTick) {
+            currentTick++;
+            cascade(now);
+            Slot<T> head = detach(0, (int)(currentTick & slotMask));
+            reschedule(head, now);
+        }
+    }
+
+    private void drainPending(long now) {
+        Slot<T> slot;
+        while ((slot = pendingQueue.poll()) != null) {
+            place(slot, now);
+        }
+    }
+
+    private void cascade(long now) {
+        // Find the highest level that wraps around at this tick, then cascade top-down,
+        // so that items moved down will never land in a slot that has been cascaded already.
+        int top = 0;
+        for (int level = 1; level < levelCount; level++) {
+            long lowerMask = (1L << (bitsPerLevel * level)) - 1;
+            if ((currentTick & lowerMask) != 0) {
+                break;
+            }
+            top = level;
+        }
+        for (int level = top; level >= 1; level--) {
+            int index = (int)((currentTick >> (bitsPerLevel * level)) & slotMask);
+            reschedule(detach(level, index), now);
+        }
+    }
+
+    private void reschedule(Slot<T> head, long now) {
+        while (head != null) {
+            Slot<T> next = head.next;
+            head.next = null;
+            place(head, now);
+            head = next;
+        }
+    }
+
+    private void place(Slot<T> slot, long now) {
+        long deadlineTick = slot.deadline / tickMs;
+        long delta = deadlineTick - currentTick;
+        if (delta <= 0) {
+            fire(slot, now);
+            return;
+        }
+        if (delta >= maxSpanTicks) {
+            // Park in the farthest slot of the top level, it will be re-placed when cascaded.
+            deadlineTick = currentTick + maxSpanTicks - 1;
+            delta = maxSpanTicks - 1;
+        }
+        int level = 0;
+        while (level < levelCount - 1 && delta >= (1L << (bitsPerLevel * (level + 1)))) {
+            level++;
+        }
+        int index = (int)((deadlineTick >> (bitsPerLevel * level)) & slotMask);
+        slot.next = slots[level][index];
+        slots[level][index] = slot;
+    }
+
+    private void fire(Slot<T> slot, long now) {
+        long nextDeadline;
+        try {
+            nextDeadline = handler.onExpire(slot.item, now);
+        } catch (Throwable ex) {
+            nextDeadline = -1;
+        }
+        if (nextDeadline > 0) {
+            // Reuse the slot so that the rescheduled item won't allocate again.
+            slot.deadline = Math.max(nextDeadline, (currentTick + 1) * tickMs);
+            place(slot, now);
+        }
+    }
+
+    private Slot<T> detach(int level, int index) {
+        Slot<T> head = slots[level][index];
+        slots[level][index] = null;
+        return head;
+    }
+
+    public long getTickMs() {
+        return tickMs;
+    }
+
+    private static final class Slot<T> {
+        private final T item;
+        private long deadline;
+        private Slot<T> next;
+
+        Slot(T item, long deadline) {
+            this.item = item;
+            this.deadline = deadline;
+        }
+    }
+
+    /**
+     * Callback when an item reaches its deadline.
+     *
+     * @param <T> type of the item
+     */
+    public interface ExpireHandler<T> {
+
+        /**
+         * Handle the expired item.
+         *
+         * @param item the expired item
+         * @param now  current time in milliseconds
+         * @return the next absolute deadline if the item should stay in the wheel, or a non-positive value to drop it
+         */
+        long onExpire(T item, long now);
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.flow.statistic.concurrent.expire;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.alibaba.csp.sentinel.cluster.flow.statistic.concurrent.CurrentConcurrencyManager;
+import com.alibaba.csp.sentinel.cluster.flow.statistic.concurrent.TokenCacheNode;
+import com.alibaba.csp.sentinel.cluster.server.connection.ConnectionManager;
+import com.alibaba.csp.sentinel.concurrent.NamedThreadFactory;
+import com.alibaba.csp.sentinel.log.RecordLog;
+import com.alibaba.csp.sentinel.util.AssertUtil;
+import com.googlecode.concurrentlinkedhashmap.ConcurrentLinkedHashMap;
+
+/**
+ * <p>Expire strategy based on a {@link HierarchicalTimingWheel}. Each token is scheduled when it's created,
+ * instead of scanning the whole token cache periodically.</p>
+ *
+ * <p>We need to consider the situation that the token client goes offline or the resource call times out.
+ * Once the client offline detection time is reached, the status of the token client is checked every
+ * second, and the token will be removed as soon as the client is found offline. If the token has been held
+ * for more than 2 times of the resource timeout, the token will be removed anyway. Tokens released normally
+ * are simply ignored when their deadline fires.</p>
+ *
+ * @since 1.8.7
+ */
+public class TimingWheelExpireStrategy implements ExpireStrategy {
+
+    private static final long DEFAULT_TICK_MS = 100;
+    private static final int DEFAULT_BITS_PER_LEVEL = 6;
+    private static final int DEFAULT_LEVEL_COUNT = 4;
+    /**
+     * Interval of checking whether the token client is offline, after the client offline detection time.
+     */
+    private static final long OFFLINE_CHECK_INTERVAL_MS = 1000;
+
+    @SuppressWarnings("PMD.ThreadPoolCreationRule")
+    private static final ScheduledExecutorService executor = Executors.newScheduledThreadPool(1,
+        new NamedThreadFactory("sentinel-cluster-token-expire-wheel", true));
+
+    private final ConcurrentLinkedHashMap<Long, TokenCacheNode> localCache;
+    private final HierarchicalTimingWheel<TokenCacheNode> wheel;
+    private final AtomicBoolean started = new AtomicBoolean(false);
+
+    public TimingWheelExpireStrategy(ConcurrentLinkedHashMap<Long, TokenCacheNode> localCache) {
+        AssertUtil.isTrue(localCache != null, " local cache can't be null");
+        this.localCache = localCache;
+        this.wheel = new HierarchicalTimingWheel<>(DEFAULT_TICK_MS, DEFAULT_BITS_PER_LEVEL, DEFAULT_LEVEL_COUNT,
+            new HierarchicalTimingWheel.ExpireHandler<TokenCacheNode>() {
+                @Override
+                public long onExpire(TokenCacheNode node, long now) {
+                    return handleExpire(node, now);
+                }
+            });
+    }
+
+    @Override
+    public void startClearTaskRegularly() {
+        if (!started.compareAndSet(false, true)) {
+            return;
+        }
+        executor.scheduleAtFixedRate(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    wheel.advance(System.currentTimeMillis());
+                } catch (Throwable e) {
+                    RecordLog.warn("[TimingWheelExpireStrategy] undefined throwable during clear token: ", e);
+                }
+            }
+        }, DEFAULT_TICK_MS, DEFAULT_TICK_MS, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void onTokenAdded(TokenCacheNode node) {
+        wheel.schedule(node, firstDeadline(node));
+    }
+
+    private long firstDeadline(TokenCacheNode node) {
+        return Math.min(node.getClientTimeout(), resourceDeadline(node));
+    }
+
+    private long resourceDeadline(TokenCacheNode node) {
+        // The stored resource timeout is (createTime + resourceTimeout), so the token is
+        // determined to timeout when it has been held for 2 times of the resource timeout.
+        long resourceTimeout = node.getResourceTimeout() - node.getCreateTime();
+        return node.getResourceTimeout() + resourceTimeout;
+    }
+
+    private long handleExpire(TokenCacheNode node, long now) {
+        Long tokenId = node.getTokenId();
+        if (localCache.getQuietly(tokenId) != node) {
+            // Already released.
+            return -1;
+        }
+        if (now >= resourceDeadline(node)) {
+            removeToken(tokenId, node);
+            RecordLog.info("[TimingWheelExpireStrategy] Delete the expired token<{}> because of resource timeout for ruleId<{}>",
+                tokenId, node.getFlowId());
+            return -1;
+        }
+        if (!ConnectionManager.isClientOnline(node.getClientAddress())) {
+            removeToken(tokenId, node);
+            RecordLog.info("[TimingWheelExpireStrategy] Delete the expired token<{}> because of client offline for ruleId<{}>",
+                tokenId, node.getFlowId());
+            return -1;
+        }
+        // The client is still online, so check it again later, as it may go offline before the resource timeout.
+        return Math.min(now + OFFLINE_CHECK_INTERVAL_MS, resourceDeadline(node));
+    }
+
+    private void removeToken(long tokenId, TokenCacheNode node) {
+        if (!localCache.remove(tokenId, node)) {
+            return;
+        }
+        AtomicInteger nowCalls = CurrentConcurrencyManager.get(node.getFlowId());
+        if (nowCalls == null) {
+            return;
+        }
+        nowCalls.getAndAdd(node.getAcquireCount() * -1);
+    }
+}
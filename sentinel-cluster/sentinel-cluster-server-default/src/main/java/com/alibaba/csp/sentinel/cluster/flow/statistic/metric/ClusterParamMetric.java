@@ -49,6 +49,14 @@ public class ClusterParamMetric {
         this.metric = new ClusterParameterLeapArray<>(sampleCount, intervalInMs, maxCapacity);
     }
 
+    /**
+     * Constructor for subclasses that keep their own statistic structure
+     * and override all the statistic methods.
+     */
+    protected ClusterParamMetric() {
+        this.metric = null;
+    }
+
     public long getSum(Object value) {
         if (value == null) {
             return 0;
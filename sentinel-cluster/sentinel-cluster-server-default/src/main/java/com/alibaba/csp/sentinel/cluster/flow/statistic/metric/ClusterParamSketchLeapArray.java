@@ -0,0 +1,52 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.flow.statistic.metric;
+
+import com.alibaba.csp.sentinel.slots.statistic.base.LeapArray;
+import com.alibaba.csp.sentinel.slots.statistic.base.WindowWrap;
+import com.alibaba.csp.sentinel.util.AssertUtil;
+
+/**
+ * Sliding window of {@link CountMinSketch}. The sketch of a deprecated bucket is cleared and reused,
+ * so the memory footprint is fixed no matter how many distinct values are recorded.
+ *
+ * @since 1.8.7
+ */
+public class ClusterParamSketchLeapArray extends LeapArray<CountMinSketch> {
+
+    private final int depth;
+    private final int width;
+
+    public ClusterParamSketchLeapArray(int sampleCount, int intervalInMs, int depth, int width) {
+        super(sampleCount, intervalInMs);
+        AssertUtil.isTrue(depth > 0, "depth of sketch should be positive");
+        AssertUtil.isTrue(width > 0, "width of sketch should be positive");
+        this.depth = depth;
+        this.width = width;
+    }
+
+    @Override
+    public CountMinSketch newEmptyBucket(long timeMillis) {
+        return new CountMinSketch(depth, width);
+    }
+
+    @Override
+    protected WindowWrap<CountMinSketch> resetWindowTo(WindowWrap<CountMinSketch> w, long startTime) {
+        w.resetTo(startTime);
+        w.value().reset();
+        return w;
+    }
+}
@@ -0,0 +1,232 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.flow.statistic.metric;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.alibaba.csp.sentinel.slots.statistic.base.UnaryLeapArray;
+import com.alibaba.csp.sentinel.util.AssertUtil;
+import com.alibaba.csp.sentinel.util.TimeUtil;
+
+/**
+ * <p>Cluster parameter metric backed by a rolling {@link CountMinSketch} plus a bounded set of exact
+ * counters for the heavy hitters (top-K values). Unlike {@link ClusterParamMetric}, the memory footprint
+ * of each flow ID is fixed no matter how many distinct parameter values are recorded.</p>
+ *
+ * <p>All values are recorded in the sketch. A value is promoted to an exact counter when there is a free
+ * slot, or its estimated count exceeds the smallest heavy hitter (which will be evicted). The exact counter
+ * is seeded with the sketch estimate when promoted, so both counts never underestimate the real count,
+ * and the smaller one is used.</p>
+ *
+ * <p>Note that the sketch requires non-negative counts.</p>
+ *
+ * @since 1.8.7
+ */
+public class ClusterParamSketchMetric extends ClusterParamMetric {
+
+    public static final int DEFAULT_SKETCH_DEPTH = 4;
+    public static final int DEFAULT_SKETCH_WIDTH = 1024;
+    public static final int DEFAULT_TOP_K = 32;
+
+    private final int sampleCount;
+    private final int intervalInMs;
+    private final int topK;
+    private final long floorRefreshIntervalMs;
+
+    private final ClusterParamSketchLeapArray sketch;
+    private final Map<Object, UnaryLeapArray> heavyHitters;
+
+    /**
+     * Smallest count among the heavy hitters when there is no free slot, which is the count a value
+     * must exceed to be promoted. It's refreshed at most once per bucket.
+     */
+    private volatile long promoteFloor = 0;
+    private volatile long floorRefreshTime = 0;
+
+    public ClusterParamSketchMetric(int sampleCount, int intervalInMs) {
+        this(sampleCount, intervalInMs, DEFAULT_SKETCH_DEPTH, DEFAULT_SKETCH_WIDTH, DEFAULT_TOP_K);
+    }
+
+    public ClusterParamSketchMetric(int sampleCount, int intervalInMs, int depth, int width, int topK) {
+        AssertUtil.isTrue(sampleCount > 0, "sampleCount should be positive");
+        AssertUtil.isTrue(intervalInMs > 0, "interval should be positive");
+        AssertUtil.isTrue(intervalInMs % sampleCount == 0, "time span needs to be evenly divided");
+        AssertUtil.isTrue(topK > 0, "topK should be positive");
+        this.sampleCount = sampleCount;
+        this.intervalInMs = intervalInMs;
+        this.topK = topK;
+        this.floorRefreshIntervalMs = intervalInMs / sampleCount;
+        this.sketch = new ClusterParamSketchLeapArray(sampleCount, intervalInMs, depth, width);
+        this.heavyHitters = new ConcurrentHashMap<>(topK * 2);
+    }
+
+    @Override
+    public long getSum(Object value) {
+        if (value == null) {
+            return 0;
+        }
+        long estimate = estimate(CountMinSketch.hash(value));
+        UnaryLeapArray counter = heavyHitters.get(value);
+        if (counter == null) {
+            return estimate;
+        }
+        return Math.min(estimate, sumOf(counter));
+    }
+
+    @Override
+    public void addValue(Object value, int count) {
+        if (value == null) {
+            return;
+        }
+        int hash = CountMinSketch.hash(value);
+        sketch.currentWindow().value().add(hash, count);
+
+        UnaryLeapArray counter = heavyHitters.get(value);
+        if (counter != null) {
+            counter.currentWindow().value().add(count);
+            return;
+        }
+        long estimate = estimate(hash);
+        if (heavyHitters.size() < topK || estimate > getPromoteFloor()) {
+            tryPromote(value, estimate);
+        }
+    }
+
+    @Override
+    public double getAvg(Object value) {
+        return getSum(value) / sketch.getIntervalInSecond();
+    }
+
+    @Override
+    public Map<Object, Double> getTopValues(int number) {
+        AssertUtil.isTrue(number > 0, "number must be positive");
+        List<Map.Entry<Object, Long>> list = new ArrayList<>(heavyHitters.size());
+        for (Map.Entry<Object, UnaryLeapArray> e : heavyHitters.entrySet()) {
+            Object value = e.getKey();
+            long sum = Math.min(estimate(CountMinSketch.hash(value)), sumOf(e.getValue()));
+            list.add(new AbstractMap.SimpleEntry<>(value, sum));
+        }
+        Collections.sort(list, new Comparator<Map.Entry<Object, Long>>() {
+            @Override
+            public int compare(Map.Entry<Object, Long> a, Map.Entry<Object, Long> b) {
+                return Long.compare(b.getValue(), a.getValue());
+            }
+        });
+
+        Map<Object, Double> result = new HashMap<>();
+        int size = Math.min(number, list.size());
+        for (int i = 0; i < size; i++) {
+            Map.Entry<Object, Long> x = list.get(i);
+            if (x.getValue() == 0) {
+                break;
+            }
+            result.put(x.getKey(), ((double)x.getValue()) / sketch.getIntervalInSecond());
+        }
+        return result;
+    }
+
+    public int getTopK() {
+        return topK;
+    }
+
+    public int getHeavyHitterCount() {
+        return heavyHitters.size();
+    }
+
+    private synchronized void tryPromote(Object value, long estimate) {
+        if (heavyHitters.containsKey(value)) {
+            return;
+        }
+        if (heavyHitters.size() >= topK) {
+            Object victim = null;
+            long min = Long.MAX_VALUE;
+            for (Map.Entry<Object, UnaryLeapArray> e : heavyHitters.entrySet()) {
+                long sum = sumOf(e.getValue());
+                if (sum < min) {
+                    min = sum;
+                    victim = e.getKey();
+                }
+            }
+            if (estimate <= min) {
+                updateFloor(min);
+                return;
+            }
+            heavyHitters.remove(victim);
+        }
+        UnaryLeapArray counter = new UnaryLeapArray(sampleCount, intervalInMs);
+        counter.currentWindow().value().add(estimate);
+        heavyHitters.put(value, counter);
+        // Force a refresh next time as the set of heavy hitters has changed.
+        floorRefreshTime = 0;
+    }
+
+    private long getPromoteFloor() {
+        long now = TimeUtil.currentTimeMillis();
+        if (now - floorRefreshTime < floorRefreshIntervalMs) {
+            return promoteFloor;
+        }
+        long min = Long.MAX_VALUE;
+        for (UnaryLeapArray counter : heavyHitters.values()) {
+            min = Math.min(min, sumOf(counter));
+        }
+        updateFloor(min == Long.MAX_VALUE ? 0 : min);
+        return promoteFloor;
+    }
+
+    private void updateFloor(long floor) {
+        this.promoteFloor = floor;
+        this.floorRefreshTime = TimeUtil.currentTimeMillis();
+    }
+
+    /**
+     * Estimate of the whole sliding window: for each row, sum up the counters of all buckets,
+     * then pick the minimum among rows.
+     */
+    private long estimate(int hash) {
+        sketch.currentWindow();
+        List<CountMinSketch> buckets = sketch.values();
+        if (buckets.isEmpty()) {
+            return 0;
+        }
+        int depth = buckets.get(0).getDepth();
+        long min = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            long sum = 0;
+            for (CountMinSketch bucket : buckets) {
+                sum += bucket.get(row, hash);
+            }
+            min = Math.min(min, sum);
+        }
+        return min;
+    }
+
+    private long sumOf(UnaryLeapArray counter) {
+        counter.currentWindow();
+        long sum = 0;
+        for (LongAdder adder : counter.values()) {
+            sum += adder.sum();
+        }
+        return sum;
+    }
+}
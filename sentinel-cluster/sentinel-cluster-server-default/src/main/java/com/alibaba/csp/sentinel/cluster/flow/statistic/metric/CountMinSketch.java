@@ -0,0 +1,95 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.flow.statistic.metric;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import com.alibaba.csp.sentinel.util.AssertUtil;
+
+/**
+ * <p>A count-min sketch with fixed {@code depth * width} counters. The estimated count of a value
+ * never underestimates the real count (for non-negative increments), and overestimates it by at most
+ * {@code e / width} of the total count with probability of {@code 1 - e^(-depth)}.</p>
+ *
+ * <p>Row indexes are derived from a single hash of the value (Kirsch-Mitzenmacher), so callers can
+ * compute {@link #hash(Object)} once and reuse it across rows and buckets.</p>
+ *
+ * @since 1.8.7
+ */
+public class CountMinSketch {
+
+    private final int depth;
+    private final int width;
+    private final int mask;
+    private final AtomicIntegerArray counters;
+
+    public CountMinSketch(int depth, int width) {
+        AssertUtil.isTrue(depth > 0, "depth should be positive");
+        AssertUtil.isTrue(width > 0 && (width & (width - 1)) == 0, "width should be a power of 2");
+        this.depth = depth;
+        this.width = width;
+        this.mask = width - 1;
+        this.counters = new AtomicIntegerArray(depth * width);
+    }
+
+    public static int hash(Object value) {
+        // Murmur3 finalizer, spreading the (often poor) hash code of parameter values.
+        int h = value.hashCode();
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    public void add(int hash, int count) {
+        for (int row = 0; row < depth; row++) {
+            counters.addAndGet(offset(row, hash), count);
+        }
+    }
+
+    public int get(int row, int hash) {
+        return counters.get(offset(row, hash));
+    }
+
+    public long estimate(int hash) {
+        long min = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            min = Math.min(min, get(row, hash));
+        }
+        return min;
+    }
+
+    public void reset() {
+        for (int i = 0; i < counters.length(); i++) {
+            counters.set(i, 0);
+        }
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    private int offset(int row, int hash) {
+        int h2 = Integer.rotateLeft(hash * 0x9e3779b9, 16) | 1;
+        return row * width + ((hash + row * h2) & mask);
+    }
+}
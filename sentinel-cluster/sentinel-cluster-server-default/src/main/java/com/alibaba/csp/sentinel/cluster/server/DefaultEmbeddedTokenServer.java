@@ -61,10 +61,16 @@ public class DefaultEmbeddedTokenServer implements EmbeddedClusterTokenServer {
 
     @Override
     public TokenResult requestConcurrentToken(String clientAddress, Long ruleId, int acquireCount) {
-        return null;
+        if (tokenService != null) {
+            return tokenService.requestConcurrentToken(clientAddress, ruleId, acquireCount);
+        }
+        return new TokenResult(TokenResultStatus.FAIL);
     }
 
     @Override
     public void releaseConcurrentToken(Long tokenId) {
+        if (tokenService != null) {
+            tokenService.releaseConcurrentToken(tokenId);
+        }
     }
 }
@@ -0,0 +1,282 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.server.admission;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import com.alibaba.csp.sentinel.cluster.server.ServerConstants;
+import com.alibaba.csp.sentinel.cluster.server.admission.NamespaceRequestQueue.PendingTask;
+import com.alibaba.csp.sentinel.cluster.server.config.ClusterServerConfigManager;
+import com.alibaba.csp.sentinel.cluster.server.connection.ConnectionManager;
+import com.alibaba.csp.sentinel.concurrent.NamedThreadFactory;
+import com.alibaba.csp.sentinel.log.RecordLog;
+
+/**
+ * <p>Weighted-fair admission of token requests in the token server.</p>
+ *
+ * <p>Requests are put into the pending queue of their namespace by the I/O threads, and a dispatcher
+ * thread picks them from the namespaces in deficit round-robin (DRR) order. Each round a namespace gets
+ * a quantum proportional to its connected client count, so a noisy namespace can only occupy its own share
+ * when the server is busy, and idle namespaces don't accumulate credit. The dispatcher only picks the next
+ * request when a worker is free, and the requests are processed by a fixed pool of worker threads.</p>
+ *
+ * <p>The fair admission is disabled by default, and can be enabled by a positive
+ * {@link com.alibaba.csp.sentinel.cluster.server.config.ServerFlowConfig#setMaxQueueSize(int) maxQueueSize}.</p>
+ *
+ * <p>A request is rejected immediately when the queue of its namespace is full, or the count of
+ * in-flight requests of its connection exceeds the limit. The rejected clients will be told
+ * {@code TOO_MANY_REQUEST} and fall back to local flow control (if configured).</p>
+ *
+ * @since 1.8.7
+ */
+public final class FairAdmissionScheduler {
+
+    /**
+     * Requests served for each connected client in one DRR round.
+     */
+    private static final int BASE_QUANTUM = 8;
+    private static final int WORKER_COUNT = Math.max(2, Runtime.getRuntime().availableProcessors());
+
+    private static final Map<String, NamespaceRequestQueue> QUEUE_MAP = new ConcurrentHashMap<>();
+    private static final Map<String, AtomicInteger> IN_FLIGHT_MAP = new ConcurrentHashMap<>();
+    private static final ConcurrentLinkedQueue<NamespaceRequestQueue> ACTIVE_QUEUES = new ConcurrentLinkedQueue<>();
+
+    @SuppressWarnings("PMD.ThreadPoolCreationRule")
+    private static final ExecutorService WORKERS = Executors.newFixedThreadPool(WORKER_COUNT,
+        new NamedThreadFactory("sentinel-cluster-server-admission-worker", true));
+    private static final Semaphore FREE_WORKERS = new Semaphore(WORKER_COUNT);
+
+    private static volatile Thread dispatcher;
+    private static volatile boolean dispatcherWaiting = false;
+    /**
+     * The namespace queue being served in current round. Only accessed by the dispatcher thread.
+     */
+    private static NamespaceRequestQueue currentQueue;
+
+    /**
+     * @return whether the fair admission is enabled (max queue size is positive)
+     */
+    public static boolean isEnabled() {
+        return ClusterServerConfigManager.getMaxQueueSize() > 0;
+    }
+
+    /**
+     * Submit a request task for the namespace.
+     *
+     * @param namespace namespace of the client, or null if the client has not registered yet
+     * @param address   address of the client connection
+     * @param task      the task that processes the request and writes the response
+     * @return true if the task is admitted, otherwise false (the request should be rejected)
+     */
+    public static boolean submit(String namespace, String address, Runnable task) {
+        if (namespace == null) {
+            namespace = ServerConstants.DEFAULT_NAMESPACE;
+        }
+        NamespaceRequestQueue queue = getOrCreateQueue(namespace);
+
+        AtomicInteger inFlight = null;
+        if (address != null) {
+            inFlight = getOrCreateInFlight(address);
+            if (inFlight.incrementAndGet() > ClusterServerConfigManager.getMaxInFlightPerConnection()) {
+                inFlight.decrementAndGet();
+                queue.recordInFlightRejected();
+                return false;
+            }
+        }
+        if (!queue.offer(new PendingTask(task, inFlight), ClusterServerConfigManager.getMaxQueueSize(namespace))) {
+            if (inFlight != null) {
+                inFlight.decrementAndGet();
+            }
+            return false;
+        }
+        if (queue.markActive()) {
+            ACTIVE_QUEUES.offer(queue);
+        }
+        wakeUpDispatcher();
+        return true;
+    }
+
+    /**
+     * Clear the in-flight counter of a closed connection.
+     *
+     * @param address address of the client connection
+     */
+    public static void removeConnection(String address) {
+        if (address != null) {
+            IN_FLIGHT_MAP.remove(address);
+        }
+    }
+
+    public static NamespaceRequestQueue getQueue(String namespace) {
+        if (namespace == null) {
+            return null;
+        }
+        return QUEUE_MAP.get(namespace);
+    }
+
+    public static Collection<NamespaceRequestQueue> getQueues() {
+        return Collections.unmodifiableCollection(QUEUE_MAP.values());
+    }
+
+    private static NamespaceRequestQueue getOrCreateQueue(String namespace) {
+        NamespaceRequestQueue queue = QUEUE_MAP.get(namespace);
+        if (queue == null) {
+            queue = new NamespaceRequestQueue(namespace);
+            NamespaceRequestQueue old = QUEUE_MAP.putIfAbsent(namespace, queue);
+            if (old != null) {
+                queue = old;
+            }
+        }
+        return queue;
+    }
+
+    private static AtomicInteger getOrCreateInFlight(String address) {
+        AtomicInteger inFlight = IN_FLIGHT_MAP.get(address);
+        if (inFlight == null) {
+            inFlight = new AtomicInteger(0);
+            AtomicInteger old = IN_FLIGHT_MAP.putIfAbsent(address, inFlight);
+            if (old != null) {
+                inFlight = old;
+            }
+        }
+        return inFlight;
+    }
+
+    private static void wakeUpDispatcher() {
+        Thread t = dispatcher;
+        if (t == null) {
+            t = startDispatcherIfAbsent();
+        }
+        if (dispatcherWaiting) {
+            LockSupport.unpark(t);
+        }
+    }
+
+    private static synchronized Thread startDispatcherIfAbsent() {
+        if (dispatcher == null) {
+            Thread t = new NamedThreadFactory("sentinel-cluster-server-admission-dispatcher", true)
+                .newThread(new Runnable() {
+                    @Override
+                    public void run() {
+                        dispatchLoop();
+                    }
+                });
+            t.start();
+            dispatcher = t;
+        }
+        return dispatcher;
+    }
+
+    private static void dispatchLoop() {
+        while (true) {
+            FREE_WORKERS.acquireUninterruptibly();
+            final PendingTask task = nextTask();
+            try {
+                WORKERS.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            runTask(task);
+                        } finally {
+                            FREE_WORKERS.release();
+                        }
+                    }
+                });
+            } catch (Throwable ex) {
+                FREE_WORKERS.release();
+                RecordLog.warn("[FairAdmissionScheduler] Failed to dispatch request", ex);
+            }
+        }
+    }
+
+    /**
+     * Pick the next task in DRR order, or wait until a task is submitted.
+     */
+    private static PendingTask nextTask() {
+        while (true) {
+            if (currentQueue == null) {
+                currentQueue = ACTIVE_QUEUES.poll();
+                if (currentQueue == null) {
+                    awaitSubmission();
+                    continue;
+                }
+                currentQueue.addDeficit(quantumOf(currentQueue.getNamespace()));
+            }
+            if (currentQueue.hasDeficit()) {
+                PendingTask task = currentQueue.poll();
+                if (task != null) {
+                    currentQueue.consumeDeficit();
+                    return task;
+                }
+            }
+            endRound(currentQueue);
+            currentQueue = null;
+        }
+    }
+
+    private static void awaitSubmission() {
+        dispatcherWaiting = true;
+        // Submitters offer to the active queues before checking the waiting flag,
+        // so either the submission is seen here or the dispatcher will be unparked.
+        if (ACTIVE_QUEUES.isEmpty()) {
+            LockSupport.park();
+        }
+        dispatcherWaiting = false;
+    }
+
+    private static void endRound(NamespaceRequestQueue queue) {
+        if (queue.getSize() > 0) {
+            // Quantum used up, go to the tail of the round.
+            ACTIVE_QUEUES.offer(queue);
+            return;
+        }
+        // An idle namespace should not accumulate credit.
+        queue.resetDeficit();
+        queue.markInactive();
+        if (queue.getSize() > 0 && queue.markActive()) {
+            ACTIVE_QUEUES.offer(queue);
+        }
+    }
+
+    private static long quantumOf(String namespace) {
+        int connected = ConnectionManager.getConnectedCount(namespace);
+        return (long) BASE_QUANTUM * Math.max(1, connected);
+    }
+
+    private static void runTask(PendingTask task) {
+        try {
+            task.getTask().run();
+        } catch (Throwable ex) {
+            RecordLog.warn("[FairAdmissionScheduler] Unexpected error when processing request", ex);
+        } finally {
+            AtomicInteger inFlight = task.getInFlight();
+            if (inFlight != null) {
+                inFlight.decrementAndGet();
+            }
+        }
+    }
+
+    private FairAdmissionScheduler() {}
+}
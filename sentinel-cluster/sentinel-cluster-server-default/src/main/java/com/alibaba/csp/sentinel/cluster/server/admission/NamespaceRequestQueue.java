@@ -0,0 +1,152 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.server.admission;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Pending request queue of a namespace in the {@link FairAdmissionScheduler}.
+ * The deficit counter is only accessed by the dispatcher thread.
+ *
+ * @since 1.8.7
+ */
+public class NamespaceRequestQueue {
+
+    private final String namespace;
+
+    private final ConcurrentLinkedQueue<PendingTask> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger(0);
+    private final AtomicBoolean active = new AtomicBoolean(false);
+
+    private long deficit;
+
+    private final LongAdder admittedCount = new LongAdder();
+    private final LongAdder dispatchedCount = new LongAdder();
+    private final LongAdder queueFullRejectedCount = new LongAdder();
+    private final LongAdder inFlightRejectedCount = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+
+    NamespaceRequestQueue(String namespace) {
+        this.namespace = namespace;
+    }
+
+    boolean offer(PendingTask task, int maxQueueSize) {
+        if (size.incrementAndGet() > maxQueueSize) {
+            size.decrementAndGet();
+            queueFullRejectedCount.increment();
+            return false;
+        }
+        queue.offer(task);
+        admittedCount.increment();
+        return true;
+    }
+
+    PendingTask poll() {
+        PendingTask task = queue.poll();
+        if (task != null) {
+            size.decrementAndGet();
+            dispatchedCount.increment();
+            totalWaitNanos.add(System.nanoTime() - task.getEnqueueNanos());
+        }
+        return task;
+    }
+
+    boolean markActive() {
+        return active.compareAndSet(false, true);
+    }
+
+    void markInactive() {
+        active.set(false);
+    }
+
+    void addDeficit(long quantum) {
+        deficit += quantum;
+    }
+
+    boolean hasDeficit() {
+        return deficit >= 1;
+    }
+
+    void consumeDeficit() {
+        deficit--;
+    }
+
+    void resetDeficit() {
+        deficit = 0;
+    }
+
+    void recordInFlightRejected() {
+        inFlightRejectedCount.increment();
+    }
+
+    public String getNamespace() {
+        return namespace;
+    }
+
+    public int getSize() {
+        return size.get();
+    }
+
+    public long getAdmittedCount() {
+        return admittedCount.sum();
+    }
+
+    public long getDispatchedCount() {
+        return dispatchedCount.sum();
+    }
+
+    public long getQueueFullRejectedCount() {
+        return queueFullRejectedCount.sum();
+    }
+
+    public long getInFlightRejectedCount() {
+        return inFlightRejectedCount.sum();
+    }
+
+    /**
+     * @return average queueing time (in microseconds) of dispatched requests
+     */
+    public long getAvgWaitMicros() {
+        long dispatched = dispatchedCount.sum();
+        return dispatched == 0 ? 0 : totalWaitNanos.sum() / dispatched / 1000;
+    }
+
+    static final class PendingTask {
+        private final Runnable task;
+        private final AtomicInteger inFlight;
+        private final long enqueueNanos = System.nanoTime();
+
+        PendingTask(Runnable task, AtomicInteger inFlight) {
+            this.task = task;
+            this.inFlight = inFlight;
+        }
+
+        Runnable getTask() {
+            return task;
+        }
+
+        AtomicInteger getInFlight() {
+            return inFlight;
+        }
+
+        long getEnqueueNanos() {
+            return enqueueNanos;
+        }
+    }
+}
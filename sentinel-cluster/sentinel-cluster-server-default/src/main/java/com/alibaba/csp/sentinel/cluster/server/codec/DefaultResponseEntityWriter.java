@@ -42,7 +42,10 @@ public class DefaultResponseEntityWriter implements ResponseEntityWriter<Cluster
             return;
         }
         writeHead(response, out);
-        responseDataWriter.writeTo(response.getData(), out);
+        // Responses without data (e.g. rejected requests) carry the head only.
+        if (response.getData() != null) {
+            responseDataWriter.writeTo(response.getData(), out);
+        }
     }
 
     private void writeHead(Response response, ByteBuf out) {
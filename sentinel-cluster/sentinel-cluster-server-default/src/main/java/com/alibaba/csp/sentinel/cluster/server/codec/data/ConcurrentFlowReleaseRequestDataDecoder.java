@@ -0,0 +1,44 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.server.codec.data;
+
+import com.alibaba.csp.sentinel.cluster.ClusterConstants;
+import com.alibaba.csp.sentinel.cluster.codec.EntityDecoder;
+import com.alibaba.csp.sentinel.cluster.request.data.ConcurrentFlowReleaseRequestData;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * @since 1.8.7
+ */
+public class ConcurrentFlowReleaseRequestDataDecoder implements EntityDecoder<ByteBuf, ConcurrentFlowReleaseRequestData> {
+
+    @Override
+    public ConcurrentFlowReleaseRequestData decode(ByteBuf source) {
+        if (source.readableBytes() >= 4) {
+            int size = source.readInt();
+            if (size < 0 || size > ClusterConstants.MAX_RELEASE_BATCH_SIZE || source.readableBytes() < size * 8) {
+                return null;
+            }
+            long[] tokenIds = new long[size];
+            for (int i = 0; i < size; i++) {
+                tokenIds[i] = source.readLong();
+            }
+            return new ConcurrentFlowReleaseRequestData().setTokenIds(tokenIds);
+        }
+        return null;
+    }
+}
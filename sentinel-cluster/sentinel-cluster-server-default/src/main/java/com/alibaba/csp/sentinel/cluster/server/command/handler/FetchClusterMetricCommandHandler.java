@@ -16,12 +16,15 @@
 package com.alibaba.csp.sentinel.cluster.server.command.handler;
 
 import com.alibaba.csp.sentinel.cluster.flow.statistic.ClusterMetricNodeGenerator;
+import com.alibaba.csp.sentinel.cluster.server.admission.FairAdmissionScheduler;
+import com.alibaba.csp.sentinel.cluster.server.admission.NamespaceRequestQueue;
 import com.alibaba.csp.sentinel.command.CommandHandler;
 import com.alibaba.csp.sentinel.command.CommandRequest;
 import com.alibaba.csp.sentinel.command.CommandResponse;
 import com.alibaba.csp.sentinel.command.annotation.CommandMapping;
 import com.alibaba.csp.sentinel.util.StringUtil;
 import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.JSONObject;
 
 /**
  * @author Eric Zhao
@@ -30,14 +33,62 @@ import com.alibaba.fastjson.JSON;
 @CommandMapping(name = "cluster/server/metricList", desc = "get cluster server metrics")
 public class FetchClusterMetricCommandHandler implements CommandHandler<String> {
 
+    /**
+     * Request type for per-namespace admission queue metrics (since 1.8.7).
+     */
+    private static final String TYPE_QUEUE = "queue";
+    /**
+     * Request type for top hot parameter values of cluster parameter flow rules (since 1.8.7).
+     */
+    private static final String TYPE_TOP_PARAMS = "topParams";
+    private static final int MAX_TOP_PARAM_COUNT = 100;
+
     @Override
     public CommandResponse<String> handle(CommandRequest request) {
         String namespace = request.getParam("namespace");
         if (StringUtil.isEmpty(namespace)) {
             return CommandResponse.ofFailure(new IllegalArgumentException("failed: namespace cannot be empty"));
         }
+        if (TYPE_QUEUE.equals(request.getParam("type"))) {
+            return CommandResponse.ofSuccess(buildQueueMetric(namespace).toJSONString());
+        }
+        if (TYPE_TOP_PARAMS.equals(request.getParam("type"))) {
+            int topCount = parseTopCount(request.getParam("count"));
+            if (topCount <= 0) {
+                return CommandResponse.ofFailure(new IllegalArgumentException("failed: invalid count"));
+            }
+            return CommandResponse.ofSuccess(
+                JSON.toJSONString(ClusterMetricNodeGenerator.generateParamNodeList(namespace, topCount))
+            );
+        }
         return CommandResponse.ofSuccess(
             JSON.toJSONString(ClusterMetricNodeGenerator.generateCurrentNodeMap(namespace))
         );
     }
+
+    private int parseTopCount(String count) {
+        if (StringUtil.isEmpty(count)) {
+            return ClusterMetricNodeGenerator.DEFAULT_TOP_PARAM_COUNT;
+        }
+        try {
+            return Math.min(Integer.parseInt(count), MAX_TOP_PARAM_COUNT);
+        } catch (NumberFormatException ex) {
+            return -1;
+        }
+    }
+
+    private JSONObject buildQueueMetric(String namespace) {
+        JSONObject metric = new JSONObject().fluentPut("namespace", namespace)
+            .fluentPut("enabled", FairAdmissionScheduler.isEnabled());
+        NamespaceRequestQueue queue = FairAdmissionScheduler.getQueue(namespace);
+        if (queue != null) {
+            metric.fluentPut("queueSize", queue.getSize())
+                .fluentPut("admitted", queue.getAdmittedCount())
+                .fluentPut("dispatched", queue.getDispatchedCount())
+                .fluentPut("queueFullRejected", queue.getQueueFullRejectedCount())
+                .fluentPut("inFlightRejected", queue.getInFlightRejectedCount())
+                .fluentPut("avgWaitMicros", queue.getAvgWaitMicros());
+        }
+        return metric;
+    }
 }
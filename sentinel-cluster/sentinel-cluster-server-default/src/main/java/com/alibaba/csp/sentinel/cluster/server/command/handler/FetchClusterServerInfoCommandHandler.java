@@ -58,7 +58,10 @@ public class FetchClusterServerInfoCommandHandler implements CommandHandler<Stri
             .setMaxOccupyRatio(ClusterServerConfigManager.getMaxOccupyRatio())
             .setIntervalMs(ClusterServerConfigManager.getIntervalMs())
             .setSampleCount(ClusterServerConfigManager.getSampleCount())
-            .setMaxAllowedQps(ClusterServerConfigManager.getMaxAllowedQps());
+            .setMaxAllowedQps(ClusterServerConfigManager.getMaxAllowedQps())
+            .setMaxQueueSize(ClusterServerConfigManager.getMaxQueueSize())
+            .setMaxInFlightPerConnection(ClusterServerConfigManager.getMaxInFlightPerConnection())
+            .setParamSketchEnabled(ClusterServerConfigManager.isParamSketchEnabled());
 
         JSONArray requestLimitData = buildRequestLimitData(namespaceSet);
 
@@ -61,6 +61,9 @@ public final class ClusterServerConfigManager {
     private static volatile int intervalMs = ServerFlowConfig.DEFAULT_INTERVAL_MS;
     private static volatile int sampleCount = ServerFlowConfig.DEFAULT_SAMPLE_COUNT;
     private static volatile double maxAllowedQps = ServerFlowConfig.DEFAULT_MAX_ALLOWED_QPS;
+    private static volatile int maxQueueSize = ServerFlowConfig.DEFAULT_MAX_QUEUE_SIZE;
+    private static volatile int maxInFlightPerConnection = ServerFlowConfig.DEFAULT_MAX_IN_FLIGHT_PER_CONNECTION;
+    private static volatile boolean paramSketchEnabled = false;
 
     /**
      * Namespace-specific flow config for token server.
@@ -329,6 +332,17 @@ public final class ClusterServerConfigManager {
                 maxAllowedQps = config.getMaxAllowedQps();
                 GlobalRequestLimiter.applyMaxQpsChange(maxAllowedQps);
             }
+            if (config.getMaxQueueSize() != maxQueueSize) {
+                maxQueueSize = config.getMaxQueueSize();
+            }
+            if (config.getMaxInFlightPerConnection() != maxInFlightPerConnection) {
+                maxInFlightPerConnection = config.getMaxInFlightPerConnection();
+            }
+            boolean paramMetricChanged = false;
+            if (config.isParamSketchEnabled() != paramSketchEnabled) {
+                paramSketchEnabled = config.isParamSketchEnabled();
+                paramMetricChanged = true;
+            }
             int newIntervalMs = config.getIntervalMs();
             int newSampleCount = config.getSampleCount();
             if (newIntervalMs != intervalMs || newSampleCount != sampleCount) {
@@ -340,8 +354,13 @@ public final class ClusterServerConfigManager {
                     // Reset all the metrics.
                     ClusterMetricStatistics.resetFlowMetrics();
                     ClusterParamMetricStatistics.resetFlowMetrics();
+                    paramMetricChanged = false;
                 }
             }
+            if (paramMetricChanged) {
+                // Rebuild the parameter metrics with the new statistic type.
+                ClusterParamMetricStatistics.resetFlowMetrics();
+            }
         }
     }
 
@@ -351,7 +370,8 @@ public final class ClusterServerConfigManager {
 
     public static boolean isValidFlowConfig(ServerFlowConfig config) {
         return config != null && config.getMaxOccupyRatio() >= 0 && config.getExceedCount() >= 0
-            && config.getMaxAllowedQps() >= 0
+            && config.getMaxAllowedQps() >= 0 && config.getMaxQueueSize() >= 0
+            && config.getMaxInFlightPerConnection() > 0
             && FlowRuleUtil.isWindowConfigValid(config.getSampleCount(), config.getIntervalMs());
     }
 
@@ -410,6 +430,27 @@ public final class ClusterServerConfigManager {
         return maxAllowedQps;
     }
 
+    public static int getMaxQueueSize(String namespace) {
+        AssertUtil.notEmpty(namespace, "namespace cannot be empty");
+        ServerFlowConfig config = NAMESPACE_CONF.get(namespace);
+        if (config != null) {
+            return config.getMaxQueueSize();
+        }
+        return maxQueueSize;
+    }
+
+    public static int getMaxQueueSize() {
+        return maxQueueSize;
+    }
+
+    public static int getMaxInFlightPerConnection() {
+        return maxInFlightPerConnection;
+    }
+
+    public static boolean isParamSketchEnabled() {
+        return paramSketchEnabled;
+    }
+
     public static double getExceedCount() {
         return exceedCount;
     }
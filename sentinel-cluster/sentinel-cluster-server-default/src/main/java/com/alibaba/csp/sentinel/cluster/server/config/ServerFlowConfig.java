@@ -29,6 +29,8 @@ public class ServerFlowConfig {
     public static final int DEFAULT_INTERVAL_MS = 1000;
     public static final int DEFAULT_SAMPLE_COUNT= 10;
     public static final double DEFAULT_MAX_ALLOWED_QPS= 30000;
+    public static final int DEFAULT_MAX_QUEUE_SIZE = 0;
+    public static final int DEFAULT_MAX_IN_FLIGHT_PER_CONNECTION = 256;
 
     private final String namespace;
 
@@ -39,6 +41,21 @@ public class ServerFlowConfig {
 
     private double maxAllowedQps = DEFAULT_MAX_ALLOWED_QPS;
 
+    /**
+     * Max pending requests in the admission queue of each namespace. The fair admission scheduling is
+     * enabled when the size is positive. By default (0), requests are processed directly in the I/O threads.
+     */
+    private int maxQueueSize = DEFAULT_MAX_QUEUE_SIZE;
+    /**
+     * Max requests being queued or processed for each client connection.
+     */
+    private int maxInFlightPerConnection = DEFAULT_MAX_IN_FLIGHT_PER_CONNECTION;
+    /**
+     * Whether to use fixed-memory sketch statistics (count-min sketch plus top-K exact counters)
+     * for cluster parameter flow control, rather than exact per-value statistics.
+     */
+    private boolean paramSketchEnabled = false;
+
     public ServerFlowConfig() {
         this(ServerConstants.DEFAULT_NAMESPACE);
     }
@@ -96,6 +113,33 @@ public class ServerFlowConfig {
         return this;
     }
 
+    public int getMaxQueueSize() {
+        return maxQueueSize;
+    }
+
+    public ServerFlowConfig setMaxQueueSize(int maxQueueSize) {
+        this.maxQueueSize = maxQueueSize;
+        return this;
+    }
+
+    public int getMaxInFlightPerConnection() {
+        return maxInFlightPerConnection;
+    }
+
+    public ServerFlowConfig setMaxInFlightPerConnection(int maxInFlightPerConnection) {
+        this.maxInFlightPerConnection = maxInFlightPerConnection;
+        return this;
+    }
+
+    public boolean isParamSketchEnabled() {
+        return paramSketchEnabled;
+    }
+
+    public ServerFlowConfig setParamSketchEnabled(boolean paramSketchEnabled) {
+        this.paramSketchEnabled = paramSketchEnabled;
+        return this;
+    }
+
     @Override
     public String toString() {
         return "ServerFlowConfig{" +
@@ -105,6 +149,9 @@ public class ServerFlowConfig {
             ", intervalMs=" + intervalMs +
             ", sampleCount=" + sampleCount +
             ", maxAllowedQps=" + maxAllowedQps +
+            ", maxQueueSize=" + maxQueueSize +
+            ", maxInFlightPerConnection=" + maxInFlightPerConnection +
+            ", paramSketchEnabled=" + paramSketchEnabled +
             '}';
     }
 }
@@ -112,6 +112,19 @@ public final class ConnectionManager {
         return group;
     }
 
+    /**
+     * Get the namespace that the client belongs to.
+     *
+     * @param address address of the client
+     * @return namespace of the client, or null if the client has not registered (ping) yet
+     */
+    public static String getNamespace(String address) {
+        if (address == null) {
+            return null;
+        }
+        return NAMESPACE_MAP.get(address);
+    }
+
     public static boolean isClientOnline(String address){
         return NAMESPACE_MAP.containsKey(address);
     }
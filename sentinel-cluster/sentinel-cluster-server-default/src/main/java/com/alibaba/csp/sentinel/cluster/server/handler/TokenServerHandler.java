@@ -18,8 +18,11 @@ package com.alibaba.csp.sentinel.cluster.server.handler;
 import java.net.InetSocketAddress;
 
 import com.alibaba.csp.sentinel.cluster.ClusterConstants;
+import com.alibaba.csp.sentinel.cluster.TokenResultStatus;
 import com.alibaba.csp.sentinel.cluster.request.ClusterRequest;
+import com.alibaba.csp.sentinel.cluster.request.data.ConcurrentFlowAcquireRequestData;
 import com.alibaba.csp.sentinel.cluster.response.ClusterResponse;
+import com.alibaba.csp.sentinel.cluster.server.admission.FairAdmissionScheduler;
 import com.alibaba.csp.sentinel.cluster.server.connection.ConnectionManager;
 import com.alibaba.csp.sentinel.cluster.server.connection.ConnectionPool;
 import com.alibaba.csp.sentinel.cluster.server.processor.RequestProcessor;
@@ -54,6 +57,7 @@ public class TokenServerHandler extends ChannelInboundHandlerAdapter {
         String remoteAddress = getRemoteAddress(ctx);
         globalConnectionPool.remove(ctx.channel());
         ConnectionManager.removeConnection(remoteAddress);
+        FairAdmissionScheduler.removeConnection(remoteAddress);
     }
 
     @Override
@@ -69,11 +73,20 @@ public class TokenServerHandler extends ChannelInboundHandlerAdapter {
                 return;
             }
 
+            // Concurrent tokens are bound to the client address observed by the server,
+            // which is used to detect offline clients when clearing expired tokens.
+            if (request.getType() == ClusterConstants.MSG_TYPE_CONCURRENT_FLOW_ACQUIRE
+                && request.getData() instanceof ConcurrentFlowAcquireRequestData) {
+                ((ConcurrentFlowAcquireRequestData)request.getData()).setClientAddress(getRemoteAddress(ctx));
+            }
+
             // Pick request processor for request type.
             RequestProcessor<?, ?> processor = RequestProcessorProvider.getProcessor(request.getType());
             if (processor == null) {
                 RecordLog.warn("[TokenServerHandler] No processor for request type: " + request.getType());
                 writeBadResponse(ctx, request);
+            } else if (FairAdmissionScheduler.isEnabled()) {
+                submitToScheduler(ctx, request, processor);
             } else {
                 ClusterResponse<?> response = processor.processRequest(request);
                 writeResponse(ctx, response);
@@ -81,6 +94,31 @@ public class TokenServerHandler extends ChannelInboundHandlerAdapter {
         }
     }
 
+    @SuppressWarnings("unchecked")
+    private void submitToScheduler(final ChannelHandlerContext ctx, final ClusterRequest request,
+                                   final RequestProcessor processor) {
+        String remoteAddress = getRemoteAddress(ctx);
+        String namespace = ConnectionManager.getNamespace(remoteAddress);
+        boolean admitted = FairAdmissionScheduler.submit(namespace, remoteAddress, new Runnable() {
+            @Override
+            public void run() {
+                ClusterResponse<?> response;
+                try {
+                    response = processor.processRequest(request);
+                } catch (Throwable ex) {
+                    RecordLog.warn("[TokenServerHandler] Failed to process request: " + request, ex);
+                    response = new ClusterResponse<>(request.getId(), request.getType(), TokenResultStatus.FAIL, null);
+                }
+                writeResponse(ctx, response);
+            }
+        });
+        if (!admitted) {
+            // Tell the client to fall back to local flow control.
+            writeResponse(ctx, new ClusterResponse<>(request.getId(), request.getType(),
+                TokenResultStatus.TOO_MANY_REQUEST, null));
+        }
+    }
+
     private void writeBadResponse(ChannelHandlerContext ctx, ClusterRequest request) {
         ClusterResponse<?> response = new ClusterResponse<>(request.getId(), request.getType(),
             ClusterConstants.RESPONSE_STATUS_BAD, null);
@@ -0,0 +1,46 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.server.processor;
+
+import com.alibaba.csp.sentinel.cluster.ClusterConstants;
+import com.alibaba.csp.sentinel.cluster.TokenResultStatus;
+import com.alibaba.csp.sentinel.cluster.TokenService;
+import com.alibaba.csp.sentinel.cluster.annotation.RequestType;
+import com.alibaba.csp.sentinel.cluster.request.ClusterRequest;
+import com.alibaba.csp.sentinel.cluster.request.data.ConcurrentFlowReleaseRequestData;
+import com.alibaba.csp.sentinel.cluster.response.ClusterResponse;
+import com.alibaba.csp.sentinel.cluster.server.TokenServiceProvider;
+
+/**
+ * Processor for batched release of concurrent tokens.
+ *
+ * @since 1.8.7
+ */
+@RequestType(ClusterConstants.MSG_TYPE_CONCURRENT_FLOW_RELEASE)
+public class ConcurrentFlowReleaseRequestProcessor implements RequestProcessor<ConcurrentFlowReleaseRequestData, Integer> {
+
+    @Override
+    public ClusterResponse<Integer> processRequest(ClusterRequest<ConcurrentFlowReleaseRequestData> request) {
+        TokenService tokenService = TokenServiceProvider.getService();
+
+        long[] tokenIds = request.getData().getTokenIds();
+        for (long tokenId : tokenIds) {
+            tokenService.releaseConcurrentToken(tokenId);
+        }
+        return new ClusterResponse<>(request.getId(), request.getType(), TokenResultStatus.RELEASE_OK,
+            tokenIds.length);
+    }
+}
@@ -37,6 +37,8 @@ import java.util.ArrayList;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * @author yunfeiyanggzq
@@ -119,6 +121,51 @@ public class ConcurrentClusterFlowCheckerTest extends AbstractTimeBasedTest {
         }
     }
 
+    @Test
+    public void testConcurrentCountNeverNegative() throws InterruptedException {
+        final FlowRule rule = ClusterFlowRuleManager.getFlowRuleById(179L);
+        final AtomicInteger nowCalls = CurrentConcurrencyManager.get(179L);
+        final AtomicBoolean running = new AtomicBoolean(true);
+        final AtomicInteger minObserved = new AtomicInteger(0);
+        final AtomicInteger maxObserved = new AtomicInteger(0);
+        Thread sampler = new Thread(() -> {
+            while (running.get()) {
+                int current = nowCalls.get();
+                minObserved.accumulateAndGet(current, Math::min);
+                maxObserved.accumulateAndGet(current, Math::max);
+            }
+        });
+        sampler.start();
+
+        final int taskCount = 2000;
+        final CountDownLatch countDownLatch = new CountDownLatch(taskCount);
+        ExecutorService pool = Executors.newFixedThreadPool(50,
+                new NamedThreadFactory("ConcurrentClusterFlowCheckerTest-negative", true));
+        for (int i = 0; i < taskCount; i++) {
+            pool.execute(() -> {
+                try {
+                    TokenResult result = ConcurrentClusterFlowChecker.acquireConcurrentToken("127.0.0.1", rule, 1);
+                    if (result.getStatus() == TokenResultStatus.OK) {
+                        // Duplicated releases (e.g. retried by the client) must only be counted once.
+                        ConcurrentClusterFlowChecker.releaseConcurrentToken(result.getTokenId());
+                        ConcurrentClusterFlowChecker.releaseConcurrentToken(result.getTokenId());
+                    }
+                } finally {
+                    countDownLatch.countDown();
+                }
+            });
+        }
+        countDownLatch.await();
+        pool.shutdown();
+        running.set(false);
+        sampler.join();
+
+        Assert.assertEquals(0, minObserved.get());
+        Assert.assertTrue(maxObserved.get() <= rule.getCount());
+        Assert.assertEquals(0, nowCalls.get());
+        Assert.assertEquals(0, TokenCacheNodeManager.getSize());
+    }
+
     @Test
     public void testReleaseExpiredToken() throws InterruptedException {
         ConnectionManager.addConnection("test", "127.0.0.1");
@@ -0,0 +1,83 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.flow.statistic.concurrent.expire;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class HierarchicalTimingWheelTest {
+
+    @Test
+    public void testFireInOrderAcrossLevels() {
+        final List<Long> fired = new ArrayList<>();
+        HierarchicalTimingWheel<Long> wheel = new HierarchicalTimingWheel<>(10, 2, 3,
+            new HierarchicalTimingWheel.ExpireHandler<Long>() {
+                @Override
+                public long onExpire(Long item, long now) {
+                    Assert.assertTrue(now >= item);
+                    fired.add(item);
+                    return -1;
+                }
+            });
+        long start = 1000;
+        wheel.advance(start);
+        // Level 0 covers 4 ticks, level 1 covers 16 ticks, level 2 covers 64 ticks (and overflow).
+        long[] deadlines = {start + 20, start + 90, start + 250, start + 630, start + 2000};
+        for (long deadline : deadlines) {
+            wheel.schedule(deadline, deadline);
+        }
+        for (long now = start; now <= start + 2000; now += 10) {
+            wheel.advance(now);
+            for (Long item : fired) {
+                Assert.assertTrue(item <= now);
+            }
+        }
+        Assert.assertEquals(deadlines.length, fired.size());
+        for (int i = 0; i < deadlines.length; i++) {
+            Assert.assertEquals(deadlines[i], (long) fired.get(i));
+        }
+    }
+
+    @Test
+    public void testRescheduleAndCatchUp() {
+        final int[] fireCount = new int[1];
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(10, 6, 4,
+            new HierarchicalTimingWheel.ExpireHandler<String>() {
+                @Override
+                public long onExpire(String item, long now) {
+                    fireCount[0]++;
+                    // Keep the item in the wheel for another 100 ms for the first two times.
+                    return fireCount[0] < 3 ? now + 100 : -1;
+                }
+            });
+        wheel.advance(0);
+        wheel.schedule("token", 50);
+        wheel.advance(40);
+        Assert.assertEquals(0, fireCount[0]);
+        wheel.advance(50);
+        Assert.assertEquals(1, fireCount[0]);
+        // Jump over several ticks at once, the item is rescheduled relative to the current time.
+        wheel.advance(1000);
+        Assert.assertEquals(2, fireCount[0]);
+        wheel.advance(1100);
+        Assert.assertEquals(3, fireCount[0]);
+        wheel.advance(2000);
+        Assert.assertEquals(3, fireCount[0]);
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.flow.statistic.concurrent.expire;
+
+import com.alibaba.csp.sentinel.cluster.flow.statistic.concurrent.CurrentConcurrencyManager;
+import com.alibaba.csp.sentinel.cluster.flow.statistic.concurrent.TokenCacheNode;
+import com.alibaba.csp.sentinel.cluster.server.connection.ConnectionManager;
+import com.googlecode.concurrentlinkedhashmap.ConcurrentLinkedHashMap;
+import com.googlecode.concurrentlinkedhashmap.Weighers;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test cases for {@link TimingWheelExpireStrategy}.
+ */
+public class TimingWheelExpireStrategyTest {
+
+    private static final long FLOW_ID = 1901L;
+    private static final String ONLINE_CLIENT = "10.0.0.1";
+    private static final String OFFLINE_CLIENT = "10.0.0.2";
+
+    private ConcurrentLinkedHashMap<Long, TokenCacheNode> cache;
+    private TimingWheelExpireStrategy strategy;
+
+    @Before
+    public void setUp() {
+        cache = new ConcurrentLinkedHashMap.Builder<Long, TokenCacheNode>()
+            .maximumWeightedCapacity(Integer.MAX_VALUE)
+            .weigher(Weighers.singleton())
+            .build();
+        strategy = new TimingWheelExpireStrategy(cache);
+        strategy.startClearTaskRegularly();
+        CurrentConcurrencyManager.put(FLOW_ID, 0);
+        ConnectionManager.addConnection("timing-wheel-test", ONLINE_CLIENT);
+    }
+
+    @After
+    public void tearDown() {
+        CurrentConcurrencyManager.remove(FLOW_ID);
+        ConnectionManager.removeConnection("timing-wheel-test", ONLINE_CLIENT);
+    }
+
+    @Test
+    public void testExpiredTokensAreReleased() throws Exception {
+        for (long tokenId = 1; tokenId <= 20; tokenId++) {
+            String address = tokenId % 2 == 0 ? ONLINE_CLIENT : OFFLINE_CLIENT;
+            addToken(tokenId, address, 2, 200L);
+        }
+        Assert.assertEquals(40, CurrentConcurrencyManager.get(FLOW_ID).get());
+
+        // Tokens released normally are skipped by the timing wheel.
+        for (long tokenId = 1; tokenId <= 5; tokenId++) {
+            TokenCacheNode node = cache.remove(tokenId);
+            CurrentConcurrencyManager.get(FLOW_ID).addAndGet(-node.getAcquireCount());
+        }
+        Assert.assertEquals(30, CurrentConcurrencyManager.get(FLOW_ID).get());
+
+        // Tokens of the offline client expire after the client offline time (100 ms), tokens of
+        // the online client expire after 2 times of the resource timeout (400 ms).
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!cache.isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        Assert.assertTrue(cache.isEmpty());
+        Assert.assertEquals(0, CurrentConcurrencyManager.get(FLOW_ID).get());
+    }
+
+    @Test
+    public void testTokenOfOnlineClientIsKeptUntilResourceTimeout() throws Exception {
+        TokenCacheNode node = addToken(100L, ONLINE_CLIENT, 1, 1000L);
+        // The client offline time is reached, but the client is still online.
+        Thread.sleep(300);
+        Assert.assertSame(node, cache.getQuietly(100L));
+        Assert.assertEquals(1, CurrentConcurrencyManager.get(FLOW_ID).get());
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (cache.containsKey(100L) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        Assert.assertFalse(cache.containsKey(100L));
+        Assert.assertEquals(0, CurrentConcurrencyManager.get(FLOW_ID).get());
+    }
+
+    @Test
+    public void testTokenIsReleasedWhenClientGoesOfflineLater() throws Exception {
+        String client = "10.0.0.3";
+        ConnectionManager.addConnection("timing-wheel-test", client);
+        try {
+            TokenCacheNode node = addToken(200L, client, 3, 10000L);
+            // The client is online at the first check.
+            Thread.sleep(300);
+            Assert.assertSame(node, cache.getQuietly(200L));
+            Assert.assertEquals(3, CurrentConcurrencyManager.get(FLOW_ID).get());
+        } finally {
+            ConnectionManager.removeConnection("timing-wheel-test", client);
+        }
+
+        // The token is released soon after the client goes offline, not after 2 times of the resource timeout.
+        long deadline = System.currentTimeMillis() + 3000;
+        while (cache.containsKey(200L) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        Assert.assertFalse(cache.containsKey(200L));
+        Assert.assertEquals(0, CurrentConcurrencyManager.get(FLOW_ID).get());
+    }
+
+    private TokenCacheNode addToken(long tokenId, String address, int acquireCount, long resourceTimeout) {
+        TokenCacheNode node = new TokenCacheNode();
+        node.setTokenId(tokenId);
+        node.setFlowId(FLOW_ID);
+        node.setClientAddress(address);
+        node.setAcquireCount(acquireCount);
+        node.setClientTimeout(100L);
+        node.setResourceTimeout(resourceTimeout);
+        cache.put(tokenId, node);
+        CurrentConcurrencyManager.get(FLOW_ID).addAndGet(acquireCount);
+        strategy.onTokenAdded(node);
+        return node;
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.flow.statistic.metric;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.alibaba.csp.sentinel.cluster.server.AbstractTimeBasedTest;
+import com.alibaba.csp.sentinel.util.TimeUtil;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.MockedStatic;
+
+public class ClusterParamSketchMetricTest extends AbstractTimeBasedTest {
+
+    @Test
+    public void testSketchMetric() {
+        try (MockedStatic<TimeUtil> mocked = super.mockTimeUtil()) {
+            setCurrentMillis(mocked, System.currentTimeMillis());
+            ClusterParamSketchMetric metric = new ClusterParamSketchMetric(5, 25, 4, 1024, 2);
+            metric.addValue("e1", 1);
+            metric.addValue("e1", 2);
+            metric.addValue("e2", 100);
+            metric.addValue("e2", 23);
+            metric.addValue("e3", 100);
+            metric.addValue("e3", 230);
+            Assert.assertEquals(3, metric.getSum("e1"));
+            Assert.assertEquals(120, metric.getAvg("e1"), 0.01);
+            Assert.assertEquals(123, metric.getSum("e2"));
+            Assert.assertEquals(330, metric.getSum("e3"));
+            Assert.assertEquals(0, metric.getSum("e4"));
+
+            // e3 evicted e1 from the heavy hitters.
+            Map<Object, Double> topMap = new HashMap<Object, Double>();
+            topMap.put("e3", (double) 13200);
+            Assert.assertEquals(topMap, metric.getTopValues(1));
+            topMap.put("e2", (double) 4920);
+            Assert.assertEquals(topMap, metric.getTopValues(5));
+            Assert.assertEquals(2, metric.getHeavyHitterCount());
+
+            sleep(mocked, 25);
+            Assert.assertEquals(0, metric.getSum("e2"));
+            Assert.assertTrue(metric.getTopValues(5).isEmpty());
+        }
+    }
+
+    @Test
+    public void testFixedMemoryWithManyValues() {
+        try (MockedStatic<TimeUtil> mocked = super.mockTimeUtil()) {
+            setCurrentMillis(mocked, System.currentTimeMillis());
+            ClusterParamSketchMetric metric = new ClusterParamSketchMetric(5, 1000, 4, 1024, 8);
+            for (int i = 0; i < 10000; i++) {
+                metric.addValue("cold-" + i, 1);
+            }
+            for (int i = 0; i < 50; i++) {
+                metric.addValue("hot", 10);
+            }
+            Assert.assertEquals(8, metric.getHeavyHitterCount());
+            Assert.assertTrue(metric.getTopValues(1).containsKey("hot"));
+            // Never underestimate.
+            Assert.assertTrue(metric.getSum("hot") >= 500);
+            Assert.assertTrue(metric.getSum("cold-1") >= 1);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testIllegalArgument() {
+        ClusterParamSketchMetric metric = new ClusterParamSketchMetric(5, 25);
+        metric.getTopValues(-1);
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.server.admission;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.csp.sentinel.cluster.server.config.ClusterServerConfigManager;
+import com.alibaba.csp.sentinel.cluster.server.config.ServerFlowConfig;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class FairAdmissionSchedulerTest {
+
+    @Before
+    public void setUp() {
+        Assert.assertFalse("fair admission should be disabled by default", FairAdmissionScheduler.isEnabled());
+        ClusterServerConfigManager.loadGlobalFlowConfig(new ServerFlowConfig().setMaxQueueSize(2048));
+        Assert.assertTrue(FairAdmissionScheduler.isEnabled());
+    }
+
+    @After
+    public void tearDown() {
+        ClusterServerConfigManager.loadGlobalFlowConfig(new ServerFlowConfig());
+    }
+
+    @Test
+    public void testNoisyNamespaceCannotStarveOthers() throws Exception {
+        final CountDownLatch blocker = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(105);
+        final List<String> order = new CopyOnWriteArrayList<>();
+
+        Assert.assertTrue(FairAdmissionScheduler.submit("noisy-ns", null, new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    blocker.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                order.add("noisy-ns");
+                done.countDown();
+            }
+        }));
+        for (int i = 0; i < 99; i++) {
+            Assert.assertTrue(FairAdmissionScheduler.submit("noisy-ns", null, recordTask("noisy-ns", order, done)));
+        }
+        for (int i = 0; i < 5; i++) {
+            Assert.assertTrue(FairAdmissionScheduler.submit("quiet-ns", null, recordTask("quiet-ns", order, done)));
+        }
+        blocker.countDown();
+        Assert.assertTrue(done.await(5, TimeUnit.SECONDS));
+
+        Assert.assertEquals(105, order.size());
+        int lastQuiet = order.lastIndexOf("quiet-ns");
+        // The quiet namespace should be served in the next round instead of waiting for the whole noisy queue.
+        Assert.assertTrue("quiet namespace served too late: " + lastQuiet, lastQuiet < 30);
+
+        NamespaceRequestQueue queue = FairAdmissionScheduler.getQueue("quiet-ns");
+        Assert.assertNotNull(queue);
+        Assert.assertEquals(5, queue.getDispatchedCount());
+        Assert.assertEquals(0, queue.getSize());
+    }
+
+    @Test
+    public void testRejectWhenConnectionInFlightExceeded() throws Exception {
+        final CountDownLatch blocker = new CountDownLatch(1);
+        String address = "127.0.0.1:12345";
+        int limit = ServerFlowConfig.DEFAULT_MAX_IN_FLIGHT_PER_CONNECTION;
+
+        Runnable blockingTask = new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    blocker.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        int admitted = 0;
+        for (int i = 0; i < limit + 10; i++) {
+            if (FairAdmissionScheduler.submit("in-flight-ns", address, blockingTask)) {
+                admitted++;
+            }
+        }
+        Assert.assertEquals(limit, admitted);
+        Assert.assertEquals(10, FairAdmissionScheduler.getQueue("in-flight-ns").getInFlightRejectedCount());
+        // Other connections are not affected.
+        Assert.assertTrue(FairAdmissionScheduler.submit("in-flight-ns", "127.0.0.1:23456", blockingTask));
+
+        blocker.countDown();
+        FairAdmissionScheduler.removeConnection(address);
+    }
+
+    @Test
+    public void testProcessInWorkers() throws Exception {
+        final CyclicBarrier barrier = new CyclicBarrier(2);
+        final CountDownLatch done = new CountDownLatch(2);
+        Runnable task = new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    // Both tasks must be running at the same time to pass the barrier.
+                    barrier.await(5, TimeUnit.SECONDS);
+                    done.countDown();
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        };
+        Assert.assertTrue(FairAdmissionScheduler.submit("parallel-ns", null, task));
+        Assert.assertTrue(FairAdmissionScheduler.submit("parallel-ns", null, task));
+        Assert.assertTrue(done.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testWakeUpIdleDispatcher() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            final CountDownLatch done = new CountDownLatch(1);
+            Assert.assertTrue(FairAdmissionScheduler.submit("idle-ns", null, new Runnable() {
+                @Override
+                public void run() {
+                    done.countDown();
+                }
+            }));
+            Assert.assertTrue(done.await(5, TimeUnit.SECONDS));
+            // Let the dispatcher park until the next submission.
+            Thread.sleep(50);
+        }
+    }
+
+    private Runnable recordTask(final String namespace, final List<String> order, final CountDownLatch done) {
+        return new Runnable() {
+            @Override
+            public void run() {
+                order.add(namespace);
+                done.countDown();
+            }
+        };
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.server.codec.data;
+
+import com.alibaba.csp.sentinel.cluster.ClusterConstants;
+import com.alibaba.csp.sentinel.cluster.request.data.ConcurrentFlowAcquireRequestData;
+import com.alibaba.csp.sentinel.cluster.request.data.ConcurrentFlowReleaseRequestData;
+import com.alibaba.csp.sentinel.cluster.response.data.ConcurrentFlowAcquireResponseData;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test cases for the server side codec of concurrent token requests. The request buffers are
+ * written in the same layout as the writers of the token client.
+ */
+public class ConcurrentFlowDataCodecTest {
+
+    @Test
+    public void testDecodeAcquireRequest() {
+        ByteBuf buf = Unpooled.buffer();
+        buf.writeLong(179L);
+        buf.writeInt(3);
+
+        ConcurrentFlowAcquireRequestData data = new ConcurrentFlowAcquireRequestDataDecoder().decode(buf);
+        assertThat(data).isNotNull();
+        assertThat(data.getFlowId()).isEqualTo(179L);
+        assertThat(data.getCount()).isEqualTo(3);
+        assertThat(buf.readableBytes()).isZero();
+        buf.release();
+    }
+
+    @Test
+    public void testDecodeTruncatedAcquireRequest() {
+        ByteBuf buf = Unpooled.buffer();
+        buf.writeLong(179L);
+
+        assertThat(new ConcurrentFlowAcquireRequestDataDecoder().decode(buf)).isNull();
+        buf.release();
+    }
+
+    @Test
+    public void testDecodeReleaseRequest() {
+        long[] tokenIds = {Long.MIN_VALUE, -1L, 0L, 42L, Long.MAX_VALUE};
+        ByteBuf buf = Unpooled.buffer();
+        buf.writeInt(tokenIds.length);
+        for (long tokenId : tokenIds) {
+            buf.writeLong(tokenId);
+        }
+
+        ConcurrentFlowReleaseRequestData data = new ConcurrentFlowReleaseRequestDataDecoder().decode(buf);
+        assertThat(data).isNotNull();
+        assertThat(data.getTokenIds()).containsExactly(tokenIds);
+        assertThat(buf.readableBytes()).isZero();
+        buf.release();
+    }
+
+    @Test
+    public void testDecodeBadReleaseRequest() {
+        ConcurrentFlowReleaseRequestDataDecoder decoder = new ConcurrentFlowReleaseRequestDataDecoder();
+
+        // Fewer token IDs than declared.
+        ByteBuf truncated = Unpooled.buffer();
+        truncated.writeInt(2);
+        truncated.writeLong(1L);
+        assertThat(decoder.decode(truncated)).isNull();
+        truncated.release();
+
+        // Batch larger than allowed.
+        ByteBuf oversized = Unpooled.buffer();
+        oversized.writeInt(ClusterConstants.MAX_RELEASE_BATCH_SIZE + 1);
+        for (int i = 0; i <= ClusterConstants.MAX_RELEASE_BATCH_SIZE; i++) {
+            oversized.writeLong(i);
+        }
+        assertThat(decoder.decode(oversized)).isNull();
+        oversized.release();
+
+        ByteBuf negative = Unpooled.buffer();
+        negative.writeInt(-1);
+        assertThat(decoder.decode(negative)).isNull();
+        negative.release();
+    }
+
+    @Test
+    public void testWriteResponses() {
+        ByteBuf buf = Unpooled.buffer();
+        new ConcurrentFlowAcquireResponseDataWriter().writeTo(
+            new ConcurrentFlowAcquireResponseData().setTokenId(-8L), buf);
+        assertThat(buf.readableBytes()).isEqualTo(8);
+        assertThat(buf.readLong()).isEqualTo(-8L);
+
+        ConcurrentFlowReleaseResponseDataWriter releaseWriter = new ConcurrentFlowReleaseResponseDataWriter();
+        releaseWriter.writeTo(5, buf);
+        releaseWriter.writeTo(null, buf);
+        assertThat(buf.readInt()).isEqualTo(5);
+        assertThat(buf.readInt()).isZero();
+        assertThat(buf.readableBytes()).isZero();
+        buf.release();
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.server.processor;
+
+import java.util.Collections;
+
+import com.alibaba.csp.sentinel.cluster.ClusterConstants;
+import com.alibaba.csp.sentinel.cluster.TokenResultStatus;
+import com.alibaba.csp.sentinel.cluster.flow.rule.ClusterFlowRuleManager;
+import com.alibaba.csp.sentinel.cluster.flow.statistic.concurrent.CurrentConcurrencyManager;
+import com.alibaba.csp.sentinel.cluster.request.ClusterRequest;
+import com.alibaba.csp.sentinel.cluster.request.data.ConcurrentFlowAcquireRequestData;
+import com.alibaba.csp.sentinel.cluster.request.data.ConcurrentFlowReleaseRequestData;
+import com.alibaba.csp.sentinel.cluster.response.ClusterResponse;
+import com.alibaba.csp.sentinel.cluster.response.data.ConcurrentFlowAcquireResponseData;
+import com.alibaba.csp.sentinel.slots.block.ClusterRuleConstant;
+import com.alibaba.csp.sentinel.slots.block.RuleConstant;
+import com.alibaba.csp.sentinel.slots.block.flow.ClusterFlowConfig;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test cases for {@link ConcurrentFlowAcquireRequestProcessor} and {@link ConcurrentFlowReleaseRequestProcessor}.
+ */
+public class ConcurrentFlowRequestProcessorTest {
+
+    private static final String NAMESPACE = "concurrent-processor-test";
+    private static final long FLOW_ID = 1801L;
+
+    @Before
+    public void setUp() {
+        ClusterFlowConfig config = new ClusterFlowConfig()
+            .setFlowId(FLOW_ID)
+            .setThresholdType(ClusterRuleConstant.FLOW_THRESHOLD_GLOBAL);
+        config.setResourceTimeout(10000);
+        config.setClientOfflineTime(10000);
+        FlowRule rule = new FlowRule("concurrentProcessorTest")
+            .setGrade(RuleConstant.FLOW_GRADE_THREAD)
+            .setCount(2)
+            .setClusterMode(true)
+            .setClusterConfig(config);
+        ClusterFlowRuleManager.registerPropertyIfAbsent(NAMESPACE);
+        ClusterFlowRuleManager.loadRules(NAMESPACE, Collections.singletonList(rule));
+    }
+
+    @After
+    public void tearDown() {
+        ClusterFlowRuleManager.loadRules(NAMESPACE, Collections.<FlowRule>emptyList());
+    }
+
+    @Test
+    public void testAcquireThenReleaseInBatch() {
+        ConcurrentFlowAcquireRequestProcessor acquireProcessor = new ConcurrentFlowAcquireRequestProcessor();
+        long[] tokenIds = new long[2];
+        for (int i = 0; i < tokenIds.length; i++) {
+            ClusterResponse<ConcurrentFlowAcquireResponseData> response = acquireProcessor.processRequest(
+                acquireRequest(i + 1));
+            assertThat(response.getId()).isEqualTo(i + 1);
+            assertThat(response.getType()).isEqualTo(ClusterConstants.MSG_TYPE_CONCURRENT_FLOW_ACQUIRE);
+            assertThat(response.getStatus()).isEqualTo(TokenResultStatus.OK);
+            tokenIds[i] = response.getData().getTokenId();
+            assertThat(tokenIds[i]).isNotZero();
+        }
+        ClusterResponse<ConcurrentFlowAcquireResponseData> blocked = acquireProcessor.processRequest(
+            acquireRequest(3));
+        assertThat(blocked.getStatus()).isEqualTo(TokenResultStatus.BLOCKED);
+        assertThat(CurrentConcurrencyManager.get(FLOW_ID).get()).isEqualTo(2);
+
+        ConcurrentFlowReleaseRequestProcessor releaseProcessor = new ConcurrentFlowReleaseRequestProcessor();
+        ClusterResponse<Integer> released = releaseProcessor.processRequest(new ClusterRequest<>(4,
+            ClusterConstants.MSG_TYPE_CONCURRENT_FLOW_RELEASE, new ConcurrentFlowReleaseRequestData()
+            .setTokenIds(tokenIds)));
+        assertThat(released.getId()).isEqualTo(4);
+        assertThat(released.getStatus()).isEqualTo(TokenResultStatus.RELEASE_OK);
+        assertThat(released.getData()).isEqualTo(tokenIds.length);
+        assertThat(CurrentConcurrencyManager.get(FLOW_ID).get()).isZero();
+
+        // Releasing the same batch again won't make the count negative.
+        releaseProcessor.processRequest(new ClusterRequest<>(5, ClusterConstants.MSG_TYPE_CONCURRENT_FLOW_RELEASE,
+            new ConcurrentFlowReleaseRequestData().setTokenIds(tokenIds)));
+        assertThat(CurrentConcurrencyManager.get(FLOW_ID).get()).isZero();
+    }
+
+    private ClusterRequest<ConcurrentFlowAcquireRequestData> acquireRequest(int id) {
+        return new ClusterRequest<>(id, ClusterConstants.MSG_TYPE_CONCURRENT_FLOW_ACQUIRE,
+            new ConcurrentFlowAcquireRequestData().setFlowId(FLOW_ID).setCount(1).setClientAddress("127.0.0.1"));
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.server.envoy.rls.flow;
+
+import com.alibaba.csp.sentinel.cluster.flow.statistic.ClusterMetricStatistics;
+import com.alibaba.csp.sentinel.cluster.flow.statistic.data.ClusterFlowEvent;
+import com.alibaba.csp.sentinel.cluster.flow.statistic.metric.ClusterMetric;
+import com.alibaba.csp.sentinel.cluster.server.config.ClusterServerConfigManager;
+import com.alibaba.csp.sentinel.cluster.server.log.ClusterServerStatLogUtil;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
+import com.alibaba.csp.sentinel.util.AssertUtil;
+import com.alibaba.csp.sentinel.util.TimeUtil;
+
+/**
+ * <p>Precompiled limiter of a single RLS descriptor. The check is equivalent to
+ * {@link SimpleClusterFlowChecker#acquireClusterToken(FlowRule, int)}, but the decision is made
+ * with a dedicated {@link StripedWindowCounter} and all the log keys are prepared in advance,
+ * so that checking a descriptor does not allocate.</p>
+ *
+ * <p>The {@link ClusterMetric} of the flow ID is still updated so that the cluster metrics
+ * can be fetched as before.</p>
+ *
+ * @since 1.8.7
+ */
+public class EnvoyRlsDescriptorLimiter {
+
+    /**
+     * Returned by {@link #tryAcquire(int)} when the request is blocked.
+     */
+    public static final int BLOCKED = -1;
+
+    private final FlowRule rule;
+    private final long flowId;
+    private final StripedWindowCounter passCounter;
+
+    private final String passLogKey;
+    private final String passRequestLogKey;
+    private final String blockLogKey;
+    private final String blockRequestLogKey;
+
+    public EnvoyRlsDescriptorLimiter(/*@Valid*/ FlowRule rule, StripedWindowCounter passCounter) {
+        AssertUtil.notNull(rule, "rule cannot be null");
+        AssertUtil.notNull(passCounter, "passCounter cannot be null");
+        this.rule = rule;
+        this.flowId = rule.getClusterConfig().getFlowId();
+        this.passCounter = passCounter;
+        this.passLogKey = "flow|pass|" + flowId;
+        this.passRequestLogKey = "flow|pass_request|" + flowId;
+        this.blockLogKey = "flow|block|" + flowId;
+        this.blockRequestLogKey = "flow|block_request|" + flowId;
+    }
+
+    /**
+     * Try to acquire tokens from the descriptor.
+     *
+     * @param acquireCount count to acquire
+     * @return remaining count (cut down to an integer) if passed, otherwise {@link #BLOCKED}
+     */
+    public int tryAcquire(int acquireCount) {
+        long now = TimeUtil.currentTimeMillis();
+        double latestQps = passCounter.getAvg(now);
+        double globalThreshold = rule.getCount() * ClusterServerConfigManager.getExceedCount();
+        double nextRemaining = globalThreshold - latestQps - acquireCount;
+
+        ClusterMetric metric = ClusterMetricStatistics.getMetric(flowId);
+        if (nextRemaining >= 0) {
+            passCounter.add(now, acquireCount);
+            if (metric != null) {
+                metric.add(ClusterFlowEvent.PASS, acquireCount);
+                metric.add(ClusterFlowEvent.PASS_REQUEST, 1);
+            }
+            ClusterServerStatLogUtil.log(passLogKey, acquireCount);
+            ClusterServerStatLogUtil.log(passRequestLogKey, 1);
+            return (int)nextRemaining;
+        } else {
+            if (metric != null) {
+                metric.add(ClusterFlowEvent.BLOCK, acquireCount);
+                metric.add(ClusterFlowEvent.BLOCK_REQUEST, 1);
+            }
+            ClusterServerStatLogUtil.log(blockLogKey, acquireCount);
+            ClusterServerStatLogUtil.log(blockRequestLogKey, 1);
+            return BLOCKED;
+        }
+    }
+
+    public FlowRule getRule() {
+        return rule;
+    }
+
+    public long getFlowId() {
+        return flowId;
+    }
+
+    StripedWindowCounter getPassCounter() {
+        return passCounter;
+    }
+
+    /**
+     * Create a limiter for the new rule, reusing the counter of this limiter if the window is unchanged,
+     * so that the statistics won't be reset when rules are reloaded.
+     *
+     * @param newRule the new rule with the same flow ID
+     * @return the new limiter
+     */
+    public EnvoyRlsDescriptorLimiter withRule(FlowRule newRule) {
+        int sampleCount = newRule.getClusterConfig().getSampleCount();
+        int intervalInMs = newRule.getClusterConfig().getWindowIntervalMs();
+        if (passCounter.getSampleCount() == sampleCount && passCounter.getIntervalInMs() == intervalInMs) {
+            return new EnvoyRlsDescriptorLimiter(newRule, passCounter);
+        }
+        return new EnvoyRlsDescriptorLimiter(newRule, new StripedWindowCounter(sampleCount, intervalInMs));
+    }
+
+    @Override
+    public String toString() {
+        return "EnvoyRlsDescriptorLimiter{" +
+            "flowId=" + flowId +
+            ", count=" + rule.getCount() +
+            '}';
+    }
+}
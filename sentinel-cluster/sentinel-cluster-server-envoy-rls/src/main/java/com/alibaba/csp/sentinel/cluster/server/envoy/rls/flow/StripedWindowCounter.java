@@ -0,0 +1,97 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.server.envoy.rls.flow;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import com.alibaba.csp.sentinel.util.AssertUtil;
+
+/**
+ * <p>A sliding window counter with preallocated buckets. Each bucket is backed by a {@link LongAdder},
+ * so concurrent updates are striped across cells instead of contending on a single value.</p>
+ *
+ * <p>Unlike {@code LeapArray}, reading the sum does not allocate, which makes it suitable for
+ * the per-descriptor hot path of the RLS server.</p>
+ *
+ * @since 1.8.7
+ */
+public class StripedWindowCounter {
+
+    private final int sampleCount;
+    private final int intervalInMs;
+    private final int windowLengthInMs;
+    private final Bucket[] buckets;
+
+    public StripedWindowCounter(int sampleCount, int intervalInMs) {
+        AssertUtil.isTrue(sampleCount > 0, "sampleCount should be positive");
+        AssertUtil.isTrue(intervalInMs > 0, "interval should be positive");
+        AssertUtil.isTrue(intervalInMs % sampleCount == 0, "time span needs to be evenly divided");
+        this.sampleCount = sampleCount;
+        this.intervalInMs = intervalInMs;
+        this.windowLengthInMs = intervalInMs / sampleCount;
+        this.buckets = new Bucket[sampleCount];
+        for (int i = 0; i < sampleCount; i++) {
+            buckets[i] = new Bucket();
+        }
+    }
+
+    public void add(long timeMillis, long count) {
+        currentBucket(timeMillis).counter.add(count);
+    }
+
+    public long getSum(long timeMillis) {
+        long sum = 0;
+        for (Bucket bucket : buckets) {
+            long start = bucket.windowStart;
+            if (start >= 0 && timeMillis - start < intervalInMs && start <= timeMillis) {
+                sum += bucket.counter.sum();
+            }
+        }
+        return sum;
+    }
+
+    public double getAvg(long timeMillis) {
+        return getSum(timeMillis) * 1000.0d / intervalInMs;
+    }
+
+    public int getSampleCount() {
+        return sampleCount;
+    }
+
+    public int getIntervalInMs() {
+        return intervalInMs;
+    }
+
+    private Bucket currentBucket(long timeMillis) {
+        long windowStart = timeMillis - timeMillis % windowLengthInMs;
+        Bucket bucket = buckets[(int)((timeMillis / windowLengthInMs) % sampleCount)];
+        if (bucket.windowStart < windowStart) {
+            synchronized (bucket) {
+                if (bucket.windowStart < windowStart) {
+                    bucket.counter.reset();
+                    bucket.windowStart = windowStart;
+                }
+            }
+        }
+        // If the bucket is newer than current time (e.g. clock moved backwards), just use it.
+        return bucket;
+    }
+
+    private static final class Bucket {
+        private volatile long windowStart = -1;
+        private final LongAdder counter = new LongAdder();
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.server.envoy.rls.rule;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.alibaba.csp.sentinel.cluster.server.envoy.rls.flow.EnvoyRlsDescriptorLimiter;
+import com.alibaba.csp.sentinel.cluster.server.envoy.rls.flow.StripedWindowCounter;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
+
+/**
+ * <p>Precompiled descriptor trie of Envoy RLS rules. The root level is keyed by domain, and each
+ * descriptor entry ({@code key -> value}) is one edge, so the limiter of a descriptor can be found
+ * by walking the entries directly, without building the resource key string.</p>
+ *
+ * <p>The trie is immutable once built. It is rebuilt by {@link EnvoyRlsRuleManager} when rules change.</p>
+ *
+ * @since 1.8.7
+ */
+public final class EnvoyRlsDescriptorTrie {
+
+    static final EnvoyRlsDescriptorTrie EMPTY = new EnvoyRlsDescriptorTrie(
+        new HashMap<String, Node>(0), new HashMap<Long, EnvoyRlsDescriptorLimiter>(0));
+
+    private final Map<String, Node> domainNodes;
+    private final Map<Long, EnvoyRlsDescriptorLimiter> limiterMap;
+
+    private EnvoyRlsDescriptorTrie(Map<String, Node> domainNodes, Map<Long, EnvoyRlsDescriptorLimiter> limiterMap) {
+        this.domainNodes = domainNodes;
+        this.limiterMap = limiterMap;
+    }
+
+    /**
+     * Build the trie from valid RLS rules. Counters of the descriptors with the same flow ID
+     * in the previous trie will be retained.
+     *
+     * @param rules    valid RLS rules
+     * @param previous previous trie, nullable
+     * @return the new trie
+     */
+    public static EnvoyRlsDescriptorTrie build(Collection<EnvoyRlsRule> rules, EnvoyRlsDescriptorTrie previous) {
+        Map<String, Node> domainNodes = new HashMap<>();
+        Map<Long, EnvoyRlsDescriptorLimiter> limiterMap = new HashMap<>();
+        for (EnvoyRlsRule rule : rules) {
+            Node domainNode = domainNodes.get(rule.getDomain());
+            if (domainNode == null) {
+                domainNode = new Node();
+                domainNodes.put(rule.getDomain(), domainNode);
+            }
+            for (EnvoyRlsRule.ResourceDescriptor descriptor : rule.getDescriptors()) {
+                FlowRule flowRule = EnvoySentinelRuleConverter.toSentinelFlowRule(rule.getDomain(), descriptor);
+                EnvoyRlsDescriptorLimiter limiter = newLimiter(flowRule, previous);
+
+                // Walk in the same order as the resource key is generated.
+                Node node = domainNode;
+                for (EnvoyRlsRule.KeyValueResource resource : descriptor.getResources()) {
+                    node = node.getOrCreateChild(resource.getKey(), resource.getValue());
+                }
+                node.limiter = limiter;
+                limiterMap.put(limiter.getFlowId(), limiter);
+            }
+        }
+        return new EnvoyRlsDescriptorTrie(domainNodes, limiterMap);
+    }
+
+    private static EnvoyRlsDescriptorLimiter newLimiter(FlowRule flowRule, EnvoyRlsDescriptorTrie previous) {
+        Long flowId = flowRule.getClusterConfig().getFlowId();
+        EnvoyRlsDescriptorLimiter old = previous == null ? null : previous.limiterMap.get(flowId);
+        if (old != null) {
+            return old.withRule(flowRule);
+        }
+        return new EnvoyRlsDescriptorLimiter(flowRule, new StripedWindowCounter(
+            flowRule.getClusterConfig().getSampleCount(), flowRule.getClusterConfig().getWindowIntervalMs()));
+    }
+
+    /**
+     * @param domain the RLS domain
+     * @return the root node of the domain, or null if there are no rules for the domain
+     */
+    public Node getDomainNode(String domain) {
+        return domainNodes.get(domain);
+    }
+
+    public EnvoyRlsDescriptorLimiter getLimiter(long flowId) {
+        return limiterMap.get(flowId);
+    }
+
+    public int size() {
+        return limiterMap.size();
+    }
+
+    public static final class Node {
+
+        private final Map<String, Map<String, Node>> children = new HashMap<>(4);
+        private EnvoyRlsDescriptorLimiter limiter;
+
+        /**
+         * @param key   key of the descriptor entry
+         * @param value value of the descriptor entry
+         * @return the child node of the entry, or null if absent
+         */
+        public Node next(String key, String value) {
+            Map<String, Node> valueMap = children.get(key);
+            return valueMap == null ? null : valueMap.get(value);
+        }
+
+        /**
+         * @return the limiter if a descriptor ends at this node, otherwise null
+         */
+        public EnvoyRlsDescriptorLimiter getLimiter() {
+            return limiter;
+        }
+
+        private Node getOrCreateChild(String key, String value) {
+            Map<String, Node> valueMap = children.get(key);
+            if (valueMap == null) {
+                valueMap = new HashMap<>(4);
+                children.put(key, valueMap);
+            }
+            Node child = valueMap.get(value);
+            if (child == null) {
+                child = new Node();
+                valueMap.put(value, child);
+            }
+            return child;
+        }
+    }
+}
@@ -43,6 +43,11 @@ public final class EnvoyRlsRuleManager {
 
     private static final ConcurrentMap<String, EnvoyRlsRule> RULE_MAP = new ConcurrentHashMap<>();
 
+    /**
+     * Precompiled descriptor trie of current rules, rebuilt when rules change.
+     */
+    private static volatile EnvoyRlsDescriptorTrie descriptorTrie = EnvoyRlsDescriptorTrie.EMPTY;
+
     private static final PropertyListener<List<EnvoyRlsRule>> PROPERTY_LISTENER = new EnvoyRlsRulePropertyListener();
     private static SentinelProperty<List<EnvoyRlsRule>> currentProperty = new DynamicSentinelProperty<>();
 
@@ -79,6 +84,16 @@ public final class EnvoyRlsRuleManager {
         return new ArrayList<>(RULE_MAP.values());
     }
 
+    /**
+     * Get the precompiled descriptor trie of current rules.
+     *
+     * @return the descriptor trie, never null
+     * @since 1.8.7
+     */
+    public static EnvoyRlsDescriptorTrie getDescriptorTrie() {
+        return descriptorTrie;
+    }
+
     static final class EnvoyRlsRulePropertyListener extends SimplePropertyListener<List<EnvoyRlsRule>> {
 
         @Override
@@ -95,6 +110,7 @@ public final class EnvoyRlsRuleManager {
 
             // Use the "default" namespace.
             ClusterFlowRuleManager.loadRules(ServerConstants.DEFAULT_NAMESPACE, flowRules);
+            descriptorTrie = EnvoyRlsDescriptorTrie.build(ruleMap.values(), descriptorTrie);
         }
 
         Map<String, EnvoyRlsRule> generateRuleMap(List<EnvoyRlsRule> conf) {
@@ -2,10 +2,10 @@ package com.alibaba.csp.sentinel.cluster.server.envoy.rls.service.v3;
 
 import com.alibaba.csp.sentinel.cluster.TokenResult;
 import com.alibaba.csp.sentinel.cluster.TokenResultStatus;
-import com.alibaba.csp.sentinel.cluster.flow.rule.ClusterFlowRuleManager;
-import com.alibaba.csp.sentinel.cluster.server.envoy.rls.flow.SimpleClusterFlowChecker;
+import com.alibaba.csp.sentinel.cluster.server.envoy.rls.flow.EnvoyRlsDescriptorLimiter;
 import com.alibaba.csp.sentinel.cluster.server.envoy.rls.log.RlsAccessLogger;
-import com.alibaba.csp.sentinel.cluster.server.envoy.rls.rule.EnvoySentinelRuleConverter;
+import com.alibaba.csp.sentinel.cluster.server.envoy.rls.rule.EnvoyRlsDescriptorTrie;
+import com.alibaba.csp.sentinel.cluster.server.envoy.rls.rule.EnvoyRlsRuleManager;
 import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
 import com.alibaba.csp.sentinel.util.function.Tuple2;
 import com.google.protobuf.TextFormat;
@@ -18,11 +18,6 @@ import io.envoyproxy.envoy.service.ratelimit.v3.RateLimitResponse.DescriptorStat
 import io.envoyproxy.envoy.service.ratelimit.v3.RateLimitServiceGrpc;
 import io.grpc.stub.StreamObserver;
 
-import java.util.ArrayList;
-import java.util.List;
-
-import static com.alibaba.csp.sentinel.cluster.server.envoy.rls.rule.EnvoySentinelRuleConverter.SEPARATOR;
-
 /**
  * gRPC限流入口，实现envoy rls v3 api
  *
@@ -30,6 +25,10 @@ import static com.alibaba.csp.sentinel.cluster.server.envoy.rls.rule.EnvoySentin
  * @date 2021/8/4
  */
 public class SentinelEnvoyRlsServiceImpl extends RateLimitServiceGrpc.RateLimitServiceImplBase {
+
+    private static final Tuple2<FlowRule, TokenResult> NO_RULE_RESULT = Tuple2.of(null,
+            new TokenResult(TokenResultStatus.NO_RULE_EXISTS));
+
     @Override
     public void shouldRateLimit(RateLimitRequest request, StreamObserver<RateLimitResponse> responseObserver) {
         int acquireCount = request.getHitsAddend();
@@ -45,23 +44,22 @@ public class SentinelEnvoyRlsServiceImpl extends RateLimitServiceGrpc.RateLimitS
 
         String domain = request.getDomain();
         boolean blocked = false;
-        List<DescriptorStatus> statusList = new ArrayList<>(request.getDescriptorsCount());
-        for (RateLimitDescriptor descriptor : request.getDescriptorsList()) {
+        RateLimitResponse.Builder responseBuilder = RateLimitResponse.newBuilder();
+        for (int i = 0; i < request.getDescriptorsCount(); i++) {
+            RateLimitDescriptor descriptor = request.getDescriptors(i);
             Tuple2<FlowRule, TokenResult> t = checkToken(domain, descriptor, acquireCount);
             TokenResult r = t.r2;
 
             printAccessLogIfNecessary(domain, descriptor, r);
 
-            if (r.getStatus() == TokenResultStatus.NO_RULE_EXISTS) {
-                // If the rule of the descriptor is absent, the request will pass directly.
-                r.setStatus(TokenResultStatus.OK);
-            }
-
-            if (!blocked && r.getStatus() != TokenResultStatus.OK) {
+            // If the rule of the descriptor is absent, the request will pass directly.
+            boolean passed = r.getStatus() == TokenResultStatus.OK
+                || r.getStatus() == TokenResultStatus.NO_RULE_EXISTS;
+            if (!passed) {
                 blocked = true;
             }
 
-            Code statusCode = r.getStatus() == TokenResultStatus.OK ? Code.OK : Code.OVER_LIMIT;
+            Code statusCode = passed ? Code.OK : Code.OVER_LIMIT;
             DescriptorStatus.Builder descriptorStatusBuilder = DescriptorStatus.newBuilder()
                     .setCode(statusCode);
             if (t.r1 != null) {
@@ -71,13 +69,12 @@ public class SentinelEnvoyRlsServiceImpl extends RateLimitServiceGrpc.RateLimitS
                                 .build())
                         .setLimitRemaining(r.getRemaining());
             }
-            statusList.add(descriptorStatusBuilder.build());
+            responseBuilder.addStatuses(descriptorStatusBuilder.build());
         }
 
         Code overallStatus = blocked ? Code.OVER_LIMIT :Code.OK;
-        RateLimitResponse response = RateLimitResponse.newBuilder()
+        RateLimitResponse response = responseBuilder
                 .setOverallCode(overallStatus)
-                .addAllStatuses(statusList)
                 .build();
 
         responseObserver.onNext(response);
@@ -97,22 +94,31 @@ public class SentinelEnvoyRlsServiceImpl extends RateLimitServiceGrpc.RateLimitS
     }
 
     protected Tuple2<FlowRule, TokenResult> checkToken(String domain, RateLimitDescriptor descriptor, int acquireCount) {
-        long ruleId = EnvoySentinelRuleConverter.generateFlowId(generateKey(domain, descriptor));
-
-        FlowRule rule = ClusterFlowRuleManager.getFlowRuleById(ruleId);
-        if (rule == null) {
+        EnvoyRlsDescriptorLimiter limiter = matchLimiter(domain, descriptor);
+        if (limiter == null) {
             // Pass if the target rule is absent.
-            return Tuple2.of(null, new TokenResult(TokenResultStatus.NO_RULE_EXISTS));
+            return NO_RULE_RESULT;
+        }
+        int remaining = limiter.tryAcquire(acquireCount);
+        if (remaining == EnvoyRlsDescriptorLimiter.BLOCKED) {
+            return Tuple2.of(limiter.getRule(), new TokenResult(TokenResultStatus.BLOCKED)
+                    .setRemaining(0)
+                    .setWaitInMs(0));
         }
-        // If the rule is present, it should be valid.
-        return Tuple2.of(rule, SimpleClusterFlowChecker.acquireClusterToken(rule, acquireCount));
+        return Tuple2.of(limiter.getRule(), new TokenResult(TokenResultStatus.OK)
+                .setRemaining(remaining)
+                .setWaitInMs(0));
     }
 
-    private String generateKey(String domain, RateLimitDescriptor descriptor) {
-        StringBuilder sb = new StringBuilder(domain);
-        for (RateLimitDescriptor.Entry resource : descriptor.getEntriesList()) {
-            sb.append(SEPARATOR).append(resource.getKey()).append(SEPARATOR).append(resource.getValue());
+    /**
+     * Find the limiter of the descriptor by walking the precompiled descriptor trie.
+     */
+    private EnvoyRlsDescriptorLimiter matchLimiter(String domain, RateLimitDescriptor descriptor) {
+        EnvoyRlsDescriptorTrie.Node node = EnvoyRlsRuleManager.getDescriptorTrie().getDomainNode(domain);
+        for (int i = 0; node != null && i < descriptor.getEntriesCount(); i++) {
+            RateLimitDescriptor.Entry entry = descriptor.getEntries(i);
+            node = node.next(entry.getKey(), entry.getValue());
         }
-        return sb.toString();
+        return node == null ? null : node.getLimiter();
     }
 }
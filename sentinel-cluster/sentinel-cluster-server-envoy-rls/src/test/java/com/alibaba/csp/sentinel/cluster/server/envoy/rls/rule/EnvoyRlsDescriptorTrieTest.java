@@ -0,0 +1,98 @@
+/*
+ * Copyright 1999-2019 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.server.envoy.rls.rule;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import com.alibaba.csp.sentinel.cluster.server.envoy.rls.flow.EnvoyRlsDescriptorLimiter;
+import com.alibaba.csp.sentinel.cluster.server.envoy.rls.rule.EnvoyRlsRule.KeyValueResource;
+import com.alibaba.csp.sentinel.cluster.server.envoy.rls.rule.EnvoyRlsRule.ResourceDescriptor;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class EnvoyRlsDescriptorTrieTest {
+
+    @Test
+    public void testMatchDescriptor() {
+        String domain = "testMatchDescriptor";
+        EnvoyRlsDescriptorTrie trie = EnvoyRlsDescriptorTrie.build(
+            Collections.singletonList(newRule(domain, 10d)), null);
+
+        assertEquals(2, trie.size());
+        assertNull(trie.getDomainNode("absent"));
+        EnvoyRlsDescriptorTrie.Node domainNode = trie.getDomainNode(domain);
+        assertNotNull(domainNode);
+        assertNull(domainNode.getLimiter());
+
+        EnvoyRlsDescriptorTrie.Node node = domainNode.next("k1", "v1");
+        assertNotNull(node);
+        EnvoyRlsDescriptorLimiter limiter = node.getLimiter();
+        assertNotNull(limiter);
+        assertEquals(10d, limiter.getRule().getCount(), 0.01);
+        String key = EnvoySentinelRuleConverter.generateKey(domain,
+            new ResourceDescriptor(Collections.singleton(new KeyValueResource("k1", "v1")), 10d));
+        assertEquals(EnvoySentinelRuleConverter.generateFlowId(key), limiter.getFlowId());
+
+        assertNull(domainNode.next("k1", "v2"));
+        assertNull(domainNode.next("k2", "v1"));
+        // Only the prefix of a descriptor.
+        assertNotNull(domainNode.next("k2", "v2"));
+        assertNull(domainNode.next("k2", "v2").getLimiter());
+        assertNotNull(domainNode.next("k2", "v2").next("k3", "v3").getLimiter());
+    }
+
+    @Test
+    public void testLimiterAndRebuild() {
+        String domain = "testLimiterAndRebuild";
+        EnvoyRlsDescriptorTrie trie = EnvoyRlsDescriptorTrie.build(
+            Collections.singletonList(newRule(domain, 2d)), null);
+        EnvoyRlsDescriptorLimiter limiter = trie.getDomainNode(domain).next("k1", "v1").getLimiter();
+
+        assertEquals(1, limiter.tryAcquire(1));
+        assertEquals(0, limiter.tryAcquire(1));
+        assertEquals(EnvoyRlsDescriptorLimiter.BLOCKED, limiter.tryAcquire(1));
+
+        // Statistics should be retained when rules are reloaded.
+        EnvoyRlsDescriptorTrie newTrie = EnvoyRlsDescriptorTrie.build(
+            Collections.singletonList(newRule(domain, 3d)), trie);
+        EnvoyRlsDescriptorLimiter newLimiter = newTrie.getDomainNode(domain).next("k1", "v1").getLimiter();
+        assertNotSame(limiter, newLimiter);
+        assertEquals(0, newLimiter.tryAcquire(1));
+        assertEquals(EnvoyRlsDescriptorLimiter.BLOCKED, newLimiter.tryAcquire(1));
+    }
+
+    private EnvoyRlsRule newRule(String domain, double count) {
+        EnvoyRlsRule rlsRule = new EnvoyRlsRule();
+        rlsRule.setDomain(domain);
+        List<ResourceDescriptor> descriptors = new ArrayList<>();
+        descriptors.add(new ResourceDescriptor(Collections.singleton(new KeyValueResource("k1", "v1")), count));
+        ResourceDescriptor d2 = new ResourceDescriptor();
+        d2.setCount(count);
+        Set<KeyValueResource> resources = new LinkedHashSet<>();
+        resources.add(new KeyValueResource("k2", "v2"));
+        resources.add(new KeyValueResource("k3", "v3"));
+        d2.setResources(resources);
+        descriptors.add(d2);
+        rlsRule.setDescriptors(descriptors);
+        return rlsRule;
+    }
+}
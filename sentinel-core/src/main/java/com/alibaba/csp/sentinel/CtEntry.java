@@ -68,7 +68,8 @@ class CtEntry extends Entry {
             return;
         }
         this.parent = context.getCurEntry();
-        if (parent != null) {
+        // The entry a context is forked from belongs to another thread, so leave it untouched.
+        if (parent != null && parent != context.getForkEntry()) {
             ((CtEntry) parent).child = this;
         }
         context.setCurEntry(this);
@@ -108,7 +109,7 @@ class CtEntry extends Entry {
                     : context.getCurEntry().getResourceWrapper().getName();
                 // Clean previous call stack.
                 CtEntry e = (CtEntry) context.getCurEntry();
-                while (e != null) {
+                while (e != null && e != context.getForkEntry()) {
                     e.exit(count, args);
                     e = (CtEntry) e.parent;
                 }
@@ -128,7 +129,7 @@ class CtEntry extends Entry {
 
                 // Restore the call stack.
                 context.setCurEntry(parent);
-                if (parent != null) {
+                if (parent != null && parent != context.getForkEntry()) {
                     ((CtEntry) parent).child = null;
                 }
                 if (parent == null) {
@@ -53,6 +53,12 @@ public class CtSph implements Sph {
 
     private static final Object LOCK = new Object();
 
+    /**
+     * Version of the slot chain map, which is increased when the map is reset,
+     * so that the slot chains resolved by {@link SentinelResourceHandle} will be resolved again.
+     */
+    private static volatile int chainMapVersion = 0;
+
     private AsyncEntry asyncEntryWithNoChain(ResourceWrapper resourceWrapper, Context context) {
         AsyncEntry entry = new AsyncEntry(resourceWrapper, null, context);
         entry.initAsyncContext();
@@ -63,6 +69,12 @@ public class CtSph implements Sph {
 
     private AsyncEntry asyncEntryWithPriorityInternal(ResourceWrapper resourceWrapper, int count, boolean prioritized,
                                                       Object... args) throws BlockException {
+        return asyncEntryWithPriorityInternal(resourceWrapper, null, count, prioritized, args);
+    }
+
+    private AsyncEntry asyncEntryWithPriorityInternal(ResourceWrapper resourceWrapper, SentinelResourceHandle handle,
+                                                      int count, boolean prioritized, Object... args)
+        throws BlockException {
         Context context = ContextUtil.getContext();
         if (context instanceof NullContext) {
             // The {@link NullContext} indicates that the amount of context has exceeded the threshold,
@@ -79,7 +91,7 @@ public class CtSph implements Sph {
             return asyncEntryWithNoChain(resourceWrapper, context);
         }
 
-        ProcessorSlot<Object> chain = lookProcessChain(resourceWrapper);
+        ProcessorSlot<Object> chain = handle == null ? lookProcessChain(resourceWrapper) : lookProcessChain(handle);
 
         // Means processor cache size exceeds {@link Constants.MAX_SLOT_CHAIN_SIZE}, so no rule checking will be done.
         if (chain == null) {
@@ -87,6 +99,7 @@ public class CtSph implements Sph {
         }
 
         AsyncEntry asyncEntry = new AsyncEntry(resourceWrapper, chain, context, count, args);
+        setUpParentResourceFor(asyncEntry, handle);
         try {
             chain.entry(context, resourceWrapper, null, count, prioritized, args);
             // Initiate the async context only when the entry successfully passed the slot chain.
@@ -116,6 +129,11 @@ public class CtSph implements Sph {
 
     private Entry entryWithPriority(ResourceWrapper resourceWrapper, int count, boolean prioritized, Object... args)
         throws BlockException {
+        return entryWithPriority(resourceWrapper, null, count, prioritized, args);
+    }
+
+    private Entry entryWithPriority(ResourceWrapper resourceWrapper, SentinelResourceHandle handle, int count,
+                                   boolean prioritized, Object... args) throws BlockException {
         Context context = ContextUtil.getContext();
         if (context instanceof NullContext) {
             // The {@link NullContext} indicates that the amount of context has exceeded the threshold,
@@ -135,7 +153,7 @@ public class CtSph implements Sph {
             return new CtEntry(resourceWrapper, null, context);
         }
         // 构建规则检查过滤器链
-        ProcessorSlot<Object> chain = lookProcessChain(resourceWrapper);
+        ProcessorSlot<Object> chain = handle == null ? lookProcessChain(resourceWrapper) : lookProcessChain(handle);
 
         /*
          * Means amount of resources (slot chain) exceeds {@link Constants.MAX_SLOT_CHAIN_SIZE},
@@ -148,6 +166,7 @@ public class CtSph implements Sph {
 
         // Sentinel规则责任链开始调用执行
         Entry e = new CtEntry(resourceWrapper, chain, context, count, args);
+        setUpParentResourceFor(e, handle);
         try {
             chain.entry(context, resourceWrapper, null, count, prioritized, args);
         } catch (BlockException e1) {
@@ -161,6 +180,15 @@ public class CtSph implements Sph {
         return e;
     }
 
+    /**
+     * The rules of the parent resource will be checked along with the resource in the same pass of the slot chain.
+     */
+    private void setUpParentResourceFor(Entry entry, SentinelResourceHandle handle) {
+        if (handle != null && handle.getParent() != null) {
+            entry.setParentResourceWrapper(handle.getParent().getResource());
+        }
+    }
+
     /**
      * Do all {@link Rule}s checking about the resource.
      * 对资源进行所有Rule检查。
@@ -178,10 +206,26 @@ public class CtSph implements Sph {
      * @return {@link Entry} represents this call
      * @throws BlockException if any rule's threshold is exceeded
      */
+    @Override
     public Entry entry(ResourceWrapper resourceWrapper, int count, Object... args) throws BlockException {
         return entryWithPriority(resourceWrapper, count, false, args);
     }
 
+    @Override
+    public AsyncEntry asyncEntry(ResourceWrapper resourceWrapper, int count, Object... args) throws BlockException {
+        return asyncEntryInternal(resourceWrapper, count, args);
+    }
+
+    @Override
+    public Entry entry(SentinelResourceHandle handle, int count, Object... args) throws BlockException {
+        return entryWithPriority(handle.getResource(), handle, count, false, args);
+    }
+
+    @Override
+    public AsyncEntry asyncEntry(SentinelResourceHandle handle, int count, Object... args) throws BlockException {
+        return asyncEntryWithPriorityInternal(handle.getResource(), handle, count, false, args);
+    }
+
     /**
      * Get {@link ProcessorSlotChain} of the resource. new {@link ProcessorSlotChain} will
      * be created if the resource doesn't relate one.
@@ -222,6 +266,26 @@ public class CtSph implements Sph {
         return chain;
     }
 
+    /**
+     * Get the slot chain of the resource of the handle. The resolved slot chain is kept in the handle,
+     * so it will be looked up only once until the slot chain map is reset.
+     *
+     * @param handle the resource handle
+     * @return the slot chain, or null if the amount of slot chains exceeds {@link Constants#MAX_SLOT_CHAIN_SIZE}
+     */
+    ProcessorSlot<Object> lookProcessChain(SentinelResourceHandle handle) {
+        int version = chainMapVersion;
+        ProcessorSlotChain chain = handle.getResolvedChain(version);
+        if (chain != null) {
+            return chain;
+        }
+        ProcessorSlot<Object> slot = lookProcessChain(handle.getResource());
+        if (slot instanceof ProcessorSlotChain) {
+            handle.setResolvedChain((ProcessorSlotChain) slot, version);
+        }
+        return slot;
+    }
+
     /**
      * Get current size of created slot chains.
      *
@@ -239,6 +303,7 @@ public class CtSph implements Sph {
      */
     static void resetChainMap() {
         chainMap.clear();
+        chainMapVersion++;
     }
 
     /**
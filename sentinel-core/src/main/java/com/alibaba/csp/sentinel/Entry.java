@@ -19,6 +19,7 @@ import com.alibaba.csp.sentinel.slots.block.BlockException;
 import com.alibaba.csp.sentinel.util.TimeUtil;
 import com.alibaba.csp.sentinel.util.function.BiConsumer;
 import com.alibaba.csp.sentinel.context.ContextUtil;
+import com.alibaba.csp.sentinel.node.DefaultNode;
 import com.alibaba.csp.sentinel.node.Node;
 import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
 import com.alibaba.csp.sentinel.context.Context;
@@ -74,6 +75,17 @@ public abstract class Entry implements AutoCloseable {
     private Throwable error;
     private BlockException blockError;
 
+    /**
+     * The parent resource (e.g. the RPC interface of an RPC method), whose rules are checked and
+     * statistics are recorded along with this entry in the same pass of the slot chain.
+     */
+    private ResourceWrapper parentResourceWrapper;
+    /**
+     * {@link Node} of the parent resource for rule checking. It has no statistics of its own, the statistics
+     * of the parent resource are rolled up to its cluster node through the cluster node of this entry.
+     */
+    private DefaultNode parentResourceNode;
+
     protected final ResourceWrapper resourceWrapper;
 
     protected final int count;
@@ -196,6 +208,34 @@ public abstract class Entry implements AutoCloseable {
         this.originNode = originNode;
     }
 
+    /**
+     * Get the parent resource of this entry, see {@link SentinelResourceHandle#getParent()}.
+     *
+     * @return the parent resource, or null if this entry has no parent resource
+     * @since 1.8.7
+     */
+    public ResourceWrapper getParentResourceWrapper() {
+        return parentResourceWrapper;
+    }
+
+    public void setParentResourceWrapper(ResourceWrapper parentResourceWrapper) {
+        this.parentResourceWrapper = parentResourceWrapper;
+    }
+
+    /**
+     * Get {@link Node} of the parent resource of this entry.
+     *
+     * @return node of the parent resource, or null if this entry has no parent resource
+     * @since 1.8.7
+     */
+    public DefaultNode getParentResourceNode() {
+        return parentResourceNode;
+    }
+
+    public void setParentResourceNode(DefaultNode parentResourceNode) {
+        this.parentResourceNode = parentResourceNode;
+    }
+
     /**
      * Like {@code CompletableFuture} since JDK 8, it guarantees specified handler
      * is invoked when this entry terminated (exited), no matter it's blocked or permitted.
@@ -0,0 +1,142 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel;
+
+import java.lang.reflect.Method;
+
+import com.alibaba.csp.sentinel.slotchain.MethodResourceWrapper;
+import com.alibaba.csp.sentinel.slotchain.ProcessorSlotChain;
+import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
+import com.alibaba.csp.sentinel.slotchain.StringResourceWrapper;
+import com.alibaba.csp.sentinel.util.AssertUtil;
+
+/**
+ * <p>A precompiled entry point of a resource. The handle is expected to be obtained once (e.g. when
+ * an RPC filter or interceptor is initialized, or when the metadata of an annotated method is resolved)
+ * and reused for every invocation via {@link SphU#entry(SentinelResourceHandle, int, Object...)}.</p>
+ *
+ * <p>Entering with a handle creates no resource wrapper, and the handle keeps a direct reference to
+ * the {@link ProcessorSlotChain} of the resource once it's been resolved, so the slot chain lookup
+ * by the resource is skipped as well.</p>
+ *
+ * <p>A handle may have a parent handle (e.g. the RPC interface of an RPC method). Entering the handle
+ * checks the rules of both resources in a single pass of the slot chain, and the statistics of the
+ * resource are rolled up to the parent resource through its {@link com.alibaba.csp.sentinel.node.ClusterNode},
+ * instead of entering the parent resource separately. Note that the parent resource has no node of its own
+ * in the invocation tree, so the rules of the parent resource with {@code STRATEGY_CHAIN} don't take effect.</p>
+ *
+ * @since 1.8.7
+ */
+public final class SentinelResourceHandle {
+
+    private final ResourceWrapper resource;
+    private final SentinelResourceHandle parent;
+
+    private volatile ResolvedChain resolvedChain;
+
+    private SentinelResourceHandle(ResourceWrapper resource, SentinelResourceHandle parent) {
+        AssertUtil.notNull(resource, "resource cannot be null");
+        AssertUtil.isTrue(parent == null || parent.parent == null, "nested parent resource is not supported");
+        this.resource = resource;
+        this.parent = parent;
+    }
+
+    private SentinelResourceHandle(ResourceWrapper resource) {
+        this(resource, null);
+    }
+
+    public static SentinelResourceHandle of(ResourceWrapper resource) {
+        return new SentinelResourceHandle(resource);
+    }
+
+    public static SentinelResourceHandle of(String name, int resourceType, EntryType entryType) {
+        AssertUtil.assertNotBlank(name, "resource name cannot be blank");
+        AssertUtil.notNull(entryType, "entryType cannot be null");
+        return new SentinelResourceHandle(new StringResourceWrapper(name, entryType, resourceType));
+    }
+
+    /**
+     * Create the handle of a resource which has a parent resource.
+     *
+     * @param name         resource name
+     * @param resourceType classification of the resource
+     * @param entryType    entry type
+     * @param parent       handle of the parent resource, which should not have a parent itself
+     * @return the handle
+     */
+    public static SentinelResourceHandle of(String name, int resourceType, EntryType entryType,
+                                            SentinelResourceHandle parent) {
+        AssertUtil.assertNotBlank(name, "resource name cannot be blank");
+        AssertUtil.notNull(entryType, "entryType cannot be null");
+        AssertUtil.notNull(parent, "parent cannot be null");
+        return new SentinelResourceHandle(new StringResourceWrapper(name, entryType, resourceType), parent);
+    }
+
+    public static SentinelResourceHandle of(Method method, int resourceType, EntryType entryType) {
+        AssertUtil.notNull(method, "method cannot be null");
+        AssertUtil.notNull(entryType, "entryType cannot be null");
+        return new SentinelResourceHandle(new MethodResourceWrapper(method, entryType, resourceType));
+    }
+
+    public ResourceWrapper getResource() {
+        return resource;
+    }
+
+    public String getName() {
+        return resource.getName();
+    }
+
+    /**
+     * @return handle of the parent resource, or null if absent
+     */
+    public SentinelResourceHandle getParent() {
+        return parent;
+    }
+
+    /**
+     * @param chainMapVersion current version of the slot chain map in {@link CtSph}
+     * @return the resolved slot chain, or null if it's not resolved yet or resolved in an old version
+     */
+    ProcessorSlotChain getResolvedChain(int chainMapVersion) {
+        ResolvedChain resolved = this.resolvedChain;
+        if (resolved == null || resolved.chainMapVersion != chainMapVersion) {
+            return null;
+        }
+        return resolved.chain;
+    }
+
+    void setResolvedChain(ProcessorSlotChain chain, int chainMapVersion) {
+        this.resolvedChain = new ResolvedChain(chain, chainMapVersion);
+    }
+
+    @Override
+    public String toString() {
+        return "SentinelResourceHandle{" +
+            "resource=" + resource +
+            ", parent=" + (parent == null ? null : parent.getResource()) +
+            '}';
+    }
+
+    private static final class ResolvedChain {
+        private final ProcessorSlotChain chain;
+        private final int chainMapVersion;
+
+        ResolvedChain(ProcessorSlotChain chain, int chainMapVersion) {
+            this.chain = chain;
+            this.chainMapVersion = chainMapVersion;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.alibaba.csp.sentinel.util.AssertUtil;
+
+/**
+ * <p>Cache of {@link SentinelResourceHandle} by resource name, for adapters whose resources share
+ * the same resource type and entry type (e.g. the outbound resources of an RPC consumer filter).
+ * The handle of each resource is created once and reused afterwards.</p>
+ *
+ * <p>The amount of cached handles is capped by {@link Constants#MAX_SLOT_CHAIN_SIZE}, as no more
+ * slot chain will be created beyond that. Handles of the exceeding resources are not cached.</p>
+ *
+ * @since 1.8.7
+ */
+public final class SentinelResourceHandleCache {
+
+    private final int resourceType;
+    private final EntryType entryType;
+
+    private final ConcurrentMap<String, SentinelResourceHandle> handleMap = new ConcurrentHashMap<>();
+
+    public SentinelResourceHandleCache(int resourceType, EntryType entryType) {
+        AssertUtil.notNull(entryType, "entryType cannot be null");
+        this.resourceType = resourceType;
+        this.entryType = entryType;
+    }
+
+    /**
+     * Get the handle of the given resource.
+     *
+     * @param resourceName name of the resource
+     * @return the handle of the resource
+     */
+    public SentinelResourceHandle get(String resourceName) {
+        SentinelResourceHandle handle = handleMap.get(resourceName);
+        if (handle != null) {
+            return handle;
+        }
+        return cache(resourceName, SentinelResourceHandle.of(resourceName, resourceType, entryType));
+    }
+
+    /**
+     * Get the handle of the given resource, whose parent is the given parent resource. The parent
+     * is bound when the handle is created, so a resource should always come with the same parent.
+     *
+     * @param resourceName       name of the resource
+     * @param parentResourceName name of the parent resource
+     * @return the handle of the resource
+     */
+    public SentinelResourceHandle get(String resourceName, String parentResourceName) {
+        SentinelResourceHandle handle = handleMap.get(resourceName);
+        if (handle != null) {
+            return handle;
+        }
+        return cache(resourceName, SentinelResourceHandle.of(resourceName, resourceType, entryType,
+            get(parentResourceName)));
+    }
+
+    private SentinelResourceHandle cache(String resourceName, SentinelResourceHandle handle) {
+        if (handleMap.size() >= Constants.MAX_SLOT_CHAIN_SIZE) {
+            return handle;
+        }
+        SentinelResourceHandle existing = handleMap.putIfAbsent(resourceName, handle);
+        return existing == null ? handle : existing;
+    }
+
+    public int size() {
+        return handleMap.size();
+    }
+
+    public void clear() {
+        handleMap.clear();
+    }
+}
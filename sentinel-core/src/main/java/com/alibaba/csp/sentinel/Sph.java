@@ -17,6 +17,7 @@ package com.alibaba.csp.sentinel;
 
 import java.lang.reflect.Method;
 
+import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
 import com.alibaba.csp.sentinel.slots.block.BlockException;
 import com.alibaba.csp.sentinel.slots.system.SystemRule;
 
@@ -193,4 +194,76 @@ public interface Sph extends SphResourceTypeSupport {
      */
     Entry entryWithPriority(String name, EntryType trafficType, int batchCount, boolean prioritized, Object... args)
         throws BlockException;
+
+    /**
+     * Record statistics and perform rule checking for the given resource. The resource wrapper
+     * could be created once and reused by the caller (e.g. cached per URL pattern), so that
+     * no resource wrapper is created for every invocation.
+     * <p>
+     * The default implementation falls back to {@link #entry(String, EntryType, int, Object...)}, so the
+     * resource type is not kept. Implementations should override it.
+     *
+     * @param resource   the protected resource, which carries the name, traffic type and resource type
+     * @param batchCount the amount of calls within the invocation (e.g. batchCount=2 means request for 2 tokens)
+     * @param args       args for parameter flow control or customized slots
+     * @return the {@link Entry} of this invocation (used for mark the invocation complete and get context data)
+     * @throws BlockException if the block criteria is met
+     * @since 1.8.7
+     */
+    default Entry entry(ResourceWrapper resource, int batchCount, Object... args) throws BlockException {
+        return entry(resource.getName(), resource.getEntryType(), batchCount, args);
+    }
+
+    /**
+     * Create a protected asynchronous resource with the given resource wrapper.
+     * <p>
+     * The default implementation falls back to {@link #asyncEntry(String, EntryType, int, Object...)}, so the
+     * resource type is not kept. Implementations should override it.
+     *
+     * @param resource   the protected resource, which carries the name, traffic type and resource type
+     * @param batchCount the amount of calls within the invocation (e.g. batchCount=2 means request for 2 tokens)
+     * @param args       args for parameter flow control or customized slots
+     * @return created asynchronous entry
+     * @throws BlockException if the block criteria is met
+     * @since 1.8.7
+     */
+    default AsyncEntry asyncEntry(ResourceWrapper resource, int batchCount, Object... args)
+        throws BlockException {
+        return asyncEntry(resource.getName(), resource.getEntryType(), batchCount, args);
+    }
+
+    /**
+     * Record statistics and perform rule checking for the resource of the given handle.
+     * <p>
+     * The default implementation enters the resource of the handle, ignoring its parent.
+     * Implementations should override it.
+     *
+     * @param handle     the precompiled handle of the protected resource
+     * @param batchCount the amount of calls within the invocation (e.g. batchCount=2 means request for 2 tokens)
+     * @param args       args for parameter flow control or customized slots
+     * @return the {@link Entry} of this invocation (used for mark the invocation complete and get context data)
+     * @throws BlockException if the block criteria is met
+     * @since 1.8.7
+     */
+    default Entry entry(SentinelResourceHandle handle, int batchCount, Object... args) throws BlockException {
+        return entry(handle.getResource(), batchCount, args);
+    }
+
+    /**
+     * Create a protected asynchronous resource with the given handle.
+     * <p>
+     * The default implementation enters the resource of the handle, ignoring its parent.
+     * Implementations should override it.
+     *
+     * @param handle     the precompiled handle of the protected resource
+     * @param batchCount the amount of calls within the invocation (e.g. batchCount=2 means request for 2 tokens)
+     * @param args       args for parameter flow control or customized slots
+     * @return created asynchronous entry
+     * @throws BlockException if the block criteria is met
+     * @since 1.8.7
+     */
+    default AsyncEntry asyncEntry(SentinelResourceHandle handle, int batchCount, Object... args)
+        throws BlockException {
+        return asyncEntry(handle.getResource(), batchCount, args);
+    }
 }
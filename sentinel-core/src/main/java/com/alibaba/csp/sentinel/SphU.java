@@ -17,6 +17,7 @@ package com.alibaba.csp.sentinel;
 
 import java.lang.reflect.Method;
 
+import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
 import com.alibaba.csp.sentinel.slots.block.BlockException;
 import com.alibaba.csp.sentinel.slots.block.Rule;
 import com.alibaba.csp.sentinel.slots.system.SystemRule;
@@ -370,4 +371,106 @@ public class SphU {
                                         Object[] args) throws BlockException {
         return Env.sph.asyncEntryWithType(name, resourceType, trafficType, batchCount, false, args);
     }
+
+    /**
+     * Record statistics and perform rule checking for the given resource.
+     *
+     * @param resource the protected resource, which carries the name, traffic type and resource type
+     * @return the {@link Entry} of this invocation (used for mark the invocation complete and get context data)
+     * @throws BlockException if the block criteria is met (e.g. metric exceeded the threshold of any rules)
+     * @since 1.8.7
+     */
+    public static Entry entry(ResourceWrapper resource) throws BlockException {
+        return Env.sph.entry(resource, 1, OBJECTS0);
+    }
+
+    /**
+     * Record statistics and perform rule checking for the given resource. The resource wrapper carries
+     * the resource name, traffic type and resource type, so adapters could resolve it once and reuse it
+     * for every invocation of the same resource.
+     *
+     * @param resource   the protected resource
+     * @param batchCount the amount of calls within the invocation (e.g. batchCount=2 means request for 2 tokens)
+     * @param args       args for parameter flow control or customized slots
+     * @return the {@link Entry} of this invocation (used for mark the invocation complete and get context data)
+     * @throws BlockException if the block criteria is met (e.g. metric exceeded the threshold of any rules)
+     * @since 1.8.7
+     */
+    public static Entry entry(ResourceWrapper resource, int batchCount, Object... args) throws BlockException {
+        return Env.sph.entry(resource, batchCount, args);
+    }
+
+    /**
+     * Record statistics and perform rule checking for the given resource that indicates an async invocation.
+     *
+     * @param resource   the protected resource
+     * @param batchCount the amount of calls within the invocation (e.g. batchCount=2 means request for 2 tokens)
+     * @param args       args for parameter flow control or customized slots
+     * @return the {@link Entry} of this invocation (used for mark the invocation complete and get context data)
+     * @throws BlockException if the block criteria is met (e.g. metric exceeded the threshold of any rules)
+     * @since 1.8.7
+     */
+    public static AsyncEntry asyncEntry(ResourceWrapper resource, int batchCount, Object... args)
+        throws BlockException {
+        return Env.sph.asyncEntry(resource, batchCount, args);
+    }
+
+    /**
+     * Record statistics and perform rule checking for the resource of the given handle. The handle
+     * should be obtained once and reused, so neither the resource wrapper nor the slot chain
+     * is resolved for every invocation.
+     * <p>If the handle has a parent (see {@link SentinelResourceHandle#getParent()}), the rules of the parent
+     * resource are checked as well, in the same pass of the slot chain.</p>
+     *
+     * @param handle the precompiled handle of the protected resource
+     * @return the {@link Entry} of this invocation (used for mark the invocation complete and get context data)
+     * @throws BlockException if the block criteria is met (e.g. metric exceeded the threshold of any rules)
+     * @since 1.8.7
+     */
+    public static Entry entry(SentinelResourceHandle handle) throws BlockException {
+        return Env.sph.entry(handle, 1, OBJECTS0);
+    }
+
+    /**
+     * Record statistics and perform rule checking for the resource of the given handle.
+     *
+     * @param handle     the precompiled handle of the protected resource
+     * @param batchCount the amount of calls within the invocation (e.g. batchCount=2 means request for 2 tokens)
+     * @param args       args for parameter flow control or customized slots
+     * @return the {@link Entry} of this invocation (used for mark the invocation complete and get context data)
+     * @throws BlockException if the block criteria is met (e.g. metric exceeded the threshold of any rules)
+     * @since 1.8.7
+     */
+    public static Entry entry(SentinelResourceHandle handle, int batchCount, Object... args) throws BlockException {
+        return Env.sph.entry(handle, batchCount, args);
+    }
+
+    /**
+     * Record statistics and perform rule checking for the resource of the given handle
+     * that indicates an async invocation.
+     *
+     * @param handle the precompiled handle of the protected resource
+     * @return the {@link Entry} of this invocation (used for mark the invocation complete and get context data)
+     * @throws BlockException if the block criteria is met (e.g. metric exceeded the threshold of any rules)
+     * @since 1.8.7
+     */
+    public static AsyncEntry asyncEntry(SentinelResourceHandle handle) throws BlockException {
+        return Env.sph.asyncEntry(handle, 1, OBJECTS0);
+    }
+
+    /**
+     * Record statistics and perform rule checking for the resource of the given handle
+     * that indicates an async invocation.
+     *
+     * @param handle     the precompiled handle of the protected resource
+     * @param batchCount the amount of calls within the invocation (e.g. batchCount=2 means request for 2 tokens)
+     * @param args       args for parameter flow control or customized slots
+     * @return the {@link Entry} of this invocation (used for mark the invocation complete and get context data)
+     * @throws BlockException if the block criteria is met (e.g. metric exceeded the threshold of any rules)
+     * @since 1.8.7
+     */
+    public static AsyncEntry asyncEntry(SentinelResourceHandle handle, int batchCount, Object... args)
+        throws BlockException {
+        return Env.sph.asyncEntry(handle, batchCount, args);
+    }
 }
@@ -61,6 +61,10 @@ public final class SentinelConfig {
     public static final String STATISTIC_MAX_RT = "csp.sentinel.statistic.max.rt";
     public static final String SPI_CLASSLOADER = "csp.sentinel.spi.classloader";
     public static final String METRIC_FLUSH_INTERVAL = "csp.sentinel.metric.flush.interval";
+    public static final String METRIC_FILE_FORMAT = "csp.sentinel.metric.file.format";
+
+    public static final String METRIC_FILE_FORMAT_TEXT = "text";
+    public static final String METRIC_FILE_FORMAT_BINARY = "binary";
 
     public static final String DEFAULT_CHARSET = "UTF-8";
     public static final long DEFAULT_SINGLE_METRIC_FILE_SIZE = 1024 * 1024 * 50;
@@ -341,5 +345,16 @@ public final class SentinelConfig {
         return CLASSLOADER_CONTEXT.equalsIgnoreCase(classloaderConf);
     }
 
+    /**
+     * Whether metric logs are written in the binary format (see {@code csp.sentinel.metric.file.format}).
+     * The text format is used by default.
+     *
+     * @return true if the binary metric file format is used
+     * @since 1.8.7
+     */
+    public static boolean isBinaryMetricFileFormat() {
+        return METRIC_FILE_FORMAT_BINARY.equalsIgnoreCase(getConfig(METRIC_FILE_FORMAT));
+    }
+
     private SentinelConfig() {}
 }
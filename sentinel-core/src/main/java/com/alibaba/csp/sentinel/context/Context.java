@@ -82,6 +82,11 @@ public class Context {
     // 是否是异步
     private final boolean async;
 
+    /**
+     * The entry of the caller this context is forked from, which is never modified by the entries of this context.
+     */
+    private Entry forkEntry;
+
     /**
      * Create a new async context.
      *
@@ -130,6 +135,22 @@ public class Context {
         return this;
     }
 
+    /**
+     * Get the entry of the caller this context is forked from.
+     *
+     * @return the entry this context is forked from, or null if this context is not a fork
+     * @since 1.8.7
+     */
+    public Entry getForkEntry() {
+        return forkEntry;
+    }
+
+    Context setForkEntry(Entry forkEntry) {
+        this.forkEntry = forkEntry;
+        this.curEntry = forkEntry;
+        return this;
+    }
+
     public String getOrigin() {
         return origin;
     }
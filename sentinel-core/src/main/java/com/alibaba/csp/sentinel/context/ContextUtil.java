@@ -17,6 +17,7 @@ package com.alibaba.csp.sentinel.context;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.Callable;
 import java.util.concurrent.locks.ReentrantLock;
 
 import com.alibaba.csp.sentinel.Constants;
@@ -281,4 +282,80 @@ public class ContextUtil {
             replaceContext(curContext);
         }
     }
+
+    /**
+     * <p>
+     * Wrap the task so that it runs within a fork of the current context, which is mainly designed for
+     * subtasks forked to other threads (e.g. virtual threads or executor workers). Entries created in the
+     * subtask are attached to the current entry of the caller, while the context of the caller is left
+     * untouched.
+     * </p>
+     * <p>
+     * The task itself will be returned if there is no context in the current thread.
+     * </p>
+     *
+     * @param task the task to wrap
+     * @return the task running within the fork of the current context
+     * @since 1.8.7
+     */
+    public static Runnable wrap(final Runnable task) {
+        final Context context = forkContext();
+        if (context == null) {
+            return task;
+        }
+        return new Runnable() {
+            @Override
+            public void run() {
+                runOnContext(context, task);
+            }
+        };
+    }
+
+    /**
+     * Wrap the task so that it runs within a fork of the current context.
+     * See {@link #wrap(Runnable)} for details.
+     *
+     * @param task the task to wrap
+     * @param <V>  type of the result
+     * @return the task running within the fork of the current context
+     * @since 1.8.7
+     */
+    public static <V> Callable<V> wrap(final Callable<V> task) {
+        final Context context = forkContext();
+        if (context == null) {
+            return task;
+        }
+        return new Callable<V>() {
+            @Override
+            public V call() throws Exception {
+                Context curContext = replaceContext(context);
+                try {
+                    return task.call();
+                } finally {
+                    replaceContext(curContext);
+                }
+            }
+        };
+    }
+
+    /**
+     * Create a fork of the current context, which shares the entrance node and origin with the current context.
+     * The current entry of the caller becomes the boundary of the fork: entries created in the fork are attached
+     * under it, but neither exiting them nor cleaning them up on mismatched exit will modify or exit it, so the
+     * fork can be used in another thread.
+     *
+     * @return the forked context, or null if there is no context in the current thread
+     * @since 1.8.7
+     */
+    public static Context forkContext() {
+        Context context = contextHolder.get();
+        if (context == null || context instanceof NullContext) {
+            // NullContext holds no state, so it can be shared directly.
+            return context;
+        }
+        Context forked = Context.newAsyncContext(context.getEntranceNode(), context.getName());
+        forked.setOrigin(context.getOrigin());
+        forked.setForkEntry(context.getCurEntry());
+        return forked;
+    }
 }
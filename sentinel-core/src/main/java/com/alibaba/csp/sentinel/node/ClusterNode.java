@@ -41,6 +41,14 @@ import com.alibaba.csp.sentinel.util.AssertUtil;
  * origin.<br/>
  * Note that 'origin' usually is Service Consumer's app name.
  * </p>
+ *
+ * <p>
+ * A {@link ClusterNode} may have a parent node (e.g. the node of the RPC interface for the node of an
+ * RPC method). The statistics of passed requests recorded to the node, including the statistics of each
+ * origin, are rolled up to the parent node, so that the parent resource doesn't have to be entered separately.
+ * Blocked requests are not rolled up, as a request blocked by the rules of the child resource has passed
+ * the parent resource (see {@link com.alibaba.csp.sentinel.slots.statistic.StatisticSlot}).
+ * </p>
  * 为了区分来自不同来源的调用（在 {@link ContextUtilenter(String name, String origin)} 中声明），一个 {@link ClusterNode}
  * 保存一个 {@link originCountMap}，该映射保存不同来源的 {@link StatisticNode}。
  * 使用 {@link getOrCreateOriginNode(String)} 获取特定来源的 {@link Node}。<br> 请注意，“origin”通常是服务使用者的应用程序名称。
@@ -52,15 +60,27 @@ public class ClusterNode extends StatisticNode {
 
     private final String name;
     private final int resourceType;
+    private final ClusterNode parentNode;
 
     public ClusterNode(String name) {
         this(name, ResourceTypeConstants.COMMON);
     }
 
     public ClusterNode(String name, int resourceType) {
+        this(name, resourceType, null);
+    }
+
+    /**
+     * @param name         resource name
+     * @param resourceType resource type
+     * @param parentNode   node of the parent resource that the statistics are rolled up to, may be null
+     * @since 1.8.7
+     */
+    public ClusterNode(String name, int resourceType, ClusterNode parentNode) {
         AssertUtil.notEmpty(name, "name cannot be empty");
         this.name = name;
         this.resourceType = resourceType;
+        this.parentNode = parentNode;
     }
 
     /**
@@ -95,6 +115,16 @@ public class ClusterNode extends StatisticNode {
         return resourceType;
     }
 
+    /**
+     * Get the node of the parent resource, which the statistics of passed requests of this node are rolled up to.
+     *
+     * @return the parent node, or null if absent
+     * @since 1.8.7
+     */
+    public ClusterNode getParentNode() {
+        return parentNode;
+    }
+
     /**
      * <p>Get {@link Node} of the specific origin. Usually the origin is the Service Consumer's app name.</p>
      * <p>If the origin node for given origin is absent, then a new {@link StatisticNode}
@@ -112,7 +142,8 @@ public class ClusterNode extends StatisticNode {
                 statisticNode = originCountMap.get(origin);
                 if (statisticNode == null) {
                     // The node is absent, create a new node for the origin.
-                    statisticNode = new StatisticNode();
+                    statisticNode = parentNode == null ? new StatisticNode()
+                        : new ChildOriginNode(parentNode.getOrCreateOriginNode(origin));
                     HashMap<String, StatisticNode> newMap = new HashMap<>(originCountMap.size() + 1);
                     newMap.putAll(originCountMap);
                     newMap.put(origin, statisticNode);
@@ -129,4 +160,86 @@ public class ClusterNode extends StatisticNode {
         return originCountMap;
     }
 
+    @Override
+    public void addPassRequest(int count) {
+        super.addPassRequest(count);
+        if (parentNode != null) {
+            parentNode.addPassRequest(count);
+        }
+    }
+
+    @Override
+    public void addRtAndSuccess(long rt, int successCount) {
+        super.addRtAndSuccess(rt, successCount);
+        if (parentNode != null) {
+            parentNode.addRtAndSuccess(rt, successCount);
+        }
+    }
+
+    @Override
+    public void increaseExceptionQps(int count) {
+        super.increaseExceptionQps(count);
+        if (parentNode != null) {
+            parentNode.increaseExceptionQps(count);
+        }
+    }
+
+    @Override
+    public void increaseThreadNum() {
+        super.increaseThreadNum();
+        if (parentNode != null) {
+            parentNode.increaseThreadNum();
+        }
+    }
+
+    @Override
+    public void decreaseThreadNum() {
+        super.decreaseThreadNum();
+        if (parentNode != null) {
+            parentNode.decreaseThreadNum();
+        }
+    }
+
+    /**
+     * Origin node of a child resource, which rolls the statistics up to the same origin of the parent resource.
+     */
+    private static final class ChildOriginNode extends StatisticNode {
+
+        private final Node parentOriginNode;
+
+        ChildOriginNode(Node parentOriginNode) {
+            this.parentOriginNode = parentOriginNode;
+        }
+
+        @Override
+        public void addPassRequest(int count) {
+            super.addPassRequest(count);
+            parentOriginNode.addPassRequest(count);
+        }
+
+        @Override
+        public void addRtAndSuccess(long rt, int successCount) {
+            super.addRtAndSuccess(rt, successCount);
+            parentOriginNode.addRtAndSuccess(rt, successCount);
+        }
+
+        @Override
+        public void increaseExceptionQps(int count) {
+            super.increaseExceptionQps(count);
+            parentOriginNode.increaseExceptionQps(count);
+        }
+
+        @Override
+        public void increaseThreadNum() {
+            super.increaseThreadNum();
+            parentOriginNode.increaseThreadNum();
+        }
+
+        @Override
+        public void decreaseThreadNum() {
+            super.decreaseThreadNum();
+            parentOriginNode.decreaseThreadNum();
+        }
+    }
+
 }
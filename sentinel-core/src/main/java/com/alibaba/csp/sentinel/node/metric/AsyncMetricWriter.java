@@ -0,0 +1,221 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.node.metric;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.alibaba.csp.sentinel.concurrent.NamedThreadFactory;
+import com.alibaba.csp.sentinel.log.RecordLog;
+
+/**
+ * <p>Writes metrics asynchronously with two reusable batches (i.e. double buffering). The metric timer thread
+ * collects metrics into a free batch and hands it over to a background I/O thread, which writes the whole batch
+ * with {@link MetricWriter#write(Map)} (flushed only once), so the timer thread won't be blocked by a slow disk.</p>
+ *
+ * <p>If both of the batches are still in use (one is being written and the other is waiting), the disk can't
+ * keep up with the metric flush interval, then the metrics collected are dropped and counted.</p>
+ *
+ * @since 1.8.7
+ */
+class AsyncMetricWriter {
+
+    private final MetricWriter writer;
+
+    private final Object lock = new Object();
+    /**
+     * The batch available for next collection, null if both of the batches are in use.
+     */
+    private MetricBatch freeBatch = new MetricBatch();
+    private MetricBatch spareBatch = new MetricBatch();
+    /**
+     * The batch waiting to be written.
+     */
+    private MetricBatch pendingBatch;
+
+    private final List<MetricFlushListener> flushListeners = new CopyOnWriteArrayList<>();
+
+    private final AtomicLong droppedBatchCount = new AtomicLong();
+    private final AtomicLong droppedNodeCount = new AtomicLong();
+
+    AsyncMetricWriter(MetricWriter writer) {
+        this.writer = writer;
+        Thread ioThread = new NamedThreadFactory("sentinel-metrics-writer", true).newThread(new Runnable() {
+            @Override
+            public void run() {
+                drainLoop();
+            }
+        });
+        ioThread.start();
+    }
+
+    /**
+     * @return a free batch to collect metrics, or null if both of the batches are in use
+     */
+    MetricBatch acquireBatch() {
+        synchronized (lock) {
+            MetricBatch batch = freeBatch;
+            freeBatch = spareBatch;
+            spareBatch = null;
+            return batch;
+        }
+    }
+
+    /**
+     * Hand over the collected batch to the I/O thread.
+     *
+     * @param batch the batch acquired by {@link #acquireBatch()}
+     */
+    void submit(MetricBatch batch) {
+        if (batch.isEmpty()) {
+            release(batch);
+            return;
+        }
+        synchronized (lock) {
+            if (pendingBatch == null) {
+                pendingBatch = batch;
+                lock.notify();
+                return;
+            }
+        }
+        // The former batch has not been taken by the I/O thread yet.
+        recordDropped(batch.size());
+        release(batch);
+    }
+
+    /**
+     * Record the metrics dropped because there is no free batch.
+     *
+     * @param nodeCount count of the dropped metric nodes
+     */
+    void recordDropped(int nodeCount) {
+        long batches = droppedBatchCount.incrementAndGet();
+        long nodes = droppedNodeCount.addAndGet(nodeCount);
+        // Avoid flooding the log file when the disk is slow.
+        if (batches % 60 == 1) {
+            RecordLog.warn("[MetricWriter] Metric writing can't keep up, dropped batches={}, dropped nodes={}",
+                batches, nodes);
+        }
+    }
+
+    void addFlushListener(MetricFlushListener listener) {
+        flushListeners.add(listener);
+    }
+
+    void removeFlushListener(MetricFlushListener listener) {
+        flushListeners.remove(listener);
+    }
+
+    long getDroppedBatchCount() {
+        return droppedBatchCount.get();
+    }
+
+    long getDroppedNodeCount() {
+        return droppedNodeCount.get();
+    }
+
+    private void drainLoop() {
+        while (true) {
+            MetricBatch batch;
+            synchronized (lock) {
+                while (pendingBatch == null) {
+                    try {
+                        lock.wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                batch = pendingBatch;
+                pendingBatch = null;
+            }
+            try {
+                writer.write(batch.getMetrics());
+                notifyFlushListeners(batch.getMetrics());
+            } catch (Throwable e) {
+                RecordLog.warn("[MetricWriter] Write metric error", e);
+            } finally {
+                release(batch);
+            }
+        }
+    }
+
+    private void notifyFlushListeners(Map<Long, List<MetricNode>> metrics) {
+        for (MetricFlushListener listener : flushListeners) {
+            try {
+                listener.onFlush(metrics);
+            } catch (Throwable e) {
+                RecordLog.warn("[MetricWriter] Metric flush listener error: " + listener.getClass().getName(), e);
+            }
+        }
+    }
+
+    private void release(MetricBatch batch) {
+        batch.clear();
+        synchronized (lock) {
+            if (freeBatch == null) {
+                freeBatch = batch;
+            } else {
+                spareBatch = batch;
+            }
+        }
+    }
+
+    /**
+     * Metric nodes grouped by timestamp. The node lists are reused across collections.
+     */
+    static final class MetricBatch {
+        private final TreeMap<Long, List<MetricNode>> metrics = new TreeMap<>();
+        private final List<List<MetricNode>> recycledLists = new ArrayList<>();
+
+        void add(long time, MetricNode node) {
+            List<MetricNode> nodes = metrics.get(time);
+            if (nodes == null) {
+                nodes = recycledLists.isEmpty() ? new ArrayList<MetricNode>()
+                    : recycledLists.remove(recycledLists.size() - 1);
+                metrics.put(time, nodes);
+            }
+            nodes.add(node);
+        }
+
+        boolean isEmpty() {
+            return metrics.isEmpty();
+        }
+
+        int size() {
+            int size = 0;
+            for (List<MetricNode> nodes : metrics.values()) {
+                size += nodes.size();
+            }
+            return size;
+        }
+
+        Map<Long, List<MetricNode>> getMetrics() {
+            return metrics;
+        }
+
+        void clear() {
+            for (List<MetricNode> nodes : metrics.values()) {
+                nodes.clear();
+                recycledLists.add(nodes);
+            }
+            metrics.clear();
+        }
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.node.metric;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>Encodes {@link MetricNode}s of the same second to a block of the binary metric file.</p>
+ *
+ * <p>A binary metric file is made up of consecutive blocks:</p>
+ * <pre>
+ * block  := timestamp(int64) recordCount(int32) record*
+ * record := resourceId passQps blockQps successQps exceptionQps rt occupiedPassQps concurrency (int32 each)
+ * </pre>
+ * <p>Records of a block are sorted by resource ID, so that a single resource can be located with binary search.
+ * Resource names are dictionary-encoded: each resource is assigned with a sequential ID when it first occurs
+ * in the metric file, and the {@code (name, classification)} pair is appended to the resource table file
+ * ({@link MetricWriter#METRIC_FILE_RESOURCE_SUFFIX}). The index file is the same as the text format,
+ * i.e. pairs of {@code (second, offset)}.</p>
+ *
+ * <p>All the counters are fixed-width, so every block can be decoded independently, and the searcher
+ * could seek to the block of any second directly via the index.</p>
+ *
+ * @since 1.8.7
+ */
+final class BinaryMetricEncoder {
+
+    static final int BLOCK_HEADER_SIZE = 12;
+    static final int RECORD_FIELD_COUNT = 8;
+    static final int RECORD_SIZE = RECORD_FIELD_COUNT * 4;
+
+    private final Map<String, Integer> resourceIds = new HashMap<>();
+    private DataOutputStream resourceOut;
+
+    private ByteBuffer buffer = ByteBuffer.allocate(BLOCK_HEADER_SIZE + RECORD_SIZE * 64);
+    private long[] sortKeys = new long[64];
+    private int[] ids = new int[64];
+
+    /**
+     * Start encoding to a new metric file. Resource IDs are scoped in a metric file.
+     *
+     * @param resourceOut output stream of the resource table file
+     */
+    void reset(DataOutputStream resourceOut) {
+        this.resourceIds.clear();
+        this.resourceOut = resourceOut;
+    }
+
+    /**
+     * Encode the nodes as a block and write to the output. The resource table is flushed before
+     * the block is written, so that readers always see all the resources of a block.
+     *
+     * @param timestamp timestamp of the nodes
+     * @param nodes     metric nodes of the same second
+     * @param out       output stream of the metric file
+     * @return count of bytes written
+     */
+    int writeBlock(long timestamp, List<MetricNode> nodes, OutputStream out) throws IOException {
+        int size = nodes.size();
+        ensureCapacity(size);
+        boolean newResource = false;
+        for (int i = 0; i < size; i++) {
+            MetricNode node = nodes.get(i);
+            // Same as the text format, "|" in resource names is replaced with "_".
+            String resource = MetricNode.legalName(node.getResource());
+            Integer id = resourceIds.get(resource);
+            if (id == null) {
+                id = resourceIds.size();
+                resourceIds.put(resource, id);
+                resourceOut.writeUTF(resource);
+                resourceOut.writeInt(node.getClassification());
+                newResource = true;
+            }
+            ids[i] = id;
+            sortKeys[i] = ((long) id << 32) | i;
+        }
+        if (newResource) {
+            resourceOut.flush();
+        }
+        Arrays.sort(sortKeys, 0, size);
+
+        buffer.clear();
+        buffer.putLong(timestamp);
+        buffer.putInt(size);
+        for (int i = 0; i < size; i++) {
+            int index = (int) sortKeys[i];
+            MetricNode node = nodes.get(index);
+            buffer.putInt(ids[index]);
+            buffer.putInt(toInt(node.getPassQps()));
+            buffer.putInt(toInt(node.getBlockQps()));
+            buffer.putInt(toInt(node.getSuccessQps()));
+            buffer.putInt(toInt(node.getExceptionQps()));
+            buffer.putInt(toInt(node.getRt()));
+            buffer.putInt(toInt(node.getOccupiedPassQps()));
+            buffer.putInt(node.getConcurrency());
+        }
+        out.write(buffer.array(), 0, buffer.position());
+        return buffer.position();
+    }
+
+    private void ensureCapacity(int size) {
+        if (sortKeys.length < size) {
+            int newLength = Math.max(size, sortKeys.length * 2);
+            sortKeys = new long[newLength];
+            ids = new int[newLength];
+            buffer = ByteBuffer.allocate(BLOCK_HEADER_SIZE + RECORD_SIZE * newLength);
+        }
+    }
+
+    private static int toInt(long value) {
+        return value > Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) value;
+    }
+
+    /**
+     * Decode the record at the given position of the block.
+     *
+     * @param block          buffer holding the whole block
+     * @param position       start position of the record
+     * @param timestamp      timestamp of the block
+     * @param resource       name of the resource
+     * @param classification classification of the resource
+     * @return the decoded metric node
+     */
+    static MetricNode decodeRecord(ByteBuffer block, int position, long timestamp, String resource,
+                                   int classification) {
+        MetricNode node = new MetricNode();
+        node.setTimestamp(timestamp);
+        node.setResource(resource);
+        node.setClassification(classification);
+        node.setPassQps(block.getInt(position + 4));
+        node.setBlockQps(block.getInt(position + 8));
+        node.setSuccessQps(block.getInt(position + 12));
+        node.setExceptionQps(block.getInt(position + 16));
+        node.setRt(block.getInt(position + 20));
+        node.setOccupiedPassQps(block.getInt(position + 24));
+        node.setConcurrency(block.getInt(position + 28));
+        return node;
+    }
+}
@@ -0,0 +1,313 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.node.metric;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>Searcher of the binary metric files written by {@link MetricWriter} (see {@link BinaryMetricEncoder}).</p>
+ *
+ * <p>The index file is memory-mapped and binary-searched to find the block of the begin second, and then
+ * blocks are read one by one. When the resource is specified, only the record of the resource is decoded
+ * for each block (located with binary search on the resource ID), and files that have never recorded the
+ * resource are skipped directly.</p>
+ *
+ * @since 1.8.7
+ */
+public class BinaryMetricSearcher extends MetricSearcher {
+
+    /**
+     * Avoid OOM in any cases.
+     */
+    private static final int MAX_NODES_RETURN = 100000;
+    private static final int INDEX_ENTRY_SIZE = 16;
+
+    private final String baseDir;
+    private final String baseFileName;
+
+    private final Map<String, ResourceTable> resourceTables = new HashMap<>();
+    private ByteBuffer blockBuffer = ByteBuffer.allocate(BinaryMetricEncoder.BLOCK_HEADER_SIZE
+        + BinaryMetricEncoder.RECORD_SIZE * 256);
+
+    /**
+     * @param baseDir      directory of the metric files
+     * @param baseFileName base name of the binary metric files, e.g. {@code appName-metrics.bin}
+     */
+    public BinaryMetricSearcher(String baseDir, String baseFileName) {
+        super(baseDir, baseFileName);
+        this.baseDir = baseDir.endsWith(File.separator) ? baseDir : baseDir + File.separator;
+        this.baseFileName = baseFileName;
+    }
+
+    @Override
+    public synchronized List<MetricNode> find(long beginTimeMs, int recommendLines) throws Exception {
+        List<String> fileNames = listFiles();
+        long beginSecond = beginTimeMs / 1000;
+        for (int i = 0; i < fileNames.size(); i++) {
+            long offset = findOffset(fileNames.get(i), beginSecond);
+            if (offset < 0) {
+                continue;
+            }
+            List<MetricNode> list = new ArrayList<>(recommendLines);
+            while (i < fileNames.size()
+                && readBlocks(list, fileNames.get(i++), offset, Long.MAX_VALUE, null, recommendLines)) {
+                offset = 0;
+            }
+            return list;
+        }
+        return null;
+    }
+
+    @Override
+    public synchronized List<MetricNode> findByTimeAndResource(long beginTimeMs, long endTimeMs, String identity)
+        throws Exception {
+        List<String> fileNames = listFiles();
+        long beginSecond = beginTimeMs / 1000;
+        long endSecond = endTimeMs / 1000;
+        for (int i = 0; i < fileNames.size(); i++) {
+            long offset = findOffset(fileNames.get(i), beginSecond);
+            if (offset < 0) {
+                continue;
+            }
+            List<MetricNode> list = new ArrayList<>();
+            while (i < fileNames.size()
+                && readBlocks(list, fileNames.get(i++), offset, endSecond, identity, MAX_NODES_RETURN)) {
+                offset = 0;
+            }
+            return list;
+        }
+        return null;
+    }
+
+    private List<String> listFiles() throws Exception {
+        List<String> fileNames = MetricWriter.listMetricFiles(baseDir, baseFileName);
+        // Drop the resource tables of removed files.
+        Iterator<String> it = resourceTables.keySet().iterator();
+        while (it.hasNext()) {
+            if (!fileNames.contains(it.next())) {
+                it.remove();
+            }
+        }
+        return fileNames;
+    }
+
+    /**
+     * Binary search the memory-mapped index for the first block whose second is not earlier than the begin second.
+     *
+     * @return offset of the block in the metric file, or -1 if there is no such block
+     */
+    private long findOffset(String fileName, long beginSecond) throws IOException {
+        File indexFile = new File(MetricWriter.formIndexFileName(fileName));
+        if (!indexFile.exists()) {
+            return -1;
+        }
+        try (RandomAccessFile raf = new RandomAccessFile(indexFile, "r")) {
+            FileChannel channel = raf.getChannel();
+            // Ignore the entry that has not been completely written.
+            long size = channel.size() - channel.size() % INDEX_ENTRY_SIZE;
+            if (size == 0) {
+                return -1;
+            }
+            MappedByteBuffer index = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            int low = 0;
+            int high = (int) (size / INDEX_ENTRY_SIZE) - 1;
+            if (index.getLong(high * INDEX_ENTRY_SIZE) < beginSecond) {
+                return -1;
+            }
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (index.getLong(mid * INDEX_ENTRY_SIZE) < beginSecond) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return index.getLong(low * INDEX_ENTRY_SIZE + 8);
+        }
+    }
+
+    /**
+     * Read blocks of a metric file from the given offset. Nodes of the same second won't be split.
+     *
+     * @return true if should continue reading the next file
+     */
+    private boolean readBlocks(List<MetricNode> list, String fileName, long offset, long endSecond,
+                               String identity, int maxNodes) throws IOException {
+        ResourceTable table = getResourceTable(fileName);
+        int resourceId = -1;
+        if (identity != null) {
+            Integer id = table.ids.get(identity);
+            if (id == null) {
+                // The resource has never been recorded in the file.
+                return true;
+            }
+            resourceId = id;
+        }
+        try (RandomAccessFile raf = new RandomAccessFile(fileName, "r")) {
+            FileChannel channel = raf.getChannel();
+            long size = channel.size();
+            long position = offset;
+            ByteBuffer header = ByteBuffer.allocate(BinaryMetricEncoder.BLOCK_HEADER_SIZE);
+            while (position + BinaryMetricEncoder.BLOCK_HEADER_SIZE <= size) {
+                if (list.size() >= maxNodes) {
+                    return false;
+                }
+                header.clear();
+                readFully(channel, header, position);
+                long timestamp = header.getLong(0);
+                int count = header.getInt(8);
+                int recordsSize = count * BinaryMetricEncoder.RECORD_SIZE;
+                if (timestamp / 1000 > endSecond) {
+                    return false;
+                }
+                long recordsPosition = position + BinaryMetricEncoder.BLOCK_HEADER_SIZE;
+                if (recordsPosition + recordsSize > size) {
+                    // The block has not been completely written.
+                    return false;
+                }
+                ByteBuffer records = prepareBlockBuffer(recordsSize);
+                readFully(channel, records, recordsPosition);
+                if (identity == null) {
+                    for (int i = 0; i < count; i++) {
+                        addNode(list, table, records, i * BinaryMetricEncoder.RECORD_SIZE, timestamp);
+                    }
+                } else {
+                    int recordPosition = searchRecord(records, count, resourceId);
+                    if (recordPosition >= 0) {
+                        addNode(list, table, records, recordPosition, timestamp);
+                    }
+                }
+                position = recordsPosition + recordsSize;
+            }
+        }
+        return true;
+    }
+
+    private void addNode(List<MetricNode> list, ResourceTable table, ByteBuffer records, int position,
+                         long timestamp) throws IOException {
+        int id = records.getInt(position);
+        if (id >= table.names.size()) {
+            // The resource table is flushed before the block, so just reload it.
+            table.load();
+            if (id >= table.names.size()) {
+                return;
+            }
+        }
+        list.add(BinaryMetricEncoder.decodeRecord(records, position, timestamp, table.names.get(id),
+            table.classifications.get(id)));
+    }
+
+    private static int searchRecord(ByteBuffer records, int count, int resourceId) {
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int id = records.getInt(mid * BinaryMetricEncoder.RECORD_SIZE);
+            if (id < resourceId) {
+                low = mid + 1;
+            } else if (id > resourceId) {
+                high = mid - 1;
+            } else {
+                return mid * BinaryMetricEncoder.RECORD_SIZE;
+            }
+        }
+        return -1;
+    }
+
+    private ByteBuffer prepareBlockBuffer(int size) {
+        if (blockBuffer.capacity() < size) {
+            blockBuffer = ByteBuffer.allocate(Math.max(size, blockBuffer.capacity() * 2));
+        }
+        blockBuffer.clear();
+        blockBuffer.limit(size);
+        return blockBuffer;
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int n = channel.read(buffer, position + buffer.position());
+            if (n < 0) {
+                throw new IOException("Unexpected end of metric file");
+            }
+        }
+    }
+
+    private ResourceTable getResourceTable(String fileName) throws IOException {
+        ResourceTable table = resourceTables.get(fileName);
+        if (table == null) {
+            table = new ResourceTable(MetricWriter.formResourceFileName(fileName));
+            resourceTables.put(fileName, table);
+        }
+        table.load();
+        return table;
+    }
+
+    /**
+     * Resource table of a binary metric file, which is loaded incrementally as the file grows.
+     */
+    private static final class ResourceTable {
+        private final String fileName;
+        private final List<String> names = new ArrayList<>();
+        private final List<Integer> classifications = new ArrayList<>();
+        private final Map<String, Integer> ids = new HashMap<>();
+        private long loadedLength = 0;
+
+        ResourceTable(String fileName) {
+            this.fileName = fileName;
+        }
+
+        void load() throws IOException {
+            File file = new File(fileName);
+            long length = file.length();
+            if (length <= loadedLength) {
+                return;
+            }
+            byte[] bytes = new byte[(int) (length - loadedLength)];
+            try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+                raf.seek(loadedLength);
+                raf.readFully(bytes);
+            }
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+            while (in.available() > 0) {
+                int entryStart = bytes.length - in.available();
+                try {
+                    String name = in.readUTF();
+                    int classification = in.readInt();
+                    ids.put(name, names.size());
+                    names.add(name);
+                    classifications.add(classification);
+                } catch (IOException ex) {
+                    // The entry has not been completely written, load it next time.
+                    loadedLength += entryStart;
+                    return;
+                }
+            }
+            loadedLength = length;
+        }
+    }
+}
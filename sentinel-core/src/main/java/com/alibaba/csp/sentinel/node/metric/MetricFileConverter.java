@@ -0,0 +1,116 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.node.metric;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.alibaba.csp.sentinel.config.SentinelConfig;
+import com.alibaba.csp.sentinel.log.RecordLog;
+
+/**
+ * Converts metric files of the text format to the binary format (see {@link BinaryMetricEncoder}),
+ * so that the history metrics could still be searched by {@link BinaryMetricSearcher} after
+ * the metric file format is switched.
+ *
+ * @since 1.8.7
+ */
+public final class MetricFileConverter {
+
+    /**
+     * Convert all the text metric files in {@code baseDir}. The converted file has the same date and
+     * number suffix with the text file, e.g. {@code app-metrics.log.2018-12-24.1} is converted to
+     * {@code app-metrics.bin.2018-12-24.1}. The text files are kept as they are.
+     *
+     * @param baseDir                directory of the metric files
+     * @param textBaseFileName       base name of the text metric files, e.g. {@code app-metrics.log}
+     * @param binaryBaseFileName     base name of the binary metric files, e.g. {@code app-metrics.bin}
+     * @return count of the converted files
+     * @throws Exception if any error occurs when reading or writing the files
+     */
+    public static int convertToBinary(String baseDir, String textBaseFileName, String binaryBaseFileName)
+        throws Exception {
+        if (!baseDir.endsWith(File.separator)) {
+            baseDir += File.separator;
+        }
+        List<String> fileNames = MetricWriter.listMetricFiles(baseDir, textBaseFileName);
+        for (String fileName : fileNames) {
+            String suffix = new File(fileName).getName().substring(textBaseFileName.length());
+            String binaryFileName = baseDir + binaryBaseFileName + suffix;
+            convertFile(fileName, binaryFileName);
+            RecordLog.info("[MetricFileConverter] Metric file converted: {} -> {}", fileName, binaryFileName);
+        }
+        return fileNames.size();
+    }
+
+    /**
+     * Convert a single text metric file to the binary format, together with its index and resource table files.
+     *
+     * @param textFileName   the text metric file
+     * @param binaryFileName the binary metric file to write
+     * @throws Exception if any error occurs when reading or writing the files
+     */
+    public static void convertFile(String textFileName, String binaryFileName) throws Exception {
+        Charset charset = Charset.forName(SentinelConfig.charset());
+        BinaryMetricEncoder encoder = new BinaryMetricEncoder();
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(new FileInputStream(textFileName), charset));
+             BufferedOutputStream metricBuf = new BufferedOutputStream(new FileOutputStream(binaryFileName));
+             DataOutputStream indexOut = new DataOutputStream(new BufferedOutputStream(
+                 new FileOutputStream(MetricWriter.formIndexFileName(binaryFileName))));
+             DataOutputStream resourceOut = new DataOutputStream(new BufferedOutputStream(
+                 new FileOutputStream(MetricWriter.formResourceFileName(binaryFileName))))) {
+            encoder.reset(resourceOut);
+            List<MetricNode> nodes = new ArrayList<>();
+            long offset = 0;
+            long currentSecond = -1;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty()) {
+                    continue;
+                }
+                MetricNode node = MetricNode.fromFatString(line);
+                long second = node.getTimestamp() / 1000;
+                if (second != currentSecond && !nodes.isEmpty()) {
+                    offset = writeBlock(encoder, nodes, metricBuf, indexOut, offset);
+                    nodes.clear();
+                }
+                currentSecond = second;
+                nodes.add(node);
+            }
+            if (!nodes.isEmpty()) {
+                writeBlock(encoder, nodes, metricBuf, indexOut, offset);
+            }
+        }
+    }
+
+    private static long writeBlock(BinaryMetricEncoder encoder, List<MetricNode> nodes, BufferedOutputStream out,
+                                   DataOutputStream indexOut, long offset) throws Exception {
+        indexOut.writeLong(nodes.get(0).getTimestamp() / 1000);
+        indexOut.writeLong(offset);
+        return offset + encoder.writeBlock(nodes.get(0).getTimestamp(), nodes, out);
+    }
+
+    private MetricFileConverter() {}
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.node.metric;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Listener notified each time a batch of aggregated metrics has been written to the metric log,
+ * e.g. to push the metrics to the dashboard. Register it via {@link MetricTimerListener#addFlushListener}.
+ *
+ * @since 1.8.7
+ */
+public interface MetricFlushListener {
+
+    /**
+     * Called in the metric writer thread, so the implementation should return quickly.
+     * The map and the lists are reused after this method returns, so they must not be kept.
+     *
+     * @param metrics the metric nodes written, grouped and sorted by timestamp
+     */
+    void onFlush(Map<Long, List<MetricNode>> metrics);
+}
@@ -27,6 +27,13 @@ import java.util.Date;
  */
 public class MetricNode {
 
+    private static final ThreadLocal<DateFormat> FAT_STRING_DATE_FORMAT = new ThreadLocal<DateFormat>() {
+        @Override
+        protected DateFormat initialValue() {
+            return new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+        }
+    };
+
     private String resource;
     /**
      * Resource classification (e.g. SQL or RPC)
@@ -160,8 +167,7 @@ public class MetricNode {
     public String toThinString() {
         StringBuilder sb = new StringBuilder();
         sb.append(timestamp).append("|");
-        String legalName = resource.replaceAll("\\|", "_");
-        sb.append(legalName).append("|");
+        sb.append(legalName(resource)).append("|");
         sb.append(passQps).append("|");
         sb.append(blockQps).append("|");
         sb.append(successQps).append("|");
@@ -211,13 +217,11 @@ public class MetricNode {
      * @return string format of this.
      */
     public String toFatString() {
-        DateFormat df = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
-        StringBuilder sb = new StringBuilder(32);
-        sb.delete(0, sb.length());
+        DateFormat df = FAT_STRING_DATE_FORMAT.get();
+        StringBuilder sb = new StringBuilder(64);
         sb.append(getTimestamp()).append("|");
         sb.append(df.format(new Date(getTimestamp()))).append("|");
-        String legalName = getResource().replaceAll("\\|", "_");
-        sb.append(legalName).append("|");
+        sb.append(legalName(getResource())).append("|");
         sb.append(getPassQps()).append("|");
         sb.append(getBlockQps()).append("|");
         sb.append(getSuccessQps()).append("|");
@@ -230,6 +234,10 @@ public class MetricNode {
         return sb.toString();
     }
 
+    static String legalName(String resource) {
+        return resource.indexOf('|') < 0 ? resource : resource.replace('|', '_');
+    }
+
     /**
      * Parse {@link MetricNode} from fat string, see {@link #toFatString()}
      *
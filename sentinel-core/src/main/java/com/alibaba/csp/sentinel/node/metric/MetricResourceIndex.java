@@ -0,0 +1,151 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.node.metric;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+import com.alibaba.csp.sentinel.util.function.Predicate;
+
+/**
+ * <p>Secondary index of the text metric file, which helps to find metrics of a single resource.</p>
+ *
+ * <p>The index file is made up of fixed-width entries in the same order as the lines of the metric file:</p>
+ * <pre>
+ * entry := second(int64) lineOffset(int64) resourceHash(int32)
+ * </pre>
+ * <p>As the entries are sorted by second, the first entry of the begin second could be found with binary search
+ * on the memory-mapped index file. Then only the entries are scanned, and the lines whose resource hash matches
+ * are read and parsed, instead of reading and parsing every line in the time range.</p>
+ *
+ * <p>The index is stateless and read-only, so it's safe to search concurrently.</p>
+ *
+ * @since 1.8.7
+ */
+final class MetricResourceIndex {
+
+    static final int ENTRY_SIZE = 20;
+
+    private static final int LINE_BUFFER_SIZE = 256;
+
+    static void writeEntry(DataOutputStream out, long second, long lineOffset, String resource) throws IOException {
+        out.writeLong(second);
+        out.writeLong(lineOffset);
+        out.writeInt(MetricNode.legalName(resource).hashCode());
+    }
+
+    /**
+     * Search metrics of the resource in a metric file with its resource index file.
+     *
+     * @param metricFileName the metric file
+     * @param beginSecond    begin second, inclusive
+     * @param endSecond      end second, inclusive
+     * @param identity       the resource
+     * @param charset        charset of the metric file
+     * @param consumer       consumer of the found metric nodes, returns false to stop searching
+     * @return true if should continue searching the next file
+     * @throws IOException if any error occurs when reading the files
+     */
+    static boolean search(String metricFileName, long beginSecond, long endSecond, String identity,
+                          Charset charset, Predicate<MetricNode> consumer) throws IOException {
+        File indexFile = new File(MetricWriter.formResourceIndexFileName(metricFileName));
+        int hash = identity.hashCode();
+        try (RandomAccessFile indexRaf = new RandomAccessFile(indexFile, "r");
+             RandomAccessFile metricRaf = new RandomAccessFile(metricFileName, "r")) {
+            FileChannel channel = indexRaf.getChannel();
+            // Ignore the entry that has not been completely written.
+            long size = channel.size() - channel.size() % ENTRY_SIZE;
+            if (size == 0) {
+                return true;
+            }
+            MappedByteBuffer index = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            int count = (int) (size / ENTRY_SIZE);
+            if (index.getLong((count - 1) * ENTRY_SIZE) < beginSecond) {
+                return true;
+            }
+            byte[] lineBuffer = new byte[LINE_BUFFER_SIZE];
+            for (int i = lowerBound(index, count, beginSecond); i < count; i++) {
+                int position = i * ENTRY_SIZE;
+                if (index.getLong(position) > endSecond) {
+                    return false;
+                }
+                if (index.getInt(position + 16) != hash) {
+                    continue;
+                }
+                String line = readLine(metricRaf, index.getLong(position + 8), lineBuffer, charset);
+                if (line == null) {
+                    // The line has not been completely written.
+                    return false;
+                }
+                MetricNode node = MetricNode.fromFatString(line);
+                if (node.getResource().equals(identity) && !consumer.test(node)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return index of the first entry whose second is not earlier than the begin second
+     */
+    private static int lowerBound(MappedByteBuffer index, int count, long beginSecond) {
+        int low = 0;
+        int high = count - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (index.getLong(mid * ENTRY_SIZE) < beginSecond) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static String readLine(RandomAccessFile raf, long offset, byte[] buffer, Charset charset)
+        throws IOException {
+        int length = 0;
+        raf.seek(offset);
+        while (true) {
+            if (length == buffer.length) {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            }
+            int n = raf.read(buffer, length, buffer.length - length);
+            if (n < 0) {
+                return null;
+            }
+            for (int i = length; i < length + n; i++) {
+                if (buffer[i] == '\n') {
+                    return new String(buffer, 0, i, charset);
+                }
+            }
+            length += n;
+        }
+    }
+
+    static boolean exists(String metricFileName) {
+        return new File(MetricWriter.formResourceIndexFileName(metricFileName)).exists();
+    }
+
+    private MetricResourceIndex() {}
+}
@@ -20,9 +20,12 @@ import java.io.EOFException;
 import java.io.File;
 import java.io.FileInputStream;
 import java.nio.charset.Charset;
+import java.util.ArrayList;
 import java.util.List;
 
 import com.alibaba.csp.sentinel.config.SentinelConfig;
+import com.alibaba.csp.sentinel.util.function.Consumer;
+import com.alibaba.csp.sentinel.util.function.Predicate;
 
 /**
  * 从指定目录下找出所有的metric文件，并按照指定时间戳进行检索，参考{@link MetricSearcher#find(long, int)}。
@@ -34,7 +37,13 @@ import com.alibaba.csp.sentinel.config.SentinelConfig;
 public class MetricSearcher {
 
     private static final Charset defaultCharset = Charset.forName(SentinelConfig.charset());
+    /**
+     * Avoid OOM in any cases.
+     */
+    private static final int MAX_NODES_RETURN = 100000;
+
     private final MetricsReader metricsReader;
+    private final Charset charset;
 
     private String baseDir;
     private String baseFileName;
@@ -69,9 +78,27 @@ public class MetricSearcher {
             this.baseDir += File.separator;
         }
         this.baseFileName = baseFileName;
+        this.charset = charset;
         metricsReader = new MetricsReader(charset);
     }
 
+    /**
+     * Create a searcher of the metric files written by current process, according to the configured
+     * metric file format (see {@link SentinelConfig#isBinaryMetricFileFormat()}).
+     *
+     * @param baseDir directory of the metric files
+     * @param appName application name
+     * @param pid     process ID
+     * @return the metric searcher
+     * @since 1.8.7
+     */
+    public static MetricSearcher newSearcher(String baseDir, String appName, int pid) {
+        if (SentinelConfig.isBinaryMetricFileFormat()) {
+            return new BinaryMetricSearcher(baseDir, MetricWriter.formMetricFileName(appName, pid, true));
+        }
+        return new MetricSearcher(baseDir, MetricWriter.formMetricFileName(appName, pid));
+    }
+
     /**
      * 从beginTime开始，检索recommendLines条(大概)记录。同一秒中的数据是原子的，不能分割成多次查询。
      *
@@ -110,8 +137,84 @@ public class MetricSearcher {
      * When identity is null, all metric between the time intervalMs will be read, otherwise, only the specific
      * identity will be read.
      */
-    public synchronized List<MetricNode> findByTimeAndResource(long beginTimeMs, long endTimeMs, String identity)
+    public List<MetricNode> findByTimeAndResource(long beginTimeMs, long endTimeMs, String identity)
         throws Exception {
+        final List<MetricNode> list = new ArrayList<>();
+        boolean indexed = findByResourceIndex(beginTimeMs, endTimeMs, identity, new Consumer<MetricNode>() {
+            @Override
+            public void accept(MetricNode node) {
+                list.add(node);
+            }
+        });
+        return indexed ? list : findByTimeAndResourceSequentially(beginTimeMs, endTimeMs, identity);
+    }
+
+    /**
+     * Find metric between [beginTimeMs, endTimeMs], both side inclusive, and pass them to the consumer one by one
+     * instead of collecting all of them in a list. Same as {@link #findByTimeAndResource(long, long, String)},
+     * when identity is null, all metric between the time intervalMs will be read, otherwise, only the specific
+     * identity will be read.
+     *
+     * <p>Searching a single resource doesn't hold the lock of the searcher when all the metric files have
+     * resource index (see {@link MetricResourceIndex}), so concurrent searches won't block each other.</p>
+     *
+     * @param beginTimeMs begin time in milliseconds, inclusive
+     * @param endTimeMs   end time in milliseconds, inclusive
+     * @param identity    the resource, null for all the resources
+     * @param consumer    consumer of the found metric nodes
+     * @since 1.8.7
+     */
+    public void findByTimeAndResource(long beginTimeMs, long endTimeMs, String identity,
+                                      Consumer<MetricNode> consumer) throws Exception {
+        if (findByResourceIndex(beginTimeMs, endTimeMs, identity, consumer)) {
+            return;
+        }
+        List<MetricNode> list = findByTimeAndResource(beginTimeMs, endTimeMs, identity);
+        if (list != null) {
+            for (MetricNode node : list) {
+                consumer.accept(node);
+            }
+        }
+    }
+
+    /**
+     * @return false if the resource index is not available, in which case the metric files should be scanned
+     */
+    private boolean findByResourceIndex(long beginTimeMs, long endTimeMs, String identity,
+                                        final Consumer<MetricNode> consumer) throws Exception {
+        if (identity == null) {
+            return false;
+        }
+        List<String> fileNames = MetricWriter.listMetricFiles(baseDir, baseFileName);
+        if (fileNames.isEmpty()) {
+            return false;
+        }
+        for (String fileName : fileNames) {
+            if (!MetricResourceIndex.exists(fileName)) {
+                return false;
+            }
+        }
+        Predicate<MetricNode> limitedConsumer = new Predicate<MetricNode>() {
+            private int count = 0;
+
+            @Override
+            public boolean test(MetricNode node) {
+                consumer.accept(node);
+                return ++count < MAX_NODES_RETURN;
+            }
+        };
+        long beginSecond = beginTimeMs / 1000;
+        long endSecond = endTimeMs / 1000;
+        for (String fileName : fileNames) {
+            if (!MetricResourceIndex.search(fileName, beginSecond, endSecond, identity, charset, limitedConsumer)) {
+                break;
+            }
+        }
+        return true;
+    }
+
+    private synchronized List<MetricNode> findByTimeAndResourceSequentially(long beginTimeMs, long endTimeMs,
+                                                                            String identity) throws Exception {
         List<String> fileNames = MetricWriter.listMetricFiles(baseDir, baseFileName);
         //RecordLog.info("pid=" + pid + ", findByTimeAndResource([" + beginTimeMs + ", " + endTimeMs
         //    + "], " + identity + ")");
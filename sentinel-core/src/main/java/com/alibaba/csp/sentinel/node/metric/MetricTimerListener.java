@@ -15,15 +15,11 @@
  */
 package com.alibaba.csp.sentinel.node.metric;
 
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.TreeMap;
 
 import com.alibaba.csp.sentinel.Constants;
 import com.alibaba.csp.sentinel.config.SentinelConfig;
-import com.alibaba.csp.sentinel.log.RecordLog;
 import com.alibaba.csp.sentinel.node.ClusterNode;
 import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
 import com.alibaba.csp.sentinel.slots.clusterbuilder.ClusterBuilderSlot;
@@ -33,39 +29,71 @@ import com.alibaba.csp.sentinel.slots.clusterbuilder.ClusterBuilderSlot;
  */
 public class MetricTimerListener implements Runnable {
 
-    private static final MetricWriter metricWriter = new MetricWriter(SentinelConfig.singleMetricFileSize(),
-        SentinelConfig.totalMetricFileCount());
+    private static final AsyncMetricWriter metricWriter = new AsyncMetricWriter(new MetricWriter(
+        SentinelConfig.singleMetricFileSize(), SentinelConfig.totalMetricFileCount(),
+        SentinelConfig.isBinaryMetricFileFormat()));
 
     @Override
     public void run() {
-        Map<Long, List<MetricNode>> maps = new TreeMap<>();
+        AsyncMetricWriter.MetricBatch batch = metricWriter.acquireBatch();
+        if (batch == null) {
+            // Still fetch the metrics to move the fetch position forward, so that they are dropped
+            // instead of being written late in the next round.
+            metricWriter.recordDropped(countAndDrop());
+            return;
+        }
         for (Entry<ResourceWrapper, ClusterNode> e : ClusterBuilderSlot.getClusterNodeMap().entrySet()) {
             ClusterNode node = e.getValue();
             Map<Long, MetricNode> metrics = node.metrics();
-            aggregate(maps, metrics, node);
-        }
-        aggregate(maps, Constants.ENTRY_NODE.metrics(), Constants.ENTRY_NODE);
-        if (!maps.isEmpty()) {
-            for (Entry<Long, List<MetricNode>> entry : maps.entrySet()) {
-                try {
-                    metricWriter.write(entry.getKey(), entry.getValue());
-                } catch (Exception e) {
-                    RecordLog.warn("[MetricTimerListener] Write metric error", e);
-                }
-            }
+            aggregate(batch, metrics, node);
         }
+        aggregate(batch, Constants.ENTRY_NODE.metrics(), Constants.ENTRY_NODE);
+        metricWriter.submit(batch);
     }
 
-    private void aggregate(Map<Long, List<MetricNode>> maps, Map<Long, MetricNode> metrics, ClusterNode node) {
+    private void aggregate(AsyncMetricWriter.MetricBatch batch, Map<Long, MetricNode> metrics, ClusterNode node) {
         for (Entry<Long, MetricNode> entry : metrics.entrySet()) {
-            long time = entry.getKey();
             MetricNode metricNode = entry.getValue();
             metricNode.setResource(node.getName());
             metricNode.setClassification(node.getResourceType());
-            maps.computeIfAbsent(time, k -> new ArrayList<MetricNode>());
-            List<MetricNode> nodes = maps.get(time);
-            nodes.add(entry.getValue());
+            batch.add(entry.getKey(), metricNode);
+        }
+    }
+
+    private int countAndDrop() {
+        int count = 0;
+        for (ClusterNode node : ClusterBuilderSlot.getClusterNodeMap().values()) {
+            count += node.metrics().size();
+        }
+        return count + Constants.ENTRY_NODE.metrics().size();
+    }
+
+    /**
+     * Add a listener which is notified after each batch of metrics is written.
+     *
+     * @param listener the listener
+     * @since 1.8.7
+     */
+    public static void addFlushListener(MetricFlushListener listener) {
+        if (listener != null) {
+            metricWriter.addFlushListener(listener);
         }
     }
 
+    /**
+     * @param listener the listener to remove
+     * @since 1.8.7
+     */
+    public static void removeFlushListener(MetricFlushListener listener) {
+        metricWriter.removeFlushListener(listener);
+    }
+
+    /**
+     * @return count of the metric nodes dropped because the metric writing can't keep up
+     * @since 1.8.7
+     */
+    public static long getDroppedMetricNodeCount() {
+        return metricWriter.getDroppedNodeCount();
+    }
+
 }
@@ -26,6 +26,7 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 
 import com.alibaba.csp.sentinel.log.LogBase;
 import com.alibaba.csp.sentinel.util.PidUtil;
@@ -41,6 +42,16 @@ import com.alibaba.csp.sentinel.log.RecordLog;
  * <li>metric of different day should in different file;</li>
  * <li>every metric file is accompanied with an index file, which file name is {@code ${metricFileName}.idx}</li>
  * </ol>
+ * <p>
+ * Metrics could also be written in the binary format (see {@link BinaryMetricEncoder}), in which case the file
+ * name is like {@code ${appName}-metrics.bin.pid${pid}.yyyy-MM-dd.[number]}, and every metric file is also
+ * accompanied with a resource table file, which file name is {@code ${metricFileName}.res}.
+ * </p>
+ * <p>
+ * Text metric files are also accompanied with a resource index file (see {@link MetricResourceIndex}),
+ * which file name is {@code ${metricFileName}.ridx}, so that metrics of a single resource could be found
+ * without parsing every line.
+ * </p>
  *
  * @author Carpenter Lee
  */
@@ -55,9 +66,23 @@ public class MetricWriter {
      * @see #formMetricFileName(String, int)
      */
     public static final String METRIC_FILE = "metrics.log";
+    /**
+     * @since 1.8.7
+     */
+    public static final String BINARY_METRIC_FILE = "metrics.bin";
     public static final String METRIC_FILE_INDEX_SUFFIX = ".idx";
+    /**
+     * @since 1.8.7
+     */
+    public static final String METRIC_FILE_RESOURCE_SUFFIX = ".res";
+    /**
+     * @since 1.8.7
+     */
+    public static final String METRIC_FILE_RESOURCE_INDEX_SUFFIX = ".ridx";
     public static final Comparator<String> METRIC_FILE_NAME_CMP = new MetricFileNameComparator();
 
+    private static final int METRIC_BUFFER_SIZE = 64 * 1024;
+
     private final DateFormat df = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
     /**
      * 排除时差干扰
@@ -72,8 +97,18 @@ public class MetricWriter {
     private File curMetricIndexFile;
 
     private FileOutputStream outMetric;
+    /**
+     * Size of current metric file, including the bytes not flushed yet.
+     */
+    private long metricFileSize;
     private DataOutputStream outIndex;
     private BufferedOutputStream outMetricBuf;
+    private DataOutputStream outResource;
+    private DataOutputStream outResourceIndex;
+    /**
+     * Encoder of the binary format, null if metrics are written as text.
+     */
+    private final BinaryMetricEncoder binaryEncoder;
     private long singleFileSize;
     private int totalFileCount;
     private boolean append = false;
@@ -89,12 +124,27 @@ public class MetricWriter {
     }
 
     public MetricWriter(long singleFileSize, int totalFileCount) {
+        this(singleFileSize, totalFileCount, false);
+    }
+
+    /**
+     * @param singleFileSize max size of a single metric file
+     * @param totalFileCount max count of metric files
+     * @param binary         whether to write metrics in the binary format
+     * @since 1.8.7
+     */
+    public MetricWriter(long singleFileSize, int totalFileCount, boolean binary) {
+        this(METRIC_BASE_DIR, singleFileSize, totalFileCount, binary);
+    }
+
+    MetricWriter(String baseDir, long singleFileSize, int totalFileCount, boolean binary) {
         if (singleFileSize <= 0 || totalFileCount <= 0) {
             throw new IllegalArgumentException();
         }
-        RecordLog.info("[MetricWriter] Creating new MetricWriter, singleFileSize={}, totalFileCount={}",
-            singleFileSize, totalFileCount);
-        this.baseDir = METRIC_BASE_DIR;
+        RecordLog.info("[MetricWriter] Creating new MetricWriter, singleFileSize={}, totalFileCount={}, binary={}",
+            singleFileSize, totalFileCount, binary);
+        this.binaryEncoder = binary ? new BinaryMetricEncoder() : null;
+        this.baseDir = baseDir.endsWith(File.separator) ? baseDir : baseDir + File.separator;
         File dir = new File(baseDir);
         if (!dir.exists()) {
             dir.mkdirs();
@@ -121,6 +171,27 @@ public class MetricWriter {
         if (nodes == null) {
             return;
         }
+        doWrite(time, nodes);
+        commit();
+    }
+
+    /**
+     * Write metrics of several seconds, and flush only once after all of them are written (i.e. group commit).
+     *
+     * @param metrics metric nodes grouped by timestamp, should be sorted by timestamp in ascending order
+     * @since 1.8.7
+     */
+    public synchronized void write(Map<Long, List<MetricNode>> metrics) throws Exception {
+        if (metrics == null || metrics.isEmpty()) {
+            return;
+        }
+        for (Map.Entry<Long, List<MetricNode>> entry : metrics.entrySet()) {
+            doWrite(entry.getKey(), entry.getValue());
+        }
+        commit();
+    }
+
+    private void doWrite(long time, List<MetricNode> nodes) throws Exception {
         for (MetricNode node : nodes) {
             node.setTimestamp(time);
         }
@@ -131,7 +202,7 @@ public class MetricWriter {
         }
         // first write, should create file
         if (curMetricFile == null) {
-            baseFileName = formMetricFileName(appName, pid);
+            baseFileName = formMetricFileName(appName, pid, binaryEncoder != null);
             closeAndNewFile(nextFileNameOfDay(time));
         }
         if (!(curMetricFile.exists() && curMetricIndexFile.exists())) {
@@ -142,29 +213,20 @@ public class MetricWriter {
         if (second < lastSecond) {
             // 时间靠前的直接忽略，不应该发生。
         } else if (second == lastSecond) {
-            for (MetricNode node : nodes) {
-                outMetricBuf.write(node.toFatString().getBytes(CHARSET));
-            }
-            outMetricBuf.flush();
+            writeNodes(time, nodes);
             if (!validSize()) {
                 closeAndNewFile(nextFileNameOfDay(time));
             }
         } else {
-            writeIndex(second, outMetric.getChannel().position());
+            writeIndex(second, metricFileSize);
             if (isNewDay(lastSecond, second)) {
                 closeAndNewFile(nextFileNameOfDay(time));
-                for (MetricNode node : nodes) {
-                    outMetricBuf.write(node.toFatString().getBytes(CHARSET));
-                }
-                outMetricBuf.flush();
+                writeNodes(time, nodes);
                 if (!validSize()) {
                     closeAndNewFile(nextFileNameOfDay(time));
                 }
             } else {
-                for (MetricNode node : nodes) {
-                    outMetricBuf.write(node.toFatString().getBytes(CHARSET));
-                }
-                outMetricBuf.flush();
+                writeNodes(time, nodes);
                 if (!validSize()) {
                     closeAndNewFile(nextFileNameOfDay(time));
                 }
@@ -173,6 +235,31 @@ public class MetricWriter {
         }
     }
 
+    private void writeNodes(long time, List<MetricNode> nodes) throws Exception {
+        if (binaryEncoder != null) {
+            metricFileSize += binaryEncoder.writeBlock(time, nodes, outMetricBuf);
+        } else {
+            long second = time / 1000;
+            for (MetricNode node : nodes) {
+                byte[] bytes = node.toFatString().getBytes(CHARSET);
+                MetricResourceIndex.writeEntry(outResourceIndex, second, metricFileSize, node.getResource());
+                outMetricBuf.write(bytes);
+                metricFileSize += bytes.length;
+            }
+        }
+    }
+
+    /**
+     * Flush the metric file before the index file, so that the index never points to unwritten data.
+     */
+    private void commit() throws Exception {
+        outMetricBuf.flush();
+        outIndex.flush();
+        if (outResourceIndex != null) {
+            outResourceIndex.flush();
+        }
+    }
+
     public synchronized void close() throws Exception {
         if (outMetricBuf != null) {
             outMetricBuf.close();
@@ -180,12 +267,17 @@ public class MetricWriter {
         if (outIndex != null) {
             outIndex.close();
         }
+        if (outResource != null) {
+            outResource.close();
+        }
+        if (outResourceIndex != null) {
+            outResourceIndex.close();
+        }
     }
 
     private void writeIndex(long time, long offset) throws Exception {
         outIndex.writeLong(time);
         outIndex.writeLong(offset);
-        outIndex.flush();
     }
 
     private String nextFileNameOfDay(long time) {
@@ -198,6 +290,8 @@ public class MetricWriter {
             String fileName = file.getName();
             if (fileName.contains(fileNameModel)
                 && !fileName.endsWith(METRIC_FILE_INDEX_SUFFIX)
+                && !fileName.endsWith(METRIC_FILE_RESOURCE_SUFFIX)
+                && !fileName.endsWith(METRIC_FILE_RESOURCE_INDEX_SUFFIX)
                 && !fileName.endsWith(".lck")) {
                 list.add(file.getAbsolutePath());
             }
@@ -330,6 +424,16 @@ public class MetricWriter {
             RecordLog.info("[MetricWriter] Removing metric file: {}", fileName);
             new File(indexFile).delete();
             RecordLog.info("[MetricWriter] Removing metric index file: {}", indexFile);
+            File resourceFile = new File(formResourceFileName(fileName));
+            if (resourceFile.exists()) {
+                resourceFile.delete();
+                RecordLog.info("[MetricWriter] Removing metric resource file: {}", resourceFile);
+            }
+            File resourceIndexFile = new File(formResourceIndexFileName(fileName));
+            if (resourceIndexFile.exists()) {
+                resourceIndexFile.delete();
+                RecordLog.info("[MetricWriter] Removing metric resource index file: {}", resourceIndexFile);
+            }
         }
     }
 
@@ -341,19 +445,36 @@ public class MetricWriter {
         if (outIndex != null) {
             outIndex.close();
         }
+        if (outResource != null) {
+            outResource.close();
+        }
+        if (outResourceIndex != null) {
+            outResourceIndex.close();
+        }
         outMetric = new FileOutputStream(fileName, append);
-        outMetricBuf = new BufferedOutputStream(outMetric);
+        outMetricBuf = new BufferedOutputStream(outMetric, METRIC_BUFFER_SIZE);
+        metricFileSize = outMetric.getChannel().size();
         curMetricFile = new File(fileName);
         String idxFile = formIndexFileName(fileName);
         curMetricIndexFile = new File(idxFile);
         outIndex = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(idxFile, append)));
         RecordLog.info("[MetricWriter] New metric file created: {}", fileName);
         RecordLog.info("[MetricWriter] New metric index file created: {}", idxFile);
+        if (binaryEncoder != null) {
+            String resourceFile = formResourceFileName(fileName);
+            outResource = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(resourceFile, append)));
+            binaryEncoder.reset(outResource);
+            RecordLog.info("[MetricWriter] New metric resource file created: {}", resourceFile);
+        } else {
+            String resourceIndexFile = formResourceIndexFileName(fileName);
+            outResourceIndex = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(resourceIndexFile, append)));
+            RecordLog.info("[MetricWriter] New metric resource index file created: {}", resourceIndexFile);
+        }
     }
 
     private boolean validSize() throws Exception {
-        long size = outMetric.getChannel().size();
-        return size < singleFileSize;
+        return metricFileSize < singleFileSize;
     }
 
     private boolean isNewDay(long lastSecond, long second) {
@@ -374,6 +495,20 @@ public class MetricWriter {
      * @return metric file name.
      */
     public static String formMetricFileName(String appName, int pid) {
+        return formMetricFileName(appName, pid, false);
+    }
+
+    /**
+     * Form metric file name use the specific appName and pid. Note that only
+     * form the file name, not include path.
+     *
+     * @param appName application name
+     * @param pid     process ID
+     * @param binary  whether the metric file is in the binary format
+     * @return metric file name.
+     * @since 1.8.7
+     */
+    public static String formMetricFileName(String appName, int pid, boolean binary) {
         if (appName == null) {
             appName = "";
         }
@@ -383,7 +518,7 @@ public class MetricWriter {
         if (appName.contains(dot)) {
             appName = appName.replace(dot, separator);
         }
-        String name = appName + separator + METRIC_FILE;
+        String name = appName + separator + (binary ? BINARY_METRIC_FILE : METRIC_FILE);
         if (LogBase.isLogNameUsePid()) {
             name += ".pid" + pid;
         }
@@ -399,4 +534,26 @@ public class MetricWriter {
     public static String formIndexFileName(String metricFileName) {
         return metricFileName + METRIC_FILE_INDEX_SUFFIX;
     }
+
+    /**
+     * Form resource table file name of the binary {@code metricFileName}
+     *
+     * @param metricFileName
+     * @return the resource table file name of the metricFileName
+     * @since 1.8.7
+     */
+    public static String formResourceFileName(String metricFileName) {
+        return metricFileName + METRIC_FILE_RESOURCE_SUFFIX;
+    }
+
+    /**
+     * Form resource index file name of the text {@code metricFileName}
+     *
+     * @param metricFileName
+     * @return the resource index file name of the metricFileName
+     * @since 1.8.7
+     */
+    public static String formResourceIndexFileName(String metricFileName) {
+        return metricFileName + METRIC_FILE_RESOURCE_INDEX_SUFFIX;
+    }
 }
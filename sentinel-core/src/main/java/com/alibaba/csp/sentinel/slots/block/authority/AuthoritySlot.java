@@ -40,6 +40,10 @@ public class  AuthoritySlot extends AbstractLinkedProcessorSlot<DefaultNode> {
     @Override
     public void entry(Context context, ResourceWrapper resourceWrapper, DefaultNode node, int count, boolean prioritized, Object... args)
         throws Throwable {
+        ResourceWrapper parentResource = context.getCurEntry().getParentResourceWrapper();
+        if (parentResource != null) {
+            checkBlackWhiteAuthority(parentResource, context);
+        }
         checkBlackWhiteAuthority(resourceWrapper, context);
         fireEntry(context, resourceWrapper, node, count, prioritized, args);
     }
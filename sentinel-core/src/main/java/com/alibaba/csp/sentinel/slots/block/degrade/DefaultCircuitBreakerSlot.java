@@ -40,6 +40,10 @@ public class DefaultCircuitBreakerSlot extends AbstractLinkedProcessorSlot<Defau
     @Override
     public void entry(Context context, ResourceWrapper resourceWrapper, DefaultNode node, int count,
                       boolean prioritized, Object... args) throws Throwable {
+        ResourceWrapper parentResource = context.getCurEntry().getParentResourceWrapper();
+        if (parentResource != null) {
+            performChecking(context, parentResource);
+        }
         performChecking(context, resourceWrapper);
 
         fireEntry(context, resourceWrapper, node, count, prioritized, args);
@@ -72,25 +76,29 @@ public class DefaultCircuitBreakerSlot extends AbstractLinkedProcessorSlot<Defau
             return;
         }
 
+        // passed request
+        ResourceWrapper parentResource = curEntry.getParentResourceWrapper();
+        if (parentResource != null) {
+            onRequestComplete(context, parentResource);
+        }
+        onRequestComplete(context, r);
+
+        fireExit(context, r, count, args);
+    }
+
+    private void onRequestComplete(Context context, ResourceWrapper r) {
         if (DegradeRuleManager.hasConfig(r.getName())) {
-            fireExit(context, r, count, args);
             return;
         }
 
         List<CircuitBreaker> circuitBreakers = DefaultCircuitBreakerRuleManager.getDefaultCircuitBreakers(r.getName());
 
         if (circuitBreakers == null || circuitBreakers.isEmpty()) {
-            fireExit(context, r, count, args);
             return;
         }
 
-        if (curEntry.getBlockError() == null) {
-            // passed request
-            for (CircuitBreaker circuitBreaker : circuitBreakers) {
-                circuitBreaker.onRequestComplete(context);
-            }
+        for (CircuitBreaker circuitBreaker : circuitBreakers) {
+            circuitBreaker.onRequestComplete(context);
         }
-
-        fireExit(context, r, count, args);
     }
 }
@@ -41,6 +41,10 @@ public class DegradeSlot extends AbstractLinkedProcessorSlot<DefaultNode> {
     @Override
     public void entry(Context context, ResourceWrapper resourceWrapper, DefaultNode node, int count,
                       boolean prioritized, Object... args) throws Throwable {
+        ResourceWrapper parentResource = context.getCurEntry().getParentResourceWrapper();
+        if (parentResource != null) {
+            performChecking(context, parentResource);
+        }
         performChecking(context, resourceWrapper);
 
         fireEntry(context, resourceWrapper, node, count, prioritized, args);
@@ -68,19 +72,22 @@ public class DegradeSlot extends AbstractLinkedProcessorSlot<DefaultNode> {
             return;
         }
         // 熔断器流程
+        ResourceWrapper parentResource = curEntry.getParentResourceWrapper();
+        if (parentResource != null) {
+            onRequestComplete(context, parentResource);
+        }
+        onRequestComplete(context, r);
+
+        fireExit(context, r, count, args);
+    }
+
+    private void onRequestComplete(Context context, ResourceWrapper r) {
         List<CircuitBreaker> circuitBreakers = DegradeRuleManager.getCircuitBreakers(r.getName());
         if (circuitBreakers == null || circuitBreakers.isEmpty()) {
-            fireExit(context, r, count, args);
             return;
         }
-
-        if (curEntry.getBlockError() == null) {
-            // passed request
-            for (CircuitBreaker circuitBreaker : circuitBreakers) {
-                circuitBreaker.onRequestComplete(context);
-            }
+        for (CircuitBreaker circuitBreaker : circuitBreakers) {
+            circuitBreaker.onRequestComplete(context);
         }
-
-        fireExit(context, r, count, args);
     }
 }
@@ -0,0 +1,89 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.block.flow;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <p>Holds the states used when the cluster token service is unavailable: the shadow local limiter
+ * of each cluster flow rule, and the circuit breaker of the token service.</p>
+ *
+ * @since 1.8.7
+ */
+public final class ClusterFallbackManager {
+
+    private static final ConcurrentHashMap<Long, ClusterShadowLimiter> SHADOW_LIMITERS = new ConcurrentHashMap<>();
+    private static volatile ClusterTokenCircuitBreaker circuitBreaker = new ClusterTokenCircuitBreaker();
+
+    private static volatile int serverConnectedCount = -1;
+
+    /**
+     * Update the connected count of current namespace reported by the token server.
+     *
+     * @param connectedCount connected count reported by the token server
+     */
+    public static void updateServerConnectedCount(int connectedCount) {
+        serverConnectedCount = connectedCount;
+    }
+
+    /**
+     * @return the connected count reported by the token server, or -1 if unknown
+     */
+    public static int getServerConnectedCount() {
+        return serverConnectedCount;
+    }
+
+    /**
+     * @param flowId flow ID of the cluster flow rule
+     * @return current local share of the rule when the token server is unavailable, or -1 if not estimated
+     */
+    public static double getShadowShare(long flowId) {
+        ClusterShadowLimiter limiter = SHADOW_LIMITERS.get(flowId);
+        return limiter == null ? -1 : limiter.getShare();
+    }
+
+    public static boolean isCircuitOpen() {
+        return circuitBreaker.isOpen();
+    }
+
+    public static void reset() {
+        SHADOW_LIMITERS.clear();
+        circuitBreaker = new ClusterTokenCircuitBreaker();
+        serverConnectedCount = -1;
+    }
+
+    static ClusterShadowLimiter getShadowLimiter(long flowId) {
+        return SHADOW_LIMITERS.get(flowId);
+    }
+
+    static ClusterShadowLimiter getOrCreateShadowLimiter(long flowId) {
+        ClusterShadowLimiter limiter = SHADOW_LIMITERS.get(flowId);
+        if (limiter == null) {
+            limiter = new ClusterShadowLimiter();
+            ClusterShadowLimiter old = SHADOW_LIMITERS.putIfAbsent(flowId, limiter);
+            if (old != null) {
+                limiter = old;
+            }
+        }
+        return limiter;
+    }
+
+    static ClusterTokenCircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    private ClusterFallbackManager() {}
+}
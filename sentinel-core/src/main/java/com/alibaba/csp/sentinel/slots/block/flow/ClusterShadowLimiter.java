@@ -0,0 +1,125 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.block.flow;
+
+import com.alibaba.csp.sentinel.node.Node;
+import com.alibaba.csp.sentinel.slots.block.ClusterRuleConstant;
+
+/**
+ * <p>Shadow local limiter of a cluster flow rule, which is used when the token server is unavailable.</p>
+ *
+ * <p>While the token server is available, the limiter keeps estimating the local share of the global
+ * threshold from the token results: the global QPS is derived from the remaining count, so the local share
+ * is {@code globalThreshold * localQps / globalQps}, smoothed with EWMA. The connected count reported by
+ * the server is used to get the global threshold of {@code AVG_LOCAL} rules, and the fair share
+ * ({@code globalThreshold / connectedCount}) when there is too little traffic to estimate.</p>
+ *
+ * @since 1.8.7
+ */
+final class ClusterShadowLimiter {
+
+    static final long SAMPLE_INTERVAL_MS = 100;
+
+    private static final double EWMA_ALPHA = 0.2d;
+    private static final double MIN_GLOBAL_QPS = 1.0d;
+    /**
+     * The local share won't be lower than the ratio of fair share, so that a client with little traffic
+     * won't be starved right after failover.
+     */
+    private static final double MIN_FAIR_SHARE_RATIO = 0.5d;
+
+    private volatile long lastSampleTime = 0;
+    private volatile double share = -1;
+
+    private volatile double ruleCount;
+    private volatile int thresholdType;
+
+    boolean shouldSample(long now) {
+        return now - lastSampleTime >= SAMPLE_INTERVAL_MS;
+    }
+
+    /**
+     * Update the local share with a recent token result.
+     *
+     * @param rule           the cluster flow rule
+     * @param localQps       current local pass QPS of the rule
+     * @param remaining      remaining count of the token result
+     * @param connectedCount connected count reported by the server, non-positive if unknown
+     * @param now            current time in milliseconds
+     */
+    synchronized void sample(FlowRule rule, double localQps, int remaining, int connectedCount, long now) {
+        if (!shouldSample(now)) {
+            return;
+        }
+        this.lastSampleTime = now;
+        double count = rule.getCount();
+        int type = rule.getClusterConfig().getThresholdType();
+        if (count != ruleCount || type != thresholdType) {
+            // The rule has been changed, so the former estimate is invalid.
+            this.ruleCount = count;
+            this.thresholdType = type;
+            this.share = -1;
+        }
+
+        boolean global = type == ClusterRuleConstant.FLOW_THRESHOLD_GLOBAL;
+        double fairShare;
+        double globalThreshold;
+        if (connectedCount > 0) {
+            fairShare = global ? count / connectedCount : count;
+            globalThreshold = global ? count : count * connectedCount;
+        } else if (global) {
+            // Unknown connected count, so the fair share is unknown either.
+            fairShare = -1;
+            globalThreshold = count;
+        } else {
+            // Average local threshold is already the fair share.
+            this.share = count;
+            return;
+        }
+
+        double globalQps = Math.max(0, globalThreshold - Math.max(remaining, 0));
+        double target;
+        if (globalQps >= MIN_GLOBAL_QPS && localQps > 0) {
+            target = globalThreshold * Math.min(1.0d, localQps / globalQps);
+            if (fairShare > 0) {
+                target = Math.max(target, fairShare * MIN_FAIR_SHARE_RATIO);
+            }
+        } else if (fairShare > 0) {
+            target = fairShare;
+        } else {
+            return;
+        }
+        double current = this.share;
+        this.share = current < 0 ? target : current + EWMA_ALPHA * (target - current);
+    }
+
+    /**
+     * @param rule the cluster flow rule
+     * @return whether there is a valid estimate for current rule
+     */
+    boolean isReady(FlowRule rule) {
+        return share >= 0 && rule.getCount() == ruleCount
+            && rule.getClusterConfig().getThresholdType() == thresholdType;
+    }
+
+    boolean canPass(Node node, int acquireCount) {
+        return node.passQps() + acquireCount <= share;
+    }
+
+    double getShare() {
+        return share;
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.block.flow;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <p>Circuit breaker of the cluster token service. After several consecutive failures (e.g. timeout),
+ * token requests are not sent to the token server any more, and the checker falls back to local flow
+ * control directly, so that entries won't wait for an unavailable server. A single probe request
+ * is allowed after the retry interval, which backs off exponentially while the server stays unavailable.</p>
+ *
+ * @since 1.8.7
+ */
+final class ClusterTokenCircuitBreaker {
+
+    static final int FAILURE_THRESHOLD = 3;
+    static final long INITIAL_RETRY_INTERVAL_MS = 500;
+    static final long MAX_RETRY_INTERVAL_MS = 8000;
+
+    private final AtomicInteger consecutiveFailures = new AtomicInteger(0);
+    private final AtomicBoolean probing = new AtomicBoolean(false);
+
+    private volatile long retryIntervalMs = INITIAL_RETRY_INTERVAL_MS;
+    private volatile long nextRetryTime = 0;
+
+    /**
+     * @param now current time in milliseconds
+     * @return true if the token request could be sent to the server
+     */
+    boolean tryPass(long now) {
+        if (consecutiveFailures.get() < FAILURE_THRESHOLD) {
+            return true;
+        }
+        return now >= nextRetryTime && probing.compareAndSet(false, true);
+    }
+
+    void onSuccess() {
+        if (consecutiveFailures.get() != 0) {
+            consecutiveFailures.set(0);
+            retryIntervalMs = INITIAL_RETRY_INTERVAL_MS;
+        }
+        probing.set(false);
+    }
+
+    void onFailure(long now) {
+        int failures = consecutiveFailures.incrementAndGet();
+        if (failures >= FAILURE_THRESHOLD) {
+            long interval = retryIntervalMs;
+            nextRetryTime = now + interval;
+            retryIntervalMs = Math.min(interval * 2, MAX_RETRY_INTERVAL_MS);
+        }
+        probing.set(false);
+    }
+
+    boolean isOpen() {
+        return consecutiveFailures.get() >= FAILURE_THRESHOLD;
+    }
+}
@@ -32,6 +32,7 @@ import com.alibaba.csp.sentinel.slots.block.BlockException;
 import com.alibaba.csp.sentinel.slots.block.RuleConstant;
 import com.alibaba.csp.sentinel.slots.clusterbuilder.ClusterBuilderSlot;
 import com.alibaba.csp.sentinel.util.StringUtil;
+import com.alibaba.csp.sentinel.util.TimeUtil;
 import com.alibaba.csp.sentinel.util.function.Function;
 
 /**
@@ -160,8 +161,24 @@ public class FlowRuleChecker {
             if (clusterService == null) {
                 return fallbackToLocalOrPass(rule, context, node, acquireCount, prioritized);
             }
+            ClusterTokenCircuitBreaker circuitBreaker = ClusterFallbackManager.getCircuitBreaker();
+            if (!circuitBreaker.tryPass(TimeUtil.currentTimeMillis())) {
+                // The token server is unavailable recently, so fallback directly rather than waiting for it.
+                return fallbackToLocalOrPass(rule, context, node, acquireCount, prioritized);
+            }
             long flowId = rule.getClusterConfig().getFlowId();
-            TokenResult result = clusterService.requestToken(flowId, acquireCount, prioritized);
+            TokenResult result;
+            try {
+                result = clusterService.requestToken(flowId, acquireCount, prioritized);
+            } catch (Throwable ex) {
+                circuitBreaker.onFailure(TimeUtil.currentTimeMillis());
+                throw ex;
+            }
+            if (result.getStatus() == TokenResultStatus.FAIL) {
+                circuitBreaker.onFailure(TimeUtil.currentTimeMillis());
+            } else {
+                circuitBreaker.onSuccess();
+            }
             return applyTokenResult(result, rule, context, node, acquireCount, prioritized);
             // If client is absent, then fallback to local mode.
         } catch (Throwable ex) {
@@ -175,6 +192,13 @@ public class FlowRuleChecker {
     private static boolean fallbackToLocalOrPass(FlowRule rule, Context context, DefaultNode node, int acquireCount,
                                                  boolean prioritized) {
         if (rule.getClusterConfig().isFallbackToLocalWhenFail()) {
+            ClusterShadowLimiter shadowLimiter = ClusterFallbackManager.getShadowLimiter(
+                rule.getClusterConfig().getFlowId());
+            if (shadowLimiter != null && shadowLimiter.isReady(rule)) {
+                // Use the estimated local share of the global threshold.
+                Node selectedNode = selectNodeByRequesterAndStrategy(rule, context, node);
+                return selectedNode == null || shadowLimiter.canPass(selectedNode, acquireCount);
+            }
             return passLocalCheck(rule, context, node, acquireCount, prioritized);
         } else {
             // The rule won't be activated, just pass.
@@ -182,6 +206,24 @@ public class FlowRuleChecker {
         }
     }
 
+    private static void sampleShadowLimiter(TokenResult result, FlowRule rule, Context context, DefaultNode node) {
+        if (!rule.getClusterConfig().isFallbackToLocalWhenFail()) {
+            return;
+        }
+        ClusterShadowLimiter shadowLimiter = ClusterFallbackManager.getOrCreateShadowLimiter(
+            rule.getClusterConfig().getFlowId());
+        long now = TimeUtil.currentTimeMillis();
+        if (!shadowLimiter.shouldSample(now)) {
+            return;
+        }
+        Node selectedNode = selectNodeByRequesterAndStrategy(rule, context, node);
+        if (selectedNode == null) {
+            return;
+        }
+        shadowLimiter.sample(rule, selectedNode.passQps(), result.getRemaining(),
+            ClusterFallbackManager.getServerConnectedCount(), now);
+    }
+
     private static TokenService pickClusterService() {
         if (ClusterStateManager.isClient()) {
             return TokenClientProvider.getClient();
@@ -197,8 +239,10 @@ public class FlowRuleChecker {
                                                          int acquireCount, boolean prioritized) {
         switch (result.getStatus()) {
             case TokenResultStatus.OK:
+                sampleShadowLimiter(result, rule, context, node);
                 return true;
             case TokenResultStatus.SHOULD_WAIT:
+                sampleShadowLimiter(result, rule, context, node);
                 // Wait for next tick.
                 try {
                     Thread.sleep(result.getWaitInMs());
@@ -212,6 +256,8 @@ public class FlowRuleChecker {
             case TokenResultStatus.TOO_MANY_REQUEST:
                 return fallbackToLocalOrPass(rule, context, node, acquireCount, prioritized);
             case TokenResultStatus.BLOCKED:
+                sampleShadowLimiter(result, rule, context, node);
+                return false;
             default:
                 return false;
         }
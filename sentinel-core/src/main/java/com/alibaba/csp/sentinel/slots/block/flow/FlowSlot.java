@@ -16,8 +16,10 @@
 package com.alibaba.csp.sentinel.slots.block.flow;
 
 import com.alibaba.csp.sentinel.Constants;
+import com.alibaba.csp.sentinel.Entry;
 import com.alibaba.csp.sentinel.context.Context;
 import com.alibaba.csp.sentinel.node.DefaultNode;
+import com.alibaba.csp.sentinel.node.Node;
 import com.alibaba.csp.sentinel.slotchain.AbstractLinkedProcessorSlot;
 import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
 import com.alibaba.csp.sentinel.slots.block.BlockException;
@@ -169,6 +171,10 @@ public class FlowSlot extends AbstractLinkedProcessorSlot<DefaultNode> {
     @Override
     public void entry(Context context, ResourceWrapper resourceWrapper, DefaultNode node, int count,
                       boolean prioritized, Object... args) throws Throwable {
+        DefaultNode parentNode = context.getCurEntry().getParentResourceNode();
+        if (parentNode != null) {
+            checkParentFlow(parentNode, context, count, prioritized);
+        }
         checkFlow(resourceWrapper, context, node, count, prioritized);
 
         fireEntry(context, resourceWrapper, node, count, prioritized, args);
@@ -179,6 +185,23 @@ public class FlowSlot extends AbstractLinkedProcessorSlot<DefaultNode> {
         checker.checkFlow(ruleProvider, resource, context, node, count, prioritized);
     }
 
+    /**
+     * Check the rules of the parent resource with the origin node of the parent resource.
+     */
+    private void checkParentFlow(DefaultNode parentNode, Context context, int count, boolean prioritized)
+        throws BlockException {
+        Entry curEntry = context.getCurEntry();
+        Node originNode = curEntry.getOriginNode();
+        if (originNode != null) {
+            curEntry.setOriginNode(parentNode.getClusterNode().getOrCreateOriginNode(context.getOrigin()));
+        }
+        try {
+            checkFlow(parentNode.getId(), context, parentNode, count, prioritized);
+        } finally {
+            curEntry.setOriginNode(originNode);
+        }
+    }
+
     @Override
     public void exit(Context context, ResourceWrapper resourceWrapper, int count, Object... args) {
         fireExit(context, resourceWrapper, count, args);
@@ -19,9 +19,11 @@ import java.util.HashMap;
 import java.util.Map;
 
 import com.alibaba.csp.sentinel.Constants;
+import com.alibaba.csp.sentinel.Entry;
 import com.alibaba.csp.sentinel.EntryType;
 import com.alibaba.csp.sentinel.context.Context;
 import com.alibaba.csp.sentinel.context.ContextUtil;
+import com.alibaba.csp.sentinel.log.RecordLog;
 import com.alibaba.csp.sentinel.node.ClusterNode;
 import com.alibaba.csp.sentinel.node.DefaultNode;
 import com.alibaba.csp.sentinel.node.IntervalProperty;
@@ -79,25 +81,32 @@ public class ClusterBuilderSlot extends AbstractLinkedProcessorSlot<DefaultNode>
 
     private volatile ClusterNode clusterNode = null;
 
+    /**
+     * Node of the parent resource for rule checking, see {@link Entry#getParentResourceNode()}.
+     */
+    private volatile DefaultNode parentResourceNode = null;
+
     @Override
     public void entry(Context context, ResourceWrapper resourceWrapper, DefaultNode node, int count,
                       boolean prioritized, Object... args)
         throws Throwable {
+        ResourceWrapper parentResource = context.getCurEntry().getParentResourceWrapper();
         if (clusterNode == null) {
             synchronized (lock) {
                 if (clusterNode == null) {
                     // 创建 Cluster 节点
-                    // Create the cluster node.
-                    clusterNode = new ClusterNode(resourceWrapper.getName(), resourceWrapper.getResourceType());
-                    HashMap<ResourceWrapper, ClusterNode> newMap = new HashMap<>(Math.max(clusterNodeMap.size(), 16));
-                    newMap.putAll(clusterNodeMap);
-                    newMap.put(node.getId(), clusterNode);
-
-                    clusterNodeMap = newMap;
+                    // Create the cluster node. The parent is bound when the cluster node is created,
+                    // so that the statistics will be rolled up to the parent resource.
+                    ClusterNode parentClusterNode = parentResource == null ? null
+                        : getOrCreateClusterNode(parentResource, null);
+                    clusterNode = getOrCreateClusterNode(node.getId(), parentClusterNode);
                 }
             }
         }
         node.setClusterNode(clusterNode);
+        if (parentResource != null) {
+            context.getCurEntry().setParentResourceNode(getParentResourceNode(parentResource));
+        }
 
         /*
          * if context origin is set, we should get or create a new {@link Node} of
@@ -117,6 +126,46 @@ public class ClusterBuilderSlot extends AbstractLinkedProcessorSlot<DefaultNode>
         fireExit(context, resourceWrapper, count, args);
     }
 
+    private DefaultNode getParentResourceNode(ResourceWrapper parentResource) {
+        DefaultNode parentNode = parentResourceNode;
+        if (parentNode == null || !parentNode.getId().equals(parentResource)) {
+            synchronized (lock) {
+                parentNode = parentResourceNode;
+                if (parentNode == null || !parentNode.getId().equals(parentResource)) {
+                    ClusterNode parentClusterNode = clusterNode.getParentNode();
+                    if (parentClusterNode == null || !parentClusterNode.getName().equals(parentResource.getName())) {
+                        // The resource has been entered without the parent, the statistics won't be rolled up.
+                        RecordLog.warn("[ClusterBuilderSlot] Resource <{}> has been entered without the parent "
+                                + "resource <{}> before, its statistics won't be rolled up to the parent resource",
+                            clusterNode.getName(), parentResource.getName());
+                        parentClusterNode = getOrCreateClusterNode(parentResource, null);
+                    }
+                    parentNode = new DefaultNode(parentResource, parentClusterNode);
+                    parentResourceNode = parentNode;
+                }
+            }
+        }
+        return parentNode;
+    }
+
+    /**
+     * The cluster node of a resource may have been created already, as the parent of other resources
+     * or before the slot chain is reset. Must be called with the lock held.
+     */
+    private static ClusterNode getOrCreateClusterNode(ResourceWrapper resourceWrapper, ClusterNode parentNode) {
+        ClusterNode node = clusterNodeMap.get(resourceWrapper);
+        if (node != null) {
+            return node;
+        }
+        node = new ClusterNode(resourceWrapper.getName(), resourceWrapper.getResourceType(), parentNode);
+        HashMap<ResourceWrapper, ClusterNode> newMap = new HashMap<>(Math.max(clusterNodeMap.size(), 16));
+        newMap.putAll(clusterNodeMap);
+        newMap.put(resourceWrapper, node);
+
+        clusterNodeMap = newMap;
+        return node;
+    }
+
     /**
      * Get {@link ClusterNode} of the resource of the specific type.
      *
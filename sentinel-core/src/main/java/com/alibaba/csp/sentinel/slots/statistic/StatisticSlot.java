@@ -24,6 +24,7 @@ import com.alibaba.csp.sentinel.slots.block.flow.PriorityWaitException;
 import com.alibaba.csp.sentinel.spi.Spi;
 import com.alibaba.csp.sentinel.util.TimeUtil;
 import com.alibaba.csp.sentinel.Constants;
+import com.alibaba.csp.sentinel.Entry;
 import com.alibaba.csp.sentinel.EntryType;
 import com.alibaba.csp.sentinel.context.Context;
 import com.alibaba.csp.sentinel.node.ClusterNode;
@@ -103,12 +104,34 @@ public class StatisticSlot extends AbstractLinkedProcessorSlot<DefaultNode> {
         } catch (BlockException e) {    // 被限流
             // Blocked, set block exception to current entry.
             // 已阻止，将阻止异常设置为当前条目。
-            context.getCurEntry().setBlockError(e);
-
-            // 增加被规则限流的调用数
-            node.increaseBlockQps(count);
-            if (context.getCurEntry().getOriginNode() != null) {
-                context.getCurEntry().getOriginNode().increaseBlockQps(count);
+            Entry curEntry = context.getCurEntry();
+            curEntry.setBlockError(e);
+
+            DefaultNode parentResourceNode = curEntry.getParentResourceNode();
+            if (parentResourceNode != null && isBlockedByParent(e, parentResourceNode)) {
+                // Blocked by the rules of the parent resource, so the resource itself is not reached.
+                ClusterNode parentClusterNode = parentResourceNode.getClusterNode();
+                parentClusterNode.increaseBlockQps(count);
+                if (curEntry.getOriginNode() != null) {
+                    parentClusterNode.getOrCreateOriginNode(context.getOrigin()).increaseBlockQps(count);
+                }
+            } else {
+                // 增加被规则限流的调用数
+                node.increaseBlockQps(count);
+                if (curEntry.getOriginNode() != null) {
+                    curEntry.getOriginNode().increaseBlockQps(count);
+                }
+                // The parent resource has passed its rules before the resource is blocked.
+                ClusterNode parentClusterNode = getPassedParentNode(curEntry);
+                if (parentClusterNode != null) {
+                    parentClusterNode.increaseThreadNum();
+                    parentClusterNode.addPassRequest(count);
+                    if (curEntry.getOriginNode() != null) {
+                        Node parentOriginNode = parentClusterNode.getOrCreateOriginNode(context.getOrigin());
+                        parentOriginNode.increaseThreadNum();
+                        parentOriginNode.addPassRequest(count);
+                    }
+                }
             }
 
             if (resourceWrapper.getEntryType() == EntryType.IN) {
@@ -152,6 +175,17 @@ public class StatisticSlot extends AbstractLinkedProcessorSlot<DefaultNode> {
             if (resourceWrapper.getEntryType() == EntryType.IN) {
                 recordCompleteFor(Constants.ENTRY_NODE, count, rt, error);
             }
+        } else {
+            // Complete the parent resource, which has passed while the resource is blocked.
+            Entry curEntry = context.getCurEntry();
+            ClusterNode parentClusterNode = getPassedParentNode(curEntry);
+            if (parentClusterNode != null) {
+                long rt = TimeUtil.currentTimeMillis() - curEntry.getCreateTimestamp();
+                recordCompleteFor(parentClusterNode, count, rt, null);
+                if (curEntry.getOriginNode() != null) {
+                    recordCompleteFor(parentClusterNode.getOrCreateOriginNode(context.getOrigin()), count, rt, null);
+                }
+            }
         }
 
         // Handle exit event with registered exit callback handlers.
@@ -164,6 +198,24 @@ public class StatisticSlot extends AbstractLinkedProcessorSlot<DefaultNode> {
         fireExit(context, resourceWrapper, count, args);
     }
 
+    private static boolean isBlockedByParent(BlockException e, DefaultNode parentResourceNode) {
+        return e.getRule() != null && parentResourceNode.getId().getName().equals(e.getRule().getResource());
+    }
+
+    /**
+     * Get the node of the parent resource of the blocked entry, if the entry is blocked by its own rules.
+     * The statistics of passed requests are rolled up to the parent resource, but blocked requests are not,
+     * so the pass of the parent resource is recorded separately.
+     */
+    private static ClusterNode getPassedParentNode(Entry entry) {
+        DefaultNode parentResourceNode = entry.getParentResourceNode();
+        if (parentResourceNode == null || isBlockedByParent(entry.getBlockError(), parentResourceNode)
+            || !(entry.getCurNode() instanceof DefaultNode)) {
+            return null;
+        }
+        return ((DefaultNode)entry.getCurNode()).getClusterNode().getParentNode();
+    }
+
     private void recordCompleteFor(Node node, int batchCount, long rt, Throwable error) {
         if (node == null) {
             return;
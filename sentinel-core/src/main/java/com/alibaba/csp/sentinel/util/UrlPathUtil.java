@@ -0,0 +1,144 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.util;
+
+/**
+ * Util class for normalizing URL paths into resource names with bounded cardinality.
+ *
+ * @since 1.8.7
+ */
+public final class UrlPathUtil {
+
+    public static final String ID_PLACEHOLDER = "{id}";
+
+    private static final int UUID_LENGTH = 36;
+    private static final int MIN_HEX_ID_LENGTH = 16;
+
+    /**
+     * Normalize the URL by removing the query string and the fragment, and replacing the path
+     * segments which look like IDs with {@link #ID_PLACEHOLDER}. Both absolute URLs and paths
+     * are supported, while only the path part of an absolute URL is normalized.
+     *
+     * @param url the URL or the path
+     * @return the normalized URL
+     */
+    public static String normalizeUrl(String url) {
+        if (url == null) {
+            return null;
+        }
+        int end = url.length();
+        for (int i = 0; i < end; i++) {
+            char c = url.charAt(i);
+            if (c == '?' || c == '#') {
+                end = i;
+                break;
+            }
+        }
+        int pathStart = 0;
+        int schemeEnd = url.indexOf("://");
+        if (schemeEnd >= 0 && schemeEnd < end) {
+            pathStart = url.indexOf('/', schemeEnd + 3);
+            if (pathStart < 0 || pathStart >= end) {
+                return url.substring(0, end);
+            }
+        }
+        return normalizePath(url, pathStart, end);
+    }
+
+    /**
+     * Replace the path segments which look like IDs with {@link #ID_PLACEHOLDER}. A segment is
+     * considered as an ID if it's a number, a UUID or a hex string of at least 16 characters
+     * containing digits (e.g. object IDs and digests).
+     *
+     * @param path the path
+     * @return the normalized path, or the original path if nothing is replaced
+     */
+    public static String normalizePath(String path) {
+        if (path == null) {
+            return null;
+        }
+        return normalizePath(path, 0, path.length());
+    }
+
+    private static String normalizePath(String s, int start, int end) {
+        StringBuilder sb = null;
+        int copied = start;
+        int segmentStart = start;
+        for (int i = start; i <= end; i++) {
+            if (i < end && s.charAt(i) != '/') {
+                continue;
+            }
+            if (isIdSegment(s, segmentStart, i)) {
+                if (sb == null) {
+                    sb = new StringBuilder(end);
+                    sb.append(s, 0, segmentStart);
+                } else {
+                    sb.append(s, copied, segmentStart);
+                }
+                sb.append(ID_PLACEHOLDER);
+                copied = i;
+            }
+            segmentStart = i + 1;
+        }
+        if (sb == null) {
+            return end == s.length() ? s : s.substring(0, end);
+        }
+        return sb.append(s, copied, end).toString();
+    }
+
+    static boolean isIdSegment(String s, int start, int end) {
+        int length = end - start;
+        if (length <= 0) {
+            return false;
+        }
+        if (length == UUID_LENGTH && isUuid(s, start)) {
+            return true;
+        }
+        boolean hasDigit = false;
+        boolean hasHexLetter = false;
+        for (int i = start; i < end; i++) {
+            char c = s.charAt(i);
+            if (c >= '0' && c <= '9') {
+                hasDigit = true;
+            } else if (isHexChar(c)) {
+                hasHexLetter = true;
+            } else {
+                return false;
+            }
+        }
+        return hasDigit && (!hasHexLetter || length >= MIN_HEX_ID_LENGTH);
+    }
+
+    private static boolean isUuid(String s, int start) {
+        for (int i = 0; i < UUID_LENGTH; i++) {
+            char c = s.charAt(start + i);
+            if (i == 8 || i == 13 || i == 18 || i == 23) {
+                if (c != '-') {
+                    return false;
+                }
+            } else if (!isHexChar(c)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isHexChar(char c) {
+        return (c >= '0' && c <= '9') || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F');
+    }
+
+    private UrlPathUtil() {}
+}
@@ -0,0 +1,333 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel;
+
+import java.util.ArrayList;
+import java.util.Collections;
+
+import com.alibaba.csp.sentinel.context.Context;
+import com.alibaba.csp.sentinel.context.ContextTestUtil;
+import com.alibaba.csp.sentinel.context.ContextUtil;
+import com.alibaba.csp.sentinel.node.ClusterNode;
+import com.alibaba.csp.sentinel.node.DefaultNode;
+import com.alibaba.csp.sentinel.node.Node;
+import com.alibaba.csp.sentinel.slotchain.AbstractLinkedProcessorSlot;
+import com.alibaba.csp.sentinel.slotchain.DefaultProcessorSlotChain;
+import com.alibaba.csp.sentinel.slotchain.ProcessorSlotChain;
+import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
+import com.alibaba.csp.sentinel.slots.block.BlockException;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowException;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRuleManager;
+import com.alibaba.csp.sentinel.slots.clusterbuilder.ClusterBuilderSlot;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for {@link SentinelResourceHandle}.
+ */
+public class SentinelResourceHandleTest {
+
+    @Test
+    public void testEntryWithHandle() throws BlockException {
+        SentinelResourceHandle handle = SentinelResourceHandle.of("testEntryWithHandle",
+            ResourceTypeConstants.COMMON_RPC, EntryType.IN);
+        CountingSlot slot = addCountingSlotFor(handle.getResource());
+
+        Entry entry = SphU.entry(handle, 1, "a");
+        assertSame(handle.getResource(), entry.getResourceWrapper());
+        assertEquals(1, slot.entered);
+        entry.exit(1, "a");
+        assertEquals(1, slot.exited);
+
+        AsyncEntry asyncEntry = SphU.asyncEntry(handle);
+        assertSame(handle.getResource(), asyncEntry.getResourceWrapper());
+        assertEquals(2, slot.entered);
+        asyncEntry.exit();
+        assertEquals(2, slot.exited);
+    }
+
+    @Test
+    public void testSlotChainResolvedOnce() throws BlockException {
+        SentinelResourceHandle handle = SentinelResourceHandle.of("testSlotChainResolvedOnce",
+            ResourceTypeConstants.COMMON, EntryType.OUT);
+        CountingSlot slot = addCountingSlotFor(handle.getResource());
+        SphU.entry(handle).exit();
+        assertEquals(1, slot.entered);
+
+        // The resolved chain is kept in the handle, so the chain in the map won't be looked up again.
+        CountingSlot newSlot = addCountingSlotFor(handle.getResource());
+        SphU.entry(handle).exit();
+        assertEquals(2, slot.entered);
+        assertEquals(0, newSlot.entered);
+
+        // Entering by name still looks up the chain map.
+        SphU.entry(handle.getName()).exit();
+        assertEquals(1, newSlot.entered);
+    }
+
+    @Test
+    public void testSlotChainResolvedAgainAfterReset() throws BlockException {
+        SentinelResourceHandle handle = SentinelResourceHandle.of("testSlotChainResolvedAgainAfterReset",
+            ResourceTypeConstants.COMMON, EntryType.OUT);
+        CountingSlot slot = addCountingSlotFor(handle.getResource());
+        SphU.entry(handle).exit();
+
+        CtSph.resetChainMap();
+        CountingSlot newSlot = addCountingSlotFor(handle.getResource());
+        SphU.entry(handle).exit();
+        assertEquals(1, slot.entered);
+        assertEquals(1, newSlot.entered);
+    }
+
+    @Test
+    public void testBlockedWithHandle() {
+        SentinelResourceHandle handle = SentinelResourceHandle.of("testBlockedWithHandle",
+            ResourceTypeConstants.COMMON, EntryType.OUT);
+        CountingSlot slot = addCountingSlotFor(handle.getResource());
+        slot.block = true;
+        try {
+            SphU.entry(handle);
+            fail("should be blocked");
+        } catch (BlockException ex) {
+            assertTrue(ex instanceof FlowException);
+        }
+        assertEquals(1, slot.exited);
+        // The default context is exited along with the blocked entry.
+        assertNull(ContextUtil.getContext());
+    }
+
+    @Test
+    public void testHandleCache() {
+        SentinelResourceHandleCache cache = new SentinelResourceHandleCache(ResourceTypeConstants.COMMON_RPC,
+            EntryType.OUT);
+        SentinelResourceHandle handle = cache.get("com.foo.FooService:hello()");
+        assertSame(handle, cache.get("com.foo.FooService:hello()"));
+        assertNotSame(handle, cache.get("com.foo.FooService"));
+        assertEquals("com.foo.FooService:hello()", handle.getName());
+        assertEquals(EntryType.OUT, handle.getResource().getEntryType());
+        assertEquals(ResourceTypeConstants.COMMON_RPC, handle.getResource().getResourceType());
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void testEntryWithParent() throws BlockException {
+        SentinelResourceHandle parent = SentinelResourceHandle.of("com.foo.FooService",
+            ResourceTypeConstants.COMMON_RPC, EntryType.IN);
+        SentinelResourceHandle handle = SentinelResourceHandle.of("com.foo.FooService:hello()",
+            ResourceTypeConstants.COMMON_RPC, EntryType.IN, parent);
+
+        ContextUtil.enter("testEntryWithParent", "app");
+        Entry entry = SphU.entry(handle);
+        assertSame(parent.getResource(), entry.getParentResourceWrapper());
+        // Only the child resource is in the invocation tree.
+        assertSame(handle.getResource(), ((DefaultNode) entry.getCurNode()).getId());
+        entry.exit();
+        SphU.entry(handle).exit();
+        ContextUtil.exit();
+
+        ClusterNode clusterNode = ClusterBuilderSlot.getClusterNode(handle.getName(), EntryType.IN);
+        ClusterNode parentClusterNode = ClusterBuilderSlot.getClusterNode(parent.getName(), EntryType.IN);
+        assertNotNull(parentClusterNode);
+        assertSame(parentClusterNode, clusterNode.getParentNode());
+        assertEquals(2, clusterNode.totalPass());
+        assertEquals(2, parentClusterNode.totalPass());
+        assertEquals(0, parentClusterNode.curThreadNum());
+        assertEquals(2, parentClusterNode.getOriginCountMap().get("app").totalPass());
+    }
+
+    @Test
+    public void testBlockedByParentRule() {
+        SentinelResourceHandle parent = SentinelResourceHandle.of("com.foo.BarService",
+            ResourceTypeConstants.COMMON_RPC, EntryType.OUT);
+        SentinelResourceHandle handle = SentinelResourceHandle.of("com.foo.BarService:hello()",
+            ResourceTypeConstants.COMMON_RPC, EntryType.OUT, parent);
+        FlowRule rule = new FlowRule(parent.getName()).setCount(0);
+        FlowRuleManager.loadRules(Collections.singletonList(rule));
+
+        ContextUtil.enter("testBlockedByParentRule", "app");
+        try {
+            SphU.entry(handle);
+            fail("should be blocked by the rule of the parent resource");
+        } catch (BlockException ex) {
+            assertSame(rule, ex.getRule());
+        }
+        ContextUtil.exit();
+
+        // The block is recorded only for the parent resource, as if it was entered alone.
+        ClusterNode clusterNode = ClusterBuilderSlot.getClusterNode(handle.getName());
+        assertEquals(0, clusterNode.blockRequest());
+        assertEquals(0, clusterNode.totalRequest());
+        assertEquals(0, clusterNode.getOriginCountMap().get("app").blockRequest());
+        ClusterNode parentClusterNode = ClusterBuilderSlot.getClusterNode(parent.getName());
+        assertEquals(1, parentClusterNode.blockRequest());
+        assertEquals(0, parentClusterNode.totalPass());
+        assertEquals(1, parentClusterNode.getOriginCountMap().get("app").blockRequest());
+    }
+
+    @Test
+    public void testBlockedByOwnRule() {
+        SentinelResourceHandle parent = SentinelResourceHandle.of("com.foo.QuxService",
+            ResourceTypeConstants.COMMON_RPC, EntryType.IN);
+        SentinelResourceHandle handle = SentinelResourceHandle.of("com.foo.QuxService:hello()",
+            ResourceTypeConstants.COMMON_RPC, EntryType.IN, parent);
+        FlowRule rule = new FlowRule(handle.getName()).setCount(0);
+        FlowRuleManager.loadRules(Collections.singletonList(rule));
+
+        ContextUtil.enter("testBlockedByOwnRule", "app");
+        try {
+            SphU.entry(handle);
+            fail("should be blocked by the rule of the resource");
+        } catch (BlockException ex) {
+            assertSame(rule, ex.getRule());
+        }
+        ContextUtil.exit();
+
+        ClusterNode clusterNode = ClusterBuilderSlot.getClusterNode(handle.getName());
+        assertEquals(1, clusterNode.blockRequest());
+        assertEquals(0, clusterNode.totalPass());
+        assertEquals(1, clusterNode.getOriginCountMap().get("app").blockRequest());
+        // The parent resource has passed, as if it was entered alone.
+        ClusterNode parentClusterNode = ClusterBuilderSlot.getClusterNode(parent.getName());
+        assertEquals(0, parentClusterNode.blockRequest());
+        assertEquals(1, parentClusterNode.totalPass());
+        assertEquals(1, parentClusterNode.totalSuccess());
+        assertEquals(0, parentClusterNode.curThreadNum());
+        Node parentOriginNode = parentClusterNode.getOriginCountMap().get("app");
+        assertEquals(1, parentOriginNode.totalPass());
+        assertEquals(0, parentOriginNode.blockRequest());
+        assertEquals(0, parentOriginNode.curThreadNum());
+    }
+
+    @Test
+    public void testEnteredWithoutParentFirst() throws BlockException {
+        SentinelResourceHandle parent = SentinelResourceHandle.of("com.foo.QuuxService",
+            ResourceTypeConstants.COMMON_RPC, EntryType.OUT);
+        SentinelResourceHandle handle = SentinelResourceHandle.of("com.foo.QuuxService:hello()",
+            ResourceTypeConstants.COMMON_RPC, EntryType.OUT, parent);
+        // The resource is entered alone first, e.g. by the name.
+        SphU.entry(handle.getResource(), 1).exit();
+        SphU.entry(handle).exit();
+
+        // The cluster node has been created without the parent, so the statistics are not rolled up.
+        ClusterNode clusterNode = ClusterBuilderSlot.getClusterNode(handle.getName());
+        assertNull(clusterNode.getParentNode());
+        assertEquals(2, clusterNode.totalPass());
+        ClusterNode parentClusterNode = ClusterBuilderSlot.getClusterNode(parent.getName());
+        assertNotNull(parentClusterNode);
+        assertEquals(0, parentClusterNode.totalPass());
+
+        // The rules of the parent resource are still checked, and blocks are recorded for the parent.
+        FlowRule rule = new FlowRule(parent.getName()).setCount(0);
+        FlowRuleManager.loadRules(Collections.singletonList(rule));
+        try {
+            SphU.entry(handle);
+            fail("should be blocked by the rule of the parent resource");
+        } catch (BlockException ex) {
+            assertSame(rule, ex.getRule());
+        }
+        assertEquals(1, parentClusterNode.blockRequest());
+        assertEquals(0, clusterNode.blockRequest());
+    }
+
+    @Test
+    public void testParentRuleWithOrigin() throws BlockException {
+        SentinelResourceHandle parent = SentinelResourceHandle.of("com.foo.BazService",
+            ResourceTypeConstants.COMMON_RPC, EntryType.IN);
+        SentinelResourceHandle handle = SentinelResourceHandle.of("com.foo.BazService:hello()",
+            ResourceTypeConstants.COMMON_RPC, EntryType.IN, parent);
+        FlowRule rule = new FlowRule(parent.getName()).setCount(1);
+        rule.setLimitApp("app");
+        FlowRuleManager.loadRules(Collections.singletonList(rule));
+
+        ContextUtil.enter("testParentRuleWithOrigin", "other-app");
+        SphU.entry(handle).exit();
+        SphU.entry(handle).exit();
+        ContextUtil.exit();
+
+        ContextUtil.enter("testParentRuleWithOrigin", "app");
+        Entry entry = SphU.entry(handle);
+        // The origin node of the entry is restored after checking the rules of the parent.
+        assertSame(ClusterBuilderSlot.getClusterNode(handle.getName()).getOriginCountMap().get("app"),
+            entry.getOriginNode());
+        entry.exit();
+        try {
+            SphU.entry(handle);
+            fail("should be blocked by the rule of the parent resource for the origin");
+        } catch (BlockException ex) {
+            assertSame(rule, ex.getRule());
+        }
+        ContextUtil.exit();
+    }
+
+    @Test
+    public void testHandleCacheWithParent() {
+        SentinelResourceHandleCache cache = new SentinelResourceHandleCache(ResourceTypeConstants.COMMON_RPC,
+            EntryType.IN);
+        SentinelResourceHandle handle = cache.get("com.foo.FooService:hello()", "com.foo.FooService");
+        assertSame(handle, cache.get("com.foo.FooService:hello()", "com.foo.FooService"));
+        assertSame(cache.get("com.foo.FooService"), handle.getParent());
+        assertEquals(2, cache.size());
+    }
+
+    private CountingSlot addCountingSlotFor(ResourceWrapper resourceWrapper) {
+        ProcessorSlotChain slotChain = new DefaultProcessorSlotChain();
+        CountingSlot slot = new CountingSlot();
+        slotChain.addLast(slot);
+        CtSph.getChainMap().put(resourceWrapper, slotChain);
+        return slot;
+    }
+
+    private static class CountingSlot extends AbstractLinkedProcessorSlot<DefaultNode> {
+        int entered = 0;
+        int exited = 0;
+        boolean block = false;
+
+        @Override
+        public void entry(Context context, ResourceWrapper resourceWrapper, DefaultNode param, int count,
+                          boolean prioritized, Object... args) throws Throwable {
+            entered++;
+            if (block) {
+                throw new FlowException("rule");
+            }
+        }
+
+        @Override
+        public void exit(Context context, ResourceWrapper resourceWrapper, int count, Object... args) {
+            exited++;
+        }
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        ContextTestUtil.cleanUpContext();
+        ContextTestUtil.resetContextMap();
+        CtSph.resetChainMap();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        ContextTestUtil.cleanUpContext();
+        ContextTestUtil.resetContextMap();
+        CtSph.resetChainMap();
+        ClusterBuilderSlot.getClusterNodeMap().clear();
+        FlowRuleManager.loadRules(new ArrayList<FlowRule>());
+    }
+}
@@ -15,7 +15,17 @@
  */
 package com.alibaba.csp.sentinel.context;
 
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
 import com.alibaba.csp.sentinel.Constants;
+import com.alibaba.csp.sentinel.Entry;
+import com.alibaba.csp.sentinel.ErrorEntryFreeException;
+import com.alibaba.csp.sentinel.SphU;
+import com.alibaba.csp.sentinel.node.ClusterNode;
+import com.alibaba.csp.sentinel.node.DefaultNode;
 
 import org.junit.After;
 import org.junit.Before;
@@ -139,4 +149,96 @@ public class ContextTest {
         });
         assertEquals(contextName, ContextUtil.getContext().getName());
     }
+
+    @Test
+    public void testWrapWithoutContext() {
+        Runnable task = new Runnable() {
+            @Override
+            public void run() {}
+        };
+        assertSame(task, ContextUtil.wrap(task));
+        assertNull(ContextUtil.forkContext());
+    }
+
+    @Test
+    public void testWrapForkedTask() throws Exception {
+        final String contextName = "forkContext";
+        final String origin = "originA";
+        ContextUtil.enter(contextName, origin);
+        Entry parentEntry = SphU.entry("testWrapForkedTaskParent");
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            final Context parentContext = ContextUtil.getContext();
+            Future<DefaultNode> future = pool.submit(ContextUtil.wrap(new Callable<DefaultNode>() {
+                @Override
+                public DefaultNode call() throws Exception {
+                    Context curContext = ContextUtil.getContext();
+                    assertNotSame(parentContext, curContext);
+                    assertEquals(contextName, curContext.getName());
+                    assertEquals(origin, curContext.getOrigin());
+                    assertTrue(curContext.isAsync());
+                    Entry childEntry = SphU.entry("testWrapForkedTaskChild");
+                    try {
+                        return (DefaultNode) childEntry.getCurNode();
+                    } finally {
+                        childEntry.exit();
+                    }
+                }
+            }));
+            DefaultNode childNode = future.get();
+            // The entry created in the forked task is attached to the entry of the caller.
+            assertTrue(((DefaultNode) parentEntry.getCurNode()).getChildList().contains(childNode));
+            assertSame(parentEntry, parentContext.getCurEntry());
+            assertSame(parentContext, ContextUtil.getContext());
+            // The worker thread doesn't keep the forked context.
+            assertNull(pool.submit(new Callable<Context>() {
+                @Override
+                public Context call() {
+                    return ContextUtil.getContext();
+                }
+            }).get());
+        } finally {
+            pool.shutdownNow();
+            parentEntry.exit();
+            ContextUtil.exit();
+        }
+    }
+
+    @Test
+    public void testWrapForkedTaskExitsOutOfOrder() throws Exception {
+        ContextUtil.enter("forkContextOutOfOrder");
+        final Entry parentEntry = SphU.entry("testWrapOutOfOrderParent");
+        final ClusterNode parentClusterNode = ((DefaultNode) parentEntry.getCurNode()).getClusterNode();
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            final Context parentContext = ContextUtil.getContext();
+            Future<Boolean> future = pool.submit(ContextUtil.wrap(new Callable<Boolean>() {
+                @Override
+                public Boolean call() throws Exception {
+                    Entry entryA = SphU.entry("testWrapOutOfOrderA");
+                    Entry entryB = SphU.entry("testWrapOutOfOrderB");
+                    try {
+                        entryA.exit();
+                        return false;
+                    } catch (ErrorEntryFreeException ex) {
+                        // The call stack of the fork is cleaned up to the entry it is forked from.
+                        assertSame(parentEntry, ContextUtil.getContext().getCurEntry());
+                        assertEquals(0, ((DefaultNode) entryB.getCurNode()).curThreadNum());
+                        return true;
+                    }
+                }
+            }));
+            assertTrue(future.get());
+            // The entry of the caller is neither exited nor modified by the forked task.
+            assertSame(parentEntry, parentContext.getCurEntry());
+            assertSame(parentContext, ContextUtil.getContext());
+            assertEquals(1, parentClusterNode.curThreadNum());
+        } finally {
+            pool.shutdownNow();
+            parentEntry.exit();
+            ContextUtil.exit();
+        }
+        assertEquals(0, parentClusterNode.curThreadNum());
+        assertNull(ContextUtil.getContext());
+    }
 }
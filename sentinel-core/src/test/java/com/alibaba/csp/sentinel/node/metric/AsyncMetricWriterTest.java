@@ -0,0 +1,109 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.node.metric;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class AsyncMetricWriterTest {
+
+    private MetricNode newNode(String resource) {
+        MetricNode node = new MetricNode();
+        node.setResource(resource);
+        node.setPassQps(1);
+        return node;
+    }
+
+    @Test
+    public void testDropWhenWriterCannotKeepUp() throws Exception {
+        final CountDownLatch writing = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch written = new CountDownLatch(2);
+        MetricWriter slowWriter = new MetricWriter(1024) {
+            @Override
+            public synchronized void write(Map<Long, List<MetricNode>> metrics) throws Exception {
+                writing.countDown();
+                release.await();
+                written.countDown();
+            }
+        };
+        AsyncMetricWriter writer = new AsyncMetricWriter(slowWriter);
+
+        AsyncMetricWriter.MetricBatch first = writer.acquireBatch();
+        first.add(1000L, newNode("a"));
+        first.add(1000L, newNode("b"));
+        writer.submit(first);
+        assertTrue(writing.await(1, TimeUnit.SECONDS));
+
+        // The I/O thread is blocked, so the second batch is waiting.
+        AsyncMetricWriter.MetricBatch second = writer.acquireBatch();
+        assertNotNull(second);
+        second.add(2000L, newNode("a"));
+        writer.submit(second);
+
+        // Both of the batches are in use.
+        assertNull(writer.acquireBatch());
+        writer.recordDropped(3);
+        assertEquals(1, writer.getDroppedBatchCount());
+        assertEquals(3, writer.getDroppedNodeCount());
+
+        release.countDown();
+        assertTrue(written.await(1, TimeUnit.SECONDS));
+        // The batches are recycled after written.
+        long deadline = System.currentTimeMillis() + 1000;
+        AsyncMetricWriter.MetricBatch batch = null;
+        while (batch == null && System.currentTimeMillis() < deadline) {
+            batch = writer.acquireBatch();
+            Thread.sleep(10);
+        }
+        assertNotNull(batch);
+        assertTrue(batch.isEmpty());
+    }
+
+    @Test
+    public void testFlushListenerNotifiedAfterWrite() throws Exception {
+        final CountDownLatch notified = new CountDownLatch(1);
+        final int[] nodeCount = new int[1];
+        MetricWriter noopWriter = new MetricWriter(1024) {
+            @Override
+            public synchronized void write(Map<Long, List<MetricNode>> metrics) {
+            }
+        };
+        AsyncMetricWriter writer = new AsyncMetricWriter(noopWriter);
+        writer.addFlushListener(new MetricFlushListener() {
+            @Override
+            public void onFlush(Map<Long, List<MetricNode>> metrics) {
+                for (List<MetricNode> nodes : metrics.values()) {
+                    nodeCount[0] += nodes.size();
+                }
+                notified.countDown();
+            }
+        });
+
+        AsyncMetricWriter.MetricBatch batch = writer.acquireBatch();
+        batch.add(1000L, newNode("a"));
+        batch.add(2000L, newNode("b"));
+        writer.submit(batch);
+        assertTrue(notified.await(1, TimeUnit.SECONDS));
+        assertEquals(2, nodeCount[0]);
+    }
+}
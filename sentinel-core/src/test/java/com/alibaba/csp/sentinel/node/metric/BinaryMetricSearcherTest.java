@@ -0,0 +1,122 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.node.metric;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.List;
+
+import com.alibaba.csp.sentinel.util.PidUtil;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.*;
+
+public class BinaryMetricSearcherTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static final long BASE_TIME = 1545638400000L;
+
+    private MetricNode newNode(String resource, long timestamp, long passQps) {
+        MetricNode node = new MetricNode();
+        node.setResource(resource);
+        node.setTimestamp(timestamp);
+        node.setPassQps(passQps);
+        node.setBlockQps(passQps / 2);
+        node.setSuccessQps(passQps);
+        node.setRt(10);
+        node.setConcurrency(3);
+        node.setClassification(1);
+        return node;
+    }
+
+    private void writeTextFile(File file) throws Exception {
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            for (int i = 0; i < 10; i++) {
+                long time = BASE_TIME + i * 1000;
+                out.write(newNode("res-c", time, 30 + i).toFatString().getBytes("UTF-8"));
+                out.write(newNode("res-a", time, 10 + i).toFatString().getBytes("UTF-8"));
+                if (i % 2 == 0) {
+                    out.write(newNode("res-b", time, 20 + i).toFatString().getBytes("UTF-8"));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testConvertAndSearch() throws Exception {
+        File dir = folder.getRoot();
+        writeTextFile(new File(dir, "app-metrics.log.2018-12-24"));
+        assertEquals(1, MetricFileConverter.convertToBinary(dir.getAbsolutePath(), "app-metrics.log",
+            "app-metrics.bin"));
+        assertTrue(new File(dir, "app-metrics.bin.2018-12-24.idx").exists());
+        assertTrue(new File(dir, "app-metrics.bin.2018-12-24.res").exists());
+
+        MetricSearcher searcher = new BinaryMetricSearcher(dir.getAbsolutePath(), "app-metrics.bin");
+
+        List<MetricNode> nodes = searcher.findByTimeAndResource(BASE_TIME + 2000, BASE_TIME + 5999, null);
+        assertEquals(10, nodes.size());
+        assertEquals(BASE_TIME + 2000, nodes.get(0).getTimestamp());
+        assertEquals(BASE_TIME + 5000, nodes.get(nodes.size() - 1).getTimestamp());
+
+        List<MetricNode> resourceNodes = searcher.findByTimeAndResource(BASE_TIME + 2000, BASE_TIME + 5999, "res-b");
+        assertEquals(2, resourceNodes.size());
+        MetricNode node = resourceNodes.get(1);
+        assertEquals("res-b", node.getResource());
+        assertEquals(BASE_TIME + 4000, node.getTimestamp());
+        assertEquals(24, node.getPassQps());
+        assertEquals(12, node.getBlockQps());
+        assertEquals(10, node.getRt());
+        assertEquals(3, node.getConcurrency());
+        assertEquals(1, node.getClassification());
+
+        assertTrue(searcher.findByTimeAndResource(BASE_TIME, BASE_TIME + 9999, "absent").isEmpty());
+        assertNull(searcher.findByTimeAndResource(BASE_TIME + 10000, BASE_TIME + 20000, null));
+    }
+
+    @Test
+    public void testFindWithoutSplittingSecond() throws Exception {
+        File dir = folder.getRoot();
+        writeTextFile(new File(dir, "app-metrics.log.2018-12-24"));
+        MetricFileConverter.convertToBinary(dir.getAbsolutePath(), "app-metrics.log", "app-metrics.bin");
+
+        MetricSearcher searcher = new BinaryMetricSearcher(dir.getAbsolutePath(), "app-metrics.bin");
+        // The first two seconds have 3 and 2 nodes, which should be returned as a whole.
+        List<MetricNode> nodes = searcher.find(BASE_TIME, 4);
+        assertEquals(5, nodes.size());
+        assertEquals(BASE_TIME + 1000, nodes.get(4).getTimestamp());
+        // Nodes of the same second are sorted by the order they first occur in the file.
+        assertEquals("res-c", nodes.get(0).getResource());
+        assertEquals("res-a", nodes.get(1).getResource());
+    }
+
+    @Test
+    public void testWriteThenSearch() throws Exception {
+        File dir = folder.getRoot();
+        long baseTime = MetricSearcherTest.writeMetricsByWriter(dir, true);
+        MetricSearcher searcher = new BinaryMetricSearcher(dir.getAbsolutePath(),
+            MetricWriter.formMetricFileName(MetricSearcherTest.getAppName(), PidUtil.getPid(), true));
+
+        // "|" in resource names is replaced in the same way as the text format.
+        MetricSearcherTest.assertResourceNodes(
+            searcher.findByTimeAndResource(baseTime + 3000, baseTime + 5999, "res_b"), baseTime);
+        assertEquals(9, searcher.findByTimeAndResource(baseTime + 3000, baseTime + 5999, null).size());
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.node.metric;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.alibaba.csp.sentinel.config.SentinelConfig;
+import com.alibaba.csp.sentinel.util.PidUtil;
+import com.alibaba.csp.sentinel.util.function.Consumer;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.*;
+
+public class MetricSearcherTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static final long BASE_TIME = 1545638400000L;
+
+    private void writeMetricFile(File file, boolean withResourceIndex) throws Exception {
+        try (FileOutputStream out = new FileOutputStream(file);
+             DataOutputStream indexOut = new DataOutputStream(new BufferedOutputStream(
+                 new FileOutputStream(MetricWriter.formIndexFileName(file.getAbsolutePath()))));
+             DataOutputStream resourceIndexOut = new DataOutputStream(new BufferedOutputStream(
+                 new FileOutputStream(MetricWriter.formResourceIndexFileName(file.getAbsolutePath()))))) {
+            long offset = 0;
+            for (int i = 0; i < 10; i++) {
+                long time = BASE_TIME + i * 1000;
+                indexOut.writeLong(time / 1000);
+                indexOut.writeLong(offset);
+                for (String resource : new String[] {"res-a", "res|b", "res-c"}) {
+                    MetricNode node = new MetricNode();
+                    node.setTimestamp(time);
+                    node.setResource(resource);
+                    node.setPassQps(i);
+                    byte[] bytes = node.toFatString().getBytes("UTF-8");
+                    MetricResourceIndex.writeEntry(resourceIndexOut, time / 1000, offset, resource);
+                    out.write(bytes);
+                    offset += bytes.length;
+                }
+            }
+        }
+        if (!withResourceIndex) {
+            new File(MetricWriter.formResourceIndexFileName(file.getAbsolutePath())).delete();
+        }
+    }
+
+    @Test
+    public void testFindByResourceIndex() throws Exception {
+        File dir = folder.getRoot();
+        writeMetricFile(new File(dir, "app-metrics.log.2018-12-24"), true);
+        MetricSearcher searcher = new MetricSearcher(dir.getAbsolutePath(), "app-metrics.log");
+
+        final List<MetricNode> nodes = new ArrayList<>();
+        searcher.findByTimeAndResource(BASE_TIME + 3000, BASE_TIME + 5999, "res_b", new Consumer<MetricNode>() {
+            @Override
+            public void accept(MetricNode node) {
+                nodes.add(node);
+            }
+        });
+        assertEquals(3, nodes.size());
+        for (int i = 0; i < nodes.size(); i++) {
+            assertEquals("res_b", nodes.get(i).getResource());
+            assertEquals(3 + i, nodes.get(i).getPassQps());
+        }
+        assertEquals(nodes.size(), searcher.findByTimeAndResource(BASE_TIME + 3000, BASE_TIME + 5999, "res_b").size());
+        assertTrue(searcher.findByTimeAndResource(BASE_TIME, BASE_TIME + 9999, "absent").isEmpty());
+        assertTrue(searcher.findByTimeAndResource(BASE_TIME + 10000, BASE_TIME + 19999, "res-a").isEmpty());
+    }
+
+    @Test
+    public void testFindWithoutResourceIndex() throws Exception {
+        File dir = folder.getRoot();
+        writeMetricFile(new File(dir, "app-metrics.log.2018-12-24"), false);
+        MetricSearcher searcher = new MetricSearcher(dir.getAbsolutePath(), "app-metrics.log");
+
+        List<MetricNode> nodes = searcher.findByTimeAndResource(BASE_TIME + 3000, BASE_TIME + 5999, "res-c");
+        assertEquals(3, nodes.size());
+        assertEquals(9, searcher.findByTimeAndResource(BASE_TIME + 3000, BASE_TIME + 5999, null).size());
+    }
+
+    @Test
+    public void testWriteThenSearch() throws Exception {
+        File dir = folder.getRoot();
+        long baseTime = writeMetricsByWriter(dir, false);
+        String baseFileName = MetricWriter.formMetricFileName(getAppName(), PidUtil.getPid());
+        String metricFile = MetricWriter.listMetricFiles(dir.getAbsolutePath(), baseFileName).get(0);
+        assertTrue(MetricResourceIndex.exists(metricFile));
+
+        MetricSearcher searcher = new MetricSearcher(dir.getAbsolutePath(), baseFileName);
+        final List<MetricNode> nodes = new ArrayList<>();
+        searcher.findByTimeAndResource(baseTime + 3000, baseTime + 5999, "res_b", new Consumer<MetricNode>() {
+            @Override
+            public void accept(MetricNode node) {
+                nodes.add(node);
+            }
+        });
+        assertResourceNodes(nodes, baseTime);
+        assertEquals(9, searcher.findByTimeAndResource(baseTime + 3000, baseTime + 5999, null).size());
+        assertTrue(searcher.findByTimeAndResource(baseTime, baseTime + 9999, "absent").isEmpty());
+
+        List<MetricNode> firstSeconds = searcher.find(baseTime, 6);
+        assertEquals(6, firstSeconds.size());
+        assertEquals(baseTime + 1000, firstSeconds.get(5).getTimestamp());
+
+        // The offsets in the index file should also work without the resource index.
+        assertTrue(new File(MetricWriter.formResourceIndexFileName(metricFile)).delete());
+        assertResourceNodes(searcher.findByTimeAndResource(baseTime + 3000, baseTime + 5999, "res_b"), baseTime);
+    }
+
+    /**
+     * Write 3 resources in each of 10 seconds through the {@link MetricWriter}.
+     *
+     * @return the time of the first second
+     */
+    static long writeMetricsByWriter(File dir, boolean binary) throws Exception {
+        MetricWriter writer = new MetricWriter(dir.getAbsolutePath(), 1024 * 1024, 6, binary);
+        // Metrics before the creation of the writer are ignored.
+        long baseTime = (System.currentTimeMillis() / 1000 + 1) * 1000;
+        try {
+            for (int i = 0; i < 10; i++) {
+                List<MetricNode> nodes = new ArrayList<>();
+                for (String resource : new String[] {"res-a", "res|b", "res-c"}) {
+                    MetricNode node = new MetricNode();
+                    node.setResource(resource);
+                    node.setPassQps(i);
+                    nodes.add(node);
+                }
+                writer.write(baseTime + i * 1000, nodes);
+            }
+        } finally {
+            writer.close();
+        }
+        return baseTime;
+    }
+
+    static void assertResourceNodes(List<MetricNode> nodes, long baseTime) {
+        assertEquals(3, nodes.size());
+        for (int i = 0; i < nodes.size(); i++) {
+            assertEquals("res_b", nodes.get(i).getResource());
+            assertEquals(baseTime + (3 + i) * 1000, nodes.get(i).getTimestamp());
+            assertEquals(3 + i, nodes.get(i).getPassQps());
+        }
+    }
+
+    static String getAppName() {
+        String appName = SentinelConfig.getAppName();
+        return appName == null ? "" : appName;
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.block.flow;
+
+import com.alibaba.csp.sentinel.node.Node;
+import com.alibaba.csp.sentinel.slots.block.ClusterRuleConstant;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ClusterShadowLimiterTest {
+
+    private FlowRule clusterRule(double count, int thresholdType) {
+        return new FlowRule("abc")
+            .setCount(count)
+            .setClusterMode(true)
+            .setClusterConfig(new ClusterFlowConfig().setFlowId(1L).setThresholdType(thresholdType));
+    }
+
+    @Test
+    public void testShareFollowsLocalProportion() {
+        ClusterShadowLimiter limiter = new ClusterShadowLimiter();
+        FlowRule rule = clusterRule(100, ClusterRuleConstant.FLOW_THRESHOLD_GLOBAL);
+        assertFalse(limiter.isReady(rule));
+
+        // 4 clients, global QPS is 80 and local QPS is 40, so the local share is 50.
+        limiter.sample(rule, 40, 20, 4, 1000);
+        assertTrue(limiter.isReady(rule));
+        assertEquals(50, limiter.getShare(), 0.01);
+
+        // Samples within the interval are ignored.
+        limiter.sample(rule, 10, 20, 4, 1000 + ClusterShadowLimiter.SAMPLE_INTERVAL_MS - 1);
+        assertEquals(50, limiter.getShare(), 0.01);
+
+        // Small local traffic won't drop the share below half of the fair share (100 / 4 / 2).
+        for (int i = 1; i <= 50; i++) {
+            limiter.sample(rule, 1, 20, 4, 1000 + i * ClusterShadowLimiter.SAMPLE_INTERVAL_MS);
+        }
+        assertEquals(12.5, limiter.getShare(), 0.1);
+
+        Node node = mock(Node.class);
+        when(node.passQps()).thenReturn(12d);
+        assertFalse(limiter.canPass(node, 1));
+        when(node.passQps()).thenReturn(10d);
+        assertTrue(limiter.canPass(node, 1));
+    }
+
+    @Test
+    public void testRuleChangeInvalidatesShare() {
+        ClusterShadowLimiter limiter = new ClusterShadowLimiter();
+        FlowRule rule = clusterRule(100, ClusterRuleConstant.FLOW_THRESHOLD_GLOBAL);
+        limiter.sample(rule, 40, 20, 4, 1000);
+        assertTrue(limiter.isReady(rule));
+
+        FlowRule newRule = clusterRule(200, ClusterRuleConstant.FLOW_THRESHOLD_GLOBAL);
+        assertFalse(limiter.isReady(newRule));
+
+        // Average local threshold is the share itself when the connected count is unknown.
+        FlowRule avgRule = clusterRule(10, ClusterRuleConstant.FLOW_THRESHOLD_AVG_LOCAL);
+        limiter.sample(avgRule, 5, 0, -1, 2000);
+        assertTrue(limiter.isReady(avgRule));
+        assertEquals(10, limiter.getShare(), 0.01);
+    }
+
+    @Test
+    public void testCircuitBreaker() {
+        ClusterTokenCircuitBreaker breaker = new ClusterTokenCircuitBreaker();
+        long now = 1000;
+        for (int i = 0; i < ClusterTokenCircuitBreaker.FAILURE_THRESHOLD; i++) {
+            assertTrue(breaker.tryPass(now));
+            breaker.onFailure(now);
+        }
+        assertTrue(breaker.isOpen());
+        assertFalse(breaker.tryPass(now + ClusterTokenCircuitBreaker.INITIAL_RETRY_INTERVAL_MS - 1));
+
+        // Only one probe is allowed after the retry interval.
+        now += ClusterTokenCircuitBreaker.INITIAL_RETRY_INTERVAL_MS;
+        assertTrue(breaker.tryPass(now));
+        assertFalse(breaker.tryPass(now));
+
+        // The probe fails, so the retry interval is doubled.
+        breaker.onFailure(now);
+        assertFalse(breaker.tryPass(now + ClusterTokenCircuitBreaker.INITIAL_RETRY_INTERVAL_MS));
+        assertTrue(breaker.tryPass(now + ClusterTokenCircuitBreaker.INITIAL_RETRY_INTERVAL_MS * 2));
+
+        breaker.onSuccess();
+        assertFalse(breaker.isOpen());
+        assertTrue(breaker.tryPass(now));
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.util;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class UrlPathUtilTest {
+
+    @Test
+    public void testNormalizePath() {
+        assertNull(UrlPathUtil.normalizePath(null));
+        String path = "/users/profile";
+        assertSame(path, UrlPathUtil.normalizePath(path));
+        assertEquals("/users/{id}", UrlPathUtil.normalizePath("/users/123"));
+        assertEquals("/users/{id}/orders/{id}/", UrlPathUtil.normalizePath("/users/123/orders/45/"));
+        assertEquals("/orders/{id}", UrlPathUtil.normalizePath("/orders/123e4567-e89b-12d3-a456-426614174000"));
+        assertEquals("/objects/{id}", UrlPathUtil.normalizePath("/objects/5f8d0d55b54764421b7156c3"));
+        // Short hex-like words and words without digits are kept.
+        assertEquals("/v2/cafe/beef12/added", UrlPathUtil.normalizePath("/v2/cafe/beef12/added"));
+        assertEquals("{id}", UrlPathUtil.normalizePath("42"));
+    }
+
+    @Test
+    public void testNormalizeUrl() {
+        assertNull(UrlPathUtil.normalizeUrl(null));
+        assertEquals("http://localhost:8080/users/{id}",
+            UrlPathUtil.normalizeUrl("http://localhost:8080/users/123?name=abc#top"));
+        assertEquals("http://10.0.0.1:8080", UrlPathUtil.normalizeUrl("http://10.0.0.1:8080?id=1"));
+        assertEquals("/users/{id}/orders", UrlPathUtil.normalizeUrl("/users/7/orders?page=2"));
+        String url = "http://localhost/users";
+        assertSame(url, UrlPathUtil.normalizeUrl(url));
+    }
+}
@@ -0,0 +1,271 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.dashboard.client;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+import com.alibaba.csp.sentinel.concurrent.NamedThreadFactory;
+import com.alibaba.csp.sentinel.util.AssertUtil;
+
+/**
+ * <p>Sends a request to many machines of an app in parallel, and aggregates the results of all the machines,
+ * including the failed ones, into a {@link FanOutResult}.</p>
+ *
+ * <ul>
+ * <li>At most {@code maxConcurrencyPerApp} requests are in flight for each app, the others wait in a queue,
+ * so that a big app won't exhaust the connections or flood the machines. The permit of a machine is held until
+ * all the attempts sent to it have finished, even if the machine has been failed by the timeout.</li>
+ * <li>A request failed with an {@link IOException} (e.g. a pooled connection closed by the peer) is retried once.</li>
+ * <li>For hedged requests (reads), if the first attempt hasn't completed after {@code hedgeDelayMs},
+ * a second attempt is sent and the first success wins.</li>
+ * <li>A machine is failed with a {@link TimeoutException} if it doesn't respond in {@code timeoutMs}.</li>
+ * </ul>
+ *
+ * <p>Requests of a fan-out must be idempotent, as they may be sent more than once.</p>
+ *
+ * @since 1.8.7
+ */
+public class FanOutExecutor {
+
+    public static final int DEFAULT_MAX_CONCURRENCY_PER_APP = 32;
+    public static final long DEFAULT_HEDGE_DELAY_MS = 2000;
+    public static final long DEFAULT_TIMEOUT_MS = 10000;
+
+    private static final int MAX_ATTEMPTS = 2;
+
+    @SuppressWarnings("PMD.ThreadPoolCreationRule")
+    private static final ScheduledExecutorService TIMER = Executors.newSingleThreadScheduledExecutor(
+        new NamedThreadFactory("sentinel-dashboard-fan-out-timer", true));
+
+    private final int maxConcurrencyPerApp;
+    private final long hedgeDelayMs;
+    private final long timeoutMs;
+
+    private final ConcurrentMap<String, AppQueue> queues = new ConcurrentHashMap<>();
+
+    public FanOutExecutor() {
+        this(DEFAULT_MAX_CONCURRENCY_PER_APP, DEFAULT_HEDGE_DELAY_MS, DEFAULT_TIMEOUT_MS);
+    }
+
+    public FanOutExecutor(int maxConcurrencyPerApp, long hedgeDelayMs, long timeoutMs) {
+        AssertUtil.isTrue(maxConcurrencyPerApp > 0, "maxConcurrencyPerApp should be positive");
+        AssertUtil.isTrue(hedgeDelayMs > 0, "hedgeDelayMs should be positive");
+        AssertUtil.isTrue(timeoutMs > 0, "timeoutMs should be positive");
+        this.maxConcurrencyPerApp = maxConcurrencyPerApp;
+        this.hedgeDelayMs = hedgeDelayMs;
+        this.timeoutMs = timeoutMs;
+    }
+
+    /**
+     * Send the requests to the machines of the app.
+     *
+     * @param app      app of the machines, which the concurrency is limited by
+     * @param requests {@code machineId -> request}, each call of the supplier sends the request once
+     * @param hedged   whether to send a hedged request when a machine is slow; should be true only for reads
+     * @param <T>      type of the result of each machine
+     * @return the aggregated result, completed when all the machines have succeeded or failed
+     */
+    public <T> CompletableFuture<FanOutResult<T>> execute(String app,
+                                                          Map<String, Supplier<CompletableFuture<T>>> requests,
+                                                          boolean hedged) {
+        AssertUtil.notNull(requests, "requests cannot be null");
+        AppQueue queue = queues.computeIfAbsent(app == null ? "" : app, k -> new AppQueue());
+        List<String> machineIds = new ArrayList<>(requests.size());
+        List<CompletableFuture<T>> futures = new ArrayList<>(requests.size());
+        for (Map.Entry<String, Supplier<CompletableFuture<T>>> e : requests.entrySet()) {
+            CompletableFuture<T> future = new CompletableFuture<>();
+            Supplier<CompletableFuture<T>> request = e.getValue();
+            machineIds.add(e.getKey());
+            futures.add(future);
+            queue.submit(() -> send(request, future, hedged, queue::release));
+        }
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+            .handle((v, ignore) -> {
+                FanOutResult<T> result = new FanOutResult<>();
+                for (int i = 0; i < futures.size(); i++) {
+                    try {
+                        result.addSuccess(machineIds.get(i), futures.get(i).join());
+                    } catch (CompletionException ex) {
+                        result.addFailure(machineIds.get(i), unwrap(ex));
+                    }
+                }
+                return result;
+            });
+    }
+
+    private <T> void send(Supplier<CompletableFuture<T>> request, CompletableFuture<T> future, boolean hedged,
+                          Runnable release) {
+        Call<T> call = new Call<>(request, future, release);
+        future.whenComplete((v, ex) -> call.trySettle());
+        call.attempt();
+        if (hedged) {
+            TIMER.schedule(call::attempt, hedgeDelayMs, TimeUnit.MILLISECONDS);
+        }
+        ScheduledFuture<?> timeout = TIMER.schedule(() -> future.completeExceptionally(
+            new TimeoutException("No response in " + timeoutMs + " ms")), timeoutMs, TimeUnit.MILLISECONDS);
+        future.whenComplete((v, ex) -> timeout.cancel(false));
+    }
+
+    private static Throwable unwrap(Throwable ex) {
+        while ((ex instanceof CompletionException || ex instanceof ExecutionException) && ex.getCause() != null) {
+            ex = ex.getCause();
+        }
+        return ex;
+    }
+
+    /**
+     * Attempts of the request to a machine.
+     */
+    private static final class Call<T> {
+
+        private final Supplier<CompletableFuture<T>> request;
+        private final CompletableFuture<T> future;
+        private final Runnable release;
+
+        private int started;
+        private int failed;
+        private int finished;
+        private boolean settled;
+
+        Call(Supplier<CompletableFuture<T>> request, CompletableFuture<T> future, Runnable release) {
+            this.request = request;
+            this.future = future;
+            this.release = release;
+        }
+
+        void attempt() {
+            synchronized (this) {
+                if (future.isDone() || started >= MAX_ATTEMPTS) {
+                    return;
+                }
+                started++;
+            }
+            CompletableFuture<T> f;
+            try {
+                f = request.get();
+            } catch (Throwable ex) {
+                f = new CompletableFuture<>();
+                f.completeExceptionally(ex);
+            }
+            f.whenComplete((v, ex) -> {
+                if (ex == null) {
+                    future.complete(v);
+                } else {
+                    onFailure(unwrap(ex));
+                }
+                synchronized (this) {
+                    finished++;
+                }
+                trySettle();
+            });
+        }
+
+        /**
+         * Release the permit once the result is determined and no attempt is in flight. No more attempts
+         * could be started after the result is determined, so the request to the machine is really over.
+         */
+        void trySettle() {
+            synchronized (this) {
+                if (settled || !future.isDone() || finished < started) {
+                    return;
+                }
+                settled = true;
+            }
+            release.run();
+        }
+
+        private void onFailure(Throwable cause) {
+            boolean retry;
+            boolean fail;
+            synchronized (this) {
+                failed++;
+                retry = cause instanceof IOException && started < MAX_ATTEMPTS;
+                // Wait for the other attempt in flight, which may still succeed.
+                fail = !retry && failed == started;
+            }
+            if (retry) {
+                attempt();
+            } else if (fail) {
+                future.completeExceptionally(cause);
+            }
+        }
+    }
+
+    /**
+     * Limits the in-flight requests of an app.
+     */
+    private final class AppQueue {
+
+        private final Deque<Runnable> pending = new ArrayDeque<>();
+        private int inFlight;
+        private boolean draining;
+
+        void submit(Runnable task) {
+            synchronized (this) {
+                pending.addLast(task);
+            }
+            drain();
+        }
+
+        void release() {
+            synchronized (this) {
+                inFlight--;
+            }
+            drain();
+        }
+
+        /**
+         * Start the pending tasks while there are free permits. Requests completed synchronously release
+         * their permits within {@code task.run()}, so only one thread drains at a time to avoid deep recursion.
+         */
+        private void drain() {
+            synchronized (this) {
+                if (draining) {
+                    return;
+                }
+                draining = true;
+            }
+            while (true) {
+                Runnable next;
+                synchronized (this) {
+                    if (inFlight >= maxConcurrencyPerApp || pending.isEmpty()) {
+                        draining = false;
+                        return;
+                    }
+                    inFlight++;
+                    next = pending.pollFirst();
+                }
+                next.run();
+            }
+        }
+    }
+}
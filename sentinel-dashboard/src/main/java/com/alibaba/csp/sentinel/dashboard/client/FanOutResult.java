@@ -0,0 +1,72 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.dashboard.client;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Aggregated result of a request fanned out to the machines of an app (see {@link FanOutExecutor}),
+ * which may partially fail.
+ *
+ * @param <T> type of the result of each machine
+ * @since 1.8.7
+ */
+public class FanOutResult<T> {
+
+    private final Map<String, T> successes = new LinkedHashMap<>();
+    private final Map<String, Throwable> failures = new LinkedHashMap<>();
+
+    void addSuccess(String machineId, T value) {
+        successes.put(machineId, value);
+    }
+
+    void addFailure(String machineId, Throwable ex) {
+        failures.put(machineId, ex);
+    }
+
+    /**
+     * @return {@code machineId -> result} of the succeeded machines
+     */
+    public Map<String, T> getSuccesses() {
+        return Collections.unmodifiableMap(successes);
+    }
+
+    /**
+     * @return {@code machineId -> cause} of the failed machines
+     */
+    public Map<String, Throwable> getFailures() {
+        return Collections.unmodifiableMap(failures);
+    }
+
+    public Set<String> getFailedMachineIds() {
+        return Collections.unmodifiableSet(failures.keySet());
+    }
+
+    public boolean isAllSuccess() {
+        return failures.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return "FanOutResult{" +
+            "successCount=" + successes.size() +
+            ", failures=" + failures.keySet() +
+            '}';
+    }
+}
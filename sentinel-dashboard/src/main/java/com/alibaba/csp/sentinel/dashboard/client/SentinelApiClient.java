@@ -28,6 +28,7 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import com.alibaba.csp.sentinel.adapter.gateway.common.rule.GatewayFlowRule;
@@ -73,6 +74,7 @@ import org.apache.http.client.utils.URLEncodedUtils;
 import org.apache.http.concurrent.FutureCallback;
 import org.apache.http.conn.util.InetAddressUtils;
 import org.apache.http.entity.ContentType;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
 import org.apache.http.impl.client.DefaultRedirectStrategy;
 import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
 import org.apache.http.impl.nio.client.HttpAsyncClients;
@@ -127,8 +129,15 @@ public class SentinelApiClient {
     private static final String SYSTEM_RULE_TYPE = "system";
     private static final String AUTHORITY_TYPE = "authority";
 
+    /**
+     * Idle pooled connections are kept for at most this long, unless the machine asks for a shorter time.
+     */
+    private static final long MAX_KEEP_ALIVE_MS = 15 * 1000;
+
     private CloseableHttpAsyncClient httpClient;
 
+    private final FanOutExecutor fanOutExecutor = new FanOutExecutor();
+
     private static final SentinelVersion version160 = new SentinelVersion(1, 6, 0);
     private static final SentinelVersion version171 = new SentinelVersion(1, 7, 1);
     
@@ -143,6 +152,9 @@ public class SentinelApiClient {
             protected boolean isRedirectable(final String method) {
                 return false;
             }
+        }).setKeepAliveStrategy((response, context) -> {
+            long keepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+            return keepAlive > 0 ? Math.min(keepAlive, MAX_KEEP_ALIVE_MS) : MAX_KEEP_ALIVE_MS;
         }).setMaxConnTotal(4000).setMaxConnPerRoute(1000).setDefaultIOReactorConfig(ioConfig).build();
         httpClient.start();
     }
@@ -356,6 +368,23 @@ public class SentinelApiClient {
     public void close() throws Exception {
         httpClient.close();
     }
+
+    /**
+     * Send requests to many machines of an app in parallel, with bounded concurrency per app, a retry on
+     * connection failures, and hedged requests for slow machines if {@code hedged} (see {@link FanOutExecutor}).
+     *
+     * @param app      app of the machines
+     * @param requests {@code machineId -> request}; requests must be idempotent as they may be sent twice
+     * @param hedged   whether to hedge slow requests; should be true only for reads
+     * @param <T>      type of the result of each machine
+     * @return aggregated result of all the machines, including the failed ones
+     * @since 1.8.7
+     */
+    public <T> CompletableFuture<FanOutResult<T>> fanOut(String app,
+                                                         Map<String, Supplier<CompletableFuture<T>>> requests,
+                                                         boolean hedged) {
+        return fanOutExecutor.execute(app, requests, hedged);
+    }
     
     @Nullable
     private <T> CompletableFuture<List<T>> fetchItemsAsync(String ip, int port, String api, String type, Class<T> ruleType) {
@@ -23,12 +23,16 @@ import com.alibaba.csp.sentinel.adapter.servlet.CommonFilter;
 import com.alibaba.csp.sentinel.adapter.servlet.callback.WebCallbackManager;
 import com.alibaba.csp.sentinel.dashboard.auth.AuthorizationInterceptor;
 import com.alibaba.csp.sentinel.dashboard.auth.LoginAuthenticationFilter;
+import com.alibaba.csp.sentinel.dashboard.metric.MetricAggregator;
+import com.alibaba.csp.sentinel.dashboard.metric.MetricPushRegistry;
+import com.alibaba.csp.sentinel.dashboard.metric.MetricPushServlet;
 import com.alibaba.csp.sentinel.util.StringUtil;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.boot.web.servlet.ServletRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
@@ -113,4 +117,17 @@ public class WebConfig implements WebMvcConfigurer {
         registration.setOrder(0);
         return registration;
     }
+
+    /**
+     * Receive the metrics pushed by the machines, see {@link MetricPushServlet}.
+     */
+    @Bean
+    public ServletRegistrationBean<MetricPushServlet> metricPushServletRegistration(MetricAggregator metricAggregator,
+                                                                                    MetricPushRegistry metricPushRegistry) {
+        ServletRegistrationBean<MetricPushServlet> registration = new ServletRegistrationBean<>(
+            new MetricPushServlet(metricAggregator, metricPushRegistry), "/metric/push");
+        registration.setName("metricPushServlet");
+        registration.setAsyncSupported(true);
+        return registration;
+    }
 }
@@ -0,0 +1,244 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.dashboard.metric;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PreDestroy;
+
+import com.alibaba.csp.sentinel.Constants;
+import com.alibaba.csp.sentinel.concurrent.NamedThreadFactory;
+import com.alibaba.csp.sentinel.dashboard.datasource.entity.MetricEntity;
+import com.alibaba.csp.sentinel.dashboard.repository.metric.MetricsRepository;
+import com.alibaba.csp.sentinel.node.metric.MetricNode;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * <p>Aggregates the metrics of all machines of an app by {@code app_resource_timeSecond}, and saves them to the
+ * {@link MetricsRepository}.</p>
+ *
+ * <p>Metrics come from both the pulling {@link MetricFetcher} and the machines pushing their metrics (see
+ * {@link MetricPushServlet}) at different moments, so they are accumulated per second here, and the aggregated
+ * metrics of a second are saved in one batch once the second is closed, i.e. {@link #CLOSE_DELAY_MS} ms later.
+ * The aggregated metrics are kept for {@link #MERGE_WINDOW_MS} ms, metrics arriving later than the close
+ * are merged and the up-to-date aggregated metrics are saved again in the next flush. The repository is
+ * expected to replace the metric with the same app, resource and timestamp. Metrics older than the merge
+ * window are dropped, since they can't be merged with the saved ones any more.</p>
+ *
+ * @since 1.8.7
+ */
+@Component
+public class MetricAggregator {
+
+    private static final Logger logger = LoggerFactory.getLogger(MetricAggregator.class);
+
+    static final long CLOSE_DELAY_MS = 10 * 1000;
+    static final long MERGE_WINDOW_MS = 60 * 1000;
+    private static final long FLUSH_INTERVAL_MS = 1000;
+
+    /**
+     * timestamp -> metrics aggregated in the second
+     */
+    private final ConcurrentSkipListMap<Long, SecondMetrics> recentMetrics = new ConcurrentSkipListMap<>();
+    /**
+     * Metrics before this time have been evicted, and can't be merged any more.
+     */
+    private volatile long evictedBefore = 0;
+
+    private final MetricsRepository<MetricEntity> metricStore;
+
+    private ScheduledExecutorService flushService;
+
+    @Autowired
+    public MetricAggregator(MetricsRepository<MetricEntity> metricStore) {
+        this(metricStore, true);
+    }
+
+    @SuppressWarnings("PMD.ThreadPoolCreationRule")
+    MetricAggregator(MetricsRepository<MetricEntity> metricStore, boolean scheduleFlush) {
+        this.metricStore = metricStore;
+        if (scheduleFlush) {
+            flushService = Executors.newSingleThreadScheduledExecutor(
+                new NamedThreadFactory("sentinel-dashboard-metric-aggregator", true));
+            flushService.scheduleAtFixedRate(() -> {
+                try {
+                    flush(System.currentTimeMillis());
+                } catch (Throwable e) {
+                    logger.warn("Failed to flush aggregated metrics", e);
+                }
+            }, FLUSH_INTERVAL_MS, FLUSH_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (flushService != null) {
+            flushService.shutdown();
+        }
+        flush(Long.MAX_VALUE);
+    }
+
+    /**
+     * Add a metric node of a machine to the map of metrics aggregated by {@code app_resource_timeSecond}.
+     *
+     * @param map  app_resource_timeSecond -> metric
+     * @param app  app of the machine
+     * @param node the metric node
+     */
+    public static void accumulate(Map<String, MetricEntity> map, String app, MetricNode node) {
+        if (shouldFilterOut(node.getResource())) {
+            return;
+        }
+        /*
+         * aggregation metrics by app_resource_timeSecond, ignore ip and port.
+         */
+        String key = app + "__" + node.getResource() + "__" + (node.getTimestamp() / 1000);
+        MetricEntity metricEntity = map.computeIfAbsent(key, s -> newEntity(app, node.getResource(),
+            new Date(node.getTimestamp())));
+        metricEntity.addPassQps(node.getPassQps());
+        metricEntity.addBlockQps(node.getBlockQps());
+        metricEntity.addRtAndSuccessQps(node.getRt(), node.getSuccessQps());
+        metricEntity.addExceptionQps(node.getExceptionQps());
+        metricEntity.addCount(1);
+    }
+
+    /**
+     * Merge the metrics (each of them is already aggregated from some machines) into the recent aggregated
+     * metrics. The merged results are saved by the next flush after their seconds are closed.
+     *
+     * @param metrics metrics to merge
+     */
+    public void merge(Collection<MetricEntity> metrics) {
+        if (metrics.isEmpty()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        int dropped = 0;
+        for (MetricEntity entity : metrics) {
+            long timestamp = entity.getTimestamp().getTime() / 1000 * 1000;
+            if (timestamp < now - MERGE_WINDOW_MS || !mergeInto(timestamp, entity)) {
+                dropped++;
+            }
+        }
+        if (dropped > 0) {
+            logger.warn("{} metrics arrived too late to be merged, dropped", dropped);
+        }
+    }
+
+    private boolean mergeInto(long timestamp, MetricEntity entity) {
+        SecondMetrics second = recentMetrics.computeIfAbsent(timestamp, SecondMetrics::new);
+        synchronized (second) {
+            if (timestamp < evictedBefore) {
+                // The second has been evicted, or is going to be.
+                return false;
+            }
+            String key = entity.getApp() + "__" + entity.getResource();
+            MetricEntity merged = second.metrics.computeIfAbsent(key,
+                k -> newEntity(entity.getApp(), entity.getResource(), new Date(timestamp)));
+            merged.addPassQps(entity.getPassQps());
+            merged.addBlockQps(entity.getBlockQps());
+            merged.addExceptionQps(entity.getExceptionQps());
+            merged.setRt(merged.getRt() + entity.getRt());
+            merged.setSuccessQps(merged.getSuccessQps() + entity.getSuccessQps());
+            merged.addCount(entity.getCount());
+            second.dirtyKeys.add(key);
+            return true;
+        }
+    }
+
+    /**
+     * Save the changed aggregated metrics of the seconds closed at the given time in one batch, and evict the
+     * seconds out of the merge window.
+     *
+     * @param now current time in ms
+     */
+    synchronized void flush(long now) {
+        Date date = new Date(Math.min(now, System.currentTimeMillis()));
+        if (now - MERGE_WINDOW_MS > evictedBefore) {
+            evictedBefore = now - MERGE_WINDOW_MS;
+        }
+        List<MetricEntity> toSave = new ArrayList<>();
+        Iterator<SecondMetrics> iterator = recentMetrics.headMap(now - CLOSE_DELAY_MS, true).values().iterator();
+        while (iterator.hasNext()) {
+            SecondMetrics second = iterator.next();
+            synchronized (second) {
+                for (String key : second.dirtyKeys) {
+                    MetricEntity merged = second.metrics.get(key);
+                    if (merged.getGmtCreate() == null) {
+                        merged.setGmtCreate(date);
+                    }
+                    merged.setGmtModified(date);
+                    toSave.add(MetricEntity.copyOf(merged));
+                }
+                second.dirtyKeys.clear();
+                if (second.timestamp < evictedBefore) {
+                    iterator.remove();
+                }
+            }
+        }
+        if (!toSave.isEmpty()) {
+            metricStore.saveAll(toSave);
+        }
+    }
+
+    private static MetricEntity newEntity(String app, String resource, Date timestamp) {
+        MetricEntity entity = new MetricEntity();
+        entity.setApp(app);
+        entity.setTimestamp(timestamp);
+        entity.setPassQps(0L);
+        entity.setBlockQps(0L);
+        entity.setRtAndSuccessQps(0, 0L);
+        entity.setExceptionQps(0L);
+        entity.setCount(0);
+        entity.setResource(resource);
+        return entity;
+    }
+
+    private static boolean shouldFilterOut(String resource) {
+        return Constants.TOTAL_IN_RESOURCE_NAME.equals(resource)
+            || Constants.SYSTEM_LOAD_RESOURCE_NAME.equals(resource)
+            || Constants.CPU_USAGE_RESOURCE_NAME.equals(resource);
+    }
+
+    private static final class SecondMetrics {
+        private final long timestamp;
+        /**
+         * app_resource -> aggregated metric
+         */
+        private final Map<String, MetricEntity> metrics = new HashMap<>();
+        private final Set<String> dirtyKeys = new HashSet<>();
+
+        private SecondMetrics(long timestamp) {
+            this.timestamp = timestamp;
+        }
+    }
+}
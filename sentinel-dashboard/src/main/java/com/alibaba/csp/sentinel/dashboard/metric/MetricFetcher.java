@@ -15,11 +15,13 @@
  */
 package com.alibaba.csp.sentinel.dashboard.metric;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.ConnectException;
 import java.net.SocketTimeoutException;
 import java.nio.charset.Charset;
-import java.util.Date;
-import java.util.HashSet;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -33,9 +35,10 @@ import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.ThreadPoolExecutor.DiscardPolicy;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
 
-import com.alibaba.csp.sentinel.Constants;
 import com.alibaba.csp.sentinel.concurrent.NamedThreadFactory;
 import com.alibaba.csp.sentinel.config.SentinelConfig;
 import com.alibaba.csp.sentinel.dashboard.datasource.entity.MetricEntity;
@@ -43,9 +46,11 @@ import com.alibaba.csp.sentinel.dashboard.discovery.AppInfo;
 import com.alibaba.csp.sentinel.dashboard.discovery.AppManagement;
 import com.alibaba.csp.sentinel.dashboard.discovery.MachineInfo;
 import com.alibaba.csp.sentinel.node.metric.MetricNode;
+import com.alibaba.csp.sentinel.transport.util.CompactMetricCodec;
 import com.alibaba.csp.sentinel.util.StringUtil;
 
-import com.alibaba.csp.sentinel.dashboard.repository.metric.MetricsRepository;
+import org.apache.http.Header;
+import org.apache.http.HttpHeaders;
 import org.apache.http.HttpResponse;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.concurrent.FutureCallback;
@@ -75,13 +80,28 @@ public class MetricFetcher {
     private static final long FETCH_INTERVAL_SECOND = 6;
     private static final Charset DEFAULT_CHARSET = Charset.forName(SentinelConfig.charset());
     private final static String METRIC_URL_PATH = "metric";
+    private final static String METRIC_V2_URL_PATH = "metric/v2";
+    private static final int HTTP_BAD_REQUEST = 400;
+    private static final int HTTP_NOT_FOUND = 404;
     private static Logger logger = LoggerFactory.getLogger(MetricFetcher.class);
     private final long intervalSecond = 1;
 
     private Map<String, AtomicLong> appLastFetchTime = new ConcurrentHashMap<>();
+    /**
+     * ip:port -> client version, of the machines that don't support the {@code metric/v2} command.
+     * The machine will be tried with v2 again once its version changes.
+     */
+    private final Map<String, String> legacyMachines = new ConcurrentHashMap<>();
+    /**
+     * ip:port -> next cursor of the {@code metric/v2} command. The cursor only moves forward once the metrics
+     * of the machine are accepted in a fetch round, so a failed fetch is retried from the same second.
+     */
+    private final Map<String, Long> machineCursors = new ConcurrentHashMap<>();
 
     @Autowired
-    private MetricsRepository<MetricEntity> metricStore;
+    private MetricAggregator metricAggregator;
+    @Autowired
+    private MetricPushRegistry metricPushRegistry;
     @Autowired
     private AppManagement appManagement;
 
@@ -138,12 +158,7 @@ public class MetricFetcher {
         if (map.isEmpty()) {
             return;
         }
-        Date date = new Date();
-        for (MetricEntity entity : map.values()) {
-            entity.setGmtCreate(date);
-            entity.setGmtModified(date);
-        }
-        metricStore.saveAll(map.values());
+        metricAggregator.merge(map.values());
     }
 
     /**
@@ -193,12 +208,15 @@ public class MetricFetcher {
         long start = System.currentTimeMillis();
         /** app_resource_timeSecond -> metric */
         final Map<String, MetricEntity> metricMap = new ConcurrentHashMap<>(16);
+        // Responses arriving after the round is closed are dropped, and their cursors are not moved.
+        final AtomicBoolean closed = new AtomicBoolean();
         final CountDownLatch latch = new CountDownLatch(machines.size());
         for (final MachineInfo machine : machines) {
             // auto remove
             if (machine.isDead()) {
                 latch.countDown();
                 appManagement.getDetailApp(app).removeMachine(machine.getIp(), machine.getPort());
+                machineCursors.remove(machineKey(machine));
                 logger.info("Dead machine removed: {}:{} of {}", machine.getIp(), machine.getPort(), app);
                 continue;
             }
@@ -207,44 +225,14 @@ public class MetricFetcher {
                 unhealthy.incrementAndGet();
                 continue;
             }
-            final String url = "http://" + machine.getIp() + ":" + machine.getPort() + "/" + METRIC_URL_PATH
-                + "?startTime=" + startTime + "&endTime=" + endTime + "&refetch=" + false;
-            final HttpGet httpGet = new HttpGet(url);
-            httpGet.setHeader(HTTP.CONN_DIRECTIVE, HTTP.CONN_CLOSE);
-            httpclient.execute(httpGet, new FutureCallback<HttpResponse>() {
-                @Override
-                public void completed(final HttpResponse response) {
-                    try {
-                        handleResponse(response, machine, metricMap);
-                        success.incrementAndGet();
-                    } catch (Exception e) {
-                        logger.error(msg + " metric " + url + " error:", e);
-                    } finally {
-                        latch.countDown();
-                    }
-                }
-
-                @Override
-                public void failed(final Exception ex) {
-                    latch.countDown();
-                    fail.incrementAndGet();
-                    httpGet.abort();
-                    if (ex instanceof SocketTimeoutException) {
-                        logger.error("Failed to fetch metric from <{}>: socket timeout", url);
-                    } else if (ex instanceof ConnectException) {
-                        logger.error("Failed to fetch metric from <{}> (ConnectionException: {})", url, ex.getMessage());
-                    } else {
-                        logger.error(msg + " metric " + url + " error", ex);
-                    }
-                }
-
-                @Override
-                public void cancelled() {
-                    latch.countDown();
-                    fail.incrementAndGet();
-                    httpGet.abort();
-                }
-            });
+            if (metricPushRegistry.isPushing(machine.getIp(), machine.getPort())) {
+                // The machine pushes its metrics by itself.
+                latch.countDown();
+                machineCursors.remove(machineKey(machine));
+                continue;
+            }
+            fetchFromMachine(machine, startTime, endTime, !isLegacyMachine(machine), metricMap, closed, latch,
+                success, fail);
         }
         try {
             latch.await(maxWaitSeconds, TimeUnit.SECONDS);
@@ -255,9 +243,141 @@ public class MetricFetcher {
         //logger.info("finished " + msg + " metric for " + app + ", time intervalMs [" + startTime + ", " + endTime
         //    + "], total machines=" + machines.size() + ", dead=" + dead + ", fetch success="
         //    + success + ", fetch fail=" + fail + ", time cost=" + cost + " ms");
+        synchronized (metricMap) {
+            closed.set(true);
+        }
         writeMetric(metricMap);
     }
 
+    /**
+     * Fetch metric of the machine, and count down the latch when done. Prefer the {@code metric/v2} command
+     * with compact encoding and gzip, and fall back to the v1 command if the machine doesn't support it.
+     * The v2 command is pulled from the cursor of the machine up to {@code endTime}.
+     */
+    private void fetchFromMachine(final MachineInfo machine, final long startTime, final long endTime, final boolean v2,
+                                  final Map<String, MetricEntity> metricMap, final AtomicBoolean closed,
+                                  final CountDownLatch latch, final AtomicLong success, final AtomicLong fail) {
+        final String msg = "fetch";
+        final String url;
+        if (v2) {
+            long cursor = cursorOf(machine, startTime);
+            url = "http://" + machine.getIp() + ":" + machine.getPort() + "/" + METRIC_V2_URL_PATH
+                + "?cursor=" + cursor + "&maxSeconds=" + ((endTime - cursor) / 1000 + 1);
+        } else {
+            url = "http://" + machine.getIp() + ":" + machine.getPort() + "/" + METRIC_URL_PATH
+                + "?startTime=" + startTime + "&endTime=" + endTime + "&refetch=" + false;
+        }
+        final HttpGet httpGet = new HttpGet(url);
+        httpGet.setHeader(HTTP.CONN_DIRECTIVE, HTTP.CONN_CLOSE);
+        if (v2) {
+            httpGet.setHeader(HttpHeaders.ACCEPT, CompactMetricCodec.CONTENT_TYPE);
+            httpGet.setHeader(HttpHeaders.ACCEPT_ENCODING, "gzip");
+        }
+        httpclient.execute(httpGet, new FutureCallback<HttpResponse>() {
+            @Override
+            public void completed(final HttpResponse response) {
+                boolean refetch = false;
+                try {
+                    if (v2 && isCommandNotSupported(response)) {
+                        legacyMachines.put(machineKey(machine), String.valueOf(machine.getVersion()));
+                        logger.info("Machine {} doesn't support metric v2, fall back to v1", machine.toLogString());
+                        refetch = true;
+                        fetchFromMachine(machine, startTime, endTime, false, metricMap, closed, latch, success, fail);
+                        return;
+                    }
+                    FetchedMetrics fetched = handleResponse(response, machine, v2);
+                    if (fetched == null) {
+                        return;
+                    }
+                    synchronized (metricMap) {
+                        if (closed.get()) {
+                            logger.warn("Metrics of {} arrived too late, will be fetched again", machine.toLogString());
+                            return;
+                        }
+                        for (MetricNode node : fetched.nodes) {
+                            MetricAggregator.accumulate(metricMap, machine.getApp(), node);
+                        }
+                        if (v2) {
+                            machineCursors.put(machineKey(machine), fetched.nextCursor);
+                        }
+                    }
+                    success.incrementAndGet();
+                } catch (Exception e) {
+                    logger.error(msg + " metric " + url + " error:", e);
+                } finally {
+                    if (!refetch) {
+                        latch.countDown();
+                    }
+                }
+            }
+
+            @Override
+            public void failed(final Exception ex) {
+                latch.countDown();
+                fail.incrementAndGet();
+                httpGet.abort();
+                if (ex instanceof SocketTimeoutException) {
+                    logger.error("Failed to fetch metric from <{}>: socket timeout", url);
+                } else if (ex instanceof ConnectException) {
+                    logger.error("Failed to fetch metric from <{}> (ConnectionException: {})", url, ex.getMessage());
+                } else {
+                    logger.error(msg + " metric " + url + " error", ex);
+                }
+            }
+
+            @Override
+            public void cancelled() {
+                latch.countDown();
+                fail.incrementAndGet();
+                httpGet.abort();
+            }
+        });
+    }
+
+    private boolean isLegacyMachine(MachineInfo machine) {
+        String version = legacyMachines.get(machineKey(machine));
+        if (version == null) {
+            return false;
+        }
+        if (!version.equals(String.valueOf(machine.getVersion()))) {
+            // The machine has been upgraded, try v2 again.
+            legacyMachines.remove(machineKey(machine));
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Old clients respond "Unknown command" with 400 (simple-http, netty-http), or 404 (spring-mvc).
+     */
+    private boolean isCommandNotSupported(HttpResponse response) throws Exception {
+        int code = response.getStatusLine().getStatusCode();
+        if (code == HTTP_NOT_FOUND) {
+            return true;
+        }
+        if (code != HTTP_BAD_REQUEST) {
+            return false;
+        }
+        String body = EntityUtils.toString(response.getEntity(), DEFAULT_CHARSET);
+        return body != null && body.startsWith("Unknown command");
+    }
+
+    /**
+     * The cursor to pull the machine from. Falls back to the start of the fetch window if the machine hasn't
+     * been pulled yet, or its cursor is too old (e.g. it was unreachable for a while).
+     */
+    private long cursorOf(MachineInfo machine, long startTime) {
+        Long cursor = machineCursors.get(machineKey(machine));
+        if (cursor == null || cursor < startTime - MAX_LAST_FETCH_INTERVAL_MS) {
+            return startTime;
+        }
+        return cursor;
+    }
+
+    private static String machineKey(MachineInfo machine) {
+        return machine.getIp() + ":" + machine.getPort();
+    }
+
     private void doFetchAppMetric(final String app) {
         long now = System.currentTimeMillis();
         long lastFetchMs = now - MAX_LAST_FETCH_INTERVAL_MS;
@@ -289,33 +409,62 @@ public class MetricFetcher {
         }
     }
 
-    private void handleResponse(final HttpResponse response, MachineInfo machine,
-                                Map<String, MetricEntity> metricMap) throws Exception {
+    /**
+     * @return the fetched metrics, or null if the machine didn't respond with 200
+     */
+    private FetchedMetrics handleResponse(final HttpResponse response, MachineInfo machine, boolean v2)
+        throws Exception {
         int code = response.getStatusLine().getStatusCode();
         if (code != HTTP_OK) {
-            return;
+            return null;
         }
+        FetchedMetrics fetched = new FetchedMetrics();
         Charset charset = null;
+        String mimeType = null;
         try {
             String contentTypeStr = response.getFirstHeader("Content-type").getValue();
             if (StringUtil.isNotEmpty(contentTypeStr)) {
                 ContentType contentType = ContentType.parse(contentTypeStr);
                 charset = contentType.getCharset();
+                mimeType = contentType.getMimeType();
             }
         } catch (Exception ignore) {
         }
-        String body = EntityUtils.toString(response.getEntity(), charset != null ? charset : DEFAULT_CHARSET);
+        Header contentEncoding = response.getFirstHeader(HttpHeaders.CONTENT_ENCODING);
+        boolean gzip = contentEncoding != null && "gzip".equalsIgnoreCase(contentEncoding.getValue());
+        if (CompactMetricCodec.CONTENT_TYPE.equals(mimeType)) {
+            try (InputStream in = gzip ? new GZIPInputStream(response.getEntity().getContent())
+                : response.getEntity().getContent()) {
+                fetched.nextCursor = CompactMetricCodec.decode(in, fetched.nodes::add);
+            }
+            return fetched;
+        }
+        String body;
+        if (gzip) {
+            try (InputStream in = new GZIPInputStream(response.getEntity().getContent())) {
+                body = new String(toByteArray(in), charset != null ? charset : DEFAULT_CHARSET);
+            }
+        } else {
+            body = EntityUtils.toString(response.getEntity(), charset != null ? charset : DEFAULT_CHARSET);
+        }
+        if (v2) {
+            // The first line of the v2 text format is the next cursor.
+            int firstLineEnd = body.indexOf('\n');
+            fetched.nextCursor = Long.parseLong((firstLineEnd < 0 ? body : body.substring(0, firstLineEnd)).trim());
+            body = firstLineEnd < 0 ? "" : body.substring(firstLineEnd + 1);
+        }
         if (StringUtil.isEmpty(body) || body.startsWith(NO_METRICS)) {
             //logger.info(machine.getApp() + ":" + machine.getIp() + ":" + machine.getPort() + ", bodyStr is empty");
-            return;
+            return fetched;
         }
         String[] lines = body.split("\n");
         //logger.info(machine.getApp() + ":" + machine.getIp() + ":" + machine.getPort() +
         //    ", bodyStr.length()=" + body.length() + ", lines=" + lines.length);
-        handleBody(lines, machine, metricMap);
+        handleBody(lines, machine, fetched.nodes);
+        return fetched;
     }
 
-    private void handleBody(String[] lines, MachineInfo machine, Map<String, MetricEntity> map) {
+    private void handleBody(String[] lines, MachineInfo machine, List<MetricNode> nodes) {
         //logger.info("handleBody() lines=" + lines.length + ", machine=" + machine);
         if (lines.length < 1) {
             return;
@@ -323,53 +472,25 @@ public class MetricFetcher {
 
         for (String line : lines) {
             try {
-                MetricNode node = MetricNode.fromThinString(line);
-                if (shouldFilterOut(node.getResource())) {
-                    continue;
-                }
-                /*
-                 * aggregation metrics by app_resource_timeSecond, ignore ip and port.
-                 */
-                String key = buildMetricKey(machine.getApp(), node.getResource(), node.getTimestamp());
-
-                MetricEntity metricEntity = map.computeIfAbsent(key, s -> {
-                    MetricEntity initMetricEntity = new MetricEntity();
-                    initMetricEntity.setApp(machine.getApp());
-                    initMetricEntity.setTimestamp(new Date(node.getTimestamp()));
-                    initMetricEntity.setPassQps(0L);
-                    initMetricEntity.setBlockQps(0L);
-                    initMetricEntity.setRtAndSuccessQps(0, 0L);
-                    initMetricEntity.setExceptionQps(0L);
-                    initMetricEntity.setCount(0);
-                    initMetricEntity.setResource(node.getResource());
-                    return initMetricEntity;
-                });
-                metricEntity.addPassQps(node.getPassQps());
-                metricEntity.addBlockQps(node.getBlockQps());
-                metricEntity.addRtAndSuccessQps(node.getRt(), node.getSuccessQps());
-                metricEntity.addExceptionQps(node.getExceptionQps());
-                metricEntity.addCount(1);
+                nodes.add(MetricNode.fromThinString(line));
             } catch (Exception e) {
                 logger.warn("handleBody line exception, machine: {}, line: {}", machine.toLogString(), line);
             }
         }
     }
 
-    private String buildMetricKey(String app, String resource, long timestamp) {
-        return app + "__" + resource + "__" + (timestamp / 1000);
+    private static byte[] toByteArray(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(4096);
+        byte[] buf = new byte[4096];
+        int n;
+        while ((n = in.read(buf)) > 0) {
+            out.write(buf, 0, n);
+        }
+        return out.toByteArray();
     }
 
-    private boolean shouldFilterOut(String resource) {
-        return RES_EXCLUSION_SET.contains(resource);
+    private static final class FetchedMetrics {
+        private final List<MetricNode> nodes = new ArrayList<>();
+        private long nextCursor;
     }
-
-    private static final Set<String> RES_EXCLUSION_SET = new HashSet<String>() {{
-       add(Constants.TOTAL_IN_RESOURCE_NAME);
-       add(Constants.SYSTEM_LOAD_RESOURCE_NAME);
-       add(Constants.CPU_USAGE_RESOURCE_NAME);
-    }};
-
 }
-
-
-
@@ -0,0 +1,76 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.dashboard.metric;
+
+import java.io.IOException;
+import java.util.function.Consumer;
+
+/**
+ * Splits the metric push stream into frames. Each frame is an {@code int} length followed by the payload,
+ * and the bytes of a frame may arrive in any number of pieces. Not thread-safe.
+ *
+ * @since 1.8.7
+ */
+class MetricFrameReader {
+
+    private final int maxFrameSize;
+
+    private final byte[] lengthBytes = new byte[4];
+    private int lengthRead = 0;
+    private byte[] frame;
+    private int frameRead = 0;
+
+    MetricFrameReader(int maxFrameSize) {
+        this.maxFrameSize = maxFrameSize;
+    }
+
+    /**
+     * Feed the received bytes, the complete frames are passed to the consumer.
+     *
+     * @throws IOException if the frame is too large
+     */
+    void feed(byte[] data, int offset, int length, Consumer<byte[]> consumer) throws IOException {
+        int end = offset + length;
+        while (offset < end) {
+            if (frame == null) {
+                int n = Math.min(4 - lengthRead, end - offset);
+                System.arraycopy(data, offset, lengthBytes, lengthRead, n);
+                lengthRead += n;
+                offset += n;
+                if (lengthRead < 4) {
+                    return;
+                }
+                int frameLength = ((lengthBytes[0] & 0xFF) << 24) | ((lengthBytes[1] & 0xFF) << 16)
+                    | ((lengthBytes[2] & 0xFF) << 8) | (lengthBytes[3] & 0xFF);
+                if (frameLength < 0 || frameLength > maxFrameSize) {
+                    throw new IOException("Illegal metric frame length: " + frameLength);
+                }
+                frame = new byte[frameLength];
+                frameRead = 0;
+                lengthRead = 0;
+            }
+            int n = Math.min(frame.length - frameRead, end - offset);
+            System.arraycopy(data, offset, frame, frameRead, n);
+            frameRead += n;
+            offset += n;
+            if (frameRead == frame.length) {
+                byte[] completed = frame;
+                frame = null;
+                consumer.accept(completed);
+            }
+        }
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.dashboard.metric;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Records the machines that are pushing their metrics, so that {@link MetricFetcher} won't pull them again.
+ *
+ * @since 1.8.7
+ */
+@Component
+public class MetricPushRegistry {
+
+    /**
+     * ip:port -> count of the open push streams
+     */
+    private final ConcurrentMap<String, AtomicInteger> pushingMachines = new ConcurrentHashMap<>();
+
+    public void streamOpened(String ip, int port) {
+        pushingMachines.computeIfAbsent(key(ip, port), k -> new AtomicInteger()).incrementAndGet();
+    }
+
+    public void streamClosed(String ip, int port) {
+        pushingMachines.computeIfPresent(key(ip, port), (k, count) -> count.decrementAndGet() <= 0 ? null : count);
+    }
+
+    public boolean isPushing(String ip, int port) {
+        return pushingMachines.containsKey(key(ip, port));
+    }
+
+    private static String key(String ip, int port) {
+        return ip + ":" + port;
+    }
+}
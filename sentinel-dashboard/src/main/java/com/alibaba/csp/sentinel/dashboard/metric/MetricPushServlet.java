@@ -0,0 +1,141 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.dashboard.metric;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.ReadListener;
+import javax.servlet.ServletInputStream;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import com.alibaba.csp.sentinel.dashboard.datasource.entity.MetricEntity;
+import com.alibaba.csp.sentinel.transport.util.CompactMetricCodec;
+import com.alibaba.csp.sentinel.util.StringUtil;
+
+import org.apache.http.conn.util.InetAddressUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>Receives the metrics pushed by the machines through long-lived streaming requests. The request body is
+ * a sequence of frames (see {@link CompactMetricCodec#STREAM_CONTENT_TYPE}), each of them contains the metrics
+ * of one flush of the machine, which are aggregated and saved as soon as the frame is complete.</p>
+ *
+ * <p>The body is read with non-blocking servlet I/O, so an open stream doesn't hold a servlet thread.</p>
+ *
+ * @since 1.8.7
+ */
+public class MetricPushServlet extends HttpServlet {
+
+    private static final Logger logger = LoggerFactory.getLogger(MetricPushServlet.class);
+
+    static final int MAX_FRAME_SIZE = 16 * 1024 * 1024;
+
+    private final MetricAggregator metricAggregator;
+    private final MetricPushRegistry metricPushRegistry;
+
+    public MetricPushServlet(MetricAggregator metricAggregator, MetricPushRegistry metricPushRegistry) {
+        this.metricAggregator = metricAggregator;
+        this.metricPushRegistry = metricPushRegistry;
+    }
+
+    @Override
+    protected void doPost(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+        final String app = req.getParameter("app");
+        final String ip = req.getParameter("ip");
+        final int port;
+        try {
+            port = Integer.parseInt(req.getParameter("port"));
+        } catch (NumberFormatException ex) {
+            resp.sendError(HttpServletResponse.SC_BAD_REQUEST, "invalid port");
+            return;
+        }
+        if (StringUtil.isBlank(app) || app.length() > 256) {
+            resp.sendError(HttpServletResponse.SC_BAD_REQUEST, "invalid appName");
+            return;
+        }
+        if (ip == null || !InetAddressUtils.isIPv4Address(ip) && !InetAddressUtils.isIPv6Address(ip)) {
+            resp.sendError(HttpServletResponse.SC_BAD_REQUEST, "invalid ip: " + ip);
+            return;
+        }
+        String contentType = req.getContentType();
+        if (contentType == null || !contentType.startsWith(CompactMetricCodec.STREAM_CONTENT_TYPE)) {
+            resp.sendError(HttpServletResponse.SC_UNSUPPORTED_MEDIA_TYPE);
+            return;
+        }
+
+        final AsyncContext asyncContext = req.startAsync();
+        // The stream is closed by the machine.
+        asyncContext.setTimeout(0);
+        final ServletInputStream in = req.getInputStream();
+        final MetricFrameReader frameReader = new MetricFrameReader(MAX_FRAME_SIZE);
+        metricPushRegistry.streamOpened(ip, port);
+        logger.info("Metric push stream opened: {}:{} of {}", ip, port, app);
+
+        in.setReadListener(new ReadListener() {
+            private final byte[] buffer = new byte[8192];
+
+            @Override
+            public void onDataAvailable() throws IOException {
+                while (in.isReady()) {
+                    int n = in.read(buffer);
+                    if (n < 0) {
+                        break;
+                    }
+                    frameReader.feed(buffer, 0, n, frame -> handleFrame(app, frame));
+                }
+            }
+
+            @Override
+            public void onAllDataRead() {
+                close(HttpServletResponse.SC_OK);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                logger.warn("Metric push stream from {}:{} of {} broken: {}", ip, port, app, t.toString());
+                close(HttpServletResponse.SC_BAD_REQUEST);
+            }
+
+            private void close(int status) {
+                metricPushRegistry.streamClosed(ip, port);
+                try {
+                    resp.setStatus(status);
+                } finally {
+                    asyncContext.complete();
+                }
+            }
+        });
+    }
+
+    private void handleFrame(String app, byte[] frame) {
+        Map<String, MetricEntity> metricMap = new HashMap<>();
+        try {
+            CompactMetricCodec.decode(new ByteArrayInputStream(frame),
+                node -> MetricAggregator.accumulate(metricMap, app, node));
+        } catch (IOException ex) {
+            logger.warn("Bad metric frame from {}: {}", app, ex.getMessage());
+            return;
+        }
+        metricAggregator.merge(metricMap.values());
+    }
+}
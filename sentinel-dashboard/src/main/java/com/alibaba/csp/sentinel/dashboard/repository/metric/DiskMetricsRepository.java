@@ -0,0 +1,325 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.dashboard.repository.metric;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import com.alibaba.csp.sentinel.concurrent.NamedThreadFactory;
+import com.alibaba.csp.sentinel.dashboard.datasource.entity.MetricEntity;
+import com.alibaba.csp.sentinel.util.AssertUtil;
+import com.alibaba.csp.sentinel.util.StringUtil;
+import com.alibaba.csp.sentinel.util.TimeUtil;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * <p>Persistent metrics repository on local disk, enabled by {@code sentinel.dashboard.metric.repository=disk}.
+ * It keeps the per-second metrics of the last {@code sentinel.dashboard.metric.disk.retention-hours} (72 by default)
+ * in {@code sentinel.dashboard.metric.disk.dir}, without any external dependency.</p>
+ *
+ * <p>Metrics are appended to one memory-mapped {@link MetricSegment} per hour, referring to the app and resource by
+ * the series ID from the {@link MetricSeriesDictionary}. Shortly after its hour is over, a segment is sealed with an index
+ * of the records of each series sorted by time, so range queries only read the records they return. Segments out
+ * of the retention are deleted as a whole. On startup, the segments and the dictionary are recovered from the
+ * files, dropping any torn record or entry at the tail. New dictionary entries and the appended records are forced
+ * to disk every {@link #MAINTAIN_INTERVAL_MS} ms rather than on each write.</p>
+ *
+ * <p>Metrics saved again with the same app, resource and timestamp replace the old ones. Metrics of a sealed
+ * segment (i.e. more than {@link #SEAL_DELAY_MS} late) or out of the retention are dropped. The dictionary is never
+ * compacted, which is fine for the number of resources a dashboard usually sees.</p>
+ *
+ * @since 1.8.7
+ */
+@Component
+@ConditionalOnProperty(name = "sentinel.dashboard.metric.repository", havingValue = "disk")
+public class DiskMetricsRepository implements MetricsRepository<MetricEntity> {
+
+    private static final Logger logger = LoggerFactory.getLogger(DiskMetricsRepository.class);
+
+    private static final long DEFAULT_SEGMENT_DURATION_MS = 60 * 60 * 1000;
+    private static final long SEAL_DELAY_MS = 2 * 60 * 1000;
+    private static final long MAINTAIN_INTERVAL_MS = 5 * 1000;
+    private static final long RESOURCE_RANK_INTERVAL_MS = 60 * 1000;
+
+    private final File dir;
+    private final long segmentDurationMs;
+    private final long retentionMs;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final MetricSeriesDictionary dictionary;
+    /**
+     * {@code startTime -> segment}
+     */
+    private final TreeMap<Long, MetricSegment> segments = new TreeMap<>();
+
+    @SuppressWarnings("PMD.ThreadPoolCreationRule")
+    private final ScheduledExecutorService maintainService = Executors.newSingleThreadScheduledExecutor(
+        new NamedThreadFactory("sentinel-dashboard-metrics-disk-maintain", true));
+
+    @Autowired
+    public DiskMetricsRepository(
+        @Value("${sentinel.dashboard.metric.disk.dir:${user.home}/logs/csp/sentinel-dashboard-metrics}") String dir,
+        @Value("${sentinel.dashboard.metric.disk.retention-hours:72}") int retentionHours) {
+        this(new File(dir), DEFAULT_SEGMENT_DURATION_MS, TimeUnit.HOURS.toMillis(retentionHours));
+    }
+
+    DiskMetricsRepository(File dir, long segmentDurationMs, long retentionMs) {
+        AssertUtil.isTrue(segmentDurationMs > 0, "segmentDurationMs should be positive");
+        AssertUtil.isTrue(retentionMs >= segmentDurationMs, "retention should not be shorter than a segment");
+        this.dir = dir;
+        this.segmentDurationMs = segmentDurationMs;
+        this.retentionMs = retentionMs;
+        try {
+            if (!dir.isDirectory() && !dir.mkdirs()) {
+                throw new IOException("Cannot create directory: " + dir);
+            }
+            this.dictionary = new MetricSeriesDictionary(dir);
+            recoverSegments();
+        } catch (IOException ex) {
+            throw new IllegalStateException("Failed to open the metrics repository in " + dir, ex);
+        }
+        logger.info("Disk metrics repository opened in {}, {} series, {} segments", dir, dictionary.size(),
+            segments.size());
+    }
+
+    private void recoverSegments() throws IOException {
+        File[] files = dir.listFiles();
+        if (files == null) {
+            return;
+        }
+        long now = TimeUtil.currentTimeMillis();
+        for (File file : files) {
+            long startTime = MetricSegment.parseStartTime(file.getName());
+            if (startTime < 0 || startTime % segmentDurationMs != 0) {
+                continue;
+            }
+            MetricSegment segment = MetricSegment.open(dir, startTime, segmentDurationMs, dictionary.size());
+            segments.put(startTime, segment);
+        }
+        maintain(now);
+    }
+
+    @PostConstruct
+    public void start() {
+        maintainService.scheduleWithFixedDelay(() -> {
+            try {
+                maintain(TimeUtil.currentTimeMillis());
+            } catch (Throwable ex) {
+                logger.warn("Error when maintaining the metric segments", ex);
+            }
+        }, MAINTAIN_INTERVAL_MS, MAINTAIN_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void close() {
+        maintainService.shutdownNow();
+        lock.writeLock().lock();
+        try {
+            for (MetricSegment segment : segments.values()) {
+                segment.close();
+            }
+            dictionary.close();
+        } catch (IOException ex) {
+            logger.warn("Error when closing the metrics repository", ex);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Flush the dictionary and the active segments, seal the segments that are over, and delete the segments out
+     * of the retention.
+     */
+    void maintain(long now) {
+        lock.writeLock().lock();
+        try {
+            try {
+                // Before the segments, so the records never refer to a lost entry once sealed.
+                dictionary.force();
+            } catch (IOException ex) {
+                logger.warn("Error when flushing the metric series dictionary", ex);
+                return;
+            }
+            Iterator<MetricSegment> it = segments.values().iterator();
+            while (it.hasNext()) {
+                MetricSegment segment = it.next();
+                try {
+                    if (segment.getEndTime() <= now - retentionMs) {
+                        segment.delete();
+                        it.remove();
+                    } else if (!segment.isSealed() && segment.getEndTime() + SEAL_DELAY_MS <= now) {
+                        segment.seal();
+                    } else {
+                        segment.force();
+                    }
+                } catch (IOException ex) {
+                    logger.warn("Error when maintaining the metric segment of {}", segment.getStartTime(), ex);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void save(MetricEntity entity) {
+        if (!isValid(entity)) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            append(entity, TimeUtil.currentTimeMillis());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void saveAll(Iterable<MetricEntity> metrics) {
+        if (metrics == null) {
+            return;
+        }
+        long now = TimeUtil.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            for (MetricEntity entity : metrics) {
+                if (isValid(entity)) {
+                    append(entity, now);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void append(MetricEntity entity, long now) {
+        long time = entity.getTimestamp().getTime();
+        if (time < now - retentionMs) {
+            return;
+        }
+        long startTime = time - Math.floorMod(time, segmentDurationMs);
+        try {
+            MetricSegment segment = segments.get(startTime);
+            if (segment == null) {
+                segment = MetricSegment.open(dir, startTime, segmentDurationMs, dictionary.size());
+                segments.put(startTime, segment);
+            }
+            if (segment.isSealed()) {
+                return;
+            }
+            segment.append(dictionary.getOrAdd(entity.getApp(), entity.getResource()), entity);
+        } catch (IOException ex) {
+            logger.warn("Failed to save metric of {}", entity.getResource(), ex);
+        }
+    }
+
+    @Override
+    public List<MetricEntity> queryByAppAndResourceBetween(String app, String resource,
+                                                           long startTime, long endTime) {
+        List<MetricEntity> results = new ArrayList<>();
+        if (StringUtil.isBlank(app) || startTime > endTime) {
+            return results;
+        }
+        lock.readLock().lock();
+        try {
+            Integer seriesId = dictionary.idOf(app, resource);
+            if (seriesId == null) {
+                return results;
+            }
+            for (MetricSegment segment : segmentsBetween(startTime, endTime)) {
+                segment.query(seriesId, startTime, endTime, app, resource, results);
+            }
+            return results;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Iterable<MetricSegment> segmentsBetween(long startTime, long endTime) {
+        Long from = segments.floorKey(startTime);
+        return segments.subMap(from == null ? startTime : from, true, endTime, true).values();
+    }
+
+    @Override
+    public List<String> listResourcesOfApp(String app) {
+        if (StringUtil.isBlank(app)) {
+            return new ArrayList<>();
+        }
+        long now = TimeUtil.currentTimeMillis();
+        long minTimeMs = now - RESOURCE_RANK_INTERVAL_MS;
+        // resource -> {blockQps, passQps} of the last minute
+        Map<String, long[]> resourceCount = new HashMap<>(32);
+        lock.readLock().lock();
+        try {
+            List<MetricEntity> metrics = new ArrayList<>();
+            for (Integer seriesId : dictionary.idsOfApp(app)) {
+                String resource = dictionary.seriesOf(seriesId)[1];
+                metrics.clear();
+                for (MetricSegment segment : segmentsBetween(minTimeMs, now)) {
+                    segment.query(seriesId, minTimeMs, now, app, resource, metrics);
+                }
+                if (metrics.isEmpty()) {
+                    continue;
+                }
+                long[] sum = new long[2];
+                for (MetricEntity metric : metrics) {
+                    sum[0] += metric.getBlockQps();
+                    sum[1] += metric.getPassQps();
+                }
+                resourceCount.put(resource, sum);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        // Order by last minute b_qps DESC.
+        return resourceCount.entrySet()
+            .stream()
+            .sorted((o1, o2) -> {
+                int t = Long.compare(o2.getValue()[0], o1.getValue()[0]);
+                if (t != 0) {
+                    return t;
+                }
+                return Long.compare(o2.getValue()[1], o1.getValue()[1]);
+            })
+            .map(Map.Entry::getKey)
+            .collect(Collectors.toList());
+    }
+
+    private static boolean isValid(MetricEntity entity) {
+        return entity != null && StringUtil.isNotBlank(entity.getApp()) && entity.getResource() != null
+            && entity.getTimestamp() != null;
+    }
+}
@@ -0,0 +1,472 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.dashboard.repository.metric;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import com.alibaba.csp.sentinel.dashboard.datasource.entity.MetricEntity;
+
+/**
+ * <p>Metric records of a time chunk (e.g. an hour) in {@link DiskMetricsRepository}, kept in a memory-mapped
+ * append-only file {@code metrics-${startTime}.seg}:</p>
+ *
+ * <pre>
+ * header: [int magic][int version][long startTime]
+ * record: [long timestamp][int seriesId][long pass][long block][long success][long exception][double rt]
+ *         [int count][int crc]
+ * </pre>
+ *
+ * <p>While the segment is active, records are appended to the mapped file, and the records of each series are
+ * indexed in memory sorted by timestamp. A metric saved again for the same second is appended again, and the
+ * index points to the later record. Once the time chunk is over, the segment is sealed: the index is written to
+ * the file {@code metrics-${startTime}.idx}. Either way, a range query binary-searches the records of the series
+ * and reads them in order.</p>
+ *
+ * <p>When a segment is opened without a valid index file (e.g. after a crash), its records are scanned until the
+ * first one with a wrong checksum, or referring to a series the dictionary lost, which marks where the
+ * persisted writing stopped.</p>
+ *
+ * <p>Not thread-safe, guarded by the lock of the repository.</p>
+ *
+ * @since 1.8.7
+ */
+final class MetricSegment {
+
+    static final String DATA_FILE_SUFFIX = ".seg";
+    static final String INDEX_FILE_SUFFIX = ".idx";
+    static final String FILE_PREFIX = "metrics-";
+
+    private static final int MAGIC = 0x53444D53;
+    private static final int INDEX_MAGIC = 0x53444D49;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+    static final int RECORD_SIZE = 60;
+    private static final int RECORD_CRC_OFFSET = RECORD_SIZE - 4;
+    private static final int INITIAL_CAPACITY = 16 * 1024;
+    private static final int MAX_CAPACITY = (Integer.MAX_VALUE - HEADER_SIZE) / RECORD_SIZE;
+
+    private final File dataFile;
+    private final File indexFile;
+    private final long startTime;
+    private final long endTime;
+
+    private final CRC32 crc = new CRC32();
+
+    private FileChannel channel;
+    private MappedByteBuffer data;
+    private int capacity;
+    private int recordCount;
+
+    /**
+     * {@code seriesId -> indexes of the latest record of each timestamp, sorted by timestamp}, only while the
+     * segment is active.
+     */
+    private Map<Integer, IntArray> postings;
+    /**
+     * Mapped index file, only after the segment is sealed.
+     */
+    private MappedByteBuffer index;
+    private int indexedSeriesCount;
+
+    private MetricSegment(File dir, long startTime, long duration) {
+        this.dataFile = new File(dir, FILE_PREFIX + startTime + DATA_FILE_SUFFIX);
+        this.indexFile = new File(dir, FILE_PREFIX + startTime + INDEX_FILE_SUFFIX);
+        this.startTime = startTime;
+        this.endTime = startTime + duration;
+    }
+
+    /**
+     * Open the segment of the given time chunk, or create it if absent.
+     *
+     * @param seriesCount number of the series in the dictionary, records referring to other series are dropped
+     */
+    static MetricSegment open(File dir, long startTime, long duration, int seriesCount) throws IOException {
+        MetricSegment segment = new MetricSegment(dir, startTime, duration);
+        if (!segment.loadIndex()) {
+            segment.openForAppend(seriesCount);
+        }
+        return segment;
+    }
+
+    /**
+     * @return start time of the segment file, or -1 if it's not a segment file
+     */
+    static long parseStartTime(String fileName) {
+        if (!fileName.startsWith(FILE_PREFIX) || !fileName.endsWith(DATA_FILE_SUFFIX)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(fileName.substring(FILE_PREFIX.length(),
+                fileName.length() - DATA_FILE_SUFFIX.length()));
+        } catch (NumberFormatException ex) {
+            return -1;
+        }
+    }
+
+    long getStartTime() {
+        return startTime;
+    }
+
+    long getEndTime() {
+        return endTime;
+    }
+
+    boolean isSealed() {
+        return index != null;
+    }
+
+    int getRecordCount() {
+        return recordCount;
+    }
+
+    private boolean loadIndex() throws IOException {
+        if (!indexFile.exists() || !dataFile.exists()) {
+            return false;
+        }
+        MappedByteBuffer idx;
+        try (FileChannel ch = FileChannel.open(indexFile.toPath(), StandardOpenOption.READ)) {
+            long size = ch.size();
+            if (size < 20 || size > Integer.MAX_VALUE) {
+                return false;
+            }
+            idx = ch.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+        crc.reset();
+        crc.update((ByteBuffer) idx.duplicate().limit(idx.capacity() - 4));
+        if (idx.getInt(0) != INDEX_MAGIC || idx.getInt(4) != VERSION
+            || idx.getInt(idx.capacity() - 4) != (int) crc.getValue()) {
+            return false;
+        }
+        int count = idx.getInt(8);
+        try (FileChannel ch = FileChannel.open(dataFile.toPath(), StandardOpenOption.READ)) {
+            long size = HEADER_SIZE + (long) count * RECORD_SIZE;
+            if (ch.size() < size) {
+                return false;
+            }
+            this.data = ch.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+        this.recordCount = count;
+        this.capacity = count;
+        this.indexedSeriesCount = idx.getInt(12);
+        this.index = idx;
+        return true;
+    }
+
+    private void openForAppend(int seriesCount) throws IOException {
+        this.channel = FileChannel.open(dataFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ,
+            StandardOpenOption.WRITE);
+        long size = channel.size();
+        int existing = (int) Math.min(MAX_CAPACITY, Math.max(0, (size - HEADER_SIZE) / RECORD_SIZE));
+        map(Math.max(INITIAL_CAPACITY, existing));
+        this.postings = new HashMap<>();
+        if (size < HEADER_SIZE || data.getInt(0) != MAGIC || data.getLong(8) != startTime) {
+            data.putInt(0, MAGIC);
+            data.putInt(4, VERSION);
+            data.putLong(8, startTime);
+            return;
+        }
+        // Recover the records written before.
+        while (recordCount < existing && isValidRecord(recordCount)) {
+            int seriesId = data.getInt(offsetOf(recordCount) + 8);
+            if (seriesId < 0 || seriesId >= seriesCount) {
+                break;
+            }
+            addToPostings(seriesId, recordCount);
+            recordCount++;
+        }
+    }
+
+    private void map(int newCapacity) throws IOException {
+        this.data = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) newCapacity * RECORD_SIZE);
+        this.capacity = newCapacity;
+    }
+
+    private static int offsetOf(int record) {
+        return HEADER_SIZE + record * RECORD_SIZE;
+    }
+
+    private boolean isValidRecord(int record) {
+        int offset = offsetOf(record);
+        crc.reset();
+        crc.update((ByteBuffer) data.duplicate().position(offset).limit(offset + RECORD_CRC_OFFSET));
+        return data.getInt(offset + RECORD_CRC_OFFSET) == (int) crc.getValue();
+    }
+
+    /**
+     * Index the record in the postings of the series, replacing the record of the same timestamp.
+     */
+    private void addToPostings(int seriesId, int record) {
+        IntArray records = postings.computeIfAbsent(seriesId, k -> new IntArray());
+        long time = timestampOf(record);
+        // Records mostly come in order of time, so check the last one first.
+        int pos = records.size == 0 || timestampOf(records.values[records.size - 1]) < time
+            ? records.size : firstNotBefore(records.values, records.size, time);
+        if (pos < records.size && timestampOf(records.values[pos]) == time) {
+            records.values[pos] = record;
+        } else {
+            records.insert(pos, record);
+        }
+    }
+
+    /**
+     * @return position of the first record not before the time, in the records sorted by timestamp
+     */
+    private int firstNotBefore(int[] records, int size, long time) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (timestampOf(records[mid]) < time) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    void append(int seriesId, MetricEntity entity) throws IOException {
+        if (isSealed()) {
+            throw new IOException("Segment is sealed: " + dataFile);
+        }
+        if (recordCount == capacity) {
+            if (capacity == MAX_CAPACITY) {
+                throw new IOException("Segment is full: " + dataFile);
+            }
+            map((int) Math.min(MAX_CAPACITY, capacity * 2L));
+        }
+        int offset = offsetOf(recordCount);
+        data.putLong(offset, entity.getTimestamp().getTime());
+        data.putInt(offset + 8, seriesId);
+        data.putLong(offset + 12, valueOf(entity.getPassQps()));
+        data.putLong(offset + 20, valueOf(entity.getBlockQps()));
+        data.putLong(offset + 28, valueOf(entity.getSuccessQps()));
+        data.putLong(offset + 36, valueOf(entity.getExceptionQps()));
+        data.putDouble(offset + 44, entity.getRt());
+        data.putInt(offset + 52, entity.getCount());
+        crc.reset();
+        crc.update((ByteBuffer) data.duplicate().position(offset).limit(offset + RECORD_CRC_OFFSET));
+        data.putInt(offset + RECORD_CRC_OFFSET, (int) crc.getValue());
+        addToPostings(seriesId, recordCount);
+        recordCount++;
+    }
+
+    private static long valueOf(Long value) {
+        return value == null ? 0 : value;
+    }
+
+    private long timestampOf(int record) {
+        return data.getLong(offsetOf(record));
+    }
+
+    /**
+     * Flush the appended records to disk.
+     */
+    void force() {
+        if (!isSealed()) {
+            data.force();
+        }
+    }
+
+    /**
+     * Write the index file, and turn the segment into read-only.
+     */
+    void seal() throws IOException {
+        if (isSealed()) {
+            return;
+        }
+        data.force();
+        List<Integer> seriesIds = new ArrayList<>(postings.keySet());
+        seriesIds.sort(null);
+        int[][] sortedPostings = new int[seriesIds.size()][];
+        int total = 0;
+        for (int i = 0; i < seriesIds.size(); i++) {
+            IntArray records = postings.get(seriesIds.get(i));
+            sortedPostings[i] = Arrays.copyOf(records.values, records.size);
+            total += sortedPostings[i].length;
+        }
+        // [magic][version][recordCount][seriesCount] [seriesId, start, length]... [record]... [crc]
+        ByteBuffer buf = ByteBuffer.allocate(16 + seriesIds.size() * 12 + total * 4 + 4);
+        buf.putInt(INDEX_MAGIC).putInt(VERSION).putInt(recordCount).putInt(seriesIds.size());
+        int start = 0;
+        for (int i = 0; i < seriesIds.size(); i++) {
+            buf.putInt(seriesIds.get(i)).putInt(start).putInt(sortedPostings[i].length);
+            start += sortedPostings[i].length;
+        }
+        for (int[] records : sortedPostings) {
+            for (int record : records) {
+                buf.putInt(record);
+            }
+        }
+        crc.reset();
+        crc.update(buf.array(), 0, buf.position());
+        buf.putInt((int) crc.getValue());
+        buf.flip();
+
+        // Write to a temporary file first, so there is never a partial index file.
+        File tmp = new File(indexFile.getPath() + ".tmp");
+        try (FileChannel ch = FileChannel.open(tmp.toPath(), StandardOpenOption.CREATE,
+            StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (buf.hasRemaining()) {
+                ch.write(buf);
+            }
+            ch.force(true);
+        }
+        Files.move(tmp.toPath(), indexFile.toPath(), StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE);
+
+        try {
+            // Give back the preallocated space.
+            channel.truncate(offsetOf(recordCount));
+        } catch (IOException ignore) {
+            // The record count in the index file is enough to read the segment.
+        }
+        channel.close();
+        channel = null;
+        data = null;
+        postings = null;
+        if (!loadIndex()) {
+            throw new IOException("Failed to load the index of the sealed segment: " + dataFile);
+        }
+    }
+
+    /**
+     * Add the metrics of the series in {@code [startTime, endTime]} to the result, in order of timestamp.
+     */
+    void query(int seriesId, long startTime, long endTime, String app, String resource,
+               List<MetricEntity> result) {
+        if (!isSealed()) {
+            IntArray records = postings.get(seriesId);
+            if (records == null) {
+                return;
+            }
+            for (int i = firstNotBefore(records.values, records.size, startTime); i < records.size; i++) {
+                int record = records.values[i];
+                if (timestampOf(record) > endTime) {
+                    break;
+                }
+                result.add(toEntity(record, app, resource));
+            }
+            return;
+        }
+        int dir = findIndexedSeries(seriesId);
+        if (dir < 0) {
+            return;
+        }
+        int first = index.getInt(16 + dir * 12 + 4);
+        int length = index.getInt(16 + dir * 12 + 8);
+        int postingsBase = 16 + indexedSeriesCount * 12;
+        // Binary search the first record not before startTime.
+        int low = 0;
+        int high = length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (timestampOf(index.getInt(postingsBase + (first + mid) * 4)) < startTime) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        for (int i = low; i < length; i++) {
+            int record = index.getInt(postingsBase + (first + i) * 4);
+            if (timestampOf(record) > endTime) {
+                break;
+            }
+            result.add(toEntity(record, app, resource));
+        }
+    }
+
+    private int findIndexedSeries(int seriesId) {
+        int low = 0;
+        int high = indexedSeriesCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int id = index.getInt(16 + mid * 12);
+            if (id < seriesId) {
+                low = mid + 1;
+            } else if (id > seriesId) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    private MetricEntity toEntity(int record, String app, String resource) {
+        int offset = offsetOf(record);
+        MetricEntity entity = new MetricEntity();
+        Date date = new Date(data.getLong(offset));
+        entity.setApp(app);
+        entity.setResource(resource);
+        entity.setTimestamp(date);
+        entity.setGmtCreate(date);
+        entity.setGmtModified(date);
+        entity.setPassQps(data.getLong(offset + 12));
+        entity.setBlockQps(data.getLong(offset + 20));
+        entity.setSuccessQps(data.getLong(offset + 28));
+        entity.setExceptionQps(data.getLong(offset + 36));
+        entity.setRt(data.getDouble(offset + 44));
+        entity.setCount(data.getInt(offset + 52));
+        return entity;
+    }
+
+    void close() throws IOException {
+        if (channel != null) {
+            data.force();
+            channel.close();
+            channel = null;
+        }
+    }
+
+    void delete() throws IOException {
+        close();
+        Files.deleteIfExists(indexFile.toPath());
+        Files.deleteIfExists(dataFile.toPath());
+    }
+
+    /**
+     * Growable int array, to avoid boxing the record indexes.
+     */
+    private static final class IntArray {
+
+        private int[] values = new int[16];
+        private int size;
+
+        void insert(int pos, int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            System.arraycopy(values, pos, values, pos + 1, size - pos);
+            values[pos] = value;
+            size++;
+        }
+    }
+}
@@ -0,0 +1,206 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.dashboard.repository.metric;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * <p>Append-only dictionary of the metric series ({@code app + resource}) of {@link DiskMetricsRepository}, so the
+ * segment records only keep an int series ID.</p>
+ *
+ * <p>Each entry is {@code [int payloadLength][int id][int appLength][app][int resourceLength][resource][int crc]}.
+ * New entries are forced to disk in batches by {@link #force()}, which the repository calls before forcing or
+ * sealing the segments, so the records of a sealed segment always refer to persisted entries. A torn entry at
+ * the tail (e.g. after a crash) is truncated when the dictionary is opened, and the records of the active segment
+ * referring to the lost entries are dropped then (see {@link MetricSegment}). Not thread-safe, guarded by the
+ * lock of the repository.</p>
+ *
+ * @since 1.8.7
+ */
+final class MetricSeriesDictionary implements Closeable {
+
+    static final String FILE_NAME = "series.dict";
+
+    private final FileChannel channel;
+
+    /**
+     * {@code app -> resource -> series ID}
+     */
+    private final Map<String, Map<String, Integer>> ids = new HashMap<>();
+    /**
+     * {@code series ID -> {app, resource}}
+     */
+    private final List<String[]> series = new ArrayList<>();
+    /**
+     * Whether there are entries not forced to disk yet.
+     */
+    private boolean dirty = false;
+
+    MetricSeriesDictionary(File dir) throws IOException {
+        this.channel = FileChannel.open(new File(dir, FILE_NAME).toPath(), StandardOpenOption.CREATE,
+            StandardOpenOption.READ, StandardOpenOption.WRITE);
+        load();
+    }
+
+    private void load() throws IOException {
+        long size = channel.size();
+        ByteBuffer buf = ByteBuffer.allocate((int) size);
+        while (buf.hasRemaining() && channel.read(buf, buf.position()) > 0) {
+        }
+        buf.flip();
+        CRC32 crc = new CRC32();
+        int valid = 0;
+        while (buf.remaining() >= 4) {
+            int payloadLength = buf.getInt(valid);
+            if (payloadLength < 12 || payloadLength > buf.limit() - valid - 8) {
+                break;
+            }
+            crc.reset();
+            ByteBuffer payload = (ByteBuffer) buf.duplicate().position(valid + 4).limit(valid + 4 + payloadLength);
+            crc.update(payload);
+            if ((int) crc.getValue() != buf.getInt(valid + 4 + payloadLength)) {
+                break;
+            }
+            payload.position(valid + 4);
+            int id = payload.getInt();
+            if (id != series.size()) {
+                break;
+            }
+            String app = readString(payload);
+            String resource = readString(payload);
+            if (app == null || resource == null) {
+                break;
+            }
+            add(app, resource);
+            valid += payloadLength + 8;
+            buf.position(valid);
+        }
+        if (valid < size) {
+            channel.truncate(valid);
+        }
+        channel.position(valid);
+    }
+
+    private static String readString(ByteBuffer payload) {
+        if (payload.remaining() < 4) {
+            return null;
+        }
+        int length = payload.getInt();
+        if (length < 0 || length > payload.remaining()) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        payload.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private int add(String app, String resource) {
+        int id = series.size();
+        series.add(new String[] {app, resource});
+        ids.computeIfAbsent(app, k -> new HashMap<>(16)).put(resource, id);
+        return id;
+    }
+
+    /**
+     * @return ID of the series, or null if absent
+     */
+    Integer idOf(String app, String resource) {
+        Map<String, Integer> resources = ids.get(app);
+        return resources == null ? null : resources.get(resource);
+    }
+
+    /**
+     * @return ID of the series, which is added and written if absent
+     */
+    int getOrAdd(String app, String resource) throws IOException {
+        Integer id = idOf(app, resource);
+        if (id != null) {
+            return id;
+        }
+        byte[] appBytes = app.getBytes(StandardCharsets.UTF_8);
+        byte[] resourceBytes = resource.getBytes(StandardCharsets.UTF_8);
+        int payloadLength = 12 + appBytes.length + resourceBytes.length;
+        ByteBuffer buf = ByteBuffer.allocate(payloadLength + 8);
+        buf.putInt(payloadLength).putInt(series.size())
+            .putInt(appBytes.length).put(appBytes)
+            .putInt(resourceBytes.length).put(resourceBytes);
+        CRC32 crc = new CRC32();
+        crc.update(buf.array(), 4, payloadLength);
+        buf.putInt((int) crc.getValue());
+        buf.flip();
+        long position = channel.position();
+        try {
+            while (buf.hasRemaining()) {
+                channel.write(buf);
+            }
+        } catch (IOException ex) {
+            // Drop the partial entry, so that later entries won't follow garbage.
+            channel.truncate(position);
+            channel.position(position);
+            throw ex;
+        }
+        dirty = true;
+        return add(app, resource);
+    }
+
+    /**
+     * Force the entries added since the last call to disk.
+     */
+    void force() throws IOException {
+        if (dirty) {
+            channel.force(false);
+            dirty = false;
+        }
+    }
+
+    /**
+     * @return {@code {app, resource}} of the series
+     */
+    String[] seriesOf(int id) {
+        return series.get(id);
+    }
+
+    Collection<Integer> idsOfApp(String app) {
+        Map<String, Integer> resources = ids.get(app);
+        return resources == null ? Collections.<Integer>emptyList() : resources.values();
+    }
+
+    int size() {
+        return series.size();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            force();
+        } finally {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,446 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.dashboard.repository.metric;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+import com.alibaba.csp.sentinel.dashboard.datasource.entity.MetricEntity;
+import com.alibaba.csp.sentinel.util.AssertUtil;
+import com.alibaba.csp.sentinel.util.StringUtil;
+import com.alibaba.csp.sentinel.util.TimeUtil;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * <p>An in-memory time-series store of metrics, enabled by {@code sentinel.dashboard.metric.repository=tsdb}.</p>
+ *
+ * <p>Each {@code app -> resource} series keeps its metrics in a few fixed-size ring buffers of primitive arrays
+ * (one array per field), at different resolutions: the raw per-second metrics of the last 5 minutes, 10-second
+ * rollups of the last hour and 1-minute rollups of the last 12 hours by default. The slot of a timestamp in a ring
+ * is computed directly ({@code timestamp / resolution % capacity}), so both writes and range queries touch only the
+ * slots they need, and the memory of a series is fixed (about 90 KB with the default rings) however long the app
+ * runs. Rollups are updated on each write, so no background task is needed.</p>
+ *
+ * <p>Series of different apps are guarded by different locks, so the metric fetching and pushing of one app
+ * won't block the queries of other apps.</p>
+ *
+ * <p>Metrics saved again with the same app, resource and timestamp replace the old ones (the rollups are corrected
+ * by the difference). Metrics older than the raw ring of their series are dropped.</p>
+ *
+ * @since 1.8.7
+ */
+@Component
+@ConditionalOnProperty(name = "sentinel.dashboard.metric.repository", havingValue = "tsdb")
+public class TimeSeriesMetricsRepository implements MetricsRepository<MetricEntity> {
+
+    private static final long[] DEFAULT_RESOLUTIONS_MS = {1000, 10 * 1000, 60 * 1000};
+    private static final int[] DEFAULT_CAPACITIES = {5 * 60, 6 * 60, 12 * 60};
+
+    private static final long EVICT_INTERVAL_MS = 60 * 1000;
+    private static final long RESOURCE_RANK_INTERVAL_MS = 60 * 1000;
+
+    private final long[] resolutionsMs;
+    private final int[] capacities;
+    private final long maxRetentionMs;
+
+    private final Map<String, AppSeries> allSeries = new ConcurrentHashMap<>();
+
+    public TimeSeriesMetricsRepository() {
+        this(DEFAULT_RESOLUTIONS_MS, DEFAULT_CAPACITIES);
+    }
+
+    /**
+     * @param resolutionsMs resolution of each ring in milliseconds; the first one is the raw ring and must be
+     *                      1 second, and each of the others must be a multiple of the previous one
+     * @param capacities    number of slots of each ring
+     */
+    TimeSeriesMetricsRepository(long[] resolutionsMs, int[] capacities) {
+        AssertUtil.isTrue(resolutionsMs.length > 0 && resolutionsMs.length == capacities.length,
+            "resolutions and capacities should have the same non-zero length");
+        AssertUtil.isTrue(resolutionsMs[0] == 1000, "resolution of the raw ring should be 1 second");
+        long maxRetention = 0;
+        for (int i = 0; i < resolutionsMs.length; i++) {
+            AssertUtil.isTrue(capacities[i] > 0, "capacity should be positive");
+            AssertUtil.isTrue(i == 0 || resolutionsMs[i] % resolutionsMs[i - 1] == 0,
+                "resolution should be a multiple of the previous one");
+            maxRetention = Math.max(maxRetention, resolutionsMs[i] * capacities[i]);
+        }
+        this.resolutionsMs = resolutionsMs.clone();
+        this.capacities = capacities.clone();
+        this.maxRetentionMs = maxRetention;
+    }
+
+    @Override
+    public void save(MetricEntity entity) {
+        if (!isValid(entity)) {
+            return;
+        }
+        AppSeries app = appSeriesOf(entity.getApp());
+        Lock lock = app.lock.writeLock();
+        lock.lock();
+        try {
+            app.put(entity);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void saveAll(Iterable<MetricEntity> metrics) {
+        if (metrics == null) {
+            return;
+        }
+        // Hold the lock of an app across the consecutive metrics of the same app.
+        AppSeries current = null;
+        Lock lock = null;
+        try {
+            for (MetricEntity entity : metrics) {
+                if (!isValid(entity)) {
+                    continue;
+                }
+                if (current == null || !current.app.equals(entity.getApp())) {
+                    if (lock != null) {
+                        lock.unlock();
+                        lock = null;
+                    }
+                    current = appSeriesOf(entity.getApp());
+                    lock = current.lock.writeLock();
+                    lock.lock();
+                }
+                current.put(entity);
+            }
+        } finally {
+            if (lock != null) {
+                lock.unlock();
+            }
+        }
+    }
+
+    @Override
+    public List<MetricEntity> queryByAppAndResourceBetween(String app, String resource,
+                                                           long startTime, long endTime) {
+        List<MetricEntity> results = new ArrayList<>();
+        if (StringUtil.isBlank(app) || startTime > endTime) {
+            return results;
+        }
+        AppSeries appSeries = allSeries.get(app);
+        if (appSeries == null) {
+            return results;
+        }
+        Lock lock = appSeries.lock.readLock();
+        lock.lock();
+        try {
+            Series series = appSeries.series.get(resource);
+            if (series != null) {
+                series.query(app, resource, startTime, endTime, results);
+            }
+            return results;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public List<String> listResourcesOfApp(String app) {
+        if (StringUtil.isBlank(app)) {
+            return new ArrayList<>();
+        }
+        AppSeries appSeries = allSeries.get(app);
+        if (appSeries == null) {
+            return new ArrayList<>();
+        }
+        final long minTimeMs = TimeUtil.currentTimeMillis() - RESOURCE_RANK_INTERVAL_MS;
+        Map<String, long[]> resourceCount = new HashMap<>(32);
+        Lock lock = appSeries.lock.readLock();
+        lock.lock();
+        try {
+            for (Map.Entry<String, Series> e : appSeries.series.entrySet()) {
+                // {blockQps, passQps} of the last minute.
+                long[] sum = e.getValue().sumRawSince(minTimeMs);
+                if (sum != null) {
+                    resourceCount.put(e.getKey(), sum);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        // Order by last minute b_qps DESC.
+        return resourceCount.entrySet()
+            .stream()
+            .sorted((o1, o2) -> {
+                int t = Long.compare(o2.getValue()[0], o1.getValue()[0]);
+                if (t != 0) {
+                    return t;
+                }
+                return Long.compare(o2.getValue()[1], o1.getValue()[1]);
+            })
+            .map(Map.Entry::getKey)
+            .collect(Collectors.toList());
+    }
+
+    private static boolean isValid(MetricEntity entity) {
+        return entity != null && StringUtil.isNotBlank(entity.getApp()) && entity.getResource() != null
+            && entity.getTimestamp() != null;
+    }
+
+    private AppSeries appSeriesOf(String app) {
+        return allSeries.computeIfAbsent(app, AppSeries::new);
+    }
+
+    private static long valueOf(Long value) {
+        return value == null ? 0 : value;
+    }
+
+    private final class AppSeries {
+
+        private final String app;
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        /**
+         * {@code resource -> series}, guarded by {@link #lock}.
+         */
+        private final Map<String, Series> series = new HashMap<>(16);
+        private long lastEvictTime = TimeUtil.currentTimeMillis();
+
+        AppSeries(String app) {
+            this.app = app;
+        }
+
+        void put(MetricEntity entity) {
+            series.computeIfAbsent(entity.getResource(), r -> new Series()).put(entity);
+            long now = TimeUtil.currentTimeMillis();
+            if (now - lastEvictTime >= EVICT_INTERVAL_MS) {
+                lastEvictTime = now;
+                evictIdleSeries(now);
+            }
+        }
+
+        private void evictIdleSeries(long now) {
+            Iterator<Series> it = series.values().iterator();
+            while (it.hasNext()) {
+                if (it.next().latestTime < now - maxRetentionMs) {
+                    it.remove();
+                }
+            }
+        }
+    }
+
+    private final class Series {
+
+        private final Ring[] rings;
+        private long latestTime = Long.MIN_VALUE;
+
+        Series() {
+            rings = new Ring[resolutionsMs.length];
+            for (int i = 0; i < rings.length; i++) {
+                rings[i] = new Ring(resolutionsMs[i], capacities[i]);
+            }
+        }
+
+        void put(MetricEntity entity) {
+            long time = entity.getTimestamp().getTime();
+            long pass = valueOf(entity.getPassQps());
+            long block = valueOf(entity.getBlockQps());
+            long success = valueOf(entity.getSuccessQps());
+            long exception = valueOf(entity.getExceptionQps());
+            double rt = entity.getRt();
+            long count = entity.getCount();
+
+            Ring raw = rings[0];
+            long bucket = raw.bucketOf(time);
+            int slot = raw.slotOf(bucket);
+            if (raw.time[slot] > bucket) {
+                // Out of the raw ring already, and may have been added to the rollups.
+                return;
+            }
+            if (raw.time[slot] == bucket) {
+                // Replace the old metric, so only the difference goes to the rollups.
+                pass -= raw.pass[slot];
+                block -= raw.block[slot];
+                success -= raw.success[slot];
+                exception -= raw.exception[slot];
+                rt -= raw.rt[slot];
+                count -= raw.count[slot];
+            } else {
+                raw.reset(slot, bucket);
+            }
+            for (Ring ring : rings) {
+                ring.add(time, pass, block, success, exception, rt, count);
+            }
+            latestTime = Math.max(latestTime, bucket);
+        }
+
+        void query(String app, String resource, long startTime, long endTime, List<MetricEntity> results) {
+            if (latestTime == Long.MIN_VALUE) {
+                return;
+            }
+            Ring ring = ringCovering(startTime);
+            long from = Math.max(ring.bucketOf(startTime), ring.oldestBucket(latestTime));
+            long to = Math.min(endTime, latestTime);
+            for (long bucket = from; bucket <= to; bucket += ring.resolutionMs) {
+                if (bucket < startTime) {
+                    continue;
+                }
+                int slot = ring.slotOf(bucket);
+                if (ring.time[slot] == bucket) {
+                    results.add(ring.toEntity(slot, app, resource, latestTime));
+                }
+            }
+        }
+
+        /**
+         * @return the finest ring that still holds the metrics at the given time, or the coarsest ring
+         */
+        private Ring ringCovering(long time) {
+            for (Ring ring : rings) {
+                if (ring.bucketOf(time) >= ring.oldestBucket(latestTime)) {
+                    return ring;
+                }
+            }
+            return rings[rings.length - 1];
+        }
+
+        /**
+         * @return {blockQps, passQps} summed since the given time, or null if there is no metric since then
+         */
+        long[] sumRawSince(long minTime) {
+            Ring raw = rings[0];
+            long from = Math.max(raw.bucketOf(minTime), raw.oldestBucket(latestTime));
+            long[] sum = null;
+            for (long bucket = from; bucket <= latestTime; bucket += raw.resolutionMs) {
+                int slot = raw.slotOf(bucket);
+                if (raw.time[slot] == bucket) {
+                    if (sum == null) {
+                        sum = new long[2];
+                    }
+                    sum[0] += raw.block[slot];
+                    sum[1] += raw.pass[slot];
+                }
+            }
+            return sum;
+        }
+    }
+
+    /**
+     * Fixed-size ring of buckets at a given resolution, one primitive array per field.
+     */
+    private static final class Ring {
+
+        private final long resolutionMs;
+        private final int capacity;
+
+        /**
+         * Start time of the bucket in each slot, or -1 if the slot is empty.
+         */
+        private final long[] time;
+        private final long[] pass;
+        private final long[] block;
+        private final long[] success;
+        private final long[] exception;
+        /**
+         * Sum of {@code avgRt * successQps}, same as {@link MetricEntity#getRt()}.
+         */
+        private final double[] rt;
+        private final long[] count;
+
+        Ring(long resolutionMs, int capacity) {
+            this.resolutionMs = resolutionMs;
+            this.capacity = capacity;
+            this.time = new long[capacity];
+            this.pass = new long[capacity];
+            this.block = new long[capacity];
+            this.success = new long[capacity];
+            this.exception = new long[capacity];
+            this.rt = new double[capacity];
+            this.count = new long[capacity];
+            Arrays.fill(time, -1);
+        }
+
+        long bucketOf(long timeMs) {
+            return timeMs - Math.floorMod(timeMs, resolutionMs);
+        }
+
+        int slotOf(long bucket) {
+            return (int) Math.floorMod(bucket / resolutionMs, (long) capacity);
+        }
+
+        long oldestBucket(long latestTime) {
+            return bucketOf(latestTime) - resolutionMs * (capacity - 1);
+        }
+
+        void reset(int slot, long bucket) {
+            time[slot] = bucket;
+            pass[slot] = 0;
+            block[slot] = 0;
+            success[slot] = 0;
+            exception[slot] = 0;
+            rt[slot] = 0;
+            count[slot] = 0;
+        }
+
+        void add(long timeMs, long dPass, long dBlock, long dSuccess, long dException, double dRt, long dCount) {
+            long bucket = bucketOf(timeMs);
+            int slot = slotOf(bucket);
+            if (time[slot] > bucket) {
+                return;
+            }
+            if (time[slot] != bucket) {
+                reset(slot, bucket);
+            }
+            pass[slot] += dPass;
+            block[slot] += dBlock;
+            success[slot] += dSuccess;
+            exception[slot] += dException;
+            rt[slot] += dRt;
+            count[slot] += dCount;
+        }
+
+        /**
+         * Rollup buckets are converted to the average per second, so the QPS of different resolutions are
+         * comparable, and {@code rt / successQps} is still the average rt.
+         */
+        MetricEntity toEntity(int slot, String app, String resource, long latestTime) {
+            long bucket = time[slot];
+            // The latest bucket may be incomplete.
+            long seconds = Math.max(1, (Math.min(bucket + resolutionMs, latestTime + 1000) - bucket) / 1000);
+            MetricEntity entity = new MetricEntity();
+            Date date = new Date(bucket);
+            entity.setApp(app);
+            entity.setResource(resource);
+            entity.setTimestamp(date);
+            entity.setGmtCreate(date);
+            entity.setGmtModified(date);
+            entity.setPassQps(Math.round((double) pass[slot] / seconds));
+            entity.setBlockQps(Math.round((double) block[slot] / seconds));
+            entity.setExceptionQps(Math.round((double) exception[slot] / seconds));
+            long successQps = Math.round((double) success[slot] / seconds);
+            double avgRt = success[slot] > 0 ? rt[slot] / success[slot] : 0;
+            entity.setRtAndSuccessQps(avgRt, successQps);
+            entity.setCount((int) Math.min(Integer.MAX_VALUE, count[slot]));
+            return entity;
+        }
+    }
+}
@@ -16,20 +16,23 @@
 package com.alibaba.csp.sentinel.dashboard.service;
 
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import com.alibaba.csp.sentinel.cluster.ClusterStateManager;
 import com.alibaba.csp.sentinel.dashboard.domain.cluster.state.ClusterUniversalStatePairVO;
 import com.alibaba.csp.sentinel.util.AssertUtil;
-import com.alibaba.csp.sentinel.util.function.Tuple2;
 
+import com.alibaba.csp.sentinel.dashboard.client.FanOutResult;
 import com.alibaba.csp.sentinel.dashboard.client.SentinelApiClient;
 import com.alibaba.csp.sentinel.dashboard.domain.cluster.ClusterAppAssignResultVO;
 import com.alibaba.csp.sentinel.dashboard.domain.cluster.ClusterGroupEntity;
@@ -73,7 +76,7 @@ public class ClusterAssignServiceImpl implements ClusterAssignService {
                 .map(e -> e.getIp() + '@' + e.getCommandPort())
                 .collect(Collectors.toSet());
             // Modify mode to NOT-STARTED for all associated token clients.
-            modifyToNonStarted(toModifySet, failedSet);
+            modifyToNonStarted(app, toModifySet, failedSet);
         } catch (Exception ex) {
             Throwable e = ex instanceof ExecutionException ? ex.getCause() : ex;
             LOGGER.error("Failed to unbind machine <{}>", machineId, e);
@@ -84,16 +87,15 @@ public class ClusterAssignServiceImpl implements ClusterAssignService {
             .setFailedServerSet(new HashSet<>());
     }
 
-    private void modifyToNonStarted(Set<String> toModifySet, Set<String> failedSet) {
-        toModifySet.parallelStream()
+    private void modifyToNonStarted(String app, Set<String> toModifySet, Set<String> failedSet) {
+        Map<String, Supplier<CompletableFuture<Void>>> requests = new LinkedHashMap<>();
+        toModifySet.stream()
             .map(MachineUtils::parseCommandIpAndPort)
             .filter(Optional::isPresent)
             .map(Optional::get)
-            .map(e -> {
-                CompletableFuture<Void> f = modifyMode(e.r1, e.r2, ClusterStateManager.CLUSTER_NOT_STARTED);
-                return Tuple2.of(e.r1 + '@' + e.r2, f);
-            })
-            .forEach(f -> handleFutureSync(f, failedSet));
+            .forEach(e -> requests.put(e.r1 + '@' + e.r2,
+                () -> modifyMode(e.r1, e.r2, ClusterStateManager.CLUSTER_NOT_STARTED)));
+        fanOutSync(app, requests, failedSet);
     }
 
     @Override
@@ -114,7 +116,7 @@ public class ClusterAssignServiceImpl implements ClusterAssignService {
                 toModifySet.addAll(entity.getClientSet());
             }
             // Modify mode to NOT-STARTED for all chosen token servers and associated token clients.
-            modifyToNonStarted(toModifySet, failedSet);
+            modifyToNonStarted(app, toModifySet, failedSet);
         } catch (Exception ex) {
             Throwable e = ex instanceof ExecutionException ? ex.getCause() : ex;
             LOGGER.error("Failed to unbind machine <{}>", machineId, e);
@@ -149,22 +151,25 @@ public class ClusterAssignServiceImpl implements ClusterAssignService {
         Set<String> failedClientSet = new HashSet<>();
 
         // Assign server and apply config.
+        Map<String, Supplier<CompletableFuture<Void>>> serverRequests = new LinkedHashMap<>();
         clusterMap.stream()
             .filter(Objects::nonNull)
             .filter(ClusterAppAssignMap::getBelongToApp)
-            .map(e -> {
+            .forEach(e -> {
                 String ip = e.getIp();
                 int commandPort = parsePort(e);
-                CompletableFuture<Void> f = modifyMode(ip, commandPort, ClusterStateManager.CLUSTER_SERVER)
-                    .thenCompose(v -> applyServerConfigChange(app, ip, commandPort, e));
-                return Tuple2.of(e.getMachineId(), f);
-            })
-            .forEach(t -> handleFutureSync(t, failedServerSet));
+                serverRequests.put(e.getMachineId(),
+                    () -> modifyMode(ip, commandPort, ClusterStateManager.CLUSTER_SERVER)
+                        .thenCompose(v -> applyServerConfigChange(app, ip, commandPort, e)));
+            });
+        fanOutSync(app, serverRequests, failedServerSet);
 
         // Assign client of servers and apply config.
-        clusterMap.parallelStream()
+        Map<String, Supplier<CompletableFuture<Void>>> clientRequests = new LinkedHashMap<>();
+        clusterMap.stream()
             .filter(Objects::nonNull)
-            .forEach(e -> applyAllClientConfigChange(app, e, failedClientSet));
+            .forEach(e -> addClientConfigChange(app, e, clientRequests));
+        fanOutSync(app, clientRequests, failedClientSet);
 
         // Unbind remaining (unassigned) machines.
         applyAllRemainingMachineSet(app, remainingSet, failedClientSet);
@@ -178,22 +183,23 @@ public class ClusterAssignServiceImpl implements ClusterAssignService {
         if (remainingSet == null || remainingSet.isEmpty()) {
             return;
         }
-        remainingSet.parallelStream()
+        Map<String, Supplier<CompletableFuture<Void>>> requests = new LinkedHashMap<>();
+        remainingSet.stream()
             .filter(Objects::nonNull)
             .map(MachineUtils::parseCommandIpAndPort)
             .filter(Optional::isPresent)
             .map(Optional::get)
-            .map(ipPort -> {
+            .forEach(ipPort -> {
                 String ip = ipPort.r1;
                 int commandPort = ipPort.r2;
-                CompletableFuture<Void> f = modifyMode(ip, commandPort, ClusterStateManager.CLUSTER_NOT_STARTED);
-                return Tuple2.of(ip + '@' + commandPort, f);
-            })
-            .forEach(t -> handleFutureSync(t, failedSet));
+                requests.put(ip + '@' + commandPort,
+                    () -> modifyMode(ip, commandPort, ClusterStateManager.CLUSTER_NOT_STARTED));
+            });
+        fanOutSync(app, requests, failedSet);
     }
 
-    private void applyAllClientConfigChange(String app, ClusterAppAssignMap assignMap,
-                                            Set<String> failedSet) {
+    private void addClientConfigChange(String app, ClusterAppAssignMap assignMap,
+                                       Map<String, Supplier<CompletableFuture<Void>>> requests) {
         Set<String> clientSet = assignMap.getClientSet();
         if (clientSet == null || clientSet.isEmpty()) {
             return;
@@ -204,29 +210,32 @@ public class ClusterAssignServiceImpl implements ClusterAssignService {
             .map(MachineUtils::parseCommandIpAndPort)
             .filter(Optional::isPresent)
             .map(Optional::get)
-            .map(ipPort -> {
-                CompletableFuture<Void> f = sentinelApiClient
-                    .modifyClusterMode(ipPort.r1, ipPort.r2, ClusterStateManager.CLUSTER_CLIENT)
-                    .thenCompose(v -> sentinelApiClient.modifyClusterClientConfig(app, ipPort.r1, ipPort.r2,
-                        new ClusterClientConfig().setRequestTimeout(20)
-                            .setServerHost(serverIp)
-                            .setServerPort(serverPort)
-                    ));
-                return Tuple2.of(ipPort.r1 + '@' + ipPort.r2, f);
-            })
-            .forEach(t -> handleFutureSync(t, failedSet));
+            .forEach(ipPort -> requests.put(ipPort.r1 + '@' + ipPort.r2, () -> sentinelApiClient
+                .modifyClusterMode(ipPort.r1, ipPort.r2, ClusterStateManager.CLUSTER_CLIENT)
+                .thenCompose(v -> sentinelApiClient.modifyClusterClientConfig(app, ipPort.r1, ipPort.r2,
+                    new ClusterClientConfig().setRequestTimeout(20)
+                        .setServerHost(serverIp)
+                        .setServerPort(serverPort)
+                ))));
     }
 
-    private void handleFutureSync(Tuple2<String, CompletableFuture<Void>> t, Set<String> failedSet) {
+    /**
+     * Send the requests to the machines in parallel, and wait until all of them complete.
+     */
+    private void fanOutSync(String app, Map<String, Supplier<CompletableFuture<Void>>> requests,
+                            Set<String> failedSet) {
+        if (requests.isEmpty()) {
+            return;
+        }
         try {
-            t.r2.get(10, TimeUnit.SECONDS);
+            FanOutResult<Void> result = sentinelApiClient.fanOut(app, requests, false).get();
+            result.getFailures().forEach((machineId, ex) -> {
+                LOGGER.error("Request for <{}> failed", machineId, ex);
+                failedSet.add(machineId);
+            });
         } catch (Exception ex) {
-            if (ex instanceof ExecutionException) {
-                LOGGER.error("Request for <{}> failed", t.r1, ex.getCause());
-            } else {
-                LOGGER.error("Request for <{}> failed", t.r1, ex);
-            }
-            failedSet.add(t.r1);
+            LOGGER.error("Request for <{}> failed", requests.keySet(), ex);
+            failedSet.addAll(requests.keySet());
         }
     }
 
@@ -16,10 +16,12 @@
 package com.alibaba.csp.sentinel.dashboard.service;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
-import java.util.stream.Collectors;
+import java.util.function.Supplier;
 
 import com.alibaba.csp.sentinel.cluster.ClusterStateManager;
 import com.alibaba.csp.sentinel.dashboard.client.SentinelApiClient;
@@ -38,6 +40,8 @@ import com.alibaba.csp.sentinel.dashboard.domain.cluster.state.ClusterUniversalS
 import com.alibaba.csp.sentinel.dashboard.domain.cluster.config.ClusterClientConfig;
 import com.alibaba.csp.sentinel.dashboard.domain.cluster.config.ServerFlowConfig;
 import com.alibaba.csp.sentinel.dashboard.domain.cluster.config.ServerTransportConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -48,6 +52,8 @@ import org.springframework.stereotype.Service;
 @Service
 public class ClusterConfigService {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(ClusterConfigService.class);
+
     @Autowired
     private SentinelApiClient sentinelApiClient;
     @Autowired
@@ -109,13 +115,19 @@ public class ClusterConfigService {
             return CompletableFuture.completedFuture(new ArrayList<>());
         }
 
-        List<CompletableFuture<ClusterUniversalStatePairVO>> futures = appInfo.getMachines().stream()
+        Map<String, Supplier<CompletableFuture<ClusterUniversalStatePairVO>>> requests = new LinkedHashMap<>();
+        appInfo.getMachines().stream()
             .filter(e -> e.isHealthy())
-            .map(machine -> getClusterUniversalState(app, machine.getIp(), machine.getPort())
-                .thenApply(e -> new ClusterUniversalStatePairVO(machine.getIp(), machine.getPort(), e)))
-            .collect(Collectors.toList());
-
-        return AsyncUtils.sequenceSuccessFuture(futures);
+            .forEach(machine -> requests.put(machine.getIp() + '@' + machine.getPort(),
+                () -> getClusterUniversalState(app, machine.getIp(), machine.getPort())
+                    .thenApply(e -> new ClusterUniversalStatePairVO(machine.getIp(), machine.getPort(), e))));
+
+        return sentinelApiClient.fanOut(app, requests, true)
+            .thenApply(result -> {
+                result.getFailures().forEach((machineId, ex) ->
+                    LOGGER.debug("Failed to get cluster state of <{}>: {}", machineId, ex.toString()));
+                return new ArrayList<>(result.getSuccesses().values());
+            });
     }
 
     public CompletableFuture<ClusterGroupEntity> getClusterUniversalStateForAppMachine(String app, String machineId) {
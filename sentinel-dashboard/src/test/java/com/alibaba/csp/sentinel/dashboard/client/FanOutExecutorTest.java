@@ -0,0 +1,149 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.dashboard.client;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test cases for {@link FanOutExecutor}.
+ */
+public class FanOutExecutorTest {
+
+    @Test
+    public void testConcurrencyIsBoundedPerApp() throws Exception {
+        FanOutExecutor executor = new FanOutExecutor(3, 1000, 5000);
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        Map<String, Supplier<CompletableFuture<Integer>>> requests = new LinkedHashMap<>();
+        for (int i = 0; i < 20; i++) {
+            int value = i;
+            requests.put("10.0.0." + i + "@8719", () -> {
+                maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                return CompletableFuture.supplyAsync(() -> {
+                    sleep(10);
+                    inFlight.decrementAndGet();
+                    return value;
+                });
+            });
+        }
+        FanOutResult<Integer> result = executor.execute("app", requests, false).get(10, TimeUnit.SECONDS);
+        assertTrue(result.isAllSuccess());
+        assertEquals(20, result.getSuccesses().size());
+        assertEquals(Integer.valueOf(7), result.getSuccesses().get("10.0.0.7@8719"));
+        assertTrue(maxInFlight.get() <= 3);
+    }
+
+    @Test
+    public void testPartialFailureAndRetryOnIoError() throws Exception {
+        FanOutExecutor executor = new FanOutExecutor(8, 1000, 5000);
+        AtomicInteger flakyAttempts = new AtomicInteger();
+        AtomicInteger failingAttempts = new AtomicInteger();
+        Map<String, Supplier<CompletableFuture<String>>> requests = new LinkedHashMap<>();
+        requests.put("ok", () -> CompletableFuture.completedFuture("ok"));
+        requests.put("flaky", () -> flakyAttempts.incrementAndGet() == 1
+            ? failed(new IOException("Connection reset")) : CompletableFuture.completedFuture("retried"));
+        requests.put("failing", () -> {
+            failingAttempts.incrementAndGet();
+            return failed(new CommandFailedException("bad rule"));
+        });
+
+        FanOutResult<String> result = executor.execute("app", requests, false).get(10, TimeUnit.SECONDS);
+        assertEquals("ok", result.getSuccesses().get("ok"));
+        assertEquals("retried", result.getSuccesses().get("flaky"));
+        assertEquals(2, flakyAttempts.get());
+        // Not retried for a failure of the command.
+        assertEquals(1, failingAttempts.get());
+        assertEquals(1, result.getFailures().size());
+        assertTrue(result.getFailures().get("failing") instanceof CommandFailedException);
+    }
+
+    @Test
+    public void testHedgedRequest() throws Exception {
+        FanOutExecutor executor = new FanOutExecutor(8, 50, 5000);
+        AtomicInteger attempts = new AtomicInteger();
+        Map<String, Supplier<CompletableFuture<String>>> requests = new LinkedHashMap<>();
+        requests.put("slow", () -> attempts.incrementAndGet() == 1
+            ? new CompletableFuture<>() : CompletableFuture.completedFuture("hedged"));
+
+        FanOutResult<String> result = executor.execute("app", requests, true).get(10, TimeUnit.SECONDS);
+        assertEquals("hedged", result.getSuccesses().get("slow"));
+        assertEquals(2, attempts.get());
+    }
+
+    @Test
+    public void testTimeout() throws Exception {
+        FanOutExecutor executor = new FanOutExecutor(2, 1000, 100);
+        Map<String, Supplier<CompletableFuture<String>>> requests = new LinkedHashMap<>();
+        requests.put("hang", CompletableFuture::new);
+        requests.put("ok", () -> CompletableFuture.completedFuture("ok"));
+
+        FanOutResult<String> result = executor.execute("app", requests, false).get(10, TimeUnit.SECONDS);
+        assertTrue(result.getFailures().get("hang") instanceof TimeoutException);
+        assertEquals("ok", result.getSuccesses().get("ok"));
+    }
+
+    @Test
+    public void testPermitIsHeldUntilTimedOutAttemptFinishes() throws Exception {
+        FanOutExecutor executor = new FanOutExecutor(1, 1000, 100);
+        CompletableFuture<String> slowAttempt = new CompletableFuture<>();
+        AtomicBoolean okStartedEarly = new AtomicBoolean();
+        Map<String, Supplier<CompletableFuture<String>>> requests = new LinkedHashMap<>();
+        requests.put("slow", () -> slowAttempt);
+        requests.put("ok", () -> {
+            okStartedEarly.set(!slowAttempt.isDone());
+            return CompletableFuture.completedFuture("ok");
+        });
+
+        CompletableFuture<FanOutResult<String>> future = executor.execute("app", requests, false);
+        // The slow machine has been failed by the timeout, but its request is still in flight.
+        sleep(300);
+        assertFalse(future.isDone());
+        slowAttempt.complete("late");
+
+        FanOutResult<String> result = future.get(10, TimeUnit.SECONDS);
+        assertTrue(result.getFailures().get("slow") instanceof TimeoutException);
+        assertEquals("ok", result.getSuccesses().get("ok"));
+        assertFalse(okStartedEarly.get());
+    }
+
+    private static <T> CompletableFuture<T> failed(Throwable ex) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        future.completeExceptionally(ex);
+        return future;
+    }
+
+    private static void sleep(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.dashboard.metric;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.alibaba.csp.sentinel.dashboard.datasource.entity.MetricEntity;
+import com.alibaba.csp.sentinel.dashboard.repository.metric.InMemoryMetricsRepository;
+import com.alibaba.csp.sentinel.node.metric.MetricNode;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test cases for {@link MetricAggregator}.
+ */
+public class MetricAggregatorTest {
+
+    private static final String APP = "testApp";
+    private static final String RESOURCE = "testResource";
+
+    private CountingRepository repository;
+    private MetricAggregator aggregator;
+
+    @Before
+    public void setUp() {
+        repository = new CountingRepository();
+        aggregator = new MetricAggregator(repository, false);
+    }
+
+    @Test
+    public void testMergePulledAndPushedMetrics() {
+        long time = System.currentTimeMillis() / 1000 * 1000 - 5000;
+
+        // Pulled from two machines in one round.
+        Map<String, MetricEntity> pulled = new HashMap<>();
+        MetricAggregator.accumulate(pulled, APP, node(time, 10, 2));
+        MetricAggregator.accumulate(pulled, APP, node(time, 20, 4));
+        aggregator.merge(pulled.values());
+
+        // Pushed by another machine later.
+        aggregator.merge(aggregate(node(time, 5, 6)).values());
+
+        // Nothing is saved until the second is closed.
+        aggregator.flush(time + MetricAggregator.CLOSE_DELAY_MS - 1);
+        assertTrue(query(time).isEmpty());
+
+        aggregator.flush(time + MetricAggregator.CLOSE_DELAY_MS);
+        List<MetricEntity> saved = query(time);
+        assertEquals(1, saved.size());
+        MetricEntity entity = saved.get(0);
+        assertEquals(35L, entity.getPassQps().longValue());
+        assertEquals(35L, entity.getSuccessQps().longValue());
+        assertEquals(3, entity.getCount());
+        assertEquals(10 * 2 + 20 * 4 + 5 * 6, entity.getRt(), 0.01);
+    }
+
+    @Test
+    public void testSaveOnceWhenSecondCloses() {
+        long time = System.currentTimeMillis() / 1000 * 1000 - 5000;
+        for (int i = 0; i < 10; i++) {
+            Map<String, MetricEntity> metrics = new HashMap<>();
+            MetricAggregator.accumulate(metrics, APP, node(time, 1, 1));
+            MetricAggregator.accumulate(metrics, APP, node(time + 1000, 1, 1));
+            aggregator.merge(metrics.values());
+        }
+        aggregator.flush(time + 1000 + MetricAggregator.CLOSE_DELAY_MS);
+        // Nothing changed since the last flush.
+        aggregator.flush(time + 2000 + MetricAggregator.CLOSE_DELAY_MS);
+
+        assertEquals(0, repository.saveCalls.get());
+        assertEquals(1, repository.saveAllCalls.get());
+        assertEquals(10L, query(time).get(0).getPassQps().longValue());
+        assertEquals(10L, query(time + 1000).get(0).getPassQps().longValue());
+    }
+
+    @Test
+    public void testLateMetricsAreMergedWithSavedOnes() {
+        long now = System.currentTimeMillis();
+        long time = now / 1000 * 1000 - MetricAggregator.CLOSE_DELAY_MS - 5000;
+        aggregator.merge(aggregate(node(time, 10, 1)).values());
+        aggregator.flush(now);
+        assertEquals(10L, query(time).get(0).getPassQps().longValue());
+
+        // Arrives after the second is closed but still in the merge window: the total is saved again.
+        aggregator.merge(aggregate(node(time, 3, 1)).values());
+        aggregator.flush(now);
+        assertEquals(2, repository.saveAllCalls.get());
+        MetricEntity entity = query(time).get(0);
+        assertEquals(13L, entity.getPassQps().longValue());
+        assertEquals(2, entity.getCount());
+    }
+
+    @Test
+    public void testTooLateMetricsAreDropped() {
+        long now = System.currentTimeMillis();
+        long time = now / 1000 * 1000 - MetricAggregator.MERGE_WINDOW_MS + 5000;
+        aggregator.merge(aggregate(node(time, 10, 1)).values());
+        aggregator.flush(now);
+
+        // The second is evicted, and later metrics of it must not overwrite the saved aggregate.
+        aggregator.flush(time + MetricAggregator.MERGE_WINDOW_MS + 1);
+        aggregator.merge(aggregate(node(time, 3, 1)).values());
+        aggregator.merge(aggregate(node(now - MetricAggregator.MERGE_WINDOW_MS - 5000, 3, 1)).values());
+        aggregator.flush(Long.MAX_VALUE);
+
+        assertEquals(1, repository.saveAllCalls.get());
+        assertEquals(10L, query(time).get(0).getPassQps().longValue());
+    }
+
+    private List<MetricEntity> query(long time) {
+        return repository.queryByAppAndResourceBetween(APP, RESOURCE, time, time);
+    }
+
+    private static Map<String, MetricEntity> aggregate(MetricNode node) {
+        Map<String, MetricEntity> metrics = new HashMap<>();
+        MetricAggregator.accumulate(metrics, APP, node);
+        return metrics;
+    }
+
+    static MetricNode node(long time, long pass, long rt) {
+        MetricNode node = new MetricNode();
+        node.setTimestamp(time);
+        node.setResource(RESOURCE);
+        node.setPassQps(pass);
+        node.setSuccessQps(pass);
+        node.setRt(rt);
+        return node;
+    }
+
+    private static class CountingRepository extends InMemoryMetricsRepository {
+        private final AtomicInteger saveCalls = new AtomicInteger();
+        private final AtomicInteger saveAllCalls = new AtomicInteger();
+
+        @Override
+        public void save(MetricEntity entity) {
+            saveCalls.incrementAndGet();
+            super.save(entity);
+        }
+
+        @Override
+        public void saveAll(Iterable<MetricEntity> metrics) {
+            saveAllCalls.incrementAndGet();
+            for (MetricEntity entity : metrics) {
+                super.save(entity);
+            }
+        }
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.dashboard.metric;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test cases for {@link MetricFrameReader}.
+ */
+public class MetricFrameReaderTest {
+
+    @Test
+    public void testReadFramesInOneFeed() throws IOException {
+        byte[] data = frames(new byte[] {1, 2, 3}, new byte[0], new byte[] {4});
+        List<byte[]> frames = new ArrayList<>();
+        new MetricFrameReader(16).feed(data, 0, data.length, frames::add);
+
+        assertEquals(3, frames.size());
+        assertArrayEquals(new byte[] {1, 2, 3}, frames.get(0));
+        assertArrayEquals(new byte[0], frames.get(1));
+        assertArrayEquals(new byte[] {4}, frames.get(2));
+    }
+
+    @Test
+    public void testReadFramesInPieces() throws IOException {
+        byte[] first = new byte[10];
+        byte[] second = new byte[7];
+        Arrays.fill(first, (byte)1);
+        Arrays.fill(second, (byte)2);
+        byte[] data = frames(first, second);
+
+        for (int pieceSize = 1; pieceSize < data.length; pieceSize++) {
+            List<byte[]> frames = new ArrayList<>();
+            MetricFrameReader reader = new MetricFrameReader(16);
+            // Both the length and the payload are split.
+            for (int offset = 0; offset < data.length; offset += pieceSize) {
+                reader.feed(data, offset, Math.min(pieceSize, data.length - offset), frames::add);
+            }
+            assertEquals(2, frames.size());
+            assertArrayEquals(first, frames.get(0));
+            assertArrayEquals(second, frames.get(1));
+        }
+    }
+
+    @Test
+    public void testPartialFrameIsNotEmitted() throws IOException {
+        byte[] data = frames(new byte[] {1, 2, 3, 4});
+        List<byte[]> frames = new ArrayList<>();
+        MetricFrameReader reader = new MetricFrameReader(16);
+
+        reader.feed(data, 0, 2, frames::add);
+        reader.feed(data, 2, 4, frames::add);
+        assertTrue(frames.isEmpty());
+        reader.feed(data, 6, data.length - 6, frames::add);
+        assertEquals(1, frames.size());
+        assertArrayEquals(new byte[] {1, 2, 3, 4}, frames.get(0));
+    }
+
+    @Test
+    public void testReadWithOffset() throws IOException {
+        byte[] frame = frames(new byte[] {9, 8});
+        byte[] data = new byte[frame.length + 4];
+        System.arraycopy(frame, 0, data, 2, frame.length);
+        List<byte[]> frames = new ArrayList<>();
+        new MetricFrameReader(16).feed(data, 2, frame.length, frames::add);
+
+        assertEquals(1, frames.size());
+        assertArrayEquals(new byte[] {9, 8}, frames.get(0));
+    }
+
+    @Test(expected = IOException.class)
+    public void testRejectOversizedFrame() throws IOException {
+        new MetricFrameReader(16).feed(new byte[] {0, 0, 1, 0}, 0, 4, frame -> {});
+    }
+
+    @Test(expected = IOException.class)
+    public void testRejectNegativeLength() throws IOException {
+        new MetricFrameReader(16).feed(new byte[] {(byte)0xFF, 0, 0, 0}, 0, 4, frame -> {});
+    }
+
+    static byte[] frames(byte[]... payloads) throws IOException {
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(stream);
+        for (byte[] payload : payloads) {
+            out.writeInt(payload.length);
+            out.write(payload);
+        }
+        return stream.toByteArray();
+    }
+}
@@ -0,0 +1,207 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.dashboard.metric;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Queue;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.ReadListener;
+import javax.servlet.ServletInputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import com.alibaba.csp.sentinel.dashboard.datasource.entity.MetricEntity;
+import com.alibaba.csp.sentinel.dashboard.repository.metric.InMemoryMetricsRepository;
+import com.alibaba.csp.sentinel.node.metric.MetricNode;
+import com.alibaba.csp.sentinel.transport.util.CompactMetricCodec;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Test cases for {@link MetricPushServlet}.
+ */
+public class MetricPushServletTest {
+
+    private static final String APP = "testApp";
+    private static final String IP = "10.0.0.1";
+    private static final int PORT = 8719;
+
+    private InMemoryMetricsRepository repository;
+    private MetricAggregator aggregator;
+    private MetricPushRegistry registry;
+    private MetricPushServlet servlet;
+
+    private HttpServletRequest request;
+    private HttpServletResponse response;
+    private AsyncContext asyncContext;
+    private FakeInputStream in;
+
+    @Before
+    public void setUp() throws IOException {
+        repository = new InMemoryMetricsRepository();
+        aggregator = new MetricAggregator(repository, false);
+        registry = new MetricPushRegistry();
+        servlet = new MetricPushServlet(aggregator, registry);
+
+        request = mock(HttpServletRequest.class);
+        response = mock(HttpServletResponse.class);
+        asyncContext = mock(AsyncContext.class);
+        in = new FakeInputStream();
+        when(request.getParameter("app")).thenReturn(APP);
+        when(request.getParameter("ip")).thenReturn(IP);
+        when(request.getParameter("port")).thenReturn(String.valueOf(PORT));
+        when(request.getContentType()).thenReturn(CompactMetricCodec.STREAM_CONTENT_TYPE);
+        when(request.startAsync()).thenReturn(asyncContext);
+        when(request.getInputStream()).thenReturn(in);
+    }
+
+    @Test
+    public void testReceiveFramesInPieces() throws Exception {
+        long time = System.currentTimeMillis() / 1000 * 1000 - 5000;
+        servlet.doPost(request, response);
+        assertTrue(registry.isPushing(IP, PORT));
+
+        byte[] data = MetricFrameReaderTest.frames(
+            encode(MetricAggregatorTest.node(time, 3, 1)),
+            encode(MetricAggregatorTest.node(time, 4, 1), MetricAggregatorTest.node(time + 1000, 5, 1)));
+        // The first read ends in the middle of the second frame.
+        int split = data.length - 5;
+        in.add(data, 0, split);
+        in.listener.onDataAvailable();
+        in.add(data, split, data.length - split);
+        in.listener.onDataAvailable();
+
+        aggregator.flush(time + 1000 + MetricAggregator.CLOSE_DELAY_MS);
+        List<MetricEntity> saved = repository.queryByAppAndResourceBetween(APP, "testResource", time, time + 1000);
+        assertEquals(2, saved.size());
+        assertEquals(7L, saved.get(0).getPassQps().longValue());
+        assertEquals(2, saved.get(0).getCount());
+        assertEquals(5L, saved.get(1).getPassQps().longValue());
+
+        in.listener.onAllDataRead();
+        assertFalse(registry.isPushing(IP, PORT));
+        verify(response).setStatus(HttpServletResponse.SC_OK);
+        verify(asyncContext).complete();
+    }
+
+    @Test
+    public void testBrokenStream() throws Exception {
+        servlet.doPost(request, response);
+        // Length of the frame is larger than the limit.
+        in.add(new byte[] {0x7F, 0, 0, 0}, 0, 4);
+        try {
+            in.listener.onDataAvailable();
+        } catch (IOException expected) {
+            in.listener.onError(expected);
+        }
+        assertFalse(registry.isPushing(IP, PORT));
+        verify(response).setStatus(HttpServletResponse.SC_BAD_REQUEST);
+        verify(asyncContext).complete();
+    }
+
+    @Test
+    public void testRejectBadRequests() throws Exception {
+        when(request.getParameter("port")).thenReturn("abc");
+        servlet.doPost(request, response);
+        verify(response).sendError(anyInt(), anyString());
+
+        response = mock(HttpServletResponse.class);
+        when(request.getParameter("port")).thenReturn(String.valueOf(PORT));
+        when(request.getParameter("ip")).thenReturn("not-an-ip");
+        servlet.doPost(request, response);
+        verify(response).sendError(anyInt(), anyString());
+
+        response = mock(HttpServletResponse.class);
+        when(request.getParameter("ip")).thenReturn(IP);
+        when(request.getContentType()).thenReturn("text/plain");
+        servlet.doPost(request, response);
+        verify(response).sendError(HttpServletResponse.SC_UNSUPPORTED_MEDIA_TYPE);
+
+        verify(request, never()).startAsync();
+        assertFalse(registry.isPushing(IP, PORT));
+    }
+
+    private static byte[] encode(MetricNode... nodes) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        CompactMetricCodec.Encoder encoder = new CompactMetricCodec.Encoder(out, 0);
+        for (MetricNode node : nodes) {
+            encoder.write(node);
+        }
+        encoder.flush();
+        return out.toByteArray();
+    }
+
+    /**
+     * Non-blocking input stream which is ready while there are received bytes.
+     */
+    private static class FakeInputStream extends ServletInputStream {
+
+        private final Queue<Byte> received = new ArrayDeque<>();
+        private ReadListener listener;
+
+        void add(byte[] data, int offset, int length) {
+            for (int i = offset; i < offset + length; i++) {
+                received.add(data[i]);
+            }
+        }
+
+        @Override
+        public boolean isFinished() {
+            return false;
+        }
+
+        @Override
+        public boolean isReady() {
+            return !received.isEmpty();
+        }
+
+        @Override
+        public void setReadListener(ReadListener readListener) {
+            this.listener = readListener;
+        }
+
+        @Override
+        public int read() {
+            Byte b = received.poll();
+            return b == null ? -1 : b & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            int n = 0;
+            // Return at most 3 bytes at a time, so the frames arrive in pieces.
+            while (n < Math.min(len, 3) && !received.isEmpty()) {
+                b[off + n++] = received.poll();
+            }
+            return n;
+        }
+    }
+}
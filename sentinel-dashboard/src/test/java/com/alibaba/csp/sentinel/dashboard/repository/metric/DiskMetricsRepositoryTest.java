@@ -0,0 +1,275 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.dashboard.repository.metric;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import com.alibaba.csp.sentinel.dashboard.datasource.entity.MetricEntity;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test cases for {@link DiskMetricsRepository}.
+ */
+public class DiskMetricsRepositoryTest {
+
+    private static final String APP = "testApp";
+    private static final String RESOURCE = "testResource";
+    private static final long SEGMENT_MS = 60 * 1000;
+    private static final long RETENTION_MS = 10 * SEGMENT_MS;
+
+    private File dir;
+    private DiskMetricsRepository repository;
+    private long now;
+
+    @Before
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("sentinel-metrics").toFile();
+        repository = new DiskMetricsRepository(dir, SEGMENT_MS, RETENTION_MS);
+        now = System.currentTimeMillis() / 1000 * 1000;
+    }
+
+    @After
+    public void tearDown() {
+        repository.close();
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        dir.delete();
+    }
+
+    @Test
+    public void testSaveAndQuery() {
+        for (int i = 0; i < 30; i++) {
+            repository.save(newEntity(RESOURCE, now - 30000 + i * 1000, i));
+            repository.save(newEntity("other", now - 30000 + i * 1000, 100));
+        }
+        List<MetricEntity> list = repository.queryByAppAndResourceBetween(APP, RESOURCE, now - 10000, now);
+        assertEquals(10, list.size());
+        for (int i = 0; i < 10; i++) {
+            MetricEntity entity = list.get(i);
+            assertEquals(now - 10000 + i * 1000, entity.getTimestamp().getTime());
+            assertEquals(20 + i, entity.getPassQps().longValue());
+            assertEquals(2.0 * entity.getSuccessQps(), entity.getRt(), 0.0001);
+        }
+        assertTrue(repository.queryByAppAndResourceBetween(APP, "absent", now - 10000, now).isEmpty());
+        assertTrue(repository.queryByAppAndResourceBetween("absent", RESOURCE, now - 10000, now).isEmpty());
+    }
+
+    @Test
+    public void testSaveAgainReplacesMetric() {
+        repository.save(newEntity(RESOURCE, now, 1));
+        repository.save(newEntity(RESOURCE, now, 5));
+        List<MetricEntity> list = repository.queryByAppAndResourceBetween(APP, RESOURCE, now, now);
+        assertEquals(1, list.size());
+        assertEquals(5, list.get(0).getPassQps().longValue());
+
+        // Still the latest one after sealed.
+        repository.maintain(now + 10 * SEGMENT_MS - 1);
+        list = repository.queryByAppAndResourceBetween(APP, RESOURCE, now, now);
+        assertEquals(1, list.size());
+        assertEquals(5, list.get(0).getPassQps().longValue());
+    }
+
+    @Test
+    public void testOutOfOrderWritesInActiveSegment() {
+        long startTime = now - Math.floorMod(now, SEGMENT_MS);
+        int[] order = {3, 0, 4, 1, 2, 4, 0};
+        for (int i = 0; i < order.length; i++) {
+            repository.save(newEntity(RESOURCE, startTime + order[i] * 1000, order[i] * 10 + i));
+        }
+        for (long maintainTime : new long[] {now, now + 10 * SEGMENT_MS - 1}) {
+            // Before and after sealed.
+            repository.maintain(maintainTime);
+            List<MetricEntity> list = repository.queryByAppAndResourceBetween(APP, RESOURCE, startTime + 1000,
+                startTime + 4000);
+            assertEquals(4, list.size());
+            for (int i = 0; i < 4; i++) {
+                assertEquals(startTime + (i + 1) * 1000, list.get(i).getTimestamp().getTime());
+            }
+            // The later one wins.
+            assertEquals(45, list.get(3).getPassQps().longValue());
+            assertEquals(6, repository.queryByAppAndResourceBetween(APP, RESOURCE, startTime, startTime).get(0)
+                .getPassQps().longValue());
+        }
+    }
+
+    @Test
+    public void testQueryAcrossSealedSegments() {
+        long start = now - 5 * SEGMENT_MS;
+        for (int i = 0; i < 300; i++) {
+            repository.save(newEntity(RESOURCE, start + i * 1000, i));
+        }
+        repository.maintain(now + 3 * SEGMENT_MS);
+        assertTrue(new File(dir, MetricSegment.FILE_PREFIX + (start - Math.floorMod(start, SEGMENT_MS))
+            + MetricSegment.INDEX_FILE_SUFFIX).exists());
+
+        List<MetricEntity> list = repository.queryByAppAndResourceBetween(APP, RESOURCE, start + 30000,
+            start + 149000);
+        assertEquals(120, list.size());
+        for (int i = 0; i < list.size(); i++) {
+            assertEquals(start + 30000 + i * 1000, list.get(i).getTimestamp().getTime());
+            assertEquals(30 + i, list.get(i).getPassQps().longValue());
+        }
+        // Sealed segments no longer accept metrics.
+        repository.save(newEntity(RESOURCE, start, 1000));
+        assertEquals(0, repository.queryByAppAndResourceBetween(APP, RESOURCE, start, start).get(0)
+            .getPassQps().longValue());
+    }
+
+    @Test
+    public void testRecoverAfterRestart() {
+        long sealedStart = now - 5 * SEGMENT_MS;
+        repository.save(newEntity(RESOURCE, sealedStart, 7));
+        repository.maintain(now);
+        for (int i = 0; i < 10; i++) {
+            repository.save(newEntity(RESOURCE, now - 10000 + i * 1000, i));
+        }
+        repository.close();
+
+        repository = new DiskMetricsRepository(dir, SEGMENT_MS, RETENTION_MS);
+        assertEquals(7, repository.queryByAppAndResourceBetween(APP, RESOURCE, sealedStart, sealedStart).get(0)
+            .getPassQps().longValue());
+        assertEquals(10, repository.queryByAppAndResourceBetween(APP, RESOURCE, now - 10000, now).size());
+        // Appending goes on after the recovered records.
+        repository.save(newEntity(RESOURCE, now, 10));
+        assertEquals(11, repository.queryByAppAndResourceBetween(APP, RESOURCE, now - 10000, now).size());
+        assertEquals(Arrays.asList(RESOURCE), repository.listResourcesOfApp(APP));
+    }
+
+    @Test
+    public void testRecoverFromTornRecordAndDictionaryEntry() throws IOException {
+        long startTime = now - Math.floorMod(now, SEGMENT_MS);
+        long time = startTime + 10000;
+        for (int i = 0; i < 3; i++) {
+            repository.save(newEntity(RESOURCE, time - 3000 + i * 1000, i));
+        }
+        repository.save(newEntity("torn", time, 1));
+        repository.close();
+
+        // Corrupt the last record of the segment.
+        File segmentFile = new File(dir, MetricSegment.FILE_PREFIX + startTime + MetricSegment.DATA_FILE_SUFFIX);
+        try (RandomAccessFile file = new RandomAccessFile(segmentFile, "rw")) {
+            file.seek(16 + 3L * MetricSegment.RECORD_SIZE + 20);
+            file.writeLong(123456789L);
+        }
+        // Cut the last dictionary entry in half.
+        File dictFile = new File(dir, MetricSeriesDictionary.FILE_NAME);
+        try (RandomAccessFile file = new RandomAccessFile(dictFile, "rw")) {
+            file.setLength(file.length() - 6);
+        }
+
+        repository = new DiskMetricsRepository(dir, SEGMENT_MS, RETENTION_MS);
+        assertEquals(3, repository.queryByAppAndResourceBetween(APP, RESOURCE, time - 3000, time).size());
+        assertTrue(repository.queryByAppAndResourceBetween(APP, "torn", time, time).isEmpty());
+        // The torn entry is dropped, so new series get valid IDs.
+        repository.save(newEntity("torn", time, 2));
+        repository.save(newEntity("another", time, 3));
+        assertEquals(2, repository.queryByAppAndResourceBetween(APP, "torn", time, time).get(0)
+            .getPassQps().longValue());
+        assertEquals(3, repository.queryByAppAndResourceBetween(APP, "another", time, time).get(0)
+            .getPassQps().longValue());
+    }
+
+    @Test
+    public void testRecoverDropsRecordsOfLostSeries() throws IOException {
+        long startTime = now - Math.floorMod(now, SEGMENT_MS);
+        long time = startTime + 10000;
+        repository.save(newEntity(RESOURCE, time - 1000, 1));
+        repository.maintain(now);
+        File dictFile = new File(dir, MetricSeriesDictionary.FILE_NAME);
+        long persistedLength = dictFile.length();
+        repository.save(newEntity("lost", time, 2));
+        repository.save(newEntity(RESOURCE, time, 3));
+        repository.close();
+
+        // The new entry didn't make it to disk while the records did.
+        try (RandomAccessFile file = new RandomAccessFile(dictFile, "rw")) {
+            file.setLength(persistedLength);
+        }
+
+        repository = new DiskMetricsRepository(dir, SEGMENT_MS, RETENTION_MS);
+        List<MetricEntity> list = repository.queryByAppAndResourceBetween(APP, RESOURCE, time - 1000, time);
+        assertEquals(1, list.size());
+        assertEquals(1, list.get(0).getPassQps().longValue());
+        // The lost series ID is taken by a new series, which must not see the dropped record.
+        repository.save(newEntity("fresh", time + 1000, 4));
+        list = repository.queryByAppAndResourceBetween(APP, "fresh", time, time + 1000);
+        assertEquals(1, list.size());
+        assertEquals(4, list.get(0).getPassQps().longValue());
+    }
+
+    @Test
+    public void testDeleteSegmentsOutOfRetention() {
+        long old = now - 9 * SEGMENT_MS;
+        repository.save(newEntity(RESOURCE, old, 1));
+        repository.save(newEntity(RESOURCE, now, 1));
+        assertEquals(2, countSegmentFiles());
+
+        repository.maintain(now + 2 * SEGMENT_MS);
+        assertEquals(1, countSegmentFiles());
+        assertTrue(repository.queryByAppAndResourceBetween(APP, RESOURCE, old, old).isEmpty());
+        assertFalse(repository.queryByAppAndResourceBetween(APP, RESOURCE, now, now).isEmpty());
+
+        // Metrics out of the retention are dropped.
+        repository.save(newEntity(RESOURCE, now - RETENTION_MS - 1000, 1));
+        assertEquals(1, countSegmentFiles());
+    }
+
+    @Test
+    public void testListResourcesOfApp() {
+        long time = System.currentTimeMillis();
+        MetricEntity blocked = newEntity("b", time, 5);
+        blocked.setBlockQps(3L);
+        repository.saveAll(Arrays.asList(newEntity("a", time, 10), blocked, newEntity("c", time, 20),
+            newEntity("stale", time - 5 * 60 * 1000, 100)));
+        assertEquals(Arrays.asList("b", "c", "a"), repository.listResourcesOfApp(APP));
+        assertTrue(repository.listResourcesOfApp("other").isEmpty());
+    }
+
+    private int countSegmentFiles() {
+        File[] files = dir.listFiles((d, name) -> name.endsWith(MetricSegment.DATA_FILE_SUFFIX));
+        return files == null ? 0 : files.length;
+    }
+
+    private static MetricEntity newEntity(String resource, long time, long pass) {
+        MetricEntity entity = new MetricEntity();
+        entity.setApp(APP);
+        entity.setResource(resource);
+        entity.setTimestamp(new Date(time));
+        entity.setPassQps(pass);
+        entity.setBlockQps(0L);
+        entity.setExceptionQps(0L);
+        entity.setRtAndSuccessQps(2.0, pass);
+        entity.setCount(1);
+        return entity;
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.dashboard.repository.metric;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.alibaba.csp.sentinel.dashboard.datasource.entity.MetricEntity;
+
+import org.junit.Ignore;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Load test of {@link TimeSeriesMetricsRepository}: 1,000,000 writes (8 apps x 500 resources x 250 seconds)
+ * saved in per-second batches like {@code MetricAggregator} does, while the top resources of the apps are
+ * queried concurrently. The dashboard should sustain at least 1M writes per minute, which depends on the
+ * machine, so it's not run with the unit tests. Run it manually and check the time it takes.
+ */
+@Ignore(value = "Load test, run it manually.")
+public class TimeSeriesMetricsRepositoryLoadTest {
+
+    private static final int APPS = 8;
+    private static final int RESOURCES = 500;
+    private static final int SECONDS = 250;
+
+    @Test
+    public void testOneMillionWrites() throws Exception {
+        TimeSeriesMetricsRepository repository = new TimeSeriesMetricsRepository();
+        long start = System.currentTimeMillis() / 1000 * 1000 - SECONDS * 1000L;
+        ExecutorService pool = Executors.newFixedThreadPool(APPS + 1);
+        try {
+            List<Future<?>> writers = new ArrayList<>();
+            for (int a = 0; a < APPS; a++) {
+                final String app = "app" + a;
+                writers.add(pool.submit(() -> {
+                    for (int s = 0; s < SECONDS; s++) {
+                        List<MetricEntity> batch = new ArrayList<>(RESOURCES);
+                        for (int r = 0; r < RESOURCES; r++) {
+                            batch.add(newEntity(app, "resource" + r, start + s * 1000L, r + s));
+                        }
+                        repository.saveAll(batch);
+                    }
+                }));
+            }
+            Future<?> reader = pool.submit(() -> {
+                while (!Thread.currentThread().isInterrupted()) {
+                    for (int a = 0; a < APPS; a++) {
+                        List<String> resources = repository.listResourcesOfApp("app" + a);
+                        for (int i = 0; i < Math.min(6, resources.size()); i++) {
+                            repository.queryByAppAndResourceBetween("app" + a, resources.get(i),
+                                start, start + SECONDS * 1000L);
+                        }
+                    }
+                }
+            });
+            for (Future<?> writer : writers) {
+                writer.get();
+            }
+            reader.cancel(true);
+
+            assertEquals(RESOURCES, repository.listResourcesOfApp("app0").size());
+            assertEquals(60, repository.queryByAppAndResourceBetween("app0", "resource0",
+                start + (SECONDS - 60) * 1000L, start + SECONDS * 1000L).size());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static MetricEntity newEntity(String app, String resource, long time, long pass) {
+        MetricEntity entity = new MetricEntity();
+        entity.setApp(app);
+        entity.setResource(resource);
+        entity.setTimestamp(new Date(time));
+        entity.setPassQps(pass);
+        entity.setBlockQps(0L);
+        entity.setExceptionQps(0L);
+        entity.setRtAndSuccessQps(5, pass);
+        entity.setCount(1);
+        return entity;
+    }
+}
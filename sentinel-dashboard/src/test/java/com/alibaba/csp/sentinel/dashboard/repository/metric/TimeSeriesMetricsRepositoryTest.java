@@ -0,0 +1,147 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.dashboard.repository.metric;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import com.alibaba.csp.sentinel.dashboard.datasource.entity.MetricEntity;
+import com.alibaba.csp.sentinel.dashboard.domain.vo.MetricVo;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test cases for {@link TimeSeriesMetricsRepository}.
+ */
+public class TimeSeriesMetricsRepositoryTest {
+
+    private static final String APP = "testApp";
+    private static final String RESOURCE = "testResource";
+
+    private TimeSeriesMetricsRepository repository;
+    private long now;
+
+    @Before
+    public void setUp() {
+        // Raw: 60 x 1s, rollups: 30 x 10s, 60 x 1m.
+        repository = new TimeSeriesMetricsRepository(new long[] {1000, 10 * 1000, 60 * 1000},
+            new int[] {60, 30, 60});
+        now = System.currentTimeMillis() / 60000 * 60000;
+    }
+
+    @Test
+    public void testQueryRawMetrics() {
+        for (int i = 0; i < 10; i++) {
+            repository.save(newEntity(RESOURCE, now - 10000 + i * 1000, i + 1, 0, 2.0));
+        }
+        List<MetricEntity> list = repository.queryByAppAndResourceBetween(APP, RESOURCE, now - 5000, now);
+        assertEquals(5, list.size());
+        for (int i = 0; i < 5; i++) {
+            MetricEntity entity = list.get(i);
+            assertEquals(now - 5000 + i * 1000, entity.getTimestamp().getTime());
+            assertEquals(i + 6, entity.getPassQps().longValue());
+            assertEquals(2.0, entity.getRt() / entity.getSuccessQps(), 0.0001);
+        }
+        assertTrue(repository.queryByAppAndResourceBetween(APP, "other", now - 5000, now).isEmpty());
+        assertTrue(repository.queryByAppAndResourceBetween("other", RESOURCE, now - 5000, now).isEmpty());
+    }
+
+    @Test
+    public void testSaveAgainReplacesMetricAndRollups() {
+        long time = now - 1000;
+        repository.save(newEntity(RESOURCE, time, 50, 10, 3.0));
+        repository.save(newEntity(RESOURCE, time, 80, 20, 3.0));
+
+        List<MetricEntity> raw = repository.queryByAppAndResourceBetween(APP, RESOURCE, time, time);
+        assertEquals(1, raw.size());
+        assertEquals(80, raw.get(0).getPassQps().longValue());
+        assertEquals(20, raw.get(0).getBlockQps().longValue());
+
+        // Make the metric older than the raw ring, so the 10s rollup is used.
+        repository.save(newEntity(RESOURCE, time + 120 * 1000, 1, 0, 1.0));
+        List<MetricEntity> rollup = repository.queryByAppAndResourceBetween(APP, RESOURCE, now - 60000, now);
+        assertEquals(1, rollup.size());
+        assertEquals(now - 10000, rollup.get(0).getTimestamp().getTime());
+        // 80 passed and 20 blocked in 10 seconds.
+        assertEquals(8, rollup.get(0).getPassQps().longValue());
+        assertEquals(2, rollup.get(0).getBlockQps().longValue());
+        assertEquals(1, rollup.get(0).getCount());
+    }
+
+    @Test
+    public void testRollupsAreAveragedPerSecond() {
+        // 2 minutes of 100 QPS with 10ms rt.
+        long start = now - 120 * 1000;
+        List<MetricEntity> entities = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            entities.add(newEntity(RESOURCE, start + i * 1000, 100, 0, 10.0));
+        }
+        repository.saveAll(entities);
+
+        // Older than the raw ring (60s), so the 10s rollups are used.
+        List<MetricEntity> tenSeconds = repository.queryByAppAndResourceBetween(APP, RESOURCE, start, start + 59999);
+        assertEquals(6, tenSeconds.size());
+        for (MetricEntity entity : tenSeconds) {
+            assertEquals(100, entity.getPassQps().longValue());
+            assertEquals(100, entity.getSuccessQps().longValue());
+            assertEquals(10, entity.getCount());
+        }
+        List<MetricVo> vos = MetricVo.fromMetricEntities(tenSeconds, RESOURCE);
+        assertEquals(10, vos.get(0).getRt(), 0.0001);
+
+        // The latest metrics are still in the raw ring.
+        assertEquals(10, repository.queryByAppAndResourceBetween(APP, RESOURCE, now - 10000, now).size());
+    }
+
+    @Test
+    public void testMetricsOlderThanRawRingAreDropped() {
+        repository.save(newEntity(RESOURCE, now, 1, 0, 1.0));
+        repository.save(newEntity(RESOURCE, now - 60 * 1000, 100, 0, 1.0));
+        assertTrue(repository.queryByAppAndResourceBetween(APP, RESOURCE, now - 60 * 1000, now - 60 * 1000)
+            .isEmpty());
+    }
+
+    @Test
+    public void testListResourcesOfApp() {
+        long time = System.currentTimeMillis();
+        repository.saveAll(Arrays.asList(
+            newEntity("a", time, 10, 0, 1.0),
+            newEntity("b", time, 5, 3, 1.0),
+            newEntity("c", time, 20, 0, 1.0)));
+        assertEquals(Arrays.asList("b", "c", "a"), repository.listResourcesOfApp(APP));
+        assertTrue(repository.listResourcesOfApp("other").isEmpty());
+    }
+
+    private static MetricEntity newEntity(String resource, long time, long pass, long block, double avgRt) {
+        MetricEntity entity = new MetricEntity();
+        entity.setApp(APP);
+        entity.setResource(resource);
+        entity.setTimestamp(new Date(time));
+        entity.setGmtCreate(new Date());
+        entity.setPassQps(pass);
+        entity.setBlockQps(block);
+        entity.setExceptionQps(0L);
+        entity.setRtAndSuccessQps(avgRt, pass);
+        entity.setCount(1);
+        return entity;
+    }
+}
@@ -15,6 +15,7 @@
  */
 package com.alibaba.csp.sentinel.annotation.aspectj;
 
+import com.alibaba.csp.sentinel.SentinelResourceHandle;
 import com.alibaba.csp.sentinel.Tracer;
 import com.alibaba.csp.sentinel.annotation.SentinelResource;
 import com.alibaba.csp.sentinel.log.RecordLog;
@@ -80,6 +81,111 @@ public abstract class AbstractSentinelAspectSupport {
         return MethodUtil.resolveMethodName(method);
     }
 
+    /**
+     * Get the handle of the resource of the annotated method. The handle is resolved once
+     * for each method and kept in the {@link ResourceMetadataRegistry}.
+     *
+     * @param annotation the annotation of the method
+     * @param method     the annotated method
+     * @return the handle of the resource
+     * @since 1.8.7
+     */
+    protected SentinelResourceHandle getResourceHandle(SentinelResource annotation, /*@NonNull*/ Method method) {
+        SentinelResourceHandle handle = ResourceMetadataRegistry.lookupResourceHandle(method);
+        if (handle == null) {
+            handle = SentinelResourceHandle.of(getResourceName(annotation.value(), method),
+                annotation.resourceType(), annotation.entryType());
+            ResourceMetadataRegistry.updateResourceHandleFor(method, handle);
+        }
+        return handle;
+    }
+
+    /**
+     * Get the metadata of the invocation of the join point. The metadata is resolved once for each
+     * method and target class, and kept in the {@link ResourceMetadataRegistry}.
+     *
+     * @param pjp the join point
+     * @return the invocation metadata
+     * @since 1.8.7
+     */
+    ResourceInvocationMetadata getInvocationMetadata(ProceedingJoinPoint pjp) {
+        Method signatureMethod = ((MethodSignature)pjp.getSignature()).getMethod();
+        Class<?> targetClass = pjp.getTarget().getClass();
+        ResourceInvocationMetadata metadata = ResourceMetadataRegistry.lookupInvocationMetadata(signatureMethod,
+            targetClass);
+        if (metadata == null) {
+            metadata = resolveInvocationMetadata(pjp);
+            ResourceMetadataRegistry.updateInvocationMetadataFor(signatureMethod, targetClass, metadata);
+        }
+        return metadata;
+    }
+
+    private ResourceInvocationMetadata resolveInvocationMetadata(ProceedingJoinPoint pjp) {
+        Method originMethod = resolveMethod(pjp);
+        SentinelResource annotation = originMethod.getAnnotation(SentinelResource.class);
+        if (annotation == null) {
+            // Should not go through here.
+            throw new IllegalStateException("Wrong state for SentinelResource annotation");
+        }
+        Method blockHandler = extractBlockHandlerMethod(pjp, annotation.blockHandler(),
+            annotation.blockHandlerClass());
+        Method fallback = extractFallbackMethod(pjp, annotation.fallback(), annotation.fallbackClass());
+        // The default fallback is used only when the fallback is absent.
+        Method defaultFallback = fallback != null ? null
+            : extractDefaultFallbackMethod(pjp, annotation.defaultFallback(), annotation.fallbackClass());
+        return new ResourceInvocationMetadata(originMethod, annotation, getResourceHandle(annotation, originMethod),
+            MethodHandleInvoker.of(blockHandler), MethodHandleInvoker.of(fallback),
+            MethodHandleInvoker.of(defaultFallback));
+    }
+
+    /**
+     * Handle the block exception with the resolved block handler, or go to the fallback if absent.
+     *
+     * @since 1.8.7
+     */
+    Object handleBlockException(ProceedingJoinPoint pjp, ResourceInvocationMetadata metadata, BlockException ex)
+        throws Throwable {
+        MethodHandleInvoker blockHandler = metadata.getBlockHandler();
+        if (blockHandler != null) {
+            Object[] originArgs = pjp.getArgs();
+            // Construct args.
+            Object[] args = Arrays.copyOf(originArgs, originArgs.length + 1);
+            args[args.length - 1] = ex;
+            return blockHandler.invoke(pjp.getTarget(), args);
+        }
+        // If no block handler is present, then go to fallback.
+        return handleFallback(pjp, metadata, ex);
+    }
+
+    /**
+     * Handle the exception with the resolved fallback or default fallback, or throw it if both are absent.
+     *
+     * @since 1.8.7
+     */
+    Object handleFallback(ProceedingJoinPoint pjp, ResourceInvocationMetadata metadata, Throwable ex)
+        throws Throwable {
+        MethodHandleInvoker fallback = metadata.getFallback();
+        if (fallback != null) {
+            Object[] originArgs = pjp.getArgs();
+            // Construct args.
+            Object[] args;
+            if (fallback.getParameterCount() == originArgs.length) {
+                args = originArgs;
+            } else {
+                args = Arrays.copyOf(originArgs, originArgs.length + 1);
+                args[args.length - 1] = ex;
+            }
+            return fallback.invoke(pjp.getTarget(), args);
+        }
+        MethodHandleInvoker defaultFallback = metadata.getDefaultFallback();
+        if (defaultFallback != null) {
+            Object[] args = defaultFallback.getParameterCount() == 0 ? new Object[0] : new Object[] {ex};
+            return defaultFallback.invoke(pjp.getTarget(), args);
+        }
+        // If no any fallback is present, then directly throw the exception.
+        throw ex;
+    }
+
     protected Object handleFallback(ProceedingJoinPoint pjp, SentinelResource annotation, Throwable ex)
         throws Throwable {
         return handleFallback(pjp, annotation.fallback(), annotation.defaultFallback(), annotation.fallbackClass(), ex);
@@ -0,0 +1,98 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.annotation.aspectj;
+
+import java.lang.reflect.Method;
+
+import com.alibaba.csp.sentinel.SentinelResourceHandle;
+import com.alibaba.csp.sentinel.annotation.SentinelResource;
+
+/**
+ * Metadata of the invocation of an annotated method on a target class, which is resolved at the
+ * first invocation and kept in the {@link ResourceMetadataRegistry}, so that the following invocations
+ * don't need to resolve the method, the resource or the handler methods again.
+ *
+ * @since 1.8.7
+ */
+final class ResourceInvocationMetadata {
+
+    private final Method method;
+    private final SentinelResource annotation;
+    private final SentinelResourceHandle resourceHandle;
+    /**
+     * Copies of the annotation attributes, as the annotation clones the arrays for each access.
+     */
+    private final Class<? extends Throwable>[] exceptionsToTrace;
+    private final Class<? extends Throwable>[] exceptionsToIgnore;
+
+    private final MethodHandleInvoker blockHandler;
+    private final MethodHandleInvoker fallback;
+    private final MethodHandleInvoker defaultFallback;
+
+    ResourceInvocationMetadata(Method method, SentinelResource annotation, SentinelResourceHandle resourceHandle,
+                               MethodHandleInvoker blockHandler, MethodHandleInvoker fallback,
+                               MethodHandleInvoker defaultFallback) {
+        this.method = method;
+        this.annotation = annotation;
+        this.resourceHandle = resourceHandle;
+        this.exceptionsToTrace = annotation.exceptionsToTrace();
+        this.exceptionsToIgnore = annotation.exceptionsToIgnore();
+        this.blockHandler = blockHandler;
+        this.fallback = fallback;
+        this.defaultFallback = defaultFallback;
+    }
+
+    Method getMethod() {
+        return method;
+    }
+
+    SentinelResource getAnnotation() {
+        return annotation;
+    }
+
+    SentinelResourceHandle getResourceHandle() {
+        return resourceHandle;
+    }
+
+    Class<? extends Throwable>[] getExceptionsToTrace() {
+        return exceptionsToTrace;
+    }
+
+    Class<? extends Throwable>[] getExceptionsToIgnore() {
+        return exceptionsToIgnore;
+    }
+
+    /**
+     * @return invoker of the block handler, or null if absent
+     */
+    MethodHandleInvoker getBlockHandler() {
+        return blockHandler;
+    }
+
+    /**
+     * @return invoker of the fallback, or null if absent
+     */
+    MethodHandleInvoker getFallback() {
+        return fallback;
+    }
+
+    /**
+     * @return invoker of the default fallback, or null if absent
+     */
+    MethodHandleInvoker getDefaultFallback() {
+        return defaultFallback;
+    }
+}
@@ -18,7 +18,9 @@ package com.alibaba.csp.sentinel.annotation.aspectj;
 import java.lang.reflect.Method;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
+import com.alibaba.csp.sentinel.SentinelResourceHandle;
 import com.alibaba.csp.sentinel.util.StringUtil;
 
 /**
@@ -28,45 +30,91 @@ import com.alibaba.csp.sentinel.util.StringUtil;
  */
 final class ResourceMetadataRegistry {
 
-    private static final Map<String, MethodWrapper> FALLBACK_MAP = new ConcurrentHashMap<>();
-    private static final Map<String, MethodWrapper> DEFAULT_FALLBACK_MAP = new ConcurrentHashMap<>();
-    private static final Map<String, MethodWrapper> BLOCK_HANDLER_MAP = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<Class<?>, ConcurrentMap<String, MethodWrapper>> FALLBACK_MAP
+        = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<Class<?>, ConcurrentMap<String, MethodWrapper>> DEFAULT_FALLBACK_MAP
+        = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<Class<?>, ConcurrentMap<String, MethodWrapper>> BLOCK_HANDLER_MAP
+        = new ConcurrentHashMap<>();
+    private static final Map<Method, SentinelResourceHandle> RESOURCE_HANDLE_MAP = new ConcurrentHashMap<>();
+    /**
+     * Invocation metadata by the method of the join point, then by the target class.
+     */
+    private static final ConcurrentMap<Method, ConcurrentMap<Class<?>, ResourceInvocationMetadata>>
+        INVOCATION_METADATA_MAP = new ConcurrentHashMap<>();
 
     static MethodWrapper lookupFallback(Class<?> clazz, String name) {
-        return FALLBACK_MAP.get(getKey(clazz, name));
+        return lookup(FALLBACK_MAP, clazz, name);
     }
 
     static MethodWrapper lookupDefaultFallback(Class<?> clazz, String name) {
-        return DEFAULT_FALLBACK_MAP.get(getKey(clazz, name));
+        return lookup(DEFAULT_FALLBACK_MAP, clazz, name);
     }
 
     static MethodWrapper lookupBlockHandler(Class<?> clazz, String name) {
-        return BLOCK_HANDLER_MAP.get(getKey(clazz, name));
+        return lookup(BLOCK_HANDLER_MAP, clazz, name);
     }
 
     static void updateFallbackFor(Class<?> clazz, String name, Method method) {
-        if (clazz == null || StringUtil.isBlank(name)) {
-            throw new IllegalArgumentException("Bad argument");
-        }
-        FALLBACK_MAP.put(getKey(clazz, name), MethodWrapper.wrap(method));
+        update(FALLBACK_MAP, clazz, name, method);
     }
 
     static void updateDefaultFallbackFor(Class<?> clazz, String name, Method method) {
+        update(DEFAULT_FALLBACK_MAP, clazz, name, method);
+    }
+
+    static void updateBlockHandlerFor(Class<?> clazz, String name, Method method) {
+        update(BLOCK_HANDLER_MAP, clazz, name, method);
+    }
+
+    private static MethodWrapper lookup(ConcurrentMap<Class<?>, ConcurrentMap<String, MethodWrapper>> map,
+                                        Class<?> clazz, String name) {
+        Map<String, MethodWrapper> methods = map.get(clazz);
+        return methods == null ? null : methods.get(name);
+    }
+
+    private static void update(ConcurrentMap<Class<?>, ConcurrentMap<String, MethodWrapper>> map,
+                               Class<?> clazz, String name, Method method) {
         if (clazz == null || StringUtil.isBlank(name)) {
             throw new IllegalArgumentException("Bad argument");
         }
-        DEFAULT_FALLBACK_MAP.put(getKey(clazz, name), MethodWrapper.wrap(method));
+        getOrCreate(map, clazz).put(name, MethodWrapper.wrap(method));
     }
 
-    static void updateBlockHandlerFor(Class<?> clazz, String name, Method method) {
-        if (clazz == null || StringUtil.isBlank(name)) {
+    private static <K1, K2, V> ConcurrentMap<K2, V> getOrCreate(ConcurrentMap<K1, ConcurrentMap<K2, V>> map,
+                                                               K1 key) {
+        ConcurrentMap<K2, V> values = map.get(key);
+        if (values == null) {
+            ConcurrentMap<K2, V> newValues = new ConcurrentHashMap<>();
+            values = map.putIfAbsent(key, newValues);
+            if (values == null) {
+                values = newValues;
+            }
+        }
+        return values;
+    }
+
+    static SentinelResourceHandle lookupResourceHandle(Method method) {
+        return RESOURCE_HANDLE_MAP.get(method);
+    }
+
+    static void updateResourceHandleFor(Method method, SentinelResourceHandle handle) {
+        if (method == null || handle == null) {
             throw new IllegalArgumentException("Bad argument");
         }
-        BLOCK_HANDLER_MAP.put(getKey(clazz, name), MethodWrapper.wrap(method));
+        RESOURCE_HANDLE_MAP.put(method, handle);
+    }
+
+    static ResourceInvocationMetadata lookupInvocationMetadata(Method method, Class<?> targetClass) {
+        Map<Class<?>, ResourceInvocationMetadata> metadataMap = INVOCATION_METADATA_MAP.get(method);
+        return metadataMap == null ? null : metadataMap.get(targetClass);
     }
 
-    private static String getKey(Class<?> clazz, String name) {
-        return String.format("%s:%s", clazz.getCanonicalName(), name);
+    static void updateInvocationMetadataFor(Method method, Class<?> targetClass, ResourceInvocationMetadata metadata) {
+        if (method == null || targetClass == null || metadata == null) {
+            throw new IllegalArgumentException("Bad argument");
+        }
+        getOrCreate(INVOCATION_METADATA_MAP, method).put(targetClass, metadata);
     }
 
     /**
@@ -82,4 +130,18 @@ final class ResourceMetadataRegistry {
     static void clearBlockHandlerMap() {
         BLOCK_HANDLER_MAP.clear();
     }
+
+    /**
+     * Only for internal test.
+     */
+    static void clearResourceHandleMap() {
+        RESOURCE_HANDLE_MAP.clear();
+    }
+
+    /**
+     * Only for internal test.
+     */
+    static void clearInvocationMetadataMap() {
+        INVOCATION_METADATA_MAP.clear();
+    }
 }
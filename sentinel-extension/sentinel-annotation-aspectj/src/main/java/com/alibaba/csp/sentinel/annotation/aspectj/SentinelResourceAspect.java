@@ -16,7 +16,6 @@
 package com.alibaba.csp.sentinel.annotation.aspectj;
 
 import com.alibaba.csp.sentinel.Entry;
-import com.alibaba.csp.sentinel.EntryType;
 import com.alibaba.csp.sentinel.SphU;
 import com.alibaba.csp.sentinel.annotation.SentinelResource;
 import com.alibaba.csp.sentinel.slots.block.BlockException;
@@ -25,8 +24,6 @@ import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.annotation.Pointcut;
 
-import java.lang.reflect.Method;
-
 /**
  * Aspect for methods with {@link SentinelResource} annotation.
  *
@@ -41,38 +38,30 @@ public class SentinelResourceAspect extends AbstractSentinelAspectSupport {
 
     @Around("sentinelResourceAnnotationPointcut()")
     public Object invokeResourceWithSentinel(ProceedingJoinPoint pjp) throws Throwable {
-        Method originMethod = resolveMethod(pjp);
-
-        SentinelResource annotation = originMethod.getAnnotation(SentinelResource.class);
-        if (annotation == null) {
-            // Should not go through here.
-            throw new IllegalStateException("Wrong state for SentinelResource annotation");
-        }
-        String resourceName = getResourceName(annotation.value(), originMethod);
-        EntryType entryType = annotation.entryType();
-        int resourceType = annotation.resourceType();
+        ResourceInvocationMetadata metadata = getInvocationMetadata(pjp);
+        Object[] args = pjp.getArgs();
         Entry entry = null;
         try {
-            entry = SphU.entry(resourceName, resourceType, entryType, pjp.getArgs());
+            entry = SphU.entry(metadata.getResourceHandle(), 1, args);
             return pjp.proceed();
         } catch (BlockException ex) {
-            return handleBlockException(pjp, annotation, ex);
+            return handleBlockException(pjp, metadata, ex);
         } catch (Throwable ex) {
-            Class<? extends Throwable>[] exceptionsToIgnore = annotation.exceptionsToIgnore();
+            Class<? extends Throwable>[] exceptionsToIgnore = metadata.getExceptionsToIgnore();
             // The ignore list will be checked first.
             if (exceptionsToIgnore.length > 0 && exceptionBelongsTo(ex, exceptionsToIgnore)) {
                 throw ex;
             }
-            if (exceptionBelongsTo(ex, annotation.exceptionsToTrace())) {
+            if (exceptionBelongsTo(ex, metadata.getExceptionsToTrace())) {
                 traceException(ex);
-                return handleFallback(pjp, annotation, ex);
+                return handleFallback(pjp, metadata, ex);
             }
 
             // No fallback function can handle the exception, so throw it out.
             throw ex;
         } finally {
             if (entry != null) {
-                entry.exit(1, pjp.getArgs());
+                entry.exit(1, args);
             }
         }
     }
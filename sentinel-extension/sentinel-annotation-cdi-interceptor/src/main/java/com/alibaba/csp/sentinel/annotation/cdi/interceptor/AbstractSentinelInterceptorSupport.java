@@ -15,6 +15,7 @@
  */
 package com.alibaba.csp.sentinel.annotation.cdi.interceptor;
 
+import com.alibaba.csp.sentinel.SentinelResourceHandle;
 import com.alibaba.csp.sentinel.Tracer;
 import com.alibaba.csp.sentinel.annotation.SentinelResource;
 import com.alibaba.csp.sentinel.log.RecordLog;
@@ -80,6 +81,110 @@ public abstract class AbstractSentinelInterceptorSupport {
         return MethodUtil.resolveMethodName(method);
     }
 
+    /**
+     * Get the handle of the resource of the annotated method. The handle is resolved once
+     * for each method and kept in the {@link ResourceMetadataRegistry}.
+     *
+     * @param annotation the annotation of the method
+     * @param method     the annotated method
+     * @return the handle of the resource
+     * @since 1.8.7
+     */
+    protected SentinelResourceHandle getResourceHandle(SentinelResourceBinding annotation, /*@NonNull*/ Method method) {
+        SentinelResourceHandle handle = ResourceMetadataRegistry.lookupResourceHandle(method);
+        if (handle == null) {
+            handle = SentinelResourceHandle.of(getResourceName(annotation.value(), method),
+                annotation.resourceType(), annotation.entryType());
+            ResourceMetadataRegistry.updateResourceHandleFor(method, handle);
+        }
+        return handle;
+    }
+
+    /**
+     * Get the metadata of the invocation. The metadata is resolved once for each method and
+     * target class, and kept in the {@link ResourceMetadataRegistry}.
+     *
+     * @param ctx the invocation context
+     * @return the invocation metadata
+     * @since 1.8.7
+     */
+    ResourceInvocationMetadata getInvocationMetadata(InvocationContext ctx) {
+        Method method = ctx.getMethod();
+        Class<?> targetClass = ctx.getTarget().getClass();
+        ResourceInvocationMetadata metadata = ResourceMetadataRegistry.lookupInvocationMetadata(method, targetClass);
+        if (metadata == null) {
+            metadata = resolveInvocationMetadata(ctx);
+            ResourceMetadataRegistry.updateInvocationMetadataFor(method, targetClass, metadata);
+        }
+        return metadata;
+    }
+
+    private ResourceInvocationMetadata resolveInvocationMetadata(InvocationContext ctx) {
+        Method method = ctx.getMethod();
+        SentinelResourceBinding annotation = method.getAnnotation(SentinelResourceBinding.class);
+        if (annotation == null) {
+            // Should not go through here.
+            throw new IllegalStateException("Wrong state for SentinelResource annotation");
+        }
+        Method blockHandler = extractBlockHandlerMethod(ctx, annotation.blockHandler(),
+            annotation.blockHandlerClass());
+        Method fallback = extractFallbackMethod(ctx, annotation.fallback(), annotation.fallbackClass());
+        // The default fallback is used only when the fallback is absent.
+        Method defaultFallback = fallback != null ? null
+            : extractDefaultFallbackMethod(ctx, annotation.defaultFallback(), annotation.fallbackClass());
+        return new ResourceInvocationMetadata(method, annotation, getResourceHandle(annotation, method),
+            MethodHandleInvoker.of(blockHandler), MethodHandleInvoker.of(fallback),
+            MethodHandleInvoker.of(defaultFallback));
+    }
+
+    /**
+     * Handle the block exception with the resolved block handler, or go to the fallback if absent.
+     *
+     * @since 1.8.7
+     */
+    Object handleBlockException(InvocationContext ctx, ResourceInvocationMetadata metadata, BlockException ex)
+        throws Throwable {
+        MethodHandleInvoker blockHandler = metadata.getBlockHandler();
+        if (blockHandler != null) {
+            Object[] originArgs = ctx.getParameters();
+            // Construct args.
+            Object[] args = Arrays.copyOf(originArgs, originArgs.length + 1);
+            args[args.length - 1] = ex;
+            return blockHandler.invoke(ctx.getTarget(), args);
+        }
+        // If no block handler is present, then go to fallback.
+        return handleFallback(ctx, metadata, ex);
+    }
+
+    /**
+     * Handle the exception with the resolved fallback or default fallback, or throw it if both are absent.
+     *
+     * @since 1.8.7
+     */
+    Object handleFallback(InvocationContext ctx, ResourceInvocationMetadata metadata, Throwable ex)
+        throws Throwable {
+        MethodHandleInvoker fallback = metadata.getFallback();
+        if (fallback != null) {
+            Object[] originArgs = ctx.getParameters();
+            // Construct args.
+            Object[] args;
+            if (fallback.getParameterCount() == originArgs.length) {
+                args = originArgs;
+            } else {
+                args = Arrays.copyOf(originArgs, originArgs.length + 1);
+                args[args.length - 1] = ex;
+            }
+            return fallback.invoke(ctx.getTarget(), args);
+        }
+        MethodHandleInvoker defaultFallback = metadata.getDefaultFallback();
+        if (defaultFallback != null) {
+            Object[] args = defaultFallback.getParameterCount() == 0 ? new Object[0] : new Object[] {ex};
+            return defaultFallback.invoke(ctx.getTarget(), args);
+        }
+        // If no any fallback is present, then directly throw the exception.
+        throw ex;
+    }
+
     protected Object handleFallback(InvocationContext ctx, SentinelResourceBinding annotation, Throwable ex)
         throws Throwable {
         return handleFallback(ctx, annotation.fallback(), annotation.defaultFallback(), annotation.fallbackClass(), ex);
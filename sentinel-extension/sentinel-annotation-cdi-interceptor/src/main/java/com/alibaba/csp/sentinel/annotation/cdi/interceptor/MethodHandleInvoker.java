@@ -0,0 +1,98 @@
+/*
+ * Copyright 1999-2020 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.annotation.cdi.interceptor;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+/**
+ * Invoker of a resolved handler method (e.g. fallback or block handler), which is bound once
+ * to a {@link MethodHandle} taking the target and the argument array, so that the invocation
+ * needs neither access checks nor argument boxing into a reflective call.
+ *
+ * @since 1.8.7
+ */
+final class MethodHandleInvoker {
+
+    private static final MethodType INVOKER_TYPE = MethodType.methodType(Object.class, Object.class,
+        Object[].class);
+
+    private final Method method;
+    private final int parameterCount;
+    private final MethodHandle handle;
+
+    private MethodHandleInvoker(Method method, int parameterCount, MethodHandle handle) {
+        this.method = method;
+        this.parameterCount = parameterCount;
+        this.handle = handle;
+    }
+
+    /**
+     * @param method the method to invoke, null if absent
+     * @return the invoker of the method, or null if the method is absent
+     */
+    static MethodHandleInvoker of(Method method) {
+        if (method == null) {
+            return null;
+        }
+        makeAccessible(method);
+        MethodHandle handle;
+        try {
+            handle = MethodHandles.lookup().unreflect(method);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Cannot access method: " + method, e);
+        }
+        if (Modifier.isStatic(method.getModifiers())) {
+            // Ignore the target for static methods.
+            handle = MethodHandles.dropArguments(handle, 0, Object.class);
+        }
+        int parameterCount = method.getParameterTypes().length;
+        handle = handle.asSpreader(Object[].class, parameterCount).asType(INVOKER_TYPE);
+        return new MethodHandleInvoker(method, parameterCount, handle);
+    }
+
+    Object invoke(Object target, Object[] args) throws Throwable {
+        return (Object) handle.invokeExact(target, args);
+    }
+
+    Method getMethod() {
+        return method;
+    }
+
+    int getParameterCount() {
+        return parameterCount;
+    }
+
+    /**
+     * Make the given method accessible, explicitly setting it accessible if
+     * necessary. The {@code setAccessible(true)} method is only called
+     * when actually necessary, to avoid unnecessary conflicts with a JVM
+     * SecurityManager (if active).
+     *
+     * @param method the method to make accessible
+     * @see java.lang.reflect.Method#setAccessible
+     */
+    private static void makeAccessible(Method method) {
+        boolean isNotPublic = !Modifier.isPublic(method.getModifiers()) ||
+            !Modifier.isPublic(method.getDeclaringClass().getModifiers());
+        if (isNotPublic && !method.isAccessible()) {
+            method.setAccessible(true);
+        }
+    }
+}
@@ -16,7 +16,6 @@
 package com.alibaba.csp.sentinel.annotation.cdi.interceptor;
 
 import com.alibaba.csp.sentinel.Entry;
-import com.alibaba.csp.sentinel.EntryType;
 import com.alibaba.csp.sentinel.SphU;
 import com.alibaba.csp.sentinel.slots.block.BlockException;
 
@@ -36,38 +35,31 @@ public class SentinelResourceInterceptor extends AbstractSentinelInterceptorSupp
 
     @AroundInvoke
     Object aroundInvoke(InvocationContext ctx) throws Throwable {
-        SentinelResourceBinding annotation = ctx.getMethod().getAnnotation(SentinelResourceBinding.class);
-        if (annotation == null) {
-            // Should not go through here.
-            throw new IllegalStateException("Wrong state for SentinelResource annotation");
-        }
-
-        String resourceName = getResourceName(annotation.value(), ctx.getMethod());
-        EntryType entryType = annotation.entryType();
-        int resourceType = annotation.resourceType();
+        ResourceInvocationMetadata metadata = getInvocationMetadata(ctx);
+        Object[] args = ctx.getParameters();
         Entry entry = null;
         try {
-            entry = SphU.entry(resourceName, resourceType, entryType, ctx.getParameters());
+            entry = SphU.entry(metadata.getResourceHandle(), 1, args);
             Object result = ctx.proceed();
             return result;
         } catch (BlockException ex) {
-            return handleBlockException(ctx, annotation, ex);
+            return handleBlockException(ctx, metadata, ex);
         } catch (Throwable ex) {
-            Class<? extends Throwable>[] exceptionsToIgnore = annotation.exceptionsToIgnore();
+            Class<? extends Throwable>[] exceptionsToIgnore = metadata.getExceptionsToIgnore();
             // The ignore list will be checked first.
             if (exceptionsToIgnore.length > 0 && exceptionBelongsTo(ex, exceptionsToIgnore)) {
                 throw ex;
             }
-            if (exceptionBelongsTo(ex, annotation.exceptionsToTrace())) {
+            if (exceptionBelongsTo(ex, metadata.getExceptionsToTrace())) {
                 traceException(ex);
-                return handleFallback(ctx, annotation, ex);
+                return handleFallback(ctx, metadata, ex);
             }
 
             // No fallback function can handle the exception, so throw it out.
             throw ex;
         } finally {
             if (entry != null) {
-                entry.exit(1, ctx.getParameters());
+                entry.exit(1, args);
             }
         }
     }
@@ -0,0 +1,90 @@
+/*
+ * Copyright 1999-2020 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.annotation.cdi.interceptor;
+
+import org.junit.Test;
+
+import java.lang.reflect.Method;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+public class MethodHandleInvokerTest {
+
+    @Test
+    public void testAbsentMethod() {
+        assertThat(MethodHandleInvoker.of(null)).isNull();
+    }
+
+    @Test
+    public void testInvokeInstanceMethod() throws Throwable {
+        Method method = Handlers.class.getDeclaredMethod("concat", String.class, int.class, Throwable.class);
+        MethodHandleInvoker invoker = MethodHandleInvoker.of(method);
+        assertThat(invoker.getMethod()).isSameAs(method);
+        assertThat(invoker.getParameterCount()).isEqualTo(3);
+        Object result = invoker.invoke(new Handlers("pre-"), new Object[] {"a", 1, new RuntimeException("ex")});
+        assertThat(result).isEqualTo("pre-a1ex");
+    }
+
+    @Test
+    public void testInvokeStaticMethod() throws Throwable {
+        MethodHandleInvoker invoker = MethodHandleInvoker.of(Handlers.class.getDeclaredMethod("twice", int.class));
+        // The target is ignored for static methods.
+        assertThat(invoker.invoke(null, new Object[] {21})).isEqualTo(42);
+        assertThat(invoker.invoke(new Handlers(""), new Object[] {1})).isEqualTo(2);
+    }
+
+    @Test
+    public void testInvokeVoidMethod() throws Throwable {
+        MethodHandleInvoker invoker = MethodHandleInvoker.of(Handlers.class.getDeclaredMethod("noop"));
+        assertThat(invoker.invoke(new Handlers(""), new Object[0])).isNull();
+    }
+
+    @Test
+    public void testThrowActualException() throws Throwable {
+        MethodHandleInvoker invoker = MethodHandleInvoker.of(Handlers.class.getDeclaredMethod("fail"));
+        try {
+            invoker.invoke(null, new Object[0]);
+            fail("The exception should be thrown");
+        } catch (IllegalStateException ex) {
+            assertThat(ex).hasMessage("failed");
+        }
+    }
+
+    private static class Handlers {
+
+        private final String prefix;
+
+        Handlers(String prefix) {
+            this.prefix = prefix;
+        }
+
+        private String concat(String s, int i, Throwable ex) {
+            return prefix + s + i + ex.getMessage();
+        }
+
+        private static int twice(int i) {
+            return i * 2;
+        }
+
+        private void noop() {
+        }
+
+        private static Object fail() {
+            throw new IllegalStateException("failed");
+        }
+    }
+}
@@ -15,6 +15,7 @@
  */
 package com.alibaba.csp.sentinel.annotation.cdi.interceptor;
 
+import com.alibaba.csp.sentinel.SentinelResourceHandle;
 import com.alibaba.csp.sentinel.annotation.cdi.interceptor.integration.service.FooService;
 import org.junit.After;
 import org.junit.Before;
@@ -34,12 +35,14 @@ public class ResourceMetadataRegistryTest {
     public void setUp() throws Exception {
         ResourceMetadataRegistry.clearBlockHandlerMap();
         ResourceMetadataRegistry.clearFallbackMap();
+        ResourceMetadataRegistry.clearInvocationMetadataMap();
     }
 
     @After
     public void tearDown() throws Exception {
         ResourceMetadataRegistry.clearBlockHandlerMap();
         ResourceMetadataRegistry.clearFallbackMap();
+        ResourceMetadataRegistry.clearInvocationMetadataMap();
     }
 
     @Test
@@ -74,6 +77,21 @@ public class ResourceMetadataRegistryTest {
         assertThat(wrapper.getMethod()).isSameAs(method);
     }
 
+    @Test
+    public void testUpdateThenLookupInvocationMetadata() throws Exception {
+        Method method = FooService.class.getMethod("foo", int.class);
+        SentinelResourceBinding annotation = method.getAnnotation(SentinelResourceBinding.class);
+        ResourceInvocationMetadata metadata = new ResourceInvocationMetadata(method, annotation,
+            SentinelResourceHandle.of(method, annotation.resourceType(), annotation.entryType()), null, null, null);
+        assertThat(ResourceMetadataRegistry.lookupInvocationMetadata(method, FooService.class)).isNull();
+
+        ResourceMetadataRegistry.updateInvocationMetadataFor(method, FooService.class, metadata);
+        assertThat(ResourceMetadataRegistry.lookupInvocationMetadata(method, FooService.class))
+            .isSameAs(metadata);
+        // The metadata is resolved for each target class.
+        assertThat(ResourceMetadataRegistry.lookupInvocationMetadata(method, Object.class)).isNull();
+    }
+
     @Test(expected = IllegalArgumentException.class)
     public void testUpdateBlockHandlerBadArgument() {
         ResourceMetadataRegistry.updateBlockHandlerFor(null, "sxs", String.class.getMethods()[0]);
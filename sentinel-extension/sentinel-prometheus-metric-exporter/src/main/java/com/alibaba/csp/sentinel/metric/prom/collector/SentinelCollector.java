@@ -61,8 +61,8 @@ public class SentinelCollector extends Collector {
         if (searcher == null) {
             synchronized (lock) {
                 if (searcher == null) {
-                    searcher = new MetricSearcher(MetricWriter.METRIC_BASE_DIR,
-                            MetricWriter.formMetricFileName(SentinelConfig.getAppName(), PidUtil.getPid()));
+                    searcher = MetricSearcher.newSearcher(MetricWriter.METRIC_BASE_DIR,
+                            SentinelConfig.getAppName(), PidUtil.getPid());
                 }
                 RecordLog.warn("[SentinelCollector] init sentinel metrics searcher with appName:{}", appName);
                 lastFetchTime = System.currentTimeMillis() / ONE_SECOND * ONE_SECOND;
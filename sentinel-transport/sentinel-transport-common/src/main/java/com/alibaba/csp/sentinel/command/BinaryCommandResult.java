@@ -0,0 +1,64 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.command;
+
+/**
+ * <p>Raw result of a command, which should be written to the response body as-is by the command center
+ * rather than being converted to plain text via {@code toString()}.</p>
+ *
+ * <p>The content type and content encoding (e.g. {@code gzip}) are sent as the corresponding HTTP headers.</p>
+ *
+ * @since 1.8.7
+ */
+public class BinaryCommandResult {
+
+    private final byte[] data;
+    private final String contentType;
+    private final String contentEncoding;
+
+    public BinaryCommandResult(byte[] data, String contentType, String contentEncoding) {
+        if (data == null) {
+            throw new IllegalArgumentException("data cannot be null");
+        }
+        this.data = data;
+        this.contentType = contentType;
+        this.contentEncoding = contentEncoding;
+    }
+
+    public byte[] getData() {
+        return data;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    /**
+     * @return content encoding of the data, or null if the data is not encoded
+     */
+    public String getContentEncoding() {
+        return contentEncoding;
+    }
+
+    @Override
+    public String toString() {
+        return "BinaryCommandResult{" +
+            "length=" + data.length +
+            ", contentType='" + contentType + '\'' +
+            ", contentEncoding='" + contentEncoding + '\'' +
+            '}';
+    }
+}
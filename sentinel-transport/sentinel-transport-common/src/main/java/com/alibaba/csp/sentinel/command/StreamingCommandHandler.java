@@ -0,0 +1,47 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.command;
+
+/**
+ * <p>Command handler of a large text result, which can be written to the response incrementally as a
+ * {@link StreamingCommandResult} instead of being built as one big string.</p>
+ *
+ * <p>It's still a {@code CommandHandler<String>}: {@link #handle(CommandRequest)} renders the whole text, so the
+ * handler works with the interceptors and the command centers that don't support streaming as before. Command
+ * centers supporting streaming call {@link #handleStreaming(CommandRequest)} instead.</p>
+ *
+ * @since 1.8.7
+ */
+public abstract class StreamingCommandHandler implements CommandHandler<String> {
+
+    @Override
+    public CommandResponse<String> handle(CommandRequest request) {
+        CommandResponse<StreamingCommandResult> response = handleStreaming(request);
+        String text = response.getResult() == null ? null : response.getResult().toString();
+        if (!response.isSuccess()) {
+            return CommandResponse.ofFailure(response.getException(), text);
+        }
+        return CommandResponse.ofSuccess(text);
+    }
+
+    /**
+     * Handle the request, and return the result to be written when sending the response.
+     *
+     * @param request the command request
+     * @return the command response
+     */
+    public abstract CommandResponse<StreamingCommandResult> handleStreaming(CommandRequest request);
+}
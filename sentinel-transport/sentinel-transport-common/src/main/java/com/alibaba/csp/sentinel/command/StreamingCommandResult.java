@@ -0,0 +1,53 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.command;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+
+/**
+ * <p>Text result of a command that is written to the response incrementally, instead of being built as
+ * one big string. It's useful for large results like the whole node tree: the command center calls
+ * {@link #writeTo(Writer)} when sending the response, and the content is sent in chunks as it's written.</p>
+ *
+ * <p>The text is encoded with the configured charset of Sentinel. Command centers (and interceptors)
+ * that don't support streaming may use {@link #toString()}, which renders the whole content.</p>
+ *
+ * @since 1.8.7
+ */
+public abstract class StreamingCommandResult {
+
+    /**
+     * Write the content to the given writer. It's called once, by the thread that sends the response.
+     *
+     * @param writer writer of the response body, which should not be closed by the implementation
+     * @throws IOException if failed to write the response, e.g. the connection has been closed
+     */
+    public abstract void writeTo(Writer writer) throws IOException;
+
+    @Override
+    public String toString() {
+        StringWriter writer = new StringWriter();
+        try {
+            writeTo(writer);
+        } catch (IOException e) {
+            // Never happens when writing to a string.
+            throw new IllegalStateException(e);
+        }
+        return writer.toString();
+    }
+}
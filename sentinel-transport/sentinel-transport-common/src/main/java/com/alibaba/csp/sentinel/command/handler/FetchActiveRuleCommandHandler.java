@@ -15,9 +15,14 @@
  */
 package com.alibaba.csp.sentinel.command.handler;
 
-import com.alibaba.csp.sentinel.command.CommandHandler;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+
 import com.alibaba.csp.sentinel.command.CommandRequest;
 import com.alibaba.csp.sentinel.command.CommandResponse;
+import com.alibaba.csp.sentinel.command.StreamingCommandHandler;
+import com.alibaba.csp.sentinel.command.StreamingCommandResult;
 import com.alibaba.csp.sentinel.command.annotation.CommandMapping;
 import com.alibaba.csp.sentinel.slots.block.authority.AuthorityRuleManager;
 import com.alibaba.csp.sentinel.slots.block.degrade.DegradeRuleManager;
@@ -29,22 +34,32 @@ import com.alibaba.fastjson.JSON;
  * @author jialiang.linjl
  */
 @CommandMapping(name = "getRules", desc = "get all active rules by type, request param: type={ruleType}")
-public class FetchActiveRuleCommandHandler implements CommandHandler<String> {
+public class FetchActiveRuleCommandHandler extends StreamingCommandHandler {
 
     @Override
-    public CommandResponse<String> handle(CommandRequest request) {
+    public CommandResponse<StreamingCommandResult> handleStreaming(CommandRequest request) {
         String type = request.getParam("type");
         if ("flow".equalsIgnoreCase(type)) {
-            return CommandResponse.ofSuccess(JSON.toJSONString(FlowRuleManager.getRules()));
+            return ofRules(FlowRuleManager.getRules());
         } else if ("degrade".equalsIgnoreCase(type)) {
-            return CommandResponse.ofSuccess(JSON.toJSONString(DegradeRuleManager.getRules()));
+            return ofRules(DegradeRuleManager.getRules());
         } else if ("authority".equalsIgnoreCase(type)) {
-            return CommandResponse.ofSuccess(JSON.toJSONString(AuthorityRuleManager.getRules()));
+            return ofRules(AuthorityRuleManager.getRules());
         } else if ("system".equalsIgnoreCase(type)) {
-            return CommandResponse.ofSuccess(JSON.toJSONString(SystemRuleManager.getRules()));
+            return ofRules(SystemRuleManager.getRules());
         } else {
             return CommandResponse.ofFailure(new IllegalArgumentException("invalid type"));
         }
     }
 
+    private static CommandResponse<StreamingCommandResult> ofRules(final List<?> rules) {
+        return CommandResponse.<StreamingCommandResult>ofSuccess(new StreamingCommandResult() {
+            @Override
+            public void writeTo(Writer writer) throws IOException {
+                JSON.writeJSONString(writer, rules);
+                writer.flush();
+            }
+        });
+    }
+
 }
@@ -15,42 +15,51 @@
  */
 package com.alibaba.csp.sentinel.command.handler;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.io.IOException;
+import java.io.Writer;
 
 import com.alibaba.csp.sentinel.Constants;
-import com.alibaba.csp.sentinel.command.CommandHandler;
 import com.alibaba.csp.sentinel.command.CommandRequest;
 import com.alibaba.csp.sentinel.command.CommandResponse;
+import com.alibaba.csp.sentinel.command.StreamingCommandHandler;
+import com.alibaba.csp.sentinel.command.StreamingCommandResult;
 import com.alibaba.csp.sentinel.command.annotation.CommandMapping;
 import com.alibaba.csp.sentinel.node.DefaultNode;
 import com.alibaba.csp.sentinel.node.Node;
 import com.alibaba.csp.sentinel.command.vo.NodeVo;
 
-import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.JSONWriter;
 
 /**
  * @author leyou
  */
 @CommandMapping(name = "jsonTree", desc = "get tree node VO start from root node")
-public class FetchJsonTreeCommandHandler implements CommandHandler<String> {
+public class FetchJsonTreeCommandHandler extends StreamingCommandHandler {
 
     @Override
-    public CommandResponse<String> handle(CommandRequest request) {
-        List<NodeVo> results = new ArrayList<NodeVo>();
-        visit(Constants.ROOT, results, null);
-        return CommandResponse.ofSuccess(JSON.toJSONString(results));
+    public CommandResponse<StreamingCommandResult> handleStreaming(CommandRequest request) {
+        // The nodes are written one by one when sending the response, rather than collected in a list.
+        return CommandResponse.<StreamingCommandResult>ofSuccess(new StreamingCommandResult() {
+            @Override
+            public void writeTo(Writer writer) throws IOException {
+                JSONWriter jsonWriter = new JSONWriter(writer);
+                jsonWriter.startArray();
+                visit(Constants.ROOT, jsonWriter, null);
+                jsonWriter.endArray();
+                jsonWriter.flush();
+            }
+        });
     }
 
     /**
      * Preorder traversal.
      */
-    private void visit(DefaultNode node, List<NodeVo> results, String parentId) {
+    private void visit(DefaultNode node, JSONWriter writer, String parentId) {
         NodeVo vo = NodeVo.fromDefaultNode(node, parentId);
-        results.add(vo);
+        writer.writeValue(vo);
         String id = vo.getId();
         for (Node n : node.getChildList()) {
-            visit((DefaultNode)n, results, id);
+            visit((DefaultNode)n, writer, id);
         }
     }
 }
@@ -15,47 +15,50 @@
  */
 package com.alibaba.csp.sentinel.command.handler;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.io.IOException;
+import java.io.Writer;
 import java.util.Map;
 
-import com.alibaba.csp.sentinel.command.CommandHandler;
 import com.alibaba.csp.sentinel.command.CommandRequest;
 import com.alibaba.csp.sentinel.command.CommandResponse;
+import com.alibaba.csp.sentinel.command.StreamingCommandHandler;
+import com.alibaba.csp.sentinel.command.StreamingCommandResult;
 import com.alibaba.csp.sentinel.command.annotation.CommandMapping;
 import com.alibaba.csp.sentinel.node.ClusterNode;
 import com.alibaba.csp.sentinel.command.vo.NodeVo;
 import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
 import com.alibaba.csp.sentinel.slots.clusterbuilder.ClusterBuilderSlot;
-import com.alibaba.fastjson.JSONArray;
+import com.alibaba.fastjson.JSONWriter;
 
 /**
  * @author jialiang.linjl
  */
 @CommandMapping(name = "clusterNode", desc = "get all clusterNode VO, use type=notZero to ignore those nodes with totalRequest <=0")
-public class FetchSimpleClusterNodeCommandHandler implements CommandHandler<String> {
+public class FetchSimpleClusterNodeCommandHandler extends StreamingCommandHandler {
 
     @Override
-    public CommandResponse<String> handle(CommandRequest request) {
+    public CommandResponse<StreamingCommandResult> handleStreaming(CommandRequest request) {
         /*
          * type==notZero means nodes whose totalRequest <= 0 will be ignored.
          */
-        String type = request.getParam("type");
-        List<NodeVo> list = new ArrayList<NodeVo>();
-        Map<ResourceWrapper, ClusterNode> map = ClusterBuilderSlot.getClusterNodeMap();
-        if (map == null) {
-            return CommandResponse.ofSuccess(JSONArray.toJSONString(list));
-        }
-        for (Map.Entry<ResourceWrapper, ClusterNode> entry : map.entrySet()) {
-            if ("notZero".equalsIgnoreCase(type)) {
-                if (entry.getValue().totalRequest() > 0) {
-                    list.add(NodeVo.fromClusterNode(entry.getKey(), entry.getValue()));
+        final boolean notZero = "notZero".equalsIgnoreCase(request.getParam("type"));
+        return CommandResponse.<StreamingCommandResult>ofSuccess(new StreamingCommandResult() {
+            @Override
+            public void writeTo(Writer writer) throws IOException {
+                JSONWriter jsonWriter = new JSONWriter(writer);
+                jsonWriter.startArray();
+                Map<ResourceWrapper, ClusterNode> map = ClusterBuilderSlot.getClusterNodeMap();
+                if (map != null) {
+                    for (Map.Entry<ResourceWrapper, ClusterNode> entry : map.entrySet()) {
+                        if (!notZero || entry.getValue().totalRequest() > 0) {
+                            jsonWriter.writeValue(NodeVo.fromClusterNode(entry.getKey(), entry.getValue()));
+                        }
+                    }
                 }
-            } else {
-                list.add(NodeVo.fromClusterNode(entry.getKey(), entry.getValue()));
+                jsonWriter.endArray();
+                jsonWriter.flush();
             }
-        }
-        return CommandResponse.ofSuccess(JSONArray.toJSONString(list));
+        });
     }
 
 }
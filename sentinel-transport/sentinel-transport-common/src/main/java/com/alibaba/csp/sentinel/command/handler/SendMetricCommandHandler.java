@@ -15,7 +15,6 @@
  */
 package com.alibaba.csp.sentinel.command.handler;
 
-import java.util.ArrayList;
 import java.util.List;
 
 import com.alibaba.csp.sentinel.Constants;
@@ -31,6 +30,7 @@ import com.alibaba.csp.sentinel.slots.system.SystemRuleManager;
 import com.alibaba.csp.sentinel.util.PidUtil;
 import com.alibaba.csp.sentinel.util.StringUtil;
 import com.alibaba.csp.sentinel.util.TimeUtil;
+import com.alibaba.csp.sentinel.util.function.Consumer;
 
 /**
  * Retrieve and aggregate {@link MetricNode} metrics.
@@ -56,8 +56,7 @@ public class SendMetricCommandHandler implements CommandHandler<String> {
                     appName = "";
                 }
                 if (searcher == null) {
-                    searcher = new MetricSearcher(MetricWriter.METRIC_BASE_DIR,
-                        MetricWriter.formMetricFileName(appName, PidUtil.getPid()));
+                    searcher = MetricSearcher.newSearcher(MetricWriter.METRIC_BASE_DIR, appName, PidUtil.getPid());
                 }
             }
         }
@@ -72,12 +71,19 @@ public class SendMetricCommandHandler implements CommandHandler<String> {
         } else {
             return CommandResponse.ofSuccess("");
         }
-        List<MetricNode> list;
+        final StringBuilder sb = new StringBuilder();
+        List<MetricNode> list = null;
         try {
             // Find by end time if set.
             if (StringUtil.isNotBlank(endTimeStr)) {
                 long endTime = Long.parseLong(endTimeStr);
-                list = searcher.findByTimeAndResource(startTime, endTime, identity);
+                // Append the nodes as they are found, rather than collecting them first.
+                searcher.findByTimeAndResource(startTime, endTime, identity, new Consumer<MetricNode>() {
+                    @Override
+                    public void accept(MetricNode node) {
+                        appendNode(sb, node);
+                    }
+                });
             } else {
                 if (StringUtil.isNotBlank(maxLinesStr)) {
                     maxLines = Integer.parseInt(maxLinesStr);
@@ -88,35 +94,37 @@ public class SendMetricCommandHandler implements CommandHandler<String> {
         } catch (Exception ex) {
             return CommandResponse.ofFailure(new RuntimeException("Error when retrieving metrics", ex));
         }
-        if (list == null) {
-            list = new ArrayList<>();
+        if (list != null) {
+            for (MetricNode node : list) {
+                appendNode(sb, node);
+            }
         }
         if (StringUtil.isBlank(identity)) {
-            addCpuUsageAndLoad(list);
-        }
-        StringBuilder sb = new StringBuilder();
-        for (MetricNode node : list) {
-            sb.append(node.toThinString()).append("\n");
+            addCpuUsageAndLoad(sb);
         }
         return CommandResponse.ofSuccess(sb.toString());
     }
 
+    private static void appendNode(StringBuilder sb, MetricNode node) {
+        sb.append(node.toThinString()).append("\n");
+    }
+
     /**
-     * add current cpu usage and load to the metric list.
+     * add current cpu usage and load to the metric result.
      *
-     * @param list metric list, should not be null
+     * @param sb metric result, should not be null
      */
-    private void addCpuUsageAndLoad(List<MetricNode> list) {
+    private void addCpuUsageAndLoad(StringBuilder sb) {
         long time = TimeUtil.currentTimeMillis() / 1000 * 1000;
         double load = SystemRuleManager.getCurrentSystemAvgLoad();
         double usage = SystemRuleManager.getCurrentCpuUsage();
         if (load > 0) {
             MetricNode loadNode = toNode(load, time, Constants.SYSTEM_LOAD_RESOURCE_NAME);
-            list.add(loadNode);
+            appendNode(sb, loadNode);
         }
         if (usage > 0) {
             MetricNode usageNode = toNode(usage, time, Constants.CPU_USAGE_RESOURCE_NAME);
-            list.add(usageNode);
+            appendNode(sb, usageNode);
         }
     }
 
@@ -0,0 +1,240 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.command.handler;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.zip.GZIPOutputStream;
+
+import com.alibaba.csp.sentinel.Constants;
+import com.alibaba.csp.sentinel.command.BinaryCommandResult;
+import com.alibaba.csp.sentinel.command.CommandHandler;
+import com.alibaba.csp.sentinel.command.CommandRequest;
+import com.alibaba.csp.sentinel.command.CommandResponse;
+import com.alibaba.csp.sentinel.command.annotation.CommandMapping;
+import com.alibaba.csp.sentinel.config.SentinelConfig;
+import com.alibaba.csp.sentinel.node.metric.MetricNode;
+import com.alibaba.csp.sentinel.node.metric.MetricSearcher;
+import com.alibaba.csp.sentinel.node.metric.MetricWriter;
+import com.alibaba.csp.sentinel.slots.system.SystemRuleManager;
+import com.alibaba.csp.sentinel.transport.util.CompactMetricCodec;
+import com.alibaba.csp.sentinel.transport.util.HttpCommandUtils;
+import com.alibaba.csp.sentinel.util.PidUtil;
+import com.alibaba.csp.sentinel.util.StringUtil;
+import com.alibaba.csp.sentinel.util.TimeUtil;
+import com.alibaba.csp.sentinel.util.function.Consumer;
+
+/**
+ * <p>Incremental version of the {@code metric} command.</p>
+ *
+ * <p>The client may pull the metrics with a cursor: {@code cursor={cursor}&maxSeconds={maxSeconds}}.
+ * The command returns metrics from the cursor (inclusive) up to {@code maxSeconds} seconds, but never the
+ * latest {@link #SAFE_DELAY_MS} ms which may not be completely written yet, together with the next cursor.
+ * A time range can also be given as in the v1 command: {@code startTime={startTime}&endTime={endTime}}, which is
+ * cut to at most {@link #MAX_SECONDS_LIMIT} seconds as the response is built in memory. The client should
+ * continue from the returned cursor.</p>
+ *
+ * <p>Only non-zero metric nodes are returned. The response is in the thin text format with the next cursor
+ * in the first line, unless the client negotiates with the request headers:</p>
+ * <ul>
+ * <li>{@code Accept: application/x-sentinel-metric-v2}: encoded with {@link CompactMetricCodec}</li>
+ * <li>{@code Accept-Encoding: gzip}: gzip compressed</li>
+ * </ul>
+ *
+ * @since 1.8.7
+ */
+@CommandMapping(name = "metric/v2", desc = "get metrics incrementally, accept param: "
+    + "cursor={cursor}&maxSeconds={maxSeconds} or startTime={startTime}&endTime={endTime}, "
+    + "and identity={resourceName}")
+public class SendMetricV2CommandHandler implements CommandHandler<Object> {
+
+    static final long SAFE_DELAY_MS = 2000;
+    static final int DEFAULT_MAX_SECONDS = 60;
+    static final int MAX_SECONDS_LIMIT = 600;
+
+    private static final String TEXT_CONTENT_TYPE = "text/plain; charset=" + SentinelConfig.charset();
+
+    private volatile MetricSearcher searcher;
+
+    private final Object lock = new Object();
+
+    public SendMetricV2CommandHandler() {}
+
+    SendMetricV2CommandHandler(MetricSearcher searcher) {
+        this.searcher = searcher;
+    }
+
+    @Override
+    public CommandResponse<Object> handle(CommandRequest request) {
+        if (searcher == null) {
+            synchronized (lock) {
+                String appName = SentinelConfig.getAppName();
+                if (appName == null) {
+                    appName = "";
+                }
+                if (searcher == null) {
+                    searcher = MetricSearcher.newSearcher(MetricWriter.METRIC_BASE_DIR, appName, PidUtil.getPid());
+                }
+            }
+        }
+        long beginTime;
+        long endTime;
+        try {
+            String cursorStr = request.getParam("cursor");
+            String startTimeStr = request.getParam("startTime");
+            long latest = TimeUtil.currentTimeMillis() / 1000 * 1000 - SAFE_DELAY_MS - 1;
+            if (StringUtil.isNotBlank(cursorStr)) {
+                beginTime = Long.parseLong(cursorStr) / 1000 * 1000;
+                int maxSeconds = Integer.parseInt(request.getParam("maxSeconds", String.valueOf(DEFAULT_MAX_SECONDS)));
+                maxSeconds = Math.max(1, Math.min(maxSeconds, MAX_SECONDS_LIMIT));
+                endTime = Math.min(beginTime + maxSeconds * 1000L - 1, latest);
+            } else if (StringUtil.isNotBlank(startTimeStr)) {
+                beginTime = Long.parseLong(startTimeStr);
+                String endTimeStr = request.getParam("endTime");
+                endTime = StringUtil.isNotBlank(endTimeStr) ? Long.parseLong(endTimeStr) : latest;
+                endTime = Math.min(endTime, beginTime / 1000 * 1000 + MAX_SECONDS_LIMIT * 1000L - 1);
+            } else {
+                return CommandResponse.ofFailure(new IllegalArgumentException("cursor or startTime is required"));
+            }
+        } catch (NumberFormatException ex) {
+            return CommandResponse.ofFailure(new IllegalArgumentException("Bad parameter: " + ex.getMessage()));
+        }
+        String identity = request.getParam("identity");
+        // Next cursor is the beginning of the second after endTime.
+        long nextCursor = endTime < beginTime ? beginTime : endTime / 1000 * 1000 + 1000;
+
+        boolean binary = HttpCommandUtils.accepts(request, CompactMetricCodec.CONTENT_TYPE);
+        boolean gzip = HttpCommandUtils.acceptsGzip(request);
+        try {
+            ByteArrayOutputStream bos = new ByteArrayOutputStream(4096);
+            OutputStream out = gzip ? new GZIPOutputStream(bos, 8192) : bos;
+            MetricNodeSink sink = binary ? new CompactSink(out, nextCursor) : new TextSink(out, nextCursor);
+            if (endTime >= beginTime) {
+                searcher.findByTimeAndResource(beginTime, endTime, identity, sink);
+                if (StringUtil.isBlank(identity)) {
+                    addCpuUsageAndLoad(sink, endTime);
+                }
+            }
+            sink.close();
+            byte[] data = bos.toByteArray();
+            if (!binary && !gzip) {
+                return CommandResponse.<Object>ofSuccess(new String(data, SentinelConfig.charset()));
+            }
+            return CommandResponse.<Object>ofSuccess(new BinaryCommandResult(data,
+                binary ? CompactMetricCodec.CONTENT_TYPE : TEXT_CONTENT_TYPE,
+                gzip ? HttpCommandUtils.CONTENT_ENCODING_GZIP : null));
+        } catch (Exception ex) {
+            return CommandResponse.ofFailure(new RuntimeException("Error when retrieving metrics", ex));
+        }
+    }
+
+    private void addCpuUsageAndLoad(MetricNodeSink sink, long endTime) {
+        long time = endTime / 1000 * 1000;
+        double load = SystemRuleManager.getCurrentSystemAvgLoad();
+        double usage = SystemRuleManager.getCurrentCpuUsage();
+        if (load > 0) {
+            sink.accept(toNode(load, time, Constants.SYSTEM_LOAD_RESOURCE_NAME));
+        }
+        if (usage > 0) {
+            sink.accept(toNode(usage, time, Constants.CPU_USAGE_RESOURCE_NAME));
+        }
+    }
+
+    /**
+     * Same as {@code SendMetricCommandHandler}, the value is multiplied by 10000 as the pass QPS.
+     */
+    private MetricNode toNode(double value, long ts, String resource) {
+        MetricNode node = new MetricNode();
+        node.setPassQps((long)(value * 10000));
+        node.setTimestamp(ts);
+        node.setResource(resource);
+        return node;
+    }
+
+    static boolean isZero(MetricNode node) {
+        return node.getPassQps() == 0 && node.getBlockQps() == 0 && node.getSuccessQps() == 0
+            && node.getExceptionQps() == 0 && node.getRt() == 0 && node.getOccupiedPassQps() == 0
+            && node.getConcurrency() == 0;
+    }
+
+    private abstract static class MetricNodeSink implements Consumer<MetricNode> {
+
+        @Override
+        public void accept(MetricNode node) {
+            if (isZero(node)) {
+                return;
+            }
+            try {
+                write(node);
+            } catch (IOException ex) {
+                // Only in-memory streams are used here.
+                throw new IllegalStateException(ex);
+            }
+        }
+
+        abstract void write(MetricNode node) throws IOException;
+
+        abstract void close() throws IOException;
+    }
+
+    private static final class TextSink extends MetricNodeSink {
+
+        private final Writer writer;
+
+        TextSink(OutputStream out, long nextCursor) throws IOException {
+            this.writer = new OutputStreamWriter(out, Charset.forName(SentinelConfig.charset()));
+            writer.write(String.valueOf(nextCursor));
+            writer.write('\n');
+        }
+
+        @Override
+        void write(MetricNode node) throws IOException {
+            writer.write(node.toThinString());
+            writer.write('\n');
+        }
+
+        @Override
+        void close() throws IOException {
+            writer.close();
+        }
+    }
+
+    private static final class CompactSink extends MetricNodeSink {
+
+        private final OutputStream out;
+        private final CompactMetricCodec.Encoder encoder;
+
+        CompactSink(OutputStream out, long nextCursor) throws IOException {
+            this.out = out;
+            this.encoder = new CompactMetricCodec.Encoder(out, nextCursor);
+        }
+
+        @Override
+        void write(MetricNode node) throws IOException {
+            encoder.write(node);
+        }
+
+        @Override
+        void close() throws IOException {
+            encoder.flush();
+            out.close();
+        }
+    }
+}
@@ -40,6 +40,24 @@ public class TransportConfig {
 
     public static final String HEARTBEAT_DEFAULT_PATH = "/registry/machine";
 
+    /**
+     * Whether to push the metrics to the dashboard through a streaming connection, false by default.
+     *
+     * @since 1.8.7
+     */
+    public static final String METRIC_PUSH_ENABLED = "csp.sentinel.metric.push.enabled";
+    public static final String METRIC_PUSH_API_PATH = "csp.sentinel.metric.push.api.path";
+
+    public static final String METRIC_PUSH_DEFAULT_PATH = "/metric/push";
+
+    /**
+     * Whether the simple HTTP command center serves with the non-blocking (NIO) server, true by default.
+     * Set to false to fall back to the legacy blocking server that closes the connection after each request.
+     *
+     * @since 1.8.7
+     */
+    public static final String SERVER_NIO_ENABLED = "csp.sentinel.api.nio.enabled";
+
     private static int runtimePort = -1;
 
     /**
@@ -183,4 +201,38 @@ public class TransportConfig {
         }
         return apiPath;
     }
+
+    /**
+     * @return whether to push the metrics to the dashboard
+     * @since 1.8.7
+     */
+    public static boolean isMetricPushEnabled() {
+        return Boolean.parseBoolean(SentinelConfig.getConfig(METRIC_PUSH_ENABLED));
+    }
+
+    /**
+     * Get the metric push api path of the dashboard.
+     *
+     * @return the metric push api path
+     * @since 1.8.7
+     */
+    public static String getMetricPushApiPath() {
+        String apiPath = SentinelConfig.getConfig(METRIC_PUSH_API_PATH);
+        if (StringUtil.isBlank(apiPath)) {
+            return METRIC_PUSH_DEFAULT_PATH;
+        }
+        if (!apiPath.startsWith("/")) {
+            apiPath = "/" + apiPath;
+        }
+        return apiPath;
+    }
+
+    /**
+     * @return whether the command center should use the non-blocking server
+     * @since 1.8.7
+     */
+    public static boolean isServerNioEnabled() {
+        String enabled = SentinelConfig.getConfig(SERVER_NIO_ENABLED);
+        return StringUtil.isBlank(enabled) || Boolean.parseBoolean(enabled.trim());
+    }
 }
@@ -0,0 +1,258 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.transport.heartbeat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.net.ssl.HttpsURLConnection;
+
+import com.alibaba.csp.sentinel.Constants;
+import com.alibaba.csp.sentinel.concurrent.NamedThreadFactory;
+import com.alibaba.csp.sentinel.config.SentinelConfig;
+import com.alibaba.csp.sentinel.log.RecordLog;
+import com.alibaba.csp.sentinel.node.metric.MetricFlushListener;
+import com.alibaba.csp.sentinel.node.metric.MetricNode;
+import com.alibaba.csp.sentinel.node.metric.MetricTimerListener;
+import com.alibaba.csp.sentinel.transport.config.TransportConfig;
+import com.alibaba.csp.sentinel.transport.endpoint.Endpoint;
+import com.alibaba.csp.sentinel.transport.endpoint.Protocol;
+import com.alibaba.csp.sentinel.transport.ssl.SslFactory;
+import com.alibaba.csp.sentinel.transport.util.CompactMetricCodec;
+import com.alibaba.csp.sentinel.util.StringUtil;
+import com.alibaba.csp.sentinel.util.TimeUtil;
+
+/**
+ * <p>Pushes the metrics to the dashboard through a long-lived streaming HTTP request, instead of waiting for
+ * the dashboard to pull them. Each time the metrics are flushed (see {@link MetricFlushListener}), they are
+ * encoded into a frame (see {@link CompactMetricCodec#STREAM_CONTENT_TYPE}) and sent as a chunk of the
+ * request body, so the dashboard receives the metrics of each second as soon as they are written.</p>
+ *
+ * <p>The request is re-established periodically so that the dashboard addresses can be balanced. If the
+ * dashboard doesn't support metric push, pushing is paused for a while and the dashboard keeps pulling
+ * the metrics as usual. Frames are dropped rather than piling up when the dashboard can't keep up.</p>
+ *
+ * @since 1.8.7
+ */
+public class MetricPushSender implements MetricFlushListener {
+
+    static final int MAX_PENDING_FRAMES = 16;
+    static final long STREAM_LIFETIME_MS = 60 * 1000;
+    static final long RETRY_INTERVAL_MS = 10 * 1000;
+    static final long UNSUPPORTED_RETRY_INTERVAL_MS = 10 * 60 * 1000;
+    private static final int CONNECT_TIMEOUT_MS = 3000;
+    private static final int READ_TIMEOUT_MS = 3000;
+
+    private static final MetricPushSender INSTANCE = new MetricPushSender();
+    private static final AtomicBoolean started = new AtomicBoolean(false);
+
+    private final BlockingQueue<byte[]> frames = new ArrayBlockingQueue<byte[]>(MAX_PENDING_FRAMES);
+    private final AtomicLong droppedFrameCount = new AtomicLong();
+
+    private HttpURLConnection connection;
+    private DataOutputStream out;
+    private long connectedTime;
+    private int endpointIndex = 0;
+    /**
+     * Frames are dropped until this time after failures.
+     */
+    private long pausedUntil = 0;
+
+    /**
+     * Start pushing the metrics if enabled in config (see {@link TransportConfig#METRIC_PUSH_ENABLED}).
+     */
+    public static void startIfEnabled() {
+        if (!TransportConfig.isMetricPushEnabled() || !started.compareAndSet(false, true)) {
+            return;
+        }
+        MetricTimerListener.addFlushListener(INSTANCE);
+        new NamedThreadFactory("sentinel-metric-push-sender", true).newThread(new Runnable() {
+            @Override
+            public void run() {
+                INSTANCE.pushLoop();
+            }
+        }).start();
+        RecordLog.info("[MetricPushSender] Metric push started");
+    }
+
+    @Override
+    public void onFlush(Map<Long, List<MetricNode>> metrics) {
+        byte[] frame;
+        try {
+            frame = encode(metrics);
+        } catch (IOException e) {
+            // Never happens as it's written to memory.
+            return;
+        }
+        if (frame != null && !frames.offer(frame)) {
+            long dropped = droppedFrameCount.incrementAndGet();
+            if (dropped % 60 == 1) {
+                RecordLog.warn("[MetricPushSender] Metric push can't keep up, dropped frames: {}", dropped);
+            }
+        }
+    }
+
+    static byte[] encode(Map<Long, List<MetricNode>> metrics) throws IOException {
+        if (metrics.isEmpty()) {
+            return null;
+        }
+        ByteArrayOutputStream bos = new ByteArrayOutputStream(1024);
+        CompactMetricCodec.Encoder encoder = new CompactMetricCodec.Encoder(bos, 0);
+        for (List<MetricNode> nodes : metrics.values()) {
+            for (MetricNode node : nodes) {
+                encoder.write(node);
+            }
+        }
+        encoder.flush();
+        return bos.toByteArray();
+    }
+
+    private void pushLoop() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                pushOnce(1000);
+            } catch (InterruptedException e) {
+                break;
+            }
+        }
+        closeQuietly();
+    }
+
+    /**
+     * Wait for a frame and push it, and re-establish the stream once it has lived long enough.
+     *
+     * @param timeoutMs max time to wait for a frame
+     */
+    void pushOnce(long timeoutMs) throws InterruptedException {
+        byte[] frame = frames.poll(timeoutMs, TimeUnit.MILLISECONDS);
+        long now = currentTimeMillis();
+        try {
+            if (connection != null && now - connectedTime >= STREAM_LIFETIME_MS) {
+                finishStream(now);
+            }
+            if (frame == null) {
+                return;
+            }
+            if (now < pausedUntil || connection == null && !openStream(now)) {
+                frames.clear();
+                return;
+            }
+            out.writeInt(frame.length);
+            out.write(frame);
+            // Each flush is sent as a chunk immediately.
+            out.flush();
+        } catch (Throwable e) {
+            RecordLog.warn("[MetricPushSender] Failed to push metrics to " + currentEndpoint(), e);
+            closeQuietly();
+            nextEndpoint();
+            pausedUntil = now + RETRY_INTERVAL_MS;
+        }
+    }
+
+    private boolean openStream(long now) throws IOException {
+        String port = TransportConfig.getPort();
+        Endpoint endpoint = currentEndpoint();
+        if (endpoint == null || StringUtil.isBlank(port)) {
+            // Not ready yet.
+            return false;
+        }
+        String path = TransportConfig.getMetricPushApiPath() + "?app=" + urlEncode(SentinelConfig.getAppName())
+            + "&ip=" + urlEncode(TransportConfig.getHeartbeatClientIp()) + "&port=" + port
+            + "&v=" + urlEncode(Constants.SENTINEL_VERSION);
+        URL url = new URL(endpoint.getProtocol() == Protocol.HTTPS ? "https" : "http", endpoint.getHost(),
+            endpoint.getPort(), path);
+        HttpURLConnection conn = (HttpURLConnection)url.openConnection();
+        if (conn instanceof HttpsURLConnection) {
+            ((HttpsURLConnection)conn).setSSLSocketFactory(SslFactory.getSslConnectionSocketFactory().getSocketFactory());
+        }
+        conn.setRequestMethod("POST");
+        conn.setDoOutput(true);
+        conn.setChunkedStreamingMode(0);
+        conn.setConnectTimeout(CONNECT_TIMEOUT_MS);
+        conn.setReadTimeout(READ_TIMEOUT_MS);
+        conn.setRequestProperty("Content-Type", CompactMetricCodec.STREAM_CONTENT_TYPE);
+        this.out = new DataOutputStream(conn.getOutputStream());
+        this.connection = conn;
+        this.connectedTime = now;
+        return true;
+    }
+
+    /**
+     * Complete the request and check the response of the dashboard.
+     */
+    private void finishStream(long now) throws IOException {
+        HttpURLConnection conn = connection;
+        try {
+            out.close();
+            int code = conn.getResponseCode();
+            if (code == HttpURLConnection.HTTP_NOT_FOUND) {
+                RecordLog.warn("[MetricPushSender] Dashboard {} doesn't support metric push, pause pushing",
+                    currentEndpoint());
+                pausedUntil = now + UNSUPPORTED_RETRY_INTERVAL_MS;
+            } else if (code != HttpURLConnection.HTTP_OK) {
+                RecordLog.warn("[MetricPushSender] Unexpected response code from dashboard {}: {}",
+                    currentEndpoint(), code);
+                nextEndpoint();
+            }
+        } finally {
+            closeQuietly();
+        }
+    }
+
+    private Endpoint currentEndpoint() {
+        List<Endpoint> endpoints = TransportConfig.getConsoleServerList();
+        if (endpoints.isEmpty()) {
+            return null;
+        }
+        return endpoints.get(endpointIndex % endpoints.size());
+    }
+
+    private void nextEndpoint() {
+        endpointIndex = (endpointIndex + 1) & Integer.MAX_VALUE;
+    }
+
+    private void closeQuietly() {
+        if (connection != null) {
+            connection.disconnect();
+        }
+        connection = null;
+        out = null;
+    }
+
+    private static String urlEncode(String value) throws UnsupportedEncodingException {
+        return URLEncoder.encode(value == null ? "" : value, SentinelConfig.charset());
+    }
+
+    long currentTimeMillis() {
+        return TimeUtil.currentTimeMillis();
+    }
+
+    long getDroppedFrameCount() {
+        return droppedFrameCount.get();
+    }
+}
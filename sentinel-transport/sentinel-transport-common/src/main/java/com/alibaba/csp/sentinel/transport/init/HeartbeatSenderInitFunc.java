@@ -28,6 +28,7 @@ import com.alibaba.csp.sentinel.init.InitOrder;
 import com.alibaba.csp.sentinel.log.RecordLog;
 import com.alibaba.csp.sentinel.transport.HeartbeatSender;
 import com.alibaba.csp.sentinel.transport.config.TransportConfig;
+import com.alibaba.csp.sentinel.transport.heartbeat.MetricPushSender;
 
 /**
  * Global init function for heartbeat sender.
@@ -59,6 +60,7 @@ public class HeartbeatSenderInitFunc implements InitFunc {
         long interval = retrieveInterval(sender);
         setIntervalIfNotExists(interval);
         scheduleHeartbeatTask(sender, interval);
+        MetricPushSender.startIfEnabled();
     }
 
     private boolean isValidHeartbeatInterval(Long interval) {
@@ -0,0 +1,109 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.transport.util;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+import com.alibaba.csp.sentinel.command.StreamingCommandResult;
+
+/**
+ * <p>Output stream used by the command centers to send a {@link StreamingCommandResult}. The bytes are
+ * buffered and passed to {@link #writeChunk(byte[], int, int)} each time the buffer is full.</p>
+ *
+ * <p>If the whole content fits in the buffer, no chunk is written at all, and the command center may send
+ * the buffered bytes ({@link #toByteArray()}) as a normal response with {@code Content-Length}. Otherwise
+ * it should call {@link #finish()} to write the remaining bytes when the content is complete.</p>
+ *
+ * @since 1.8.7
+ */
+public abstract class ChunkedOutputStream extends OutputStream {
+
+    public static final int DEFAULT_CHUNK_SIZE = 16 * 1024;
+
+    private final byte[] buffer;
+    private int count;
+    private boolean streaming;
+
+    protected ChunkedOutputStream() {
+        this(DEFAULT_CHUNK_SIZE);
+    }
+
+    protected ChunkedOutputStream(int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunkSize should be positive");
+        }
+        this.buffer = new byte[chunkSize];
+    }
+
+    /**
+     * Write a chunk of the content. The array is reused after this method returns,
+     * so the implementation should copy the bytes if they're sent asynchronously.
+     */
+    protected abstract void writeChunk(byte[] b, int off, int len) throws IOException;
+
+    @Override
+    public void write(int b) throws IOException {
+        if (count == buffer.length) {
+            writeBufferedChunk();
+        }
+        buffer[count++] = (byte)b;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        while (len > 0) {
+            if (count == buffer.length) {
+                writeBufferedChunk();
+            }
+            int n = Math.min(len, buffer.length - count);
+            System.arraycopy(b, off, buffer, count, n);
+            count += n;
+            off += n;
+            len -= n;
+        }
+    }
+
+    /**
+     * Write the remaining buffered bytes as the last chunk, if any chunk has been written.
+     */
+    public void finish() throws IOException {
+        if (streaming && count > 0) {
+            writeBufferedChunk();
+        }
+    }
+
+    /**
+     * @return whether any chunk has been written, i.e. the content doesn't fit in one chunk
+     */
+    public boolean isStreaming() {
+        return streaming;
+    }
+
+    /**
+     * @return the buffered bytes, which is the whole content if not {@link #isStreaming() streaming}
+     */
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buffer, count);
+    }
+
+    private void writeBufferedChunk() throws IOException {
+        streaming = true;
+        writeChunk(buffer, 0, count);
+        count = 0;
+    }
+}
@@ -0,0 +1,200 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.transport.util;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.alibaba.csp.sentinel.node.metric.MetricNode;
+import com.alibaba.csp.sentinel.util.function.Consumer;
+
+/**
+ * <p>Compact binary encoding of {@link MetricNode}s used by the {@code metric/v2} command.</p>
+ *
+ * <p>The stream starts with a header: {@code int magic, byte version, long nextCursor}. Then the records follow
+ * until the end of the stream, each of them is a sequence of variable-length integers:</p>
+ *
+ * <pre>
+ * timestampDelta   zigzag varint, difference from the timestamp of the previous record (or 0)
+ * resourceId       varint, index in the resource dictionary; if it equals to the current dictionary size,
+ *                  a new resource is defined here: varint length + UTF-8 name + varint classification
+ * passQps, blockQps, successQps, exceptionQps, rt, occupiedPassQps, concurrency
+ *                  zigzag varints
+ * </pre>
+ *
+ * <p>Since records are sorted by time and most of the values are small, a record usually takes about
+ * 10 bytes, while the thin text format takes more than 50 bytes.</p>
+ *
+ * @since 1.8.7
+ */
+public final class CompactMetricCodec {
+
+    public static final String CONTENT_TYPE = "application/x-sentinel-metric-v2";
+    /**
+     * Content type of the metric push stream, which is a sequence of frames. Each frame is an {@code int}
+     * length followed by the metrics of one flush encoded as described above.
+     */
+    public static final String STREAM_CONTENT_TYPE = "application/x-sentinel-metric-v2-stream";
+
+    private static final int MAGIC = 0x534D5632;
+    private static final byte VERSION = 1;
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    /**
+     * Streaming encoder. Not thread-safe.
+     */
+    public static final class Encoder {
+
+        private final DataOutputStream out;
+        private final Map<String, Integer> dictionary = new HashMap<String, Integer>();
+        private long lastTimestamp = 0;
+
+        public Encoder(OutputStream out, long nextCursor) throws IOException {
+            this.out = new DataOutputStream(out);
+            this.out.writeInt(MAGIC);
+            this.out.writeByte(VERSION);
+            this.out.writeLong(nextCursor);
+        }
+
+        public void write(MetricNode node) throws IOException {
+            writeSignedVarLong(out, node.getTimestamp() - lastTimestamp);
+            lastTimestamp = node.getTimestamp();
+
+            Integer id = dictionary.get(node.getResource());
+            if (id == null) {
+                id = dictionary.size();
+                dictionary.put(node.getResource(), id);
+                writeVarLong(out, id);
+                byte[] name = node.getResource().getBytes(UTF_8);
+                writeVarLong(out, name.length);
+                out.write(name);
+                writeSignedVarLong(out, node.getClassification());
+            } else {
+                writeVarLong(out, id);
+            }
+            writeSignedVarLong(out, node.getPassQps());
+            writeSignedVarLong(out, node.getBlockQps());
+            writeSignedVarLong(out, node.getSuccessQps());
+            writeSignedVarLong(out, node.getExceptionQps());
+            writeSignedVarLong(out, node.getRt());
+            writeSignedVarLong(out, node.getOccupiedPassQps());
+            writeSignedVarLong(out, node.getConcurrency());
+        }
+
+        public void flush() throws IOException {
+            out.flush();
+        }
+    }
+
+    /**
+     * Decode the metric nodes from the stream.
+     *
+     * @param in       the encoded stream, will be read to the end
+     * @param consumer consumer of the decoded nodes
+     * @return the next cursor carried in the header
+     * @throws IOException if the stream is broken or isn't encoded by {@link Encoder}
+     */
+    public static long decode(InputStream in, Consumer<MetricNode> consumer) throws IOException {
+        DataInputStream dataIn = new DataInputStream(in);
+        if (dataIn.readInt() != MAGIC) {
+            throw new IOException("Not a compact metric stream");
+        }
+        byte version = dataIn.readByte();
+        if (version != VERSION) {
+            throw new IOException("Unsupported compact metric version: " + version);
+        }
+        long nextCursor = dataIn.readLong();
+
+        List<String> resources = new ArrayList<String>();
+        List<Integer> classifications = new ArrayList<Integer>();
+        long timestamp = 0;
+        int first;
+        while ((first = dataIn.read()) >= 0) {
+            timestamp += zigzagDecode(readVarLong(dataIn, first));
+            int id = (int)readVarLong(dataIn, dataIn.readUnsignedByte());
+            if (id == resources.size()) {
+                byte[] name = new byte[(int)readVarLong(dataIn, dataIn.readUnsignedByte())];
+                dataIn.readFully(name);
+                resources.add(new String(name, UTF_8));
+                classifications.add((int)readSignedVarLong(dataIn));
+            } else if (id > resources.size()) {
+                throw new IOException("Bad resource id: " + id);
+            }
+            MetricNode node = new MetricNode();
+            node.setTimestamp(timestamp);
+            node.setResource(resources.get(id));
+            node.setClassification(classifications.get(id));
+            node.setPassQps(readSignedVarLong(dataIn));
+            node.setBlockQps(readSignedVarLong(dataIn));
+            node.setSuccessQps(readSignedVarLong(dataIn));
+            node.setExceptionQps(readSignedVarLong(dataIn));
+            node.setRt(readSignedVarLong(dataIn));
+            node.setOccupiedPassQps(readSignedVarLong(dataIn));
+            node.setConcurrency((int)readSignedVarLong(dataIn));
+            consumer.accept(node);
+        }
+        return nextCursor;
+    }
+
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int)((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int)value);
+    }
+
+    private static void writeSignedVarLong(DataOutputStream out, long value) throws IOException {
+        writeVarLong(out, (value << 1) ^ (value >> 63));
+    }
+
+    private static long readSignedVarLong(DataInputStream in) throws IOException {
+        return zigzagDecode(readVarLong(in, in.readUnsignedByte()));
+    }
+
+    private static long readVarLong(DataInputStream in, int first) throws IOException {
+        long value = first & 0x7F;
+        int shift = 7;
+        int b = first;
+        while ((b & 0x80) != 0) {
+            if (shift > 63) {
+                throw new IOException("Malformed varint");
+            }
+            b = in.read();
+            if (b < 0) {
+                throw new EOFException();
+            }
+            value |= (long)(b & 0x7F) << shift;
+            shift += 7;
+        }
+        return value;
+    }
+
+    private static long zigzagDecode(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private CompactMetricCodec() {}
+}
@@ -15,7 +15,10 @@
  */
 package com.alibaba.csp.sentinel.transport.util;
 
+import com.alibaba.csp.sentinel.command.CommandHandler;
 import com.alibaba.csp.sentinel.command.CommandRequest;
+import com.alibaba.csp.sentinel.command.CommandResponse;
+import com.alibaba.csp.sentinel.command.StreamingCommandHandler;
 
 /**
  * Util class for HTTP command center.
@@ -26,6 +29,34 @@ public final class HttpCommandUtils {
 
     public static final String REQUEST_TARGET = "command-target";
 
+    /**
+     * Metadata keys of the request headers that are used for content negotiation.
+     * The command centers should put them in lower case.
+     *
+     * @since 1.8.7
+     */
+    public static final String REQUEST_HEADER_ACCEPT = "accept";
+    public static final String REQUEST_HEADER_ACCEPT_ENCODING = "accept-encoding";
+
+    public static final String CONTENT_ENCODING_GZIP = "gzip";
+
+    /**
+     * Handle the request with the handler, letting a {@link StreamingCommandHandler} return its result as a
+     * {@link com.alibaba.csp.sentinel.command.StreamingCommandResult}. Only for the command centers that can
+     * stream the result.
+     *
+     * @param handler the command handler
+     * @param request the command request
+     * @return the command response
+     * @since 1.8.7
+     */
+    public static CommandResponse<?> handleStreaming(CommandHandler<?> handler, CommandRequest request) {
+        if (handler instanceof StreamingCommandHandler) {
+            return ((StreamingCommandHandler)handler).handleStreaming(request);
+        }
+        return handler.handle(request);
+    }
+
     public static String getTarget(CommandRequest request) {
         if (request == null) {
             throw new IllegalArgumentException("Request cannot be null");
@@ -33,5 +64,59 @@ public final class HttpCommandUtils {
         return request.getMetadata().get(REQUEST_TARGET);
     }
 
+    /**
+     * Check whether the client accepts the given media type, according to the {@code Accept} header.
+     *
+     * @param request    the command request
+     * @param mediaType  media type, e.g. {@code application/json}
+     * @return true if the media type is explicitly listed in the {@code Accept} header
+     * @since 1.8.7
+     */
+    public static boolean accepts(CommandRequest request, String mediaType) {
+        return headerContainsToken(request, REQUEST_HEADER_ACCEPT, mediaType);
+    }
+
+    /**
+     * @param request the command request
+     * @return true if the client accepts gzip-encoded response body
+     * @since 1.8.7
+     */
+    public static boolean acceptsGzip(CommandRequest request) {
+        return headerContainsToken(request, REQUEST_HEADER_ACCEPT_ENCODING, CONTENT_ENCODING_GZIP);
+    }
+
+    private static boolean headerContainsToken(CommandRequest request, String header, String token) {
+        if (request == null) {
+            return false;
+        }
+        String value = request.getMetadata().get(header);
+        if (value == null) {
+            return false;
+        }
+        for (String part : value.split(",")) {
+            String[] segments = part.split(";");
+            if (!segments[0].trim().equalsIgnoreCase(token)) {
+                continue;
+            }
+            // "q=0" means "not acceptable".
+            for (int i = 1; i < segments.length; i++) {
+                String param = segments[i].trim();
+                if (param.startsWith("q=") && isZeroQuality(param.substring(2))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private static boolean isZeroQuality(String q) {
+        try {
+            return Double.parseDouble(q.trim()) <= 0;
+        } catch (NumberFormatException ex) {
+            return false;
+        }
+    }
+
     private HttpCommandUtils() {}
 }
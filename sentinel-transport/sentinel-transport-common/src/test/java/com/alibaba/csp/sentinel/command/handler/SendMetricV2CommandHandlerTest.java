@@ -0,0 +1,247 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.command.handler;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import com.alibaba.csp.sentinel.command.BinaryCommandResult;
+import com.alibaba.csp.sentinel.command.CommandRequest;
+import com.alibaba.csp.sentinel.command.CommandResponse;
+import com.alibaba.csp.sentinel.node.metric.MetricNode;
+import com.alibaba.csp.sentinel.node.metric.MetricSearcher;
+import com.alibaba.csp.sentinel.transport.util.CompactMetricCodec;
+import com.alibaba.csp.sentinel.transport.util.HttpCommandUtils;
+import com.alibaba.csp.sentinel.util.TimeUtil;
+import com.alibaba.csp.sentinel.util.function.Consumer;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+public class SendMetricV2CommandHandlerTest {
+
+    private static final String RESOURCE = "GET:/foo";
+
+    private final List<MetricNode> stored = new ArrayList<>();
+    private MetricSearcher searcher;
+    private SendMetricV2CommandHandler handler;
+    private long base;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setUp() throws Exception {
+        base = TimeUtil.currentTimeMillis() / 1000 * 1000 - 20000;
+        searcher = mock(MetricSearcher.class);
+        doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(InvocationOnMock invocation) {
+                long begin = invocation.getArgument(0);
+                long end = invocation.getArgument(1);
+                Consumer<MetricNode> consumer = invocation.getArgument(3);
+                for (MetricNode node : stored) {
+                    if (node.getTimestamp() >= begin && node.getTimestamp() <= end) {
+                        consumer.accept(node);
+                    }
+                }
+                return null;
+            }
+        }).when(searcher).findByTimeAndResource(anyLong(), anyLong(), anyString(), any(Consumer.class));
+        handler = new SendMetricV2CommandHandler(searcher);
+    }
+
+    @Test
+    public void testCursorProgression() {
+        for (int i = 0; i < 5; i++) {
+            stored.add(node(base + i * 1000, i + 1));
+        }
+
+        List<MetricNode> nodes = new ArrayList<>();
+        long cursor = textRequest(cursorRequest(base, 2), nodes);
+        assertEquals(base + 2000, cursor);
+        assertTimestamps(nodes, base, base + 1000);
+
+        nodes.clear();
+        cursor = textRequest(cursorRequest(cursor, 2), nodes);
+        assertEquals(base + 4000, cursor);
+        assertTimestamps(nodes, base + 2000, base + 3000);
+
+        // The cursor is aligned to the second.
+        nodes.clear();
+        cursor = textRequest(cursorRequest(cursor + 500, 60), nodes);
+        assertTimestamps(nodes, base + 4000);
+        // Never returns the seconds that may still be written.
+        assertTrue(cursor <= TimeUtil.currentTimeMillis() - SendMetricV2CommandHandler.SAFE_DELAY_MS + 1000);
+
+        // Nothing new: the cursor stays.
+        nodes.clear();
+        long latest = TimeUtil.currentTimeMillis() / 1000 * 1000;
+        assertEquals(latest, textRequest(cursorRequest(latest, 60), nodes));
+        assertTrue(nodes.isEmpty());
+    }
+
+    @Test
+    public void testDropZeroNodes() {
+        stored.add(node(base, 0));
+        stored.add(node(base + 1000, 3));
+        MetricNode rtOnly = node(base + 2000, 0);
+        rtOnly.setRt(5);
+        stored.add(rtOnly);
+
+        List<MetricNode> nodes = new ArrayList<>();
+        textRequest(cursorRequest(base, 3), nodes);
+        assertTimestamps(nodes, base + 1000, base + 2000);
+    }
+
+    @Test
+    public void testHeaderNegotiation() throws IOException {
+        stored.add(node(base, 1));
+        stored.add(node(base + 1000, 2));
+
+        // Compact and gzip.
+        CommandRequest request = cursorRequest(base, 2)
+            .addMetadata(HttpCommandUtils.REQUEST_HEADER_ACCEPT, "text/plain, " + CompactMetricCodec.CONTENT_TYPE)
+            .addMetadata(HttpCommandUtils.REQUEST_HEADER_ACCEPT_ENCODING, "deflate, gzip");
+        BinaryCommandResult result = (BinaryCommandResult)handler.handle(request).getResult();
+        assertEquals(CompactMetricCodec.CONTENT_TYPE, result.getContentType());
+        assertEquals(HttpCommandUtils.CONTENT_ENCODING_GZIP, result.getContentEncoding());
+        List<MetricNode> nodes = new ArrayList<>();
+        assertEquals(base + 2000, decode(new GZIPInputStream(new ByteArrayInputStream(result.getData())), nodes));
+        assertTimestamps(nodes, base, base + 1000);
+
+        // Compact only.
+        request = cursorRequest(base, 2)
+            .addMetadata(HttpCommandUtils.REQUEST_HEADER_ACCEPT, CompactMetricCodec.CONTENT_TYPE);
+        result = (BinaryCommandResult)handler.handle(request).getResult();
+        assertEquals(CompactMetricCodec.CONTENT_TYPE, result.getContentType());
+        assertEquals(null, result.getContentEncoding());
+        nodes.clear();
+        assertEquals(base + 2000, decode(new ByteArrayInputStream(result.getData()), nodes));
+        assertTimestamps(nodes, base, base + 1000);
+
+        // Gzip-compressed text.
+        request = cursorRequest(base, 2)
+            .addMetadata(HttpCommandUtils.REQUEST_HEADER_ACCEPT_ENCODING, "gzip");
+        result = (BinaryCommandResult)handler.handle(request).getResult();
+        assertTrue(result.getContentType().startsWith("text/plain"));
+        assertEquals(HttpCommandUtils.CONTENT_ENCODING_GZIP, result.getContentEncoding());
+        String text = new String(toByteArray(new GZIPInputStream(new ByteArrayInputStream(result.getData()))),
+            "UTF-8");
+        nodes.clear();
+        assertEquals(base + 2000, parseText(text, nodes));
+        assertTimestamps(nodes, base, base + 1000);
+
+        // Plain text without any header.
+        Object plain = handler.handle(cursorRequest(base, 2)).getResult();
+        assertTrue(plain instanceof String);
+    }
+
+    @Test
+    public void testTimeRangeIsCut() throws Exception {
+        long start = base - 1000 * 1000;
+        CommandRequest request = new CommandRequest()
+            .addParam("startTime", String.valueOf(start))
+            .addParam("endTime", String.valueOf(base))
+            .addParam("identity", RESOURCE);
+        List<MetricNode> nodes = new ArrayList<>();
+        long cursor = parseText((String)handler.handle(request).getResult(), nodes);
+
+        long end = start + SendMetricV2CommandHandler.MAX_SECONDS_LIMIT * 1000L - 1;
+        verify(searcher).findByTimeAndResource(eq(start), eq(end), eq(RESOURCE), any(Consumer.class));
+        assertEquals(end + 1, cursor);
+    }
+
+    @Test
+    public void testBadRequest() {
+        assertFalse(handler.handle(new CommandRequest()).isSuccess());
+        CommandResponse<Object> response = handler.handle(new CommandRequest().addParam("cursor", "abc"));
+        assertFalse(response.isSuccess());
+    }
+
+    private CommandRequest cursorRequest(long cursor, int maxSeconds) {
+        // Query by identity so that the system load and CPU usage are not appended.
+        return new CommandRequest()
+            .addParam("cursor", String.valueOf(cursor))
+            .addParam("maxSeconds", String.valueOf(maxSeconds))
+            .addParam("identity", RESOURCE);
+    }
+
+    private long textRequest(CommandRequest request, List<MetricNode> nodes) {
+        CommandResponse<Object> response = handler.handle(request);
+        assertTrue(response.isSuccess());
+        return parseText((String)response.getResult(), nodes);
+    }
+
+    private static long parseText(String text, List<MetricNode> nodes) {
+        String[] lines = text.split("\n");
+        for (int i = 1; i < lines.length; i++) {
+            nodes.add(MetricNode.fromThinString(lines[i]));
+        }
+        return Long.parseLong(lines[0]);
+    }
+
+    private static long decode(InputStream in, final List<MetricNode> nodes) throws IOException {
+        return CompactMetricCodec.decode(in, new Consumer<MetricNode>() {
+            @Override
+            public void accept(MetricNode node) {
+                nodes.add(node);
+            }
+        });
+    }
+
+    private static byte[] toByteArray(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buf = new byte[1024];
+        int n;
+        while ((n = in.read(buf)) > 0) {
+            out.write(buf, 0, n);
+        }
+        return out.toByteArray();
+    }
+
+    private static void assertTimestamps(List<MetricNode> nodes, long... timestamps) {
+        assertEquals(timestamps.length, nodes.size());
+        for (int i = 0; i < timestamps.length; i++) {
+            assertEquals(timestamps[i], nodes.get(i).getTimestamp());
+            assertEquals(RESOURCE, nodes.get(i).getResource());
+        }
+    }
+
+    private static MetricNode node(long timestamp, long passQps) {
+        MetricNode node = new MetricNode();
+        node.setTimestamp(timestamp);
+        node.setResource(RESOURCE);
+        node.setPassQps(passQps);
+        return node;
+    }
+}
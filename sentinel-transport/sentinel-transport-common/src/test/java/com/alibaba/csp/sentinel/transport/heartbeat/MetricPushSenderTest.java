@@ -0,0 +1,221 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.transport.heartbeat;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import com.alibaba.csp.sentinel.config.SentinelConfig;
+import com.alibaba.csp.sentinel.node.metric.MetricNode;
+import com.alibaba.csp.sentinel.transport.config.TransportConfig;
+import com.alibaba.csp.sentinel.transport.util.CompactMetricCodec;
+import com.alibaba.csp.sentinel.util.function.Consumer;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class MetricPushSenderTest {
+
+    private HttpServer server;
+    private final List<PushRequest> requests = new CopyOnWriteArrayList<>();
+    private volatile int responseCode = 200;
+    private FakeClockSender sender;
+
+    @Before
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext(TransportConfig.METRIC_PUSH_DEFAULT_PATH, new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                PushRequest request = new PushRequest();
+                request.query = exchange.getRequestURI().getRawQuery();
+                request.contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+                DataInputStream in = new DataInputStream(exchange.getRequestBody());
+                try {
+                    while (true) {
+                        byte[] frame = new byte[in.readInt()];
+                        in.readFully(frame);
+                        request.frames.add(frame);
+                    }
+                } catch (EOFException end) {
+                    // The stream is finished by the sender.
+                }
+                requests.add(request);
+                exchange.sendResponseHeaders(responseCode, -1);
+                exchange.close();
+            }
+        });
+        server.start();
+        SentinelConfig.setConfig(TransportConfig.CONSOLE_SERVER, "127.0.0.1:" + server.getAddress().getPort());
+        TransportConfig.setRuntimePort(8719);
+        sender = new FakeClockSender();
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+        SentinelConfig.removeConfig(TransportConfig.CONSOLE_SERVER);
+        TransportConfig.setRuntimePort(-1);
+    }
+
+    @Test
+    public void testPushFramesInOneStream() throws Exception {
+        long time = 1600000000000L;
+        sender.onFlush(metrics(node(time, "foo", 1), node(time, "bar", 2)));
+        sender.onFlush(metrics(node(time + 1000, "foo", 3)));
+        sender.pushOnce(0);
+        sender.now += 1000;
+        sender.pushOnce(0);
+        assertTrue(requests.isEmpty());
+
+        // The stream is finished when it has lived long enough.
+        sender.now += MetricPushSender.STREAM_LIFETIME_MS;
+        sender.pushOnce(0);
+        assertEquals(1, requests.size());
+        PushRequest request = requests.get(0);
+        assertEquals(CompactMetricCodec.STREAM_CONTENT_TYPE, request.contentType);
+        assertTrue(request.query.contains("port=8719"));
+        assertTrue(request.query.contains("app="));
+        assertEquals(2, request.frames.size());
+        List<MetricNode> first = decode(request.frames.get(0));
+        assertEquals(2, first.size());
+        assertEquals("foo", first.get(0).getResource());
+        assertEquals(2, first.get(1).getPassQps());
+        List<MetricNode> second = decode(request.frames.get(1));
+        assertEquals(1, second.size());
+        assertEquals(time + 1000, second.get(0).getTimestamp());
+    }
+
+    @Test
+    public void testReconnectAfterStreamLifetime() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            sender.onFlush(metrics(node(1600000000000L + i * 1000, "foo", i + 1)));
+            sender.pushOnce(0);
+            sender.now += MetricPushSender.STREAM_LIFETIME_MS;
+        }
+        sender.pushOnce(0);
+
+        // Each stream carries the frames pushed during its lifetime.
+        assertEquals(3, requests.size());
+        for (int i = 0; i < 3; i++) {
+            assertEquals(1, requests.get(i).frames.size());
+            assertEquals(i + 1, decode(requests.get(i).frames.get(0)).get(0).getPassQps());
+        }
+    }
+
+    @Test
+    public void testPauseIfPushNotSupported() throws Exception {
+        responseCode = 404;
+        sender.onFlush(metrics(node(1600000000000L, "foo", 1)));
+        sender.pushOnce(0);
+        sender.now += MetricPushSender.STREAM_LIFETIME_MS;
+        sender.pushOnce(0);
+        assertEquals(1, requests.size());
+
+        // Frames are dropped while paused, so the dashboard keeps pulling them.
+        responseCode = 200;
+        sender.onFlush(metrics(node(1600000001000L, "foo", 2)));
+        sender.pushOnce(0);
+        sender.now += MetricPushSender.UNSUPPORTED_RETRY_INTERVAL_MS - 1;
+        sender.onFlush(metrics(node(1600000002000L, "foo", 3)));
+        sender.pushOnce(0);
+        sender.now += MetricPushSender.STREAM_LIFETIME_MS;
+        sender.pushOnce(0);
+        assertEquals(1, requests.size());
+
+        // Retry after the pause.
+        sender.onFlush(metrics(node(1600000003000L, "foo", 4)));
+        sender.pushOnce(0);
+        sender.now += MetricPushSender.STREAM_LIFETIME_MS;
+        sender.pushOnce(0);
+        assertEquals(2, requests.size());
+        assertEquals(1, requests.get(1).frames.size());
+        assertEquals(4, decode(requests.get(1).frames.get(0)).get(0).getPassQps());
+    }
+
+    @Test
+    public void testDropFramesWhenQueueIsFull() throws IOException {
+        assertNull(MetricPushSender.encode(Collections.<Long, List<MetricNode>>emptyMap()));
+        for (int i = 0; i < MetricPushSender.MAX_PENDING_FRAMES + 4; i++) {
+            sender.onFlush(metrics(node(1600000000000L + i * 1000, "foo", 1)));
+        }
+        assertEquals(4, sender.getDroppedFrameCount());
+    }
+
+    private static Map<Long, List<MetricNode>> metrics(MetricNode... nodes) {
+        Map<Long, List<MetricNode>> metrics = new HashMap<>();
+        for (MetricNode node : nodes) {
+            List<MetricNode> list = metrics.get(node.getTimestamp());
+            if (list == null) {
+                list = new ArrayList<>();
+                metrics.put(node.getTimestamp(), list);
+            }
+            list.add(node);
+        }
+        return metrics;
+    }
+
+    private static MetricNode node(long timestamp, String resource, long passQps) {
+        MetricNode node = new MetricNode();
+        node.setTimestamp(timestamp);
+        node.setResource(resource);
+        node.setPassQps(passQps);
+        return node;
+    }
+
+    private static List<MetricNode> decode(byte[] frame) throws IOException {
+        final List<MetricNode> nodes = new ArrayList<>();
+        CompactMetricCodec.decode(new ByteArrayInputStream(frame), new Consumer<MetricNode>() {
+            @Override
+            public void accept(MetricNode node) {
+                nodes.add(node);
+            }
+        });
+        return nodes;
+    }
+
+    private static class PushRequest {
+        private String query;
+        private String contentType;
+        private final List<byte[]> frames = new ArrayList<>();
+    }
+
+    private static class FakeClockSender extends MetricPushSender {
+        private long now = 1600000000000L;
+
+        @Override
+        long currentTimeMillis() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.transport.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.alibaba.csp.sentinel.command.CommandRequest;
+import com.alibaba.csp.sentinel.node.metric.MetricNode;
+import com.alibaba.csp.sentinel.util.function.Consumer;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CompactMetricCodecTest {
+
+    @Test
+    public void testEncodeAndDecode() throws IOException {
+        List<MetricNode> nodes = new ArrayList<>();
+        nodes.add(node(1600000000000L, "GET:/foo", 12, 3, 0));
+        nodes.add(node(1600000000000L, "资源-bar", 100000, 0, 1));
+        nodes.add(node(1600000001000L, "GET:/foo", 7, 0, 0));
+        nodes.add(node(1600000003000L, "资源-bar", 0, 5, 1));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        CompactMetricCodec.Encoder encoder = new CompactMetricCodec.Encoder(out, 1600000004000L);
+        for (MetricNode node : nodes) {
+            encoder.write(node);
+        }
+        encoder.flush();
+
+        final List<MetricNode> decoded = new ArrayList<>();
+        long nextCursor = CompactMetricCodec.decode(new ByteArrayInputStream(out.toByteArray()),
+            new Consumer<MetricNode>() {
+                @Override
+                public void accept(MetricNode node) {
+                    decoded.add(node);
+                }
+            });
+
+        assertEquals(1600000004000L, nextCursor);
+        assertEquals(nodes.size(), decoded.size());
+        for (int i = 0; i < nodes.size(); i++) {
+            assertEquals(nodes.get(i).toThinString(), decoded.get(i).toThinString());
+        }
+        // Much smaller than the thin text format.
+        int textLength = 0;
+        for (MetricNode node : nodes) {
+            textLength += node.toThinString().length() + 1;
+        }
+        assertTrue(out.size() * 2 < textLength);
+    }
+
+    @Test(expected = IOException.class)
+    public void testDecodeBadStream() throws IOException {
+        CompactMetricCodec.decode(new ByteArrayInputStream("1600000000000|GET:/foo|1|0|1|0|2|0|0|0\n".getBytes()),
+            new Consumer<MetricNode>() {
+                @Override
+                public void accept(MetricNode node) {
+                }
+            });
+    }
+
+    @Test
+    public void testContentNegotiation() {
+        CommandRequest request = new CommandRequest()
+            .addMetadata(HttpCommandUtils.REQUEST_HEADER_ACCEPT, "text/plain, " + CompactMetricCodec.CONTENT_TYPE)
+            .addMetadata(HttpCommandUtils.REQUEST_HEADER_ACCEPT_ENCODING, "deflate, gzip;q=0.8");
+        assertTrue(HttpCommandUtils.accepts(request, CompactMetricCodec.CONTENT_TYPE));
+        assertTrue(HttpCommandUtils.acceptsGzip(request));
+
+        request.addMetadata(HttpCommandUtils.REQUEST_HEADER_ACCEPT_ENCODING, "gzip;q=0, identity");
+        assertFalse(HttpCommandUtils.acceptsGzip(request));
+        assertFalse(HttpCommandUtils.accepts(new CommandRequest(), CompactMetricCodec.CONTENT_TYPE));
+    }
+
+    private static MetricNode node(long timestamp, String resource, long pass, long block, int classification) {
+        MetricNode node = new MetricNode();
+        node.setTimestamp(timestamp);
+        node.setResource(resource);
+        node.setClassification(classification);
+        node.setPassQps(pass);
+        node.setBlockQps(block);
+        node.setSuccessQps(pass);
+        node.setRt(pass * 3);
+        node.setConcurrency((int)block);
+        return node;
+    }
+}
@@ -16,34 +16,51 @@
 package com.alibaba.csp.sentinel.transport.command.netty;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.nio.charset.Charset;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
+import com.alibaba.csp.sentinel.command.BinaryCommandResult;
 import com.alibaba.csp.sentinel.command.CommandHandler;
 import com.alibaba.csp.sentinel.command.CommandRequest;
 import com.alibaba.csp.sentinel.command.CommandResponse;
+import com.alibaba.csp.sentinel.command.StreamingCommandResult;
+import com.alibaba.csp.sentinel.concurrent.NamedThreadFactory;
 import com.alibaba.csp.sentinel.config.SentinelConfig;
 import com.alibaba.csp.sentinel.transport.log.CommandCenterLog;
 import com.alibaba.csp.sentinel.transport.command.codec.CodecRegistry;
 import com.alibaba.csp.sentinel.transport.command.codec.Encoder;
+import com.alibaba.csp.sentinel.transport.util.ChunkedOutputStream;
 import com.alibaba.csp.sentinel.transport.util.HttpCommandUtils;
 import com.alibaba.csp.sentinel.util.StringUtil;
 
 import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
 import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.SimpleChannelInboundHandler;
 import io.netty.handler.codec.http.DefaultFullHttpResponse;
+import io.netty.handler.codec.http.DefaultHttpContent;
+import io.netty.handler.codec.http.DefaultHttpResponse;
 import io.netty.handler.codec.http.FullHttpRequest;
 import io.netty.handler.codec.http.FullHttpResponse;
 import io.netty.handler.codec.http.HttpHeaderNames;
 import io.netty.handler.codec.http.HttpHeaderValues;
 import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpResponse;
 import io.netty.handler.codec.http.HttpResponseStatus;
 import io.netty.handler.codec.http.HttpUtil;
 import io.netty.handler.codec.http.HttpVersion;
+import io.netty.handler.codec.http.LastHttpContent;
 import io.netty.handler.codec.http.QueryStringDecoder;
 import io.netty.handler.codec.http.multipart.HttpData;
 import io.netty.handler.codec.http.multipart.HttpPostRequestDecoder;
@@ -63,13 +80,45 @@ import static io.netty.handler.codec.http.HttpResponseStatus.OK;
  */
 public class HttpServerHandler extends SimpleChannelInboundHandler<Object> {
 
+    private static final int MAX_STREAMING_THREADS = 4;
+    private static final long STREAMING_WRITE_TIMEOUT_MS = 30 * 1000;
+
+    /**
+     * Streaming results are written by these threads instead of the event loop, since the writer has to wait
+     * while the channel is not writable, i.e. the client reads slower than the result is produced.
+     */
+    @SuppressWarnings("PMD.ThreadPoolCreationRule")
+    private static final ExecutorService STREAMING_EXECUTOR = new ThreadPoolExecutor(0, MAX_STREAMING_THREADS,
+        60, TimeUnit.SECONDS, new SynchronousQueue<Runnable>(),
+        new NamedThreadFactory("sentinel-netty-command-streaming", true));
+
     private final CodecRegistry codecRegistry = new CodecRegistry();
 
+    private final Object writabilityLock = new Object();
+
     @Override
     public void channelReadComplete(ChannelHandlerContext ctx) throws Exception {
         ctx.flush();
     }
 
+    @Override
+    public void channelWritabilityChanged(ChannelHandlerContext ctx) throws Exception {
+        signalWritabilityChanged();
+        super.channelWritabilityChanged(ctx);
+    }
+
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+        signalWritabilityChanged();
+        super.channelInactive(ctx);
+    }
+
+    private void signalWritabilityChanged() {
+        synchronized (writabilityLock) {
+            writabilityLock.notifyAll();
+        }
+    }
+
     @Override
     protected void channelRead0(ChannelHandlerContext ctx, Object msg) throws Exception {
         FullHttpRequest httpRequest = (FullHttpRequest)msg;
@@ -93,7 +142,7 @@ public class HttpServerHandler extends SimpleChannelInboundHandler<Object> {
         // Find the matching command handler.
         CommandHandler<?> commandHandler = getHandler(commandName);
         if (commandHandler != null) {
-            CommandResponse<?> response = commandHandler.handle(request);
+            CommandResponse<?> response = HttpCommandUtils.handleStreaming(commandHandler, request);
             writeResponse(response, ctx, keepAlive);
         } else {
             // No matching command handler.
@@ -127,8 +176,32 @@ public class HttpServerHandler extends SimpleChannelInboundHandler<Object> {
     private void writeResponse(CommandResponse response, ChannelHandlerContext ctx, boolean keepAlive)
         throws Exception {
         byte[] body;
+        String contentType = "text/plain; charset=" + SentinelConfig.charset();
+        String contentEncoding = null;
         if (response.isSuccess()) {
-            if (response.getResult() == null) {
+            if (response.getResult() instanceof BinaryCommandResult) {
+                BinaryCommandResult result = (BinaryCommandResult)response.getResult();
+                body = result.getData();
+                if (result.getContentType() != null) {
+                    contentType = result.getContentType();
+                }
+                contentEncoding = result.getContentEncoding();
+            } else if (response.getResult() instanceof StreamingCommandResult) {
+                final StreamingCommandResult result = (StreamingCommandResult)response.getResult();
+                final String streamingContentType = contentType;
+                try {
+                    STREAMING_EXECUTOR.execute(new Runnable() {
+                        @Override
+                        public void run() {
+                            writeStreamingResponse(result, streamingContentType, ctx);
+                        }
+                    });
+                    return;
+                } catch (RejectedExecutionException ex) {
+                    // Too many results being streamed, render this one in memory.
+                    body = result.toString().getBytes(SentinelConfig.charset());
+                }
+            } else if (response.getResult() == null) {
                 body = new byte[] {};
             } else {
                 Encoder encoder = pickEncoder(response.getResult().getClass());
@@ -145,11 +218,18 @@ public class HttpServerHandler extends SimpleChannelInboundHandler<Object> {
         }
 
         HttpResponseStatus status = response.isSuccess() ? OK : BAD_REQUEST;
+        writeFullResponse(status, body, contentType, contentEncoding, ctx);
+    }
 
+    private void writeFullResponse(HttpResponseStatus status, byte[] body, String contentType,
+                                   String contentEncoding, ChannelHandlerContext ctx) {
         FullHttpResponse httpResponse = new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, status,
             Unpooled.copiedBuffer(body));
 
-        httpResponse.headers().set("Content-Type", "text/plain; charset=" + SentinelConfig.charset());
+        httpResponse.headers().set("Content-Type", contentType);
+        if (contentEncoding != null) {
+            httpResponse.headers().set(HttpHeaderNames.CONTENT_ENCODING, contentEncoding);
+        }
 
         //if (keepAlive) {
         //    httpResponse.headers().setInt(HttpHeaderNames.CONTENT_LENGTH, httpResponse.content().readableBytes());
@@ -165,6 +245,75 @@ public class HttpServerHandler extends SimpleChannelInboundHandler<Object> {
         ctx.writeAndFlush(Unpooled.EMPTY_BUFFER).addListener(ChannelFutureListener.CLOSE);
     }
 
+    /**
+     * Write the streaming result, out of the event loop. The content is sent in chunks as it's written, unless
+     * it fits in one chunk. After each chunk, the writer waits until the channel is writable again, so at most
+     * about the high water mark of the channel is buffered for a slow client.
+     */
+    private void writeStreamingResponse(StreamingCommandResult result, final String contentType,
+                                        final ChannelHandlerContext ctx) {
+        final Channel channel = ctx.channel();
+        ChunkedOutputStream out = new ChunkedOutputStream() {
+            private boolean headWritten = false;
+
+            @Override
+            protected void writeChunk(byte[] b, int off, int len) throws IOException {
+                if (!headWritten) {
+                    HttpResponse httpResponse = new DefaultHttpResponse(HttpVersion.HTTP_1_1, OK);
+                    httpResponse.headers().set("Content-Type", contentType);
+                    httpResponse.headers().set(HttpHeaderNames.TRANSFER_ENCODING, HttpHeaderValues.CHUNKED);
+                    httpResponse.headers().set(HttpHeaderNames.CONNECTION, HttpHeaderValues.CLOSE);
+                    ctx.write(httpResponse);
+                    headWritten = true;
+                }
+                ctx.writeAndFlush(new DefaultHttpContent(Unpooled.copiedBuffer(b, off, len)));
+                awaitWritable(channel);
+            }
+        };
+        try {
+            Writer writer = new OutputStreamWriter(out, SentinelConfig.charset());
+            result.writeTo(writer);
+            writer.flush();
+            out.finish();
+        } catch (IOException | RuntimeException e) {
+            if (!out.isStreaming()) {
+                writeErrorResponse(INTERNAL_SERVER_ERROR.code(), SERVER_ERROR_MESSAGE, ctx);
+                CommandCenterLog.warn("Error when writing the streaming result", e);
+                return;
+            }
+            // The head has been sent, so just break the response.
+            CommandCenterLog.warn("Error when streaming the response", e);
+            ctx.close();
+            return;
+        }
+        if (!out.isStreaming()) {
+            writeFullResponse(OK, out.toByteArray(), contentType, null, ctx);
+            return;
+        }
+        ctx.writeAndFlush(LastHttpContent.EMPTY_LAST_CONTENT).addListener(ChannelFutureListener.CLOSE);
+    }
+
+    private void awaitWritable(Channel channel) throws IOException {
+        long deadline = System.currentTimeMillis() + STREAMING_WRITE_TIMEOUT_MS;
+        synchronized (writabilityLock) {
+            while (!channel.isWritable()) {
+                if (!channel.isActive()) {
+                    throw new IOException("Connection closed");
+                }
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    throw new IOException("Timeout when waiting for the client to read the response");
+                }
+                try {
+                    writabilityLock.wait(Math.min(remaining, 100));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException();
+                }
+            }
+        }
+    }
+
     private CommandRequest parseRequest(FullHttpRequest request) {
         QueryStringDecoder queryStringDecoder = new QueryStringDecoder(request.uri());
         CommandRequest serverRequest = new CommandRequest();
@@ -206,6 +355,15 @@ public class HttpServerHandler extends SimpleChannelInboundHandler<Object> {
         // Parse command name.
         String target = parseTarget(queryStringDecoder.rawPath());
         serverRequest.addMetadata(HttpCommandUtils.REQUEST_TARGET, target);
+        // Pass the headers for content negotiation.
+        String accept = request.headers().get(HttpHeaderNames.ACCEPT);
+        if (accept != null) {
+            serverRequest.addMetadata(HttpCommandUtils.REQUEST_HEADER_ACCEPT, accept);
+        }
+        String acceptEncoding = request.headers().get(HttpHeaderNames.ACCEPT_ENCODING);
+        if (acceptEncoding != null) {
+            serverRequest.addMetadata(HttpCommandUtils.REQUEST_HEADER_ACCEPT_ENCODING, acceptEncoding);
+        }
         // Parse body.
         if (request.content().readableBytes() <= 0) {
             serverRequest.setBody(null);
@@ -43,6 +43,8 @@ import java.util.concurrent.atomic.AtomicBoolean;
 import static io.netty.handler.codec.http.HttpResponseStatus.BAD_REQUEST;
 import static io.netty.handler.codec.http.HttpResponseStatus.OK;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 /**
  * Test cases for {@link HttpServerHandler}.
@@ -174,6 +176,43 @@ public class HttpServerHandlerTest {
         processSuccess(httpRequestStr, expectedBody);
     }
 
+    @Test
+    public void testFetchActiveRuleCommandStreamed() {
+        List<FlowRule> rules = new ArrayList<FlowRule>();
+        for (int i = 0; i < 500; i++) {
+            FlowRule rule = new FlowRule();
+            rule.setResource("key" + i);
+            rule.setCount(20);
+            rule.setGrade(RuleConstant.FLOW_GRADE_QPS);
+            rule.setLimitApp("default");
+            rules.add(rule);
+        }
+        FlowRuleManager.loadRules(rules);
+
+        String httpRequestStr = "GET /getRules?type=flow HTTP/1.1" + CRLF
+                              + "Host: localhost:8719" + CRLF
+                              + CRLF;
+        String responseStr = processResponse(httpRequestStr);
+
+        // Large content is sent in chunks.
+        int headEnd = responseStr.indexOf(CRLF + CRLF);
+        String head = responseStr.substring(0, headEnd);
+        assertTrue(head.startsWith(HttpVersion.HTTP_1_1.toString() + ' ' + OK.toString()));
+        assertTrue(head.contains("transfer-encoding: chunked"));
+        StringBuilder body = new StringBuilder();
+        int pos = headEnd + 4;
+        while (true) {
+            int lineEnd = responseStr.indexOf(CRLF, pos);
+            int size = Integer.parseInt(responseStr.substring(pos, lineEnd), 16);
+            if (size == 0) {
+                break;
+            }
+            body.append(responseStr, lineEnd + 2, lineEnd + 2 + size);
+            pos = lineEnd + 2 + size + 2;
+        }
+        assertEquals(JSON.toJSONString(FlowRuleManager.getRules()), body.toString());
+    }
+
     /**
      * {@link MultipleSlashNameCommandTestHandler}
      *
@@ -213,6 +252,7 @@ public class HttpServerHandlerTest {
 
     private String processResponse(String httpRequestStr) {
         embeddedChannel.writeInbound(Unpooled.wrappedBuffer(httpRequestStr.getBytes(SENTINEL_CHARSET)));
+        awaitClosed();
 
         StringBuilder sb = new StringBuilder();
 
@@ -224,6 +264,22 @@ public class HttpServerHandlerTest {
         return sb.toString();
     }
 
+    /**
+     * Streaming results are written by another thread, and the channel is closed once the response is sent.
+     */
+    private void awaitClosed() {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (embeddedChannel.isOpen() && System.currentTimeMillis() < deadline) {
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        assertFalse(embeddedChannel.isOpen());
+    }
+
     private void assertErrorStatusAndBody(HttpResponseStatus status, String expectedBody, String httpResponseStr) {
         StringBuilder text = new StringBuilder();
         text.append(HttpVersion.HTTP_1_1.toString()).append(' ').append(status.toString()).append(CRLF);
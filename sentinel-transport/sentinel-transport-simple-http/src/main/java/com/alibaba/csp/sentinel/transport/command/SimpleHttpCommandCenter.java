@@ -16,9 +16,11 @@
 package com.alibaba.csp.sentinel.transport.command;
 
 import java.io.IOException;
+import java.net.InetSocketAddress;
 import java.net.ServerSocket;
 import java.net.Socket;
 import java.net.SocketException;
+import java.nio.channels.ServerSocketChannel;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
@@ -37,11 +39,16 @@ import com.alibaba.csp.sentinel.concurrent.NamedThreadFactory;
 import com.alibaba.csp.sentinel.transport.log.CommandCenterLog;
 import com.alibaba.csp.sentinel.transport.CommandCenter;
 import com.alibaba.csp.sentinel.transport.command.http.HttpEventTask;
+import com.alibaba.csp.sentinel.transport.command.http.NioHttpServer;
 import com.alibaba.csp.sentinel.transport.config.TransportConfig;
 import com.alibaba.csp.sentinel.util.StringUtil;
 
 /***
- * The simple command center provides service to exchange information.
+ * <p>The simple command center provides service to exchange information.</p>
+ *
+ * <p>By default the commands are served by a non-blocking {@link NioHttpServer} with keep-alive connections.
+ * The legacy blocking server (one connection per request) is used when
+ * {@link TransportConfig#SERVER_NIO_ENABLED} is set to false.</p>
  *
  * @author youji.zj
  */
@@ -61,6 +68,7 @@ public class SimpleHttpCommandCenter implements CommandCenter {
     private ExecutorService bizExecutor;
 
     private ServerSocket socketReference;
+    private NioHttpServer nioServer;
 
     @Override
     @SuppressWarnings("rawtypes")
@@ -97,6 +105,10 @@ public class SimpleHttpCommandCenter implements CommandCenter {
 
             @Override
             public void run() {
+                if (TransportConfig.isServerNioEnabled()) {
+                    startNioServer();
+                    return;
+                }
                 boolean success = false;
                 ServerSocket serverSocket = getServerSocketFromBasePort(port);
 
@@ -118,6 +130,27 @@ public class SimpleHttpCommandCenter implements CommandCenter {
                 executor.shutdown();
             }
 
+            private void startNioServer() {
+                ServerSocketChannel channel = getServerChannelFromBasePort(port);
+                if (channel != null) {
+                    try {
+                        NioHttpServer server = new NioHttpServer(channel, bizExecutor);
+                        server.start();
+                        nioServer = server;
+                        port = server.getLocalPort();
+                        CommandCenterLog.info("[CommandCenter] Begin listening at port " + port + " (NIO)");
+                    } catch (IOException e) {
+                        CommandCenterLog.warn("[CommandCenter] Failed to start the NIO server", e);
+                        closeQuietly(channel);
+                        port = PORT_UNINITIALIZED;
+                    }
+                } else {
+                    CommandCenterLog.info("[CommandCenter] chooses port fail, http command center will not work");
+                    port = PORT_UNINITIALIZED;
+                }
+                TransportConfig.setRuntimePort(port);
+                executor.shutdown();
+            }
         };
 
         new Thread(serverInitTask).start();
@@ -149,8 +182,49 @@ public class SimpleHttpCommandCenter implements CommandCenter {
         return null;
     }
 
+    /**
+     * Same as {@link #getServerSocketFromBasePort(int)}, but returns a channel for the NIO server.
+     *
+     * @param basePort base port to start
+     * @return new server channel with available port
+     */
+    private static ServerSocketChannel getServerChannelFromBasePort(int basePort) {
+        int tryCount = 0;
+        while (true) {
+            ServerSocketChannel channel = null;
+            try {
+                channel = ServerSocketChannel.open();
+                channel.socket().setReuseAddress(true);
+                channel.socket().bind(new InetSocketAddress(basePort + tryCount / 3), 100);
+                return channel;
+            } catch (IOException e) {
+                closeQuietly(channel);
+                tryCount++;
+                try {
+                    TimeUnit.MILLISECONDS.sleep(30);
+                } catch (InterruptedException e1) {
+                    break;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static void closeQuietly(ServerSocketChannel channel) {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException ignore) {
+            }
+        }
+    }
+
     @Override
     public void stop() throws Exception {
+        if (nioServer != null) {
+            nioServer.stop();
+            nioServer = null;
+        }
         if (socketReference != null) {
             try {
                 socketReference.close();
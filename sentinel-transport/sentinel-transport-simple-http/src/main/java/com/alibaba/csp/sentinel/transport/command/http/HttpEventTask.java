@@ -15,13 +15,16 @@
  */
 package com.alibaba.csp.sentinel.transport.command.http;
 
+import com.alibaba.csp.sentinel.command.BinaryCommandResult;
 import com.alibaba.csp.sentinel.command.CommandHandler;
 import com.alibaba.csp.sentinel.command.CommandRequest;
 import com.alibaba.csp.sentinel.command.CommandResponse;
+import com.alibaba.csp.sentinel.command.StreamingCommandResult;
 import com.alibaba.csp.sentinel.config.SentinelConfig;
 import com.alibaba.csp.sentinel.transport.log.CommandCenterLog;
 import com.alibaba.csp.sentinel.transport.command.SimpleHttpCommandCenter;
 import com.alibaba.csp.sentinel.transport.command.exception.RequestException;
+import com.alibaba.csp.sentinel.transport.util.ChunkedOutputStream;
 import com.alibaba.csp.sentinel.transport.util.HttpCommandUtils;
 import com.alibaba.csp.sentinel.util.StringUtil;
 
@@ -34,6 +37,7 @@ import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
 import java.io.UnsupportedEncodingException;
+import java.io.Writer;
 import java.net.Socket;
 import java.net.URLDecoder;
 import java.nio.charset.Charset;
@@ -88,6 +92,9 @@ public class HttpEventTask implements Runnable {
             if (firstLine.length() > 4 && StringUtil.equalsIgnoreCase("POST", firstLine.substring(0, 4))) {
                 // Deal with post method
                 processPostRequest(inputStream, request);
+            } else {
+                Map<String, String> headerMap = parsePostHeaders(inputStream);
+                addNegotiationHeaders(headerMap, request);
             }
 
             // Validate the target command.
@@ -100,8 +107,8 @@ public class HttpEventTask implements Runnable {
             // Find the matching command handler.
             CommandHandler<?> commandHandler = SimpleHttpCommandCenter.getHandler(commandName);
             if (commandHandler != null) {
-                CommandResponse<?> response = commandHandler.handle(request);
-                handleResponse(response, printWriter);
+                CommandResponse<?> response = HttpCommandUtils.handleStreaming(commandHandler, request);
+                handleResponse(response, printWriter, outputStream);
             } else {
                 // No matching command handler.
                 writeResponse(printWriter, StatusCode.BAD_REQUEST, "Unknown command `" + commandName + '`');
@@ -172,6 +179,7 @@ public class HttpEventTask implements Runnable {
             CommandCenterLog.warn("Illegal request read: null headerMap");
             throw new RequestException(StatusCode.BAD_REQUEST, "");
         }
+        addNegotiationHeaders(headerMap, request);
 
         if (headerMap.containsKey("content-type") && !checkContentTypeSupported(headerMap.get("content-type"))) {
             // not supported Content-type
@@ -223,7 +231,24 @@ public class HttpEventTask implements Runnable {
         }
     }
 
-    private static boolean checkContentTypeSupported(String contentType) {
+    /**
+     * Pass the headers for content negotiation to the command handlers via metadata of the request.
+     */
+    protected static void addNegotiationHeaders(Map<String, String> headerMap, CommandRequest request) {
+        if (headerMap == null) {
+            return;
+        }
+        String accept = headerMap.get(HttpCommandUtils.REQUEST_HEADER_ACCEPT);
+        if (accept != null) {
+            request.addMetadata(HttpCommandUtils.REQUEST_HEADER_ACCEPT, accept);
+        }
+        String acceptEncoding = headerMap.get(HttpCommandUtils.REQUEST_HEADER_ACCEPT_ENCODING);
+        if (acceptEncoding != null) {
+            request.addMetadata(HttpCommandUtils.REQUEST_HEADER_ACCEPT_ENCODING, acceptEncoding);
+        }
+    }
+
+    protected static boolean checkContentTypeSupported(String contentType) {
         int idx = contentType.indexOf(";");
         String type;
         if (idx > 0) {
@@ -302,12 +327,21 @@ public class HttpEventTask implements Runnable {
         }
     }
 
-    private <T> void handleResponse(CommandResponse<T> response, final PrintWriter printWriter) throws Exception {
+    private <T> void handleResponse(CommandResponse<T> response, final PrintWriter printWriter,
+                                    OutputStream outputStream) throws Exception {
         if (response.isSuccess()) {
             if (response.getResult() == null) {
                 writeResponse(printWriter, StatusCode.OK, null);
                 return;
             }
+            if (response.getResult() instanceof BinaryCommandResult) {
+                writeBinaryResponse(printWriter, outputStream, (BinaryCommandResult)response.getResult());
+                return;
+            }
+            if (response.getResult() instanceof StreamingCommandResult) {
+                writeStreamingResponse(printWriter, outputStream, (StreamingCommandResult)response.getResult());
+                return;
+            }
             // Here we directly use `toString` to encode the result to plain text.
             byte[] buffer = response.getResult().toString().getBytes(SentinelConfig.charset());
             writeResponse(printWriter, StatusCode.OK, new String(buffer));
@@ -331,6 +365,55 @@ public class HttpEventTask implements Runnable {
         writtenHead = true;
     }
 
+    private void writeBinaryResponse(PrintWriter out, OutputStream outputStream, BinaryCommandResult result)
+        throws IOException {
+        StringBuilder head = new StringBuilder("HTTP/1.0 ").append(StatusCode.OK.toString()).append("\r\n");
+        if (result.getContentType() != null) {
+            head.append("Content-Type: ").append(result.getContentType()).append("\r\n");
+        }
+        if (result.getContentEncoding() != null) {
+            head.append("Content-Encoding: ").append(result.getContentEncoding()).append("\r\n");
+        }
+        head.append("Content-Length: ").append(result.getData().length).append("\r\n")
+            .append("Connection: close\r\n\r\n");
+        out.print(head);
+        out.flush();
+        writtenHead = true;
+        // The body is written to the underlying stream directly, as it's not text.
+        outputStream.write(result.getData());
+        outputStream.flush();
+    }
+
+    /**
+     * Write the streaming result. The content is written to the connection as it's produced
+     * without Content-Length, and the end of the body is marked by closing the connection.
+     */
+    private void writeStreamingResponse(final PrintWriter out, final OutputStream outputStream,
+                                        StreamingCommandResult result) throws IOException {
+        ChunkedOutputStream chunkedStream = new ChunkedOutputStream() {
+            @Override
+            protected void writeChunk(byte[] b, int off, int len) throws IOException {
+                if (!writtenHead) {
+                    out.print("HTTP/1.0 " + StatusCode.OK.toString() + "\r\n"
+                        + "Connection: close\r\n\r\n");
+                    out.flush();
+                    writtenHead = true;
+                }
+                outputStream.write(b, off, len);
+            }
+        };
+        Writer writer = new OutputStreamWriter(chunkedStream, Charset.forName(SentinelConfig.charset()));
+        result.writeTo(writer);
+        writer.flush();
+        if (chunkedStream.isStreaming()) {
+            chunkedStream.finish();
+            outputStream.flush();
+        } else {
+            // Small enough to be sent with Content-Length.
+            writeResponse(out, StatusCode.OK, new String(chunkedStream.toByteArray(), SentinelConfig.charset()));
+        }
+    }
+
     /**
      * Parse raw HTTP request line to a {@link CommandRequest}.
      *
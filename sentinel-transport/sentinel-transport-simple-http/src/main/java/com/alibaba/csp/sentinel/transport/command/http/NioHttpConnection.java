@@ -0,0 +1,761 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.transport.command.http;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.csp.sentinel.command.BinaryCommandResult;
+import com.alibaba.csp.sentinel.command.CommandHandler;
+import com.alibaba.csp.sentinel.command.CommandRequest;
+import com.alibaba.csp.sentinel.command.CommandResponse;
+import com.alibaba.csp.sentinel.command.StreamingCommandResult;
+import com.alibaba.csp.sentinel.config.SentinelConfig;
+import com.alibaba.csp.sentinel.transport.command.SimpleHttpCommandCenter;
+import com.alibaba.csp.sentinel.transport.log.CommandCenterLog;
+import com.alibaba.csp.sentinel.transport.util.ChunkedOutputStream;
+import com.alibaba.csp.sentinel.transport.util.HttpCommandUtils;
+import com.alibaba.csp.sentinel.util.StringUtil;
+
+/**
+ * <p>A keep-alive connection of the {@link NioHttpServer}.</p>
+ *
+ * <p>Reading, parsing and writing happen in the selector thread only. Each parsed request becomes an
+ * {@link Exchange} queued in arrival order; the command handler completes it in the biz executor, and the
+ * responses are written strictly in the queue order, so pipelined requests are answered in order.</p>
+ *
+ * @since 1.8.7
+ */
+final class NioHttpConnection {
+
+    /**
+     * Bodies up to this size are copied with the head in one buffer. Text bodies larger than
+     * {@link #CHUNKED_THRESHOLD} are encoded and sent in chunks of this size.
+     */
+    static final int CHUNK_SIZE = 16 * 1024;
+    static final int CHUNKED_THRESHOLD = 32 * 1024;
+
+    private static final int INITIAL_READ_BUFFER_SIZE = 4096;
+    private static final int WRITE_BUFFER_SIZE = 32 * 1024;
+
+    private static final Charset ASCII = Charset.forName("US-ASCII");
+    private static final byte[] CRLF = {'\r', '\n'};
+    private static final byte[] LAST_CHUNK = {'0', '\r', '\n', '\r', '\n'};
+
+    private final NioHttpServer server;
+    private final SocketChannel channel;
+    private final InetAddress remoteAddress;
+    private final Charset charset = Charset.forName(SentinelConfig.charset());
+
+    private SelectionKey key;
+
+    /**
+     * Received bytes not parsed yet, in write mode.
+     */
+    private ByteBuffer readBuffer = ByteBuffer.allocate(INITIAL_READ_BUFFER_SIZE);
+    /**
+     * Bytes to be sent, in read mode.
+     */
+    private final ByteBuffer writeBuffer = ByteBuffer.allocate(WRITE_BUFFER_SIZE);
+    private final ArrayDeque<Exchange> exchanges = new ArrayDeque<>();
+
+    /**
+     * Request line and headers of the request whose body is being received.
+     */
+    private String requestLine;
+    private Map<String, String> headers;
+    private int contentLength;
+
+    /**
+     * Whether no more requests will be read, e.g. after {@code Connection: close} or a malformed request.
+     */
+    private boolean noMoreRequests;
+    private boolean inputShutdown;
+    /**
+     * Also read by the biz threads streaming the responses.
+     */
+    private volatile boolean closed;
+
+    private long lastActiveTime = System.currentTimeMillis();
+    private long requestStartTime;
+
+    NioHttpConnection(NioHttpServer server, SocketChannel channel) {
+        this.server = server;
+        this.channel = channel;
+        this.remoteAddress = channel.socket().getInetAddress();
+        writeBuffer.flip();
+    }
+
+    void register(Selector selector) throws IOException {
+        this.key = channel.register(selector, SelectionKey.OP_READ, this);
+    }
+
+    void handleIo(SelectionKey key) {
+        try {
+            if (key.isReadable()) {
+                int n = channel.read(readBuffer);
+                if (n < 0) {
+                    inputShutdown = true;
+                } else if (n > 0) {
+                    lastActiveTime = System.currentTimeMillis();
+                    if (requestStartTime == 0) {
+                        requestStartTime = lastActiveTime;
+                    }
+                }
+            }
+            process();
+        } catch (IOException e) {
+            close();
+        }
+    }
+
+    /**
+     * Write the responses that are ready. Called in the selector thread.
+     */
+    void flush() {
+        try {
+            process();
+        } catch (IOException e) {
+            close();
+        }
+    }
+
+    private void process() throws IOException {
+        if (closed) {
+            return;
+        }
+        while (true) {
+            parseRequests();
+            int written = writeResponses();
+            if (closed) {
+                return;
+            }
+            if (written == 0) {
+                break;
+            }
+            // Some pipelined requests may be waiting for the in-flight ones to be answered.
+        }
+        if (inputShutdown && exchanges.isEmpty()) {
+            close();
+            return;
+        }
+        int ops = 0;
+        if (!noMoreRequests && !inputShutdown && exchanges.size() < NioHttpServer.MAX_PIPELINED_REQUESTS) {
+            ops |= SelectionKey.OP_READ;
+        }
+        if (writeBuffer.hasRemaining()) {
+            ops |= SelectionKey.OP_WRITE;
+        }
+        if (key.interestOps() != ops) {
+            key.interestOps(ops);
+        }
+    }
+
+    boolean isTimedOut(long now) {
+        if (writeBuffer.hasRemaining()) {
+            // The peer doesn't read the response.
+            return now - lastActiveTime > NioHttpServer.KEEP_ALIVE_TIMEOUT_MS;
+        }
+        if (!exchanges.isEmpty()) {
+            // Waiting for the command handlers.
+            return false;
+        }
+        if (requestStartTime > 0) {
+            return now - requestStartTime > NioHttpServer.REQUEST_TIMEOUT_MS;
+        }
+        return now - lastActiveTime > NioHttpServer.KEEP_ALIVE_TIMEOUT_MS;
+    }
+
+    void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (key != null) {
+            key.cancel();
+        }
+        for (Exchange exchange : exchanges) {
+            if (exchange.ready && exchange.body instanceof StreamingBody) {
+                ((StreamingBody)exchange.body).abort();
+            }
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            CommandCenterLog.info("[NioHttpServer] Error when closing the connection", e);
+        }
+        server.onClosed(this);
+    }
+
+    private void parseRequests() {
+        while (!noMoreRequests && exchanges.size() < NioHttpServer.MAX_PIPELINED_REQUESTS) {
+            if (requestLine == null && !parseHead()) {
+                return;
+            }
+            if (readBuffer.position() < contentLength) {
+                ensureCapacity(contentLength);
+                return;
+            }
+            String body = contentLength > 0 ? new String(readBuffer.array(), 0, contentLength, charset) : null;
+            consume(contentLength);
+            String line = requestLine;
+            Map<String, String> headerMap = headers;
+            requestLine = null;
+            headers = null;
+            contentLength = 0;
+            requestStartTime = readBuffer.position() > 0 ? System.currentTimeMillis() : 0;
+            dispatch(line, headerMap, body);
+        }
+    }
+
+    /**
+     * @return true if the request line and headers have been parsed
+     */
+    private boolean parseHead() {
+        byte[] data = readBuffer.array();
+        int size = readBuffer.position();
+        // Ignore the empty lines before the request line (RFC 7230, section 3.5).
+        int start = 0;
+        while (start + 1 < size && data[start] == '\r' && data[start + 1] == '\n') {
+            start += 2;
+        }
+        if (start > 0) {
+            consume(start);
+            size -= start;
+        }
+        int end = indexOfHeadEnd(data, size);
+        if (end < 0) {
+            if (size >= NioHttpServer.MAX_HEADER_SIZE) {
+                reject(StatusCode.REQUEST_HEADER_FIELDS_TOO_LARGE, "Request header is too large");
+            } else if (!readBuffer.hasRemaining()) {
+                ensureCapacity(Math.min(readBuffer.capacity() * 2, NioHttpServer.MAX_HEADER_SIZE));
+            }
+            return false;
+        }
+        if (end > NioHttpServer.MAX_HEADER_SIZE) {
+            reject(StatusCode.REQUEST_HEADER_FIELDS_TOO_LARGE, "Request header is too large");
+            return false;
+        }
+        int lineEnd = 0;
+        while (data[lineEnd] != '\n') {
+            lineEnd++;
+        }
+        String line = new String(data, 0, lineEnd > 0 && data[lineEnd - 1] == '\r' ? lineEnd - 1 : lineEnd, charset);
+        Map<String, String> headerMap;
+        try {
+            headerMap = HttpEventTask.parsePostHeaders(new ByteArrayInputStream(data, lineEnd + 1,
+                end - lineEnd - 1));
+        } catch (IOException e) {
+            // Never happens when reading from the memory.
+            reject(StatusCode.BAD_REQUEST, "Illegal request header");
+            return false;
+        }
+        consume(end);
+
+        int length = 0;
+        if (headerMap.containsKey("transfer-encoding")) {
+            reject(StatusCode.LENGTH_REQUIRED, "Chunked request body is not supported");
+            return false;
+        }
+        String lengthValue = headerMap.get("content-length");
+        if (lengthValue != null) {
+            try {
+                length = Integer.parseInt(lengthValue);
+            } catch (NumberFormatException e) {
+                length = -1;
+            }
+            if (length < 0) {
+                reject(StatusCode.BAD_REQUEST, "Illegal Content-Length");
+                return false;
+            }
+        }
+        if (length > NioHttpServer.MAX_BODY_SIZE) {
+            reject(StatusCode.PAYLOAD_TOO_LARGE, "Request body is too large");
+            return false;
+        }
+        this.requestLine = line;
+        this.headers = headerMap;
+        this.contentLength = length;
+        return true;
+    }
+
+    /**
+     * @return index right after the blank line that ends the head, or -1 if not received yet
+     */
+    private static int indexOfHeadEnd(byte[] data, int size) {
+        for (int i = 3; i < size; i++) {
+            if (data[i] == '\n' && data[i - 1] == '\r' && data[i - 2] == '\n' && data[i - 3] == '\r') {
+                return i + 1;
+            }
+        }
+        return -1;
+    }
+
+    private void consume(int n) {
+        if (n <= 0) {
+            return;
+        }
+        readBuffer.flip();
+        readBuffer.position(n);
+        readBuffer.compact();
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (readBuffer.capacity() >= capacity) {
+            return;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(capacity);
+        readBuffer.flip();
+        buffer.put(readBuffer);
+        readBuffer = buffer;
+    }
+
+    private void dispatch(final String line, Map<String, String> headerMap, String body) {
+        boolean http10 = line.endsWith("HTTP/1.0");
+        String connection = headerMap.get("connection");
+        boolean keepAlive = http10 ? "keep-alive".equalsIgnoreCase(connection) : !"close".equalsIgnoreCase(connection);
+        final Exchange exchange = new Exchange(http10, keepAlive);
+        exchanges.add(exchange);
+        if (!keepAlive) {
+            noMoreRequests = true;
+        }
+
+        final CommandRequest request = HttpEventTask.processQueryString(line);
+        HttpEventTask.addNegotiationHeaders(headerMap, request);
+        if (line.length() > 4 && StringUtil.equalsIgnoreCase("POST", line.substring(0, 4))) {
+            String contentType = headerMap.get("content-type");
+            if (contentType != null && !HttpEventTask.checkContentTypeSupported(contentType)) {
+                CommandCenterLog.warn("Request not supported: unsupported Content-Type: " + contentType);
+                complete(exchange, StatusCode.UNSUPPORTED_MEDIA_TYPE, "Only form-encoded post request is supported");
+                return;
+            }
+            if (body == null) {
+                CommandCenterLog.warn("Request not supported: no available Content-Length in headers");
+                complete(exchange, StatusCode.LENGTH_REQUIRED, "No legal Content-Length");
+                return;
+            }
+            HttpEventTask.parseParams(body, request);
+        }
+
+        boolean accepted = server.execute(new Runnable() {
+            @Override
+            public void run() {
+                handle(exchange, request, line);
+            }
+        });
+        if (!accepted) {
+            CommandCenterLog.info("EventTask rejected");
+            complete(exchange, StatusCode.SERVICE_UNAVAILABLE, "Command center is busy");
+        }
+    }
+
+    private void reject(StatusCode statusCode, String message) {
+        CommandCenterLog.warn("[NioHttpServer] Bad request from " + remoteAddress + ": " + message);
+        Exchange exchange = new Exchange(false, false);
+        exchanges.add(exchange);
+        noMoreRequests = true;
+        complete(exchange, statusCode, message);
+    }
+
+    /**
+     * Handle the request in the biz executor.
+     */
+    private void handle(Exchange exchange, CommandRequest request, String line) {
+        long start = System.currentTimeMillis();
+        try {
+            // Validate the target command.
+            String commandName = HttpCommandUtils.getTarget(request);
+            if (StringUtil.isBlank(commandName)) {
+                complete(exchange, StatusCode.BAD_REQUEST, HttpEventTask.INVALID_COMMAND_MESSAGE);
+                return;
+            }
+            // Find the matching command handler.
+            CommandHandler<?> commandHandler = SimpleHttpCommandCenter.getHandler(commandName);
+            if (commandHandler == null) {
+                complete(exchange, StatusCode.BAD_REQUEST, "Unknown command `" + commandName + '`');
+                return;
+            }
+            complete(exchange, HttpCommandUtils.handleStreaming(commandHandler, request));
+
+            long cost = System.currentTimeMillis() - start;
+            CommandCenterLog.info("[SimpleHttpCommandCenter] Deal a socket task: " + line
+                + ", address: " + remoteAddress + ", time cost: " + cost + " ms");
+        } catch (Throwable e) {
+            CommandCenterLog.warn("[SimpleHttpCommandCenter] CommandCenter error", e);
+            complete(exchange, StatusCode.INTERNAL_SERVER_ERROR, HttpEventTask.SERVER_ERROR_MESSAGE);
+        } finally {
+            server.responseReady(this);
+        }
+    }
+
+    private void complete(Exchange exchange, CommandResponse<?> response) throws IOException {
+        if (!response.isSuccess()) {
+            String msg = HttpEventTask.SERVER_ERROR_MESSAGE;
+            if (response.getException() != null) {
+                msg = response.getException().getMessage();
+            }
+            complete(exchange, StatusCode.BAD_REQUEST, msg);
+            return;
+        }
+        Object result = response.getResult();
+        if (result instanceof StreamingCommandResult) {
+            stream(exchange, (StreamingCommandResult)result);
+        } else if (result instanceof BinaryCommandResult) {
+            BinaryCommandResult binary = (BinaryCommandResult)result;
+            complete(exchange, StatusCode.OK, binary.getContentType(), binary.getContentEncoding(),
+                binary.getData());
+        } else {
+            // Here we directly use `toString` to encode the result to plain text.
+            complete(exchange, StatusCode.OK, result == null ? null : result.toString());
+        }
+    }
+
+    /**
+     * Write the streaming result in current biz thread. The content is sent in chunks as it's written,
+     * unless it fits in one chunk or the request is HTTP/1.0, which doesn't support chunked body.
+     */
+    private void stream(final Exchange exchange, StreamingCommandResult result) throws IOException {
+        if (exchange.http10) {
+            complete(exchange, StatusCode.OK, result.toString());
+            return;
+        }
+        final StreamingBody body = new StreamingBody();
+        ChunkedOutputStream out = new ChunkedOutputStream(CHUNK_SIZE) {
+            @Override
+            protected void writeChunk(byte[] b, int off, int len) throws IOException {
+                if (closed) {
+                    throw new IOException("Connection closed");
+                }
+                exchange.complete(ByteBuffer.wrap(head(exchange, StatusCode.OK, null, null, -1)), body);
+                body.offer(b, off, len);
+                server.responseReady(NioHttpConnection.this);
+            }
+        };
+        Writer writer = new OutputStreamWriter(out, charset);
+        try {
+            result.writeTo(writer);
+            writer.flush();
+            out.finish();
+        } catch (IOException | RuntimeException e) {
+            if (!out.isStreaming()) {
+                throw e;
+            }
+            // The head has been sent, so just break the response.
+            CommandCenterLog.warn("[SimpleHttpCommandCenter] Error when streaming the response", e);
+            body.abort();
+            return;
+        }
+        if (out.isStreaming()) {
+            body.complete();
+        } else {
+            complete(exchange, StatusCode.OK, null, null, out.toByteArray());
+        }
+    }
+
+    private void complete(Exchange exchange, StatusCode statusCode, String message) {
+        if (message != null && message.length() > CHUNKED_THRESHOLD && !exchange.http10) {
+            CharsetEncoder encoder = charset.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+            exchange.complete(ByteBuffer.wrap(head(exchange, statusCode, null, null, -1)),
+                new ChunkedTextBody(CharBuffer.wrap(message), encoder));
+            return;
+        }
+        byte[] data = message == null ? new byte[0] : message.getBytes(charset);
+        complete(exchange, statusCode, null, null, data);
+    }
+
+    private void complete(Exchange exchange, StatusCode statusCode, String contentType, String contentEncoding,
+                          byte[] data) {
+        byte[] head = head(exchange, statusCode, contentType, contentEncoding, data.length);
+        if (data.length > CHUNK_SIZE) {
+            exchange.complete(ByteBuffer.wrap(head), new FixedBody(data));
+            return;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(head.length + data.length);
+        buffer.put(head).put(data).flip();
+        exchange.complete(buffer, null);
+    }
+
+    /**
+     * @param contentLength length of the body, or -1 for chunked body
+     */
+    private static byte[] head(Exchange exchange, StatusCode statusCode, String contentType,
+                               String contentEncoding, int contentLength) {
+        StringBuilder head = new StringBuilder(128)
+            .append(exchange.http10 ? "HTTP/1.0 " : "HTTP/1.1 ").append(statusCode.toString()).append("\r\n");
+        if (contentType != null) {
+            head.append("Content-Type: ").append(contentType).append("\r\n");
+        }
+        if (contentEncoding != null) {
+            head.append("Content-Encoding: ").append(contentEncoding).append("\r\n");
+        }
+        if (contentLength >= 0) {
+            head.append("Content-Length: ").append(contentLength).append("\r\n");
+        } else {
+            head.append("Transfer-Encoding: chunked\r\n");
+        }
+        if (!exchange.keepAlive) {
+            head.append("Connection: close\r\n");
+        } else if (exchange.http10) {
+            head.append("Connection: keep-alive\r\n");
+        }
+        return head.append("\r\n").toString().getBytes(ASCII);
+    }
+
+    /**
+     * @return number of the exchanges that have been completely written
+     */
+    private int writeResponses() throws IOException {
+        int written = 0;
+        while (true) {
+            if (writeBuffer.hasRemaining()) {
+                channel.write(writeBuffer);
+                if (writeBuffer.hasRemaining()) {
+                    return written;
+                }
+                lastActiveTime = System.currentTimeMillis();
+            }
+            Exchange current = exchanges.peek();
+            if (current == null || !current.ready) {
+                return written;
+            }
+            writeBuffer.clear();
+            int n = current.head.hasRemaining() ? transfer(current.head, writeBuffer)
+                : current.body == null ? ResponseBody.END : current.body.writeTo(writeBuffer);
+            writeBuffer.flip();
+            if (n == ResponseBody.END) {
+                exchanges.poll();
+                written++;
+                if (!current.keepAlive) {
+                    close();
+                    return written;
+                }
+            } else if (n == ResponseBody.ABORTED) {
+                // The response is broken, the peer should notice it by the connection closing.
+                close();
+                return written;
+            } else if (n == 0) {
+                // Waiting for the streaming body.
+                return written;
+            }
+        }
+    }
+
+    private static int transfer(ByteBuffer src, ByteBuffer dst) {
+        int n = Math.min(src.remaining(), dst.remaining());
+        int limit = src.limit();
+        src.limit(src.position() + n);
+        dst.put(src);
+        src.limit(limit);
+        return n;
+    }
+
+    /**
+     * A request waiting for its response.
+     */
+    static final class Exchange {
+
+        final boolean http10;
+        final boolean keepAlive;
+
+        private ByteBuffer head;
+        private ResponseBody body;
+        /**
+         * Set by the biz thread after the head and body, then read by the selector thread.
+         */
+        private volatile boolean ready;
+
+        Exchange(boolean http10, boolean keepAlive) {
+            this.http10 = http10;
+            this.keepAlive = keepAlive;
+        }
+
+        void complete(ByteBuffer head, ResponseBody body) {
+            if (ready) {
+                return;
+            }
+            this.head = head;
+            this.body = body;
+            this.ready = true;
+        }
+    }
+
+    /**
+     * Body of a response that is written piece by piece when the connection becomes writable.
+     */
+    interface ResponseBody {
+
+        int END = -1;
+        int ABORTED = -2;
+
+        /**
+         * Write the next piece of the body.
+         *
+         * @param dst an empty buffer of at least {@code 2 * CHUNK_SIZE} bytes
+         * @return number of bytes written, 0 if the next piece is not available yet, {@link #END} if
+         * there is nothing left to write, or {@link #ABORTED} if the body cannot be completed
+         */
+        int writeTo(ByteBuffer dst);
+    }
+
+    static final class FixedBody implements ResponseBody {
+
+        private final ByteBuffer data;
+
+        FixedBody(byte[] data) {
+            this.data = ByteBuffer.wrap(data);
+        }
+
+        @Override
+        public int writeTo(ByteBuffer dst) {
+            return data.hasRemaining() ? transfer(data, dst) : END;
+        }
+    }
+
+    /**
+     * Text body encoded lazily and sent with the chunked transfer coding, so that a large result
+     * is never copied into a byte array as a whole.
+     */
+    static final class ChunkedTextBody implements ResponseBody {
+
+        private final CharBuffer text;
+        private final CharsetEncoder encoder;
+        private final ByteBuffer chunk = ByteBuffer.allocate(CHUNK_SIZE);
+
+        private boolean flushing;
+        private boolean encoded;
+        private boolean finished;
+
+        ChunkedTextBody(CharBuffer text, CharsetEncoder encoder) {
+            this.text = text;
+            this.encoder = encoder;
+        }
+
+        @Override
+        public int writeTo(ByteBuffer dst) {
+            if (finished) {
+                return END;
+            }
+            int start = dst.position();
+            chunk.clear();
+            if (!flushing) {
+                flushing = encoder.encode(text, chunk, true).isUnderflow();
+            }
+            if (flushing) {
+                encoded = encoder.flush(chunk).isUnderflow();
+            }
+            chunk.flip();
+            putChunk(chunk, dst);
+            if (encoded) {
+                dst.put(LAST_CHUNK);
+                finished = true;
+            }
+            return dst.position() - start;
+        }
+    }
+
+    /**
+     * Body of a {@link StreamingCommandResult}, produced by the biz thread and consumed by the selector
+     * thread. The producer is blocked when too many chunks are waiting to be sent.
+     */
+    static final class StreamingBody implements ResponseBody {
+
+        private static final int MAX_PENDING_CHUNKS = 4;
+
+        private final BlockingQueue<ByteBuffer> chunks = new ArrayBlockingQueue<>(MAX_PENDING_CHUNKS);
+        private volatile boolean completed;
+        private volatile boolean aborted;
+        private boolean finished;
+
+        /**
+         * Called by the producer.
+         */
+        void offer(byte[] b, int off, int len) throws IOException {
+            ByteBuffer chunk = ByteBuffer.allocate(len);
+            chunk.put(b, off, len).flip();
+            try {
+                if (aborted || !chunks.offer(chunk, NioHttpServer.KEEP_ALIVE_TIMEOUT_MS, TimeUnit.MILLISECONDS)
+                    || aborted) {
+                    throw new IOException("Connection closed or timed out");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted when writing the response");
+            }
+        }
+
+        /**
+         * Called by the producer when all the chunks have been offered.
+         */
+        void complete() {
+            completed = true;
+        }
+
+        /**
+         * Called when the body cannot be completed, either by the producer or the connection.
+         */
+        void abort() {
+            aborted = true;
+            // Wake up the blocked producer.
+            chunks.clear();
+        }
+
+        @Override
+        public int writeTo(ByteBuffer dst) {
+            if (finished) {
+                return END;
+            }
+            if (aborted) {
+                return ABORTED;
+            }
+            boolean last = completed;
+            int start = dst.position();
+            ByteBuffer chunk;
+            while (dst.remaining() >= CHUNK_SIZE + 16 && (chunk = chunks.poll()) != null) {
+                putChunk(chunk, dst);
+            }
+            if (last && chunks.isEmpty()) {
+                dst.put(LAST_CHUNK);
+                finished = true;
+            }
+            return dst.position() - start;
+        }
+    }
+
+    private static void putChunk(ByteBuffer chunk, ByteBuffer dst) {
+        if (chunk.hasRemaining()) {
+            dst.put(Integer.toHexString(chunk.remaining()).getBytes(ASCII)).put(CRLF);
+            dst.put(chunk).put(CRLF);
+        }
+    }
+}
@@ -0,0 +1,235 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.transport.command.http;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.Socket;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+
+import com.alibaba.csp.sentinel.transport.log.CommandCenterLog;
+import com.alibaba.csp.sentinel.util.AssertUtil;
+
+/**
+ * <p>A non-blocking HTTP/1.1 server of the simple command center, based on a single selector thread.</p>
+ *
+ * <p>Connections are kept alive (HTTP/1.1 by default, HTTP/1.0 with {@code Connection: keep-alive}), and requests
+ * pipelined on a connection are answered in order. The selector thread only reads, parses and writes; command
+ * handlers run in the biz executor, so a slow command never blocks other connections. Large text responses
+ * are encoded and sent in chunks ({@code Transfer-Encoding: chunked}) as the socket becomes writable, instead of
+ * being copied into one big buffer.</p>
+ *
+ * <p>Requests are limited to {@link #MAX_HEADER_SIZE} bytes of headers and {@link #MAX_BODY_SIZE} bytes of body.
+ * Idle connections are closed after {@link #KEEP_ALIVE_TIMEOUT_MS}, and connections stuck in the middle of
+ * a request are closed after {@link #REQUEST_TIMEOUT_MS}.</p>
+ *
+ * @since 1.8.7
+ */
+public class NioHttpServer {
+
+    public static final int MAX_HEADER_SIZE = 16 * 1024;
+    public static final int MAX_BODY_SIZE = 8 * 1024 * 1024;
+    public static final long KEEP_ALIVE_TIMEOUT_MS = 30 * 1000;
+    public static final long REQUEST_TIMEOUT_MS = 3000;
+
+    /**
+     * Stop reading a connection when so many requests are waiting for their responses.
+     */
+    static final int MAX_PIPELINED_REQUESTS = 16;
+    static final int MAX_CONNECTIONS = 512;
+
+    private static final long SELECT_TIMEOUT_MS = 1000;
+
+    private final ServerSocketChannel serverChannel;
+    private final ExecutorService bizExecutor;
+    private final Selector selector;
+
+    /**
+     * Connections with new responses to write, handed over from the biz threads to the selector thread.
+     */
+    private final Queue<NioHttpConnection> pendingWrites = new ConcurrentLinkedQueue<>();
+    /**
+     * Accessed only by the selector thread.
+     */
+    private final Set<NioHttpConnection> connections = new HashSet<>();
+
+    private volatile boolean running;
+    private Thread selectorThread;
+
+    public NioHttpServer(ServerSocketChannel serverChannel, ExecutorService bizExecutor) throws IOException {
+        AssertUtil.notNull(serverChannel, "serverChannel cannot be null");
+        AssertUtil.notNull(bizExecutor, "bizExecutor cannot be null");
+        this.serverChannel = serverChannel;
+        this.bizExecutor = bizExecutor;
+        this.selector = Selector.open();
+    }
+
+    public synchronized void start() throws IOException {
+        if (running) {
+            return;
+        }
+        serverChannel.configureBlocking(false);
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        running = true;
+        selectorThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                loop();
+            }
+        }, "sentinel-command-center-nio-selector");
+        selectorThread.setDaemon(true);
+        selectorThread.start();
+    }
+
+    public synchronized void stop() {
+        running = false;
+        selector.wakeup();
+        if (selectorThread != null) {
+            try {
+                selectorThread.join(SELECT_TIMEOUT_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    public int getLocalPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    private void loop() {
+        long lastCheckTime = System.currentTimeMillis();
+        while (running) {
+            try {
+                selector.select(SELECT_TIMEOUT_MS);
+                Iterator<SelectionKey> it = selector.selectedKeys().iterator();
+                while (it.hasNext()) {
+                    SelectionKey key = it.next();
+                    it.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        accept();
+                    } else {
+                        ((NioHttpConnection)key.attachment()).handleIo(key);
+                    }
+                }
+                NioHttpConnection connection;
+                while ((connection = pendingWrites.poll()) != null) {
+                    connection.flush();
+                }
+                long now = System.currentTimeMillis();
+                if (now - lastCheckTime >= SELECT_TIMEOUT_MS) {
+                    lastCheckTime = now;
+                    closeTimedOutConnections(now);
+                }
+            } catch (Throwable e) {
+                CommandCenterLog.warn("[NioHttpServer] Error in selector loop", e);
+            }
+        }
+        closeAll();
+    }
+
+    private void accept() {
+        SocketChannel channel = null;
+        try {
+            while ((channel = serverChannel.accept()) != null) {
+                if (connections.size() >= MAX_CONNECTIONS) {
+                    CommandCenterLog.info("[NioHttpServer] Too many connections, reject: " + channel.socket()
+                        .getRemoteSocketAddress());
+                    channel.close();
+                    continue;
+                }
+                channel.configureBlocking(false);
+                Socket socket = channel.socket();
+                socket.setTcpNoDelay(true);
+                NioHttpConnection connection = new NioHttpConnection(this, channel);
+                connection.register(selector);
+                connections.add(connection);
+            }
+        } catch (IOException e) {
+            CommandCenterLog.info("[NioHttpServer] Accept error", e);
+            closeQuietly(channel);
+        }
+    }
+
+    private void closeTimedOutConnections(long now) {
+        for (NioHttpConnection connection : new ArrayList<>(connections)) {
+            if (connection.isTimedOut(now)) {
+                connection.close();
+            }
+        }
+    }
+
+    private void closeAll() {
+        for (NioHttpConnection connection : new ArrayList<>(connections)) {
+            connection.close();
+        }
+        closeQuietly(serverChannel);
+        try {
+            selector.close();
+        } catch (IOException e) {
+            CommandCenterLog.warn("[NioHttpServer] Error when closing the selector", e);
+        }
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        if (closeable != null) {
+            try {
+                closeable.close();
+            } catch (IOException ignore) {
+            }
+        }
+    }
+
+    void onClosed(NioHttpConnection connection) {
+        connections.remove(connection);
+    }
+
+    /**
+     * Run the task of a request in the biz executor.
+     *
+     * @return false if the biz executor is full
+     */
+    boolean execute(Runnable task) {
+        try {
+            bizExecutor.execute(task);
+            return true;
+        } catch (RejectedExecutionException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Called by the biz threads when a response of the connection is ready.
+     */
+    void responseReady(NioHttpConnection connection) {
+        pendingWrites.offer(connection);
+        selector.wakeup();
+    }
+}
@@ -0,0 +1,304 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.transport.command.http;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.charset.Charset;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.alibaba.csp.sentinel.command.CommandHandler;
+import com.alibaba.csp.sentinel.command.CommandRequest;
+import com.alibaba.csp.sentinel.command.CommandResponse;
+import com.alibaba.csp.sentinel.command.StreamingCommandResult;
+import com.alibaba.csp.sentinel.transport.command.SimpleHttpCommandCenter;
+
+public class NioHttpServerTest {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final int LARGE_RESULT_SIZE = 200 * 1024;
+
+    private ExecutorService executor;
+    private NioHttpServer server;
+
+    @BeforeClass
+    public static void registerCommands() {
+        SimpleHttpCommandCenter.registerCommand("nioTestEcho", new CommandHandler<String>() {
+            @Override
+            public CommandResponse<String> handle(CommandRequest request) {
+                return CommandResponse.ofSuccess("echo:" + request.getParam("v"));
+            }
+        });
+        SimpleHttpCommandCenter.registerCommand("nioTestLarge", new CommandHandler<String>() {
+            @Override
+            public CommandResponse<String> handle(CommandRequest request) {
+                StringBuilder sb = new StringBuilder(LARGE_RESULT_SIZE);
+                for (int i = 0; i < LARGE_RESULT_SIZE; i++) {
+                    sb.append((char)('a' + i % 26));
+                }
+                return CommandResponse.ofSuccess(sb.toString());
+            }
+        });
+        registerStreamingCommand();
+    }
+
+    private static void registerStreamingCommand() {
+        SimpleHttpCommandCenter.registerCommand("nioTestStream", new CommandHandler<StreamingCommandResult>() {
+            @Override
+            public CommandResponse<StreamingCommandResult> handle(CommandRequest request) {
+                final int lines = Integer.parseInt(request.getParam("lines"));
+                return CommandResponse.<StreamingCommandResult>ofSuccess(new StreamingCommandResult() {
+                    @Override
+                    public void writeTo(Writer writer) throws IOException {
+                        for (int i = 0; i < lines; i++) {
+                            writer.write("line-" + i + "\n");
+                        }
+                    }
+                });
+            }
+        });
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        executor = Executors.newFixedThreadPool(4);
+        ServerSocketChannel channel = ServerSocketChannel.open();
+        channel.socket().bind(new InetSocketAddress("127.0.0.1", 0));
+        server = new NioHttpServer(channel, executor);
+        server.start();
+    }
+
+    @After
+    public void tearDown() {
+        server.stop();
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testKeepAlive() throws Exception {
+        try (Socket socket = connect()) {
+            InputStream in = new BufferedInputStream(socket.getInputStream());
+            for (int i = 0; i < 3; i++) {
+                send(socket, "GET /nioTestEcho?v=" + i + " HTTP/1.1\r\nHost: localhost\r\n\r\n");
+                Response response = readResponse(in);
+                assertEquals(200, response.status);
+                assertNull(response.headers.get("connection"));
+                assertEquals("echo:" + i, response.body);
+            }
+        }
+    }
+
+    @Test
+    public void testPipelinedRequestsAnsweredInOrder() throws Exception {
+        try (Socket socket = connect()) {
+            StringBuilder requests = new StringBuilder();
+            for (int i = 0; i < 40; i++) {
+                requests.append("GET /nioTestEcho?v=").append(i).append(" HTTP/1.1\r\n\r\n");
+            }
+            send(socket, requests.toString());
+            InputStream in = new BufferedInputStream(socket.getInputStream());
+            for (int i = 0; i < 40; i++) {
+                Response response = readResponse(in);
+                assertEquals("echo:" + i, response.body);
+            }
+        }
+    }
+
+    @Test
+    public void testPostAndHttp10() throws Exception {
+        try (Socket socket = connect()) {
+            send(socket, "POST /nioTestEcho HTTP/1.0\r\nConnection: keep-alive\r\n"
+                + "Content-Type: application/x-www-form-urlencoded\r\nContent-Length: 5\r\n\r\nv=foo");
+            InputStream in = new BufferedInputStream(socket.getInputStream());
+            Response response = readResponse(in);
+            assertEquals(200, response.status);
+            assertEquals("keep-alive", response.headers.get("connection"));
+            assertEquals("echo:foo", response.body);
+
+            send(socket, "GET /nioTestEcho?v=bar HTTP/1.0\r\n\r\n");
+            response = readResponse(in);
+            assertEquals("echo:bar", response.body);
+            assertEquals("close", response.headers.get("connection"));
+            assertEquals(-1, in.read());
+        }
+    }
+
+    @Test
+    public void testConnectionClose() throws Exception {
+        try (Socket socket = connect()) {
+            send(socket, "GET /nioTestEcho?v=1 HTTP/1.1\r\nConnection: close\r\n\r\n"
+                + "GET /nioTestEcho?v=2 HTTP/1.1\r\n\r\n");
+            InputStream in = new BufferedInputStream(socket.getInputStream());
+            Response response = readResponse(in);
+            assertEquals("echo:1", response.body);
+            assertEquals(-1, in.read());
+        }
+    }
+
+    @Test
+    public void testBadRequests() throws Exception {
+        assertEquals(400, requestOnce("GET /unknownNioCommand HTTP/1.1\r\n\r\n").status);
+        assertEquals(415, requestOnce("POST /nioTestEcho HTTP/1.1\r\nContent-Type: application/json\r\n"
+            + "Content-Length: 2\r\n\r\n{}").status);
+        assertEquals(411, requestOnce("POST /nioTestEcho HTTP/1.1\r\n\r\n").status);
+        assertEquals(413, requestOnce("POST /nioTestEcho HTTP/1.1\r\nContent-Length: "
+            + (NioHttpServer.MAX_BODY_SIZE + 1) + "\r\n\r\n").status);
+    }
+
+    @Test
+    public void testHeaderTooLarge() throws Exception {
+        try (Socket socket = connect()) {
+            StringBuilder request = new StringBuilder("GET /nioTestEcho HTTP/1.1\r\n");
+            while (request.length() <= NioHttpServer.MAX_HEADER_SIZE) {
+                request.append("X-Padding: 0123456789012345678901234567890123456789\r\n");
+            }
+            send(socket, request.toString());
+            InputStream in = new BufferedInputStream(socket.getInputStream());
+            Response response = readResponse(in);
+            assertEquals(431, response.status);
+            assertEquals("close", response.headers.get("connection"));
+        }
+    }
+
+    @Test
+    public void testLargeResponseChunked() throws Exception {
+        try (Socket socket = connect()) {
+            InputStream in = new BufferedInputStream(socket.getInputStream());
+            send(socket, "GET /nioTestLarge HTTP/1.1\r\n\r\n");
+            Response response = readResponse(in);
+            assertEquals("chunked", response.headers.get("transfer-encoding"));
+            assertEquals(LARGE_RESULT_SIZE, response.body.length());
+            assertTrue(response.body.startsWith("abcdefghijklmnopqrstuvwxyzabc"));
+
+            // The connection is still usable after a chunked response.
+            send(socket, "GET /nioTestEcho?v=next HTTP/1.1\r\n\r\n");
+            assertEquals("echo:next", readResponse(in).body);
+        }
+    }
+
+    @Test
+    public void testStreamingResponse() throws Exception {
+        try (Socket socket = connect()) {
+            InputStream in = new BufferedInputStream(socket.getInputStream());
+            send(socket, "GET /nioTestStream?lines=3 HTTP/1.1\r\n\r\n");
+            Response response = readResponse(in);
+            // Small content is sent with Content-Length.
+            assertEquals("21", response.headers.get("content-length"));
+            assertEquals("line-0\nline-1\nline-2\n", response.body);
+
+            send(socket, "GET /nioTestStream?lines=50000 HTTP/1.1\r\n\r\n"
+                + "GET /nioTestEcho?v=after HTTP/1.1\r\n\r\n");
+            response = readResponse(in);
+            assertEquals("chunked", response.headers.get("transfer-encoding"));
+            String[] lines = response.body.split("\n");
+            assertEquals(50000, lines.length);
+            assertEquals("line-49999", lines[49999]);
+            assertEquals("echo:after", readResponse(in).body);
+        }
+    }
+
+    private Socket connect() throws IOException {
+        Socket socket = new Socket("127.0.0.1", server.getLocalPort());
+        socket.setSoTimeout(5000);
+        return socket;
+    }
+
+    private Response requestOnce(String request) throws IOException {
+        try (Socket socket = connect()) {
+            send(socket, request);
+            return readResponse(new BufferedInputStream(socket.getInputStream()));
+        }
+    }
+
+    private static void send(Socket socket, String data) throws IOException {
+        OutputStream out = socket.getOutputStream();
+        out.write(data.getBytes(UTF_8));
+        out.flush();
+    }
+
+    private static Response readResponse(InputStream in) throws IOException {
+        Response response = new Response();
+        String statusLine = readLine(in);
+        response.status = Integer.parseInt(statusLine.split(" ")[1]);
+        String line;
+        while (!(line = readLine(in)).isEmpty()) {
+            int idx = line.indexOf(':');
+            response.headers.put(line.substring(0, idx).trim().toLowerCase(), line.substring(idx + 1).trim());
+        }
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        if ("chunked".equals(response.headers.get("transfer-encoding"))) {
+            int size;
+            while ((size = Integer.parseInt(readLine(in), 16)) > 0) {
+                readFully(in, body, size);
+                readLine(in);
+            }
+            readLine(in);
+        } else {
+            readFully(in, body, Integer.parseInt(response.headers.get("content-length")));
+        }
+        response.body = new String(body.toByteArray(), UTF_8);
+        return response;
+    }
+
+    private static void readFully(InputStream in, ByteArrayOutputStream out, int size) throws IOException {
+        for (int i = 0; i < size; i++) {
+            int b = in.read();
+            if (b < 0) {
+                throw new IOException("Unexpected end of stream");
+            }
+            out.write(b);
+        }
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        int b;
+        while ((b = in.read()) != '\n') {
+            if (b < 0) {
+                throw new IOException("Unexpected end of stream");
+            }
+            if (b != '\r') {
+                sb.append((char)b);
+            }
+        }
+        return sb.toString();
+    }
+
+    private static class Response {
+        int status;
+        Map<String, String> headers = new HashMap<>();
+        String body;
+    }
+}
@@ -15,16 +15,23 @@
  */
 package com.alibaba.csp.sentinel.transport.command;
 
+import com.alibaba.csp.sentinel.command.BinaryCommandResult;
 import com.alibaba.csp.sentinel.command.CommandHandler;
 import com.alibaba.csp.sentinel.command.CommandRequest;
 import com.alibaba.csp.sentinel.command.CommandResponse;
+import com.alibaba.csp.sentinel.command.StreamingCommandResult;
 import com.alibaba.csp.sentinel.config.SentinelConfig;
 import com.alibaba.csp.sentinel.transport.command.http.StatusCode;
 import com.alibaba.csp.sentinel.transport.log.CommandCenterLog;
+import com.alibaba.csp.sentinel.transport.util.HttpCommandUtils;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
+import java.io.Writer;
 import java.util.Map;
 
 /**
@@ -41,10 +48,8 @@ public class SentinelApiHandler {
     }
 
     public void handle(HttpServletRequest httpServletRequest, HttpServletResponse httpServletResponse) {
-        PrintWriter printWriter = null;
         try {
             long start = System.currentTimeMillis();
-            printWriter = httpServletResponse.getWriter();
             CommandCenterLog.debug("[SentinelApiHandler] request income: {}", httpServletRequest.getRequestURL());
             CommandRequest request = new CommandRequest();
             Map<String, String[]> parameterMap = httpServletRequest.getParameterMap();
@@ -54,46 +59,87 @@ public class SentinelApiHandler {
                     request.addParam(entry.getKey(), value[0]);
                 }
             }
-            CommandResponse<?> response = commandHandler.handle(request);
-            handleResponse(response, httpServletResponse, printWriter);
+            // Pass the headers for content negotiation.
+            String accept = httpServletRequest.getHeader("Accept");
+            if (accept != null) {
+                request.addMetadata(HttpCommandUtils.REQUEST_HEADER_ACCEPT, accept);
+            }
+            String acceptEncoding = httpServletRequest.getHeader("Accept-Encoding");
+            if (acceptEncoding != null) {
+                request.addMetadata(HttpCommandUtils.REQUEST_HEADER_ACCEPT_ENCODING, acceptEncoding);
+            }
+            CommandResponse<?> response = HttpCommandUtils.handleStreaming(commandHandler, request);
+            handleResponse(response, httpServletResponse);
 
             long cost = System.currentTimeMillis() - start;
             CommandCenterLog.debug("[SentinelApiHandler] Deal request: {}, time cost: {} ms", httpServletRequest.getRequestURL(), cost);
         } catch (Throwable e) {
             CommandCenterLog.warn("[SentinelApiHandler] error", e);
             try {
-                if (printWriter != null) {
-                    writeResponse(httpServletResponse, printWriter, StatusCode.INTERNAL_SERVER_ERROR, SERVER_ERROR_MESSAGE);
-                }
+                writeResponse(httpServletResponse, StatusCode.INTERNAL_SERVER_ERROR, SERVER_ERROR_MESSAGE);
             } catch (Exception e1) {
                 CommandCenterLog.warn("Failed to write error response", e1);
             }
         }
     }
 
-    private void writeResponse(HttpServletResponse httpServletResponse, PrintWriter out, StatusCode statusCode, String message) {
+    private void writeResponse(HttpServletResponse httpServletResponse, StatusCode statusCode, String message)
+        throws IOException {
         httpServletResponse.setStatus(statusCode.getCode());
+        PrintWriter out = httpServletResponse.getWriter();
         if (message != null) {
             out.print(message);
         }
         out.flush();
     }
 
-    private <T> void handleResponse(CommandResponse<T> response, HttpServletResponse httpServletResponse, final PrintWriter printWriter) throws Exception {
+    private void writeBinaryResponse(HttpServletResponse httpServletResponse, BinaryCommandResult result)
+        throws IOException {
+        httpServletResponse.setStatus(StatusCode.OK.getCode());
+        if (result.getContentType() != null) {
+            httpServletResponse.setContentType(result.getContentType());
+        }
+        if (result.getContentEncoding() != null) {
+            httpServletResponse.setHeader("Content-Encoding", result.getContentEncoding());
+        }
+        httpServletResponse.setContentLength(result.getData().length);
+        OutputStream out = httpServletResponse.getOutputStream();
+        out.write(result.getData());
+        out.flush();
+    }
+
+    private void writeStreamingResponse(HttpServletResponse httpServletResponse, StreamingCommandResult result)
+        throws IOException {
+        httpServletResponse.setStatus(StatusCode.OK.getCode());
+        // The servlet container sends the content in chunks as it's written.
+        Writer writer = new OutputStreamWriter(httpServletResponse.getOutputStream(), SentinelConfig.charset());
+        result.writeTo(writer);
+        writer.flush();
+    }
+
+    private <T> void handleResponse(CommandResponse<T> response, HttpServletResponse httpServletResponse) throws Exception {
         if (response.isSuccess()) {
             if (response.getResult() == null) {
-                writeResponse(httpServletResponse, printWriter, StatusCode.OK, null);
+                writeResponse(httpServletResponse, StatusCode.OK, null);
+                return;
+            }
+            if (response.getResult() instanceof BinaryCommandResult) {
+                writeBinaryResponse(httpServletResponse, (BinaryCommandResult)response.getResult());
+                return;
+            }
+            if (response.getResult() instanceof StreamingCommandResult) {
+                writeStreamingResponse(httpServletResponse, (StreamingCommandResult)response.getResult());
                 return;
             }
             // Here we directly use `toString` to encode the result to plain text.
             byte[] buffer = response.getResult().toString().getBytes(SentinelConfig.charset());
-            writeResponse(httpServletResponse, printWriter, StatusCode.OK, new String(buffer));
+            writeResponse(httpServletResponse, StatusCode.OK, new String(buffer));
         } else {
             String msg = SERVER_ERROR_MESSAGE;
             if (response.getException() != null) {
                 msg = response.getException().getMessage();
             }
-            writeResponse(httpServletResponse, printWriter, StatusCode.BAD_REQUEST, msg);
+            writeResponse(httpServletResponse, StatusCode.BAD_REQUEST, msg);
         }
     }
 